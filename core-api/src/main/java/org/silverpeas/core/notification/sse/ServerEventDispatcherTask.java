@@ -31,6 +31,9 @@ import org.silverpeas.core.notification.sse.behavior.StoreLastOnly;
 import org.silverpeas.core.thread.ManagedThreadPool;
 import org.silverpeas.core.thread.task.AbstractRequestTask;
 import org.silverpeas.core.thread.task.RequestTaskManager;
+import org.silverpeas.core.util.metrics.Counter;
+import org.silverpeas.core.util.metrics.MetricRegistry;
+import org.silverpeas.core.util.metrics.Timer;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
@@ -61,6 +64,13 @@ public class ServerEventDispatcherTask extends AbstractRequestTask {
   private static final int MIN_LIFE_TIME = 40000;
   private static final Set<SilverpeasAsyncContext> synchronizedContexts =
       Collections.synchronizedSet(new LinkedHashSet<>(2000));
+  private static final Timer DISPATCH_TIMER = MetricRegistry.get().timer("silverpeas.sse.dispatch");
+  private static final Counter SEND_FAILURES =
+      MetricRegistry.get().counter("silverpeas.sse.send.failures");
+
+  static {
+    MetricRegistry.get().gauge("silverpeas.sse.contexts", synchronizedContexts::size);
+  }
 
   /**
    * Hidden constructor.
@@ -186,11 +196,16 @@ public class ServerEventDispatcherTask extends AbstractRequestTask {
 
     @Override
     public void process(Object context) {
-      final List<SilverpeasAsyncContext> safeContexts = getSafeContexts();
-      if (!safeContexts.isEmpty()) {
-        sendTo(safeContexts);
+      final long start = DISPATCH_TIMER.start();
+      try {
+        final List<SilverpeasAsyncContext> safeContexts = getSafeContexts();
+        if (!safeContexts.isEmpty()) {
+          sendTo(safeContexts);
+        }
+        serverEventStore.add(serverEventToDispatch);
+      } finally {
+        DISPATCH_TIMER.stop(start);
       }
-      serverEventStore.add(serverEventToDispatch);
     }
 
     private void push(final ServerEvent serverEventToDispatch,
@@ -226,6 +241,7 @@ public class ServerEventDispatcherTask extends AbstractRequestTask {
           }
         }
       } catch (IOException e) {
+        SEND_FAILURES.increment();
         SseLogger.get().error("Can not send SSE", e);
         unregisterAsyncContext(asyncContext);
       }
@@ -242,7 +258,7 @@ public class ServerEventDispatcherTask extends AbstractRequestTask {
       List<Future<Void>> sendResult;
       try {
         sendResult = ManagedThreadPool.getPool().invoke(threadedSends,
-            defaultConfig().withMaxThreadPoolSizeOf(getSseSendMaxThreadPool()));
+            defaultConfig().withMaxThreadPoolSizeOf(getSseSendMaxThreadPool()).withCategory("sse"));
       } catch (Exception e) {
         SseLogger.get().error(e);
         sendResult = emptyList();
@@ -27,7 +27,9 @@ package org.silverpeas.core.persistence;
 import org.silverpeas.core.util.Process;
 
 import javax.annotation.Resource;
+import javax.transaction.RollbackException;
 import javax.transaction.Status;
+import javax.transaction.Synchronization;
 import javax.transaction.SystemException;
 import javax.transaction.TransactionManager;
 import javax.transaction.Transactional;
@@ -87,6 +89,26 @@ public class Transaction {
     return getTransaction().getStatus();
   }
 
+  /**
+   * Executes the specified action once the transaction of the current thread is committed. If
+   * the transaction is rolled back, the action isn't executed. If there is no transaction in the
+   * current thread, the action is executed immediately.
+   * @param action the action to execute after the commit of the current transaction.
+   */
+  public static void afterCommit(final Runnable action) {
+    getTransaction().onCompletion(action, true);
+  }
+
+  /**
+   * Executes the specified action once the transaction of the current thread is completed,
+   * whatever it is committed or rolled back. If there is no transaction in the current thread,
+   * the action is executed immediately.
+   * @param action the action to execute after the completion of the current transaction.
+   */
+  public static void afterCompletion(final Runnable action) {
+    getTransaction().onCompletion(action, false);
+  }
+
   /**
    * The given process is executed in a transaction: support a current transaction,
    * create a new one if none exists.
@@ -133,6 +155,44 @@ public class Transaction {
     }
   }
 
+  /**
+   * Registers the specified action to be executed at the completion of the transaction of the
+   * current thread.
+   * @param action the action to execute.
+   * @param onlyOnCommit true if the action has to be executed only when the transaction is
+   * committed, false if it has to be executed whatever the outcome of the transaction.
+   */
+  public void onCompletion(final Runnable action, final boolean onlyOnCommit) {
+    try {
+      final int status = transactionManager == null ? Status.STATUS_NO_TRANSACTION :
+          transactionManager.getStatus();
+      if (status == Status.STATUS_ACTIVE) {
+        transactionManager.getTransaction().registerSynchronization(new Synchronization() {
+          @Override
+          public void beforeCompletion() {
+            // nothing to do
+          }
+
+          @Override
+          public void afterCompletion(final int completionStatus) {
+            if (!onlyOnCommit || completionStatus == Status.STATUS_COMMITTED) {
+              action.run();
+            }
+          }
+        });
+      } else if (status != Status.STATUS_MARKED_ROLLBACK || !onlyOnCommit) {
+        action.run();
+      }
+    } catch (RollbackException e) {
+      // the transaction has been marked for rollback in the meantime
+      if (!onlyOnCommit) {
+        action.run();
+      }
+    } catch (SystemException e) {
+      throw new TransactionRuntimeException(e);
+    }
+  }
+
   @Transactional(Transactional.TxType.MANDATORY)
   protected boolean isActive() {
     return getStatus() == Status.STATUS_ACTIVE;
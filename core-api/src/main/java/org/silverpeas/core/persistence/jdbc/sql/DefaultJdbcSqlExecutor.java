@@ -28,6 +28,9 @@ import org.silverpeas.core.persistence.jdbc.ConnectionPool;
 import org.silverpeas.core.util.ListSlice;
 import org.silverpeas.core.util.ResourceLocator;
 import org.silverpeas.core.util.logging.SilverLogger;
+import org.silverpeas.core.util.metrics.Counter;
+import org.silverpeas.core.util.metrics.MetricRegistry;
+import org.silverpeas.core.util.metrics.Timer;
 
 import javax.inject.Singleton;
 import javax.transaction.Transactional;
@@ -54,6 +57,9 @@ import java.util.Date;
 import java.util.List;
 
 /**
+ * The statements executed by this executor are counted by kind (count, select and modify) and a
+ * sample of them is timed; the sampling rate is set by the <code>metrics.jdbc.samplingRate</code>
+ * property of the general settings.
  * @author Yohann Chastagnier
  */
 @Singleton
@@ -61,6 +67,22 @@ import java.util.List;
 class DefaultJdbcSqlExecutor implements JdbcSqlExecutor {
 
   private static final String SQL_REQUEST = ". SQL request: ";
+  private static final String STATEMENTS_METRIC = "silverpeas.jdbc.statements";
+  private static final String STATEMENT_METRIC = "silverpeas.jdbc.statement";
+  private static final String KIND = "kind";
+  private static final int SAMPLING_RATE = MetricRegistry.getSetting("jdbc.samplingRate", 100);
+  private static final Counter COUNT_STATEMENTS =
+      MetricRegistry.get().counter(STATEMENTS_METRIC, KIND, "count");
+  private static final Counter SELECT_STATEMENTS =
+      MetricRegistry.get().counter(STATEMENTS_METRIC, KIND, "select");
+  private static final Counter MODIFY_STATEMENTS =
+      MetricRegistry.get().counter(STATEMENTS_METRIC, KIND, "modify");
+  private static final Timer COUNT_TIMER =
+      MetricRegistry.get().sampledTimer(STATEMENT_METRIC, SAMPLING_RATE, KIND, "count");
+  private static final Timer SELECT_TIMER =
+      MetricRegistry.get().sampledTimer(STATEMENT_METRIC, SAMPLING_RATE, KIND, "select");
+  private static final Timer MODIFY_TIMER =
+      MetricRegistry.get().sampledTimer(STATEMENT_METRIC, SAMPLING_RATE, KIND, "modify");
 
   protected DefaultJdbcSqlExecutor() {
     // Hidden constructor
@@ -76,6 +98,8 @@ class DefaultJdbcSqlExecutor implements JdbcSqlExecutor {
   @Override
   public long selectCount(final Connection con, final JdbcSqlQuery selectCountQueryBuilder)
       throws SQLException {
+    COUNT_STATEMENTS.increment();
+    final long start = COUNT_TIMER.start();
     try (PreparedStatement st = con.prepareStatement(selectCountQueryBuilder.getSqlQuery())) {
       setParameters(st, selectCountQueryBuilder.getParameters());
       try (ResultSet rs = st.executeQuery()) {
@@ -90,6 +114,8 @@ class DefaultJdbcSqlExecutor implements JdbcSqlExecutor {
             .debug(e.getMessage() + SQL_REQUEST + selectCountQueryBuilder.getSqlQuery());
         throw e;
       }
+    } finally {
+      COUNT_TIMER.stop(start);
     }
   }
 
@@ -120,6 +146,8 @@ class DefaultJdbcSqlExecutor implements JdbcSqlExecutor {
     } else {
       sqlQuery = selectQuery.getSqlQuery();
     }
+    SELECT_STATEMENTS.increment();
+    final long start = SELECT_TIMER.start();
     try (PreparedStatement st = queryConf.isResultCountLimited() || queryConf.isFirstResultScrolled()
         ? con.prepareStatement(sqlQuery, ResultSet.TYPE_SCROLL_INSENSITIVE, ResultSet.CONCUR_READ_ONLY)
         : con.prepareStatement(sqlQuery)) {
@@ -136,6 +164,8 @@ class DefaultJdbcSqlExecutor implements JdbcSqlExecutor {
         SilverLogger.getLogger(this).debug(e.getMessage() + SQL_REQUEST + sqlQuery);
         throw e;
       }
+    } finally {
+      SELECT_TIMER.stop(start);
     }
   }
 
@@ -167,6 +197,8 @@ class DefaultJdbcSqlExecutor implements JdbcSqlExecutor {
     long nbUpdate = 0;
     for (JdbcSqlQuery modifyQuery : modifySqlQueries) {
       modifyQuery.finalizeBeforeExecution();
+      MODIFY_STATEMENTS.increment();
+      final long start = MODIFY_TIMER.start();
       try (PreparedStatement prepStmt = con.prepareStatement(modifyQuery.getSqlQuery())) {
         setParameters(prepStmt, modifyQuery.getParameters());
         nbUpdate += prepStmt.executeUpdate();
@@ -174,6 +206,8 @@ class DefaultJdbcSqlExecutor implements JdbcSqlExecutor {
         SilverLogger.getLogger(this)
             .debug(e.getMessage() + SQL_REQUEST + modifyQuery.getSqlQuery());
         throw e;
+      } finally {
+        MODIFY_TIMER.stop(start);
       }
     }
     return nbUpdate;
@@ -26,7 +26,10 @@ package org.silverpeas.core.security.authorization;
 import org.silverpeas.core.admin.user.model.SilverpeasRole;
 import org.silverpeas.core.util.CollectionUtil;
 
+import java.util.Collection;
 import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * A controller of accesses on the Silverpeas resources by a user..
@@ -61,6 +64,49 @@ public interface AccessController<T> {
    */
   boolean isUserAuthorized(String userId, T object, AccessControlContext context);
 
+  /**
+   * Filters the specified objects to keep only the ones the specified user may access.
+   * @param objects the objects to be accessed.
+   * @param userId the unique identifier of the user.
+   * @return a stream of the objects the user may access, in the same order than the given ones.
+   * @see #filterAuthorizedByUser(Collection, String, AccessControlContext)
+   */
+  default Stream<T> filterAuthorizedByUser(Collection<T> objects, String userId) {
+    return filterAuthorizedByUser(objects, userId, AccessControlContext.init());
+  }
+
+  /**
+   * Filters the specified objects to keep only the ones the specified user may access.
+   * @param objects a stream on the objects to be accessed.
+   * @param userId the unique identifier of the user.
+   * @param context the context in which the objects are accessed.
+   * @return a stream of the objects the user may access, in the same order than the given ones.
+   * @see #filterAuthorizedByUser(Collection, String, AccessControlContext)
+   */
+  default Stream<T> filterAuthorizedByUser(Stream<T> objects, String userId,
+      AccessControlContext context) {
+    return filterAuthorizedByUser(objects.collect(Collectors.toList()), userId, context);
+  }
+
+  /**
+   * Filters the specified objects to keep only the ones the specified user may access.
+   * <p>
+   * The result is the same as checking each object with
+   * {@link #isUserAuthorized(String, Object, AccessControlContext)}, but the implementations can
+   * take advantage of the whole batch of objects to load once for all the data they require to
+   * compute the user roles (the rights on the component instances, on the folders, ...) instead
+   * of fetching them object by object.
+   * </p>
+   * @param objects the objects to be accessed.
+   * @param userId the unique identifier of the user.
+   * @param context the context in which the objects are accessed.
+   * @return a stream of the objects the user may access, in the same order than the given ones.
+   */
+  default Stream<T> filterAuthorizedByUser(Collection<T> objects, String userId,
+      AccessControlContext context) {
+    return objects.stream().filter(o -> isUserAuthorized(userId, o, context));
+  }
+
   /**
    * Gets the user roles about the aimed object and by taking in account the context of the access.
    * After a first call, user role are cached (REQUEST live time) in order to increase the
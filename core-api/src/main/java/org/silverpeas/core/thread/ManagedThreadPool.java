@@ -23,20 +23,30 @@
  */
 package org.silverpeas.core.thread;
 
+import org.silverpeas.core.util.ResourceLocator;
 import org.silverpeas.core.util.ServiceProvider;
+import org.silverpeas.core.util.SettingBundle;
 import org.silverpeas.core.util.logging.SilverLogger;
 
+import javax.annotation.PostConstruct;
 import javax.annotation.Resource;
+import javax.enterprise.concurrent.ContextService;
 import javax.enterprise.concurrent.ManagedThreadFactory;
 import javax.inject.Singleton;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.AbstractExecutorService;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -52,18 +62,81 @@ import static org.silverpeas.core.thread.ManagedThreadPool.ExecutionConfig.defau
  * {@link java.util.concurrent.Callable} by using the managed thread pools provided by the
  * application server.
  * </p>
+ * <p>
+ * With the {@code virtual} execution mode set in the general settings, the executions are
+ * performed by virtual threads instead of the threads of the application server. As such
+ * threads aren't managed by the application server, the context of the caller (naming,
+ * class loader, security) is then propagated to them by the context service of the application
+ * server. This mode requires a Java runtime supporting the virtual threads; otherwise the managed
+ * threads are used.
+ * </p>
+ * <p>
+ * Whatever the execution mode, the number of executions of a given category running at the same
+ * time can be limited in the general settings (see {@link ExecutionConfig#inCategory(String)}).
+ * This is useful to not overwhelm a resource shared by the executions, like the database.
+ * </p>
  * @author Yohann Chastagnier
  */
 @Singleton
 public class ManagedThreadPool {
 
+  private static final String SETTINGS_PREFIX = "thread.pool.";
+  private static final String VIRTUAL_MODE = "virtual";
+
   @Resource
   private ManagedThreadFactory managedThreadFactory;
 
+  @Resource
+  private ContextService contextService;
+
+  private ThreadFactory virtualThreadFactory = null;
+  private final Map<String, Semaphore> limits = new ConcurrentHashMap<>();
+
   protected ManagedThreadPool() {
     // constructor to be used only by the IoD container
   }
 
+  @PostConstruct
+  private void setup() {
+    final SettingBundle settings = ResourceLocator.getGeneralSettingBundle();
+    if (VIRTUAL_MODE.equalsIgnoreCase(settings.getString(SETTINGS_PREFIX + "mode", ""))) {
+      virtualThreadFactory = newVirtualThreadFactory();
+      if (virtualThreadFactory == null) {
+        SilverLogger.getLogger(this)
+            .warn("Virtual threads not supported by the Java runtime: managed threads used");
+      }
+    }
+    final String limitPrefix = SETTINGS_PREFIX + "limit.";
+    for (String key : settings.keySet()) {
+      if (key.startsWith(limitPrefix)) {
+        setLimit(key.substring(limitPrefix.length()), settings.getInteger(key, 0));
+      }
+    }
+  }
+
+  /**
+   * Are the executions performed by virtual threads?
+   * @return true if the virtual execution mode is enabled, false if the executions are performed
+   * by the threads managed by the application server.
+   */
+  public boolean isVirtualMode() {
+    return virtualThreadFactory != null;
+  }
+
+  /**
+   * Limits the number of executions of the specified category running at the same time.
+   * @param category a category of executions.
+   * @param maxConcurrentExecutions the maximum number of executions running at the same time.
+   * Zero or negative value indicates no limit.
+   */
+  void setLimit(final String category, final int maxConcurrentExecutions) {
+    if (maxConcurrentExecutions > 0) {
+      limits.put(category, new Semaphore(maxConcurrentExecutions));
+    } else {
+      limits.remove(category);
+    }
+  }
+
   /**
    * Gets a pool of managed threads.
    * @return a {@link ManagedThreadPool} instance ready to take in charge the passed executions
@@ -82,9 +155,23 @@ public class ManagedThreadPool {
    * @return the list of threads that have been invoked.
    */
   public List<Thread> invoke(Runnable... runnables) {
+    return invoke(defaultConfig(), runnables);
+  }
+
+  /**
+   * Invokes the given {@link java.lang.Runnable} instances into a managed thread.<br>
+   * Each {@link java.lang.Runnable} instance will be used one managed thread.<br>
+   * If the application server has no more thread to supply, then the execution will wait until it
+   * exists one again available.
+   * @param config the {@link java.lang.Runnable} instances execution configuration. Only the
+   * category of the executions is taken into account.
+   * @param runnables the {@link java.lang.Runnable} instances to invoke.
+   * @return the list of threads that have been invoked.
+   */
+  public List<Thread> invoke(ExecutionConfig config, Runnable... runnables) {
     List<Thread> threads = new ArrayList<>();
     for (Runnable runnable : runnables) {
-      Thread thread = this.managedThreadFactory.newThread(runnable);
+      Thread thread = getThreadFactory().newThread(prepare(runnable, config));
       threads.add(thread);
       thread.start();
     }
@@ -150,8 +237,8 @@ public class ManagedThreadPool {
       ExecutorService executorService = getExecutorService(config);
       List<Future<?>> threadExecutionResults = new ArrayList<>();
       try {
-        threadExecutionResults
-            .addAll(runnables.map(executorService::submit).collect(Collectors.toList()));
+        threadExecutionResults.addAll(runnables.map(r -> executorService.submit(prepare(r, config)))
+            .collect(Collectors.toList()));
       } finally {
         executorService.shutdown();
       }
@@ -241,7 +328,7 @@ public class ManagedThreadPool {
     List<Future<V>> futures = new ArrayList<>();
     try {
       for (Callable<V> callable : callables) {
-        futures.add(executorService.submit(callable));
+        futures.add(executorService.submit(prepare(callable, config)));
       }
     } finally {
       executorService.shutdown();
@@ -260,6 +347,19 @@ public class ManagedThreadPool {
     return futures;
   }
 
+  /**
+   * Gets a new executor service of managed threads to which the caller can submit its tasks all
+   * along a processing, rather than invoking the tasks all at once. The executions are performed
+   * according to the given configuration (threads, category limit, execution mode), except the
+   * timeout which isn't applied. The caller is responsible of shutting down the executor service
+   * once its processing done.
+   * @param config the configuration of the execution of the tasks submitted to the executor.
+   * @return a new {@link ExecutorService} instance.
+   */
+  public ExecutorService newExecutorService(ExecutionConfig config) {
+    return new ConfiguredExecutorService(getExecutorService(config), config);
+  }
+
   /**
    * Gets a new executor service according to the given configuration.
    * @param config the configuration of thread execution.
@@ -267,28 +367,190 @@ public class ManagedThreadPool {
    */
   private ExecutorService getExecutorService(ExecutionConfig config) {
     final ExecutorService executorService;
+    final ThreadFactory threadFactory = getThreadFactory();
     final int maxThreadPoolSize = config.getMaxThreadPoolSize();
     if (maxThreadPoolSize > 0) {
       if (maxThreadPoolSize == 1) {
-        executorService = Executors.newSingleThreadExecutor(this.managedThreadFactory);
+        executorService = Executors.newSingleThreadExecutor(threadFactory);
       } else {
-        executorService = Executors.newFixedThreadPool(maxThreadPoolSize, this.managedThreadFactory);
+        executorService = Executors.newFixedThreadPool(maxThreadPoolSize, threadFactory);
       }
     } else {
-      executorService = Executors.newCachedThreadPool(this.managedThreadFactory);
+      executorService = Executors.newCachedThreadPool(threadFactory);
     }
     return executorService;
   }
 
+  private ThreadFactory getThreadFactory() {
+    return virtualThreadFactory != null ? virtualThreadFactory : this.managedThreadFactory;
+  }
+
+  /**
+   * Prepares the given runnable to be executed according to the execution mode and to the limit
+   * of its category. If the thread is interrupted while waiting for its turn in the category, the
+   * runnable isn't run, the interruption is restored and the execution fails with a
+   * {@link CancellationException}, so that a submitter waiting for it isn't blocked forever.
+   */
+  private Runnable prepare(final Runnable runnable, final ExecutionConfig config) {
+    final Runnable contextual = withCallerContext(runnable, Runnable.class);
+    final Semaphore limit = limits.get(config.getCategory());
+    if (limit == null) {
+      return contextual;
+    }
+    return () -> {
+      if (!acquire(limit, config)) {
+        if (runnable instanceof Future) {
+          // the task submitted to an executor service: its submitter waits for it
+          ((Future<?>) runnable).cancel(false);
+          return;
+        }
+        throw givenUp(config);
+      }
+      try {
+        contextual.run();
+      } finally {
+        limit.release();
+      }
+    };
+  }
+
+  /**
+   * Prepares the given callable to be executed according to the execution mode and to the limit
+   * of its category. If the thread is interrupted while waiting for its turn in the category, the
+   * callable isn't called, the interruption is restored and the execution fails with a
+   * {@link CancellationException}.
+   */
+  @SuppressWarnings("unchecked")
+  private <V> Callable<V> prepare(final Callable<V> callable, final ExecutionConfig config) {
+    final Callable<V> contextual = withCallerContext(callable, Callable.class);
+    final Semaphore limit = limits.get(config.getCategory());
+    if (limit == null) {
+      return contextual;
+    }
+    return () -> {
+      if (!acquire(limit, config)) {
+        throw givenUp(config);
+      }
+      try {
+        return contextual.call();
+      } finally {
+        limit.release();
+      }
+    };
+  }
+
+  /**
+   * Waits for a free slot in the category of the given execution.
+   * @return true if a slot was acquired, false if the thread was interrupted while waiting: the
+   * execution has then to be given up.
+   */
+  private boolean acquire(final Semaphore limit, final ExecutionConfig config) {
+    try {
+      limit.acquire();
+      return true;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      SilverLogger.getLogger(this)
+          .warn("Interrupted while waiting for a slot in the category {0}: execution given up",
+              config.getCategory());
+      return false;
+    }
+  }
+
+  private static CancellationException givenUp(final ExecutionConfig config) {
+    return new CancellationException(
+        "Execution given up while waiting for a slot in the category " + config.getCategory());
+  }
+
+  /**
+   * In the virtual execution mode, the threads aren't managed by the application server: the
+   * context of the caller has then to be captured to be set up during the execution.
+   */
+  @SuppressWarnings("unchecked")
+  private <T> T withCallerContext(final T execution, final Class<?> type) {
+    if (virtualThreadFactory == null || contextService == null) {
+      return execution;
+    }
+    return (T) contextService.createContextualProxy(execution, type);
+  }
+
+  /**
+   * Creates a factory of virtual threads. The virtual threads are got by reflection as they are
+   * available only from Java 21.
+   * @return a factory of virtual threads or null if the Java runtime doesn't support them.
+   */
+  static ThreadFactory newVirtualThreadFactory() {
+    try {
+      final Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+      Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+      builder = builderType.getMethod("name", String.class, long.class)
+          .invoke(builder, "silverpeas-virtual-", 0L);
+      return (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+    } catch (ReflectiveOperationException | RuntimeException e) {
+      return null;
+    }
+  }
+
+  /**
+   * An executor service preparing each of the tasks submitted to it according to an execution
+   * configuration before delegating their execution to another executor service.
+   */
+  private class ConfiguredExecutorService extends AbstractExecutorService {
+    private final ExecutorService delegate;
+    private final ExecutionConfig config;
+
+    ConfiguredExecutorService(final ExecutorService delegate, final ExecutionConfig config) {
+      this.delegate = delegate;
+      this.config = config;
+    }
+
+    @Override
+    public void execute(final Runnable command) {
+      delegate.execute(prepare(command, config));
+    }
+
+    @Override
+    public void shutdown() {
+      delegate.shutdown();
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+      return delegate.shutdownNow();
+    }
+
+    @Override
+    public boolean isShutdown() {
+      return delegate.isShutdown();
+    }
+
+    @Override
+    public boolean isTerminated() {
+      return delegate.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(final long timeout, final TimeUnit unit)
+        throws InterruptedException {
+      return delegate.awaitTermination(timeout, unit);
+    }
+  }
+
   /**
    * Class that permits to specify the execution configuration.
    */
   public static class ExecutionConfig {
+    /**
+     * The category of the executions for which no category was specified.
+     */
+    public static final String DEFAULT_CATEGORY = "default";
+
     private int maxThreadPoolSize = 0;
     private boolean isTimeout = false;
     private long timeout = 0;
     private TimeUnit timeUnit = TimeUnit.MILLISECONDS;
     private boolean runInBackgroundAfterTimeout = true;
+    private String category = DEFAULT_CATEGORY;
 
     /**
      * Gets an instance of an execution configuration with a specified maximum pool of thread.<br>
@@ -309,6 +571,16 @@ public class ManagedThreadPool {
       return defaultConfig().withTimeoutOf(timeout);
     }
 
+    /**
+     * Gets an instance of an execution configuration for the specified category of executions.
+     * @param category the category of the executions.
+     * @return an instance of an execution configuration for the specified category.
+     * @see #withCategory(String)
+     */
+    public static ExecutionConfig inCategory(String category) {
+      return defaultConfig().withCategory(category);
+    }
+
     /**
      * Gets an instance of a default execution configuration.
      * @return an instance of a default execution configuration.
@@ -331,6 +603,14 @@ public class ManagedThreadPool {
       return maxThreadPoolSize;
     }
 
+    /**
+     * Gets the category of the executions.
+     * @return the category of the executions.
+     */
+    String getCategory() {
+      return category;
+    }
+
     /**
      * Indicates if a timeout has been explicitly set.
      * @return true if a timeout has been explicitly set, false otherwise.
@@ -367,6 +647,21 @@ public class ManagedThreadPool {
     }
 
 
+    /**
+     * Sets the category of the executions. The number of executions of a category running at the
+     * same time is limited by the property {@code thread.pool.limit.<category>} of the general
+     * settings; no limit is applied for a category without such a property. An execution whose
+     * thread is interrupted while waiting for its turn in its category is given up and fails
+     * with a {@link java.util.concurrent.CancellationException}: the submitter mustn't rely on the
+     * execution of the task to release some resources.
+     * @param category the category of the executions.
+     * @return the instance of {@link ExecutionConfig}.
+     */
+    public ExecutionConfig withCategory(final String category) {
+      this.category = category;
+      return this;
+    }
+
     /**
      * Sets a timeout in milliseconds after that the invocation process will give back hand.
      * @param timeout the timeout after which the hand must be get back to the caller.
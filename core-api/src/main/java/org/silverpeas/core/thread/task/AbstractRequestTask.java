@@ -84,12 +84,16 @@ public abstract class AbstractRequestTask<C extends AbstractRequestTask.ProcessC
        * Each request is processed out of the synchronized block so the others threads (which put
        * the requests) will not be blocked.
        */
+      final long start = monitor.requestProcessing.start();
       try {
         monitor.releaseAccess();
         processRequest(currentRequest);
       } catch (Exception e) {
         SilverLogger.getLogger(this).error(e);
+      } finally {
+        monitor.requestProcessing.stop(start);
       }
+      monitor.processedRequests.incrementAndGet();
 
       // Getting the next request if any.
       currentRequest = nextRequest();
@@ -30,10 +30,14 @@ import org.silverpeas.core.thread.task.AbstractRequestTask.Request;
 import org.silverpeas.core.util.Mutable;
 import org.silverpeas.core.util.ServiceProvider;
 import org.silverpeas.core.util.logging.SilverLogger;
+import org.silverpeas.core.util.metrics.Counter;
+import org.silverpeas.core.util.metrics.MetricRegistry;
+import org.silverpeas.core.util.metrics.Timer;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.ListIterator;
+import java.util.Objects;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.ConcurrentHashMap;
@@ -41,6 +45,9 @@ import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.silverpeas.core.thread.ManagedThreadPool.ExecutionConfig.inCategory;
 
 /**
  * This manager handles the threading side of {@link AbstractRequestTask} processing.
@@ -49,11 +56,17 @@ import java.util.concurrent.Semaphore;
  * <p>To process a request, an {@link AbstractRequestTask} must be implemented and this
  * implementation must push request to process by using
  * {@link RequestTaskManager#push(Class, Request)} method.</p>
+ * <p>The requests of a task can also be dispatched among several lanes with
+ * {@link RequestTaskManager#push(Class, int, Request)}: each lane has its own queue consumed by
+ * its own thread, so the requests of a lane are processed one after one in the order they were
+ * pushed whereas the requests of different lanes are processed in parallel.</p>
+ * <p>For each task, the pushed requests are counted, the waiting ones are gauged and the
+ * processing of each request is timed (<code>silverpeas.task.*</code> metrics).</p>
  * @author silveryocha
  */
 public class RequestTaskManager {
 
-  static final ConcurrentMap<Class, RequestTaskMonitor> tasks = new ConcurrentHashMap<>();
+  static final ConcurrentMap<Object, RequestTaskMonitor> tasks = new ConcurrentHashMap<>();
   private static final int RESTART_WAITING_BEFORE_GETTING_RESULT = 200;
 
   /**
@@ -72,7 +85,7 @@ public class RequestTaskManager {
         debug(monitor.taskClass, "starting a thread in charge of request processing");
         task.monitor = monitor;
         final TaskWatcher taskWatcher = new TaskWatcher(monitor);
-        monitor.task = ManagedThreadPool.getPool().invoke(task);
+        monitor.task = ManagedThreadPool.getPool().invoke(task, inCategory("task"));
         monitor.taskWatcher = ManagedThreadPool.getPool().invoke(taskWatcher);
         return true;
       } catch (InterruptedException e) {
@@ -133,6 +146,85 @@ public class RequestTaskManager {
     return isRunning.get();
   }
 
+  /**
+   * This method permits to know if the task in charge of the given lane is running.
+   * @param taskClass the class of the {@link AbstractRequestTask} implementation which provides
+   * the {@link AbstractRequestTask.Request}.
+   * @param lane the lane of the task.
+   * @param <T> the type of the task.
+   */
+  public static <T extends AbstractRequestTask> boolean isTaskRunning(Class<T> taskClass,
+      int lane) {
+    final RequestTaskMonitor monitor = tasks.get(new TaskLane(taskClass, lane));
+    return monitor != null && monitor.isTaskRunning();
+  }
+
+  /**
+   * Gets the number of requests waiting to be processed in the given lane of the task.
+   * @param taskClass the class of the {@link AbstractRequestTask} implementation which provides
+   * the {@link AbstractRequestTask.Request}.
+   * @param lane the lane of the task.
+   * @param <T> the type of the task.
+   * @return the number of requests in the queue of the lane.
+   */
+  public static <T extends AbstractRequestTask> int getQueueSize(Class<T> taskClass, int lane) {
+    final RequestTaskMonitor monitor = tasks.get(new TaskLane(taskClass, lane));
+    if (monitor == null) {
+      return 0;
+    }
+    synchronized (monitor.requestList) {
+      return monitor.requestList.size();
+    }
+  }
+
+  /**
+   * Gets the number of requests waiting to be processed in all the lanes of the task.
+   * @param taskClass the class of the {@link AbstractRequestTask} implementation.
+   * @return the number of queued requests of the task.
+   */
+  static long getQueuedRequestCount(Class taskClass) {
+    long count = 0;
+    for (RequestTaskMonitor monitor : tasks.values()) {
+      if (monitor.taskClass == taskClass) {
+        synchronized (monitor.requestList) {
+          count += monitor.requestList.size();
+        }
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Gets the number of requests that were processed in the given lane of the task.
+   * @param taskClass the class of the {@link AbstractRequestTask} implementation which provides
+   * the {@link AbstractRequestTask.Request}.
+   * @param lane the lane of the task.
+   * @param <T> the type of the task.
+   * @return the number of requests processed, with or without error, in the lane.
+   */
+  public static <T extends AbstractRequestTask> long getProcessedRequestCount(Class<T> taskClass,
+      int lane) {
+    final RequestTaskMonitor monitor = tasks.get(new TaskLane(taskClass, lane));
+    return monitor == null ? 0 : monitor.processedRequests.get();
+  }
+
+  /**
+   * Adds a request to process into the given lane of the task. The requests of a same lane are
+   * processed one after one in the order they were pushed, whereas the requests of different
+   * lanes are processed in parallel by different threads.
+   * @param taskClass the class of the {@link AbstractRequestTask} implementation which provides
+   * the {@link AbstractRequestTask.Request}.
+   * @param lane the lane in which the request has to be processed.
+   * @param newRequest the request to process.
+   * @param <T> the type of the task.
+   * @param <C> the type of the task process context.
+   * @see #push(Class, Request)
+   */
+  public static <T extends AbstractRequestTask, C extends AbstractRequestTask.ProcessContext>
+  void push(Class<T> taskClass, int lane, Request<C> newRequest) {
+    push(new TaskLane(taskClass, lane), taskClass, newRequest);
+  }
+
   /**
    * This method is the only entry point to add a request to process.
    * <p>There is three synchronized steps performed into this method:</p>
@@ -151,8 +243,15 @@ public class RequestTaskManager {
   @SuppressWarnings("unchecked")
   public static <T extends AbstractRequestTask, C extends AbstractRequestTask.ProcessContext>
   void push(Class<T> taskClass, Request<C> newRequest) {
-    final RequestTaskMonitor<T, C> monitor = tasks.computeIfAbsent(taskClass, c -> {
-      AbstractRequestTask<C> taskForInit = (AbstractRequestTask) ServiceProvider.getService(c);
+    push(taskClass, taskClass, newRequest);
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <T extends AbstractRequestTask, C extends AbstractRequestTask.ProcessContext>
+  void push(Object taskKey, Class<T> taskClass, Request<C> newRequest) {
+    final RequestTaskMonitor<T, C> monitor = tasks.computeIfAbsent(taskKey, k -> {
+      AbstractRequestTask<C> taskForInit =
+          (AbstractRequestTask) ServiceProvider.getService(taskClass);
       return new RequestTaskMonitor<>(taskForInit);
     });
     synchronized (monitor.requestList) {
@@ -186,10 +285,41 @@ public class RequestTaskManager {
       if (!replaced) {
         monitor.requestList.add(newRequest);
       }
+      monitor.pushedRequests.increment();
       startIfNecessary(monitor);
     }
   }
 
+  /**
+   * The key of a lane of a task.
+   */
+  static final class TaskLane {
+    private final Class taskClass;
+    private final int lane;
+
+    TaskLane(final Class taskClass, final int lane) {
+      this.taskClass = taskClass;
+      this.lane = lane;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      final TaskLane taskLane = (TaskLane) o;
+      return lane == taskLane.lane && taskClass.equals(taskLane.taskClass);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(taskClass, lane);
+    }
+  }
+
   static class TaskWatcher implements Callable<Void> {
     final RequestTaskMonitor monitor;
 
@@ -232,6 +362,10 @@ public class RequestTaskManager {
     final Class taskClass;
     final List<Request<C>> requestList;
     private final Semaphore queueSemaphore;
+    final AtomicLong processedRequests = new AtomicLong();
+    final Counter pushedRequests;
+    final Timer requestProcessing;
+    private final Timer queueWaiting;
     Future<Void> task = null;
     Future<Void> taskWatcher = null;
 
@@ -243,6 +377,14 @@ public class RequestTaskManager {
       this.queueSemaphore = queueLimit > 0 ? new Semaphore(queueLimit, true) : null;
       this.requestList = queueLimit > 0 ? new ArrayList<>(queueLimit) : new ArrayList<>();
       this.taskClass = taskForInit.getClass();
+      final Class monitoredTask = taskClass;
+      final String taskName = monitoredTask.getSimpleName();
+      final MetricRegistry metrics = MetricRegistry.get();
+      this.pushedRequests = metrics.counter("silverpeas.task.pushed", "task", taskName);
+      this.requestProcessing = metrics.timer("silverpeas.task.processing", "task", taskName);
+      this.queueWaiting = metrics.timer("silverpeas.task.waiting", "task", taskName);
+      metrics.gauge("silverpeas.task.queued", () -> getQueuedRequestCount(monitoredTask), "task",
+          taskName);
     }
 
     boolean isTaskRunning() {
@@ -254,7 +396,9 @@ public class RequestTaskManager {
         try {
           debug(taskClass, "acquiring queue semaphore ({0} available permits before acquire)",
               queueSemaphore.availablePermits());
+          final long start = queueWaiting.start();
           queueSemaphore.acquire();
+          queueWaiting.stop(start);
         } catch (InterruptedException e) {
           error(taskClass, "not possible to acquire semaphore");
           throw new SilverpeasRuntimeException(e);
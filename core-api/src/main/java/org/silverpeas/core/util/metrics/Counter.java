@@ -0,0 +1,71 @@
+/*
+ * Copyright (C) 2000 - 2018 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.util.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A counter of events. It can only be increased and it supports well a heavy concurrent update.
+ */
+public final class Counter extends Meter {
+
+  private final LongAdder count;
+
+  Counter(final MeterId id, final boolean enabled) {
+    super(id);
+    this.count = enabled ? new LongAdder() : null;
+  }
+
+  @Override
+  public Type getType() {
+    return Type.COUNTER;
+  }
+
+  /**
+   * Counts one more event.
+   */
+  public void increment() {
+    if (count != null) {
+      count.increment();
+    }
+  }
+
+  /**
+   * Counts the specified number of events.
+   * @param amount the number of events to count.
+   */
+  public void increment(final long amount) {
+    if (count != null) {
+      count.add(amount);
+    }
+  }
+
+  /**
+   * Gets the number of events counted so far.
+   * @return the count.
+   */
+  public long getCount() {
+    return count == null ? 0 : count.sum();
+  }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright (C) 2000 - 2018 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.util.metrics;
+
+import java.util.function.Supplier;
+
+/**
+ * A gauge reads a value on demand, for example the size of a queue or the number of opened
+ * connections. The value isn't computed by the instrumented code but only when the metrics are
+ * published.
+ */
+public final class Gauge extends Meter {
+
+  private final Supplier<? extends Number> value;
+
+  Gauge(final MeterId id, final Supplier<? extends Number> value) {
+    super(id);
+    this.value = value;
+  }
+
+  @Override
+  public Type getType() {
+    return Type.GAUGE;
+  }
+
+  /**
+   * Gets the current value of the gauge.
+   * @return the value or {@link Double#NaN} if it cannot be read.
+   */
+  public double getValue() {
+    try {
+      final Number number = value.get();
+      return number == null ? Double.NaN : number.doubleValue();
+    } catch (RuntimeException e) {
+      return Double.NaN;
+    }
+  }
+}
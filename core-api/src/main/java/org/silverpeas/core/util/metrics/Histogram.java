@@ -0,0 +1,142 @@
+/*
+ * Copyright (C) 2000 - 2018 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.util.metrics;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A distribution of values. The values are counted into buckets delimited by fixed upper bounds,
+ * so the cost of a recording doesn't depend on the number of recorded values; the count, the sum
+ * and the maximum of the values are also kept.
+ */
+public final class Histogram extends Meter {
+
+  private final long[] bounds;
+  private final LongAdder[] buckets;
+  private final LongAdder count;
+  private final LongAdder total;
+  private final LongAccumulator max;
+
+  Histogram(final MeterId id, final boolean enabled, final long... bounds) {
+    super(id);
+    this.bounds = bounds.clone();
+    Arrays.sort(this.bounds);
+    if (enabled) {
+      this.buckets = new LongAdder[this.bounds.length + 1];
+      for (int i = 0; i < buckets.length; i++) {
+        buckets[i] = new LongAdder();
+      }
+      this.count = new LongAdder();
+      this.total = new LongAdder();
+      this.max = new LongAccumulator(Math::max, 0);
+    } else {
+      this.buckets = null;
+      this.count = null;
+      this.total = null;
+      this.max = null;
+    }
+  }
+
+  @Override
+  public Type getType() {
+    return Type.HISTOGRAM;
+  }
+
+  /**
+   * Records the specified value.
+   * @param value a value.
+   */
+  public void record(final long value) {
+    if (count != null) {
+      int index = Arrays.binarySearch(bounds, value);
+      if (index < 0) {
+        index = -index - 1;
+      }
+      buckets[index].increment();
+      count.increment();
+      total.add(value);
+      max.accumulate(value);
+    }
+  }
+
+  /**
+   * Gets the number of recorded values.
+   * @return the count of values.
+   */
+  public long getCount() {
+    return count == null ? 0 : count.sum();
+  }
+
+  /**
+   * Gets the sum of all the recorded values.
+   * @return the sum of the values.
+   */
+  public long getTotal() {
+    return total == null ? 0 : total.sum();
+  }
+
+  /**
+   * Gets the greatest recorded value.
+   * @return the maximum value or 0 if no values were recorded.
+   */
+  public long getMax() {
+    return max == null ? 0 : max.get();
+  }
+
+  /**
+   * Gets the mean of the recorded values.
+   * @return the mean value or 0 if no values were recorded.
+   */
+  public double getMean() {
+    final long n = getCount();
+    return n == 0 ? 0 : (double) getTotal() / n;
+  }
+
+  /**
+   * Gets the upper bounds, inclusive, of the buckets.
+   * @return the sorted bucket bounds.
+   */
+  public long[] getBucketBounds() {
+    return bounds.clone();
+  }
+
+  /**
+   * Gets for each bucket the number of recorded values lower or equal to its upper bound. The
+   * last count is for an unbounded bucket, so it is the count of all the recorded values.
+   * @return the cumulative counts of the buckets.
+   */
+  public long[] getCumulativeBucketCounts() {
+    final long[] counts = new long[bounds.length + 1];
+    if (buckets != null) {
+      long sum = 0;
+      for (int i = 0; i < counts.length; i++) {
+        sum += buckets[i].sum();
+        counts[i] = sum;
+      }
+    }
+    return counts;
+  }
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright (C) 2000 - 2018 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.util.metrics;
+
+import org.silverpeas.core.util.logging.SilverLogger;
+
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.ReflectionException;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Publishes the meters as MBeans into the JMX server of the platform. Each meter is a read-only
+ * MBean named <code>org.silverpeas:type=Metrics,name=&lt;meter name&gt;</code> with its tags as
+ * additional key properties.
+ */
+class JmxMeterPublisher {
+
+  private static final String DOMAIN = "org.silverpeas";
+
+  void publish(final Meter meter) {
+    try {
+      final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+      final ObjectName name = objectNameOf(meter.getId());
+      final MeterMBean mbean = new MeterMBean(meter);
+      try {
+        server.registerMBean(mbean, name);
+      } catch (InstanceAlreadyExistsException e) {
+        // a meter of a previous deployment of Silverpeas
+        server.unregisterMBean(name);
+        server.registerMBean(mbean, name);
+      }
+    } catch (JMException | RuntimeException e) {
+      SilverLogger.getLogger("silverpeas.core.metrics")
+          .warn("The meter {0} cannot be published in JMX: {1}", meter.getId(), e.getMessage());
+    }
+  }
+
+  void unpublish(final Meter meter) {
+    try {
+      final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+      final ObjectName name = objectNameOf(meter.getId());
+      if (server.isRegistered(name)) {
+        server.unregisterMBean(name);
+      }
+    } catch (JMException | RuntimeException e) {
+      SilverLogger.getLogger("silverpeas.core.metrics")
+          .debug("The meter {0} cannot be removed from JMX: {1}", meter.getId(), e.getMessage());
+    }
+  }
+
+  static ObjectName objectNameOf(final MeterId id) throws JMException {
+    final StringBuilder name = new StringBuilder(DOMAIN).append(":type=Metrics,name=")
+        .append(ObjectName.quote(id.getName()));
+    id.getTags().forEach((k, v) -> name.append(',').append(k).append('=')
+        .append(ObjectName.quote(v)));
+    return new ObjectName(name.toString());
+  }
+
+  /**
+   * A read-only MBean exposing the measures of a meter as attributes.
+   */
+  static class MeterMBean implements DynamicMBean {
+
+    private final Meter meter;
+    private final Map<String, Supplier<Object>> attributes = new LinkedHashMap<>();
+
+    MeterMBean(final Meter meter) {
+      this.meter = meter;
+      switch (meter.getType()) {
+        case COUNTER:
+          final Counter counter = (Counter) meter;
+          attributes.put("Count", counter::getCount);
+          break;
+        case GAUGE:
+          final Gauge gauge = (Gauge) meter;
+          attributes.put("Value", gauge::getValue);
+          break;
+        case HISTOGRAM:
+          final Histogram histogram = (Histogram) meter;
+          attributes.put("Count", histogram::getCount);
+          attributes.put("Total", histogram::getTotal);
+          attributes.put("Max", histogram::getMax);
+          attributes.put("Mean", histogram::getMean);
+          break;
+        case TIMER:
+          final Timer timer = (Timer) meter;
+          attributes.put("Count", timer::getCount);
+          attributes.put("TotalTimeMillis", () -> timer.getTotalTime(TimeUnit.MILLISECONDS));
+          attributes.put("MaxMillis", () -> timer.getMax(TimeUnit.MILLISECONDS));
+          attributes.put("MeanMillis", () -> timer.getMean(TimeUnit.MILLISECONDS));
+          attributes.put("SamplingRate", timer::getSamplingRate);
+          break;
+        default:
+          break;
+      }
+    }
+
+    @Override
+    public Object getAttribute(final String attribute) throws AttributeNotFoundException {
+      final Supplier<Object> value = attributes.get(attribute);
+      if (value == null) {
+        throw new AttributeNotFoundException(attribute);
+      }
+      return value.get();
+    }
+
+    @Override
+    public void setAttribute(final Attribute attribute) throws AttributeNotFoundException {
+      throw new AttributeNotFoundException(attribute.getName() + " is read-only");
+    }
+
+    @Override
+    public AttributeList getAttributes(final String[] names) {
+      final AttributeList list = new AttributeList();
+      for (String name : names) {
+        final Supplier<Object> value = attributes.get(name);
+        if (value != null) {
+          list.add(new Attribute(name, value.get()));
+        }
+      }
+      return list;
+    }
+
+    @Override
+    public AttributeList setAttributes(final AttributeList list) {
+      return new AttributeList();
+    }
+
+    @Override
+    public Object invoke(final String actionName, final Object[] params,
+        final String[] signature) throws ReflectionException {
+      throw new ReflectionException(new NoSuchMethodException(actionName));
+    }
+
+    @Override
+    public MBeanInfo getMBeanInfo() {
+      final MBeanAttributeInfo[] infos = attributes.entrySet()
+          .stream()
+          .map(e -> new MBeanAttributeInfo(e.getKey(), e.getValue().get().getClass().getName(),
+              e.getKey() + " of " + meter.getId(), true, false, false))
+          .toArray(MBeanAttributeInfo[]::new);
+      return new MBeanInfo(getClass().getName(), meter.toString(), infos, null, null, null);
+    }
+  }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright (C) 2000 - 2018 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.util.metrics;
+
+/**
+ * A meter measures some values about a given point of the code. All the meters are provided by
+ * the {@link MetricRegistry}. When the metrics are disabled, the registry provides meters that
+ * measure nothing, so the code can be instrumented without checking first whether the metrics
+ * are enabled.
+ */
+public abstract class Meter {
+
+  /**
+   * The different types of meters.
+   */
+  public enum Type {
+    /**
+     * A monotonic count of events.
+     */
+    COUNTER,
+    /**
+     * A value read on demand.
+     */
+    GAUGE,
+    /**
+     * A distribution of values.
+     */
+    HISTOGRAM,
+    /**
+     * A distribution of durations.
+     */
+    TIMER
+  }
+
+  private final MeterId id;
+
+  Meter(final MeterId id) {
+    this.id = id;
+  }
+
+  /**
+   * Gets the identifier of this meter.
+   * @return the meter identifier.
+   */
+  public MeterId getId() {
+    return id;
+  }
+
+  /**
+   * Gets the type of this meter.
+   * @return the type of the meter.
+   */
+  public abstract Type getType();
+
+  @Override
+  public String toString() {
+    return getType() + " " + id;
+  }
+}
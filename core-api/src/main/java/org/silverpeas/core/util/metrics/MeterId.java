@@ -0,0 +1,112 @@
+/*
+ * Copyright (C) 2000 - 2018 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.util.metrics;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * The identifier of a meter. It is made up of the name of the measure, in a dotted notation
+ * (for example <code>silverpeas.index.search</code>), and of some optional tags refining the
+ * measure (for example <code>kind=page</code>). Two meters with the same name but with different
+ * tags are two different meters of the same measure.
+ */
+public final class MeterId implements Comparable<MeterId> {
+
+  private final String name;
+  private final Map<String, String> tags;
+
+  private MeterId(final String name, final Map<String, String> tags) {
+    this.name = name;
+    this.tags = Collections.unmodifiableMap(tags);
+  }
+
+  /**
+   * Gets the identifier of a meter with the specified name and tags.
+   * @param name the name of the measure.
+   * @param tags the tags as a sequence of key and value pairs.
+   * @return the identifier of a meter.
+   * @throws IllegalArgumentException if the name is empty or if a tag has no value.
+   */
+  public static MeterId of(final String name, final String... tags) {
+    if (name == null || name.trim().isEmpty()) {
+      throw new IllegalArgumentException("The name of a meter is required");
+    }
+    if (tags.length % 2 != 0) {
+      throw new IllegalArgumentException("The tags of the meter " + name +
+          " must be pairs of key and value");
+    }
+    final Map<String, String> tagMap = new TreeMap<>();
+    for (int i = 0; i < tags.length; i += 2) {
+      tagMap.put(Objects.requireNonNull(tags[i]), Objects.toString(tags[i + 1], ""));
+    }
+    return new MeterId(name, tagMap);
+  }
+
+  /**
+   * Gets the name of the measure.
+   * @return the name of the measure in a dotted notation.
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Gets the tags of the meter, sorted by their key.
+   * @return an unmodifiable map of the tags of the meter.
+   */
+  public Map<String, String> getTags() {
+    return tags;
+  }
+
+  @Override
+  public int compareTo(final MeterId other) {
+    final int result = name.compareTo(other.name);
+    return result != 0 ? result : tags.toString().compareTo(other.tags.toString());
+  }
+
+  @Override
+  public boolean equals(final Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    final MeterId meterId = (MeterId) o;
+    return name.equals(meterId.name) && tags.equals(meterId.tags);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(name, tags);
+  }
+
+  @Override
+  public String toString() {
+    return tags.isEmpty() ? name : name + tags;
+  }
+}
@@ -0,0 +1,221 @@
+/*
+ * Copyright (C) 2000 - 2018 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.util.metrics;
+
+import org.silverpeas.core.util.ResourceLocator;
+import org.silverpeas.core.util.SettingBundle;
+import org.silverpeas.core.util.logging.SilverLogger;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * The registry of all the meters used to instrument Silverpeas. The meters are expected to be
+ * got once, for example in a static field, and then to be used in the instrumented code:
+ * <pre>
+ *   private static final Timer SEARCH_TIMER =
+ *       MetricRegistry.get().timer("silverpeas.index.search", "kind", "page");
+ * </pre>
+ * <p>
+ * The metrics are enabled with the <code>metrics.enabled</code> property of the general settings.
+ * When they are disabled, the registry provides meters that aren't registered and that measure
+ * nothing: an instrumented code then just pays for an empty method call. When they are enabled,
+ * each registered meter is also published as a MBean in the JMX server of the platform, unless
+ * the <code>metrics.jmx.enabled</code> property is false.
+ * </p>
+ */
+public class MetricRegistry {
+
+  private static final String METRICS_PREFIX = "metrics.";
+
+  private final boolean enabled;
+  private final JmxMeterPublisher jmxPublisher;
+  private final ConcurrentMap<MeterId, Meter> meters = new ConcurrentHashMap<>();
+
+  MetricRegistry(final boolean enabled, final boolean jmxEnabled) {
+    this.enabled = enabled;
+    this.jmxPublisher = enabled && jmxEnabled ? new JmxMeterPublisher() : null;
+  }
+
+  /**
+   * Gets the registry of the meters.
+   * @return the single instance of {@link MetricRegistry}.
+   */
+  public static MetricRegistry get() {
+    return InstanceHolder.INSTANCE;
+  }
+
+  /**
+   * Gets the settings of the metrics from the general settings of Silverpeas.
+   * @param key the key of the setting without the <code>metrics.</code> prefix.
+   * @param defaultValue the value to use when the setting isn't defined.
+   * @return the value of the setting.
+   */
+  public static int getSetting(final String key, final int defaultValue) {
+    return getSettings().getInteger(METRICS_PREFIX + key, defaultValue);
+  }
+
+  private static SettingBundle getSettings() {
+    return ResourceLocator.getGeneralSettingBundle();
+  }
+
+  /**
+   * Are the metrics enabled?
+   * @return true if the meters measure something, false otherwise.
+   */
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Gets the counter with the specified name and tags. It is registered if it doesn't exist yet.
+   * @param name the name of the measure.
+   * @param tags the tags of the counter as a sequence of key and value pairs.
+   * @return a counter.
+   */
+  public Counter counter(final String name, final String... tags) {
+    return register(MeterId.of(name, tags), Counter.class, id -> new Counter(id, enabled));
+  }
+
+  /**
+   * Gets the timer with the specified name and tags. It is registered if it doesn't exist yet.
+   * @param name the name of the measure.
+   * @param tags the tags of the timer as a sequence of key and value pairs.
+   * @return a timer measuring all the operations.
+   */
+  public Timer timer(final String name, final String... tags) {
+    return sampledTimer(name, 1, tags);
+  }
+
+  /**
+   * Gets the sampled timer with the specified name and tags. It is registered if it doesn't
+   * exist yet, otherwise the sampling rate of the existing timer is kept.
+   * @param name the name of the measure.
+   * @param samplingRate the sampling rate: only one operation out of this rate is measured.
+   * @param tags the tags of the timer as a sequence of key and value pairs.
+   * @return a timer measuring a sample of the operations.
+   */
+  public Timer sampledTimer(final String name, final int samplingRate, final String... tags) {
+    return register(MeterId.of(name, tags), Timer.class,
+        id -> new Timer(id, enabled, samplingRate));
+  }
+
+  /**
+   * Gets the histogram with the specified name and tags. It is registered if it doesn't exist
+   * yet, otherwise the bucket bounds of the existing histogram are kept.
+   * @param name the name of the measure.
+   * @param bucketBounds the upper bounds, inclusive, of the buckets into which the values are
+   * counted.
+   * @param tags the tags of the histogram as a sequence of key and value pairs.
+   * @return a histogram.
+   */
+  public Histogram histogram(final String name, final long[] bucketBounds,
+      final String... tags) {
+    return register(MeterId.of(name, tags), Histogram.class,
+        id -> new Histogram(id, enabled, bucketBounds));
+  }
+
+  /**
+   * Registers a gauge with the specified name and tags. If it already exists, the existing gauge
+   * is kept.
+   * @param name the name of the measure.
+   * @param value the supplier of the value to read when the gauge is published.
+   * @param tags the tags of the gauge as a sequence of key and value pairs.
+   * @return a gauge.
+   */
+  public Gauge gauge(final String name, final Supplier<? extends Number> value,
+      final String... tags) {
+    return register(MeterId.of(name, tags), Gauge.class, id -> new Gauge(id, value));
+  }
+
+  /**
+   * Gets all the registered meters, sorted by their identifier.
+   * @return a list of meters. It is empty when the metrics are disabled.
+   */
+  public List<Meter> getMeters() {
+    final List<Meter> result = new ArrayList<>(meters.values());
+    result.sort(Comparator.comparing(Meter::getId));
+    return result;
+  }
+
+  /**
+   * Unregisters all the meters. The meters already got continue to measure, but they aren't
+   * published anymore.
+   */
+  public void clear() {
+    final Collection<Meter> registered = new ArrayList<>(meters.values());
+    meters.clear();
+    if (jmxPublisher != null) {
+      registered.forEach(jmxPublisher::unpublish);
+    }
+  }
+
+  private <M extends Meter> M register(final MeterId id, final Class<M> type,
+      final Function<MeterId, M> constructor) {
+    if (!enabled) {
+      return constructor.apply(id);
+    }
+    Meter meter = meters.get(id);
+    if (meter == null) {
+      final M newMeter = constructor.apply(id);
+      meter = meters.putIfAbsent(id, newMeter);
+      if (meter == null) {
+        meter = newMeter;
+        if (jmxPublisher != null) {
+          jmxPublisher.publish(newMeter);
+        }
+      }
+    }
+    if (!type.isInstance(meter)) {
+      throw new IllegalArgumentException(
+          "The meter " + id + " is already registered as a " + meter.getType());
+    }
+    return type.cast(meter);
+  }
+
+  private static class InstanceHolder {
+    private static final MetricRegistry INSTANCE = create();
+
+    private InstanceHolder() {
+    }
+
+    private static MetricRegistry create() {
+      try {
+        final SettingBundle settings = getSettings();
+        return new MetricRegistry(settings.getBoolean(METRICS_PREFIX + "enabled", false),
+            settings.getBoolean(METRICS_PREFIX + "jmx.enabled", true));
+      } catch (RuntimeException e) {
+        SilverLogger.getLogger("silverpeas.core.metrics")
+            .warn("The metrics settings cannot be read: metrics disabled. {0}", e.getMessage());
+        return new MetricRegistry(false, false);
+      }
+    }
+  }
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright (C) 2000 - 2018 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.util.metrics;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Formats the meters in the text exposition format of Prometheus (version 0.0.4). The dotted
+ * names of the meters are converted to the snake case of Prometheus, the counters are suffixed
+ * with <code>_total</code> and the timers are expressed in seconds, their durations being
+ * exposed as histograms with their maximum as an additional gauge. The histogram of a sampled
+ * timer is scaled by its sampling rate so that its counts and its sum estimate all the
+ * operations and not only the measured ones.
+ */
+public final class PrometheusTextFormat {
+
+  /**
+   * The content type of the text exposition format of Prometheus.
+   */
+  public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+  private static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+  private PrometheusTextFormat() {
+  }
+
+  /**
+   * Formats the specified meters. The meters are grouped by name, as expected by Prometheus for
+   * the samples of a same metric family.
+   * @param meters the meters to format.
+   * @return the text exposition of the meters.
+   */
+  public static String format(final Iterable<Meter> meters) {
+    final Map<String, List<Meter>> families = new LinkedHashMap<>();
+    for (Meter meter : meters) {
+      families.computeIfAbsent(sanitize(meter.getId().getName()) + " " + meter.getType(),
+          k -> new ArrayList<>()).add(meter);
+    }
+    final StringBuilder text = new StringBuilder();
+    families.values().forEach(family -> writeFamily(text, family));
+    return text.toString();
+  }
+
+  private static void writeFamily(final StringBuilder text, final List<Meter> family) {
+    final String name = sanitize(family.get(0).getId().getName());
+    switch (family.get(0).getType()) {
+      case COUNTER:
+        writeType(text, name + "_total", "counter");
+        family.forEach(m -> writeSample(text, name + "_total", m.getId().getTags(), null,
+            format(((Counter) m).getCount())));
+        break;
+      case GAUGE:
+        writeType(text, name, "gauge");
+        family.forEach(m -> writeSample(text, name, m.getId().getTags(), null,
+            format(((Gauge) m).getValue())));
+        break;
+      case HISTOGRAM:
+        writeType(text, name, "histogram");
+        family.forEach(
+            m -> writeHistogram(text, name, m.getId().getTags(), (Histogram) m, 1, 1));
+        break;
+      case TIMER:
+        writeType(text, name + "_seconds", "histogram");
+        family.forEach(m -> writeHistogram(text, name + "_seconds", m.getId().getTags(),
+            ((Timer) m).getDurations(), NANOS_PER_SECOND, ((Timer) m).getSamplingRate()));
+        writeType(text, name + "_seconds_max", "gauge");
+        family.forEach(m -> writeSample(text, name + "_seconds_max", m.getId().getTags(), null,
+            format(((Timer) m).getMax(TimeUnit.SECONDS))));
+        break;
+      default:
+        break;
+    }
+  }
+
+  private static void writeHistogram(final StringBuilder text, final String name,
+      final Map<String, String> tags, final Histogram histogram, final double unit,
+      final int scale) {
+    final long[] bounds = histogram.getBucketBounds();
+    final long[] counts = histogram.getCumulativeBucketCounts();
+    for (int i = 0; i < bounds.length; i++) {
+      writeSample(text, name + "_bucket", tags, format(bounds[i] / unit),
+          format(counts[i] * scale));
+    }
+    writeSample(text, name + "_bucket", tags, "+Inf", format(counts[bounds.length] * scale));
+    writeSample(text, name + "_sum", tags, null,
+        format((double) histogram.getTotal() * scale / unit));
+    writeSample(text, name + "_count", tags, null, format(histogram.getCount() * scale));
+  }
+
+  private static void writeType(final StringBuilder text, final String name,
+      final String type) {
+    text.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+  }
+
+  private static void writeSample(final StringBuilder text, final String name,
+      final Map<String, String> tags, final String bucketBound, final String value) {
+    text.append(name);
+    if (!tags.isEmpty() || bucketBound != null) {
+      text.append('{');
+      boolean first = true;
+      for (Map.Entry<String, String> tag : tags.entrySet()) {
+        if (!first) {
+          text.append(',');
+        }
+        text.append(sanitize(tag.getKey())).append("=\"").append(escape(tag.getValue()))
+            .append('"');
+        first = false;
+      }
+      if (bucketBound != null) {
+        text.append(first ? "" : ",").append("le=\"").append(bucketBound).append('"');
+      }
+      text.append('}');
+    }
+    text.append(' ').append(value).append('\n');
+  }
+
+  private static String sanitize(final String name) {
+    final StringBuilder sanitized = new StringBuilder(name.length());
+    for (int i = 0; i < name.length(); i++) {
+      final char c = name.charAt(i);
+      final boolean valid = (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c == '_' ||
+          (i > 0 && c >= '0' && c <= '9');
+      sanitized.append(valid ? c : '_');
+    }
+    return sanitized.toString();
+  }
+
+  private static String escape(final String value) {
+    return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+  }
+
+  private static String format(final long value) {
+    return Long.toString(value);
+  }
+
+  private static String format(final double value) {
+    if (Double.isNaN(value)) {
+      return "NaN";
+    } else if (Double.isInfinite(value)) {
+      return value > 0 ? "+Inf" : "-Inf";
+    }
+    return Double.toString(value);
+  }
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright (C) 2000 - 2018 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.util.metrics;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * A timer measures the duration of an operation. It is a {@link Histogram} of durations in
+ * nanoseconds, with buckets suitable for latencies from one millisecond up to ten seconds.
+ * <p>
+ * A timer can be sampled: only one operation out of a given rate, randomly chosen, is then
+ * measured. This is for the operations that are so frequent that measuring each of them would
+ * cost too much. The timer is used as following, without allocating anything:
+ * </p>
+ * <pre>
+ *   final long start = timer.start();
+ *   try {
+ *     // the operation to measure
+ *   } finally {
+ *     timer.stop(start);
+ *   }
+ * </pre>
+ */
+public final class Timer extends Meter {
+
+  static final long[] LATENCY_BOUNDS = {
+      TimeUnit.MILLISECONDS.toNanos(1), TimeUnit.MILLISECONDS.toNanos(5),
+      TimeUnit.MILLISECONDS.toNanos(10), TimeUnit.MILLISECONDS.toNanos(25),
+      TimeUnit.MILLISECONDS.toNanos(50), TimeUnit.MILLISECONDS.toNanos(100),
+      TimeUnit.MILLISECONDS.toNanos(250), TimeUnit.MILLISECONDS.toNanos(500),
+      TimeUnit.SECONDS.toNanos(1), TimeUnit.MILLISECONDS.toNanos(2500),
+      TimeUnit.SECONDS.toNanos(5), TimeUnit.SECONDS.toNanos(10)};
+
+  private static final long NOT_MEASURED = 0;
+
+  private final boolean enabled;
+  private final int samplingRate;
+  private final Histogram durations;
+
+  Timer(final MeterId id, final boolean enabled, final int samplingRate) {
+    super(id);
+    this.enabled = enabled;
+    this.samplingRate = Math.max(1, samplingRate);
+    this.durations = new Histogram(id, enabled, LATENCY_BOUNDS);
+  }
+
+  @Override
+  public Type getType() {
+    return Type.TIMER;
+  }
+
+  /**
+   * Gets the sampling rate of this timer.
+   * @return 1 if every operation is measured, n if only one operation out of n is measured.
+   */
+  public int getSamplingRate() {
+    return samplingRate;
+  }
+
+  /**
+   * Starts the measure of an operation.
+   * @return the start time to pass to {@link #stop(long)}. It is 0 when the operation isn't
+   * measured, either because the metrics are disabled or because it isn't sampled.
+   */
+  public long start() {
+    if (!enabled ||
+        (samplingRate > 1 && ThreadLocalRandom.current().nextInt(samplingRate) != 0)) {
+      return NOT_MEASURED;
+    }
+    return System.nanoTime();
+  }
+
+  /**
+   * Stops the measure of an operation started with {@link #start()}.
+   * @param start the value returned by {@link #start()}.
+   */
+  public void stop(final long start) {
+    if (start != NOT_MEASURED) {
+      durations.record(System.nanoTime() - start);
+    }
+  }
+
+  /**
+   * Records the specified duration of an operation. The sampling rate isn't applied.
+   * @param duration the duration of the operation.
+   * @param unit the time unit of the duration.
+   */
+  public void record(final long duration, final TimeUnit unit) {
+    durations.record(unit.toNanos(duration));
+  }
+
+  /**
+   * Measures the specified operation.
+   * @param operation the operation to measure.
+   */
+  public void record(final Runnable operation) {
+    final long start = start();
+    try {
+      operation.run();
+    } finally {
+      stop(start);
+    }
+  }
+
+  /**
+   * Measures the specified operation.
+   * @param operation the operation to measure.
+   * @param <T> the type of the result of the operation.
+   * @return the result of the operation.
+   */
+  public <T> T record(final Supplier<T> operation) {
+    final long start = start();
+    try {
+      return operation.get();
+    } finally {
+      stop(start);
+    }
+  }
+
+  /**
+   * Gets the number of measured operations.
+   * @return the count of measures.
+   */
+  public long getCount() {
+    return durations.getCount();
+  }
+
+  /**
+   * Gets the cumulated duration of the measured operations.
+   * @param unit the time unit in which the duration is expressed.
+   * @return the total duration.
+   */
+  public double getTotalTime(final TimeUnit unit) {
+    return toUnit(durations.getTotal(), unit);
+  }
+
+  /**
+   * Gets the longest duration of the measured operations.
+   * @param unit the time unit in which the duration is expressed.
+   * @return the maximum duration.
+   */
+  public double getMax(final TimeUnit unit) {
+    return toUnit(durations.getMax(), unit);
+  }
+
+  /**
+   * Gets the mean duration of the measured operations.
+   * @param unit the time unit in which the duration is expressed.
+   * @return the mean duration.
+   */
+  public double getMean(final TimeUnit unit) {
+    return durations.getMean() / unit.toNanos(1);
+  }
+
+  /**
+   * Gets the distribution of the durations, in nanoseconds.
+   * @return the histogram of the durations.
+   */
+  public Histogram getDurations() {
+    return durations;
+  }
+
+  private static double toUnit(final long nanos, final TimeUnit unit) {
+    return (double) nanos / unit.toNanos(1);
+  }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright (C) 2000 - 2018 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.util.metrics;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Unit tests on the registration of the meters and on their measures.
+ */
+public class MetricRegistryTest {
+
+  private MetricRegistry registry;
+
+  @AfterEach
+  public void clearRegistry() {
+    if (registry != null) {
+      registry.clear();
+    }
+  }
+
+  @Test
+  public void theSameMeterIsGotForTheSameNameAndTags() {
+    registry = new MetricRegistry(true, false);
+    final Counter counter = registry.counter("test.counter", "kind", "a");
+    assertThat(registry.counter("test.counter", "kind", "a"), sameInstance(counter));
+    assertThat(registry.counter("test.counter", "kind", "b"), not(sameInstance(counter)));
+    assertThat(registry.getMeters().size(), is(2));
+  }
+
+  @Test
+  public void aMeterCannotBeRegisteredWithAnotherType() {
+    registry = new MetricRegistry(true, false);
+    registry.counter("test.meter");
+    assertThrows(IllegalArgumentException.class, () -> registry.timer("test.meter"));
+  }
+
+  @Test
+  public void disabledMetersMeasureNothingAndAreNotRegistered() {
+    registry = new MetricRegistry(false, false);
+    final Counter counter = registry.counter("test.counter");
+    final Timer timer = registry.timer("test.timer");
+    counter.increment();
+    timer.stop(timer.start());
+    timer.record(10, TimeUnit.MILLISECONDS);
+    assertThat(timer.start(), is(0L));
+    assertThat(counter.getCount(), is(0L));
+    assertThat(timer.getCount(), is(0L));
+    assertThat(registry.getMeters(), empty());
+  }
+
+  @Test
+  public void histogramCountsTheValuesIntoTheirBuckets() {
+    registry = new MetricRegistry(true, false);
+    final Histogram histogram = registry.histogram("test.histogram", new long[]{10, 100});
+    histogram.record(5);
+    histogram.record(10);
+    histogram.record(50);
+    histogram.record(1000);
+    assertThat(histogram.getCount(), is(4L));
+    assertThat(histogram.getTotal(), is(1065L));
+    assertThat(histogram.getMax(), is(1000L));
+    assertThat(histogram.getCumulativeBucketCounts(), is(new long[]{2, 3, 4}));
+  }
+
+  @Test
+  public void sampledTimerMeasuresOnlyAPartOfTheOperations() {
+    registry = new MetricRegistry(true, false);
+    final Timer timer = registry.sampledTimer("test.sampled", 10);
+    for (int i = 0; i < 10000; i++) {
+      timer.stop(timer.start());
+    }
+    assertThat(timer.getSamplingRate(), is(10));
+    assertThat(timer.getCount(), both(greaterThan(500L)).and(lessThan(1500L)));
+  }
+
+  @Test
+  public void gaugeReadsItsValueOnDemand() {
+    registry = new MetricRegistry(true, false);
+    final int[] value = {1};
+    final Gauge gauge = registry.gauge("test.gauge", () -> value[0]);
+    value[0] = 42;
+    assertThat(gauge.getValue(), is(42.0));
+  }
+
+  @Test
+  public void metersArePublishedInJmx() throws Exception {
+    registry = new MetricRegistry(true, true);
+    final Timer timer = registry.timer("test.jmx.timer", "kind", "unit");
+    timer.record(20, TimeUnit.MILLISECONDS);
+    final ObjectName name = JmxMeterPublisher.objectNameOf(timer.getId());
+    assertThat(ManagementFactory.getPlatformMBeanServer().getAttribute(name, "Count"), is(1L));
+    assertThat(ManagementFactory.getPlatformMBeanServer().getAttribute(name, "MaxMillis"),
+        is(20.0));
+
+    registry.clear();
+    assertThat(ManagementFactory.getPlatformMBeanServer().isRegistered(name), is(false));
+  }
+}
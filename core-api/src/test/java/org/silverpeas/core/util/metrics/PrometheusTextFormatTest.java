@@ -0,0 +1,101 @@
+/*
+ * Copyright (C) 2000 - 2018 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.util.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Unit tests on the formatting of the meters in the text exposition format of Prometheus.
+ */
+public class PrometheusTextFormatTest {
+
+  private final MetricRegistry registry = new MetricRegistry(true, false);
+
+  @Test
+  public void countersAndGaugesAreFormattedWithTheirTags() {
+    registry.counter("silverpeas.jdbc.statements", "kind", "select").increment(3);
+    registry.counter("silverpeas.jdbc.statements", "kind", "modify").increment();
+    registry.gauge("silverpeas.sse.contexts", () -> 12);
+
+    final String text = PrometheusTextFormat.format(registry.getMeters());
+    assertThat(text, is("# TYPE silverpeas_jdbc_statements_total counter\n" +
+        "silverpeas_jdbc_statements_total{kind=\"modify\"} 1\n" +
+        "silverpeas_jdbc_statements_total{kind=\"select\"} 3\n" +
+        "# TYPE silverpeas_sse_contexts gauge\n" +
+        "silverpeas_sse_contexts 12.0\n"));
+  }
+
+  @Test
+  public void timersAreFormattedAsHistogramsInSeconds() {
+    final Timer page = registry.timer("silverpeas.index.search", "kind", "page");
+    final Timer full = registry.timer("silverpeas.index.search", "kind", "full");
+    page.record(3, TimeUnit.MILLISECONDS);
+    page.record(2, TimeUnit.SECONDS);
+    full.record(40, TimeUnit.MILLISECONDS);
+
+    final String text = PrometheusTextFormat.format(registry.getMeters());
+    assertThat(text, startsWith("# TYPE silverpeas_index_search_seconds histogram\n"));
+    assertThat(text, containsString(
+        "silverpeas_index_search_seconds_bucket{kind=\"page\",le=\"0.005\"} 1\n"));
+    assertThat(text, containsString(
+        "silverpeas_index_search_seconds_bucket{kind=\"page\",le=\"2.5\"} 2\n"));
+    assertThat(text, containsString(
+        "silverpeas_index_search_seconds_bucket{kind=\"page\",le=\"+Inf\"} 2\n"));
+    assertThat(text, containsString("silverpeas_index_search_seconds_sum{kind=\"page\"} 2.003\n"));
+    assertThat(text, containsString("silverpeas_index_search_seconds_count{kind=\"full\"} 1\n"));
+    assertThat(text, containsString("# TYPE silverpeas_index_search_seconds_max gauge\n" +
+        "silverpeas_index_search_seconds_max{kind=\"full\"} 0.04\n" +
+        "silverpeas_index_search_seconds_max{kind=\"page\"} 2.0\n"));
+    assertThat(text.indexOf("# TYPE silverpeas_index_search_seconds histogram"),
+        is(text.lastIndexOf("# TYPE silverpeas_index_search_seconds histogram")));
+  }
+
+  @Test
+  public void sampledTimersAreScaledByTheirSamplingRate() {
+    final Timer timer = registry.sampledTimer("silverpeas.jdbc.statements.duration", 10);
+    timer.record(3, TimeUnit.MILLISECONDS);
+    timer.record(2, TimeUnit.SECONDS);
+
+    final String text = PrometheusTextFormat.format(registry.getMeters());
+    assertThat(text, containsString(
+        "silverpeas_jdbc_statements_duration_seconds_bucket{le=\"0.005\"} 10\n"));
+    assertThat(text, containsString(
+        "silverpeas_jdbc_statements_duration_seconds_bucket{le=\"+Inf\"} 20\n"));
+    assertThat(text, containsString("silverpeas_jdbc_statements_duration_seconds_sum 20.03\n"));
+    assertThat(text, containsString("silverpeas_jdbc_statements_duration_seconds_count 20\n"));
+    assertThat(text, containsString("silverpeas_jdbc_statements_duration_seconds_max 2.0\n"));
+  }
+
+  @Test
+  public void labelValuesAreEscaped() {
+    registry.counter("test.escape", "value", "a \"quoted\"\\path\n").increment();
+    assertThat(PrometheusTextFormat.format(registry.getMeters()),
+        containsString("test_escape_total{value=\"a \\\"quoted\\\"\\\\path\\n\"} 1\n"));
+  }
+}
@@ -0,0 +1,11 @@
+CREATE TABLE SB_Stat_ComponentVolume
+(
+    componentId		varchar(50)	not null,
+    fileCount		decimal(19)	not null,
+    fileSize		decimal(19)	not null,
+    scanDate		varchar(10)	not null,
+    revision		decimal(19)	not null,
+    dirty		integer		not null
+);
+
+CREATE UNIQUE INDEX IND_Stat_ComponentVolume ON SB_Stat_ComponentVolume (componentId);
@@ -0,0 +1,19 @@
+CREATE TABLE SB_Workflow_Inbox
+(
+  instanceId     int          NOT NULL,
+  modelId        varchar(50)  NOT NULL,
+  role           varchar(50)  NOT NULL,
+  userId         varchar(50)  NULL,
+  usersRole      varchar(50)  NULL,
+  groupId        varchar(50)  NULL,
+  title          varchar(500) NULL,
+  locked         numeric(1)   NOT NULL,
+  errorStatus    numeric(1)   NOT NULL,
+  timeoutStatus  numeric(1)   NOT NULL,
+  lastUpdateDate timestamp    NOT NULL
+);
+
+CREATE INDEX IDX_WF_INBOX_INSTANCE ON SB_Workflow_Inbox (instanceId);
+CREATE INDEX IDX_WF_INBOX_USER ON SB_Workflow_Inbox (modelId, role, userId);
+CREATE INDEX IDX_WF_INBOX_USERSROLE ON SB_Workflow_Inbox (modelId, role, usersRole);
+CREATE INDEX IDX_WF_INBOX_GROUP ON SB_Workflow_Inbox (modelId, role, groupId);
@@ -0,0 +1 @@
+CREATE INDEX IDX_WF_ACTIVESTATE_TIMEOUT ON SB_Workflow_ActiveState (timeoutDate);
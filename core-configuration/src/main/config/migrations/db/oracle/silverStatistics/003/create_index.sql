@@ -0,0 +1,11 @@
+CREATE INDEX IND_State_ConnectionCumul1 ON SB_Stat_ConnectionCumul (dateStat ASC)
+;
+CREATE INDEX IND_State_ConnectionCumul2 ON SB_Stat_ConnectionCumul (userId ASC)
+;
+
+CREATE UNIQUE INDEX IND_Stat_AccessRollup1 ON SB_Stat_AccessRollup (period, dateStat, spaceId, componentId)
+;
+CREATE INDEX IND_Stat_AccessRollup2 ON SB_Stat_AccessRollup (componentId, period)
+;
+CREATE INDEX IND_Stat_AccessRollup3 ON SB_Stat_AccessRollup (spaceId, period)
+;
@@ -0,0 +1,12 @@
+CREATE TABLE SB_Stat_AccessRollup
+(
+    period		varchar(5)	not null,
+    dateStat		varchar(10)	not null,
+    spaceId		varchar(50)	not null,
+    componentId		varchar(50)	not null,
+    countAccess		decimal(19)	not null
+);
+
+CREATE UNIQUE INDEX IND_Stat_AccessRollup1 ON SB_Stat_AccessRollup (period, dateStat, spaceId, componentId);
+CREATE INDEX IND_Stat_AccessRollup2 ON SB_Stat_AccessRollup (componentId, period);
+CREATE INDEX IND_Stat_AccessRollup3 ON SB_Stat_AccessRollup (spaceId, period);
@@ -0,0 +1,2 @@
+ALTER TABLE SB_Workflow_ActiveState
+  ADD timeoutLease TIMESTAMP NULL;
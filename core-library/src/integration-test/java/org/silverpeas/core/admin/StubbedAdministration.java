@@ -73,6 +73,11 @@ public class StubbedAdministration implements Administration {
 
   }
 
+  @Override
+  public long getOrganizationVersion(final String userId) {
+    return 0;
+  }
+
   @Override
   public void initSynchronization() {
 
@@ -0,0 +1,117 @@
+/*
+ * Copyright (C) 2000 - 2018 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.admin.service.cache;
+
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.junit.Arquillian;
+import org.jboss.shrinkwrap.api.Archive;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.silverpeas.core.test.WarBuilder4LibCore;
+
+import javax.inject.Inject;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Integration tests on the propagation of the cache invalidations through the JMS topic of the
+ * embedded broker.
+ */
+@RunWith(Arquillian.class)
+public class CacheInvalidationIT {
+
+  private static final int BATCH_COUNT = 200;
+  private static final long TIMEOUT = 10000;
+
+  @Inject
+  private CacheInvalidationBus bus;
+
+  private List<CacheInvalidation> received;
+  private String otherNode;
+
+  @Deployment
+  public static Archive<?> createTestArchive() {
+    return WarBuilder4LibCore.onWarForTestClass(CacheInvalidationIT.class)
+        .testFocusedOn(war -> war.addClasses(CacheInvalidation.class,
+            CacheInvalidationBatch.class, CacheInvalidationBus.class,
+            CacheInvalidationListener.class))
+        .build();
+  }
+
+  @Before
+  public void subscribe() {
+    received = Collections.synchronizedList(new ArrayList<>());
+    bus.subscribe(received::add);
+    otherNode = UUID.randomUUID().toString();
+  }
+
+  @Test
+  public void theBatchesOfANodeAreDispatchedInTheOrderTheyWereSent() throws Exception {
+    final List<CacheInvalidation> expected = LongStream.rangeClosed(1, BATCH_COUNT)
+        .mapToObj(i -> CacheInvalidation.ofUser(String.valueOf(i)))
+        .collect(Collectors.toList());
+    for (int i = 0; i < BATCH_COUNT; i++) {
+      bus.send(aBatch(i + 1, expected.get(i)));
+    }
+
+    waitForReception(BATCH_COUNT);
+    // no batch is seen as missed and therefore no invalidation of all the caches
+    assertThat(received, is(expected));
+  }
+
+  @Test
+  public void aBatchMissedInvalidatesAllTheCachesOnceAndALateOneIsIgnored() throws Exception {
+    bus.send(aBatch(1, CacheInvalidation.ofUser("1")));
+    bus.send(aBatch(3, CacheInvalidation.ofUser("3")));
+    bus.send(aBatch(2, CacheInvalidation.ofUser("2")));
+    bus.send(aBatch(4, CacheInvalidation.ofUser("4")));
+
+    waitForReception(3);
+    assertThat(received, is(Arrays.asList(CacheInvalidation.ofUser("1"), CacheInvalidation.all(),
+        CacheInvalidation.ofUser("4"))));
+  }
+
+  private CacheInvalidationBatch aBatch(final long sequence,
+      final CacheInvalidation invalidation) {
+    return new CacheInvalidationBatch(otherNode, sequence, Collections.singleton(invalidation));
+  }
+
+  private void waitForReception(final int count) throws InterruptedException {
+    final long deadline = System.currentTimeMillis() + TIMEOUT;
+    while (received.size() < count && System.currentTimeMillis() < deadline) {
+      Thread.sleep(100);
+    }
+    // leaves the time to receive unexpected invalidations
+    Thread.sleep(500);
+  }
+}
@@ -389,6 +389,11 @@ public class OrganizationControllerMock implements OrganizationController {
     return false;
   }
 
+  @Override
+  public long getOrganizationVersion(final String userId) {
+    return 0;
+  }
+
   @Override
   public boolean isObjectAvailable(final int objectId, final ObjectType objectType,
       final String componentId, final String userId) {
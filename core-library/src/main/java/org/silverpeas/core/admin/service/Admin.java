@@ -47,6 +47,8 @@ import org.silverpeas.core.admin.persistence.AdminPersistenceException;
 import org.silverpeas.core.admin.quota.exception.QuotaException;
 import org.silverpeas.core.admin.quota.model.Quota;
 import org.silverpeas.core.admin.service.cache.AdminCache;
+import org.silverpeas.core.admin.service.cache.CacheInvalidation;
+import org.silverpeas.core.admin.service.cache.CacheInvalidationBus;
 import org.silverpeas.core.admin.service.cache.TreeCache;
 import org.silverpeas.core.admin.space.SpaceAndChildren;
 import org.silverpeas.core.admin.space.SpaceInst;
@@ -83,6 +85,8 @@ import org.silverpeas.core.util.*;
 import org.silverpeas.core.util.file.FileRepositoryManager;
 import org.silverpeas.core.util.logging.Level;
 import org.silverpeas.core.util.logging.SilverLogger;
+import org.silverpeas.core.util.metrics.MetricRegistry;
+import org.silverpeas.core.util.metrics.Timer;
 
 import javax.annotation.Nonnull;
 import javax.annotation.PostConstruct;
@@ -147,6 +151,14 @@ class Admin implements Administration {
   private static final String ADMIN_SYNCHRONIZE_GROUPS = "admin.synchronizeGroups";
   private static final String ADMIN_SYNCHRONIZE_CHECK_OUT_GROUPS = "admin.checkOutGroups";
   private static final String ID_IS = " (id:";
+  private static final String RIGHTS_METRIC = "silverpeas.admin.rights";
+  private static final String RIGHTS_CHECK = "check";
+  private static final Timer COMPONENT_RIGHTS_TIMER =
+      MetricRegistry.get().timer(RIGHTS_METRIC, RIGHTS_CHECK, "components");
+  private static final Timer PROFILE_RIGHTS_TIMER =
+      MetricRegistry.get().timer(RIGHTS_METRIC, RIGHTS_CHECK, "profiles");
+  private static final Timer OBJECT_RIGHTS_TIMER =
+      MetricRegistry.get().timer(RIGHTS_METRIC, RIGHTS_CHECK, "objects");
 
   // Divers
   private final Object semaphore = new Object();
@@ -194,6 +206,8 @@ class Admin implements Administration {
   private TreeCache treeCache;
   @Inject
   private GroupCache groupCache;
+  @Inject
+  private CacheInvalidationBus invalidationBus;
 
   private void setup() {
     // Load silverpeas admin resources
@@ -222,21 +236,105 @@ class Admin implements Administration {
       this.reloadCache();
       return null;
     });
+    invalidationBus.subscribe(this::invalidate);
+  }
+
+  /**
+   * Invalidates the caches according to the specified invalidation received from another node of
+   * a Silverpeas cluster. The changed spaces and component instances are reloaded in the tree
+   * cache whereas the other data are just dropped from the caches. If the caches cannot be
+   * updated, they are all reloaded.
+   * @param invalidation an invalidation of the caches.
+   */
+  private void invalidate(CacheInvalidation invalidation) {
+    try {
+      Transaction.performInOne(() -> {
+        switch (invalidation.getScope()) {
+          case ALL:
+            domainCache.clearCache();
+            reloadCache();
+            return null;
+          case SPACE:
+            invalidateSpaceInTreeCache(Integer.parseInt(invalidation.getId()));
+            break;
+          case COMPONENT:
+            invalidateComponentInTreeCache(invalidation.getId());
+            break;
+          case USER:
+          case REMOVED_USER:
+            groupCache.removeCacheOfUser(invalidation.getId());
+            break;
+          case GROUP:
+          case REMOVED_GROUP:
+            groupCache.clearCache();
+            break;
+          case DOMAIN:
+            domainCache.removeDomain(invalidation.getId());
+            break;
+          default:
+            break;
+        }
+        cache.invalidate(invalidation);
+        return null;
+      });
+    } catch (Exception e) {
+      SilverLogger.getLogger(this).error(e);
+      reloadCache();
+    }
+  }
+
+  private void invalidateSpaceInTreeCache(int spaceId) throws AdminException {
+    Set<String> fatherIds = new HashSet<>();
+    treeCache.getSpaceInstLight(spaceId).ifPresent(s -> fatherIds.add(s.getFatherId()));
+    treeCache.removeSpace(spaceId);
+    SpaceInstLight space = spaceManager.getSpaceInstLightById(spaceId);
+    if (space != null && !space.isRemoved()) {
+      fatherIds.add(space.getFatherId());
+      addSpaceInTreeCache(space, false);
+    }
+    // the order of the subspaces in both the previous and the new father can have changed
+    for (String fatherId : fatherIds) {
+      if (!SpaceInstLight.isRoot(fatherId)) {
+        int driverFatherId = getDriverSpaceId(fatherId);
+        treeCache.setSubspaces(driverFatherId, spaceManager.getSubSpaces(driverFatherId));
+      }
+    }
+  }
+
+  private void invalidateComponentInTreeCache(String componentId) throws AdminException {
+    Set<Integer> spaceIds = new HashSet<>();
+    treeCache.getSpaceContainingComponent(componentId).ifPresent(s -> spaceIds.add(s.getLocalId()));
+    ComponentInstLight component =
+        componentManager.getComponentInstLight(getDriverComponentId(componentId));
+    if (component != null && component.getId().equals(componentId)) {
+      spaceIds.add(getDriverSpaceId(component.getDomainFatherId()));
+    }
+    for (Integer spaceId : spaceIds) {
+      treeCache.setComponents(spaceId, componentManager.getComponentsInSpace(spaceId));
+    }
+  }
+
+  @Override
+  public long getOrganizationVersion(String userId) {
+    return cache.getVersion(userId);
   }
 
   @Override
   public void reloadCache() {
     cache.resetCache();
-    treeCache.clearCache();
     groupCache.clearCache();
     try {
 
+      Map<Integer, Space> spacesInCache = new LinkedHashMap<>();
       List<SpaceInstLight> spaces = spaceManager.getAllSpaces();
       for (SpaceInstLight space : spaces) {
-        addSpaceInTreeCache(space, false);
+        loadSpaceForTreeCache(space, spacesInCache);
       }
+      // the whole tree is replaced at once: the lookups never see it partially loaded
+      treeCache.setSpaces(spacesInCache.values());
 
     } catch (Exception e) {
+      treeCache.clearCache();
       SilverLogger.getLogger(this).error(e);
     }
   }
@@ -286,6 +384,20 @@ class Admin implements Administration {
 
   private void addSpaceInTreeCache(SpaceInstLight space, boolean addSpaceToSuperSpace)
       throws AdminException {
+    Map<Integer, Space> spacesInCache = new LinkedHashMap<>();
+    loadSpaceForTreeCache(space, spacesInCache);
+    treeCache.addSpaces(spacesInCache.values());
+
+    if (addSpaceToSuperSpace && !space.isRoot()) {
+      treeCache.addSubSpace(Integer.parseInt(space.getFatherId()), space);
+    }
+  }
+
+  private void loadSpaceForTreeCache(SpaceInstLight space, Map<Integer, Space> spacesInCache)
+      throws AdminException {
+    if (spacesInCache.containsKey(space.getLocalId())) {
+      return;
+    }
     Space spaceInCache = new Space();
     spaceInCache.setSpaceInstLight(space);
     List<ComponentInstLight> components = componentManager.getComponentsInSpace(space.getLocalId());
@@ -294,14 +406,10 @@ class Admin implements Administration {
     List<SpaceInstLight> subSpaces = getSubSpaces(space.getId());
 
     spaceInCache.setSubspaces(subSpaces);
-    treeCache.addSpace(space.getLocalId(), spaceInCache);
+    spacesInCache.put(space.getLocalId(), spaceInCache);
 
     for (SpaceInstLight subSpace : subSpaces) {
-      addSpaceInTreeCache(subSpace, false);
-    }
-
-    if (addSpaceToSuperSpace && !space.isRoot()) {
-      treeCache.addSubSpace(Integer.parseInt(space.getFatherId()), space);
+      loadSpaceForTreeCache(subSpace, spacesInCache);
     }
   }
 
@@ -374,6 +482,7 @@ class Admin implements Administration {
 
       SpaceInstLight space = getSpaceInstLight(spaceInst.getLocalId());
       addSpaceInTreeCache(space, true);
+      invalidationBus.publish(CacheInvalidation.ofSpace(spaceInst.getLocalId()));
 
       // indexation de l'espace
 
@@ -416,6 +525,7 @@ class Admin implements Administration {
 
       cache.opRemoveSpace(spaceInst);
       treeCache.removeSpace(driverSpaceId);
+      invalidationBus.publish(CacheInvalidation.ofSpace(driverSpaceId));
       // desindexation de l'espace
       deleteSpaceIndex(spaceInst);
       return spaceId;
@@ -522,6 +632,7 @@ class Admin implements Administration {
       // reset space and eventually subspace
       cache.opAddSpace(spaceInst);
       addSpaceInTreeCache(getSpaceInstLight(driverSpaceId), true);
+      invalidationBus.publish(CacheInvalidation.ofSpace(driverSpaceId));
     } catch (Exception e) {
       throw new AdminException(failureOnRestoring(SPACE, spaceId), e);
     }
@@ -600,6 +711,7 @@ class Admin implements Administration {
           spaceManager.getSpaceInstLightById(getDriverSpaceId(spaceInstNew.getId()));
       spaceLight.setInheritanceBlocked(spaceInstNew.isInheritanceBlocked());
       treeCache.updateSpace(spaceLight);
+      invalidationBus.publish(CacheInvalidation.ofSpace(spaceLight.getLocalId()));
 
       // indexation de l'espace
 
@@ -617,6 +729,7 @@ class Admin implements Administration {
       // Update the space in tables
       spaceManager.updateSpaceOrder(driverSpaceId, orderNum);
       cache.opUpdateSpace(spaceManager.getSpaceInstById(driverSpaceId));
+      invalidationBus.publish(CacheInvalidation.ofSpace(driverSpaceId));
 
       // Update space order
       Optional<SpaceInstLight> optionalSpace = treeCache.getSpaceInstLight(driverSpaceId);
@@ -917,6 +1030,7 @@ class Admin implements Administration {
       cache.opUpdateComponent(componentInst);
       ComponentInstLight component = getComponentInstLight(componentId);
       treeCache.addComponent(component, getDriverSpaceId(component.getDomainFatherId()));
+      invalidationBus.publish(CacheInvalidation.ofComponent(componentId));
       createComponentIndex(component);
     } catch (Exception e) {
       throw new AdminException(failureOnRestoring(COMPONENT, componentId));
@@ -1022,6 +1136,7 @@ class Admin implements Administration {
 
       ComponentInstLight component = getComponentInstLight(componentId);
       treeCache.addComponent(component, getDriverSpaceId(spaceInstFather.getId()));
+      invalidationBus.publish(CacheInvalidation.ofComponent(componentId));
 
       // indexation du composant
       createComponentIndex(component);
@@ -1117,6 +1232,7 @@ class Admin implements Administration {
 
       cache.opRemoveComponent(componentInst);
       treeCache.removeComponent(getDriverSpaceId(sFatherClientId), componentId);
+      invalidationBus.publish(CacheInvalidation.ofComponent(componentId));
 
       // unindex component
       deleteComponentIndex(componentId);
@@ -1139,6 +1255,7 @@ class Admin implements Administration {
       // Update the Component in tables
       componentManager.updateComponentOrder(driverComponentId, orderNum);
       cache.opUpdateComponent(componentManager.getComponentInst(driverComponentId, null));
+      invalidationBus.publish(CacheInvalidation.ofComponent(componentId));
     } catch (Exception e) {
       throw new AdminException(failureOnUpdate(COMPONENT, componentId), e);
     }
@@ -1161,6 +1278,7 @@ class Admin implements Administration {
 
       cache.opUpdateComponent(component);
       treeCache.updateComponent(getComponentInstLight(component.getId()));
+      invalidationBus.publish(CacheInvalidation.ofComponent(componentClientId));
 
       // indexation du composant
       createComponentIndex(componentClientId);
@@ -1445,6 +1563,7 @@ class Admin implements Administration {
     if (!moveOnTop) {
       treeCache.setSubspaces(shortFatherId, spaceManager.getSubSpaces(shortFatherId));
     }
+    invalidationBus.publish(CacheInvalidation.ofSpace(shortSpaceId));
 
     String[] allComponentIds = getAllComponentIdsRecur(spaceId);
     for (String componentId : allComponentIds) {
@@ -1549,6 +1668,7 @@ class Admin implements Administration {
           componentManager.getComponentsInSpace(getDriverSpaceId(oldSpaceId)));
       treeCache.setComponents(getDriverSpaceId(spaceId),
           componentManager.getComponentsInSpace(getDriverSpaceId(spaceId)));
+      invalidationBus.publish(CacheInvalidation.ofComponent(componentId));
     } catch (Exception e) {
       throw new AdminException("Fail to move component " + componentId + " into space " + spaceId,
           e);
@@ -1641,9 +1761,14 @@ class Admin implements Administration {
   @Override
   public String[] getProfilesByObjectAndUserId(int objectId, String objectType, String componentId,
       String userId) throws AdminException {
-    List<String> groups = getAllGroupsOfUser(userId);
-    return profiledObjectManager.getUserProfileNames(objectId, objectType,
-        getDriverComponentId(componentId), Integer.parseInt(userId), groups);
+    final long start = OBJECT_RIGHTS_TIMER.start();
+    try {
+      List<String> groups = getAllGroupsOfUser(userId);
+      return profiledObjectManager.getUserProfileNames(objectId, objectType,
+          getDriverComponentId(componentId), Integer.parseInt(userId), groups);
+    } finally {
+      OBJECT_RIGHTS_TIMER.stop(start);
+    }
   }
 
   @Override
@@ -1692,6 +1817,8 @@ class Admin implements Administration {
 
       if (profileInst.getObjectId() == -1 || profileInst.getObjectId() == 0) {
         cache.opAddProfile(profileManager.getProfileInst(sProfileId));
+        invalidationBus.publish(
+            CacheInvalidation.ofComponentProfiles(profileInst.getComponentFatherId()));
       }
       return sProfileId;
     } catch (Exception e) {
@@ -1733,6 +1860,8 @@ class Admin implements Administration {
 
       if (profile.getObjectId() == -1 || profile.getObjectId() == 0) {
         cache.opRemoveProfile(profile);
+        invalidationBus.publish(
+            CacheInvalidation.ofComponentProfiles(profile.getComponentFatherId()));
       }
 
       return profileId;
@@ -1768,6 +1897,8 @@ class Admin implements Administration {
       }
       if (newProfile.getObjectId() == -1 || newProfile.getObjectId() == 0) {
         cache.opUpdateProfile(newProfile);
+        invalidationBus.publish(
+            CacheInvalidation.ofComponentProfiles(newProfile.getComponentFatherId()));
       }
 
       return newProfile.getId();
@@ -1814,6 +1945,8 @@ class Admin implements Administration {
       }
 
       cache.opAddSpaceProfile(spaceProfile);
+      invalidationBus.publish(
+          CacheInvalidation.ofSpaceProfiles(spaceProfile.getSpaceFatherId()));
       return sSpaceProfileId;
     } catch (Exception e) {
       throw new AdminException(failureOnAdding(SPACE_PROFILE, spaceProfile.getName()), e);
@@ -1851,6 +1984,8 @@ class Admin implements Administration {
     try {
       spaceProfileManager.deleteSpaceProfileInst(spaceProfileInst);
       cache.opRemoveSpaceProfile(spaceProfileInst);
+      invalidationBus.publish(
+          CacheInvalidation.ofSpaceProfiles(spaceProfileInst.getSpaceFatherId()));
       spaceProfileInst.removeAllGroups();
       spaceProfileInst.removeAllUsers();
       Integer spaceId = getDriverComponentId(spaceProfileInst.getSpaceFatherId());
@@ -1915,6 +2050,8 @@ class Admin implements Administration {
         spreadSpaceProfile(spaceId, profileToSpread);
       }
       cache.opUpdateSpaceProfile(spaceProfileManager.getSpaceProfileInst(newSpaceProfile.getId()));
+      invalidationBus.publish(
+          CacheInvalidation.ofSpaceProfiles(oldSpaceProfile.getSpaceFatherId()));
 
       return spaceProfileNewId;
     } catch (Exception e) {
@@ -2117,6 +2254,7 @@ class Admin implements Administration {
         groupSynchroScheduler.addGroup(sGroupId);
       }
       cache.opAddGroup(group);
+      invalidationBus.publish(CacheInvalidation.ofGroup(sGroupId));
       return sGroupId;
     } catch (Exception e) {
       throw new AdminException(failureOnAdding(GROUP, group.getName()), e);
@@ -2158,6 +2296,7 @@ class Admin implements Administration {
           groupSynchroScheduler.removeGroup(g.getId());
         }
         cache.opRemoveGroup(g);
+        invalidationBus.publish(CacheInvalidation.ofRemovedGroup(g.getId()));
       });
       return sReturnGroupId;
     } catch (Exception e) {
@@ -2179,6 +2318,7 @@ class Admin implements Administration {
     try {
       String sGroupId = groupManager.updateGroup(group, onlyInSilverpeas);
       cache.resetOnUpdateGroup();
+      invalidationBus.publish(CacheInvalidation.ofGroup(sGroupId));
       return sGroupId;
     } catch (Exception e) {
       throw new AdminException(failureOnUpdate(GROUP, group.getId()), e);
@@ -2192,6 +2332,7 @@ class Admin implements Administration {
       groupManager.removeUserFromGroup(sUserId, sGroupId);
 
       cache.resetOnUpdateGroup();
+      invalidationBus.publish(CacheInvalidation.ofGroup(sGroupId));
 
     } catch (Exception e) {
       throw new AdminException(failureOnDeleting(USER + sUserId, IN_GROUP + sGroupId), e);
@@ -2204,6 +2345,7 @@ class Admin implements Administration {
       // Update group
       groupManager.addUserInGroup(sUserId, sGroupId);
       cache.resetOnUpdateGroup();
+      invalidationBus.publish(CacheInvalidation.ofGroup(sGroupId));
     } catch (Exception e) {
       throw new AdminException(failureOnAdding(USER + sUserId, IN_GROUP + sGroupId), e);
     }
@@ -2433,6 +2575,7 @@ class Admin implements Administration {
     try {
       userManager.migrateUser(userDetail, targetDomainId);
       cache.opUpdateUser(userDetail);
+      invalidationBus.publish(CacheInvalidation.ofUser(userDetail.getId()));
     } catch (Exception e) {
       throw new AdminException(
           failureOnAdding(USER + userDetail.getId(), "in domain " + targetDomainId), e);
@@ -2510,6 +2653,7 @@ class Admin implements Administration {
     try {
       final String removedUserId = userManager.restoreUser(user, true);
       cache.resetCache();
+      invalidationBus.publish(CacheInvalidation.all());
       return removedUserId;
     } catch (Exception e) {
       throw new AdminException(failureOnRemoving("user", sUserId), e);
@@ -2531,6 +2675,7 @@ class Admin implements Administration {
     try {
       final String removedUserId = userManager.removeUser(user, true);
       cache.opRemoveUser(user);
+      invalidationBus.publish(CacheInvalidation.ofRemovedUser(user.getId()));
       return removedUserId;
     } catch (Exception e) {
       throw new AdminException(failureOnRemoving("user", sUserId), e);
@@ -2567,6 +2712,7 @@ class Admin implements Administration {
       String sReturnUserId = userManager.deleteUser(user, onlyInSilverpeas);
 
       cache.opRemoveUser(user);
+      invalidationBus.publish(CacheInvalidation.ofRemovedUser(user.getId()));
       return sReturnUserId;
     } catch (Exception e) {
       throw new AdminException(failureOnDeleting("user", sUserId), e);
@@ -2580,6 +2726,7 @@ class Admin implements Administration {
       String sUserId = userManager.updateUser(user, true);
 
       cache.opUpdateUser(userManager.getUserDetail(sUserId));
+      invalidationBus.publish(CacheInvalidation.ofUser(sUserId));
 
       return sUserId;
     } catch (Exception e) {
@@ -2594,6 +2741,7 @@ class Admin implements Administration {
       String sUserId = userManager.updateUserFull(user);
 
       cache.opUpdateUser(userManager.getUserDetail(sUserId));
+      invalidationBus.publish(CacheInvalidation.ofUser(sUserId));
 
       return sUserId;
     } catch (Exception e) {
@@ -2717,6 +2865,7 @@ class Admin implements Administration {
   public String updateDomain(Domain domain) throws AdminException {
     try {
       domainCache.removeDomain(domain.getId());
+      invalidationBus.publish(CacheInvalidation.ofDomain(domain.getId()));
       return domainDriverManager.updateDomain(domain);
     } catch (Exception e) {
       throw new AdminException(failureOnUpdate(DOMAIN, domain.getId()), e);
@@ -2750,6 +2899,7 @@ class Admin implements Administration {
       // Update the synchro scheduler
       domainSynchroScheduler.removeDomain(domainId);
       domainCache.removeDomain(domainId);
+      invalidationBus.publish(CacheInvalidation.ofDomain(domainId));
 
       return domainId;
     } catch (Exception e) {
@@ -2985,11 +3135,16 @@ class Admin implements Administration {
 
   private List<String> getAllowedComponentIds(String userId, String componentName)
       throws AdminException {
-    // getting all groups of users
-    List<String> allGroupsOfUser = getAllGroupsOfUser(userId);
+    final long start = COMPONENT_RIGHTS_TIMER.start();
+    try {
+      // getting all groups of users
+      List<String> allGroupsOfUser = getAllGroupsOfUser(userId);
 
-    return componentManager.getAllowedComponentIds(Integer.parseInt(userId), allGroupsOfUser,
-        null, componentName);
+      return componentManager.getAllowedComponentIds(Integer.parseInt(userId), allGroupsOfUser,
+          null, componentName);
+    } finally {
+      COMPONENT_RIGHTS_TIMER.stop(start);
+    }
   }
 
   @Override
@@ -3286,6 +3441,7 @@ class Admin implements Administration {
       if (user.getDomainId().equals(targetDomainId)) {
         userManager.blankUser(user);
         cache.opUpdateUser(userManager.getUserDetail(user.getId()));
+        invalidationBus.publish(CacheInvalidation.ofUser(user.getId()));
       }
     }
   }
@@ -3874,8 +4030,13 @@ class Admin implements Administration {
   @Override
   public String[] getCurrentProfiles(String sUserId, String componentId)
       throws AdminException {
-    return profileManager.getProfileNamesOfUser(sUserId, getAllGroupsOfUser(sUserId),
-        getDriverComponentId(componentId));
+    final long start = PROFILE_RIGHTS_TIMER.start();
+    try {
+      return profileManager.getProfileNamesOfUser(sUserId, getAllGroupsOfUser(sUserId),
+          getDriverComponentId(componentId));
+    } finally {
+      PROFILE_RIGHTS_TIMER.stop(start);
+    }
   }
 
   @Override
@@ -4411,6 +4572,7 @@ class Admin implements Administration {
         mergeDistantUserIntoSilverpeasUser(ud, theUserDetail);
         userManager.updateUser(theUserDetail, true);
         cache.opUpdateUser(userManager.getUserDetail(userId));
+        invalidationBus.publish(CacheInvalidation.ofUser(userId));
       }
       // Synchro manuelle : Ajoute ou Met à jour l'utilisateur
       listUsersUpdate.add(ud);
@@ -4430,6 +4592,7 @@ class Admin implements Administration {
             // Remove the user from this group
             groupManager.removeUserFromGroup(userId, oldGroup.getId());
             cache.opRemoveUserFromGroup(userId);
+            invalidationBus.publish(CacheInvalidation.ofUser(userId));
           }
         }
       }
@@ -4438,6 +4601,7 @@ class Admin implements Administration {
       for (String includedGroupId : incGroupsId) {
         groupManager.addUserInGroup(userId, includedGroupId);
         cache.opAddUserInGroup(userId);
+        invalidationBus.publish(CacheInvalidation.ofUser(userId));
       }
 
       // traitement spécifique des users selon l'interface implémentée
@@ -4558,6 +4722,7 @@ class Admin implements Administration {
               SynchroDomainReport.stopSynchro();// Fin de synchro avec la Popup d'affichage
               // Reset the cache
               cache.resetCache();
+              invalidationBus.publish(CacheInvalidation.all());
             }
           }
         }
@@ -5965,6 +6130,7 @@ class Admin implements Administration {
 
     } catch (Exception e) {
       cache.resetCache();
+      invalidationBus.publish(CacheInvalidation.all());
       throw new AdminException("Fail to assign rights", e);
     }
   }
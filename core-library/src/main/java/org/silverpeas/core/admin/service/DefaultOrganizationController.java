@@ -792,6 +792,11 @@ public class DefaultOrganizationController implements OrganizationController {
     }
   }
 
+  @Override
+  public long getOrganizationVersion(String userId) {
+    return getAdminService().getOrganizationVersion(userId);
+  }
+
   @Override
   public boolean isSpaceAvailable(String spaceId, String userId) {
     try {
@@ -393,6 +393,16 @@ public interface OrganizationController extends java.io.Serializable {
 
   SpaceInstLight getRootSpace(String spaceId);
 
+  /**
+   * Gets the version of the organizational data that are visible by the specified user. The
+   * version changes each time either the tree of spaces and of component instances or the access
+   * rights of the user are modified. It is then a way to know whether some data computed from
+   * them for the user are still up to date.
+   * @param userId the unique identifier of a user.
+   * @return the current version of the organizational data visible by the user.
+   */
+  long getOrganizationVersion(String userId);
+
   /**
    * Return all the users of Silverpeas
    */
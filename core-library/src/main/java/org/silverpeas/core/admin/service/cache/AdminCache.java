@@ -29,8 +29,10 @@ import org.silverpeas.core.admin.space.SpaceProfileInst;
 import org.silverpeas.core.admin.user.model.Group;
 import org.silverpeas.core.admin.user.model.ProfileInst;
 import org.silverpeas.core.admin.user.model.UserDetail;
+import org.silverpeas.core.persistence.Transaction;
 import org.silverpeas.core.util.StringUtil;
 
+import javax.inject.Inject;
 import javax.inject.Singleton;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -38,6 +40,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * The class Store and manage all the Admin's cache
@@ -61,16 +64,65 @@ public class AdminCache {
   private Map<String, Map<String, String[]>> availCompoIdsCache = new ConcurrentHashMap<>();
   private boolean useProfileIdsCache = true;
   private Map<String, String[]> profileIdsCache = new ConcurrentHashMap<>();
+  // Versions of the organizational data: the global one is about the tree of spaces and of
+  // component instances and about the rights of all the users, whereas the other ones are about
+  // the rights of a given user. They are all taken from the same sequence.
+  private final AtomicLong versionSequence = new AtomicLong();
+  private volatile long globalVersion = 0;
+  private Map<String, Long> userVersions = new ConcurrentHashMap<>();
+  @Inject
+  private TreeCache treeCache;
 
   public void setCacheAvailable(boolean useCache) {
     // Cache management
     this.useCache = useCache;
   }
 
+  /**
+   * Gets the version of the organizational data that are visible by the specified user. The
+   * version changes each time either the tree of spaces and of component instances or the rights
+   * of the user are modified, so it can be used to know whether data computed from them are
+   * obsolete. It includes the version of the {@link TreeCache}, so that it changes also once the
+   * tree is updated after the modifications of the spaces or of the component instances.
+   * @param userId the unique identifier of a user.
+   * @return the current version of the organizational data visible by the user.
+   */
+  public long getVersion(String userId) {
+    final long version = globalVersion;
+    final Long userVersion = userVersions.get(userId);
+    // both versions only increase, so does their sum
+    return (userVersion != null && userVersion > version ? userVersion : version) +
+        treeCache.getVersion();
+  }
+
+  /**
+   * Changes the version of the whole organizational data now and once again at the end of the
+   * current transaction: the data read in the meantime can be the ones before the changes.
+   */
+  private void changeVersion() {
+    increaseVersion();
+    Transaction.afterCompletion(this::increaseVersion);
+  }
+
+  private void changeVersion(String userId) {
+    increaseVersion(userId);
+    Transaction.afterCompletion(() -> increaseVersion(userId));
+  }
+
+  private void increaseVersion() {
+    globalVersion = versionSequence.incrementAndGet();
+    userVersions.clear();
+  }
+
+  private void increaseVersion(String userId) {
+    userVersions.put(userId, versionSequence.incrementAndGet());
+  }
+
   /**
    * Reset data stored in cache
    */
   public void resetCache() {
+    changeVersion();
     spaceInstCache.clear();
     componentInstCache.clear();
     profileInstCache.clear();
@@ -84,6 +136,7 @@ public class AdminCache {
    * Store the spaceInst in cache
    */
   public void resetSpaceInst() {
+    changeVersion();
     if (useCache && useSpaceInstCache) {
       spaceInstCache.clear();
     }
@@ -148,6 +201,7 @@ public class AdminCache {
    * Store the componentInst in cache
    */
   public void resetComponentInst() {
+    changeVersion();
     if (useCache && useComponentInstCache) {
       componentInstCache.clear();
     }
@@ -267,6 +321,7 @@ public class AdminCache {
    * Store the ManageableSpaceIds by user
    */
   private void resetManageableSpaceIds() {
+    changeVersion();
     manageableSpaceIdsCache.clear();
   }
 
@@ -277,6 +332,7 @@ public class AdminCache {
   }
 
   private void removeManageableSpaceIds(String userId) {
+    changeVersion(userId);
     if (useCache && useManageableSpaceIdsCache) {
       manageableSpaceIdsCache.remove(userId);
     }
@@ -294,6 +350,7 @@ public class AdminCache {
    * Store the AvailCompoIds by space and user
    */
   private void resetAvailCompoIds() {
+    changeVersion();
     availCompoIdsCache.clear();
   }
 
@@ -306,6 +363,7 @@ public class AdminCache {
   }
 
   private void removeAvailCompoIdsForUser(String userId) {
+    changeVersion(userId);
     if (useCache && useAvailCompoIdsCache) {
       for (Map<String, String[]> spaceTable : availCompoIdsCache.values()) {
         spaceTable.remove(userId);
@@ -358,6 +416,7 @@ public class AdminCache {
    */
   // ----- Spaces -----
   public void opAddSpace(final SpaceInst theSpace) {
+    changeVersion();
     if ((theSpace.getDomainFatherId() != null)
         && (theSpace.getDomainFatherId().length() > 0)
         && (!theSpace.getDomainFatherId().equals("0"))) { // This is a subSpace
@@ -402,11 +461,15 @@ public class AdminCache {
   }
 
   private void opResetSpace(SpaceInst theSpace) {
+    opResetSpace(theSpace.getLocalId());
+  }
+
+  private void opResetSpace(int spaceId) {
     // First level cache reset : it's not the best but it's simple : remove all
     // structs from cache that includes the component and all the child's
     // structs
-    removeSpaceComponentsInst(theSpace.getLocalId());
-    removeSpaceInst(theSpace.getLocalId());
+    removeSpaceComponentsInst(spaceId);
+    removeSpaceInst(spaceId);
     resetProfileIds();
     resetAvailCompoIds();
     resetManageableSpaceIds();
@@ -516,8 +579,10 @@ public class AdminCache {
   }
 
   public void opRemoveGroup(Group group) {
-    String groupId = group.getId();
+    opRemoveGroup(group.getId());
+  }
 
+  private void opRemoveGroup(String groupId) {
     removeGroupInSpaceInst(groupId);
     removeGroupInComponentInst(groupId);
     removeGroupInProfileInst(groupId);
@@ -539,8 +604,10 @@ public class AdminCache {
   }
 
   public void opRemoveUser(UserDetail user) {
-    String userId = user.getId();
+    opRemoveUser(user.getId());
+  }
 
+  private void opRemoveUser(String userId) {
     removeUserDetail(userId);
     removeProfileIds(userId);
     removeManageableSpaceIds(userId);
@@ -550,6 +617,65 @@ public class AdminCache {
     removeUserInProfileInst(userId);
   }
 
+  // ----- Invalidations from the other nodes -----
+  /**
+   * Invalidates the data in this cache concerned by the specified invalidation. Unlike the op*
+   * methods, only the identifier of the changed object is known: it is used to apply the changes
+   * done by another node of a Silverpeas cluster.
+   * @param invalidation an invalidation received from another node.
+   */
+  public void invalidate(CacheInvalidation invalidation) {
+    final String id = invalidation.getId();
+    switch (invalidation.getScope()) {
+      case ALL:
+        resetCache();
+        break;
+      case SPACE:
+        // the space can have been moved or removed from its parent
+        resetSpaceInst();
+        opResetSpace(Integer.parseInt(id));
+        break;
+      case SPACE_PROFILES:
+        final Integer spaceId = getLocalSpaceId(id);
+        if (spaceId != null) {
+          removeSpaceInst(spaceId);
+        }
+        resetManageableSpaceIds();
+        break;
+      case COMPONENT:
+        // the component can have been moved or removed from its space
+        resetSpaceInst();
+        invalidateComponentInst(ComponentInst.getComponentLocalId(id));
+        break;
+      case COMPONENT_PROFILES:
+        invalidateComponentInst(Integer.parseInt(id));
+        break;
+      case USER:
+        removeUserDetail(id);
+        opResetUserRights(id);
+        break;
+      case REMOVED_USER:
+        opRemoveUser(id);
+        break;
+      case GROUP:
+        resetOnUpdateGroup();
+        break;
+      case REMOVED_GROUP:
+        opRemoveGroup(id);
+        break;
+      default:
+        // nothing cached here
+        break;
+    }
+  }
+
+  private void invalidateComponentInst(int componentId) {
+    getComponentInst(componentId).ifPresent(this::removeComponent);
+    removeComponentsProfilesInst(componentId);
+    resetProfileIds();
+    resetAvailCompoIds();
+  }
+
   private void opResetUserRights(String userId) {
     removeProfileIds(userId);
     removeManageableSpaceIds(userId);
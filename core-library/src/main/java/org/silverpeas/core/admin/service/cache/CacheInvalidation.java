@@ -0,0 +1,178 @@
+/*
+ * Copyright (C) 2000 - 2018 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.admin.service.cache;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * An invalidation of the organizational data cached by a Silverpeas node. It is published by the
+ * node at the origin of a change in the organization to the other nodes of a Silverpeas cluster
+ * so that they can drop the obsolete data from their own caches. An invalidation carries only the
+ * scope of the change and the identifier of the changed object; the data are then reloaded from
+ * the database by each node.
+ */
+public final class CacheInvalidation implements Serializable {
+  private static final long serialVersionUID = 2736517432018529347L;
+
+  /**
+   * The scope of an invalidation.
+   */
+  public enum Scope {
+    /**
+     * All the caches are obsolete.
+     */
+    ALL,
+    /**
+     * A space, identified by its local identifier, has been added, modified, moved or removed.
+     */
+    SPACE,
+    /**
+     * The profiles of a space, identified by its local identifier, have been modified.
+     */
+    SPACE_PROFILES,
+    /**
+     * A component instance, identified by its unique identifier, has been added, modified, moved
+     * or removed.
+     */
+    COMPONENT,
+    /**
+     * The profiles of a component instance, identified by its local identifier, have been
+     * modified.
+     */
+    COMPONENT_PROFILES,
+    /**
+     * A user has been modified or its membership in the groups has changed.
+     */
+    USER,
+    /**
+     * A user has been removed.
+     */
+    REMOVED_USER,
+    /**
+     * A group has been added or modified.
+     */
+    GROUP,
+    /**
+     * A group has been removed.
+     */
+    REMOVED_GROUP,
+    /**
+     * A user domain has been modified or removed.
+     */
+    DOMAIN,
+    /**
+     * The tree of the nodes of a component instance, identified by its unique identifier, has
+     * been modified.
+     */
+    NODE_TREE
+  }
+
+  private final Scope scope;
+  private final String id;
+
+  private CacheInvalidation(final Scope scope, final String id) {
+    this.scope = scope;
+    this.id = id;
+  }
+
+  public static CacheInvalidation all() {
+    return new CacheInvalidation(Scope.ALL, null);
+  }
+
+  public static CacheInvalidation ofSpace(final int spaceId) {
+    return new CacheInvalidation(Scope.SPACE, String.valueOf(spaceId));
+  }
+
+  public static CacheInvalidation ofSpaceProfiles(final String spaceId) {
+    return new CacheInvalidation(Scope.SPACE_PROFILES, spaceId);
+  }
+
+  public static CacheInvalidation ofComponent(final String componentId) {
+    return new CacheInvalidation(Scope.COMPONENT, componentId);
+  }
+
+  public static CacheInvalidation ofComponentProfiles(final String componentId) {
+    return new CacheInvalidation(Scope.COMPONENT_PROFILES, componentId);
+  }
+
+  public static CacheInvalidation ofUser(final String userId) {
+    return new CacheInvalidation(Scope.USER, userId);
+  }
+
+  public static CacheInvalidation ofRemovedUser(final String userId) {
+    return new CacheInvalidation(Scope.REMOVED_USER, userId);
+  }
+
+  public static CacheInvalidation ofGroup(final String groupId) {
+    return new CacheInvalidation(Scope.GROUP, groupId);
+  }
+
+  public static CacheInvalidation ofRemovedGroup(final String groupId) {
+    return new CacheInvalidation(Scope.REMOVED_GROUP, groupId);
+  }
+
+  public static CacheInvalidation ofDomain(final String domainId) {
+    return new CacheInvalidation(Scope.DOMAIN, domainId);
+  }
+
+  public static CacheInvalidation ofNodeTree(final String componentId) {
+    return new CacheInvalidation(Scope.NODE_TREE, componentId);
+  }
+
+  public Scope getScope() {
+    return scope;
+  }
+
+  /**
+   * Gets the identifier of the object concerned by this invalidation.
+   * @return the identifier of the changed object or null if the invalidation is about all the
+   * caches.
+   */
+  public String getId() {
+    return id;
+  }
+
+  @Override
+  public boolean equals(final Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    final CacheInvalidation that = (CacheInvalidation) o;
+    return scope == that.scope && Objects.equals(id, that.id);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(scope, id);
+  }
+
+  @Override
+  public String toString() {
+    return scope + (id != null ? "(" + id + ")" : "");
+  }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright (C) 2000 - 2018 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.admin.service.cache;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A batch of invalidations sent by a Silverpeas node to the other ones. The batches sent by a
+ * node are numbered in sequence so that a receiver can detect it missed some of them.
+ */
+class CacheInvalidationBatch implements Serializable {
+  private static final long serialVersionUID = -5830386215520370427L;
+
+  private final String source;
+  private final long sequence;
+  private final List<CacheInvalidation> invalidations;
+
+  CacheInvalidationBatch(final String source, final long sequence,
+      final Collection<CacheInvalidation> invalidations) {
+    this.source = source;
+    this.sequence = sequence;
+    this.invalidations = new ArrayList<>(invalidations);
+  }
+
+  /**
+   * Gets the unique identifier of the node that sent this batch.
+   * @return the identifier of the source node.
+   */
+  String getSource() {
+    return source;
+  }
+
+  /**
+   * Gets the sequence number of this batch among all the batches sent by its source node.
+   * @return the sequence number, starting at 1.
+   */
+  long getSequence() {
+    return sequence;
+  }
+
+  List<CacheInvalidation> getInvalidations() {
+    return Collections.unmodifiableList(invalidations);
+  }
+}
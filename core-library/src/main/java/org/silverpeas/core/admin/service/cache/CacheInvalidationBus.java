@@ -0,0 +1,231 @@
+/*
+ * Copyright (C) 2000 - 2018 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.admin.service.cache;
+
+import org.silverpeas.core.notification.system.JMSOperation;
+import org.silverpeas.core.persistence.Transaction;
+import org.silverpeas.core.thread.ManagedThreadPool;
+import org.silverpeas.core.util.ResourceLocator;
+import org.silverpeas.core.util.ServiceProvider;
+import org.silverpeas.core.util.logging.SilverLogger;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import javax.inject.Singleton;
+import javax.jms.Topic;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * A bus propagating the invalidations of the organizational caches between the nodes of a
+ * Silverpeas cluster, that is to say between several Silverpeas running on the same database.
+ * <p>
+ * Each node publishes on the bus the changes it does in the organization. The invalidations are
+ * taken into account only once the transaction in which they are published is committed; those
+ * of a transaction rolled back are never sent. The invalidations committed within a short delay
+ * are coalesced into a single batch that is sent to the other
+ * nodes through the JMS topic {@code jms/topic/cacheInvalidation}; the topic has to be clustered
+ * among the nodes in the JMS broker. At reception, the invalidations are dispatched to the
+ * subscribers of the bus that drop then the obsolete data from their caches. The batches sent by
+ * a node are numbered in sequence and they are received one at a time, in the order they were
+ * sent: a receiver missing some of them invalidates all its caches. A batch received again or
+ * after a more recent one is ignored; its invalidations are already covered.
+ * </p>
+ * <p>
+ * The bus is enabled by the {@code ClusteredCache} property in the settings of the
+ * administration; otherwise nothing is sent.
+ * </p>
+ */
+@Singleton
+public class CacheInvalidationBus {
+
+  /**
+   * Delay in milliseconds during which the committed invalidations are coalesced.
+   */
+  private static final long COALESCING_DELAY = 500;
+  /**
+   * The sequence numbers start at 1.
+   */
+  private static final long NO_SEQUENCE = 0;
+
+  @Resource(lookup = "java:/jms/topic/cacheInvalidation")
+  private Topic topic;
+
+  private final String nodeId = UUID.randomUUID().toString();
+  private final Set<CacheInvalidation> pending = new LinkedHashSet<>();
+  private final Map<String, Long> lastSequences = new ConcurrentHashMap<>();
+  private final List<Consumer<CacheInvalidation>> subscribers = new CopyOnWriteArrayList<>();
+  private long sequence = 0;
+  boolean enabled = false;
+
+  public static CacheInvalidationBus get() {
+    return ServiceProvider.getService(CacheInvalidationBus.class);
+  }
+
+  protected CacheInvalidationBus() {
+  }
+
+  @PostConstruct
+  private void setup() {
+    enabled = ResourceLocator.getSettingBundle("org.silverpeas.admin.admin")
+        .getBoolean("ClusteredCache", false);
+  }
+
+  /**
+   * Is the bus enabled?
+   * @return true if the invalidations are propagated to the other nodes, false otherwise.
+   */
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Subscribes to the invalidations coming from the other nodes.
+   * @param subscriber a consumer of the invalidations received by this node.
+   */
+  public void subscribe(final Consumer<CacheInvalidation> subscriber) {
+    subscribers.add(subscriber);
+  }
+
+  /**
+   * Publishes to the other nodes the specified invalidation. It is sent after the commit of the
+   * current transaction, if any, with the other invalidations committed within a short delay; an
+   * invalidation already pending is sent only once.
+   * @param invalidation the invalidation to publish.
+   */
+  public void publish(final CacheInvalidation invalidation) {
+    if (!enabled) {
+      return;
+    }
+    Transaction.afterCommit(() -> addPending(invalidation));
+  }
+
+  private void addPending(final CacheInvalidation invalidation) {
+    final boolean firstPending;
+    synchronized (pending) {
+      firstPending = pending.isEmpty();
+      pending.add(invalidation);
+    }
+    if (firstPending) {
+      scheduleFlush();
+    }
+  }
+
+  /**
+   * Schedules the sending of the pending invalidations once the coalescing delay is elapsed.
+   */
+  protected void scheduleFlush() {
+    ManagedThreadPool.getPool().invoke(() -> {
+      try {
+        Thread.sleep(COALESCING_DELAY);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      flush();
+    });
+  }
+
+  /**
+   * Sends the pending invalidations as a single batch. If one of them concerns all the caches,
+   * it supersedes the other ones.
+   */
+  synchronized void flush() {
+    final Set<CacheInvalidation> invalidations;
+    synchronized (pending) {
+      invalidations = new LinkedHashSet<>(pending);
+      pending.clear();
+    }
+    if (invalidations.isEmpty()) {
+      return;
+    }
+    final CacheInvalidation all = CacheInvalidation.all();
+    final Collection<CacheInvalidation> toSend =
+        invalidations.contains(all) ? Collections.singleton(all) : invalidations;
+    // the sequence number is consumed even if the sending fails: the other nodes will then
+    // detect they missed a batch
+    sequence++;
+    try {
+      send(new CacheInvalidationBatch(nodeId, sequence, toSend));
+    } catch (Exception e) {
+      SilverLogger.getLogger(this).error(e.getMessage(), e);
+    }
+  }
+
+  /**
+   * Sends the specified batch to all the nodes, including this one.
+   * @param batch the batch of invalidations to send.
+   */
+  protected void send(final CacheInvalidationBatch batch) {
+    JMSOperation.realize(context -> context.createProducer().send(topic, batch));
+  }
+
+  /**
+   * Receives a batch of invalidations sent by a node. The batches sent by this node are ignored,
+   * as well as the batches of a node older than or equal to the last one received from it. If
+   * some batches from the sender were missed, all the caches are invalidated.
+   * @param batch a batch of invalidations.
+   */
+  void receive(final CacheInvalidationBatch batch) {
+    if (nodeId.equals(batch.getSource())) {
+      return;
+    }
+    final long previous;
+    synchronized (lastSequences) {
+      previous = lastSequences.getOrDefault(batch.getSource(), NO_SEQUENCE);
+      if (batch.getSequence() <= previous) {
+        SilverLogger.getLogger(this)
+            .debug("Cache invalidations {0} from node {1} received after {2}: ignored",
+                batch.getSequence(), batch.getSource(), previous);
+        return;
+      }
+      lastSequences.put(batch.getSource(), batch.getSequence());
+    }
+    final Collection<CacheInvalidation> invalidations;
+    if (previous != NO_SEQUENCE && batch.getSequence() != previous + 1) {
+      SilverLogger.getLogger(this)
+          .warn("Cache invalidations missed from node {0} (got {1} after {2}): full refresh",
+              batch.getSource(), batch.getSequence(), previous);
+      invalidations = Collections.singleton(CacheInvalidation.all());
+    } else {
+      invalidations = batch.getInvalidations();
+    }
+    for (CacheInvalidation invalidation : invalidations) {
+      for (Consumer<CacheInvalidation> subscriber : subscribers) {
+        try {
+          subscriber.accept(invalidation);
+        } catch (Exception e) {
+          SilverLogger.getLogger(this).error(e.getMessage(), e);
+        }
+      }
+    }
+  }
+}
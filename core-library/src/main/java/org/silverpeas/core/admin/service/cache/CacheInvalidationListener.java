@@ -0,0 +1,63 @@
+/*
+ * Copyright (C) 2000 - 2018 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.admin.service.cache;
+
+import org.silverpeas.core.util.logging.SilverLogger;
+
+import javax.ejb.ActivationConfigProperty;
+import javax.ejb.MessageDriven;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
+import javax.jms.JMSDestinationDefinition;
+import javax.jms.JMSException;
+import javax.jms.Message;
+import javax.jms.MessageListener;
+
+/**
+ * Listener of the invalidations of the organizational caches sent by the nodes of a Silverpeas
+ * cluster. It defines also the JMS topic through which the invalidations are sent. The
+ * invalidations are received by a single session so that they are dispatched in the order they
+ * were sent.
+ */
+@JMSDestinationDefinition(name = "java:/jms/topic/cacheInvalidation",
+    interfaceName = "javax.jms.Topic", destinationName = "CacheInvalidation")
+@MessageDriven(activationConfig = {
+    @ActivationConfigProperty(propertyName = "destinationType", propertyValue = "javax.jms.Topic"),
+    @ActivationConfigProperty(propertyName = "acknowledgeMode", propertyValue = "Auto-acknowledge"),
+    @ActivationConfigProperty(propertyName = "maxSession", propertyValue = "1"),
+    @ActivationConfigProperty(propertyName = "destinationLookup", propertyValue =
+        "java:/jms/topic/cacheInvalidation")}, description = "Message driven bean for the " +
+    "invalidations of the organizational caches")
+@TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+public class CacheInvalidationListener implements MessageListener {
+
+  @Override
+  public void onMessage(final Message message) {
+    try {
+      CacheInvalidationBus.get().receive(message.getBody(CacheInvalidationBatch.class));
+    } catch (JMSException e) {
+      SilverLogger.getLogger(this).error(e.getMessage(), e);
+    }
+  }
+}
@@ -23,6 +23,7 @@
  */
 package org.silverpeas.core.admin.service.cache;
 
+import org.silverpeas.core.admin.component.model.ComponentInst;
 import org.silverpeas.core.admin.component.model.ComponentInstLight;
 import org.silverpeas.core.admin.space.SpaceInst;
 import org.silverpeas.core.admin.space.SpaceInstLight;
@@ -31,31 +32,49 @@ import org.silverpeas.core.util.StringUtil;
 
 import javax.inject.Singleton;
 import java.util.ArrayList;
-import java.util.Iterator;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
+import java.util.function.UnaryOperator;
 
 /**
  * A cache with the organizational tree of the application instances in Silverpeas. The tree is
  * made up of spaces that can contain other spaces or applications and of component instances (aka
  * applications).
+ * <p>
+ * The tree is kept as an immutable snapshot: the readers work on the snapshot they got at the
+ * beginning of their lookup without taking any lock whereas each modification publishes a new
+ * snapshot that shares with the previous one all the spaces it doesn't modify. Each snapshot has
+ * its own version so that a cache computed from the tree can know when it becomes obsolete.
+ * </p>
  */
 @Singleton
 public class TreeCache {
 
-  private final ConcurrentMap<Integer, Space> map = new ConcurrentHashMap<>();
+  private volatile Tree tree = Tree.EMPTY;
 
   protected TreeCache() {
   }
 
+  /**
+   * Gets the version of the tree currently cached. The version is increased each time the tree
+   * is modified.
+   * @return the current version of the cached tree.
+   */
+  public long getVersion() {
+    return tree.version;
+  }
+
   /**
    * Clears the cache.
    */
   public synchronized void clearCache() {
-    map.clear();
+    tree = new Tree(tree.version + 1, new HashMap<>(), new HashMap<>());
   }
 
   /**
@@ -64,11 +83,7 @@ public class TreeCache {
    * @return a {@link SpaceInstLight} object.
    */
   public Optional<SpaceInstLight> getSpaceInstLight(int spaceId) {
-    Space space = getSpace(spaceId);
-    if (space != null) {
-      return Optional.ofNullable(space.getSpaceInstLight());
-    }
-    return Optional.empty();
+    return tree.getSpaceInstLight(spaceId);
   }
 
   /**
@@ -76,12 +91,37 @@ public class TreeCache {
    * identifier.
    * @param spaceId the unique identifier of a space.
    * @param space the space to add in the cache.
-   * @return either the added space or the already cached space.
+   * @return the space already cached with the given identifier or null if the specified space
+   * has been added.
    */
-  public Space addSpace(Integer spaceId, Space space) {
+  public synchronized Space addSpace(Integer spaceId, Space space) {
     Objects.requireNonNull(spaceId);
     Objects.requireNonNull(space);
-    return map.putIfAbsent(spaceId, space);
+    final Node node = tree.spaces.get(spaceId);
+    if (node != null) {
+      return node.toSpace();
+    }
+    publish(t -> t.with(spaceId, new Node(space)));
+    return null;
+  }
+
+  /**
+   * Adds all the specified spaces in the cache in a single modification of the tree. A space
+   * already cached with the same identifier is kept as such.
+   * @param spaces the spaces to add in the cache.
+   */
+  public synchronized void addSpaces(Collection<Space> spaces) {
+    publish(t -> t.withAll(spaces));
+  }
+
+  /**
+   * Replaces all the cached tree by the specified spaces in a single modification. Unlike a
+   * clearing of the cache followed by the add of the spaces, the lookups performed meanwhile
+   * never see an empty tree.
+   * @param spaces the spaces that make up the whole tree.
+   */
+  public synchronized void setSpaces(Collection<Space> spaces) {
+    publish(t -> new Tree(t.version, new HashMap<>(), new HashMap<>()).withAll(spaces));
   }
 
   /**
@@ -89,12 +129,8 @@ public class TreeCache {
    * @param spaceId the unique identifier of a space.
    */
   public synchronized void removeSpace(int spaceId) {
-    Space space = map.get(spaceId);
-    if (space != null) {
-      for (SpaceInstLight subspace : space.getSubspaces()) {
-        removeSpace(subspace.getLocalId());
-      }
-      map.remove(spaceId);
+    if (tree.spaces.containsKey(spaceId)) {
+      publish(t -> t.without(spaceId));
     }
   }
 
@@ -105,13 +141,8 @@ public class TreeCache {
    * @param spaceId the unique identifier of a father space.
    * @param subspaces the spaces to set as children to the father space.
    */
-  public void setSubspaces(int spaceId, List<SpaceInstLight> subspaces) {
-    // add subspaces in spaces list
-    Space space = getSpace(spaceId);
-    if (space != null) {
-      space.getSubspaces().clear();
-      space.getSubspaces().addAll(subspaces);
-    }
+  public synchronized void setSubspaces(int spaceId, List<SpaceInstLight> subspaces) {
+    updateNode(spaceId, n -> n.withSubspaces(subspaces));
   }
 
   /**
@@ -120,9 +151,9 @@ public class TreeCache {
    * @return a list of component instances.
    */
   public List<ComponentInstLight> getComponents(int spaceId) {
-    Space space = getSpace(spaceId);
-    if (space != null) {
-      return space.getComponents();
+    final Node node = tree.spaces.get(spaceId);
+    if (node != null) {
+      return new ArrayList<>(node.components.values());
     }
     return new ArrayList<>();
   }
@@ -133,9 +164,9 @@ public class TreeCache {
    * @return a list of component instance identifiers.
    */
   public List<String> getComponentIds(int spaceId) {
-    Space space = getSpace(spaceId);
-    if (space != null) {
-      return space.getComponentIds();
+    final Node node = tree.spaces.get(spaceId);
+    if (node != null) {
+      return new ArrayList<>(node.components.keySet());
     }
     return new ArrayList<>();
   }
@@ -143,14 +174,10 @@ public class TreeCache {
   /**
    * Gets the spaces that are children of the specified space in the tree.
    * @param spaceId the unique identifier of a space.
-   * @return a list of space instances.
+   * @return an unmodifiable list of space instances.
    */
   public List<SpaceInstLight> getSubSpaces(int spaceId) {
-    Space space = getSpace(spaceId);
-    if (space != null) {
-      return space.getSubspaces();
-    }
-    return new ArrayList<>();
+    return tree.getSubSpaces(spaceId);
   }
 
   /**
@@ -158,12 +185,8 @@ public class TreeCache {
    * @param component a component instance.
    * @param spaceId the unique identifier of the space that contains the given component instance.
    */
-  public void addComponent(ComponentInstLight component, int spaceId) {
-    // add component in spaces list
-    Space space = getSpace(spaceId);
-    if (space != null) {
-      space.addComponent(component);
-    }
+  public synchronized void addComponent(ComponentInstLight component, int spaceId) {
+    updateNode(spaceId, n -> n.withComponent(component));
   }
 
   /**
@@ -171,14 +194,10 @@ public class TreeCache {
    * @param spaceId the unique identifier of a space.
    * @param componentId the unique identifier of a component instance.
    */
-  public void removeComponent(int spaceId, String componentId) {
-    // remove component from spaces list
-    Space space = getSpace(spaceId);
-    if (space != null) {
-      ComponentInstLight component = space.getComponent(componentId);
-      if (component != null) {
-        space.removeComponent(component);
-      }
+  public synchronized void removeComponent(int spaceId, String componentId) {
+    final Node node = tree.spaces.get(spaceId);
+    if (node != null && node.components.containsKey(componentId)) {
+      updateNode(spaceId, n -> n.withoutComponent(componentId));
     }
   }
 
@@ -189,13 +208,8 @@ public class TreeCache {
    * @param spaceId the unique identifier of a space in the cache.
    * @param components a list of component instances.
    */
-  public void setComponents(int spaceId, List<ComponentInstLight> components) {
-    // add components in spaces list
-    Space space = getSpace(spaceId);
-    if (space != null) {
-      space.clearComponents();
-      space.setComponents(components);
-    }
+  public synchronized void setComponents(int spaceId, List<ComponentInstLight> components) {
+    updateNode(spaceId, n -> n.withComponents(components));
   }
 
   /**
@@ -205,13 +219,8 @@ public class TreeCache {
    * @return a list of component instances.
    */
   public List<ComponentInstLight> getComponentsInSpaceAndSubspaces(int spaceId) {
-    List<ComponentInstLight> components = new ArrayList<>();
-    // add components of space
-    components.addAll(getComponents(spaceId));
-    // add components of subspaces
-    for (SpaceInstLight subspace : getSubSpaces(spaceId)) {
-      components.addAll(getComponentsInSpaceAndSubspaces(subspace.getLocalId()));
-    }
+    final List<ComponentInstLight> components = new ArrayList<>();
+    tree.collectComponents(spaceId, components);
     return components;
   }
 
@@ -221,16 +230,7 @@ public class TreeCache {
    * @return the path of a space in the cached tree.
    */
   public List<SpaceInstLight> getSpacePath(int spaceId) {
-    List<SpaceInstLight> path = new ArrayList<>();
-    Optional<SpaceInstLight> space = getSpaceInstLight(spaceId);
-    if (space.isPresent()) {
-      path.add(0, space.get());
-      while (space.isPresent() && !space.get().isRoot()) {
-        space = getSpaceInstLight(Integer.parseInt(space.get().getFatherId()));
-        space.ifPresent(spaceInstLight -> path.add(0, spaceInstLight));
-      }
-    }
-    return path;
+    return tree.getSpacePath(spaceId);
   }
 
   /**
@@ -238,13 +238,16 @@ public class TreeCache {
    * @param componentId the unique identifier of a component instance.
    * @return the a {@link org.silverpeas.core.admin.component.model.ComponentInstLight} object.
    */
-  public synchronized Optional<ComponentInstLight> getComponent(final String componentId) {
-    ComponentInstLight component;
-    for (Space space : map.values()) {
-      component = space.getComponent(componentId);
-      if (component != null) {
-        return Optional.of(component);
+  public Optional<ComponentInstLight> getComponent(final String componentId) {
+    final Tree current = tree;
+    final Node node = current.getNodeContaining(componentId);
+    if (node != null) {
+      final ComponentInstLight component = node.components.get(componentId);
+      // an application which belongs to a removed space must be considered as removed too
+      if (node.space.isRemoved()) {
+        component.setStatus(ComponentInst.STATUS_REMOVED);
       }
+      return Optional.of(component);
     }
     return Optional.empty();
   }
@@ -254,13 +257,9 @@ public class TreeCache {
    * @param componentId the unique identifier of a component instance in the cache.
    * @return the {@link SpaceInstLight} instance that contains the specified component instance.
    */
-  public synchronized Optional<SpaceInstLight> getSpaceContainingComponent(String componentId) {
-    for (Space space : map.values()) {
-      if (space.containsComponent(componentId)) {
-        return Optional.ofNullable(space.getSpaceInstLight());
-      }
-    }
-    return Optional.empty();
+  public Optional<SpaceInstLight> getSpaceContainingComponent(String componentId) {
+    final Node node = tree.getNodeContaining(componentId);
+    return node != null ? Optional.ofNullable(node.space) : Optional.empty();
   }
 
   /**
@@ -270,11 +269,12 @@ public class TreeCache {
    * the component instance.
    */
   public List<SpaceInstLight> getComponentPath(String componentId) {
-    final List<SpaceInstLight> spaces = new ArrayList<>();
-    Optional<ComponentInstLight> component = getComponent(componentId);
-    component.filter(ComponentInstLight::hasDomainFather)
-        .ifPresent(c -> spaces.addAll(getSpacePath(getSpaceId(c))));
-    return spaces;
+    final Tree current = tree;
+    final Node node = current.getNodeContaining(componentId);
+    if (node != null && node.components.get(componentId).hasDomainFather()) {
+      return current.getSpacePath(getSpaceId(node.components.get(componentId)));
+    }
+    return new ArrayList<>();
   }
 
   /**
@@ -283,23 +283,24 @@ public class TreeCache {
    * @param spaceLight the instance with which the space in the cache will be updated.
    */
   public synchronized void updateSpace(SpaceInstLight spaceLight) {
-    if (spaceLight != null && StringUtil.isDefined(spaceLight.getId())) {
-      Space space = getSpace(spaceLight.getLocalId());
-      if (space != null) {
-        space.setSpaceInstLight(spaceLight);
+    if (spaceLight != null && StringUtil.isDefined(spaceLight.getId()) &&
+        tree.spaces.containsKey(spaceLight.getLocalId())) {
+      publish(t -> {
+        Tree newTree = t.with(spaceLight.getLocalId(),
+            t.spaces.get(spaceLight.getLocalId()).withSpace(spaceLight));
         if (!spaceLight.isRoot()) {
           // update this space in parent space
-          Space parent = getSpace(Integer.parseInt(spaceLight.getFatherId()));
-          parent.updateSubspace(spaceLight);
+          final int parentId = Integer.parseInt(spaceLight.getFatherId());
+          final Node parent = newTree.spaces.get(parentId);
+          if (parent != null) {
+            newTree = newTree.with(parentId, parent.withUpdatedSubspace(spaceLight));
+          }
         }
-      }
+        return newTree;
+      });
     }
   }
 
-  private synchronized Space getSpace(int spaceId) {
-    return map.get(spaceId);
-  }
-
   /**
    * Gets the level of the specified space in the cached tree.
    * @param spaceId the unique identifier of a space in the cache.
@@ -315,19 +316,8 @@ public class TreeCache {
    * @param spaceId the unique identifier of a space that will contain the given space.
    * @param subSpace the space to add as a child.
    */
-  public void addSubSpace(int spaceId, SpaceInstLight subSpace) {
-    Space space = getSpace(spaceId);
-    if (space != null) {
-      Iterator<SpaceInstLight> spaceSubSpaceIterator = space.getSubspaces().iterator();
-      while(spaceSubSpaceIterator.hasNext()) {
-        SpaceInstLight currentSpaceSubSpace = spaceSubSpaceIterator.next();
-        if (currentSpaceSubSpace.getId().equals(subSpace.getId())) {
-          spaceSubSpaceIterator.remove();
-          break;
-        }
-      }
-      space.getSubspaces().add(subSpace);
-    }
+  public synchronized void addSubSpace(int spaceId, SpaceInstLight subSpace) {
+    updateNode(spaceId, n -> n.withSubspace(subSpace));
   }
 
   /**
@@ -336,13 +326,214 @@ public class TreeCache {
    * is replaced by the specified one.
    * @param component the component instance with which the cached one will be updated.
    */
-  public void updateComponent(ComponentInstLight component) {
-    Space space = getSpace(getSpaceId(component));
-    space.updateComponent(component);
+  public synchronized void updateComponent(ComponentInstLight component) {
+    final int spaceId = getSpaceId(component);
+    final Node node = tree.spaces.get(spaceId);
+    if (node != null && node.components.containsKey(component.getId())) {
+      updateNode(spaceId, n -> n.withComponent(component));
+    }
   }
 
-  private int getSpaceId(ComponentInstLight component) {
+  private void updateNode(int spaceId, UnaryOperator<Node> update) {
+    final Node node = tree.spaces.get(spaceId);
+    if (node != null) {
+      publish(t -> t.with(spaceId, update.apply(node)));
+    }
+  }
+
+  /**
+   * Publishes the new version of the tree computed from the current one. It must be invoked
+   * only by the modifiers of the tree, all of them being synchronized between each other.
+   * @param modification the modification to apply on the current tree.
+   */
+  private void publish(UnaryOperator<Tree> modification) {
+    final Tree current = tree;
+    final Tree modified = modification.apply(current.copy());
+    tree = modified.freeze(current.version + 1);
+  }
+
+  private static int getSpaceId(ComponentInstLight component) {
     return Integer
         .parseInt(component.getSpaceId().replaceFirst("^" + SpaceInst.SPACE_KEY_PREFIX, ""));
   }
-}
\ No newline at end of file
+
+  /**
+   * A snapshot of the tree of spaces. Once published, it is never modified: the maps are copied
+   * by the writer before being changed whereas the nodes themselves are shared between the
+   * snapshots.
+   */
+  private static class Tree {
+
+    private static final Tree EMPTY =
+        new Tree(0, Collections.emptyMap(), Collections.emptyMap());
+
+    private final long version;
+    private final Map<Integer, Node> spaces;
+    private final Map<String, Integer> componentIndex;
+
+    private Tree(final long version, final Map<Integer, Node> spaces,
+        final Map<String, Integer> componentIndex) {
+      this.version = version;
+      this.spaces = spaces;
+      this.componentIndex = componentIndex;
+    }
+
+    private Tree copy() {
+      return new Tree(version, new HashMap<>(spaces), new HashMap<>(componentIndex));
+    }
+
+    private Tree freeze(final long newVersion) {
+      return new Tree(newVersion, spaces, componentIndex);
+    }
+
+    /**
+     * Puts the specified node in this tree under modification.
+     */
+    private Tree with(final int spaceId, final Node node) {
+      final Node previous = spaces.put(spaceId, node);
+      if (previous != null) {
+        previous.components.keySet().forEach(c -> componentIndex.remove(c, spaceId));
+      }
+      node.components.keySet().forEach(c -> componentIndex.put(c, spaceId));
+      return this;
+    }
+
+    /**
+     * Puts in this tree under modification the specified spaces that aren't yet in it.
+     */
+    private Tree withAll(final Collection<Space> newSpaces) {
+      for (Space space : newSpaces) {
+        final int spaceId = space.getSpaceInstLight().getLocalId();
+        if (!spaces.containsKey(spaceId)) {
+          with(spaceId, new Node(space));
+        }
+      }
+      return this;
+    }
+
+    /**
+     * Removes the specified node and all its descendants from this tree under modification.
+     */
+    private Tree without(final int spaceId) {
+      final Node node = spaces.remove(spaceId);
+      if (node != null) {
+        node.components.keySet().forEach(c -> componentIndex.remove(c, spaceId));
+        for (SpaceInstLight subspace : node.subspaces) {
+          without(subspace.getLocalId());
+        }
+      }
+      return this;
+    }
+
+    private Node getNodeContaining(final String componentId) {
+      final Integer spaceId = componentIndex.get(componentId);
+      return spaceId != null ? spaces.get(spaceId) : null;
+    }
+
+    private Optional<SpaceInstLight> getSpaceInstLight(final int spaceId) {
+      final Node node = spaces.get(spaceId);
+      return node != null ? Optional.ofNullable(node.space) : Optional.empty();
+    }
+
+    private List<SpaceInstLight> getSubSpaces(final int spaceId) {
+      final Node node = spaces.get(spaceId);
+      return node != null ? node.subspaces : Collections.emptyList();
+    }
+
+    private void collectComponents(final int spaceId, final List<ComponentInstLight> components) {
+      final Node node = spaces.get(spaceId);
+      if (node != null) {
+        components.addAll(node.components.values());
+        for (SpaceInstLight subspace : node.subspaces) {
+          collectComponents(subspace.getLocalId(), components);
+        }
+      }
+    }
+
+    private List<SpaceInstLight> getSpacePath(final int spaceId) {
+      final List<SpaceInstLight> path = new ArrayList<>();
+      Optional<SpaceInstLight> space = getSpaceInstLight(spaceId);
+      if (space.isPresent()) {
+        path.add(0, space.get());
+        while (space.isPresent() && !space.get().isRoot()) {
+          space = getSpaceInstLight(Integer.parseInt(space.get().getFatherId()));
+          space.ifPresent(spaceInstLight -> path.add(0, spaceInstLight));
+        }
+      }
+      return path;
+    }
+  }
+
+  /**
+   * A space in the tree with its ordered children. A node is immutable: any modification gives a
+   * new node.
+   */
+  private static class Node {
+
+    private final SpaceInstLight space;
+    private final Map<String, ComponentInstLight> components;
+    private final List<SpaceInstLight> subspaces;
+
+    private Node(final Space space) {
+      this(space.getSpaceInstLight(), space.getComponents(), space.getSubspaces());
+    }
+
+    private Node(final SpaceInstLight space, final Collection<ComponentInstLight> components,
+        final List<SpaceInstLight> subspaces) {
+      final Map<String, ComponentInstLight> componentsById = new LinkedHashMap<>();
+      components.forEach(c -> componentsById.put(c.getId(), c));
+      this.space = space;
+      this.components = Collections.unmodifiableMap(componentsById);
+      this.subspaces = Collections.unmodifiableList(new ArrayList<>(subspaces));
+    }
+
+    private Space toSpace() {
+      final Space copy = new Space();
+      copy.setSpaceInstLight(space);
+      copy.setComponents(new ArrayList<>(components.values()));
+      copy.setSubspaces(new ArrayList<>(subspaces));
+      return copy;
+    }
+
+    private Node withSpace(final SpaceInstLight newSpace) {
+      return new Node(newSpace, components.values(), subspaces);
+    }
+
+    private Node withComponents(final Collection<ComponentInstLight> newComponents) {
+      return new Node(space, newComponents, subspaces);
+    }
+
+    private Node withComponent(final ComponentInstLight component) {
+      final Map<String, ComponentInstLight> newComponents = new LinkedHashMap<>(components);
+      newComponents.put(component.getId(), component);
+      return withComponents(newComponents.values());
+    }
+
+    private Node withoutComponent(final String componentId) {
+      final Map<String, ComponentInstLight> newComponents = new LinkedHashMap<>(components);
+      newComponents.remove(componentId);
+      return withComponents(newComponents.values());
+    }
+
+    private Node withSubspaces(final List<SpaceInstLight> newSubspaces) {
+      return new Node(space, components.values(), newSubspaces);
+    }
+
+    private Node withSubspace(final SpaceInstLight subspace) {
+      final List<SpaceInstLight> newSubspaces = new ArrayList<>(subspaces);
+      newSubspaces.removeIf(s -> s.getId().equals(subspace.getId()));
+      newSubspaces.add(subspace);
+      return withSubspaces(newSubspaces);
+    }
+
+    private Node withUpdatedSubspace(final SpaceInstLight subspace) {
+      final int index = subspaces.indexOf(subspace);
+      if (index == -1) {
+        return this;
+      }
+      final List<SpaceInstLight> newSubspaces = new ArrayList<>(subspaces);
+      newSubspaces.set(index, subspace);
+      return withSubspaces(newSubspaces);
+    }
+  }
+}
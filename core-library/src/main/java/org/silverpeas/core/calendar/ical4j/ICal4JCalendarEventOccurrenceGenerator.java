@@ -26,6 +26,7 @@ package org.silverpeas.core.calendar.ical4j;
 import net.fortuna.ical4j.model.Date;
 import net.fortuna.ical4j.model.DateTime;
 import net.fortuna.ical4j.model.PeriodList;
+import net.fortuna.ical4j.model.Property;
 import net.fortuna.ical4j.model.Recur;
 import net.fortuna.ical4j.model.WeekDay;
 import net.fortuna.ical4j.model.component.VEvent;
@@ -46,6 +47,7 @@ import org.silverpeas.core.date.TimeUnit;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.time.OffsetDateTime;
 import java.time.ZoneId;
@@ -61,19 +63,34 @@ import java.util.Optional;
 
 /**
  * An implementation of the {@link CalendarEventOccurrenceGenerator} by using the iCal4J library.
+ * <p>
+ * The occurrences of the recurrent events are indexed so that they aren't computed again by
+ * iCal4J each time they are asked for a given window of time.
+ * </p>
  * @author mmoquillon
+ * @see ICal4JOccurrenceIndex
  */
 @Singleton
 public class ICal4JCalendarEventOccurrenceGenerator implements CalendarEventOccurrenceGenerator {
 
   private final ICal4JDateCodec iCal4JDateCodec;
   private final ICal4JRecurrenceCodec iCal4JRecurrenceCodec;
+  private final ICal4JOccurrenceIndex occurrenceIndex;
 
   @Inject
   public ICal4JCalendarEventOccurrenceGenerator(final ICal4JDateCodec iCal4JDateCodec,
       final ICal4JRecurrenceCodec iCal4JRecurrenceCodec) {
     this.iCal4JDateCodec = iCal4JDateCodec;
     this.iCal4JRecurrenceCodec = iCal4JRecurrenceCodec;
+    this.occurrenceIndex = new ICal4JOccurrenceIndex(new ICal4JExpansion());
+  }
+
+  /**
+   * Removes from the index of occurrences the ones of the specified event.
+   * @param eventId the unique identifier of a calendar event.
+   */
+  void invalidateOccurrencesOf(final String eventId) {
+    occurrenceIndex.invalidate(eventId);
   }
 
   @Override
@@ -81,12 +98,20 @@ public class ICal4JCalendarEventOccurrenceGenerator implements CalendarEventOccu
       final Period inPeriod) {
     List<CalendarEventOccurrence> occurrences = new ArrayList<>();
     events.forEach(event -> {
-      final VEvent vEvent = fromCalendarEvent(event);
-      PeriodList periodList = getPeriodList(vEvent, inPeriod);
-      periodList.forEach(occurPeriod -> {
-        CalendarEventOccurrence occurrence = buildCalendarEventOccurrence(event, occurPeriod);
-        occurrences.add(occurrence);
-      });
+      if (occurrenceIndex.isIndexable(event)) {
+        final ICal4JOccurrenceIndex.Occurrences indexed = getIndexedOccurrences(event, inPeriod);
+        for (int i = 0; i < indexed.size(); i++) {
+          occurrences.add(buildCalendarEventOccurrence(event, asOffsetDateTime(indexed.getStart(i)),
+              asOffsetDateTime(indexed.getEnd(i))));
+        }
+      } else {
+        final VEvent vEvent = fromCalendarEvent(event);
+        PeriodList periodList = getPeriodList(vEvent, inPeriod);
+        periodList.forEach(occurPeriod -> {
+          CalendarEventOccurrence occurrence = buildCalendarEventOccurrence(event, occurPeriod);
+          occurrences.add(occurrence);
+        });
+      }
     });
     occurrences.sort(
         Comparator.comparing(o -> TemporalConverter.asOffsetDateTime(o.getStartDate())));
@@ -165,7 +190,8 @@ public class ICal4JCalendarEventOccurrenceGenerator implements CalendarEventOccu
           optionalRecurEndDate.get() instanceof LocalDate ? (LocalDate) optionalRecurEndDate.get() :
               ((OffsetDateTime) optionalRecurEndDate.get()).toLocalDate();
     }
-    final VEvent vEvent = fromCalendarEvent(event);
+    final boolean indexed = occurrenceIndex.isIndexable(event);
+    final VEvent vEvent = indexed ? null : fromCalendarEvent(event);
     final ChronoUnit recurUnit = event.getRecurrence().getFrequency().getUnit().toChronoUnit();
 
     final ZonedDateTime sinceDateTime =
@@ -179,14 +205,13 @@ public class ICal4JCalendarEventOccurrenceGenerator implements CalendarEventOccu
       if (recurEndDate != null && recurEndDate.isBefore(searchPeriodStart)) {
         return null;
       }
-      final PeriodList occurDateList = getPeriodList(vEvent,
-          Period.between(searchPeriodStart, searchPeriodStart.plus(2, recurUnit)));
-      Iterator<net.fortuna.ical4j.model.Period> occurDateIt = occurDateList.iterator();
-      while (occurDateIt.hasNext()) {
-        net.fortuna.ical4j.model.Period nextOccurDate = occurDateIt.next();
-        if (nextOccurDate.getStart().after(iCalSinceDate)) {
-          return buildCalendarEventOccurrence(event, nextOccurDate);
-        }
+      final Period searchPeriod =
+          Period.between(searchPeriodStart, searchPeriodStart.plus(2, recurUnit));
+      final CalendarEventOccurrence nextOccurrence =
+          indexed ? findIndexedOccurrenceAfter(event, searchPeriod, iCalSinceDate) :
+              findOccurrenceAfter(event, vEvent, searchPeriod, iCalSinceDate);
+      if (nextOccurrence != null) {
+        return nextOccurrence;
       }
       searchPeriodStart = searchPeriodStart.plus(2, recurUnit);
       nbNextStartDateComputations++;
@@ -194,16 +219,54 @@ public class ICal4JCalendarEventOccurrenceGenerator implements CalendarEventOccu
     throw new IllegalStateException("the next date seems to be hard to guess...");
   }
 
+  private CalendarEventOccurrence findOccurrenceAfter(final CalendarEvent event,
+      final VEvent vEvent, final Period searchPeriod, final Date since) {
+    final PeriodList occurDateList = getPeriodList(vEvent, searchPeriod);
+    Iterator<net.fortuna.ical4j.model.Period> occurDateIt = occurDateList.iterator();
+    while (occurDateIt.hasNext()) {
+      net.fortuna.ical4j.model.Period nextOccurDate = occurDateIt.next();
+      if (nextOccurDate.getStart().after(since)) {
+        return buildCalendarEventOccurrence(event, nextOccurDate);
+      }
+    }
+    return null;
+  }
+
+  private CalendarEventOccurrence findIndexedOccurrenceAfter(final CalendarEvent event,
+      final Period searchPeriod, final Date since) {
+    final ICal4JOccurrenceIndex.Occurrences indexed = getIndexedOccurrences(event, searchPeriod);
+    for (int i = 0; i < indexed.size(); i++) {
+      if (indexed.getStart(i) > since.getTime()) {
+        return buildCalendarEventOccurrence(event, asOffsetDateTime(indexed.getStart(i)),
+            asOffsetDateTime(indexed.getEnd(i)));
+      }
+    }
+    return null;
+  }
+
+  private ICal4JOccurrenceIndex.Occurrences getIndexedOccurrences(final CalendarEvent event,
+      final Period inPeriod) {
+    final net.fortuna.ical4j.model.Period icalPeriod = fromPeriod(inPeriod);
+    return occurrenceIndex.getOccurrences(event, () -> fromCalendarEvent(event),
+        icalPeriod.getStart().getTime(), icalPeriod.getEnd().getTime());
+  }
+
   private CalendarEventOccurrence buildCalendarEventOccurrence(final CalendarEvent event,
       final net.fortuna.ical4j.model.Period occurPeriod) {
+    return buildCalendarEventOccurrence(event, asOffsetDateTime(occurPeriod.getStart()),
+        asOffsetDateTime(occurPeriod.getEnd()));
+  }
+
+  private CalendarEventOccurrence buildCalendarEventOccurrence(final CalendarEvent event,
+      final OffsetDateTime start, final OffsetDateTime end) {
     final Temporal occurStart;
     final Temporal occurEnd;
     if (event.isOnAllDay()) {
-      occurStart = asOffsetDateTime(occurPeriod.getStart()).toLocalDate();
-      occurEnd = asOffsetDateTime(occurPeriod.getEnd()).toLocalDate();
+      occurStart = start.toLocalDate();
+      occurEnd = end.toLocalDate();
     } else {
-      occurStart = asOffsetDateTime(occurPeriod.getStart());
-      occurEnd = asOffsetDateTime(occurPeriod.getEnd());
+      occurStart = start;
+      occurEnd = end;
     }
     return CalendarEventOccurrenceBuilder.forEvent(event)
         .startingAt(occurStart)
@@ -278,7 +341,11 @@ public class ICal4JCalendarEventOccurrenceGenerator implements CalendarEventOccu
 
   private PeriodList getPeriodList(final VEvent vEvent,
       final Period inPeriod) {
-    final net.fortuna.ical4j.model.Period icalPeriod = fromPeriod(inPeriod);
+    return getPeriodList(vEvent, fromPeriod(inPeriod));
+  }
+
+  private PeriodList getPeriodList(final VEvent vEvent,
+      final net.fortuna.ical4j.model.Period icalPeriod) {
     PeriodList periodList = vEvent.calculateRecurrenceSet(icalPeriod);
     periodList.removeIf(period -> period.getEnd().equals(icalPeriod.getStart()));
     return periodList;
@@ -295,4 +362,35 @@ public class ICal4JCalendarEventOccurrenceGenerator implements CalendarEventOccu
   private OffsetDateTime asOffsetDateTime(DateTime dateTime) {
     return dateTime.toInstant().atOffset(ZoneOffset.UTC);
   }
+
+  private OffsetDateTime asOffsetDateTime(long instant) {
+    return Instant.ofEpochMilli(instant).atOffset(ZoneOffset.UTC);
+  }
+
+  /**
+   * The expansion of the recurrence set of the VEvents by iCal4J as expected by the index of
+   * occurrences.
+   */
+  private class ICal4JExpansion implements ICal4JOccurrenceIndex.Expansion {
+
+    @Override
+    public PeriodList expand(final VEvent vEvent, final long start, final long end) {
+      return getPeriodList(vEvent,
+          new net.fortuna.ical4j.model.Period(iCal4JDateCodec.encode(asOffsetDateTime(start)),
+              iCal4JDateCodec.encode(asOffsetDateTime(end))));
+    }
+
+    @Override
+    public boolean isOnlyFirstOccurrence(final VEvent vEvent) {
+      final RRule rrule = (RRule) vEvent.getProperty(Property.RRULE);
+      if (rrule == null) {
+        return true;
+      }
+      final Date dtStart = vEvent.getStartDate().getDate();
+      return !rrule.getRecur()
+          .getDates(dtStart, dtStart, dtStart,
+              dtStart instanceof DateTime ? Value.DATE_TIME : Value.DATE)
+          .contains(dtStart);
+    }
+  }
 }
@@ -0,0 +1,301 @@
+/*
+ * Copyright (C) 2000 - 2018 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.calendar.ical4j;
+
+import net.fortuna.ical4j.model.PeriodList;
+import net.fortuna.ical4j.model.component.VEvent;
+import org.silverpeas.core.calendar.Calendar;
+import org.silverpeas.core.calendar.CalendarEvent;
+import org.silverpeas.core.calendar.Recurrence;
+
+import java.time.Duration;
+import java.time.ZoneId;
+import java.time.temporal.Temporal;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * An index of the occurrences of the recurrent calendar events. For each event, the start and
+ * the end instants of its occurrences are computed once over a horizon of time and they are kept
+ * sorted into arrays of primitives so that the occurrences in a given window of time are found by
+ * a binary search. The horizon is extended lazily when a window of time goes beyond it, so the
+ * occurrences of endless recurrences are never computed further than requested.
+ * <p>
+ * The occurrences of an event are indexed with the properties from which they are computed
+ * (period, zone of the calendar, recurrence rule and exception dates): any change in these
+ * properties invalidates them. The occurrences of an event can be also explicitly removed from
+ * the index with {@link #invalidate(String)}.
+ * </p>
+ */
+class ICal4JOccurrenceIndex {
+
+  private static final int MAX_INDEXED_EVENTS = 5000;
+  private static final int MAX_INDEXED_OCCURRENCES = 4096;
+  private static final long HORIZON_MARGIN = Duration.ofDays(366).toMillis();
+
+  private final Map<String, IndexedOccurrences> index = new ConcurrentHashMap<>();
+  private final Expansion expansion;
+
+  /**
+   * Constructs a new index with the specified expansion of the recurrence set of a VEvent.
+   * @param expansion the expansion to use to compute the occurrences of an event.
+   */
+  ICal4JOccurrenceIndex(final Expansion expansion) {
+    this.expansion = expansion;
+  }
+
+  /**
+   * Is the specified event can be indexed? Only the recurrent events that are identified can be.
+   * @param event a calendar event.
+   * @return true if the occurrences of the event can be indexed, false otherwise.
+   */
+  boolean isIndexable(final CalendarEvent event) {
+    return event.getId() != null && event.isRecurrent();
+  }
+
+  /**
+   * Gets the occurrences of the specified event that occur in the given window of time. They are
+   * computed from the specified VEvent if they aren't yet indexed over this window of time.
+   * @param event an indexable calendar event.
+   * @param vEvent a supplier of the VEvent representation of the calendar event.
+   * @param windowStart the start instant of the window of time in milliseconds since the epoch.
+   * @param windowEnd the end instant of the window of time in milliseconds since the epoch.
+   * @return the occurrences of the event in the window of time.
+   */
+  Occurrences getOccurrences(final CalendarEvent event, final Supplier<VEvent> vEvent,
+      final long windowStart, final long windowEnd) {
+    IndexedOccurrences indexed = index.get(event.getId());
+    if (indexed == null || !indexed.isComputedFrom(event)) {
+      indexed = compute(event, vEvent.get(), windowStart, windowEnd + HORIZON_MARGIN);
+    } else if (!indexed.covers(windowStart, windowEnd)) {
+      indexed = extend(event, vEvent.get(), indexed, windowStart, windowEnd);
+    }
+    return indexed.in(windowStart, windowEnd);
+  }
+
+  /**
+   * Removes from the index the occurrences of the specified event.
+   * @param eventId the unique identifier of a calendar event.
+   */
+  void invalidate(final String eventId) {
+    index.remove(eventId);
+  }
+
+  private IndexedOccurrences extend(final CalendarEvent event, final VEvent vEvent,
+      final IndexedOccurrences indexed, final long windowStart, final long windowEnd) {
+    if (windowEnd < indexed.horizonStart || windowStart > indexed.horizonEnd) {
+      return compute(event, vEvent, windowStart, windowEnd + HORIZON_MARGIN);
+    }
+    final long horizonStart =
+        windowStart < indexed.horizonStart ? windowStart - HORIZON_MARGIN : indexed.horizonStart;
+    final long horizonEnd =
+        windowEnd > indexed.horizonEnd ? windowEnd + HORIZON_MARGIN : indexed.horizonEnd;
+    final IndexedOccurrences extended = compute(event, vEvent, horizonStart, horizonEnd);
+    if (extended.starts.length > MAX_INDEXED_OCCURRENCES) {
+      // the horizon isn't extended any more but is moved over the requested window
+      return compute(event, vEvent, windowStart, windowEnd + HORIZON_MARGIN);
+    }
+    return extended;
+  }
+
+  private IndexedOccurrences compute(final CalendarEvent event, final VEvent vEvent,
+      final long horizonStart, final long horizonEnd) {
+    final PeriodList periods = expansion.expand(vEvent, horizonStart, horizonEnd);
+    final long[] starts = new long[periods.size()];
+    final long[] ends = new long[periods.size()];
+    int i = 0;
+    for (net.fortuna.ical4j.model.Period period : periods) {
+      starts[i] = period.getStart().getTime();
+      ends[i] = period.getEnd().getTime();
+      i++;
+    }
+    final IndexedOccurrences indexed =
+        new IndexedOccurrences(event, horizonStart, horizonEnd, starts, ends,
+            expansion.isOnlyFirstOccurrence(vEvent) ? vEvent.getStartDate().getDate().getTime() :
+                Long.MIN_VALUE);
+    if (index.size() >= MAX_INDEXED_EVENTS && !index.containsKey(event.getId())) {
+      index.clear();
+    }
+    index.put(event.getId(), indexed);
+    return indexed;
+  }
+
+  /**
+   * The expansion of the recurrence set of a VEvent.
+   */
+  interface Expansion {
+
+    /**
+     * Expands the recurrence set of the specified VEvent over the given period of time.
+     * @param vEvent a VEvent.
+     * @param start the start instant of the period in milliseconds since the epoch.
+     * @param end the end instant of the period in milliseconds since the epoch.
+     * @return the list of the periods of the occurrences sorted by their start date.
+     */
+    PeriodList expand(VEvent vEvent, long start, long end);
+
+    /**
+     * Is the first occurrence of the specified VEvent isn't generated by its recurrence rule? In
+     * this case, it is taken into account in a period only if it starts strictly before the end
+     * of the period whereas the others are also when they start exactly at the end of the period.
+     * @param vEvent a VEvent.
+     * @return true if the first occurrence of the VEvent is only defined by its start date.
+     */
+    boolean isOnlyFirstOccurrence(VEvent vEvent);
+  }
+
+  /**
+   * The occurrences of an event in a window of time: it is a slice of the indexed occurrences.
+   */
+  static class Occurrences {
+
+    private final long[] starts;
+    private final long[] ends;
+    private final int[] positions;
+
+    private Occurrences(final long[] starts, final long[] ends, final int[] positions) {
+      this.starts = starts;
+      this.ends = ends;
+      this.positions = positions;
+    }
+
+    int size() {
+      return positions.length;
+    }
+
+    long getStart(int i) {
+      return starts[positions[i]];
+    }
+
+    long getEnd(int i) {
+      return ends[positions[i]];
+    }
+  }
+
+  private static class IndexedOccurrences {
+
+    private final Signature signature;
+    private final long horizonStart;
+    private final long horizonEnd;
+    private final long[] starts;
+    private final long[] ends;
+    private final long maxDuration;
+    private final long exclusiveStart;
+
+    IndexedOccurrences(final CalendarEvent event, final long horizonStart, final long horizonEnd,
+        final long[] starts, final long[] ends, final long exclusiveStart) {
+      this.signature = new Signature(event);
+      this.horizonStart = horizonStart;
+      this.horizonEnd = horizonEnd;
+      this.starts = starts;
+      this.ends = ends;
+      long max = 0;
+      for (int i = 0; i < starts.length; i++) {
+        max = Math.max(max, ends[i] - starts[i]);
+      }
+      this.maxDuration = max;
+      this.exclusiveStart = exclusiveStart;
+    }
+
+    boolean isComputedFrom(final CalendarEvent event) {
+      return signature.matches(event);
+    }
+
+    boolean covers(final long windowStart, final long windowEnd) {
+      return horizonStart <= windowStart && windowEnd <= horizonEnd;
+    }
+
+    /**
+     * Gets the occurrences overlapping the specified window with the same boundary rules than
+     * the ones applied by iCal4J when computing the recurrence set of an event in a period: the
+     * occurrences ending at the start of the window are excluded whereas the ones starting at
+     * its end are included.
+     */
+    Occurrences in(final long windowStart, final long windowEnd) {
+      int first = lowerBound(windowStart - maxDuration);
+      int last = upperBound(windowEnd);
+      int[] positions = new int[Math.max(0, last - first)];
+      int count = 0;
+      for (int i = first; i < last; i++) {
+        if (ends[i] > windowStart && (starts[i] < windowEnd || starts[i] != exclusiveStart)) {
+          positions[count++] = i;
+        }
+      }
+      return new Occurrences(starts, ends, Arrays.copyOf(positions, count));
+    }
+
+    private int lowerBound(final long instant) {
+      int i = Arrays.binarySearch(starts, instant);
+      if (i < 0) {
+        return -i - 1;
+      }
+      while (i > 0 && starts[i - 1] == instant) {
+        i--;
+      }
+      return i;
+    }
+
+    private int upperBound(final long instant) {
+      int i = Arrays.binarySearch(starts, instant);
+      if (i < 0) {
+        return -i - 1;
+      }
+      while (i < starts.length && starts[i] == instant) {
+        i++;
+      }
+      return i;
+    }
+  }
+
+  /**
+   * The properties of an event from which its occurrences are computed.
+   */
+  private static class Signature {
+
+    private final Temporal startDate;
+    private final Temporal endDate;
+    private final ZoneId zoneId;
+    private final Recurrence recurrence;
+
+    Signature(final CalendarEvent event) {
+      this.startDate = event.getStartDate();
+      this.endDate = event.getEndDate();
+      this.zoneId = getZoneId(event);
+      this.recurrence = event.getRecurrence().clone();
+    }
+
+    boolean matches(final CalendarEvent event) {
+      return startDate.equals(event.getStartDate()) && endDate.equals(event.getEndDate()) &&
+          Objects.equals(zoneId, getZoneId(event)) && recurrence.equals(event.getRecurrence());
+    }
+
+    private static ZoneId getZoneId(final CalendarEvent event) {
+      final Calendar calendar = event.getCalendar();
+      return calendar == null ? null : calendar.getZoneId();
+    }
+  }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright (C) 2000 - 2018 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.calendar.ical4j;
+
+import org.silverpeas.core.calendar.CalendarEventOccurrenceGenerator;
+import org.silverpeas.core.calendar.notification.CalendarEventLifeCycleEvent;
+import org.silverpeas.core.notification.system.CDIResourceEventListener;
+
+/**
+ * Listener of the changes in the lifecycle of the calendar events in order to remove from the
+ * index of occurrences the ones of the updated or deleted events. The occurrences of an updated
+ * event are anyway computed again once its planning or its recurrence changed; this listener
+ * frees as soon as possible the resources they use.
+ */
+public class ICal4JOccurrenceIndexInvalidator
+    extends CDIResourceEventListener<CalendarEventLifeCycleEvent> {
+
+  @Override
+  public void onUpdate(final CalendarEventLifeCycleEvent event) throws Exception {
+    invalidate(event.getTransition().getBefore().getId());
+  }
+
+  @Override
+  public void onDeletion(final CalendarEventLifeCycleEvent event) throws Exception {
+    invalidate(event.getTransition().getBefore().getId());
+  }
+
+  private void invalidate(final String eventId) {
+    CalendarEventOccurrenceGenerator generator = CalendarEventOccurrenceGenerator.get();
+    if (eventId != null && generator instanceof ICal4JCalendarEventOccurrenceGenerator) {
+      ((ICal4JCalendarEventOccurrenceGenerator) generator).invalidateOccurrencesOf(eventId);
+    }
+  }
+}
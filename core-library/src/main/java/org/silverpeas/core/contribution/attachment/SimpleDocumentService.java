@@ -36,6 +36,7 @@ import org.silverpeas.core.contribution.attachment.model.SimpleDocument;
 import org.silverpeas.core.contribution.attachment.model.SimpleDocumentPK;
 import org.silverpeas.core.contribution.attachment.model.UnlockContext;
 import org.silverpeas.core.contribution.attachment.notification.AttachmentEventNotifier;
+import org.silverpeas.core.contribution.attachment.notification.AttachmentMoveEventNotifier;
 import org.silverpeas.core.contribution.attachment.process.AttachmentSimulationElementLister;
 import org.silverpeas.core.contribution.attachment.repository.DocumentRepository;
 import org.silverpeas.core.contribution.attachment.util.SimpleDocumentList;
@@ -99,6 +100,8 @@ public class SimpleDocumentService
   private DocumentRepository repository;
   @Inject
   private AttachmentEventNotifier notificationService;
+  @Inject
+  private AttachmentMoveEventNotifier moveNotificationService;
 
   private final SettingBundle settings =
       ResourceLocator.getSettingBundle("org.silverpeas.util.attachment.Attachment");
@@ -911,6 +914,9 @@ public class SimpleDocumentService
         webdavRepository.moveNodeAttachment(session, document, destination.getInstanceId());
       }
       session.save();
+      if (reallyNotifying(document, true)) {
+        moveNotificationService.notifyEventOn(ResourceEvent.Type.UPDATE, document, moveDoc);
+      }
       return pk;
     } catch (RepositoryException | IOException ex) {
       throw new AttachmentException(ex);
@@ -58,6 +58,8 @@ public class AttachmentRef implements Serializable {
   private boolean versioned;
   @XmlElement
   private String userId;
+  @XmlElement
+  private long size;
 
   protected AttachmentRef() {
 
@@ -74,6 +76,7 @@ public class AttachmentRef implements Serializable {
     this.oldSilverpeasId = document.getOldSilverpeasId();
     this.name = document.getFilename();
     this.versioned = document.isVersioned();
+    this.size = document.getSize();
     this.userId = document.getEditedBy();
     if (!StringUtil.isDefined(userId)) {
       this.userId = document.getUpdatedBy();
@@ -110,4 +113,12 @@ public class AttachmentRef implements Serializable {
   public String getUserId() {
     return userId;
   }
+
+  /**
+   * Gets the size in bytes of the content of the attachment.
+   * @return the size of the attachment content.
+   */
+  public long getSize() {
+    return size;
+  }
 }
@@ -43,6 +43,8 @@ import org.silverpeas.core.util.StringUtil;
 import org.silverpeas.core.util.file.FileRepositoryManager;
 import org.silverpeas.core.util.file.FileUtil;
 import org.silverpeas.core.util.logging.SilverLogger;
+import org.silverpeas.core.util.metrics.MetricRegistry;
+import org.silverpeas.core.util.metrics.Timer;
 
 import javax.jcr.ItemNotFoundException;
 import javax.jcr.Node;
@@ -89,6 +91,7 @@ import static org.silverpeas.core.persistence.jcr.util.JcrConstants.*;
 public class DocumentRepository {
 
   private static final String SIMPLE_DOCUMENT_ALIAS = "SimpleDocuments";
+  private static final Timer QUERY_TIMER = MetricRegistry.get().timer("silverpeas.jcr.query");
   final DocumentConverter converter = new DocumentConverter();
 
   public void prepareComponentAttachments(String instanceId, String folder) throws
@@ -573,7 +576,7 @@ public class DocumentRepository {
 
     QueryObjectModel query = factory.createQuery(source, factory.and(descendantdNodeConstraint,
         factory.and(oldSilverpeasIdComparison, versionedComparison)), null, null);
-    QueryResult result = query.execute();
+    QueryResult result = execute(query);
     NodeIterator iter = result.getNodes();
     if (iter.hasNext()) {
       return converter.convertNode(iter.nextNode(), lang);
@@ -734,7 +737,7 @@ public class DocumentRepository {
         SLV_PROPERTY_ORDER));
     QueryObjectModel query = factory.createQuery(source, factory.and(descendantdNodeConstraint,
         foreignIdComparison), new Ordering[]{order}, null);
-    QueryResult result = query.execute();
+    QueryResult result = execute(query);
     return result.getNodes();
   }
 
@@ -761,7 +764,7 @@ public class DocumentRepository {
         SLV_PROPERTY_ORDER));
     QueryObjectModel query = factory.createQuery(source, factory.and(childNodeConstraint,
         foreignIdComparison), new Ordering[]{order}, null);
-    QueryResult result = query.execute();
+    QueryResult result = execute(query);
     return result.getNodes();
   }
 
@@ -790,7 +793,7 @@ public class DocumentRepository {
         SLV_PROPERTY_ORDER));
     QueryObjectModel query = factory.createQuery(source, factory.and(descendantNodeConstraint,
         foreignIdComparison), new Ordering[]{order}, null);
-    QueryResult result = query.execute();
+    QueryResult result = execute(query);
     return result.getNodes();
   }
 
@@ -814,7 +817,7 @@ public class DocumentRepository {
         SLV_PROPERTY_ORDER));
     QueryObjectModel query = factory.createQuery(source, childNodeConstraint, new Ordering[]{order},
         null);
-    QueryResult result = query.execute();
+    QueryResult result = execute(query);
     return result.getNodes();
   }
 
@@ -838,7 +841,7 @@ public class DocumentRepository {
         factory.ascending(factory.propertyValue(SIMPLE_DOCUMENT_ALIAS, SLV_PROPERTY_ORDER));
     QueryObjectModel query =
         factory.createQuery(source, childNodeConstraint, new Ordering[]{order}, null);
-    QueryResult result = query.execute();
+    QueryResult result = execute(query);
     return result.getNodes();
   }
 
@@ -893,7 +896,7 @@ public class DocumentRepository {
         SLV_PROPERTY_ORDER));
     QueryObjectModel query = factory.createQuery(source, foreignIdComparison, new Ordering[]{order},
         null);
-    QueryResult result = query.execute();
+    QueryResult result = execute(query);
     return result.getNodes();
   }
 
@@ -934,7 +937,7 @@ public class DocumentRepository {
         SLV_PROPERTY_ORDER));
     QueryObjectModel query = factory.createQuery(source, foreignIdComparison, new Ordering[]{order},
         null);
-    QueryResult result = query.execute();
+    QueryResult result = execute(query);
     return result.getNodes();
   }
 
@@ -959,7 +962,7 @@ public class DocumentRepository {
         SLV_PROPERTY_ORDER));
     QueryObjectModel query = factory.createQuery(source, foreignIdComparison, new Ordering[]{order},
         null);
-    QueryResult result = query.execute();
+    QueryResult result = execute(query);
     return result.getNodes();
   }
 
@@ -986,7 +989,7 @@ public class DocumentRepository {
         SLV_PROPERTY_ORDER));
     QueryObjectModel query = factory.createQuery(source, factory.and(childNodeConstraint,
         ownerComparison), new Ordering[]{order}, null);
-    QueryResult result = query.execute();
+    QueryResult result = execute(query);
     return result.getNodes();
   }
 
@@ -1010,7 +1013,7 @@ public class DocumentRepository {
         SLV_PROPERTY_ORDER));
     QueryObjectModel query = factory.createQuery(source, ownerComparison, new Ordering[]{order},
         null);
-    QueryResult result = query.execute();
+    QueryResult result = execute(query);
     return result.getNodes();
   }
 
@@ -1431,6 +1434,22 @@ public class DocumentRepository {
     }
   }
 
+  /**
+   * Executes the specified JCR query. All the queries of this repository are executed by this
+   * method so that their duration is measured.
+   * @param query the query to execute.
+   * @return the result of the query.
+   * @throws RepositoryException if the query execution fails.
+   */
+  private QueryResult execute(final QueryObjectModel query) throws RepositoryException {
+    final long start = QUERY_TIMER.start();
+    try {
+      return query.execute();
+    } finally {
+      QUERY_TIMER.stop(start);
+    }
+  }
+
   /**
    * Represents a version of a document.
    */
@@ -40,8 +40,11 @@ import java.sql.Types;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 /**
  * This is the Publication Father Data Access Object.
@@ -210,6 +213,35 @@ public class PublicationFatherDAO {
     }
   }
 
+  /**
+   * Gets all the locations (fathers and aliases) of the specified publications.
+   * @param con Connection to database
+   * @param publicationIds the identifiers of the publications.
+   * @return the locations of each publication indexed by the publication identifier.
+   * @throws SQLException
+   */
+  public static Map<String, List<Alias>> getAlias(Connection con,
+      Collection<String> publicationIds) throws SQLException {
+    final Map<String, List<Alias>> result = new HashMap<>(publicationIds.size());
+    JdbcSqlQuery.executeBySplittingOn(publicationIds, (idBatch, ignore) -> JdbcSqlQuery
+        .createSelect("pubId, nodeId, instanceId, aliasUserId, aliasDate, pubOrder")
+        .from(publicationFatherTableName)
+        .where("pubId").in(idBatch.stream().map(Integer::parseInt).collect(Collectors.toList()))
+        .executeWith(con, rs -> {
+          final String pubId = Integer.toString(rs.getInt(1));
+          final Alias alias = new Alias(Integer.toString(rs.getInt(2)), rs.getString(3));
+          alias.setUserId(Integer.toString(rs.getInt(4)));
+          final String sDate = rs.getString(5);
+          if (StringUtil.isDefined(sDate)) {
+            alias.setDate(new Date(Long.parseLong(sDate)));
+          }
+          alias.setPubOrder(rs.getInt(6));
+          result.computeIfAbsent(pubId, k -> new ArrayList<>()).add(alias);
+          return null;
+        }));
+    return result;
+  }
+
   /**
    * Remove a father to this publication
    * @param con Connection to database
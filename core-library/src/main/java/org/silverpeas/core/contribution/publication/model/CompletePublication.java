@@ -26,6 +26,8 @@ package org.silverpeas.core.contribution.publication.model;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import org.silverpeas.core.contribution.publication.service.PublicationService;
 import org.silverpeas.core.security.authorization.PublicationAccessController;
@@ -123,11 +125,16 @@ public class CompletePublication implements Serializable {
     PublicationService publicationService = PublicationService.get();
     PublicationAccessController accessController =
         ServiceProvider.getService(PublicationAccessController.class);
+    List<PublicationPK> pks = new ArrayList<>(links.size());
+    for (PublicationLink link : links) {
+      pks.add(getTargetPK(link));
+    }
+    Set<PublicationPK> authorizedPks =
+        accessController.filterAuthorizedByUser(pks, userId).collect(Collectors.toSet());
     List<PublicationLink> authorizedLinks = new ArrayList<>();
     for (PublicationLink link : links) {
-      PublicationPK pk = new PublicationPK(link.getTarget().getLocalId(),
-          link.getTarget().getComponentInstanceId());
-      if (accessController.isUserAuthorized(userId, pk)) {
+      PublicationPK pk = getTargetPK(link);
+      if (authorizedPks.contains(pk)) {
         PublicationDetail publi = publicationService.getDetail(pk);
         if (publi != null) {
           link.setPub(publi);
@@ -137,4 +144,9 @@ public class CompletePublication implements Serializable {
     }
     return authorizedLinks;
   }
+
+  private static PublicationPK getTargetPK(PublicationLink link) {
+    return new PublicationPK(link.getTarget().getLocalId(),
+        link.getTarget().getComponentInstanceId());
+  }
 }
\ No newline at end of file
@@ -72,6 +72,7 @@ import org.silverpeas.core.node.model.NodePK;
 import org.silverpeas.core.node.service.NodeService;
 import org.silverpeas.core.notification.system.ResourceEvent;
 import org.silverpeas.core.persistence.jdbc.DBUtil;
+import org.silverpeas.core.security.authorization.ComponentAccessControl;
 import org.silverpeas.core.silvertrace.SilverTrace;
 import org.silverpeas.core.socialnetwork.model.SocialInformation;
 import org.silverpeas.core.util.ArrayUtil;
@@ -107,6 +108,8 @@ public class DefaultPublicationService implements PublicationService, ComponentI
   private RatingService ratingService;
   @Inject
   private PublicationEventNotifier notifier;
+  @Inject
+  private ComponentAccessControl componentAccessControl;
 
   @Override
   @Transactional
@@ -694,6 +697,17 @@ public class DefaultPublicationService implements PublicationService, ComponentI
     }
   }
 
+  @Override
+  public Map<String, List<Alias>> getAllAliases(final Collection<String> publicationIds) {
+    try (Connection con = getConnection()) {
+      return PublicationFatherDAO.getAlias(con, publicationIds);
+    } catch (SQLException e) {
+      throw new PublicationRuntimeException("DefaultPublicationService.getAllAliases()",
+          SilverpeasRuntimeException.ERROR, "publication.GETTING_PUBLICATION_FATHERS_FAILED",
+          "publicationIds = " + publicationIds, e);
+    }
+  }
+
   @Override
   public List<Alias> setAlias(PublicationPK pubPK, List<Alias> alias) {
     List<Alias> oldAliases = (List<Alias>) getAlias(pubPK);
@@ -1271,10 +1285,14 @@ public class DefaultPublicationService implements PublicationService, ComponentI
         if (!pubDetail.getPK().getInstanceId().startsWith("kmax")) {
           Collection<NodePK> fathers = getAllFatherPK(pubDetail.getPK());
           List<String> paths = new ArrayList<>();
+          List<NodeDetail> fatherDetails = new ArrayList<>();
           for (NodePK father : fathers) {
-            paths.add(nodeService.getDetail(father).getFullPath());
+            NodeDetail fatherDetail = nodeService.getDetail(father);
+            paths.add(fatherDetail.getFullPath());
+            fatherDetails.add(fatherDetail);
           }
           indexEntry.setPaths(paths);
+          setNodeRights(indexEntry, fatherDetails);
       }
 
       try {
@@ -1339,16 +1357,19 @@ public class DefaultPublicationService implements PublicationService, ComponentI
     Objects.requireNonNull(indexEntry);
     Collection<Alias> aliases = getAlias(pubPK);
     Map<IndexEntryKey, List<String>> pathsByIndex = new HashMap<>();
+    Map<IndexEntryKey, List<NodeDetail>> nodesByIndex = new HashMap<>();
     for (Alias alias : aliases) {
       if (!alias.getInstanceId().equals(pubPK.getInstanceId())) {
         //it's a true alias
         IndexEntryKey pk = getIndexEntryPK(alias.getInstanceId(), pubPK.getId());
         if (pathsByIndex.get(pk) == null) {
           pathsByIndex.put(pk, new ArrayList<>());
+          nodesByIndex.put(pk, new ArrayList<>());
         }
         try {
           NodeDetail node = nodeService.getDetail(new NodePK(alias.getId(), alias.getInstanceId()));
           pathsByIndex.get(pk).add(node.getFullPath());
+          nodesByIndex.get(pk).add(node);
         } catch (Exception e) {
           SilverLogger.getLogger(this)
               .warn("Alias target {0} in component {1} no more exists", alias.getId(),
@@ -1362,10 +1383,27 @@ public class DefaultPublicationService implements PublicationService, ComponentI
       aliasIndexEntry.setPK(indexEntryKey);
       aliasIndexEntry.setPaths(pathsByIndex.get(indexEntryKey));
       aliasIndexEntry.setAlias(true);
+      setNodeRights(aliasIndexEntry, nodesByIndex.get(indexEntryKey));
       IndexEngineProxy.addIndexEntry(aliasIndexEntry);
     }
   }
 
+  /**
+   * Restricts the access to the specified index entry to the users having a profile on the given
+   * nodes when all of them have specific rights. As soon as one of the nodes hasn't specific
+   * rights, the entry isn't restricted.
+   */
+  private void setNodeRights(FullIndexEntry indexEntry, Collection<NodeDetail> nodes) {
+    indexEntry.getNodeRights().clear();
+    if (nodes.isEmpty() || nodes.stream().anyMatch(node -> !node.haveRights()) ||
+        !componentAccessControl.isRightOnTopicsEnabled(indexEntry.getComponent())) {
+      return;
+    }
+    for (NodeDetail node : nodes) {
+      indexEntry.addNodeRights(String.valueOf(node.getRightsDependsOn()));
+    }
+  }
+
   /**
    * Method declaration
    * @param pubPK a publication identifier
@@ -0,0 +1,49 @@
+/*
+ * Copyright (C) 2000 - 2018 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.contribution.publication.service;
+
+import org.silverpeas.core.contribution.publication.model.PublicationPK;
+import org.silverpeas.core.node.model.NodeDetail;
+import org.silverpeas.core.node.notification.NodeEvent;
+import org.silverpeas.core.notification.system.CDIResourceEventListener;
+
+/**
+ * Listener of the changes of the nodes in order to reindex the publications of a node whose
+ * rights have changed: the index entries of the publications are restricted to the users having
+ * a profile on their nodes when these nodes have specific rights.
+ */
+public class PublicationNodeEventListener extends CDIResourceEventListener<NodeEvent> {
+
+  @Override
+  public void onUpdate(final NodeEvent event) throws Exception {
+    NodeDetail before = event.getTransition().getBefore();
+    NodeDetail after = event.getTransition().getAfter();
+    if (before.getRightsDependsOn() != after.getRightsDependsOn()) {
+      PublicationService publicationService = PublicationService.get();
+      for (PublicationPK pubPK : publicationService.getPubPKsInFatherPK(after.getNodePK())) {
+        publicationService.createIndex(pubPK);
+      }
+    }
+  }
+}
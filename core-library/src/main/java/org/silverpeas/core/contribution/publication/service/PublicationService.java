@@ -134,6 +134,15 @@ public interface PublicationService {
    */
   Collection<Alias> getAlias(PublicationPK pubPK);
 
+  /**
+   * Gets, with a single request, all the locations of the specified publications, that is both
+   * their fathers and their aliases in other component instances.
+   * @param publicationIds the identifiers of the publications.
+   * @return the locations of each of the publications, indexed by publication identifier. The
+   * publications without any location aren't referenced by the returned map.
+   */
+  Map<String, List<Alias>> getAllAliases(Collection<String> publicationIds);
+
   List<Alias> setAlias(PublicationPK pubPK, List<Alias> alias);
 
   void addAlias(PublicationPK pubPK, List<Alias> alias);
@@ -39,8 +39,9 @@ import javax.inject.Inject;
 import javax.inject.Singleton;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Singleton
 public class SocialPublications implements SocialPublicationsInterface {
@@ -97,25 +98,30 @@ public class SocialPublications implements SocialPublicationsInterface {
             end);
 
     // Even if the data has been found by filtering on instanceIds that the user can access, it
-    // could exists more precise right rules to apply.
-    Iterator<SocialInformationPublication> socialPublicationIt = socialPublications.iterator();
-    while (socialPublicationIt.hasNext()) {
-      SocialInformationPublication socialPublication = socialPublicationIt.next();
-      String instanceId = socialPublication.getPublication().getComponentInstanceId();
-
-      if (!myId.equals(socialPublication.getAuthor()) && instanceId.startsWith("kmelia")) {
-
-        // On Kmelia application, if the user has not right access to the publication, then it is
-        // removed from the result
-
-        AccessController<PublicationPK> publicationAccessController = AccessControllerProvider
-            .getAccessController(PublicationAccessControl.class);
-        if (!publicationAccessController.isUserAuthorized(myId,
-            new PublicationPK(socialPublication.getPublication().getId(), instanceId))) {
-          socialPublicationIt.remove();
-        }
+    // could exists more precise right rules to apply: on Kmelia application, the publications of
+    // the others the user has not right access to are removed from the result. The rights are
+    // checked for all the publications at once.
+    List<PublicationPK> pksToCheck = new ArrayList<>();
+    for (SocialInformationPublication socialPublication : socialPublications) {
+      if (isRightCheckRequired(myId, socialPublication)) {
+        pksToCheck.add(socialPublication.getPublication().getPK());
       }
     }
+    if (!pksToCheck.isEmpty()) {
+      AccessController<PublicationPK> publicationAccessController =
+          AccessControllerProvider.getAccessController(PublicationAccessControl.class);
+      Set<PublicationPK> authorizedPks =
+          publicationAccessController.filterAuthorizedByUser(pksToCheck, myId)
+              .collect(Collectors.toSet());
+      socialPublications.removeIf(p -> isRightCheckRequired(myId, p) &&
+          !authorizedPks.contains(p.getPublication().getPK()));
+    }
     return (List) socialPublications;
   }
+
+  private static boolean isRightCheckRequired(String userId,
+      SocialInformationPublication socialPublication) {
+    return !userId.equals(socialPublication.getAuthor()) &&
+        socialPublication.getPublication().getComponentInstanceId().startsWith("kmelia");
+  }
 }
\ No newline at end of file
@@ -91,7 +91,7 @@ public abstract class AbstractI18NBean<T extends BeanTranslation>
   /**
    * Set the bean description
    */
-  public final void setDescription(String description) {
+  public void setDescription(String description) {
     this.description = description;
   }
 
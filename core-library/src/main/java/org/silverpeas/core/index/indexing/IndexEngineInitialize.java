@@ -23,10 +23,12 @@
  */
 package org.silverpeas.core.index.indexing;
 
+import org.silverpeas.core.index.indexing.model.IndexGeneration;
 import org.silverpeas.core.silvertrace.SilverTrace;
 import org.silverpeas.core.initialization.Initialization;
 import org.silverpeas.core.util.ResourceLocator;
 import org.silverpeas.core.util.StringUtil;
+import org.silverpeas.core.util.logging.SilverLogger;
 
 import java.io.File;
 
@@ -53,6 +55,12 @@ public class IndexEngineInitialize implements Initialization {
       String property = System.getProperty("java.io.tmpdir");
       removeLockFiles(new File(property));
       removeLockFiles(new File(indexPath));
+      removeLockFiles(new File(IndexFileManager.getNextGenerationIndexUpLoadPath()));
+    }
+    if (IndexGeneration.isResumable()) {
+      SilverLogger.getLogger(this)
+          .info("The build of a new generation of the indexes has been interrupted. " +
+              "It can be resumed from the reindexation administration page");
     }
   }
 
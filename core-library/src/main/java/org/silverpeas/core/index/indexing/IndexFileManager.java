@@ -32,6 +32,8 @@ import static java.io.File.separatorChar;
  */
 public class IndexFileManager {
 
+  private static final String NEXT_GENERATION_SUFFIX = "_next";
+
   private static String indexUpLoadPath = ResourceLocator.getGeneralSettingBundle()
       .getString("uploadsIndexPath");
 
@@ -49,8 +51,23 @@ public class IndexFileManager {
   }
 
   public static String getAbsoluteIndexPath(String componentId) {
+    return getAbsoluteIndexPath(getIndexUpLoadPath(), componentId);
+  }
+
+  /**
+   * Gets the path of the index of the given component in the next generation of the indexes,
+   * that is the one built beside the live indexes by a full reindexation.
+   *
+   * @param componentId the identifier of a component.
+   * @return the absolute path of the index of the component in the next generation.
+   */
+  public static String getNextGenerationAbsoluteIndexPath(String componentId) {
+    return getAbsoluteIndexPath(getNextGenerationIndexUpLoadPath(), componentId);
+  }
+
+  private static String getAbsoluteIndexPath(String uploadPath, String componentId) {
     final String componentPath = extractComponentPath(componentId);
-    return getIndexUpLoadPath() + componentPath + separatorChar + "index";
+    return uploadPath + componentPath + separatorChar + "index";
   }
 
   public static String extractComponentPath(final String componentId) {
@@ -78,4 +95,14 @@ public class IndexFileManager {
   public static String getIndexUpLoadPath() {
     return indexUpLoadPath + separatorChar;
   }
+
+  /**
+   * get the base directory of the next generation of the indexes, built beside the live one
+   * during a full reindexation.
+   *
+   * @return the path of the next generation of the indexes.
+   */
+  public static String getNextGenerationIndexUpLoadPath() {
+    return indexUpLoadPath + NEXT_GENERATION_SUFFIX + separatorChar;
+  }
 }
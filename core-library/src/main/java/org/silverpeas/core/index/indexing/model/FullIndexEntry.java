@@ -48,6 +48,8 @@ public class FullIndexEntry extends IndexEntry implements Serializable, Cloneabl
   private List<FileDescription> linkedFileList = null;
   private List<FieldDescription> fields = null;
   private Set<String> linkedFileIdsList = null;
+  private Set<String> principals = null;
+  private Set<String> nodeRights = null;
 
   public FullIndexEntry(String component, String objectType, String objectId) {
     super(component, objectType, objectId);
@@ -182,6 +184,47 @@ public class FullIndexEntry extends IndexEntry implements Serializable, Cloneabl
     return linkedFileIdsList;
   }
 
+  /**
+   * Restricts the access to this entry to the specified principal. Once restricted, the entry is
+   * found only by the users matching at least one of its principals.
+   * @param principal a principal token computed by {@link IndexPrincipals}.
+   */
+  public void addPrincipal(String principal) {
+    getPrincipals().add(principal);
+  }
+
+  /**
+   * Restricts the access to this entry to the users having a profile on the specified node of the
+   * component instance of this entry. Once restricted, the entry is found only by the users
+   * having a profile on at least one of its nodes.
+   * @param nodeId the identifier of a node with specific rights.
+   */
+  public void addNodeRights(String nodeId) {
+    getNodeRights().add(IndexManager.getNodeRightsToken(getComponent(), nodeId));
+  }
+
+  /**
+   * Gets the principals to which the access to this entry is restricted.
+   * @return a set of principal tokens. If empty, the access isn't restricted to some principals.
+   */
+  public Set<String> getPrincipals() {
+    if (principals == null) {
+      principals = new HashSet<>();
+    }
+    return principals;
+  }
+
+  /**
+   * Gets the nodes with specific rights to which the access to this entry is restricted.
+   * @return a set of node rights tokens. If empty, the access isn't restricted to some nodes.
+   */
+  public Set<String> getNodeRights() {
+    if (nodeRights == null) {
+      nodeRights = new HashSet<>();
+    }
+    return nodeRights;
+  }
+
   public List<FieldDescription> getFields() {
     if (fields == null) {
       fields = new ArrayList<>();
@@ -191,6 +234,10 @@ public class FullIndexEntry extends IndexEntry implements Serializable, Cloneabl
 
   @Override
   public FullIndexEntry clone() {
-    return (FullIndexEntry) super.clone();
+    FullIndexEntry clone = (FullIndexEntry) super.clone();
+    // the restrictions of the clone can differ from the ones of this entry
+    clone.principals = principals == null ? null : new HashSet<>(principals);
+    clone.nodeRights = nodeRights == null ? null : new HashSet<>(nodeRights);
+    return clone;
   }
 }
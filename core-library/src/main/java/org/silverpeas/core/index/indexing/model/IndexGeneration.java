@@ -0,0 +1,206 @@
+/*
+ * Copyright (C) 2000 - 2018 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.index.indexing.model;
+
+import org.apache.commons.io.FileUtils;
+import org.silverpeas.core.SilverpeasRuntimeException;
+import org.silverpeas.core.index.indexing.IndexFileManager;
+import org.silverpeas.core.util.Charsets;
+import org.silverpeas.core.util.logging.SilverLogger;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The next generation of the indexes. A full reindexation builds a new generation of the indexes
+ * beside the live one, so the search stays available all along the reindexation. Once the new
+ * generation is complete, it replaces atomically the live one.
+ * <p>
+ * The reindexation is split into units of work (a component instance, the spaces, the users,
+ * ...). Each time a unit of work is done, a checkpoint is recorded in the new generation as soon
+ * as all the index entries pushed by the unit are written. If the reindexation is interrupted,
+ * it can then be resumed from the last checkpoints instead of from zero, and the entries of the
+ * unfinished units that are already indexed with the same content aren't written again. The
+ * resumption is explicitly asked at the start of the build; otherwise the interrupted generation
+ * is discarded.
+ * </p>
+ * <p>
+ * While a new generation is built, the index entries that are pushed by the reindexation
+ * go only into the new generation whereas all the others go into both generations, so that no
+ * change is lost when the generations are swapped.
+ * </p>
+ */
+public class IndexGeneration {
+
+  private static final String CHECKPOINT_FILE = "reindexation.checkpoint";
+  private static final ThreadLocal<Boolean> FEEDING = ThreadLocal.withInitial(() -> false);
+  private static final Set<String> DONE = ConcurrentHashMap.newKeySet();
+  private static volatile boolean building = false;
+
+  /**
+   * Hidden constructor.
+   */
+  private IndexGeneration() {
+  }
+
+  /**
+   * Is a new generation of the indexes currently being built?
+   * @return true if a full reindexation is running, false otherwise.
+   */
+  public static boolean isBuilding() {
+    return building;
+  }
+
+  /**
+   * Is there a new generation of the indexes whose build has been interrupted and that can be
+   * resumed?
+   * @return true if an interrupted reindexation can be resumed, false otherwise.
+   */
+  public static boolean isResumable() {
+    return getCheckpointFile().exists();
+  }
+
+  /**
+   * Starts the build of a new generation of the indexes.
+   * @param resume true to resume the build of a previous generation that has been interrupted,
+   * false to discard it and to start a new generation from zero.
+   * @return the keys of the units of work already done by the interrupted build if it is
+   * resumed, an empty set otherwise.
+   */
+  public static synchronized Set<String> start(boolean resume) {
+    if (building) {
+      throw new IllegalStateException("A new generation of the indexes is already being built");
+    }
+    final File checkpoint = getCheckpointFile();
+    final Set<String> alreadyDone = new HashSet<>();
+    try {
+      if (resume && checkpoint.exists()) {
+        alreadyDone.addAll(Files.readAllLines(checkpoint.toPath(), Charsets.UTF_8));
+        alreadyDone.remove("");
+        SilverLogger.getLogger(IndexGeneration.class)
+            .info("resuming the build of the new index generation ({0} unit(s) already done)",
+                alreadyDone.size());
+      } else {
+        final File generation = checkpoint.getParentFile();
+        FileUtils.deleteQuietly(generation);
+        Files.createDirectories(generation.toPath());
+        Files.createFile(checkpoint.toPath());
+      }
+    } catch (IOException e) {
+      throw new SilverpeasRuntimeException(e);
+    }
+    DONE.clear();
+    DONE.addAll(alreadyDone);
+    building = true;
+    return Collections.unmodifiableSet(alreadyDone);
+  }
+
+  /**
+   * Is the specified unit of work already done in the new generation?
+   * @param unitKey the key of a unit of work.
+   * @return true if the unit of work is checkpointed, false otherwise.
+   */
+  public static boolean isDone(String unitKey) {
+    return DONE.contains(unitKey);
+  }
+
+  /**
+   * Executes the specified indexation in the current thread. All the index entries pushed by it
+   * will feed only the new generation of the indexes.
+   * @param indexation the indexation to execute.
+   */
+  public static void feed(Runnable indexation) {
+    final boolean feeding = FEEDING.get();
+    FEEDING.set(true);
+    try {
+      indexation.run();
+    } finally {
+      FEEDING.set(feeding);
+    }
+  }
+
+  /**
+   * Records the specified unit of work as done. The checkpoint is effectively recorded once all
+   * the index entries pushed before are written in the new generation.
+   * @param unitKey the key of the unit of work.
+   */
+  public static void checkpoint(String unitKey) {
+    IndexerTask.checkpointIndexGeneration(unitKey);
+  }
+
+  /**
+   * Completes the build of the new generation. Once all the index entries pushed before are
+   * written, the new generation replaces the live one.
+   */
+  public static void complete() {
+    IndexerTask.swapIndexGenerations();
+  }
+
+  /**
+   * Interrupts the build of the new generation. The new generation is kept with its checkpoints
+   * so that its build can be resumed later, but the index entries aren't pushed anymore into it.
+   * Nothing is done if no new generation is being built.
+   */
+  public static synchronized void interrupt() {
+    if (building) {
+      ended();
+      SilverLogger.getLogger(IndexGeneration.class)
+          .warn("the build of the new index generation is interrupted");
+    }
+  }
+
+  /**
+   * Is the current thread feeding the new generation of the indexes?
+   * @return true if the index entries pushed by the current thread come from the reindexation.
+   */
+  static boolean isFeedingThread() {
+    return FEEDING.get();
+  }
+
+  static void recordCheckpoint(String unitKey) {
+    try {
+      Files.write(getCheckpointFile().toPath(), (unitKey + "\n").getBytes(Charsets.UTF_8),
+          StandardOpenOption.APPEND, StandardOpenOption.SYNC);
+      DONE.add(unitKey);
+    } catch (IOException e) {
+      SilverLogger.getLogger(IndexGeneration.class)
+          .error("Cannot record the checkpoint of " + unitKey, e);
+    }
+  }
+
+  static void ended() {
+    building = false;
+    DONE.clear();
+  }
+
+  static File getCheckpointFile() {
+    return new File(IndexFileManager.getNextGenerationIndexUpLoadPath(), CHECKPOINT_FILE);
+  }
+}
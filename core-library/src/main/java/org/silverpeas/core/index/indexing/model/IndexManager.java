@@ -23,23 +23,32 @@
  */
 package org.silverpeas.core.index.indexing.model;
 
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.FileUtils;
 import org.apache.lucene.analysis.Analyzer;
 import org.apache.lucene.analysis.miscellaneous.LimitTokenCountAnalyzer;
 import org.apache.lucene.analysis.standard.StandardAnalyzer;
 import org.apache.lucene.document.Document;
 import org.apache.lucene.document.Field;
+import org.apache.lucene.document.SortedSetDocValuesField;
 import org.apache.lucene.document.StringField;
 import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.IndexWriterConfig;
 import org.apache.lucene.index.LogDocMergePolicy;
 import org.apache.lucene.index.Term;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
 import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.util.BytesRef;
 import org.silverpeas.core.SilverpeasRuntimeException;
 import org.silverpeas.core.i18n.I18NHelper;
 import org.silverpeas.core.index.indexing.IndexFileManager;
-import org.silverpeas.core.index.indexing.parser.Parser;
-import org.silverpeas.core.index.indexing.parser.ParserManager;
+import org.silverpeas.core.index.indexing.parser.TextExtractionService;
+import org.silverpeas.core.index.search.model.FacetCounts;
 import org.silverpeas.core.index.search.SearchEnginePropertiesManager;
 import org.silverpeas.core.util.ResourceLocator;
 import org.silverpeas.core.util.ServiceProvider;
@@ -51,18 +60,23 @@ import javax.inject.Inject;
 import javax.inject.Singleton;
 import java.io.File;
 import java.io.IOException;
-import java.io.Reader;
+import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
+import java.util.TreeSet;
 
 import static org.silverpeas.core.index.indexing.model.IndexProcessor.doRemoveAll;
 import static org.silverpeas.core.index.indexing.model.IndexProcessor.doFlush;
+import static org.silverpeas.core.index.indexing.model.IndexProcessor.doSwapGenerations;
 
 /**
  * An IndexManager manage all the web'activ's index. An IndexManager is NOT thread safe : to share
@@ -98,6 +112,11 @@ public class IndexManager {
   public static final String FILENAME = "filename";
   public static final String PATH = "path";
   public static final String ALIAS = "alias";
+  public static final String FINGERPRINT = "fingerprint";
+  public static final String FACET_PREFIX = "facet.";
+  public static final String PRINCIPALS = "principals";
+  public static final String NODE_RIGHTS = "nodeRights";
+  public static final String RESTRICTIONS = "restrictions";
 
   /**
    * Exhaustive list of indexation's operations Used by objects which must be indexed
@@ -108,6 +127,7 @@ public class IndexManager {
   public static final int READD = 2;
   private static final String ATTACHMENT_PREFIX = "Attachment";
   private static final int DEFAULT_MAX_FIELD_LENGTH = 10000;
+  private static final int MAX_FACET_VALUE_LENGTH = 256;
   private static final int DEFAULT_MERGE_FACTOR_VALUE = 10;
   /*
    * The lucene index engine parameters.
@@ -137,9 +157,10 @@ public class IndexManager {
   }
 
   private Map<String, IndexWriter> indexWriters = new LinkedHashMap<>();
+  private Map<String, Optional<IndexReader>> generationSnapshots = new HashMap<>();
 
   @Inject
-  private ParserManager parserManager;
+  private TextExtractionService textExtractionService;
 
   /**
    * The constructor takes no parameters and all the index engine parameters are taken from the
@@ -152,17 +173,62 @@ public class IndexManager {
     return ServiceProvider.getService(IndexManager.class);
   }
 
+  /**
+   * Gets the token under which are indexed the specific rights of the given node in the specified
+   * component instance. The token is computed in the same way at indexing time and at search
+   * time.
+   * @param componentId the unique identifier of a component instance.
+   * @param nodeId the identifier of the node on which the rights are defined.
+   * @return the token of the node rights.
+   */
+  public static String getNodeRightsToken(String componentId, String nodeId) {
+    return componentId + ":" + nodeId;
+  }
+
   /**
    * Add an entry index.
    *
    * @param indexEntry
    */
   void addIndexEntry(FullIndexEntry indexEntry) {
-    indexEntry.setServerName(serverName);
-    String indexPath = getIndexDirectoryPath(indexEntry);
-    IndexWriter writer = getIndexWriter(indexPath, indexEntry.getLang());
-    removeIndexEntry(writer, indexEntry.getPK());
-    index(writer, indexEntry);
+    addIndexEntry(indexEntry, false);
+  }
+
+  /**
+   * Add an entry index. While a new generation of the indexes is being built, the entry is
+   * written into the new generation and, if it doesn't come from the reindexation, into the live
+   * indexes too. An entry coming from the reindexation isn't written again if it is already in
+   * the new generation with the same fingerprint.
+   *
+   * @param indexEntry the entry to index.
+   * @param fromReindexation true if the entry is pushed by a full reindexation.
+   */
+  void addIndexEntry(FullIndexEntry indexEntry, boolean fromReindexation) {
+    try {
+      indexEntry.setServerName(serverName);
+      completeWithDocuments(indexEntry);
+      final String fingerprint = computeFingerprint(indexEntry);
+      final String component = indexEntry.getPK().getComponent();
+      final boolean building = IndexGeneration.isBuilding();
+      Document doc = null;
+      if (building) {
+        String nextPath = IndexFileManager.getNextGenerationAbsoluteIndexPath(component);
+        if (!fromReindexation || !isIndexedWith(nextPath, indexEntry.getPK(), fingerprint)) {
+          doc = makeDocument(indexEntry, fingerprint);
+          index(getIndexWriter(nextPath, indexEntry.getLang()), indexEntry.getPK(), doc);
+        }
+      }
+      if (!building || !fromReindexation) {
+        if (doc == null) {
+          doc = makeDocument(indexEntry, fingerprint);
+        }
+        IndexWriter writer = getIndexWriter(getIndexDirectoryPath(component), indexEntry.getLang());
+        removeIndexEntry(writer, indexEntry.getPK());
+        index(writer, indexEntry.getPK(), doc);
+      }
+    } catch (Exception e) {
+      SilverLogger.getLogger(this).error(e.getMessage(), e);
+    }
   }
 
   /**
@@ -211,10 +277,11 @@ public class IndexManager {
    * @param indexEntry
    */
   void removeIndexEntry(IndexEntryKey indexEntry) {
-    String indexPath = getIndexDirectoryPath(indexEntry);
-    IndexWriter writer = getIndexWriter(indexPath, "");
-    if (writer != null) {
-      removeIndexEntry(writer, indexEntry);
+    for (String indexPath : getIndexDirectoryPaths(indexEntry.getComponent())) {
+      IndexWriter writer = getIndexWriter(indexPath, "");
+      if (writer != null) {
+        removeIndexEntry(writer, indexEntry);
+      }
     }
   }
 
@@ -229,10 +296,11 @@ public class IndexManager {
   }
 
   void removeIndexEntries(String scope) {
-    String indexPath = getIndexDirectoryPath(scope);
-    IndexWriter writer = getIndexWriter(indexPath, "");
-    if (writer != null) {
-      removeIndexEntries(writer, scope);
+    for (String indexPath : getIndexDirectoryPaths(scope)) {
+      IndexWriter writer = getIndexWriter(indexPath, "");
+      if (writer != null) {
+        removeIndexEntries(writer, scope);
+      }
     }
   }
 
@@ -249,23 +317,104 @@ public class IndexManager {
   }
 
   /**
-   * Return the path to the directory where are stored the index for the given index entry.
+   * Records in the new generation of the indexes the specified unit of work of the reindexation
+   * as done. All the index entries pushed before are first committed.
    *
-   * @param indexEntry the index entry.
-   * @return the path to the directory where are stored the index for the given index entry.
+   * @param unitKey the key of the unit of work.
    */
-  private String getIndexDirectoryPath(IndexEntry indexEntry) {
-    return getIndexDirectoryPath(indexEntry.getPK());
+  void checkpointIndexGeneration(String unitKey) {
+    if (IndexGeneration.isBuilding()) {
+      flush();
+      IndexGeneration.recordCheckpoint(unitKey);
+    }
   }
 
   /**
-   * Return the path to the directory where are stored the index for the given index entry.
-   *
-   * @param indexEntry
-   * @return the path to the directory where are stored the index for the given index entry.
+   * Replaces the live indexes by the new generation of them. The previous generation is then
+   * deleted.
+   */
+  void swapIndexGenerations() {
+    if (!IndexGeneration.isBuilding()) {
+      return;
+    }
+    flush();
+    closeGenerationSnapshots();
+    final File liveRepository = Paths.get(IndexFileManager.getIndexUpLoadPath()).toFile();
+    final File previousRepository = Paths.get(liveRepository.getAbsolutePath() + "_" +
+        LocalDateTime.now().toString().replaceAll("[:']", "")).toFile();
+    doSwapGenerations(() -> {
+      final File nextRepository =
+          Paths.get(IndexFileManager.getNextGenerationIndexUpLoadPath()).toFile();
+      Files.deleteIfExists(IndexGeneration.getCheckpointFile().toPath());
+      if (liveRepository.exists() && !liveRepository.renameTo(previousRepository)) {
+        throw new SilverpeasRuntimeException("index repository folder can not be renamed");
+      }
+      if (!nextRepository.renameTo(liveRepository)) {
+        previousRepository.renameTo(liveRepository);
+        throw new SilverpeasRuntimeException(
+            "the new generation of the index repository can not be renamed");
+      }
+    });
+    IndexGeneration.ended();
+    FileUtils.deleteQuietly(previousRepository);
+  }
+
+  /**
+   * Gets the paths of the directories where are stored the index of the given component: the
+   * live one and, while a new generation is being built, the one of the new generation.
    */
-  private String getIndexDirectoryPath(IndexEntryKey indexEntry) {
-    return getIndexDirectoryPath(indexEntry.getComponent());
+  private List<String> getIndexDirectoryPaths(String component) {
+    List<String> paths = new ArrayList<>(2);
+    paths.add(getIndexDirectoryPath(component));
+    if (IndexGeneration.isBuilding()) {
+      paths.add(IndexFileManager.getNextGenerationAbsoluteIndexPath(component));
+    }
+    return paths;
+  }
+
+  /**
+   * Is the specified entry already in the index at the given path with the given fingerprint?
+   * The look up is performed on a snapshot of the index taken at its first look up.
+   */
+  private boolean isIndexedWith(String path, IndexEntryKey key, String fingerprint)
+      throws IOException {
+    final Optional<IndexReader> snapshot =
+        generationSnapshots.computeIfAbsent(path, this::openSnapshot);
+    if (!snapshot.isPresent()) {
+      return false;
+    }
+    final IndexReader reader = snapshot.get();
+    final TopDocs hits =
+        new IndexSearcher(reader).search(new TermQuery(new Term(KEY, key.toString())), 1);
+    if (hits.scoreDocs.length == 0) {
+      return false;
+    }
+    final Document doc =
+        reader.document(hits.scoreDocs[0].doc, Collections.singleton(FINGERPRINT));
+    return fingerprint.equals(doc.get(FINGERPRINT));
+  }
+
+  private Optional<IndexReader> openSnapshot(String path) {
+    try {
+      final FSDirectory directory = FSDirectory.open(Paths.get(path));
+      if (DirectoryReader.indexExists(directory)) {
+        return Optional.of(DirectoryReader.open(directory));
+      }
+    } catch (IOException e) {
+      SilverLogger.getLogger(this).warn(e);
+    }
+    return Optional.empty();
+  }
+
+  private void closeGenerationSnapshots() {
+    generationSnapshots.values().forEach(snapshot -> snapshot.ifPresent(reader -> {
+      try {
+        reader.close();
+      } catch (IOException e) {
+        SilverLogger.getLogger(this).warn(e);
+      }
+    }));
+    generationSnapshots.clear();
   }
 
   /**
@@ -293,22 +442,6 @@ public class IndexManager {
     return analyzer;
   }
 
-  /**
-   * Get the reader specific of the file described by the file description
-   *
-   * @param file
-   * @return the reader specific of the file described by the file description
-   */
-  private Reader getReader(FileDescription file) {
-    Reader reader = null;
-    Parser parser = parserManager.getParser(file.getFormat());
-
-    if (parser != null) {
-      reader = parser.getReader(file.getPath(), file.getEncoding());
-    }
-    return reader;
-  }
-
   /**
    *
    * Returns an IndexWriter to the index stored at the given path.The index directory and files are
@@ -342,28 +475,85 @@ public class IndexManager {
   }
 
   /**
-   * Method declaration
+   * Writes the given document into the index.
    *
-   * @param writer
-   * @param indexEntry
+   * @param writer the writer of the index.
+   * @param key the key of the index entry.
+   * @param doc the Lucene document of the index entry.
    */
-  private void index(IndexWriter writer, FullIndexEntry indexEntry) {
+  private void index(IndexWriter writer, IndexEntryKey key, Document doc) {
     try {
-      Term key = new Term(KEY, indexEntry.getPK().toString());
-      writer.updateDocument(key, makeDocument(indexEntry));
+      writer.updateDocument(new Term(KEY, key.toString()), doc);
     } catch (Exception e) {
       SilverLogger.getLogger(this).error(e.getMessage(), e);
     }
   }
 
+  /**
+   * Completes the given indexEntry with the files of the documents attached to the indexed
+   * object.
+   */
+  private void completeWithDocuments(FullIndexEntry indexEntry) {
+    if (StringUtil.isDefined(indexEntry.getObjectId())) {
+      ServiceProvider.getAllServices(DocumentIndexing.class)
+          .forEach(documentIndexing -> documentIndexing.updateIndexEntryWithDocuments(indexEntry));
+    }
+  }
+
+  /**
+   * Computes the fingerprint of the content of the given indexEntry. The files are taken into
+   * account by their path, their last modification date and their size.
+   */
+  private String computeFingerprint(FullIndexEntry indexEntry) {
+    final StringBuilder data = new StringBuilder(indexEntry.getPK().toString());
+    data.append('|').append(indexEntry.getCreationDate()).append('|')
+        .append(indexEntry.getCreationUser()).append('|')
+        .append(indexEntry.getLastModificationDate()).append('|')
+        .append(indexEntry.getLastModificationUser()).append('|')
+        .append(indexEntry.getStartDate()).append('|').append(indexEntry.getEndDate()).append('|')
+        .append(indexEntry.getFilename()).append('|').append(indexEntry.getThumbnail()).append('|')
+        .append(indexEntry.isAlias()).append('|').append(indexEntry.getPaths()).append('|')
+        .append(indexEntry.getLang()).append('|').append(indexEntry.getTitle());
+    Iterator<String> languages = indexEntry.getLanguages();
+    while (languages.hasNext()) {
+      String language = languages.next();
+      data.append('|').append(language).append(':').append(indexEntry.getTitle(language))
+          .append(':').append(indexEntry.getPreview(language)).append(':')
+          .append(indexEntry.getKeywords(language));
+    }
+    for (TextDescription text : indexEntry.getTextContentList()) {
+      if (text != null) {
+        data.append('|').append(text.getLang()).append(':').append(text.getContent());
+      }
+    }
+    for (FieldDescription field : indexEntry.getFields()) {
+      data.append('|').append(field.getFieldName()).append('_').append(field.getLang())
+          .append(':').append(field.getContent());
+    }
+    List<FileDescription> files = new ArrayList<>(indexEntry.getFileContentList());
+    files.addAll(indexEntry.getLinkedFileContentList());
+    for (FileDescription fileDescription : files) {
+      File file = new File(fileDescription.getPath());
+      data.append('|').append(fileDescription.getPath()).append(':')
+          .append(fileDescription.getLang()).append(':').append(file.lastModified()).append(':')
+          .append(file.length());
+    }
+    data.append('|').append(indexEntry.getLinkedFileIdsSet());
+    data.append('|').append(new TreeSet<>(indexEntry.getPrincipals())).append('|')
+        .append(new TreeSet<>(indexEntry.getNodeRights()));
+    return DigestUtils.md5Hex(data.toString());
+  }
+
   /**
    * Create a lucene Document object with the given indexEntry.
    */
-  private Document makeDocument(FullIndexEntry indexEntry) {
+  private Document makeDocument(FullIndexEntry indexEntry, String fingerprint) {
     Document doc = new Document();
     // fields creation
     doc.add(new StringField(KEY, indexEntry.getPK().toString(), Field.Store.YES));
+    doc.add(new StringField(FINGERPRINT, fingerprint, Field.Store.YES));
     doc.add(new StringField(SCOPE, indexEntry.getPK().getComponent(), Field.Store.YES));
+    setFacetFields(indexEntry, doc);
     setTitleField(indexEntry, doc);
     setPreviewAndKeyWordsField(indexEntry, doc);
     setCreationAndUpdateFields(indexEntry, doc);
@@ -372,15 +562,9 @@ public class IndexManager {
     setHeaderFields(indexEntry, doc);
     setContentFields(indexEntry, doc);
     setContentTextField(indexEntry, doc);
-
-    if (StringUtil.isDefined(indexEntry.getObjectId())) {
-      ServiceProvider.getAllServices(DocumentIndexing.class)
-          .stream()
-          .forEach(documentIndexing -> documentIndexing.updateIndexEntryWithDocuments(indexEntry));
-    }
-
     setFileRelativeFields(indexEntry, doc);
     setAdditionalFields(indexEntry, doc);
+    setRestrictionFields(indexEntry, doc);
 
     // Add server name inside Lucene doc
     doc.add(new StringField(SERVER_NAME, indexEntry.getServerName(), Field.Store.YES));
@@ -395,6 +579,26 @@ public class IndexManager {
     return doc;
   }
 
+  /**
+   * Sets the principals and the nodes with specific rights to which the access to the entry is
+   * restricted. The kinds of restriction applied to the entry are also indexed so that the
+   * entries that aren't restricted are found by any user.
+   */
+  private void setRestrictionFields(final FullIndexEntry indexEntry, final Document doc) {
+    if (!indexEntry.getPrincipals().isEmpty()) {
+      doc.add(new StringField(RESTRICTIONS, PRINCIPALS, Field.Store.NO));
+      for (String principal : indexEntry.getPrincipals()) {
+        doc.add(new StringField(PRINCIPALS, principal, Field.Store.NO));
+      }
+    }
+    if (!indexEntry.getNodeRights().isEmpty()) {
+      doc.add(new StringField(RESTRICTIONS, NODE_RIGHTS, Field.Store.NO));
+      for (String nodeRights : indexEntry.getNodeRights()) {
+        doc.add(new StringField(NODE_RIGHTS, nodeRights, Field.Store.NO));
+      }
+    }
+  }
+
   private void setAdditionalFields(final FullIndexEntry indexEntry, final Document doc) {
     List<FieldDescription> list3 = indexEntry.getFields();
     List<String> fieldsForFacets = new ArrayList<>(list3.size());
@@ -407,6 +611,7 @@ public class IndexManager {
             getFieldName())) {
           storeAction = Field.Store.YES;
           fieldsForFacets.add(fieldName);
+          addFacetValue(fieldName, field.getContent(), doc);
         } else {
           storeAction = Field.Store.NO;
         }
@@ -420,15 +625,32 @@ public class IndexManager {
     }
   }
 
-  private void setFileRelativeFields(final FullIndexEntry indexEntry, final Document doc) {
-    List<FileDescription> list2 = indexEntry.getFileContentList();
-    for (FileDescription f : list2) {
-      addFile(doc, f);
+  /**
+   * Sets the values of the facets that are common to all the index entries: the component
+   * instance, the author and the type of the indexed object. They are indexed as doc values so
+   * that the facets can be counted over all the matching entries at search time.
+   */
+  private void setFacetFields(final FullIndexEntry indexEntry, final Document doc) {
+    addFacetValue(FacetCounts.COMPONENT, indexEntry.getPK().getComponent(), doc);
+    addFacetValue(FacetCounts.AUTHOR, indexEntry.getCreationUser(), doc);
+    addFacetValue(FacetCounts.TYPE, indexEntry.getObjectType(), doc);
+  }
+
+  private void addFacetValue(final String dimension, final String value, final Document doc) {
+    if (StringUtil.isDefined(value)) {
+      String facetValue = value.length() > MAX_FACET_VALUE_LENGTH ?
+          value.substring(0, MAX_FACET_VALUE_LENGTH) : value;
+      doc.add(new SortedSetDocValuesField(FACET_PREFIX + dimension, new BytesRef(facetValue)));
     }
+  }
 
-    List<FileDescription> linkedFiles = indexEntry.getLinkedFileContentList();
-    for (FileDescription linkedFile : linkedFiles) {
-      addFile(doc, linkedFile);
+  private void setFileRelativeFields(final FullIndexEntry indexEntry, final Document doc) {
+    List<FileDescription> files = new ArrayList<>(indexEntry.getFileContentList());
+    files.addAll(indexEntry.getLinkedFileContentList());
+    // the text of all the files is extracted in parallel
+    files.forEach(textExtractionService::prefetch);
+    for (FileDescription file : files) {
+      addFile(doc, file);
     }
 
     Set<String> linkedFileIds = indexEntry.getLinkedFileIdsSet();
@@ -611,9 +833,9 @@ public class IndexManager {
       return;
     }
     try {
-      Reader reader = getReader(fileDescription);
-      if (reader != null) {
-        Field field = new Field(getFieldName(CONTENT, fileDescription.getLang()), reader,
+      String text = textExtractionService.extract(fileDescription);
+      if (!text.isEmpty()) {
+        Field field = new Field(getFieldName(CONTENT, fileDescription.getLang()), text,
             TextField.TYPE_NOT_STORED);
         doc.add(field);
       }
@@ -0,0 +1,69 @@
+/*
+ * Copyright (C) 2000 - 2018 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.index.indexing.model;
+
+/**
+ * The principals that can be allowed to access an index entry. An index entry restricted to some
+ * principals is found by a search only if the searching user is one of them, is in one of them
+ * (group) or plays one of them (role in a component instance).
+ * <p>
+ * This class provides the tokens under which the principals are indexed; they are computed in the
+ * same way at indexing time and at search time.
+ * </p>
+ */
+public final class IndexPrincipals {
+
+  private static final String SEPARATOR = ":";
+
+  private IndexPrincipals() {
+  }
+
+  /**
+   * Gets the token of the specified user.
+   * @param userId the unique identifier of a user.
+   * @return the principal token of the user.
+   */
+  public static String ofUser(String userId) {
+    return "user" + SEPARATOR + userId;
+  }
+
+  /**
+   * Gets the token of the specified group of users.
+   * @param groupId the unique identifier of a group.
+   * @return the principal token of the group.
+   */
+  public static String ofGroup(String groupId) {
+    return "group" + SEPARATOR + groupId;
+  }
+
+  /**
+   * Gets the token of the specified role in the given component instance.
+   * @param componentId the unique identifier of a component instance.
+   * @param role the name of a role in the component instance.
+   * @return the principal token of the role in the component instance.
+   */
+  public static String ofRole(String componentId, String role) {
+    return "role" + SEPARATOR + componentId + SEPARATOR + role;
+  }
+}
@@ -107,6 +107,22 @@ public class IndexProcessor {
     }
   }
 
+  static void doSwapGenerations(SwapGenerationsProcess swapGenerationsProcess) {
+    final long stamp = SEARCH_LOCK.writeLock();
+    final SilverLogger logger = SilverLogger.getLogger(IndexProcessor.class);
+    logger.debug("starting swap of the index generations");
+    try {
+      logger.debug("closing all index readers");
+      IndexReadersCache.closeAllIndexReaders();
+      logger.debug("swapping index generations");
+      swapGenerationsProcess.process();
+    } catch (IOException e) {
+      logger.error(e);
+    } finally {
+      SEARCH_LOCK.unlockWrite(stamp);
+    }
+  }
+
   private static void closeIndexReaders() {
     final SilverLogger logger = SilverLogger.getLogger(IndexProcessor.class);
     if (SEARCH_LOCK.getReadLockCount() == 0) {
@@ -152,4 +168,11 @@ public class IndexProcessor {
   public interface RemoveAllIndexesProcess {
     void process() throws IOException;
   }
+
+  /**
+   * A process replacing the live indexes by a new generation of them.
+   */
+  public interface SwapGenerationsProcess {
+    void process() throws IOException;
+  }
 }
@@ -23,6 +23,7 @@
  */
 package org.silverpeas.core.index.indexing.model;
 
+import org.silverpeas.core.index.indexing.parser.TextExtractionService;
 import org.silverpeas.core.thread.task.AbstractRequestTask;
 import org.silverpeas.core.thread.task.RequestTaskManager;
 
@@ -47,7 +48,12 @@ public class IndexerTask extends AbstractRequestTask<IndexerTask.IndexerProcessC
    * @param indexEntry the index entry ro process.
    */
   public static void addIndexEntry(FullIndexEntry indexEntry) {
-    RequestTaskManager.push(IndexerTask.class, new AddIndexEntryRequest(indexEntry));
+    // the text of the files is extracted while the request is waiting in the queue
+    final TextExtractionService textExtractionService = TextExtractionService.get();
+    indexEntry.getFileContentList().forEach(textExtractionService::prefetch);
+    indexEntry.getLinkedFileContentList().forEach(textExtractionService::prefetch);
+    RequestTaskManager.push(IndexerTask.class,
+        new AddIndexEntryRequest(indexEntry, IndexGeneration.isFeedingThread()));
   }
 
   /**
@@ -73,6 +79,21 @@ public class IndexerTask extends AbstractRequestTask<IndexerTask.IndexerProcessC
     RequestTaskManager.push(IndexerTask.class, new RemoveAllIndexEntriesRequest());
   }
 
+  /**
+   * Add a request 'checkpoint the new index generation'.
+   * @param unitKey the key of the unit of work of the reindexation that is done.
+   */
+  static void checkpointIndexGeneration(String unitKey) {
+    RequestTaskManager.push(IndexerTask.class, new CheckpointIndexGenerationRequest(unitKey));
+  }
+
+  /**
+   * Add a request 'swap the index generations'.
+   */
+  static void swapIndexGenerations() {
+    RequestTaskManager.push(IndexerTask.class, new SwapIndexGenerationsRequest());
+  }
+
   @Override
   protected int getRequestQueueLimit() {
     return QUEUE_LIMIT;
@@ -106,12 +127,15 @@ public class IndexerTask extends AbstractRequestTask<IndexerTask.IndexerProcessC
    */
   static class AddIndexEntryRequest implements AbstractRequestTask.Request<IndexerProcessContext> {
     private final FullIndexEntry indexEntry;
+    private final boolean fromReindexation;
 
     /**
      * @param indexEntry the index entry to process.
+     * @param fromReindexation true if the entry is pushed by a full reindexation.
      */
-    AddIndexEntryRequest(FullIndexEntry indexEntry) {
+    AddIndexEntryRequest(FullIndexEntry indexEntry, boolean fromReindexation) {
       this.indexEntry = indexEntry;
+      this.fromReindexation = fromReindexation;
     }
 
     /**
@@ -119,7 +143,7 @@ public class IndexerTask extends AbstractRequestTask<IndexerTask.IndexerProcessC
      */
     @Override
     public void process(IndexerProcessContext context) {
-      context.getIndexManager().addIndexEntry(indexEntry);
+      context.getIndexManager().addIndexEntry(indexEntry, fromReindexation);
     }
   }
 
@@ -183,4 +207,42 @@ public class IndexerTask extends AbstractRequestTask<IndexerTask.IndexerProcessC
       context.getIndexManager().removeAllIndexEntries();
     }
   }
+
+  /**
+   * A CheckpointIndexGenerationRequest records a unit of work of the reindexation as done.
+   */
+  static class CheckpointIndexGenerationRequest
+      implements AbstractRequestTask.Request<IndexerProcessContext> {
+    private final String unitKey;
+
+    /**
+     * @param unitKey the key of the unit of work.
+     */
+    CheckpointIndexGenerationRequest(String unitKey) {
+      this.unitKey = unitKey;
+    }
+
+    /**
+     * @param context process context.
+     */
+    @Override
+    public void process(IndexerProcessContext context) {
+      context.getIndexManager().checkpointIndexGeneration(unitKey);
+    }
+  }
+
+  /**
+   * A SwapIndexGenerationsRequest replaces the live indexes by the new generation of them.
+   */
+  static class SwapIndexGenerationsRequest
+      implements AbstractRequestTask.Request<IndexerProcessContext> {
+
+    /**
+     * @param context process context.
+     */
+    @Override
+    public void process(IndexerProcessContext context) {
+      context.getIndexManager().swapIndexGenerations();
+    }
+  }
 }
\ No newline at end of file
@@ -24,6 +24,8 @@
 package org.silverpeas.core.index.indexing.model;
 
 import org.apache.commons.io.FilenameUtils;
+import org.silverpeas.core.thread.ManagedThreadPool;
+import org.silverpeas.core.thread.ManagedThreadPoolException;
 import org.silverpeas.core.util.file.FileUtil;
 import org.silverpeas.core.util.logging.SilverLogger;
 
@@ -33,6 +35,10 @@ import java.nio.file.Path;
 import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.silverpeas.core.thread.ManagedThreadPool.ExecutionConfig.maxThreadPoolSizeOf;
 
 /**
  * An RepositoryIndexer allow to index files in a whole repository except the directories
@@ -41,9 +47,11 @@ public class RepositoryIndexer {
 
   private static final String ADD_ACTION = "add";
   private static final String REMOVE_ACTION = "remove";
+  private static final int DEFAULT_PARALLELISM = 4;
   private String spaceId = null;
   private String componentId = null;
-  private int count = 0;
+  private int parallelism = DEFAULT_PARALLELISM;
+  private final AtomicInteger count = new AtomicInteger(0);
 
   public RepositoryIndexer(String spaceId, String componentId) {
     this.spaceId = spaceId;
@@ -58,6 +66,15 @@ public class RepositoryIndexer {
     return componentId;
   }
 
+  /**
+   * Sets the maximum number of sub-directories of the repository that are walked in parallel.
+   * @param parallelism the number of sub-directories to walk concurrently. 1 to walk them
+   * sequentially.
+   */
+  public void setParallelism(final int parallelism) {
+    this.parallelism = Math.max(1, parallelism);
+  }
+
   public void addPath(Path path, String creatorId) {
     performPath(path, LocalDate.now(), creatorId, ADD_ACTION);
   }
@@ -71,34 +88,62 @@ public class RepositoryIndexer {
       // index directory
       indexDirectory(path, creationDate, creatorId, action);
       // index directory's content
-      processFileList(path, creationDate, creatorId, action);
+      processRootFileList(path, creationDate, creatorId, action);
     } else if (Files.exists(path)) {
       // index file
       indexFile(path.toFile(), creationDate, creatorId, action);
     }
   }
 
+  /**
+   * Covers the root directory. Its sub-directories are walked in parallel, each of them in
+   * its own managed thread.
+   */
+  private void processRootFileList(Path dir, LocalDate creationDate, String creatorId,
+      String action) {
+    final List<File> dirList = listDirectories(dir);
+    if (parallelism <= 1 || dirList.size() <= 1) {
+      processFileList(dir, creationDate, creatorId, action);
+      return;
+    }
+    for (File currentFile : listFiles(dir)) {
+      indexFile(currentFile, creationDate, creatorId, action);
+    }
+    // the indexation of a full reindexation must be propagated to the walking threads
+    final boolean reindexation = IndexGeneration.isFeedingThread();
+    final List<Runnable> walks = dirList.stream().map(currentDir -> (Runnable) () -> {
+      final Runnable walk = () -> {
+        final Path currentDirectoryPath = currentDir.toPath();
+        indexDirectory(currentDirectoryPath, creationDate, creatorId, action);
+        processFileList(currentDirectoryPath, creationDate, creatorId, action);
+      };
+      if (reindexation) {
+        IndexGeneration.feed(walk);
+      } else {
+        walk.run();
+      }
+    }).collect(Collectors.toList());
+    try {
+      ManagedThreadPool.getPool()
+          .invokeAndAwaitTermination(walks,
+              maxThreadPoolSizeOf(parallelism).withCategory("indexation"));
+    } catch (ManagedThreadPoolException e) {
+      SilverLogger.getLogger(this).error(e.getMessage(), e);
+    }
+  }
+
   /**
    * Recursive function which covers directories. For each file, the file is indexed.
    */
   private void processFileList(Path dir, LocalDate creationDate, String creatorId, String action) {
-    if (count % 10000 == 0) {
-      SilverLogger.getLogger(this).debug("# of indexed documents = {0}", count);
+    if (count.get() % 10000 == 0) {
+      SilverLogger.getLogger(this).debug("# of indexed documents = {0}", count.get());
     }
 
-    File[] dirs = dir.toFile().listFiles(DirectorySPFilter.getInstance());
-    File[] files = dir.toFile().listFiles(FileSPFilter.getInstance());
-
-    List<File> dirList = Arrays.asList(dirs != null ? dirs : new File[0]);
-    dirList.sort(FilenameComparator.comparator);
-
-    List<File> fileList = Arrays.asList(files != null ? files : new File[0]);
-    fileList.sort(FilenameComparator.comparator);
-
-    for (File currentFile : fileList) {
+    for (File currentFile : listFiles(dir)) {
       indexFile(currentFile, creationDate, creatorId, action);
     }
-    for (File currentDir : dirList) {
+    for (File currentDir : listDirectories(dir)) {
       final Path currentDirectoryPath = currentDir.toPath();
       indexDirectory(currentDirectoryPath, creationDate, creatorId, action);
       // recursive call to get the current object
@@ -106,6 +151,20 @@ public class RepositoryIndexer {
     }
   }
 
+  private List<File> listDirectories(Path dir) {
+    File[] dirs = dir.toFile().listFiles(DirectorySPFilter.getInstance());
+    List<File> dirList = Arrays.asList(dirs != null ? dirs : new File[0]);
+    dirList.sort(FilenameComparator.comparator);
+    return dirList;
+  }
+
+  private List<File> listFiles(Path dir) {
+    File[] files = dir.toFile().listFiles(FileSPFilter.getInstance());
+    List<File> fileList = Arrays.asList(files != null ? files : new File[0]);
+    fileList.sort(FilenameComparator.comparator);
+    return fileList;
+  }
+
   private void indexDirectory(Path directory, LocalDate creationDate, String creatorId,
       String action) {
     String unixDirectory = FilenameUtils.separatorsToUnix(directory.toString());
@@ -117,7 +176,7 @@ public class RepositoryIndexer {
       fullIndexEntry.setCreationDate(creationDate);
       fullIndexEntry.setCreationUser(creatorId);
       IndexEngineProxy.addIndexEntry(fullIndexEntry);
-      count++;
+      count.incrementAndGet();
     } else if (REMOVE_ACTION.equals(action)) {
       IndexEntryKey indexEntry = new IndexEntryKey(getComponentId(), "LinkedDir", unixDirectory);
       IndexEngineProxy.removeIndexEntry(indexEntry);
@@ -153,7 +212,7 @@ public class RepositoryIndexer {
         fullIndexEntry.addFileContent(unixFilePath, null, format, lang);
       }
       IndexEngineProxy.addIndexEntry(fullIndexEntry);
-      count++;
+      count.incrementAndGet();
     } else if (REMOVE_ACTION.equals(action)) {
       // Remove file from index
       IndexEntryKey indexEntry = new IndexEntryKey(getComponentId(), "LinkedFile", unixFilePath);
@@ -0,0 +1,89 @@
+/*
+ * Copyright (C) 2000 - 2018 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.index.indexing.parser;
+
+import java.io.File;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A cache of the text extracted from files. A text is identified by the path, the last
+ * modification date and the size of its file, so a file modified since its extraction never
+ * matches the cached text. The cache is bounded by the total number of cached characters and
+ * the least recently used texts are evicted first.
+ */
+class ExtractedTextCache {
+
+  private final Map<String, String> texts = new LinkedHashMap<>(256, 0.75f, true);
+  private final long maxChars;
+  private long chars = 0;
+
+  /**
+   * Constructs a new cache.
+   * @param maxChars the maximum number of characters the cache can hold. Zero or a negative
+   * value disables the cache.
+   */
+  ExtractedTextCache(final long maxChars) {
+    this.maxChars = maxChars;
+  }
+
+  /**
+   * Computes the key identifying the current content of the specified file.
+   * @param file a file.
+   * @return the key of the file content.
+   */
+  static String keyOf(final File file) {
+    return file.getPath() + '|' + file.lastModified() + '|' + file.length();
+  }
+
+  synchronized String get(final String key) {
+    return texts.get(key);
+  }
+
+  synchronized void put(final String key, final String text) {
+    if (text.length() > maxChars) {
+      return;
+    }
+    final String previous = texts.put(key, text);
+    if (previous != null) {
+      chars -= previous.length();
+    }
+    chars += text.length();
+    final Iterator<String> eldest = texts.values().iterator();
+    while (chars > maxChars && eldest.hasNext()) {
+      chars -= eldest.next().length();
+      eldest.remove();
+    }
+  }
+
+  synchronized void clear() {
+    texts.clear();
+    chars = 0;
+  }
+
+  synchronized int size() {
+    return texts.size();
+  }
+}
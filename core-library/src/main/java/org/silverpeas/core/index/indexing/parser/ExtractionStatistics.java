@@ -0,0 +1,119 @@
+/*
+ * Copyright (C) 2000 - 2018 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.index.indexing.parser;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Statistics about the extraction of the text of the files of a given MIME type.
+ */
+public class ExtractionStatistics {
+
+  private final String mimeType;
+  private final LongAdder extractions = new LongAdder();
+  private final LongAdder cacheHits = new LongAdder();
+  private final LongAdder failures = new LongAdder();
+  private final LongAdder timeouts = new LongAdder();
+  private final LongAdder totalNanos = new LongAdder();
+  private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+  ExtractionStatistics(final String mimeType) {
+    this.mimeType = mimeType;
+  }
+
+  void extracted(final long nanos) {
+    extractions.increment();
+    totalNanos.add(nanos);
+    maxNanos.accumulate(nanos);
+  }
+
+  void cacheHit() {
+    cacheHits.increment();
+  }
+
+  void failed() {
+    failures.increment();
+  }
+
+  void timedOut() {
+    timeouts.increment();
+  }
+
+  public String getMimeType() {
+    return mimeType;
+  }
+
+  /**
+   * @return the number of files actually parsed.
+   */
+  public long getExtractionCount() {
+    return extractions.sum();
+  }
+
+  /**
+   * @return the number of extractions served by the cache of extracted texts.
+   */
+  public long getCacheHitCount() {
+    return cacheHits.sum();
+  }
+
+  /**
+   * @return the number of files whose parsing failed.
+   */
+  public long getFailureCount() {
+    return failures.sum();
+  }
+
+  /**
+   * @return the number of files whose parsing exceeded the timeout.
+   */
+  public long getTimeoutCount() {
+    return timeouts.sum();
+  }
+
+  /**
+   * @return the mean duration in milliseconds of the parsing of a file.
+   */
+  public long getMeanDurationInMillis() {
+    final long count = extractions.sum();
+    return count == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(totalNanos.sum() / count);
+  }
+
+  /**
+   * @return the longest duration in milliseconds of the parsing of a file.
+   */
+  public long getMaxDurationInMillis() {
+    return TimeUnit.NANOSECONDS.toMillis(maxNanos.get());
+  }
+
+  @Override
+  public String toString() {
+    return mimeType + ": " + getExtractionCount() + " extraction(s) (mean " +
+        getMeanDurationInMillis() + " ms, max " + getMaxDurationInMillis() + " ms), " +
+        getCacheHitCount() + " cache hit(s), " + getFailureCount() + " failure(s), " +
+        getTimeoutCount() + " timeout(s)";
+  }
+}
@@ -23,6 +23,7 @@
  */
 package org.silverpeas.core.index.indexing.parser;
 
+import java.io.IOException;
 import java.io.Reader;
 
 /**
@@ -33,4 +34,30 @@ public interface Parser {
    * Returns a Reader giving only the text content of the file.
    */
   Reader getReader(String path, String encoding);
+
+  /**
+   * Returns the text content of the file truncated to the given maximum number of characters.
+   * By default, the text is read from the reader returned by {@link #getReader(String, String)}.
+   * @param path the path of the file to parse.
+   * @param encoding the encoding of the file.
+   * @param maxLength the maximum number of characters to return.
+   * @return the text content of the file.
+   * @throws IOException if the file cannot be parsed.
+   */
+  default String getText(String path, String encoding, int maxLength) throws IOException {
+    try (Reader reader = getReader(path, encoding)) {
+      if (reader == null) {
+        return "";
+      }
+      final StringBuilder text = new StringBuilder();
+      final char[] buffer = new char[8192];
+      int count;
+      while (text.length() < maxLength &&
+          (count = reader.read(buffer, 0, Math.min(buffer.length, maxLength - text.length()))) !=
+              -1) {
+        text.append(buffer, 0, count);
+      }
+      return text.toString();
+    }
+  }
 }
@@ -0,0 +1,421 @@
+/*
+ * Copyright (C) 2000 - 2018 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.index.indexing.parser;
+
+import org.silverpeas.core.index.indexing.model.FileDescription;
+import org.silverpeas.core.thread.ManagedThreadPool;
+import org.silverpeas.core.util.ResourceLocator;
+import org.silverpeas.core.util.ServiceProvider;
+import org.silverpeas.core.util.SettingBundle;
+import org.silverpeas.core.util.logging.SilverLogger;
+import org.silverpeas.core.util.metrics.MetricRegistry;
+
+import javax.annotation.PostConstruct;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.io.File;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.silverpeas.core.thread.ManagedThreadPool.ExecutionConfig.inCategory;
+
+/**
+ * Service in charge of extracting the text of the files to index.
+ * <p>
+ * The files are parsed by a bounded number of managed threads, so the text of the files of an
+ * index entry can be extracted in parallel and in advance, while the indexer is still processing
+ * the previous entries. The parsing of a file is limited both in time and in the number of
+ * extracted characters: a file whose parsing exceeds the timeout is indexed without its content
+ * and the thread parsing it is interrupted. The timeout runs from the start of the parsing and
+ * not from the submission of the file, so a file waiting for a free thread behind the other
+ * prefetched files is never indexed without its content just because of the queueing.
+ * </p>
+ * <p>
+ * A thread whose parsing timed out keeps its slot until the parser gives it back, so there are
+ * never more threads parsing files than the allowed maximum when the parsers honor the
+ * interruption. A parser which doesn't honor it cannot hold the slot forever though: once the
+ * timeout is elapsed a second time after the interruption, the slot is given to another thread
+ * and the stuck thread stops processing the queue as soon as its parser returns. In the same way,
+ * the slot of a thread which hasn't started within the timeout (its execution can be given up by
+ * the thread pool) is given to another thread; the late thread then does nothing.
+ * </p>
+ * <p>
+ * The extracted texts are cached and identified by the path, the last modification date and the
+ * size of the file, so the reindexing of an unchanged file doesn't parse it again.
+ * </p>
+ * <p>
+ * The statistics about the extraction are published per MIME type as the gauges
+ * <code>silverpeas.index.extraction</code> of the {@link MetricRegistry}.
+ * </p>
+ * <p>
+ * The service is configured with the following properties of the
+ * <code>org.silverpeas.index.indexing.IndexEngine</code> settings:
+ * <ul>
+ * <li><code>TimeOutParameter</code>: the maximum time in milliseconds to parse a file,</li>
+ * <li><code>extraction.maxThreads</code>: the maximum number of files parsed in parallel,</li>
+ * <li><code>extraction.maxTextLength</code>: the maximum number of characters to extract from a
+ * file,</li>
+ * <li><code>extraction.cache.maxChars</code>: the maximum number of characters kept in the cache
+ * of extracted texts (0 to disable the cache).</li>
+ * </ul>
+ * </p>
+ */
+@Singleton
+public class TextExtractionService {
+
+  private static final int DEFAULT_TIMEOUT = 30000;
+  private static final int DEFAULT_MAX_THREADS = 2;
+  private static final int DEFAULT_MAX_TEXT_LENGTH = 1000000;
+  private static final long DEFAULT_CACHE_MAX_CHARS = 16000000L;
+  private static final String EXTRACTION_METRIC = "silverpeas.index.extraction";
+
+  private final Map<String, Extraction> extractions = new ConcurrentHashMap<>();
+  private final Queue<Extraction> queue = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger workers = new AtomicInteger(0);
+  private final Set<Extraction> running = ConcurrentHashMap.newKeySet();
+  private final Set<Worker> pending = ConcurrentHashMap.newKeySet();
+  private final Map<String, ExtractionStatistics> statistics = new ConcurrentHashMap<>();
+
+  @Inject
+  private ParserManager parserManager;
+
+  private ExtractedTextCache cache;
+  private int timeout;
+  private int maxThreads;
+  private int maxTextLength;
+
+  protected TextExtractionService() {
+    // constructor to be used only by the IoD container
+  }
+
+  public static TextExtractionService get() {
+    return ServiceProvider.getService(TextExtractionService.class);
+  }
+
+  @PostConstruct
+  private void init() {
+    final SettingBundle settings =
+        ResourceLocator.getSettingBundle("org.silverpeas.index.indexing.IndexEngine");
+    timeout = settings.getInteger("TimeOutParameter", DEFAULT_TIMEOUT);
+    maxThreads = Math.max(1, settings.getInteger("extraction.maxThreads", DEFAULT_MAX_THREADS));
+    maxTextLength = settings.getInteger("extraction.maxTextLength", DEFAULT_MAX_TEXT_LENGTH);
+    cache = new ExtractedTextCache(
+        settings.getLong("extraction.cache.maxChars", DEFAULT_CACHE_MAX_CHARS));
+  }
+
+  /**
+   * Starts the extraction of the text of the specified file in background if it isn't already
+   * cached nor being extracted. It is just a hint to prepare the text for a later call of
+   * {@link #extract(FileDescription)}.
+   * @param file the description of the file.
+   */
+  public void prefetch(final FileDescription file) {
+    final File actualFile = toFile(file);
+    if (actualFile.isFile()) {
+      submit(file, ExtractedTextCache.keyOf(actualFile));
+    }
+  }
+
+  /**
+   * Gets the text content of the specified file. If the text isn't yet extracted, the caller
+   * waits for the end of the extraction, at most the configured timeout.
+   * @param file the description of the file.
+   * @return the text content of the file or an empty text if the file doesn't exist or if it
+   * cannot be parsed in the allowed time.
+   */
+  public String extract(final FileDescription file) {
+    final File actualFile = toFile(file);
+    if (!actualFile.isFile()) {
+      return "";
+    }
+    final String key = ExtractedTextCache.keyOf(actualFile);
+    final String cachedText = cache.get(key);
+    if (cachedText != null) {
+      getStatistics(file.getFormat()).cacheHit();
+      return cachedText;
+    }
+    final Extraction extraction = submit(file, key);
+    try {
+      final long start = awaitStart(extraction);
+      final long parsingTime = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+      return extraction.text.get(Math.max(0, timeout - parsingTime), TimeUnit.MILLISECONDS);
+    } catch (TimeoutException e) {
+      extractions.remove(key, extraction);
+      extraction.abandon();
+      getStatistics(file.getFormat()).timedOut();
+      SilverLogger.getLogger(this)
+          .warn("Parsing of file {0} aborted after {1} ms", file.getPath(), timeout);
+    } catch (ExecutionException e) {
+      SilverLogger.getLogger(this).error("Failed to parse file " + file.getPath(), e.getCause());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    return "";
+  }
+
+  /**
+   * Clears the cache of the extracted texts.
+   */
+  public void clearCache() {
+    cache.clear();
+  }
+
+  private Extraction submit(final FileDescription file, final String key) {
+    final String cachedText = cache.get(key);
+    if (cachedText != null) {
+      return new Extraction(key, file).done(cachedText);
+    }
+    final Extraction extraction = extractions.computeIfAbsent(key, k -> {
+      final Extraction newExtraction = new Extraction(key, file);
+      queue.offer(newExtraction);
+      return newExtraction;
+    });
+    dispatch();
+    return extraction;
+  }
+
+  /**
+   * Waits for the specified extraction to be started, whatever the time it spends in the queue.
+   * While waiting, the slots held by the parsers stuck beyond their timeout are taken back so
+   * the extraction cannot wait forever for a free thread.
+   * @param extraction the extraction to wait for.
+   * @return the time in nanoseconds at which the parsing started.
+   */
+  private long awaitStart(final Extraction extraction)
+      throws InterruptedException, ExecutionException {
+    while (true) {
+      try {
+        return extraction.started.get(timeout, TimeUnit.MILLISECONDS);
+      } catch (TimeoutException e) {
+        dispatch();
+      }
+    }
+  }
+
+  private File toFile(final FileDescription file) {
+    return new File(file.getPath());
+  }
+
+  private ExtractionStatistics getStatistics(final String mimeType) {
+    final String type = mimeType == null ? "unknown" : mimeType;
+    return statistics.computeIfAbsent(type, t -> {
+      final ExtractionStatistics stats = new ExtractionStatistics(t);
+      final MetricRegistry metrics = MetricRegistry.get();
+      metrics.gauge(EXTRACTION_METRIC, stats::getExtractionCount, "mime", t, "kind", "parsed");
+      metrics.gauge(EXTRACTION_METRIC, stats::getCacheHitCount, "mime", t, "kind", "cached");
+      metrics.gauge(EXTRACTION_METRIC, stats::getFailureCount, "mime", t, "kind", "failed");
+      metrics.gauge(EXTRACTION_METRIC, stats::getTimeoutCount, "mime", t, "kind", "timedOut");
+      return stats;
+    });
+  }
+
+  private void dispatch() {
+    running.stream().filter(e -> e.takeBackSlot(timeout)).forEach(e -> {
+      workers.decrementAndGet();
+      SilverLogger.getLogger(this)
+          .warn("The parser of file {0} doesn't honor its interruption: its slot is given back",
+              e.file.getPath());
+    });
+    pending.stream().filter(w -> w.giveUp(timeout)).forEach(w -> {
+      workers.decrementAndGet();
+      SilverLogger.getLogger(this)
+          .warn("A text extraction thread hasn't started in {0} ms: its slot is given back",
+              timeout);
+    });
+    int count;
+    while (!queue.isEmpty() && (count = workers.get()) < maxThreads) {
+      if (workers.compareAndSet(count, count + 1)) {
+        final Worker worker = new Worker();
+        pending.add(worker);
+        try {
+          ManagedThreadPool.getPool().invoke(inCategory("indexation"), worker);
+        } catch (RuntimeException e) {
+          if (worker.giveUp(0)) {
+            workers.decrementAndGet();
+          }
+          throw e;
+        }
+      }
+    }
+  }
+
+  private void releaseWorker() {
+    workers.decrementAndGet();
+    dispatch();
+  }
+
+  private void work() {
+    boolean slotHeld = true;
+    Extraction extraction;
+    try {
+      while (slotHeld && (extraction = queue.poll()) != null) {
+        slotHeld = extraction.run();
+      }
+    } finally {
+      // the slot is given back only once the thread doesn't parse anymore, even if an extraction
+      // was abandoned in the meantime, unless the slot was already taken back from a stuck parser
+      if (slotHeld) {
+        releaseWorker();
+      }
+    }
+  }
+
+  /**
+   * A thread processing the queue of extractions in a slot reserved at its submission. The slot
+   * is taken back if the thread isn't started in time.
+   */
+  private class Worker implements Runnable {
+    private final long submitTime = System.nanoTime();
+    private final AtomicBoolean claimed = new AtomicBoolean(false);
+
+    @Override
+    public void run() {
+      if (claimed.compareAndSet(false, true)) {
+        pending.remove(this);
+        work();
+      }
+    }
+
+    /**
+     * Gives up this worker if it hasn't started the specified delay after its submission.
+     * @param delay a delay in milliseconds.
+     * @return true if the worker has been given up by this call, false otherwise.
+     */
+    boolean giveUp(final long delay) {
+      if (System.nanoTime() - submitTime < TimeUnit.MILLISECONDS.toNanos(delay) ||
+          !claimed.compareAndSet(false, true)) {
+        return false;
+      }
+      pending.remove(this);
+      return true;
+    }
+  }
+
+  /**
+   * The extraction of the text of a given file.
+   */
+  private class Extraction {
+    private final String key;
+    private final FileDescription file;
+    private final CompletableFuture<String> text = new CompletableFuture<>();
+    private final CompletableFuture<Long> started = new CompletableFuture<>();
+    private Thread runner;
+    private boolean abandoned = false;
+    private long abandonTime;
+    private boolean slotTakenBack = false;
+
+    Extraction(final String key, final FileDescription file) {
+      this.key = key;
+      this.file = file;
+    }
+
+    /**
+     * Sets this extraction as done with the specified text, without any parsing.
+     * @param content the text of the file.
+     * @return itself.
+     */
+    Extraction done(final String content) {
+      started.complete(System.nanoTime());
+      text.complete(content);
+      return this;
+    }
+
+    /**
+     * Runs the extraction, unless it has been already abandoned.
+     * @return false if the slot of the current thread has been taken back while the parsing was
+     * stuck, true otherwise.
+     */
+    boolean run() {
+      synchronized (this) {
+        if (abandoned) {
+          return true;
+        }
+        runner = Thread.currentThread();
+        running.add(this);
+      }
+      final ExtractionStatistics stats = getStatistics(file.getFormat());
+      final long start = System.nanoTime();
+      started.complete(start);
+      try {
+        final Parser parser = parserManager.getParser(file.getFormat());
+        final String content =
+            parser == null ? "" : parser.getText(file.getPath(), file.getEncoding(), maxTextLength);
+        stats.extracted(System.nanoTime() - start);
+        cache.put(key, content);
+        text.complete(content);
+      } catch (Exception e) {
+        stats.failed();
+        text.completeExceptionally(e);
+      } finally {
+        extractions.remove(key, this);
+      }
+      synchronized (this) {
+        runner = null;
+        running.remove(this);
+        if (abandoned) {
+          // clears the interrupted status set by the abandon
+          Thread.interrupted();
+        }
+        return !slotTakenBack;
+      }
+    }
+
+    /**
+     * Abandons this extraction. If it is running, the thread parsing the file is interrupted.
+     */
+    synchronized void abandon() {
+      abandoned = true;
+      abandonTime = System.nanoTime();
+      text.complete("");
+      if (runner != null) {
+        runner.interrupt();
+      }
+    }
+
+    /**
+     * Takes back the slot of the thread running this extraction if its parser is still running
+     * the specified delay after it was interrupted.
+     * @param delay a delay in milliseconds.
+     * @return true if the slot has been taken back by this call, false otherwise.
+     */
+    synchronized boolean takeBackSlot(final long delay) {
+      if (runner == null || !abandoned || slotTakenBack ||
+          System.nanoTime() - abandonTime <= TimeUnit.MILLISECONDS.toNanos(delay)) {
+        return false;
+      }
+      slotTakenBack = true;
+      running.remove(this);
+      return true;
+    }
+  }
+}
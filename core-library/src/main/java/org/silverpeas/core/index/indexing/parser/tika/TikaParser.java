@@ -24,6 +24,9 @@
 package org.silverpeas.core.index.indexing.parser.tika;
 
 import org.apache.tika.Tika;
+import org.apache.tika.exception.TikaException;
+import org.apache.tika.io.TikaInputStream;
+import org.apache.tika.metadata.Metadata;
 import org.silverpeas.core.index.indexing.parser.DefaultParser;
 import org.silverpeas.core.index.indexing.parser.Parser;
 import org.silverpeas.core.util.logging.SilverLogger;
@@ -32,8 +35,10 @@ import javax.annotation.PostConstruct;
 import javax.inject.Named;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.Reader;
 import java.io.StringReader;
+import java.nio.file.Paths;
 
 @Named("tikaParser")
 @DefaultParser
@@ -55,4 +60,19 @@ public class TikaParser implements Parser {
     }
     return new StringReader("");
   }
+
+  /**
+   * The file is parsed directly in the caller's thread, contrary to the reader returned by
+   * {@link #getReader(String, String)} for which the parsing is performed in a background thread.
+   */
+  @Override
+  public String getText(final String path, final String encoding, final int maxLength)
+      throws IOException {
+    final Metadata metadata = new Metadata();
+    try (InputStream input = TikaInputStream.get(Paths.get(path), metadata)) {
+      return tika.parseToString(input, metadata, maxLength);
+    } catch (TikaException e) {
+      throw new IOException(e);
+    }
+  }
 }
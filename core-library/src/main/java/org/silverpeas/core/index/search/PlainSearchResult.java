@@ -46,6 +46,7 @@
    */
   package org.silverpeas.core.index.search;
 
+import org.silverpeas.core.index.search.model.FacetCounts;
 import org.silverpeas.core.index.search.model.MatchingIndexEntry;
 
 import java.io.Serializable;
@@ -57,10 +58,17 @@ import java.util.List;
 public class PlainSearchResult implements Serializable {
   private List<String> spellingWords;
   private List<MatchingIndexEntry> entries;
+  private FacetCounts facetCounts;
 
   public PlainSearchResult(List<String> spellingWords, List<MatchingIndexEntry> entries) {
+    this(spellingWords, entries, new FacetCounts());
+  }
+
+  public PlainSearchResult(List<String> spellingWords, List<MatchingIndexEntry> entries,
+      FacetCounts facetCounts) {
     this.spellingWords = spellingWords;
     this.entries = entries;
+    this.facetCounts = facetCounts;
   }
 
   public List<MatchingIndexEntry> getEntries() {
@@ -70,4 +78,12 @@ public class PlainSearchResult implements Serializable {
   public List<String> getSpellingWords() {
     return spellingWords;
   }
+
+  /**
+   * Gets the counts of the facet values over all the index entries matching the query.
+   * @return the facet counts.
+   */
+  public FacetCounts getFacetCounts() {
+    return facetCounts;
+  }
 }
@@ -27,6 +27,7 @@ import java.util.Set;
 
 import org.silverpeas.core.index.search.model.ParseException;
 import org.silverpeas.core.index.search.model.QueryDescription;
+import org.silverpeas.core.index.search.model.SearchPage;
 
 /**
  * A SearchEngine search the web'activ index and give access to the retrieved index entries.
@@ -40,6 +41,17 @@ public interface SearchEngine {
    */
   PlainSearchResult search(QueryDescription query) throws ParseException;
 
+  /**
+   * Search the index for a page of the required documents. The first page is fetched without any
+   * cursor and the next ones with the cursor of the previous page.
+   * @param query the search query.
+   * @param cursor the cursor of the previous page or null for the first page.
+   * @param pageSize the maximum number of documents in the page.
+   * @return the page of the documents the searching user can access.
+   * @throws ParseException if the query cannot be parsed or if the cursor has expired.
+   */
+  SearchPage search(QueryDescription query, String cursor, int pageSize) throws ParseException;
+
   /**
    * gets a list of suggestion from a partial String
    * @param keywordFragment string to execute the search
@@ -28,11 +28,13 @@ import org.silverpeas.core.admin.service.Administration;
 import org.silverpeas.core.admin.user.UserIndexation;
 import org.silverpeas.core.admin.user.model.User;
 import org.silverpeas.core.index.search.model.DidYouMeanSearcher;
+import org.silverpeas.core.index.search.model.FacetCounts;
 import org.silverpeas.core.index.search.model.IndexSearcher;
 import org.silverpeas.core.index.search.model.MatchingIndexEntry;
 import org.silverpeas.core.index.search.model.ParseException;
 import org.silverpeas.core.index.search.model.QueryDescription;
 import org.silverpeas.core.index.search.model.SearchCompletion;
+import org.silverpeas.core.index.search.model.SearchPage;
 import org.silverpeas.core.security.authorization.ComponentAuthorization;
 import org.silverpeas.core.util.ResourceLocator;
 import org.silverpeas.core.util.SettingBundle;
@@ -89,7 +91,9 @@ public class SimpleSearchEngine implements SearchEngine {
   @Override
   public PlainSearchResult search(QueryDescription query) throws ParseException {
     try {
-      List<MatchingIndexEntry> results = Arrays.asList(indexSearcher.search(query));
+      // the facets are counted by the search over all the matching entries the user can access
+      FacetCounts facetCounts = new FacetCounts();
+      List<MatchingIndexEntry> results = Arrays.asList(indexSearcher.search(query, facetCounts));
       // filter results to checkout specific rights
       results = filterMatchingIndexEntries(results, query.getSearchingUser());
       @SuppressWarnings("unchecked") Set<String> spellingWords = Collections.emptySet();
@@ -100,12 +104,30 @@ public class SimpleSearchEngine implements SearchEngine {
           Collections.addAll(spellingWords, suggestions);
         }
       }
-      return new PlainSearchResult(new ArrayList<>(spellingWords), results);
+      return new PlainSearchResult(new ArrayList<>(spellingWords), results, facetCounts);
     } catch (IOException ioex) {
       throw new ParseException("SimpleSearchEngine.search", ioex);
     }
   }
 
+  /**
+   * Search the index for a page of the required documents. The documents the searching user
+   * cannot access are removed from the page, so the page can contain less documents than the
+   * page size.
+   * @param query the search query.
+   * @param cursor the cursor of the previous page or null for the first page.
+   * @param pageSize the maximum number of documents in the page.
+   * @return the page of results.
+   */
+  @Override
+  public SearchPage search(QueryDescription query, String cursor, int pageSize)
+      throws ParseException {
+    SearchPage page = indexSearcher.search(query, cursor, pageSize);
+    List<MatchingIndexEntry> results =
+        filterMatchingIndexEntries(page.getEntries(), query.getSearchingUser());
+    return new SearchPage(results, page.getTotalHits(), page.getNextCursor());
+  }
+
   /**
    * check if the results score is low enough to suggest spelling words
    * @return true if the max results score is under the defined threshold
@@ -130,6 +152,11 @@ public class SimpleSearchEngine implements SearchEngine {
     return completion.getSuggestions(keywordFragment);
   }
 
+  /**
+   * Filters the matching entries the user cannot access. The entries restricted to some
+   * principals or to some nodes with specific rights are already pruned by the search itself; only
+   * the rules specific to the components remain to be checked here.
+   */
   private List<MatchingIndexEntry> filterMatchingIndexEntries(
       List<MatchingIndexEntry> matchingIndexEntries, String userId) {
     if (matchingIndexEntries == null || matchingIndexEntries.isEmpty()) {
@@ -0,0 +1,91 @@
+/*
+ * Copyright (C) 2000 - 2018 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.index.search.model;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The counts of the values of the facets over all the index entries matching a query. A facet is
+ * identified by its dimension: the component instance, the author, the type of the indexed
+ * object or the name of a form field.
+ * <p>
+ * The facets are counted in the search itself, over the whole match set and not only over the
+ * returned entries. As the query carries the rights of the searching user (the searched
+ * component instances and the nodes with specific rights), the entries the user cannot access
+ * aren't counted.
+ * </p>
+ */
+public class FacetCounts implements Serializable {
+  private static final long serialVersionUID = -4310523128419023217L;
+
+  public static final String COMPONENT = "component";
+  public static final String AUTHOR = "author";
+  public static final String TYPE = "type";
+
+  private final Map<String, Map<String, Integer>> counts = new HashMap<>();
+
+  /**
+   * Gets the dimensions of the facets for which there is at least one value.
+   * @return a set of facet dimensions.
+   */
+  public Set<String> getDimensions() {
+    return Collections.unmodifiableSet(counts.keySet());
+  }
+
+  /**
+   * Gets the count of the matching index entries per value of the specified facet dimension.
+   * The values are sorted by decreasing count.
+   * @param dimension the dimension of a facet.
+   * @return a map of the count of each value of the facet. Empty if the facet has no value.
+   */
+  public Map<String, Integer> getCounts(String dimension) {
+    final Map<String, Integer> valueCounts = counts.get(dimension);
+    if (valueCounts == null) {
+      return Collections.emptyMap();
+    }
+    final Map<String, Integer> sorted = new LinkedHashMap<>(valueCounts.size());
+    valueCounts.entrySet()
+        .stream()
+        .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+        .forEach(e -> sorted.put(e.getKey(), e.getValue()));
+    return sorted;
+  }
+
+  /**
+   * Is there no facet value?
+   * @return true if no facet value was counted.
+   */
+  public boolean isEmpty() {
+    return counts.isEmpty();
+  }
+
+  void add(String dimension, String value, int count) {
+    counts.computeIfAbsent(dimension, d -> new HashMap<>()).merge(value, count, Integer::sum);
+  }
+}
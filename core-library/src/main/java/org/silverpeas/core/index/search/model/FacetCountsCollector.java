@@ -0,0 +1,118 @@
+/*
+ * Copyright (C) 2000 - 2018 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.index.search.model;
+
+import org.apache.lucene.index.DocValues;
+import org.apache.lucene.index.DocValuesType;
+import org.apache.lucene.index.FieldInfo;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.SortedSetDocValues;
+import org.apache.lucene.search.SimpleCollector;
+import org.silverpeas.core.index.indexing.model.IndexManager;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A collector of the counts of the facet values over all the documents matching a query. The
+ * facet values are read from the sorted set doc values whose field name starts with
+ * {@link IndexManager#FACET_PREFIX}. The values are counted by ordinal for each index segment and
+ * the ordinals are resolved only once the segment is done.
+ */
+class FacetCountsCollector extends SimpleCollector {
+
+  private final FacetCounts facetCounts;
+  private final List<SegmentFacet> segmentFacets = new ArrayList<>();
+
+  /**
+   * Constructs a new collector of facet counts.
+   * @param facetCounts the facet counts to fill.
+   */
+  FacetCountsCollector(final FacetCounts facetCounts) {
+    this.facetCounts = facetCounts;
+  }
+
+  @Override
+  protected void doSetNextReader(final LeafReaderContext context) throws IOException {
+    resolveSegmentCounts();
+    for (FieldInfo fieldInfo : context.reader().getFieldInfos()) {
+      if (fieldInfo.getDocValuesType() == DocValuesType.SORTED_SET &&
+          fieldInfo.name.startsWith(IndexManager.FACET_PREFIX)) {
+        final SortedSetDocValues values = DocValues.getSortedSet(context.reader(), fieldInfo.name);
+        segmentFacets.add(
+            new SegmentFacet(fieldInfo.name.substring(IndexManager.FACET_PREFIX.length()), values));
+      }
+    }
+  }
+
+  @Override
+  public void collect(final int doc) throws IOException {
+    for (SegmentFacet facet : segmentFacets) {
+      if (facet.values.advanceExact(doc)) {
+        long ord;
+        while ((ord = facet.values.nextOrd()) != SortedSetDocValues.NO_MORE_ORDS) {
+          facet.counts[(int) ord]++;
+        }
+      }
+    }
+  }
+
+  @Override
+  public boolean needsScores() {
+    return false;
+  }
+
+  /**
+   * Completes the facet counts with the values counted in the last collected index segment.
+   * @throws IOException if the facet values cannot be read from the index.
+   */
+  void finish() throws IOException {
+    resolveSegmentCounts();
+  }
+
+  private void resolveSegmentCounts() throws IOException {
+    for (SegmentFacet facet : segmentFacets) {
+      for (int ord = 0; ord < facet.counts.length; ord++) {
+        if (facet.counts[ord] > 0) {
+          facetCounts.add(facet.dimension, facet.values.lookupOrd(ord).utf8ToString(),
+              facet.counts[ord]);
+        }
+      }
+    }
+    segmentFacets.clear();
+  }
+
+  private static class SegmentFacet {
+    private final String dimension;
+    private final SortedSetDocValues values;
+    private final int[] counts;
+
+    SegmentFacet(final String dimension, final SortedSetDocValues values) {
+      this.dimension = dimension;
+      this.values = values;
+      this.counts = new int[(int) values.getValueCount()];
+    }
+  }
+}
@@ -45,6 +45,8 @@ import org.silverpeas.core.util.ServiceProvider;
 import org.silverpeas.core.util.SettingBundle;
 import org.silverpeas.core.util.StringUtil;
 import org.silverpeas.core.util.logging.SilverLogger;
+import org.silverpeas.core.util.metrics.MetricRegistry;
+import org.silverpeas.core.util.metrics.Timer;
 
 import javax.annotation.PostConstruct;
 import javax.inject.Inject;
@@ -54,6 +56,7 @@ import java.io.IOException;
 import java.text.MessageFormat;
 import java.time.LocalDate;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -70,6 +73,11 @@ public class IndexSearcher {
   private static final String INDEX_SEARCH_ERROR = "Index search failure";
   private static final int DEFAULT_MAX_RESULT = 100;
   private static final int DEFAULT_FIELDHEADER_BOOST = 3;
+  private static final String SEARCH_METRIC = "silverpeas.index.search";
+  private static final Timer SEARCH_TIMER =
+      MetricRegistry.get().timer(SEARCH_METRIC, "kind", "full");
+  private static final Timer PAGE_SEARCH_TIMER =
+      MetricRegistry.get().timer(SEARCH_METRIC, "kind", "page");
 
   private QueryParser.Operator defaultOperator;
 
@@ -156,6 +164,21 @@ public class IndexSearcher {
    */
   public MatchingIndexEntry[] search(QueryDescription query)
       throws org.silverpeas.core.index.search.model.ParseException {
+    return search(query, null);
+  }
+
+  /**
+   * Search the documents of the given component's set. All entries found whose startDate is not
+   * reached or whose endDate is passed are pruned from the results set. The values of the facets
+   * are counted in the same search pass over all the matching entries, and not only over the
+   * returned ones.
+   * @param query the query.
+   * @param facetCounts the facet counts to fill. If null, the facets aren't counted.
+   * @return an array of index entries.
+   * @throws org.silverpeas.core.index.search.model.ParseException on parse error
+   */
+  public MatchingIndexEntry[] search(QueryDescription query, FacetCounts facetCounts)
+      throws org.silverpeas.core.index.search.model.ParseException {
     return doSearch(() -> {
       long startTime = System.nanoTime();
       List<MatchingIndexEntry> results;
@@ -163,26 +186,16 @@ public class IndexSearcher {
       org.apache.lucene.search.IndexSearcher searcher = getSearcher(query);
 
       try {
-        BooleanQuery.Builder booleanQueryBuilder = new BooleanQuery.Builder();
-        BooleanQuery.Builder rangeClausesBuilder = new BooleanQuery.Builder();
-        rangeClausesBuilder.add(getVisibilityStartQuery(), BooleanClause.Occur.MUST);
-        rangeClausesBuilder.add(getVisibilityEndQuery(), BooleanClause.Occur.MUST);
-        // filtering on searched scopes
-        booleanQueryBuilder.add(getScopeQuery(query), BooleanClause.Occur.FILTER);
-
-        parseQuery(query, booleanQueryBuilder, rangeClausesBuilder);
-
-        // date range clauses are passed in the filter to optimize search performances
-        // but the query cannot be empty : if so, then pass date range in the query
-        BooleanQuery booleanQuery = booleanQueryBuilder.build();
-        BooleanQuery rangeClauses = rangeClausesBuilder.build();
+        Query luceneQuery = buildQuery(query);
         TopDocs topDocs;
-        if (booleanQuery.clauses().isEmpty()) {
-          topDocs = searcher.search(rangeClauses, maxNumberResult);
+        if (facetCounts == null) {
+          topDocs = searcher.search(luceneQuery, maxNumberResult);
         } else {
-          booleanQueryBuilder.add(rangeClauses, BooleanClause.Occur.FILTER);
-          booleanQuery = booleanQueryBuilder.build();
-          topDocs = searcher.search(booleanQuery, maxNumberResult);
+          TopScoreDocCollector topCollector = TopScoreDocCollector.create(maxNumberResult);
+          FacetCountsCollector facetCollector = new FacetCountsCollector(facetCounts);
+          searcher.search(luceneQuery, MultiCollector.wrap(topCollector, facetCollector));
+          facetCollector.finish();
+          topDocs = topCollector.topDocs();
         }
 
         results = makeList(topDocs, query, searcher);
@@ -191,6 +204,7 @@ public class IndexSearcher {
         results = new ArrayList<>();
       }
       long endTime = System.nanoTime();
+      SEARCH_TIMER.record(endTime - startTime, TimeUnit.NANOSECONDS);
 
       SilverLogger.getLogger(this).debug(
           () -> MessageFormat.format(" search duration in {0}ms", (endTime - startTime) / 1000000));
@@ -198,6 +212,102 @@ public class IndexSearcher {
     }, () -> new MatchingIndexEntry[0]);
   }
 
+  /**
+   * Search a page of the documents of the given component's set. The first page is fetched
+   * without any cursor; the next ones are fetched with the cursor of the previous page. All the
+   * pages of a search are computed from the same point in time of the indexes, and the stored
+   * fields are loaded only for the entries of the fetched page.
+   * @param query the query.
+   * @param cursor the cursor of the previous page or null to fetch the first page.
+   * @param pageSize the maximum number of entries in the page.
+   * @return the page of matching index entries.
+   * @throws org.silverpeas.core.index.search.model.ParseException on parse error, if the
+   * cursor has expired or if it was got for another query or by another user.
+   */
+  public SearchPage search(QueryDescription query, String cursor, int pageSize)
+      throws org.silverpeas.core.index.search.model.ParseException {
+    final long start = PAGE_SEARCH_TIMER.start();
+    try {
+      return searchPage(query, cursor, pageSize);
+    } finally {
+      PAGE_SEARCH_TIMER.stop(start);
+    }
+  }
+
+  private SearchPage searchPage(QueryDescription query, String cursor, int pageSize)
+      throws org.silverpeas.core.index.search.model.ParseException {
+    return doSearch(() -> {
+      final SearchLeases.SearchLease lease;
+      if (StringUtil.isDefined(cursor)) {
+        lease = SearchLeases.take(cursor, query);
+        if (lease == null) {
+          throw new ParseException(
+              "The search cursor " + cursor + " has expired or it doesn't match the query");
+        }
+      } else {
+        lease = SearchLeases.lease(getReaders(query), buildQuery(query), query);
+      }
+      boolean released = false;
+      try {
+        final org.apache.lucene.search.IndexSearcher searcher =
+            new org.apache.lucene.search.IndexSearcher(
+                new MultiReader(lease.getReaders().toArray(new IndexReader[0])));
+        final TopDocs topDocs = searcher.searchAfter(lease.getAfter(), lease.getQuery(), pageSize);
+        final List<MatchingIndexEntry> entries = new ArrayList<>(topDocs.scoreDocs.length);
+        for (ScoreDoc scoreDoc : topDocs.scoreDocs) {
+          entries.add(createMatchingIndexEntry(scoreDoc, lease.getRequestedLanguage(), searcher));
+        }
+        String nextCursor = null;
+        if (lease.consume(topDocs.scoreDocs.length, topDocs.totalHits)) {
+          nextCursor =
+              SearchLeases.register(lease, topDocs.scoreDocs[topDocs.scoreDocs.length - 1]);
+        } else {
+          SearchLeases.release(lease);
+          released = true;
+        }
+        return new SearchPage(entries, topDocs.totalHits, nextCursor);
+      } catch (IOException ioe) {
+        SilverLogger.getLogger(this).error("Index file corrupted", ioe);
+        if (!released) {
+          SearchLeases.release(lease);
+        }
+        return SearchPage.empty();
+      }
+    }, SearchPage::empty);
+  }
+
+  private Query buildQuery(final QueryDescription query) throws ParseException {
+    BooleanQuery.Builder booleanQueryBuilder = new BooleanQuery.Builder();
+    BooleanQuery.Builder rangeClausesBuilder = new BooleanQuery.Builder();
+    rangeClausesBuilder.add(getVisibilityStartQuery(), BooleanClause.Occur.MUST);
+    rangeClausesBuilder.add(getVisibilityEndQuery(), BooleanClause.Occur.MUST);
+    // filtering on searched scopes
+    booleanQueryBuilder.add(getScopeQuery(query), BooleanClause.Occur.FILTER);
+    // filtering on the principals and on the nodes with specific rights the user can access
+    if (StringUtil.isDefined(query.getSearchingUser())) {
+      booleanQueryBuilder.add(
+          new SearchPrincipals(query.getSearchingUser(), query.getWhereToSearch()).getFilter(),
+          BooleanClause.Occur.FILTER);
+      final SearchNodeRights nodeRights =
+          new SearchNodeRights(query.getSearchingUser(), query.getWhereToSearch());
+      if (nodeRights.isFiltering()) {
+        booleanQueryBuilder.add(nodeRights.getFilter(), BooleanClause.Occur.FILTER);
+      }
+    }
+
+    parseQuery(query, booleanQueryBuilder, rangeClausesBuilder);
+
+    // date range clauses are passed in the filter to optimize search performances
+    // but the query cannot be empty : if so, then pass date range in the query
+    BooleanQuery booleanQuery = booleanQueryBuilder.build();
+    BooleanQuery rangeClauses = rangeClausesBuilder.build();
+    if (booleanQuery.clauses().isEmpty()) {
+      return rangeClauses;
+    }
+    booleanQueryBuilder.add(rangeClauses, BooleanClause.Occur.FILTER);
+    return booleanQueryBuilder.build();
+  }
+
   private void parseQuery(final QueryDescription query,
       final BooleanQuery.Builder booleanQueryBuilder,
       final BooleanQuery.Builder rangeClausesBuilder) throws ParseException {
@@ -480,6 +590,19 @@ public class IndexSearcher {
    */
   private org.apache.lucene.search.IndexSearcher getSearcher(QueryDescription query)
       throws ParseException {
+    List<IndexReader> readers = getReaders(query);
+    try {
+      return new org.apache.lucene.search.IndexSearcher(
+          new MultiReader(readers.toArray(new IndexReader[0])));
+    } catch (IOException ioe) {
+      throw new org.silverpeas.core.index.search.model.ParseException(INDEX_SEARCH_ERROR, ioe);
+    }
+  }
+
+  /**
+   * Return the readers of the indexes matching the (space, component) pair set of the query.
+   */
+  private List<IndexReader> getReaders(QueryDescription query) {
     Set<String> indexPathSet = getIndexPathSet(query.getWhereToSearch());
     List<IndexReader> readers = new ArrayList<>();
     for (String path : indexPathSet) {
@@ -498,12 +621,7 @@ public class IndexSearcher {
         readers.add(searcher);
       }
     }
-    try {
-      return new org.apache.lucene.search.IndexSearcher(
-          new MultiReader(readers.toArray(new IndexReader[0])));
-    } catch (IOException ioe) {
-      throw new org.silverpeas.core.index.search.model.ParseException(INDEX_SEARCH_ERROR, ioe);
-    }
+    return readers;
   }
 
   private String getExternalComponentPath(ExternalComponent extComp) {
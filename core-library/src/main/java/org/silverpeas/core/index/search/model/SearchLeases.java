@@ -0,0 +1,227 @@
+/*
+ * Copyright (C) 2000 - 2018 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.index.search.model;
+
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.silverpeas.core.index.indexing.model.FieldDescription;
+import org.silverpeas.core.util.logging.SilverLogger;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The leases of the index readers on which a paginated search is performed. A lease keeps the
+ * index readers opened for a short time after a page is fetched, so that the next page is
+ * computed from the same point in time of the indexes. The index readers are released once the
+ * last page is fetched or once the lease has expired.
+ * <p>
+ * A lease is bound to the query and to the user for which it was taken: the cursor of a page
+ * cannot be used to fetch the next page of another query or by another user.
+ * </p>
+ */
+class SearchLeases {
+
+  private static final long TIME_TO_LIVE = TimeUnit.MINUTES.toMillis(2);
+  private static final int MAX_LEASES = 500;
+  private static final Map<String, SearchLease> LEASES = new ConcurrentHashMap<>();
+
+  /**
+   * Hidden constructor.
+   */
+  private SearchLeases() {
+  }
+
+  /**
+   * Leases the specified index readers for the search of the given query. The readers are
+   * retained until the lease is released.
+   * @param readers the index readers on which the query is executed.
+   * @param query the Lucene query.
+   * @param description the description of the query from which the Lucene query was built.
+   * @return the lease.
+   */
+  static SearchLease lease(final List<IndexReader> readers, final Query query,
+      final QueryDescription description) {
+    purge();
+    readers.forEach(IndexReader::incRef);
+    return new SearchLease(readers, query, description);
+  }
+
+  /**
+   * Takes the lease registered for the given cursor. The lease is unregistered and must be
+   * either registered again for the next page or released.
+   * @param cursor the cursor of a page.
+   * @param description the description of the query for which the next page is fetched.
+   * @return the lease or null if the cursor is unknown, expired, or if it was got for another
+   * query or by another user. In the latter case, the lease is left untouched.
+   */
+  static SearchLease take(final String cursor, final QueryDescription description) {
+    purge();
+    final SearchLease lease = LEASES.get(cursor);
+    if (lease == null || !lease.isFor(description) || !LEASES.remove(cursor, lease)) {
+      return null;
+    }
+    return lease;
+  }
+
+  /**
+   * Registers the lease for the fetch of the page starting after the given hit.
+   * @param lease the lease.
+   * @param after the last hit of the fetched page.
+   * @return the cursor of the next page.
+   */
+  static String register(final SearchLease lease, final ScoreDoc after) {
+    lease.after = after;
+    lease.expiry = System.currentTimeMillis() + TIME_TO_LIVE;
+    final String cursor = UUID.randomUUID().toString();
+    LEASES.put(cursor, lease);
+    return cursor;
+  }
+
+  /**
+   * Releases the specified lease: the index readers are no more retained by it.
+   * @param lease the lease to release.
+   */
+  static void release(final SearchLease lease) {
+    for (IndexReader reader : lease.readers) {
+      try {
+        reader.decRef();
+      } catch (IOException e) {
+        SilverLogger.getLogger(SearchLeases.class).warn(e);
+      }
+    }
+  }
+
+  private static void purge() {
+    final long now = System.currentTimeMillis();
+    for (Map.Entry<String, SearchLease> entry : LEASES.entrySet()) {
+      final SearchLease lease = entry.getValue();
+      // a lease can be taken concurrently, so it is released only by the thread removing it
+      if ((lease.expiry < now || LEASES.size() > MAX_LEASES) &&
+          LEASES.remove(entry.getKey(), lease)) {
+        release(lease);
+      }
+    }
+  }
+
+  /**
+   * Computes the signature of the specified query description, that is a text made up of all
+   * the criteria from which a Lucene query is built.
+   * @param description the description of a query.
+   * @return the signature of the query.
+   */
+  static String signatureOf(final QueryDescription description) {
+    final StringJoiner signature = new StringJoiner("\n");
+    signature.add(String.valueOf(description.getQuery()))
+        .add(new TreeSet<>(description.getWhereToSearch()).toString())
+        .add(String.valueOf(description.getRequestedLanguage()))
+        .add(String.valueOf(description.getRequestedAuthor()))
+        .add(String.valueOf(description.getRequestedCreatedAfter()))
+        .add(String.valueOf(description.getRequestedCreatedBefore()))
+        .add(String.valueOf(description.getRequestedUpdatedAfter()))
+        .add(String.valueOf(description.getRequestedUpdatedBefore()))
+        .add(String.valueOf(description.getXmlTitle()))
+        .add(String.valueOf(description.getRequestedFolder()))
+        .add(String.valueOf(description.getTaxonomyPosition()))
+        .add(String.valueOf(description.isSearchBySpace()))
+        .add(String.valueOf(description.isSearchByComponentType()));
+    if (description.getMultiFieldQuery() != null) {
+      for (FieldDescription field : description.getMultiFieldQuery()) {
+        signature.add(field.getFieldName())
+            .add(String.valueOf(field.getContent()))
+            .add(String.valueOf(field.getLang()))
+            .add(String.valueOf(field.getStartDate()))
+            .add(String.valueOf(field.getEndDate()));
+      }
+    }
+    return signature.toString();
+  }
+
+  /**
+   * A lease of index readers for a given query.
+   */
+  static class SearchLease {
+    private final List<IndexReader> readers;
+    private final Query query;
+    private final String requestedLanguage;
+    private final String owner;
+    private final String signature;
+    private ScoreDoc after;
+    private long consumedHits = 0;
+    private long expiry;
+
+    private SearchLease(final List<IndexReader> readers, final Query query,
+        final QueryDescription description) {
+      this.readers = readers;
+      this.query = query;
+      this.requestedLanguage = description.getRequestedLanguage();
+      this.owner = String.valueOf(description.getSearchingUser());
+      this.signature = signatureOf(description);
+    }
+
+    /**
+     * Is this lease taken for the specified query by the same user?
+     * @param description the description of a query.
+     * @return true if the query and the searching user are the ones of this lease.
+     */
+    boolean isFor(final QueryDescription description) {
+      return owner.equals(String.valueOf(description.getSearchingUser())) &&
+          signature.equals(signatureOf(description));
+    }
+
+    /**
+     * Accounts the hits of a fetched page.
+     * @param pageHits the number of hits in the fetched page.
+     * @param totalHits the total number of hits matching the query.
+     * @return true if there are hits left after the fetched page, false otherwise.
+     */
+    boolean consume(final int pageHits, final long totalHits) {
+      consumedHits += pageHits;
+      return pageHits > 0 && consumedHits < totalHits;
+    }
+
+    List<IndexReader> getReaders() {
+      return readers;
+    }
+
+    Query getQuery() {
+      return query;
+    }
+
+    String getRequestedLanguage() {
+      return requestedLanguage;
+    }
+
+    ScoreDoc getAfter() {
+      return after;
+    }
+  }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright (C) 2000 - 2018 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.index.search.model;
+
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.TermInSetQuery;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.util.BytesRef;
+import org.silverpeas.core.admin.ObjectType;
+import org.silverpeas.core.admin.service.OrganizationController;
+import org.silverpeas.core.index.indexing.model.IndexManager;
+import org.silverpeas.core.security.authorization.ComponentAccessControl;
+import org.silverpeas.core.util.ServiceProvider;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * The nodes with specific rights on which a searching user has a profile in the scopes of a
+ * search. They are used to filter out the index entries that are restricted to other nodes, so
+ * that the matching entries the user cannot access are pruned by the search itself and not
+ * afterwards. The node rights are taken into account only in the component instances in which the
+ * rights on topics are enabled.
+ * @see org.silverpeas.core.index.indexing.model.FullIndexEntry#addNodeRights(String)
+ */
+class SearchNodeRights {
+
+  private final List<BytesRef> nodeRights = new ArrayList<>();
+  private final List<BytesRef> scopesWithoutNodeRights = new ArrayList<>();
+  private boolean anyScopeWithNodeRights = false;
+
+  /**
+   * Computes the nodes with specific rights on which the specified user has a profile in the given
+   * scopes.
+   * @param userId the unique identifier of the searching user.
+   * @param scopes the scopes of the search.
+   */
+  SearchNodeRights(final String userId, final Collection<String> scopes) {
+    final OrganizationController controller = OrganizationController.get();
+    final ComponentAccessControl componentAccessControl =
+        ServiceProvider.getService(ComponentAccessControl.class);
+    for (String scope : scopes) {
+      if (controller.getComponentInstance(scope).isPresent() &&
+          componentAccessControl.isRightOnTopicsEnabled(scope)) {
+        anyScopeWithNodeRights = true;
+        for (Integer nodeId : controller.getUserObjectProfiles(userId, scope, ObjectType.NODE)
+            .keySet()) {
+          nodeRights.add(new BytesRef(IndexManager.getNodeRightsToken(scope, nodeId.toString())));
+        }
+      } else {
+        scopesWithoutNodeRights.add(new BytesRef(scope));
+      }
+    }
+  }
+
+  /**
+   * Is there any scope of the search in which the entries can be restricted to some nodes? If
+   * not, no entry has to be filtered out.
+   * @return true if the filter has to be applied, false otherwise.
+   */
+  boolean isFiltering() {
+    return anyScopeWithNodeRights;
+  }
+
+  /**
+   * Gets the query filtering out the index entries that are restricted to other nodes than the
+   * ones on which the user has a profile.
+   * @return a query to use as a filter.
+   */
+  Query getFilter() {
+    final BooleanQuery.Builder builder = new BooleanQuery.Builder();
+    builder.add(new BooleanQuery.Builder().add(new MatchAllDocsQuery(), BooleanClause.Occur.FILTER)
+        .add(new TermQuery(new Term(IndexManager.RESTRICTIONS, IndexManager.NODE_RIGHTS)),
+            BooleanClause.Occur.MUST_NOT)
+        .build(), BooleanClause.Occur.SHOULD);
+    if (!nodeRights.isEmpty()) {
+      builder.add(new TermInSetQuery(IndexManager.NODE_RIGHTS, nodeRights),
+          BooleanClause.Occur.SHOULD);
+    }
+    if (!scopesWithoutNodeRights.isEmpty()) {
+      builder.add(new TermInSetQuery(IndexManager.SCOPE, scopesWithoutNodeRights),
+          BooleanClause.Occur.SHOULD);
+    }
+    return builder.build();
+  }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright (C) 2000 - 2018 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.index.search.model;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A page of the index entries matching a query. The next page is fetched with the cursor of
+ * this page; the cursor is valid only for a short time after the page has been fetched.
+ */
+public class SearchPage implements Serializable {
+  private static final long serialVersionUID = 2863904115626375441L;
+
+  private final List<MatchingIndexEntry> entries;
+  private final long totalHits;
+  private final String nextCursor;
+
+  /**
+   * Constructs a new page of matching index entries.
+   * @param entries the entries of the page.
+   * @param totalHits the total number of entries matching the query.
+   * @param nextCursor the cursor of the next page or null if there is no next page.
+   */
+  public SearchPage(final List<MatchingIndexEntry> entries, final long totalHits,
+      final String nextCursor) {
+    this.entries = entries;
+    this.totalHits = totalHits;
+    this.nextCursor = nextCursor;
+  }
+
+  /**
+   * Gets an empty page.
+   * @return a page without any entry and without next page.
+   */
+  public static SearchPage empty() {
+    return new SearchPage(Collections.emptyList(), 0, null);
+  }
+
+  /**
+   * Gets the index entries of this page.
+   * @return a list of matching index entries ordered by decreasing score.
+   */
+  public List<MatchingIndexEntry> getEntries() {
+    return Collections.unmodifiableList(entries);
+  }
+
+  /**
+   * Gets the total number of index entries matching the query.
+   * @return the number of hits.
+   */
+  public long getTotalHits() {
+    return totalHits;
+  }
+
+  /**
+   * Gets the cursor from which the next page can be fetched.
+   * @return the cursor of the next page or null if this page is the last one.
+   */
+  public String getNextCursor() {
+    return nextCursor;
+  }
+
+  /**
+   * Is there a page after this one?
+   * @return true if the next page can be fetched, false otherwise.
+   */
+  public boolean hasNext() {
+    return nextCursor != null;
+  }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright (C) 2000 - 2018 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.index.search.model;
+
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.TermInSetQuery;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.util.BytesRef;
+import org.silverpeas.core.admin.service.OrganizationController;
+import org.silverpeas.core.index.indexing.model.IndexManager;
+import org.silverpeas.core.index.indexing.model.IndexPrincipals;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * The principals of a searching user in the scopes of a search: the user, the groups of the user
+ * and the roles of the user in the searched component instances. They are used to filter out the
+ * index entries that are restricted to other principals, so that the matching entries the user
+ * cannot access are pruned by the search itself and not afterwards.
+ * @see org.silverpeas.core.index.indexing.model.FullIndexEntry#addPrincipal(String)
+ */
+class SearchPrincipals {
+
+  private final List<BytesRef> principals = new ArrayList<>();
+
+  /**
+   * Computes the principals of the specified user in the given scopes.
+   * @param userId the unique identifier of the searching user.
+   * @param scopes the scopes of the search.
+   */
+  SearchPrincipals(final String userId, final Collection<String> scopes) {
+    final OrganizationController controller = OrganizationController.get();
+    principals.add(new BytesRef(IndexPrincipals.ofUser(userId)));
+    for (String groupId : controller.getAllGroupIdsOfUser(userId)) {
+      principals.add(new BytesRef(IndexPrincipals.ofGroup(groupId)));
+    }
+    for (String scope : scopes) {
+      if (controller.getComponentInstance(scope).isPresent()) {
+        for (String role : controller.getUserProfiles(userId, scope)) {
+          principals.add(new BytesRef(IndexPrincipals.ofRole(scope, role)));
+        }
+      }
+    }
+  }
+
+  /**
+   * Gets the query filtering out the index entries that are restricted to other principals than
+   * the ones of the user.
+   * @return a query to use as a filter.
+   */
+  Query getFilter() {
+    return new BooleanQuery.Builder()
+        .add(new BooleanQuery.Builder().add(new MatchAllDocsQuery(), BooleanClause.Occur.FILTER)
+            .add(new TermQuery(new Term(IndexManager.RESTRICTIONS, IndexManager.PRINCIPALS)),
+                BooleanClause.Occur.MUST_NOT)
+            .build(), BooleanClause.Occur.SHOULD)
+        .add(new TermInSetQuery(IndexManager.PRINCIPALS, principals), BooleanClause.Occur.SHOULD)
+        .build();
+  }
+}
@@ -23,18 +23,22 @@
  */
 package org.silverpeas.core.node.dao;
 
+import org.silverpeas.core.admin.service.cache.CacheInvalidation;
+import org.silverpeas.core.admin.service.cache.CacheInvalidationBus;
 import org.silverpeas.core.i18n.I18NHelper;
 import org.silverpeas.core.node.model.NodeDetail;
 import org.silverpeas.core.node.model.NodeI18NDetail;
 import org.silverpeas.core.node.model.NodePK;
 import org.silverpeas.core.node.model.NodePath;
 import org.silverpeas.core.node.model.NodeRuntimeException;
+import org.silverpeas.core.persistence.Transaction;
 import org.silverpeas.core.persistence.jdbc.DBUtil;
 import org.silverpeas.core.persistence.jdbc.sql.JdbcSqlQuery;
 import org.silverpeas.core.util.DateUtil;
 import org.silverpeas.core.util.StringUtil;
 import org.silverpeas.core.util.logging.SilverLogger;
 
+import javax.annotation.PostConstruct;
 import javax.ejb.NoSuchEntityException;
 import javax.inject.Singleton;
 import java.sql.Connection;
@@ -87,6 +91,17 @@ public class NodeDAO {
 
   }
 
+  @PostConstruct
+  private void subscribeToInvalidations() {
+    CacheInvalidationBus.get().subscribe(invalidation -> {
+      if (invalidation.getScope() == CacheInvalidation.Scope.NODE_TREE) {
+        allTrees.remove(invalidation.getId());
+      } else if (invalidation.getScope() == CacheInvalidation.Scope.ALL) {
+        allTrees.clear();
+      }
+    });
+  }
+
   /**
    * Deletes all nodes linked to the component instance represented by the given identifier.
    * @param componentInstanceId the identifier of the component instance for which the resources
@@ -107,9 +122,19 @@ public class NodeDAO {
     return tree;
   }
 
+  /**
+   * Invalidates the cached tree of the nodes of the specified component instance. As the tree
+   * can be read and cached again by another thread before the changes are committed, it is
+   * invalidated again at the end of the current transaction.
+   * @param con the connection used to change the nodes.
+   * @param nodePK the primary key of a node in the tree.
+   */
   public void unvalidateTree(Connection con, NodePK nodePK) {
     Objects.requireNonNull(con);
-    allTrees.remove(nodePK.getComponentName());
+    final String instanceId = nodePK.getComponentName();
+    allTrees.remove(instanceId);
+    Transaction.afterCompletion(() -> allTrees.remove(instanceId));
+    CacheInvalidationBus.get().publish(CacheInvalidation.ofNodeTree(instanceId));
   }
 
   /**
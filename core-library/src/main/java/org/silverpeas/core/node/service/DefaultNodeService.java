@@ -37,7 +37,10 @@ import org.silverpeas.core.node.model.NodeI18NDetail;
 import org.silverpeas.core.node.model.NodePK;
 import org.silverpeas.core.node.model.NodePath;
 import org.silverpeas.core.node.model.NodeRuntimeException;
+import org.silverpeas.core.node.notification.NodeEventNotifier;
+import org.silverpeas.core.notification.system.ResourceEvent;
 import org.silverpeas.core.persistence.jdbc.DBUtil;
+import org.silverpeas.core.security.authorization.ComponentAccessControl;
 import org.silverpeas.core.util.DateUtil;
 import org.silverpeas.core.util.ResourceLocator;
 import org.silverpeas.core.util.SettingBundle;
@@ -77,6 +80,10 @@ public class DefaultNodeService implements NodeService, ComponentInstanceDeletio
   private NodeDAO nodeDAO;
   @Inject
   private NodeDeletion nodeDeletion;
+  @Inject
+  private ComponentAccessControl componentAccessControl;
+  @Inject
+  private NodeEventNotifier nodeEventNotifier;
 
   @Override
   @Transactional
@@ -903,7 +910,9 @@ public class DefaultNodeService implements NodeService, ComponentInstanceDeletio
   @Override
   @Transactional
   public void updateRightsDependency(NodeDetail nodeDetail) {
+    NodeDetail before = getHeader(nodeDetail.getNodePK());
     updateNodeDetail(nodeDetail);
+    rightsDependencyUpdated(before);
     try {
       spreadRightsDependency(nodeDetail, nodeDetail.getRightsDependsOn());
     } catch (SQLException e) {
@@ -916,13 +925,27 @@ public class DefaultNodeService implements NodeService, ComponentInstanceDeletio
     Collection<NodeDetail> children = getChildrenDetails(currentNode.getNodePK());
     for (NodeDetail child : children) {
       if (!child.haveLocalRights()) {
+        NodeDetail before = getHeader(child.getNodePK());
         child.setRightsDependsOn(rightsDependsOn);
         updateNodeDetail(child);
+        rightsDependencyUpdated(before);
         spreadRightsDependency(child, rightsDependsOn);
       }
     }
   }
 
+  /**
+   * The node is reindexed with its new rights and the change is notified in order the contents
+   * of the node to be also reindexed with them.
+   */
+  private void rightsDependencyUpdated(NodeDetail before) {
+    NodeDetail after = getHeader(before.getNodePK());
+    if (before.getRightsDependsOn() != after.getRightsDependsOn()) {
+      createIndex(after.getNodePK());
+      nodeEventNotifier.notifyEventOn(ResourceEvent.Type.UPDATE, before, after);
+    }
+  }
+
   @Override
   public void sortNodes(List<NodePK> nodePKs) {
     Connection con = getConnection();
@@ -967,6 +990,7 @@ public class DefaultNodeService implements NodeService, ComponentInstanceDeletio
       SilverLogger.getLogger(this).warn(e);
     }
     final String userId;
+    NodeDetail rightsNode = nodeDetail;
     // cas d'une creation (avec creatorId, creationDate)
     if (nodeDetail.getCreatorId() != null) {
       userId = nodeDetail.getCreatorId();
@@ -981,6 +1005,13 @@ public class DefaultNodeService implements NodeService, ComponentInstanceDeletio
       }
       userId = node.getCreatorId();
       indexEntry.setCreationUser(userId);
+      rightsNode = node;
+    }
+
+    // the node is found only by the users having a profile on it when it has specific rights
+    if (rightsNode.haveRights() &&
+        componentAccessControl.isRightOnTopicsEnabled(rightsNode.getNodePK().getInstanceId())) {
+      indexEntry.addNodeRights(String.valueOf(rightsNode.getRightsDependsOn()));
     }
 
     // index creator's full name
@@ -116,6 +116,14 @@ public class UserNotificationServerEvent extends CommonServerEvent {
     return (int) countNotReadMessagesOfFolder(userId, "INBOX");
   }
 
+  /**
+   * Gets the unique identifier of the user whose notifications are concerned by this event.
+   * @return the identifier of a user.
+   */
+  public String getEmitterUserId() {
+    return emitterUserId;
+  }
+
   @Override
   public ServerEventName getName() {
     return EVENT_NAME;
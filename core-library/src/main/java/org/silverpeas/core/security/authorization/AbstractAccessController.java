@@ -27,8 +27,10 @@ import org.silverpeas.core.admin.user.model.SilverpeasRole;
 import org.silverpeas.core.util.StringUtil;
 import org.silverpeas.core.WAPrimaryKey;
 
+import java.util.Collection;
 import java.util.EnumSet;
 import java.util.Set;
+import java.util.stream.Stream;
 
 /**
  * This abstract class provides common implementation about the access controller :
@@ -44,6 +46,15 @@ public abstract class AbstractAccessController<T> implements AccessController<T>
     return isUserAuthorized(userId, object, AccessControlContext.init());
   }
 
+  @Override
+  public final Stream<T> filterAuthorizedByUser(Collection<T> objects, String userId,
+      AccessControlContext context) {
+    if (objects.size() > 1) {
+      preloadUserRoleData(objects, userId, context);
+    }
+    return objects.stream().filter(o -> isUserAuthorized(userId, o, context));
+  }
+
   @Override
   @SuppressWarnings("unchecked")
   public final Set<SilverpeasRole> getUserRoles(String userId, T object,
@@ -72,6 +83,24 @@ public abstract class AbstractAccessController<T> implements AccessController<T>
     throw new UnsupportedOperationException();
   }
 
+  /**
+   * Loads into the given context, once for all the given objects, the data the computation of
+   * the user roles requires, so that {@link #fillUserRoles(Set, AccessControlContext, String,
+   * Object)} has then just to look up them in the context instead of fetching them object by
+   * object.
+   * <p>
+   * By default, nothing is loaded. This method should be overridden by the controllers for which
+   * the computation of the roles requires some requests on the persistence.
+   * </p>
+   * @param objects the objects that will be accessed.
+   * @param userId the unique identifier of the user.
+   * @param context the context in which the objects are accessed.
+   */
+  protected void preloadUserRoleData(Collection<T> objects, String userId,
+      AccessControlContext context) {
+    // This method must be overridden if needed
+  }
+
   /**
    * Build a unique key for user role cache.
    * @param userId
@@ -25,9 +25,22 @@ package org.silverpeas.core.security.authorization;
 
 import org.silverpeas.core.node.model.NodePK;
 
+import java.util.Collection;
+
 /**
  * This interface extends access controller for a Node resource.
  * @author Yohann Chastagnier
  */
 public interface NodeAccessControl extends AccessController<NodePK>{
+
+  /**
+   * Loads into the given context, once for all the given nodes, the data required to compute
+   * the roles of the specified user on each of them. This is useful for the other controllers
+   * that check the access on a batch of resources attached to nodes.
+   * @param nodePKs the primary keys of the nodes that will be accessed.
+   * @param userId the unique identifier of the user.
+   * @param context the context in which the nodes are accessed.
+   */
+  void preloadUserRoleData(Collection<NodePK> nodePKs, String userId,
+      AccessControlContext context);
 }
@@ -35,6 +35,10 @@ import org.silverpeas.core.util.logging.SilverLogger;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -45,6 +49,8 @@ import java.util.Set;
 public class NodeAccessController extends AbstractAccessController<NodePK>
     implements NodeAccessControl {
 
+  private static final String PRELOADED_NODES_KEY = "PRELOADED_NODES_KEY@";
+
   @Inject
   private ComponentAccessControl componentAccessController;
 
@@ -87,6 +93,31 @@ public class NodeAccessController extends AbstractAccessController<NodePK>
     return authorized;
   }
 
+  @Override
+  public void preloadUserRoleData(final Collection<NodePK> nodePKs, final String userId,
+      final AccessControlContext context) {
+    final String key = PRELOADED_NODES_KEY + userId;
+    PreloadedNodes preloadedNodes = context.get(key, PreloadedNodes.class);
+    if (preloadedNodes == null) {
+      preloadedNodes = new PreloadedNodes();
+      context.put(key, preloadedNodes);
+    }
+    final PreloadedNodes preloaded = preloadedNodes;
+    nodePKs.stream()
+        .map(NodePK::getInstanceId)
+        .distinct()
+        .filter(i -> !preloaded.isLoaded(i) && isNodeRightsComputationRequired(userId, i, context))
+        .forEach(i -> preloaded.load(userId, i));
+  }
+
+  private boolean isNodeRightsComputationRequired(final String userId, final String instanceId,
+      final AccessControlContext context) {
+    final ComponentAccessControl componentAccessControl = getComponentAccessController();
+    return componentAccessControl.isRightOnTopicsEnabled(instanceId) &&
+        componentAccessControl.isUserAuthorized(
+            componentAccessControl.getUserRoles(userId, instanceId, context));
+  }
+
   @Override
   protected void fillUserRoles(Set<SilverpeasRole> userRoles, AccessControlContext context,
       String userId, NodePK nodePK) {
@@ -105,6 +136,20 @@ public class NodeAccessController extends AbstractAccessController<NodePK>
       return;
     }
 
+    final PreloadedNodes preloaded = context.get(PRELOADED_NODES_KEY + userId,
+        PreloadedNodes.class);
+    if (preloaded != null && preloaded.isLoaded(nodePK.getInstanceId())) {
+      final NodeDetail node = preloaded.getNode(nodePK);
+      if (node != null) {
+        if (!node.haveRights()) {
+          userRoles.addAll(componentUserRoles);
+          return;
+        }
+        userRoles.addAll(preloaded.getUserRoles(nodePK.getInstanceId(), node.getRightsDependsOn()));
+      }
+      return;
+    }
+
     NodeDetail node;
     try {
       node = getNodeService().getHeader(nodePK, false);
@@ -127,6 +172,47 @@ public class NodeAccessController extends AbstractAccessController<NodePK>
     return nodeService;
   }
 
+  /**
+   * The headers of all the nodes of some component instances with the profiles the user plays on
+   * them, each of them being fetched by a single request.
+   */
+  private class PreloadedNodes {
+    private final Map<String, Map<String, NodeDetail>> nodesByInstance = new HashMap<>();
+    private final Map<String, Map<Integer, List<String>>> profilesByInstance = new HashMap<>();
+
+    boolean isLoaded(final String instanceId) {
+      return profilesByInstance.containsKey(instanceId);
+    }
+
+    void load(final String userId, final String instanceId) {
+      final Map<Integer, List<String>> profiles;
+      final Map<String, NodeDetail> nodes = new HashMap<>();
+      try {
+        getNodeService().getAllNodes(new NodePK(NodePK.UNDEFINED_NODE_ID, instanceId))
+            .forEach(n -> nodes.put(n.getNodePK().getId(), n));
+        profiles = getOrganisationController()
+            .getUserObjectProfiles(userId, instanceId, ObjectType.NODE);
+      } catch (NodeRuntimeException ex) {
+        SilverLogger.getLogger(this).error(ex.getMessage(), ex);
+        return;
+      }
+      if (profiles != null) {
+        nodesByInstance.put(instanceId, nodes);
+        profilesByInstance.put(instanceId, profiles);
+      }
+    }
+
+    NodeDetail getNode(final NodePK nodePK) {
+      return nodesByInstance.get(nodePK.getInstanceId()).get(nodePK.getId());
+    }
+
+    Set<SilverpeasRole> getUserRoles(final String instanceId, final int nodeId) {
+      final List<String> profiles = profilesByInstance.get(instanceId).get(nodeId);
+      return SilverpeasRole
+          .from(profiles == null ? null : profiles.toArray(new String[profiles.size()]));
+    }
+  }
+
   /**
    * Gets the organization controller used for performing its task.
    * @return an organization controller instance.
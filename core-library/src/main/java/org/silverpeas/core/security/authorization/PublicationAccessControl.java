@@ -25,9 +25,24 @@ package org.silverpeas.core.security.authorization;
 
 import org.silverpeas.core.contribution.publication.model.PublicationPK;
 
+import java.util.Collection;
+
 /**
  * This interface extends access controller for a Publication resource.
  * @author Yohann Chastagnier
  */
 public interface PublicationAccessControl extends AccessController<PublicationPK> {
+
+  /**
+   * Loads into the given context, once for all the given publications, the data required to
+   * compute the roles of the specified user on each of them: the publications themselves (or the
+   * original ones in the case of clones), their locations and the rights on these locations.
+   * This is useful for the other controllers that check the access on a batch of resources
+   * attached to publications.
+   * @param pubPKs the primary keys of the publications that will be accessed.
+   * @param userId the unique identifier of the user.
+   * @param context the context in which the publications are accessed.
+   */
+  void preloadUserRoleData(Collection<PublicationPK> pubPKs, String userId,
+      AccessControlContext context);
 }
@@ -38,9 +38,16 @@ import org.silverpeas.core.util.logging.SilverLogger;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import static org.silverpeas.core.cache.service.VolatileCacheServiceProvider.getSessionVolatileResourceCacheService;
 import static org.silverpeas.core.security.authorization.AccessControlOperation.isPersistActionFrom;
@@ -55,6 +62,7 @@ public class PublicationAccessController extends AbstractAccessController<Public
     implements PublicationAccessControl {
 
   static final String PUBLICATION_DETAIL_KEY = "PUBLICATION_DETAIL_KEY";
+  private static final String PRELOADED_PUBLICATIONS_KEY = "PRELOADED_PUBLICATIONS_KEY";
 
   @Inject
   private ComponentAccessControl componentAccessController;
@@ -75,6 +83,47 @@ public class PublicationAccessController extends AbstractAccessController<Public
     return isUserAuthorizedByContext(userId, pubPk, context, getUserRoles(userId, pubPk, context));
   }
 
+  /**
+   * Gets the publication that was loaded into the given context when computing the roles of a
+   * user on the specified publication.
+   * @param context the context in which the publication is accessed.
+   * @param pubPk the primary key of the accessed publication.
+   * @return the publication (or the original one in the case of a clone) or null if it wasn't
+   * loaded.
+   */
+  static PublicationDetail getPublicationDetail(final AccessControlContext context,
+      final PublicationPK pubPk) {
+    final PreloadedPublications preloaded =
+        context.get(PRELOADED_PUBLICATIONS_KEY, PreloadedPublications.class);
+    if (preloaded != null && preloaded.isLoaded(pubPk.getId())) {
+      return preloaded.getPublication(pubPk.getId());
+    }
+    return context.get(PUBLICATION_DETAIL_KEY, PublicationDetail.class);
+  }
+
+  @Override
+  public void preloadUserRoleData(final Collection<PublicationPK> pubPKs, final String userId,
+      final AccessControlContext context) {
+    PreloadedPublications preloadedPublications =
+        context.get(PRELOADED_PUBLICATIONS_KEY, PreloadedPublications.class);
+    if (preloadedPublications == null) {
+      preloadedPublications = new PreloadedPublications();
+      context.put(PRELOADED_PUBLICATIONS_KEY, preloadedPublications);
+    }
+    final PreloadedPublications preloaded = preloadedPublications;
+    final List<PublicationDetail> publications = preloaded.load(pubPKs.stream()
+        .map(PublicationPK::getId)
+        .filter(StringUtil::isInteger)
+        .collect(Collectors.toSet()));
+    final List<NodePK> locations = publications.stream()
+        .filter(p -> componentAccessController.isTopicTrackerSupported(p.getInstanceId()))
+        .flatMap(p -> preloaded.getLocations(p.getId()).stream())
+        .map(a -> new NodePK(a.getId(), a.getInstanceId()))
+        .distinct()
+        .collect(Collectors.toList());
+    nodeAccessController.preloadUserRoleData(locations, userId, context);
+  }
+
   /**
    * @param userId
    * @param pubPk
@@ -92,7 +141,7 @@ public class PublicationAccessController extends AbstractAccessController<Public
     final Mutable<Boolean> authorized = Mutable.of(true);
     final SilverpeasRole safeHighestUserRole = getSafeSilverpeasRole(userRoles);
     final String instanceId = pubPk.getInstanceId();
-    final PublicationDetail publicationDetail = context.get(PUBLICATION_DETAIL_KEY, PublicationDetail.class);
+    final PublicationDetail publicationDetail = getPublicationDetail(context, pubPk);
     final BooleanSupplier canPublicationBePersistedOrDeleted = new MemoizedBooleanSupplier(
         () -> getComponentExtension(instanceId).canPublicationBePersistedOrDeletedBy(publicationDetail, instanceId, userId, safeHighestUserRole));
 
@@ -143,7 +192,7 @@ public class PublicationAccessController extends AbstractAccessController<Public
     if (isNotCreationContext) {
       final PublicationDetail pubDetail;
       try {
-        pubDetail = getActualForeignPublication(pubId, instanceId);
+        pubDetail = getActualForeignPublication(pubId, instanceId, context);
         context.put(PUBLICATION_DETAIL_KEY, pubDetail);
       } catch (Exception e) {
         SilverLogger.getLogger(this).warn(e);
@@ -191,7 +240,7 @@ public class PublicationAccessController extends AbstractAccessController<Public
   private boolean fillTopicTrackerNodeRoles(final Set<SilverpeasRole> userRoles,
       final AccessControlContext context, final String userId, final PublicationDetail pubDetail) {
     try {
-      final Collection<NodePK> nodes = getPublicationService().getAllFatherPK(pubDetail.getPK());
+      final Collection<NodePK> nodes = getAllFatherPK(pubDetail, context);
       if (!nodes.isEmpty()) {
         for (NodePK nodePk : nodes) {
           final Set<SilverpeasRole> nodeUserRoles = nodeAccessController
@@ -214,7 +263,7 @@ public class PublicationAccessController extends AbstractAccessController<Public
   private boolean fillTopicTrackerAliasRoles(final Set<SilverpeasRole> userRoles,
       final AccessControlContext context, final String userId, final PublicationDetail pubDetail) {
     try {
-      final Collection<Alias> aliases = getPublicationService().getAlias(pubDetail.getPK());
+      final Collection<Alias> aliases = getAlias(pubDetail, context);
       for (Alias alias : aliases) {
         final Set<SilverpeasRole> nodeUserRoles = nodeAccessController
             .getUserRoles(userId, new NodePK(alias.getId(), alias.getInstanceId()), context);
@@ -229,6 +278,29 @@ public class PublicationAccessController extends AbstractAccessController<Public
     return true;
   }
 
+  private Collection<NodePK> getAllFatherPK(final PublicationDetail pubDetail,
+      final AccessControlContext context) {
+    final PreloadedPublications preloaded =
+        context.get(PRELOADED_PUBLICATIONS_KEY, PreloadedPublications.class);
+    if (preloaded != null && preloaded.areLocationsLoaded(pubDetail.getId())) {
+      return preloaded.getLocations(pubDetail.getId()).stream()
+          .filter(a -> a.getInstanceId().equals(pubDetail.getInstanceId()))
+          .map(a -> new NodePK(a.getId(), pubDetail.getPK()))
+          .collect(Collectors.toList());
+    }
+    return getPublicationService().getAllFatherPK(pubDetail.getPK());
+  }
+
+  private Collection<Alias> getAlias(final PublicationDetail pubDetail,
+      final AccessControlContext context) {
+    final PreloadedPublications preloaded =
+        context.get(PRELOADED_PUBLICATIONS_KEY, PreloadedPublications.class);
+    if (preloaded != null && preloaded.areLocationsLoaded(pubDetail.getId())) {
+      return preloaded.getLocations(pubDetail.getId());
+    }
+    return getPublicationService().getAlias(pubDetail.getPK());
+  }
+
   protected PublicationService getPublicationService() {
     return publicationService;
   }
@@ -238,15 +310,92 @@ public class PublicationAccessController extends AbstractAccessController<Public
    * publication we need the cloned one (that is the original publication).
    * @param foreignId
    * @param instanceId
+   * @param context
    * @return
    */
-  private PublicationDetail getActualForeignPublication(String foreignId, String instanceId) {
+  private PublicationDetail getActualForeignPublication(String foreignId, String instanceId,
+      AccessControlContext context) {
+    final PreloadedPublications preloaded =
+        context.get(PRELOADED_PUBLICATIONS_KEY, PreloadedPublications.class);
+    if (preloaded != null && preloaded.isLoaded(foreignId)) {
+      return preloaded.getPublication(foreignId);
+    }
     PublicationDetail pubDetail =
         getPublicationService().getDetail(new PublicationPK(foreignId, instanceId));
-    if (!pubDetail.isValid() && pubDetail.haveGotClone()) {
+    if (isClone(pubDetail)) {
       pubDetail =
           getPublicationService().getDetail(new PublicationPK(pubDetail.getCloneId(), instanceId));
     }
     return pubDetail;
   }
-}
\ No newline at end of file
+
+  private static boolean isClone(final PublicationDetail pubDetail) {
+    return !pubDetail.isValid() && pubDetail.haveGotClone();
+  }
+
+  /**
+   * The publications, with their locations, for which the access of a user has to be checked,
+   * all of them being fetched by as few requests as possible.
+   */
+  private class PreloadedPublications {
+    private final Map<String, PublicationDetail> publications = new HashMap<>();
+    private final Map<String, List<Alias>> locations = new HashMap<>();
+
+    /**
+     * Loads the specified publications that aren't yet loaded, with their locations.
+     * @param publicationIds the identifiers of the publications.
+     * @return the actual publications: the original publications stand for the clones.
+     */
+    List<PublicationDetail> load(final Set<String> publicationIds) {
+      final List<String> toLoad = publicationIds.stream()
+          .filter(i -> !publications.containsKey(i))
+          .collect(Collectors.toList());
+      final Map<String, PublicationDetail> loaded = getByIds(toLoad);
+      final Map<String, PublicationDetail> originals = getByIds(loaded.values().stream()
+          .filter(PublicationAccessController::isClone)
+          .map(PublicationDetail::getCloneId)
+          .collect(Collectors.toList()));
+      final Map<String, PublicationDetail> actualPublications = new HashMap<>(loaded.size());
+      loaded.forEach((id, p) -> {
+        final PublicationDetail actual = isClone(p) ? originals.get(p.getCloneId()) : p;
+        if (actual != null) {
+          publications.put(id, actual);
+          actualPublications.putIfAbsent(actual.getId(), actual);
+        }
+      });
+      actualPublications.keySet().removeAll(locations.keySet());
+      if (!actualPublications.isEmpty()) {
+        final Map<String, List<Alias>> aliases =
+            getPublicationService().getAllAliases(actualPublications.keySet());
+        actualPublications.keySet().forEach(
+            i -> locations.put(i, aliases.getOrDefault(i, Collections.emptyList())));
+      }
+      return new ArrayList<>(actualPublications.values());
+    }
+
+    private Map<String, PublicationDetail> getByIds(final List<String> publicationIds) {
+      if (publicationIds.isEmpty()) {
+        return Collections.emptyMap();
+      }
+      return getPublicationService().getByIds(publicationIds)
+          .stream()
+          .collect(Collectors.toMap(PublicationDetail::getId, Function.identity()));
+    }
+
+    boolean isLoaded(final String publicationId) {
+      return publications.containsKey(publicationId);
+    }
+
+    PublicationDetail getPublication(final String publicationId) {
+      return publications.get(publicationId);
+    }
+
+    boolean areLocationsLoaded(final String publicationId) {
+      return locations.containsKey(publicationId);
+    }
+
+    List<Alias> getLocations(final String publicationId) {
+      return locations.getOrDefault(publicationId, Collections.emptyList());
+    }
+  }
+}
@@ -33,7 +33,10 @@ import org.silverpeas.core.util.StringUtil;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
+import java.util.Collection;
+import java.util.List;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 import static org.silverpeas.core.security.authorization.AccessControlOperation.*;
 
@@ -68,8 +71,8 @@ public class SimpleDocumentAccessController extends AbstractAccessController<Sim
       String foreignId = object.getForeignId();
       Set<SilverpeasRole> publicationUserRoles = getPublicationAccessController()
           .getUserRoles(userId, new PublicationPK(foreignId, object.getInstanceId()), context);
-      PublicationDetail publicationDetail =
-          context.get(PublicationAccessController.PUBLICATION_DETAIL_KEY, PublicationDetail.class);
+      PublicationDetail publicationDetail = PublicationAccessController
+          .getPublicationDetail(context, new PublicationPK(foreignId, object.getInstanceId()));
       if (publicationDetail != null) {
         // As publicationDetail exists, publicationUserRoles are the one of the publication
         return isUserAuthorizedByContext(false, userId, object, context, publicationUserRoles,
@@ -103,6 +106,26 @@ public class SimpleDocumentAccessController extends AbstractAccessController<Sim
         isUserAuthorizedByContext(false, userId, object, context, componentUserRoles, userId);
   }
 
+  @Override
+  protected void preloadUserRoleData(final Collection<SimpleDocument> documents,
+      final String userId, final AccessControlContext context) {
+    final List<SimpleDocument> documentsInTopicTrackers = documents.stream()
+        .filter(d -> componentAccessController.isTopicTrackerSupported(d.getInstanceId()))
+        .collect(Collectors.toList());
+    final List<PublicationPK> publications = documentsInTopicTrackers.stream()
+        .filter(d -> !isFileAttachedToWysiwygDescriptionOfNode(d.getForeignId()))
+        .map(d -> new PublicationPK(d.getForeignId(), d.getInstanceId()))
+        .distinct()
+        .collect(Collectors.toList());
+    getPublicationAccessController().preloadUserRoleData(publications, userId, context);
+    final List<NodePK> nodes = documentsInTopicTrackers.stream()
+        .filter(d -> isFileAttachedToWysiwygDescriptionOfNode(d.getForeignId()))
+        .map(d -> new NodePK(d.getForeignId().substring("Node_".length()), d.getInstanceId()))
+        .distinct()
+        .collect(Collectors.toList());
+    getNodeAccessController().preloadUserRoleData(nodes, userId, context);
+  }
+
   /**
    * @param isNodeAttachmentCase
    * @param userId
@@ -25,13 +25,14 @@ package org.silverpeas.core.security.encryption;
 
 import org.silverpeas.core.security.encryption.cipher.CryptoException;
 
-import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
  * Executor of concurrent encryption tasks for the ContentEncryptionService instances. The
  * concurrent encryption tasks can be ran simultaneously in several threads, the aim of the
  * ConcurrentEncryptionTaskExecutor is then to manage the concurrency over these different tasks by
- * executing them for the account of the threads they belong to with the use of a semaphore.
+ * executing them for the account of the threads they belong to with the use of a read-write lock.
  * </p>
  * This class is to be used only by the ContentEncryptionService instances for their inner
  * operations.
@@ -41,12 +42,24 @@ import java.util.concurrent.Semaphore;
  * concurrently, it waits for the completion of other tasks and then it is ran in a privileged mode,
  * that is to say it is the alone to be ran and the others tasks (privileged and non-privileged
  * ones) are blocked until it has finished its work.
+ * </p>
+ * The non-privileged tasks share the read lock: they don't wait for each other and they don't
+ * serialize on any monitor. The privileged tasks take the write lock. As the lock is a fair one,
+ * a non-privileged task is rejected as soon as a privileged task is running or is waiting for the
+ * completion of the running tasks, so that the latter cannot be starved by a continuous flow of
+ * encryptions and decryptions.
+ * </p>
+ * A task can hand out parts of its work to other threads (see
+ * {@link #onBehalfOfCurrentThread(Runnable)}): these threads are then granted the access of the
+ * task for the time of their work, as the task holds the lock until they have finished.
  */
 class ConcurrentEncryptionTaskExecutor {
 
-  // safe value taken from the ReentrantLock API
-  private static final int TOKEN_COUNT = 2147483647;
-  private static final Semaphore semaphore = new Semaphore(TOKEN_COUNT);
+  private static final ReentrantReadWriteLock lock = new ReentrantReadWriteLock(true);
+  private static final ThreadLocal<Access> delegatedAccess = new ThreadLocal<>();
+
+  private ConcurrentEncryptionTaskExecutor() {
+  }
 
   /**
    * Executes concurrently the specified task according to the following policy: a non-privileged
@@ -54,7 +67,11 @@ class ConcurrentEncryptionTaskExecutor {
    * executed concurrently, it waits for the completion of other tasks and then it is ran in a
    * privileged mode, that is to say it is the alone to be ran and the others tasks (privileged and
    * non-privileged ones) are blocked until it has finished its work.
-   *
+   * <p>
+   * A task executed within the execution of another one in the same thread, or in a thread
+   * working on behalf of another task, is directly ran as the thread has already the required
+   * access.
+   * </p>
    * @param task the task to execute.
    * @param <T> the return type of the task execution.
    * @return the result of the task execution.
@@ -62,28 +79,95 @@ class ConcurrentEncryptionTaskExecutor {
    */
   public static <T> T execute(ConcurrentEncryptionTask task)
       throws CryptoException {
+    final Access access = getCurrentAccess();
+    if (access == Access.PRIVILEGED) {
+      return task.execute();
+    }
+    if (task.isPrivileged()) {
+      return executeInPrivilegedMode(task, access);
+    }
+    if (access == Access.SHARED) {
+      return task.execute();
+    }
+    acquireSharedAccess();
     try {
-      acquireMutex();
       return task.execute();
     } finally {
-      releaseMutex();
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Wraps the specified work so that it is executed in another thread on behalf of the task
+   * currently ran by the current thread: the thread executing the work is granted the same access
+   * than the current one. The current thread must then wait for the completion of the work
+   * before finishing its task.
+   * @param work the work to execute in another thread for the account of the current task.
+   * @return the work to pass to the other thread.
+   */
+  static Runnable onBehalfOfCurrentThread(final Runnable work) {
+    final Access access = getCurrentAccess();
+    if (access == Access.NONE) {
+      return work;
     }
+    return () -> {
+      final Access previous = delegatedAccess.get();
+      delegatedAccess.set(access);
+      try {
+        work.run();
+      } finally {
+        if (previous == null) {
+          delegatedAccess.remove();
+        } else {
+          delegatedAccess.set(previous);
+        }
+      }
+    };
   }
 
-  private static synchronized void acquireMutex() {
-    if (semaphore.availablePermits() == 0) {
-      throw new IllegalStateException("The encryption is being updated: the content encryption "
-          + "and decryption service is blocked");
+  private static Access getCurrentAccess() {
+    if (lock.isWriteLockedByCurrentThread()) {
+      return Access.PRIVILEGED;
     }
+    final Access access = delegatedAccess.get();
+    if (access != null) {
+      return access;
+    }
+    return lock.getReadHoldCount() > 0 ? Access.SHARED : Access.NONE;
+  }
+
+  private static <T> T executeInPrivilegedMode(ConcurrentEncryptionTask task, Access access)
+      throws CryptoException {
+    if (access == Access.SHARED) {
+      throw new IllegalStateException(
+          "A privileged encryption task cannot be ran within a non-privileged one");
+    }
+    lock.writeLock().lock();
     try {
-      semaphore.acquire();
+      return task.execute();
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  private static void acquireSharedAccess() {
+    try {
+      // with a fair lock, a timed tryLock doesn't barge in front of a waiting privileged task
+      if (!lock.readLock().tryLock(0, TimeUnit.NANOSECONDS)) {
+        throw new IllegalStateException("The encryption is being updated: the content encryption "
+            + "and decryption service is blocked");
+      }
     } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
       throw new IllegalStateException(e);
     }
   }
 
-  private static synchronized void releaseMutex() {
-    semaphore.release();
+  /**
+   * The access to the encryption a thread has.
+   */
+  private enum Access {
+    NONE, SHARED, PRIVILEGED
   }
 
   /**
@@ -23,10 +23,17 @@
  */
 package org.silverpeas.core.security.encryption;
 
-import java.util.Map;
 import org.silverpeas.core.security.encryption.cipher.Cipher;
 import org.silverpeas.core.security.encryption.cipher.CipherKey;
 import org.silverpeas.core.security.encryption.cipher.CryptoException;
+import org.silverpeas.core.thread.ManagedThreadPool;
+import org.silverpeas.core.thread.ManagedThreadPoolException;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.stream.Collectors;
 
 /**
  * A cryptographic task the DefaultContentEncryptionService instances can perform on the contents
@@ -41,6 +48,10 @@ import org.silverpeas.core.security.encryption.cipher.CryptoException;
  * </p>
  * By default, the task will be executed in non-privileged mode, that is to say that the task will
  * not block other cryptographic tasks awaiting execution.
+ * </p>
+ * The contents provided by the different iterators are independent of each other, so when the
+ * task is on several iterators, each of them is taken in charge concurrently by a pool of threads.
+ * These threads work on behalf of the task: they get its access to the encryption.
  */
 class CryptographicTask implements ConcurrentEncryptionTaskExecutor.ConcurrentEncryptionTask {
 
@@ -105,6 +116,11 @@ class CryptographicTask implements ConcurrentEncryptionTaskExecutor.ConcurrentEn
    * {@link EncryptionContentIterator} iterators among the encryption, the decryption and the
    * chipher renew. If an error occurs while performing the cryptographic function on a given
    * content, the exception describing the error is passed to the iterator and the task is stopped.
+   * <p>
+   * If there is more than one iterator, each of them is processed in its own thread and the
+   * method returns once all of them are processed. The threads are granted the access of the
+   * current one to the encryption, so that the iterators can themselves use the encryption service
+   * even when the task is executed in privileged mode.
    *
    * @param <T> the type of the result of the task execution.
    * @return the result of the task.
@@ -116,8 +132,28 @@ class CryptographicTask implements ConcurrentEncryptionTaskExecutor.ConcurrentEn
     final CipherKey actualKey = DefaultContentEncryptionService.getActualCipherKey();
     final CipherKey previousKey =
         this.task == Type.RENEW ? DefaultContentEncryptionService.getPreviousCipherKey() : null;
-    for (EncryptionContentIterator encryptionContentIterator : iterators) {
-      process(encryptionContentIterator, cipher, actualKey, previousKey);
+    if (iterators.length <= 1) {
+      for (EncryptionContentIterator encryptionContentIterator : iterators) {
+        process(encryptionContentIterator, cipher, actualKey, previousKey);
+      }
+      return null;
+    }
+    final List<Runnable> processes = Arrays.stream(iterators)
+        .map(i -> ConcurrentEncryptionTaskExecutor.onBehalfOfCurrentThread(
+            () -> process(i, cipher, actualKey, previousKey)))
+        .collect(Collectors.toList());
+    try {
+      ManagedThreadPool.getPool().invokeAndAwaitTermination(processes);
+    } catch (ManagedThreadPoolException ex) {
+      Throwable cause = ex.getCause();
+      if (cause instanceof ExecutionException) {
+        cause = cause.getCause();
+      }
+      if (cause instanceof RuntimeException) {
+        // typically a CipherRenewingException thrown by the iterator to stop the cipher renew
+        throw (RuntimeException) cause;
+      }
+      throw new CryptoException(ex.getMessage(), ex);
     }
     return null;
   }
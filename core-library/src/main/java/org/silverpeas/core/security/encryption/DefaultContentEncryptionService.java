@@ -44,6 +44,7 @@ import java.text.ParseException;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 
 import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
@@ -76,6 +77,7 @@ public class DefaultContentEncryptionService implements ContentEncryptionService
       FileRepositoryManager.getSecurityDirPath() + ".did_key";
   private static final String KEY_SEP = " ";
   private static List<EncryptionContentIterator> contentIterators = new CopyOnWriteArrayList<>();
+  private static final Map<String, LoadedCipherKey> loadedKeys = new ConcurrentHashMap<>(2);
 
   protected DefaultContentEncryptionService() {
   }
@@ -395,15 +397,27 @@ public class DefaultContentEncryptionService implements ContentEncryptionService
     return getCipherKey(DEPRECATED_KEY_FILE_PATH);
   }
 
+  /**
+   * Gets the cipher key stored in the specified file. As the key file can be updated at any time
+   * (the cipher key renew), it is read at each call but the decryption of the key it contains is
+   * done only when its content changes.
+   */
   private static CipherKey getCipherKey(String keyFilePath) throws CryptoException {
     String key = null;
     try {
       File keyFile = new File(keyFilePath);
-      String[] keys = FileUtil.readFileToString(keyFile).split(KEY_SEP);
+      String keyFileContent = FileUtil.readFileToString(keyFile);
+      LoadedCipherKey loadedKey = loadedKeys.get(keyFilePath);
+      if (loadedKey != null && loadedKey.isLoadedFrom(keyFileContent)) {
+        return loadedKey.getKey();
+      }
+      String[] keys = keyFileContent.split(KEY_SEP);
       Cipher cipher = getCipherForKeyEncryption();
       CipherKey encryptionKey = CipherKey.aKeyFromBase64Text(keys[0]);
       key = cipher.decrypt(StringUtil.fromBase64(keys[1]), encryptionKey);
-      return CipherKey.aKeyFromHexText(key);
+      CipherKey cipherKey = CipherKey.aKeyFromHexText(key);
+      loadedKeys.put(keyFilePath, new LoadedCipherKey(keyFileContent, cipherKey));
+      return cipherKey;
     } catch (IOException ex) {
       throw new CryptoException("Cannot get the encryption key", ex);
     } catch (ParseException ex) {
@@ -452,6 +466,28 @@ public class DefaultContentEncryptionService implements ContentEncryptionService
     }
   }
 
+  /**
+   * A cipher key decrypted from the content of a key file.
+   */
+  private static class LoadedCipherKey {
+
+    private final String keyFileContent;
+    private final CipherKey key;
+
+    LoadedCipherKey(final String keyFileContent, final CipherKey key) {
+      this.keyFileContent = keyFileContent;
+      this.key = key;
+    }
+
+    boolean isLoadedFrom(final String keyFileContent) {
+      return this.keyFileContent.equals(keyFileContent);
+    }
+
+    CipherKey getKey() {
+      return key;
+    }
+  }
+
   /**
    * Wrapper of a {@link EncryptionContentIterator} instance in the goal of controlling the
    * execution flow of the underlying iterator by catching any RuntimeException or Throwable.
@@ -29,6 +29,7 @@ import org.silverpeas.core.util.Charsets;
 import javax.crypto.spec.IvParameterSpec;
 import javax.crypto.spec.SecretKeySpec;
 import java.security.AlgorithmParameters;
+import java.security.GeneralSecurityException;
 import java.security.InvalidKeyException;
 import java.text.MessageFormat;
 import javax.crypto.KeyGenerator;
@@ -112,6 +113,12 @@ public abstract class BlockCipherWithPadding implements Cipher {
    */
   private static final String TRANSFORMATION_PATTERN = "{0}/" + OPERATION_MODE + "/"
       + PADDING_SCHEME;
+  /**
+   * The JCE ciphers are costly to get and they aren't thread-safe, so each thread keeps its own
+   * instance to reuse it from one cryptographic operation to another: they are each time
+   * initialized anew with the key (and the IV) of the operation.
+   */
+  private final ThreadLocal<javax.crypto.Cipher> jceCiphers = new ThreadLocal<>();
 
   protected BlockCipherWithPadding() {
   }
@@ -148,9 +155,7 @@ public abstract class BlockCipherWithPadding implements Cipher {
   public static byte[][] extractEncryptionData(byte[] encryptedData, BlockCipherWithPadding cipher)
       throws CryptoException {
     try {
-      javax.crypto.Cipher jceCipher = javax.crypto.Cipher.getInstance(cipher.getTransformation(),
-          SILVERPEAS_JCE_PROVIDER);
-      int blockSize = jceCipher.getBlockSize();
+      int blockSize = cipher.getJceCipher().getBlockSize();
       byte[][] data = new byte[2][];
       data[1] = ArrayUtil.subarray(encryptedData, 0, blockSize);
       data[0] = ArrayUtil.subarray(encryptedData, blockSize, encryptedData.length);
@@ -184,8 +189,7 @@ public abstract class BlockCipherWithPadding implements Cipher {
       assertKeyIsBinary(keyCode);
       byte[] keyRaw = keyCode.getRawKey();
       SecretKeySpec keySpec = new SecretKeySpec(keyRaw, getAlgorithmName().name());
-      javax.crypto.Cipher cipher = javax.crypto.Cipher.
-          getInstance(getTransformation(), SILVERPEAS_JCE_PROVIDER);
+      javax.crypto.Cipher cipher = getJceCipher();
       cipher.init(javax.crypto.Cipher.ENCRYPT_MODE, keySpec);
       AlgorithmParameters params = cipher.getParameters();
       byte[] iv = params.getParameterSpec(IvParameterSpec.class).getIV();
@@ -215,8 +219,7 @@ public abstract class BlockCipherWithPadding implements Cipher {
       byte[] cipherText = encryptionData[0];
       byte[] iv = encryptionData[1];
       SecretKeySpec keySpec = new SecretKeySpec(keyRaw, getAlgorithmName().name());
-      javax.crypto.Cipher cipher = javax.crypto.Cipher.
-          getInstance(getTransformation(), SILVERPEAS_JCE_PROVIDER);
+      javax.crypto.Cipher cipher = getJceCipher();
       cipher.init(javax.crypto.Cipher.DECRYPT_MODE, keySpec, new IvParameterSpec(iv));
       byte[] decryptedData = cipher.doFinal(cipherText);
       return new String(decryptedData, Charsets.UTF_8);
@@ -244,6 +247,15 @@ public abstract class BlockCipherWithPadding implements Cipher {
     }
   }
 
+  private javax.crypto.Cipher getJceCipher() throws GeneralSecurityException {
+    javax.crypto.Cipher cipher = jceCiphers.get();
+    if (cipher == null) {
+      cipher = javax.crypto.Cipher.getInstance(getTransformation(), SILVERPEAS_JCE_PROVIDER);
+      jceCiphers.set(cipher);
+    }
+    return cipher;
+  }
+
   private String getTransformation() {
     return MessageFormat.format(TRANSFORMATION_PATTERN, getAlgorithmName().name());
   }
@@ -0,0 +1,357 @@
+/*
+ * Copyright (C) 2000 - 2018 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.util;
+
+import org.apache.commons.compress.archivers.zip.Zip64Mode;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.FilenameUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.output.CloseShieldOutputStream;
+import org.silverpeas.core.thread.ManagedThreadPool;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+import static org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream.UnicodeExtraFieldPolicy.NOT_ENCODEABLE;
+import static org.silverpeas.core.thread.ManagedThreadPool.ExecutionConfig.maxThreadPoolSizeOf;
+
+/**
+ * A writer of a zip archive directly into an output stream, for example the one of an HTTP
+ * response. The archive is built on the fly, so no temporary zip file is written on the disk
+ * and the first bytes are sent as soon as the first entry is ready.
+ * <p>
+ * The small files are read and compressed in advance by a few managed threads whereas the
+ * archive is written sequentially in the order the entries were added. The threads are got from
+ * a single executor bounded to the pipeline size and living as long as the writer. The bigger
+ * files are streamed directly into the archive so that the memory consumed by the writer stays
+ * bounded.
+ * The files whose format is already compressed (images, videos, archives, office documents, ...)
+ * are stored as is in the archive. The ZIP64 extensions are used as soon as an entry or the
+ * archive itself requires them.
+ * </p>
+ * <p>
+ * The writer doesn't close the output stream it writes into; this is left to the caller.
+ * </p>
+ */
+public class StreamingZipWriter implements AutoCloseable {
+
+  /**
+   * Default number of entries that are prepared in advance while the archive is written.
+   */
+  public static final int DEFAULT_PIPELINE_SIZE = 4;
+
+  /**
+   * Files bigger than this threshold (in bytes) aren't prepared in memory but directly streamed
+   * into the archive.
+   */
+  static final long IN_MEMORY_ENTRY_THRESHOLD = 1024L * 1024L;
+
+  private static final Set<String> ALREADY_COMPRESSED_EXTENSIONS = new HashSet<>(
+      Arrays.asList("zip", "jar", "war", "ear", "gz", "tgz", "bz2", "xz", "7z", "rar", "lz", "lzma",
+          "jpg", "jpeg", "png", "gif", "webp", "mp3", "mp4", "m4a", "m4v", "aac", "ogg", "oga",
+          "ogv", "flac", "avi", "mkv", "mov", "flv", "webm", "wmv", "docx", "xlsx", "pptx", "odt",
+          "ods", "odp", "odg", "epub"));
+
+  private final ZipArchiveOutputStream zos;
+  private final Deque<Future<PreparedEntry>> pipeline = new ArrayDeque<>();
+  private final int pipelineSize;
+  private ExecutorService executor = null;
+  private boolean closed = false;
+
+  /**
+   * Constructs a new writer of a zip archive into the specified output stream.
+   * @param output the output stream into which the archive will be written.
+   */
+  public StreamingZipWriter(final OutputStream output) {
+    this(output, DEFAULT_PIPELINE_SIZE);
+  }
+
+  /**
+   * Constructs a new writer of a zip archive into the specified output stream.
+   * @param output the output stream into which the archive will be written.
+   * @param pipelineSize the maximum number of entries to prepare in advance. It is also the
+   * maximum number of threads used to compress the entries. Zero or a negative value means
+   * all the entries are prepared in the caller's thread.
+   */
+  public StreamingZipWriter(final OutputStream output, final int pipelineSize) {
+    this.zos = new ZipArchiveOutputStream(
+        new BufferedOutputStream(new CloseShieldOutputStream(output)));
+    this.zos.setFallbackToUTF8(true);
+    this.zos.setCreateUnicodeExtraFields(NOT_ENCODEABLE);
+    this.zos.setEncoding(Charsets.UTF_8.name());
+    this.zos.setUseZip64(Zip64Mode.AsNeeded);
+    this.pipelineSize = Math.max(0, pipelineSize);
+  }
+
+  /**
+   * Is the specified file name about a format that is already compressed? In that case, the
+   * file is stored in the archive without being compressed again.
+   * @param fileName the name of a file.
+   * @return true if the format of the file is known to be already compressed, false otherwise.
+   */
+  public static boolean isAlreadyCompressed(final String fileName) {
+    return ALREADY_COMPRESSED_EXTENSIONS.contains(
+        FilenameUtils.getExtension(fileName).toLowerCase());
+  }
+
+  /**
+   * Adds the specified file into the archive under the given entry name.
+   * @param file the file to add.
+   * @param entryName the name of the entry in the archive.
+   * @return itself.
+   * @throws IOException if an error occurs while writing the archive.
+   */
+  public StreamingZipWriter addFile(final File file, final String entryName) throws IOException {
+    checkNotClosed();
+    final String name = FilenameUtils.separatorsToUnix(entryName);
+    final Future<PreparedEntry> entry;
+    if (file.length() > IN_MEMORY_ENTRY_THRESHOLD) {
+      entry = CompletableFuture.completedFuture(PreparedEntry.streamed(file, name));
+    } else if (pipelineSize == 0) {
+      entry = CompletableFuture.completedFuture(PreparedEntry.inMemory(file, name));
+    } else {
+      entry = submit(file, name);
+    }
+    pipeline.addLast(entry);
+    while (pipeline.size() > pipelineSize) {
+      writeNextPreparedEntry();
+    }
+    return this;
+  }
+
+  /**
+   * Adds recursively all the files of the specified directory into the archive. The name of each
+   * entry is the path of the file relative to the parent of the directory, so the directory
+   * itself is the root of the entries in the archive. The empty directories aren't added.
+   * @param directory the directory to add.
+   * @return itself.
+   * @throws IOException if an error occurs while writing the archive.
+   */
+  public StreamingZipWriter addDirectory(final File directory) throws IOException {
+    final int rootPathLength = directory.getAbsoluteFile().getParent().length() + 1;
+    final Collection<File> content = FileUtils.listFiles(directory, null, true);
+    for (File file : content) {
+      addFile(file, file.getAbsolutePath().substring(rootPathLength));
+    }
+    return this;
+  }
+
+  /**
+   * Adds the content of the specified stream into the archive under the given entry name. The
+   * entries prepared in advance are first written as the stream is consumed in the caller's
+   * thread.
+   * <p>
+   * As the size of the content isn't known in advance, it cannot exceed 4 GB. For bigger content,
+   * prefer {@link #addFile(File, String)}.
+   * </p>
+   * @param entryName the name of the entry in the archive.
+   * @param content the content of the entry. The stream isn't closed by this method.
+   * @return itself.
+   * @throws IOException if an error occurs while writing the archive.
+   */
+  public StreamingZipWriter addEntry(final String entryName, final InputStream content)
+      throws IOException {
+    checkNotClosed();
+    flushPipeline();
+    final String name = FilenameUtils.separatorsToUnix(entryName);
+    final ZipArchiveEntry entry = new ZipArchiveEntry(name);
+    entry.setMethod(ZipArchiveEntry.DEFLATED);
+    zos.setLevel(isAlreadyCompressed(name) ? Deflater.NO_COMPRESSION :
+        Deflater.DEFAULT_COMPRESSION);
+    zos.putArchiveEntry(entry);
+    IOUtils.copy(content, zos);
+    zos.closeArchiveEntry();
+    return this;
+  }
+
+  /**
+   * Gets the number of bytes written so far into the output stream.
+   * @return the number of bytes of the archive written so far.
+   */
+  public long getBytesWritten() {
+    return zos.getBytesWritten();
+  }
+
+  /**
+   * Writes all the remaining entries and then the central directory of the archive. The output
+   * stream is flushed but not closed.
+   * @throws IOException if an error occurs while finishing the archive.
+   */
+  @Override
+  public void close() throws IOException {
+    if (!closed) {
+      try {
+        flushPipeline();
+        zos.finish();
+      } finally {
+        closed = true;
+        pipeline.forEach(f -> f.cancel(true));
+        pipeline.clear();
+        if (executor != null) {
+          executor.shutdownNow();
+        }
+        zos.close();
+      }
+    }
+  }
+
+  private Future<PreparedEntry> submit(final File file, final String name) {
+    if (executor == null) {
+      executor = ManagedThreadPool.getPool()
+          .newExecutorService(maxThreadPoolSizeOf(pipelineSize).withCategory("export"));
+    }
+    return executor.submit(() -> PreparedEntry.inMemory(file, name));
+  }
+
+  private void flushPipeline() throws IOException {
+    while (!pipeline.isEmpty()) {
+      writeNextPreparedEntry();
+    }
+  }
+
+  private void writeNextPreparedEntry() throws IOException {
+    final PreparedEntry entry;
+    try {
+      entry = pipeline.removeFirst().get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException(e.getMessage());
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof IOException) {
+        throw (IOException) e.getCause();
+      }
+      throw new IOException(e.getCause());
+    }
+    if (entry.isInMemory()) {
+      zos.addRawArchiveEntry(entry.zipEntry,
+          new ByteArrayInputStream(entry.rawData, 0, entry.rawSize));
+    } else {
+      zos.setLevel(entry.zipEntry.getMethod() == ZipArchiveEntry.STORED ?
+          Deflater.NO_COMPRESSION : Deflater.DEFAULT_COMPRESSION);
+      // the CRC of a streamed entry isn't known in advance: such an entry is always deflated,
+      // with no compression at all for the already compressed formats.
+      entry.zipEntry.setMethod(ZipArchiveEntry.DEFLATED);
+      zos.putArchiveEntry(entry.zipEntry);
+      try (InputStream in = new FileInputStream(entry.file)) {
+        IOUtils.copy(in, zos);
+      }
+      zos.closeArchiveEntry();
+    }
+  }
+
+  private void checkNotClosed() throws IOException {
+    if (closed) {
+      throw new IOException("The zip archive is already closed");
+    }
+  }
+
+  /**
+   * An entry of the archive ready to be written. Either its content is already read and
+   * compressed (or just stored) in memory, or it has to be streamed from its file.
+   */
+  private static class PreparedEntry {
+    private final ZipArchiveEntry zipEntry;
+    private final File file;
+    private final byte[] rawData;
+    private final int rawSize;
+
+    private PreparedEntry(final ZipArchiveEntry zipEntry, final File file, final byte[] rawData,
+        final int rawSize) {
+      this.zipEntry = zipEntry;
+      this.file = file;
+      this.rawData = rawData;
+      this.rawSize = rawSize;
+    }
+
+    static PreparedEntry streamed(final File file, final String name) {
+      final ZipArchiveEntry entry = newEntry(file, name);
+      entry.setSize(file.length());
+      return new PreparedEntry(entry, file, null, 0);
+    }
+
+    static PreparedEntry inMemory(final File file, final String name) throws IOException {
+      final byte[] content = Files.readAllBytes(file.toPath());
+      final CRC32 crc = new CRC32();
+      crc.update(content);
+      final ZipArchiveEntry entry = newEntry(file, name);
+      entry.setSize(content.length);
+      entry.setCrc(crc.getValue());
+      if (entry.getMethod() == ZipArchiveEntry.DEFLATED) {
+        final byte[] compressed = new byte[content.length + 64];
+        final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        try {
+          deflater.setInput(content);
+          deflater.finish();
+          int size = 0;
+          while (!deflater.finished() && size < compressed.length) {
+            size += deflater.deflate(compressed, size, compressed.length - size);
+          }
+          if (deflater.finished() && size < content.length) {
+            entry.setCompressedSize(size);
+            return new PreparedEntry(entry, null, compressed, size);
+          }
+        } finally {
+          deflater.end();
+        }
+        // no gain by compressing the content: it is stored as is
+        entry.setMethod(ZipArchiveEntry.STORED);
+      }
+      entry.setCompressedSize(content.length);
+      return new PreparedEntry(entry, null, content, content.length);
+    }
+
+    private static ZipArchiveEntry newEntry(final File file, final String name) {
+      final ZipArchiveEntry entry = new ZipArchiveEntry(name);
+      entry.setTime(file.lastModified());
+      entry.setMethod(isAlreadyCompressed(name) ? ZipArchiveEntry.STORED :
+          ZipArchiveEntry.DEFLATED);
+      return entry;
+    }
+
+    boolean isInMemory() {
+      return rawData != null;
+    }
+  }
+}
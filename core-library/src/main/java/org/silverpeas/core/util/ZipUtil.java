@@ -33,7 +33,6 @@ import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
 import org.apache.commons.compress.archivers.zip.ZipFile;
 import org.apache.commons.compress.compressors.bzip2.BZip2CompressorInputStream;
 import org.apache.commons.compress.compressors.gzip.GzipCompressorInputStream;
-import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.io.IOUtils;
 import org.silverpeas.core.util.file.FileUtil;
@@ -46,7 +45,7 @@ import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.Collection;
+import java.io.OutputStream;
 import java.util.Enumeration;
 import java.util.Objects;
 
@@ -109,24 +108,30 @@ public class ZipUtil {
    * @throws IOException
    */
   public static long compressPathToZip(File folderToZip, File zipFile) throws IOException {
-    try (ZipArchiveOutputStream zos = new ZipArchiveOutputStream(new FileOutputStream(zipFile))) {
-      zos.setFallbackToUTF8(true);
-      zos.setCreateUnicodeExtraFields(NOT_ENCODEABLE);
-      zos.setEncoding(Charsets.UTF_8.name());
-      Collection<File> folderContent = FileUtils.listFiles(folderToZip, null, true);
-      for (File file : folderContent) {
-        String entryName = file.getPath().substring(folderToZip.getParent().length() + 1);
-        entryName = FilenameUtils.separatorsToUnix(entryName);
-        zos.putArchiveEntry(new ZipArchiveEntry(entryName));
-        try (InputStream in = new FileInputStream(file)) {
-          IOUtils.copy(in, zos);
-          zos.closeArchiveEntry();
-        }
-      }
+    try (OutputStream output = new FileOutputStream(zipFile)) {
+      compressPathToZip(folderToZip, output);
     }
     return zipFile.length();
   }
 
+  /**
+   * Compresses recursively a folder in the zip format directly into the specified output stream,
+   * without writing any intermediate file. The output stream isn't closed.
+   *
+   * @param folderToZip the folder to compress.
+   * @param output the output stream into which the zip archive is written.
+   * @return the size in bytes of the zip archive written into the stream.
+   * @throws IOException if an error occurs while compressing the folder.
+   * @see StreamingZipWriter
+   */
+  public static long compressPathToZip(File folderToZip, OutputStream output) throws IOException {
+    try (StreamingZipWriter writer = new StreamingZipWriter(output)) {
+      writer.addDirectory(folderToZip);
+      writer.close();
+      return writer.getBytesWritten();
+    }
+  }
+
   /**
    * Méthode permettant la création et l'organisation d'un fichier zip en lui passant directement un
    * flux d'entrée
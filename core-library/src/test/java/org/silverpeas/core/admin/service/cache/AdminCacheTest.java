@@ -0,0 +1,99 @@
+/*
+ * Copyright (C) 2000 - 2018 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.admin.service.cache;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.silverpeas.core.persistence.Transaction;
+import org.silverpeas.core.test.extention.EnableSilverTestEnv;
+import org.silverpeas.core.test.extention.TestManagedMock;
+import org.silverpeas.core.test.extention.TestedBean;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests on the versions of the organizational data handled by the admin cache.
+ */
+@EnableSilverTestEnv
+public class AdminCacheTest {
+
+  @TestManagedMock
+  private Transaction transaction;
+
+  @TestManagedMock
+  private TreeCache treeCache;
+
+  @TestedBean
+  private AdminCache cache;
+
+  @Test
+  public void theVersionOfAllTheUsersChangesWithTheWholeOrganization() {
+    long versionOfUser1 = cache.getVersion("1");
+    long versionOfUser2 = cache.getVersion("2");
+    cache.resetOnUpdateGroup();
+    assertThat(cache.getVersion("1"), is(not(versionOfUser1)));
+    assertThat(cache.getVersion("2"), is(not(versionOfUser2)));
+  }
+
+  @Test
+  public void theVersionOfOnlyOneUserChangesWithItsRights() {
+    long versionOfUser1 = cache.getVersion("1");
+    long versionOfUser2 = cache.getVersion("2");
+    cache.opAddUserInGroup("1");
+    assertThat(cache.getVersion("1"), is(not(versionOfUser1)));
+    assertThat(cache.getVersion("2"), is(versionOfUser2));
+
+    versionOfUser1 = cache.getVersion("1");
+    cache.resetCache();
+    assertThat(cache.getVersion("1"), is(not(versionOfUser1)));
+    assertThat(cache.getVersion("2"), is(not(versionOfUser2)));
+  }
+
+  @Test
+  public void theVersionChangesAgainAtTheEndOfTheTransaction() {
+    cache.resetCache();
+    ArgumentCaptor<Runnable> endOfTransaction = ArgumentCaptor.forClass(Runnable.class);
+    verify(transaction).onCompletion(endOfTransaction.capture(), eq(false));
+    long versionDuringTransaction = cache.getVersion("1");
+
+    endOfTransaction.getValue().run();
+    assertThat(cache.getVersion("1"), is(greaterThan(versionDuringTransaction)));
+  }
+
+  @Test
+  public void theVersionChangesOnceTheTreeIsUpdated() {
+    when(treeCache.getVersion()).thenReturn(3L);
+    cache.resetSpaceInst();
+    long versionBeforeTheTreeUpdate = cache.getVersion("1");
+
+    when(treeCache.getVersion()).thenReturn(4L);
+    assertThat(cache.getVersion("1"), is(greaterThan(versionBeforeTheTreeUpdate)));
+  }
+}
@@ -0,0 +1,198 @@
+/*
+ * Copyright (C) 2000 - 2018 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.admin.service.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.silverpeas.core.persistence.Transaction;
+import org.silverpeas.core.test.extention.EnableSilverTestEnv;
+import org.silverpeas.core.test.extention.TestManagedMock;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Unit tests on the coalescing and on the sequencing of the cache invalidations exchanged
+ * between the nodes of a cluster.
+ */
+@EnableSilverTestEnv
+public class CacheInvalidationBusTest {
+
+  @TestManagedMock
+  private Transaction transaction;
+
+  private TestBus bus;
+  private List<CacheInvalidation> received;
+
+  @BeforeEach
+  public void setUpTheBus() {
+    bus = new TestBus();
+    received = new ArrayList<>();
+    bus.subscribe(received::add);
+    // by default, the invalidations are published out of any transaction
+    doAnswer(invocation -> {
+      invocation.<Runnable>getArgument(0).run();
+      return null;
+    }).when(transaction).onCompletion(any(), anyBoolean());
+  }
+
+  @Test
+  public void theInvalidationsAreSentOnlyOnceTheTransactionIsCommitted() {
+    doNothing().when(transaction).onCompletion(any(), anyBoolean());
+    bus.publish(CacheInvalidation.ofUser("1"));
+    ArgumentCaptor<Runnable> commit = ArgumentCaptor.forClass(Runnable.class);
+    verify(transaction).onCompletion(commit.capture(), eq(true));
+    bus.flush();
+    assertThat(bus.sent, is(empty()));
+
+    commit.getValue().run();
+    bus.flush();
+    assertThat(bus.sent.size(), is(1));
+    assertThat(bus.sent.get(0).getInvalidations(), contains(CacheInvalidation.ofUser("1")));
+  }
+
+  @Test
+  public void theInvalidationsOfATransactionRolledBackAreNeverSent() {
+    doNothing().when(transaction).onCompletion(any(), anyBoolean());
+    bus.publish(CacheInvalidation.ofUser("1"));
+    bus.flush();
+    assertThat(bus.sent, is(empty()));
+  }
+
+  @Test
+  public void nothingIsSentWhenTheBusIsDisabled() {
+    bus.enabled = false;
+    bus.publish(CacheInvalidation.ofUser("1"));
+    bus.flush();
+    assertThat(bus.sent, is(empty()));
+  }
+
+  @Test
+  public void theInvalidationsPublishedTogetherAreSentInASingleBatch() {
+    bus.publish(CacheInvalidation.ofUser("1"));
+    bus.publish(CacheInvalidation.ofSpace(2));
+    bus.publish(CacheInvalidation.ofUser("1"));
+    bus.flush();
+    bus.publish(CacheInvalidation.ofComponent("kmelia3"));
+    bus.flush();
+
+    assertThat(bus.sent.size(), is(2));
+    assertThat(bus.sent.get(0).getSequence(), is(1L));
+    assertThat(bus.sent.get(0).getInvalidations(),
+        contains(CacheInvalidation.ofUser("1"), CacheInvalidation.ofSpace(2)));
+    assertThat(bus.sent.get(1).getSequence(), is(2L));
+  }
+
+  @Test
+  public void anInvalidationOfAllTheCachesSupersedesTheOtherOnes() {
+    bus.publish(CacheInvalidation.ofUser("1"));
+    bus.publish(CacheInvalidation.all());
+    bus.flush();
+    assertThat(bus.sent.get(0).getInvalidations(), contains(CacheInvalidation.all()));
+  }
+
+  @Test
+  public void theBatchesSentByItselfAreIgnored() {
+    bus.publish(CacheInvalidation.ofUser("1"));
+    bus.flush();
+    bus.receive(bus.sent.get(0));
+    assertThat(received, is(empty()));
+  }
+
+  @Test
+  public void theBatchesOfAnotherNodeAreDispatchedInSequence() {
+    bus.receive(aBatch(1, CacheInvalidation.ofUser("1"), CacheInvalidation.ofGroup("2")));
+    bus.receive(aBatch(2, CacheInvalidation.ofDomain("3")));
+    assertThat(received, contains(CacheInvalidation.ofUser("1"), CacheInvalidation.ofGroup("2"),
+        CacheInvalidation.ofDomain("3")));
+  }
+
+  @Test
+  public void allTheCachesAreInvalidatedWhenSomeBatchesAreMissed() {
+    bus.receive(aBatch(1, CacheInvalidation.ofUser("1")));
+    bus.receive(aBatch(3, CacheInvalidation.ofDomain("3")));
+    assertThat(received, contains(CacheInvalidation.ofUser("1"), CacheInvalidation.all()));
+  }
+
+  @Test
+  public void aBatchReceivedAgainOrAfterAMoreRecentOneIsIgnored() {
+    bus.receive(aBatch(1, CacheInvalidation.ofUser("1")));
+    bus.receive(aBatch(2, CacheInvalidation.ofUser("2")));
+    bus.receive(aBatch(2, CacheInvalidation.ofUser("2")));
+    bus.receive(aBatch(1, CacheInvalidation.ofUser("1")));
+    bus.receive(aBatch(3, CacheInvalidation.ofUser("3")));
+    assertThat(received, contains(CacheInvalidation.ofUser("1"), CacheInvalidation.ofUser("2"),
+        CacheInvalidation.ofUser("3")));
+  }
+
+  @Test
+  public void aLateBatchAfterAGapDoesNotInvalidateAllTheCachesAgain() {
+    bus.receive(aBatch(1, CacheInvalidation.ofUser("1")));
+    bus.receive(aBatch(3, CacheInvalidation.ofUser("3")));
+    bus.receive(aBatch(2, CacheInvalidation.ofUser("2")));
+    bus.receive(aBatch(4, CacheInvalidation.ofUser("4")));
+    assertThat(received, contains(CacheInvalidation.ofUser("1"), CacheInvalidation.all(),
+        CacheInvalidation.ofUser("4")));
+  }
+
+  @Test
+  public void theFirstBatchReceivedFromANodeIsNotAGap() {
+    bus.receive(aBatch(7, CacheInvalidation.ofUser("7")));
+    assertThat(received, contains(CacheInvalidation.ofUser("7")));
+  }
+
+  private static CacheInvalidationBatch aBatch(long sequence, CacheInvalidation... invalidations) {
+    return new CacheInvalidationBatch("anotherNode", sequence, Arrays.asList(invalidations));
+  }
+
+  private static class TestBus extends CacheInvalidationBus {
+
+    private final List<CacheInvalidationBatch> sent = new ArrayList<>();
+
+    TestBus() {
+      enabled = true;
+    }
+
+    @Override
+    protected void scheduleFlush() {
+      // the flush is explicitly triggered by the tests
+    }
+
+    @Override
+    protected void send(final CacheInvalidationBatch batch) {
+      sent.add(batch);
+    }
+  }
+}
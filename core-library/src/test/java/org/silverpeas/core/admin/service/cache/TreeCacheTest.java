@@ -0,0 +1,132 @@
+/*
+ * Copyright (C) 2000 - 2018 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.admin.service.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.silverpeas.core.admin.component.model.ComponentInstLight;
+import org.silverpeas.core.admin.space.SpaceInstLight;
+import org.silverpeas.core.admin.space.model.Space;
+import org.silverpeas.core.test.UnitTest;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Unit tests on the snapshots of the organizational tree cached by the {@link TreeCache}.
+ */
+@UnitTest
+public class TreeCacheTest {
+
+  private TreeCache treeCache;
+
+  @BeforeEach
+  public void loadTheTree() {
+    // WA1 > WA2 > WA3, with kmelia1 in WA1 and almanach2 in WA3
+    SpaceInstLight space1 = aSpace(1, 0);
+    SpaceInstLight space2 = aSpace(2, 1);
+    SpaceInstLight space3 = aSpace(3, 2);
+    treeCache = new TreeCache();
+    treeCache.setSpaces(Arrays.asList(
+        aSpaceInCache(space1, Collections.singletonList(aComponent("kmelia", 1, 1)), space2),
+        aSpaceInCache(space2, Collections.emptyList(), space3),
+        aSpaceInCache(space3, Collections.singletonList(aComponent("almanach", 2, 3)))));
+  }
+
+  @Test
+  public void theTreeIsLoadedAtOnce() {
+    assertThat(treeCache.getVersion(), is(1L));
+    assertThat(treeCache.getSpaceLevel(3), is(2));
+    assertThat(treeCache.getComponentPath("almanach2").size(), is(3));
+    assertThat(treeCache.getSpaceContainingComponent("kmelia1").get().getLocalId(), is(1));
+    assertThat(treeCache.getComponentsInSpaceAndSubspaces(2).size(), is(1));
+  }
+
+  @Test
+  public void eachModificationGivesANewVersion() {
+    treeCache.addComponent(aComponent("blog", 3, 2), 2);
+    assertThat(treeCache.getVersion(), is(2L));
+    assertThat(treeCache.getComponent("blog3").isPresent(), is(true));
+
+    treeCache.removeComponent(2, "blog3");
+    assertThat(treeCache.getVersion(), is(3L));
+    assertThat(treeCache.getComponent("blog3").isPresent(), is(false));
+
+    treeCache.removeComponent(2, "blog3");
+    assertThat(treeCache.getVersion(), is(3L));
+  }
+
+  @Test
+  public void aSnapshotIsntModifiedByTheFollowingModifications() {
+    List<SpaceInstLight> subspaces = treeCache.getSubSpaces(1);
+    treeCache.addSubSpace(1, aSpace(4, 1));
+    assertThat(subspaces.size(), is(1));
+    assertThat(treeCache.getSubSpaces(1).size(), is(2));
+  }
+
+  @Test
+  public void theRemovalOfASpaceRemovesAlsoItsDescendants() {
+    treeCache.removeSpace(2);
+    assertThat(treeCache.getSpaceInstLight(3).isPresent(), is(false));
+    assertThat(treeCache.getComponent("almanach2").isPresent(), is(false));
+    assertThat(treeCache.getComponent("kmelia1").isPresent(), is(true));
+  }
+
+  @Test
+  public void aComponentMovedToAnotherSpaceIsFoundInItsNewSpace() {
+    ComponentInstLight kmelia = aComponent("kmelia", 1, 3);
+    treeCache.setComponents(3, Arrays.asList(treeCache.getComponent("almanach2").get(), kmelia));
+    treeCache.setComponents(1, Collections.emptyList());
+    assertThat(treeCache.getSpaceContainingComponent("kmelia1").get().getLocalId(), is(3));
+    assertThat(treeCache.getComponentIds(3), contains("almanach2", "kmelia1"));
+  }
+
+  private static SpaceInstLight aSpace(int localId, int fatherId) {
+    SpaceInstLight space = new SpaceInstLight();
+    space.setLocalId(localId);
+    space.setFatherId(fatherId);
+    return space;
+  }
+
+  private static ComponentInstLight aComponent(String name, int localId, int spaceId) {
+    ComponentInstLight component = new ComponentInstLight();
+    component.setName(name);
+    component.setLocalId(localId);
+    component.setDomainFatherId("WA" + spaceId);
+    return component;
+  }
+
+  private static Space aSpaceInCache(SpaceInstLight space, List<ComponentInstLight> components,
+      SpaceInstLight... subspaces) {
+    Space spaceInCache = new Space();
+    spaceInCache.setSpaceInstLight(space);
+    spaceInCache.setComponents(components);
+    spaceInCache.setSubspaces(Arrays.asList(subspaces));
+    return spaceInCache;
+  }
+}
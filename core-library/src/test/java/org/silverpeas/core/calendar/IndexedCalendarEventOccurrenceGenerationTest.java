@@ -0,0 +1,235 @@
+/*
+ * Copyright (C) 2000 - 2018 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.calendar;
+
+import org.apache.commons.lang3.reflect.FieldUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.silverpeas.core.admin.service.OrganizationController;
+import org.silverpeas.core.admin.user.model.UserDetail;
+import org.silverpeas.core.calendar.ical4j.ICal4JCalendarEventOccurrenceGenerator;
+import org.silverpeas.core.calendar.ical4j.ICal4JDateCodec;
+import org.silverpeas.core.calendar.ical4j.ICal4JRecurrenceCodec;
+import org.silverpeas.core.calendar.repository.CalendarEventOccurrenceRepository;
+import org.silverpeas.core.date.Period;
+import org.silverpeas.core.persistence.datasource.OperationContext;
+import org.silverpeas.core.persistence.datasource.model.jpa.JpaPersistOperation;
+import org.silverpeas.core.persistence.datasource.model.jpa.JpaUpdateOperation;
+import org.silverpeas.core.test.extention.EnableSilverTestEnv;
+import org.silverpeas.core.test.extention.TestManagedBeans;
+import org.silverpeas.core.test.extention.TestManagedMock;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.TimeZone;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static java.time.DayOfWeek.FRIDAY;
+import static java.time.DayOfWeek.MONDAY;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+import static org.silverpeas.core.date.TimeUnit.DAY;
+import static org.silverpeas.core.date.TimeUnit.MONTH;
+import static org.silverpeas.core.date.TimeUnit.WEEK;
+
+/**
+ * Unit tests on the generation of the occurrences of recurrent events from their index: the
+ * occurrences of the identified recurrent events are indexed whereas the ones of the other events
+ * are always computed by iCal4J, so both should be the same.
+ */
+@EnableSilverTestEnv
+@TestManagedBeans({JpaPersistOperation.class, JpaUpdateOperation.class})
+public class IndexedCalendarEventOccurrenceGenerationTest {
+
+  private static final ZoneId PARIS_ZONE_ID = ZoneId.of("Europe/Paris");
+  private static final ZoneId UTC_ZONE_ID = ZoneId.of("UTC");
+
+  private CalendarEventOccurrenceGenerator generator =
+      new ICal4JCalendarEventOccurrenceGenerator(new ICal4JDateCodec(),
+          new ICal4JRecurrenceCodec(new ICal4JDateCodec()));
+
+  @BeforeEach
+  public void mockCalendarOccurrenceRepository(
+      @TestManagedMock CalendarEventOccurrenceRepository repository,
+      @TestManagedMock OrganizationController organizationController) {
+    when(organizationController.getUserDetail(anyString())).thenAnswer(a -> {
+      String id = a.getArgument(0);
+      UserDetail user = new UserDetail();
+      user.setId(id);
+      return user;
+    });
+    when(repository.getAll(anyCollection(), any(Period.class))).thenReturn(Collections.emptyList());
+
+    OperationContext.fromUser("0");
+  }
+
+  @Test
+  public void indexedOccurrencesOfAWeeklyEventWithExceptionsAreTheComputedOnes() {
+    assertSameOccurrencesInSlidingWindows(() -> calendarEventForTest(
+        Period.between(dateTimeInUTC(2016, 3, 4, 9, 0), dateTimeInUTC(2016, 3, 4, 9, 15)),
+        UTC_ZONE_ID).recur(Recurrence.every(WEEK)
+        .on(FRIDAY)
+        .excludeEventOccurrencesStartingAt(date(2016, 7, 15), date(2016, 7, 22))));
+  }
+
+  @Test
+  public void indexedOccurrencesOfAnEndlessDailyEventOnParisAreTheComputedOnes() {
+    assertSameOccurrencesInSlidingWindows(() -> calendarEventForTest(
+        Period.between(dateTimeOnParis(2016, 3, 20, 23, 30), dateTimeOnParis(2016, 3, 21, 1, 0)),
+        PARIS_ZONE_ID).recur(Recurrence.every(2, DAY)));
+  }
+
+  @Test
+  public void indexedOccurrencesOfAMonthlyAllDayEventAreTheComputedOnes() {
+    assertSameOccurrencesInSlidingWindows(
+        () -> calendarEventForTest(Period.between(date(2016, 4, 11), date(2016, 4, 13)),
+            UTC_ZONE_ID).recur(Recurrence.every(MONTH)
+            .on(DayOfWeekOccurrence.nth(2, MONDAY))
+            .until(20)));
+  }
+
+  @Test
+  public void indexedOccurrencesAreInvalidatedByAChangeInTheRecurrence() {
+    final Period inPeriod =
+        Period.between(dateTimeInUTC(2016, 7, 1, 0, 0), dateTimeInUTC(2016, 8, 1, 0, 0));
+    CalendarEvent event = calendarEventForTest(
+        Period.between(dateTimeInUTC(2016, 3, 4, 9, 0), dateTimeInUTC(2016, 3, 4, 9, 15)),
+        UTC_ZONE_ID).identifiedBy("calendar1", "1").recur(Recurrence.every(WEEK).on(FRIDAY));
+    assertThat(generator.generateOccurrencesOf(Collections.singletonList(event), inPeriod),
+        hasSize(5));
+
+    event.getRecurrence().excludeEventOccurrencesStartingAt(date(2016, 7, 15));
+    assertThat(generator.generateOccurrencesOf(Collections.singletonList(event), inPeriod),
+        hasSize(4));
+
+    event.recur(Recurrence.every(2, WEEK).on(FRIDAY));
+    assertThat(generator.generateOccurrencesOf(Collections.singletonList(event), inPeriod),
+        hasSize(3));
+  }
+
+  private void assertSameOccurrencesInSlidingWindows(final Supplier<CalendarEvent> events) {
+    final CalendarEvent indexedEvent = events.get().identifiedBy("calendar1", "1");
+    final CalendarEvent computedEvent = events.get();
+    // windows sliding forward, backward, touching the occurrences and far beyond the first ones
+    OffsetDateTime start = dateTimeInUTC(2016, 1, 1, 0, 0);
+    for (int i = 0; i < 80; i++) {
+      assertSameOccurrences(indexedEvent, computedEvent,
+          Period.between(start.plusWeeks(i), start.plusWeeks(i + 1)));
+    }
+    for (int i = 80; i >= 0; i -= 7) {
+      assertSameOccurrences(indexedEvent, computedEvent,
+          Period.between(start.plusDays(i), start.plusDays(i + 3)));
+    }
+    final List<CalendarEventOccurrence> occurrences = generator.generateOccurrencesOf(
+        Collections.singletonList(computedEvent),
+        Period.between(start, start.plusYears(1)));
+    for (CalendarEventOccurrence occurrence : occurrences.subList(0, 5)) {
+      final OffsetDateTime occurStart = asOffsetDateTime(occurrence.getStartDate());
+      final OffsetDateTime occurEnd = asOffsetDateTime(occurrence.getEndDate());
+      assertSameOccurrences(indexedEvent, computedEvent,
+          Period.between(occurStart.minusDays(1), occurStart));
+      assertSameOccurrences(indexedEvent, computedEvent,
+          Period.between(occurEnd, occurEnd.plusDays(1)));
+    }
+    assertSameOccurrences(indexedEvent, computedEvent,
+        Period.between(dateTimeInUTC(2031, 2, 1, 0, 0), dateTimeInUTC(2031, 4, 1, 0, 0)));
+    assertSameOccurrences(indexedEvent, computedEvent,
+        Period.between(dateTimeInUTC(2015, 1, 1, 0, 0), dateTimeInUTC(2019, 1, 1, 0, 0)));
+
+    final ZonedDateTime since = ZonedDateTime.of(2016, 6, 1, 12, 0, 0, 0, UTC_ZONE_ID);
+    for (int i = 0; i < 10; i++) {
+      assertThat(
+          asString(generator.generateNextOccurrenceOf(indexedEvent, since.plusDays(i * 9))),
+          is(asString(generator.generateNextOccurrenceOf(computedEvent, since.plusDays(i * 9)))));
+    }
+  }
+
+  private void assertSameOccurrences(final CalendarEvent indexedEvent,
+      final CalendarEvent computedEvent, final Period inPeriod) {
+    List<String> expected =
+        generator.generateOccurrencesOf(Collections.singletonList(computedEvent), inPeriod)
+            .stream()
+            .map(this::asString)
+            .collect(Collectors.toList());
+    List<String> actual =
+        generator.generateOccurrencesOf(Collections.singletonList(indexedEvent), inPeriod)
+            .stream()
+            .map(this::asString)
+            .collect(Collectors.toList());
+    assertThat("in " + inPeriod.getStartDate() + " - " + inPeriod.getEndDate(), actual,
+        is(expected));
+  }
+
+  private String asString(final CalendarEventOccurrence occurrence) {
+    return occurrence == null ? "none" :
+        occurrence.getStartDate() + " - " + occurrence.getEndDate();
+  }
+
+  private OffsetDateTime asOffsetDateTime(final java.time.temporal.Temporal temporal) {
+    return temporal instanceof LocalDate ?
+        ((LocalDate) temporal).atStartOfDay().atOffset(ZoneOffset.UTC) :
+        (OffsetDateTime) temporal;
+  }
+
+  private CalendarEvent calendarEventForTest(Period period, ZoneId calendarZoneId) {
+    CalendarEvent event = CalendarEvent.on(period).withTitle("an event title");
+    Calendar calendar = new Calendar();
+    calendar.setZoneId(calendarZoneId);
+    try {
+      FieldUtils.writeDeclaredField(event.asCalendarComponent(), "calendar", calendar, true);
+    } catch (IllegalAccessException e) {
+      throw new RuntimeException(e);
+    }
+    return event;
+  }
+
+  private static LocalDate date(int year, int month, int day) {
+    return LocalDate.of(year, month, day);
+  }
+
+  private static OffsetDateTime dateTimeInUTC(int year, int month, int day, int hour, int minute) {
+    return OffsetDateTime.of(year, month, day, hour, minute, 0, 0, ZoneOffset.UTC);
+  }
+
+  private static OffsetDateTime dateTimeOnParis(int year, int month, int day, int hour,
+      int minute) {
+    return ZonedDateTime.of(year, month, day, hour, minute, 0, 0, PARIS_ZONE_ID).toOffsetDateTime();
+  }
+
+  static {
+    // This static block permits to ensure that the UNIT TEST is entirely executed into UTC
+    // TimeZone.
+    TimeZone.setDefault(TimeZone.getTimeZone(UTC_ZONE_ID));
+  }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright (C) 2000 - 2018 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.index.indexing.model;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.silverpeas.core.index.indexing.IndexFileManager;
+import org.silverpeas.core.test.extention.EnableSilverTestEnv;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Set;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Unit tests on the interruption and on the resumption of the build of a new generation of the
+ * indexes.
+ */
+@EnableSilverTestEnv
+public class IndexGenerationTest {
+
+  private File indexDir;
+
+  @BeforeEach
+  public void setUpIndexDirectory() throws Exception {
+    indexDir = Files.createTempDirectory("index").toFile();
+    IndexFileManager.configure(indexDir.getPath());
+  }
+
+  @AfterEach
+  public void endTheBuild() {
+    IndexGeneration.interrupt();
+    FileUtils.deleteQuietly(indexDir);
+    FileUtils.deleteQuietly(IndexGeneration.getCheckpointFile().getParentFile());
+  }
+
+  @Test
+  public void aNewGenerationCannotBeStartedTwice() {
+    assertThat(IndexGeneration.start(false), is(empty()));
+    assertThat(IndexGeneration.isBuilding(), is(true));
+    assertThrows(IllegalStateException.class, () -> IndexGeneration.start(true));
+  }
+
+  @Test
+  public void anInterruptedGenerationIsNoMoreBuiltButIsResumable() {
+    IndexGeneration.start(false);
+    IndexGeneration.recordCheckpoint("WA1");
+    IndexGeneration.interrupt();
+    assertThat(IndexGeneration.isBuilding(), is(false));
+    assertThat(IndexGeneration.isDone("WA1"), is(false));
+    assertThat(IndexGeneration.isResumable(), is(true));
+  }
+
+  @Test
+  public void aResumedGenerationSkipsTheUnitsAlreadyDone() {
+    IndexGeneration.start(false);
+    IndexGeneration.recordCheckpoint("WA1");
+    IndexGeneration.recordCheckpoint("users");
+    IndexGeneration.interrupt();
+
+    Set<String> alreadyDone = IndexGeneration.start(true);
+    assertThat(alreadyDone, containsInAnyOrder("WA1", "users"));
+    assertThat(IndexGeneration.isDone("WA1"), is(true));
+    assertThat(IndexGeneration.isDone("kmelia2"), is(false));
+  }
+
+  @Test
+  public void anInterruptedGenerationIsDiscardedWhenNotResumed() {
+    IndexGeneration.start(false);
+    IndexGeneration.recordCheckpoint("WA1");
+    IndexGeneration.interrupt();
+
+    assertThat(IndexGeneration.start(false), is(empty()));
+    assertThat(IndexGeneration.isDone("WA1"), is(false));
+    IndexGeneration.interrupt();
+    assertThat(IndexGeneration.start(true), is(empty()));
+  }
+}
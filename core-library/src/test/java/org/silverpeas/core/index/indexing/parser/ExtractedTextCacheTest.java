@@ -0,0 +1,67 @@
+/*
+ * Copyright (C) 2000 - 2018 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.index.indexing.parser;
+
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+/**
+ * Unit tests on the cache of the texts extracted from the files to index.
+ */
+public class ExtractedTextCacheTest {
+
+  @Test
+  public void leastRecentlyUsedTextsAreEvictedWhenTheCacheIsFull() {
+    ExtractedTextCache cache = new ExtractedTextCache(10);
+    cache.put("a", "0123");
+    cache.put("b", "4567");
+    assertThat(cache.get("a"), is("0123"));
+    cache.put("c", "89ab");
+    assertThat(cache.size(), is(2));
+    assertThat(cache.get("b"), is(nullValue()));
+    assertThat(cache.get("a"), is("0123"));
+    assertThat(cache.get("c"), is("89ab"));
+  }
+
+  @Test
+  public void textsBiggerThanTheCacheAreNotCached() {
+    ExtractedTextCache cache = new ExtractedTextCache(3);
+    cache.put("a", "0123");
+    assertThat(cache.get("a"), is(nullValue()));
+    assertThat(cache.size(), is(0));
+  }
+
+  @Test
+  public void replacingATextUpdatesTheCacheSize() {
+    ExtractedTextCache cache = new ExtractedTextCache(8);
+    cache.put("a", "0123");
+    cache.put("a", "01234567");
+    assertThat(cache.get("a"), is("01234567"));
+    cache.put("b", "");
+    assertThat(cache.size(), is(2));
+  }
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright (C) 2000 - 2018 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.index.indexing.parser;
+
+import org.apache.commons.lang3.reflect.FieldUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.silverpeas.core.index.indexing.model.FileDescription;
+import org.silverpeas.core.test.extention.EnableSilverTestEnv;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests on the scheduling of the text extractions.
+ */
+@EnableSilverTestEnv
+public class TextExtractionServiceTest {
+
+  private static final int TIMEOUT = 300;
+  private static final int PARSING_TIME = 200;
+
+  private final List<File> files = new ArrayList<>();
+  private final CountDownLatch stuckParser = new CountDownLatch(1);
+  private TextExtractionService service;
+
+  @BeforeEach
+  public void setUp() throws Exception {
+    final ParserManager parserManager = mock(ParserManager.class);
+    when(parserManager.getParser(anyString())).thenReturn(new SlowParser());
+    service = new TextExtractionService();
+    FieldUtils.writeField(service, "parserManager", parserManager, true);
+    FieldUtils.writeField(service, "timeout", TIMEOUT, true);
+    FieldUtils.writeField(service, "maxThreads", 1, true);
+    FieldUtils.writeField(service, "maxTextLength", 1000, true);
+    FieldUtils.writeField(service, "cache", new ExtractedTextCache(0), true);
+  }
+
+  @AfterEach
+  public void tearDown() {
+    stuckParser.countDown();
+    files.forEach(File::delete);
+  }
+
+  @Test
+  public void theTimeSpentInTheQueueIsNotCountedInTheTimeout() throws IOException {
+    final FileDescription first = newFile("slow");
+    final FileDescription second = newFile("slow");
+    final FileDescription third = newFile("slow");
+    service.prefetch(first);
+    service.prefetch(second);
+    service.prefetch(third);
+    // the third file waits twice the parsing time in the queue, more than the timeout
+    assertThat(service.extract(third), is(new File(third.getPath()).getName()));
+    assertThat(service.extract(first), is(new File(first.getPath()).getName()));
+  }
+
+  @Test
+  public void aParsingExceedingTheTimeoutIsIndexedWithoutContent() throws IOException {
+    final FileDescription file = newFile("stuck");
+    assertThat(service.extract(file), is(""));
+  }
+
+  @Test
+  public void theSlotOfAStuckParserIsTakenBackAfterASecondTimeout() throws IOException {
+    final FileDescription stuck = newFile("stuck");
+    final FileDescription next = newFile("fast");
+    assertThat(service.extract(stuck), is(""));
+    // the single slot is still held by the parser ignoring its interruption
+    assertThat(service.extract(next), is(new File(next.getPath()).getName()));
+  }
+
+  private FileDescription newFile(final String kind) throws IOException {
+    final File file = File.createTempFile(kind, ".txt");
+    files.add(file);
+    return new FileDescription(file.getPath(), "UTF-8", "text/plain", "fr");
+  }
+
+  /**
+   * A parser returning the name of the parsed file. The parsing is slow or stuck according to
+   * the prefix of the name; a stuck parsing ignores the interruption of the thread.
+   */
+  private class SlowParser implements Parser {
+
+    @Override
+    public Reader getReader(final String path, final String encoding) {
+      return null;
+    }
+
+    @Override
+    public String getText(final String path, final String encoding, final int maxLength) {
+      final String name = new File(path).getName();
+      if (name.startsWith("slow")) {
+        sleep(PARSING_TIME);
+      } else if (name.startsWith("stuck")) {
+        while (stuckParser.getCount() > 0) {
+          sleep(10);
+        }
+      }
+      return name;
+    }
+
+    private void sleep(final long time) {
+      try {
+        Thread.sleep(time);
+      } catch (InterruptedException e) {
+        // the interruption is deliberately ignored to simulate a faulty parser
+      }
+    }
+  }
+}
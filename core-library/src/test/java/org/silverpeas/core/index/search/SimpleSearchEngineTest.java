@@ -0,0 +1,119 @@
+/*
+ * Copyright (C) 2000 - 2018 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.index.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.mockito.ArgumentCaptor;
+import org.silverpeas.core.admin.service.Administration;
+import org.silverpeas.core.index.indexing.model.IndexEntryKey;
+import org.silverpeas.core.index.search.model.DidYouMeanSearcher;
+import org.silverpeas.core.index.search.model.FacetCounts;
+import org.silverpeas.core.index.search.model.IndexSearcher;
+import org.silverpeas.core.index.search.model.MatchingIndexEntry;
+import org.silverpeas.core.index.search.model.QueryDescription;
+import org.silverpeas.core.test.extention.EnableSilverTestEnv;
+import org.silverpeas.core.test.extention.SettingBundleStub;
+import org.silverpeas.core.test.extention.TestManagedMock;
+
+import java.lang.reflect.Constructor;
+
+import static org.apache.commons.lang3.reflect.FieldUtils.writeDeclaredField;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests on the filtering of the results of a search according to the rights of the
+ * searching user.
+ */
+@EnableSilverTestEnv
+public class SimpleSearchEngineTest {
+
+  private static final String USER_ID = "26";
+
+  @RegisterExtension
+  SettingBundleStub pdcSettings =
+      new SettingBundleStub("org.silverpeas.pdcPeas.settings.pdcPeasSettings");
+
+  @TestManagedMock
+  private IndexSearcher indexSearcher;
+  @TestManagedMock
+  private DidYouMeanSearcher didYouMeanSearcher;
+  @TestManagedMock
+  private Administration administration;
+
+  private SimpleSearchEngine searchEngine;
+
+  @BeforeEach
+  public void setUpSearchEngine() throws Exception {
+    Constructor<SimpleSearchEngine> constructor = SimpleSearchEngine.class.getDeclaredConstructor();
+    constructor.setAccessible(true);
+    searchEngine = constructor.newInstance();
+    writeDeclaredField(searchEngine, "indexSearcher", indexSearcher, true);
+    writeDeclaredField(searchEngine, "didYouMeanSearcher", didYouMeanSearcher, true);
+  }
+
+  @Test
+  public void theEntriesAreFilteredButTheFacetsAreThoseCountedByTheSearch() throws Exception {
+    MatchingIndexEntry allowed = componentEntry("almanach1", "1");
+    MatchingIndexEntry forbidden = componentEntry("kmelia2", "2");
+    QueryDescription query = new QueryDescription("silverpeas");
+    query.setSearchingUser(USER_ID);
+    ArgumentCaptor<FacetCounts> facetCounts = ArgumentCaptor.forClass(FacetCounts.class);
+    when(indexSearcher.search(eq(query), facetCounts.capture()))
+        .thenReturn(new MatchingIndexEntry[]{allowed, forbidden});
+    when(administration.getAvailCompoIds(USER_ID)).thenReturn(new String[]{"almanach1"});
+
+    PlainSearchResult result = searchEngine.search(query);
+
+    assertThat(result.getEntries(), contains(allowed));
+    assertThat(result.getFacetCounts(), sameInstance(facetCounts.getValue()));
+  }
+
+  @Test
+  public void noEntryIsReturnedWhenTheUserCannotAccessAnyOfThem() throws Exception {
+    QueryDescription query = new QueryDescription("silverpeas");
+    query.setSearchingUser(USER_ID);
+    when(indexSearcher.search(eq(query), any(FacetCounts.class))).thenReturn(
+        new MatchingIndexEntry[]{componentEntry("kmelia2", "2")});
+    when(administration.getAvailCompoIds(USER_ID)).thenReturn(new String[0]);
+
+    PlainSearchResult result = searchEngine.search(query);
+
+    assertThat(result.getEntries().isEmpty(), is(true));
+  }
+
+  private MatchingIndexEntry componentEntry(final String componentId, final String author) {
+    MatchingIndexEntry entry =
+        new MatchingIndexEntry(new IndexEntryKey("Components", "Component", componentId));
+    entry.setCreationUser(author);
+    return entry;
+  }
+}
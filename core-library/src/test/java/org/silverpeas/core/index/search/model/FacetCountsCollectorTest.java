@@ -0,0 +1,159 @@
+/*
+ * Copyright (C) 2000 - 2018 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.index.search.model;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.SortedSetDocValuesField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.search.MultiCollector;
+import org.apache.lucene.search.TopScoreDocCollector;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.util.BytesRef;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.silverpeas.core.admin.ObjectType;
+import org.silverpeas.core.admin.component.model.SilverpeasComponentInstance;
+import org.silverpeas.core.admin.service.OrganizationController;
+import org.silverpeas.core.index.indexing.model.IndexManager;
+import org.silverpeas.core.security.authorization.ComponentAccessControl;
+import org.silverpeas.core.test.extention.EnableSilverTestEnv;
+import org.silverpeas.core.test.extention.TestManagedMock;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasEntry;
+import static org.hamcrest.Matchers.hasKey;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests on the counting of the facets over all the index entries matching a query and not
+ * only over the top entries returned by the search.
+ */
+@EnableSilverTestEnv
+public class FacetCountsCollectorTest {
+
+  private static final String USER_ID = "26";
+  private static final int MAX_RESULTS = 2;
+
+  @TestManagedMock
+  private OrganizationController organizationController;
+  @TestManagedMock
+  private ComponentAccessControl componentAccessControl;
+
+  private File indexDir;
+  private Directory directory;
+
+  @BeforeEach
+  public void setUpIndex() throws Exception {
+    when(organizationController.getComponentInstance(anyString()))
+        .thenReturn(Optional.of(mock(SilverpeasComponentInstance.class)));
+    when(componentAccessControl.isRightOnTopicsEnabled("kmelia1")).thenReturn(true);
+    when(organizationController.getUserObjectProfiles(USER_ID, "kmelia1", ObjectType.NODE))
+        .thenReturn(Collections.singletonMap(2, Collections.singletonList("user")));
+
+    indexDir = Files.createTempDirectory("index").toFile();
+    directory = FSDirectory.open(indexDir.toPath());
+    // two commits so that the entries are spread over two index segments
+    try (IndexWriter writer = new IndexWriter(directory, new IndexWriterConfig())) {
+      writer.addDocument(entry("publication1", "kmelia1", "1", null));
+      writer.addDocument(entry("publication2", "kmelia1", "1", "2"));
+      writer.addDocument(entry("publication3", "kmelia1", "2", "3"));
+      writer.commit();
+      writer.addDocument(entry("publication4", "kmelia1", "1", null));
+      writer.addDocument(entry("publication5", "kmelia1", "2", "2"));
+      writer.addDocument(entry("publication6", "kmelia1", "3", "3"));
+    }
+  }
+
+  @AfterEach
+  public void deleteIndex() throws Exception {
+    directory.close();
+    FileUtils.deleteQuietly(indexDir);
+  }
+
+  @Test
+  public void theFacetsAreCountedOverAllTheAccessibleEntriesAndNotOnlyTheReturnedOnes()
+      throws Exception {
+    final SearchNodeRights nodeRights =
+        new SearchNodeRights(USER_ID, Collections.singletonList("kmelia1"));
+    final FacetCounts facetCounts = new FacetCounts();
+    final int nbReturned;
+    try (DirectoryReader reader = DirectoryReader.open(directory)) {
+      assertThat(reader.leaves().size(), is(2));
+      final org.apache.lucene.search.IndexSearcher searcher =
+          new org.apache.lucene.search.IndexSearcher(reader);
+      final TopScoreDocCollector topCollector = TopScoreDocCollector.create(MAX_RESULTS);
+      final FacetCountsCollector facetCollector = new FacetCountsCollector(facetCounts);
+      searcher.search(nodeRights.getFilter(), MultiCollector.wrap(topCollector, facetCollector));
+      facetCollector.finish();
+      nbReturned = topCollector.topDocs().scoreDocs.length;
+    }
+
+    assertThat(nbReturned, is(MAX_RESULTS));
+    final Map<String, Integer> authors = facetCounts.getCounts(FacetCounts.AUTHOR);
+    assertThat(authors, hasEntry("1", 3));
+    assertThat(authors, hasEntry("2", 1));
+    // the entries restricted to the node 3 aren't accessible and then aren't counted
+    assertThat(authors, not(hasKey("3")));
+    assertThat(facetCounts.getCounts(FacetCounts.COMPONENT), hasEntry("kmelia1", 4));
+  }
+
+  /**
+   * Builds a document as indexed by the {@link IndexManager} with only the fields used to
+   * restrict the access to the entry and the doc values of its facets.
+   */
+  private static Document entry(final String id, final String componentId, final String author,
+      final String nodeId) {
+    final Document doc = new Document();
+    doc.add(new StringField(IndexManager.ID, id, Field.Store.YES));
+    doc.add(new StringField(IndexManager.SCOPE, componentId, Field.Store.YES));
+    doc.add(new SortedSetDocValuesField(IndexManager.FACET_PREFIX + FacetCounts.COMPONENT,
+        new BytesRef(componentId)));
+    doc.add(new SortedSetDocValuesField(IndexManager.FACET_PREFIX + FacetCounts.AUTHOR,
+        new BytesRef(author)));
+    if (nodeId != null) {
+      doc.add(new StringField(IndexManager.RESTRICTIONS, IndexManager.NODE_RIGHTS,
+          Field.Store.NO));
+      doc.add(new StringField(IndexManager.NODE_RIGHTS,
+          IndexManager.getNodeRightsToken(componentId, nodeId), Field.Store.NO));
+    }
+    return doc;
+  }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright (C) 2000 - 2018 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.index.search.model;
+
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.ScoreDoc;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+/**
+ * Unit tests on the leases of the index readers used by the paginated searches.
+ */
+public class SearchLeasesTest {
+
+  @Test
+  public void noCursorIsRequiredWhenTheLastPageIsExactlyFull() {
+    SearchLeases.SearchLease lease = newLease(query("silverpeas", "26"));
+    assertThat(lease.consume(10, 20), is(true));
+    assertThat(lease.consume(10, 20), is(false));
+    SearchLeases.release(lease);
+  }
+
+  @Test
+  public void noCursorIsRequiredWhenThePageIsEmptyOrIncomplete() {
+    SearchLeases.SearchLease lease = newLease(query("silverpeas", "26"));
+    assertThat(lease.consume(0, 5), is(false));
+    assertThat(newLease(query("silverpeas", "26")).consume(5, 20), is(true));
+    assertThat(newLease(query("silverpeas", "26")).consume(3, 3), is(false));
+  }
+
+  @Test
+  public void aCursorCanBeTakenForTheSameQueryAndTheSameUser() {
+    SearchLeases.SearchLease lease = newLease(query("silverpeas", "26"));
+    String cursor = SearchLeases.register(lease, new ScoreDoc(9, 1.0f));
+    SearchLeases.SearchLease taken = SearchLeases.take(cursor, query("silverpeas", "26"));
+    assertThat(taken, is(sameInstance(lease)));
+    assertThat(SearchLeases.take(cursor, query("silverpeas", "26")), is(nullValue()));
+  }
+
+  @Test
+  public void aCursorCannotBeTakenByAnotherUser() {
+    SearchLeases.SearchLease lease = newLease(query("silverpeas", "26"));
+    String cursor = SearchLeases.register(lease, new ScoreDoc(9, 1.0f));
+    assertThat(SearchLeases.take(cursor, query("silverpeas", "38")), is(nullValue()));
+    // the lease is still available to its owner
+    assertThat(SearchLeases.take(cursor, query("silverpeas", "26")), is(notNullValue()));
+  }
+
+  @Test
+  public void aCursorCannotBeTakenForAnotherQuery() {
+    SearchLeases.SearchLease lease = newLease(query("silverpeas", "26"));
+    String cursor = SearchLeases.register(lease, new ScoreDoc(9, 1.0f));
+    assertThat(SearchLeases.take(cursor, query("kmelia", "26")), is(nullValue()));
+    QueryDescription otherScope = query("silverpeas", "26");
+    otherScope.addComponent("kmelia2");
+    assertThat(SearchLeases.take(cursor, otherScope), is(nullValue()));
+    assertThat(SearchLeases.take(cursor, query("silverpeas", "26")), is(notNullValue()));
+  }
+
+  private SearchLeases.SearchLease newLease(final QueryDescription description) {
+    return SearchLeases.lease(new ArrayList<>(), new MatchAllDocsQuery(), description);
+  }
+
+  private QueryDescription query(final String text, final String userId) {
+    QueryDescription description = new QueryDescription(text);
+    description.addComponent("kmelia1");
+    description.setSearchingUser(userId);
+    return description;
+  }
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright (C) 2000 - 2018 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.silverpeas.core.index.search.model;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.silverpeas.core.admin.ObjectType;
+import org.silverpeas.core.admin.component.model.SilverpeasComponentInstance;
+import org.silverpeas.core.admin.service.OrganizationController;
+import org.silverpeas.core.index.indexing.model.IndexManager;
+import org.silverpeas.core.security.authorization.ComponentAccessControl;
+import org.silverpeas.core.test.extention.EnableSilverTestEnv;
+import org.silverpeas.core.test.extention.TestManagedMock;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests on the pruning by the search itself of the index entries restricted to the nodes
+ * with specific rights.
+ */
+@EnableSilverTestEnv
+public class SearchNodeRightsTest {
+
+  private static final String USER_ID = "26";
+
+  @TestManagedMock
+  private OrganizationController organizationController;
+  @TestManagedMock
+  private ComponentAccessControl componentAccessControl;
+
+  private File indexDir;
+  private Directory directory;
+
+  @BeforeEach
+  public void setUpIndex() throws Exception {
+    when(organizationController.getComponentInstance(anyString()))
+        .thenReturn(Optional.of(mock(SilverpeasComponentInstance.class)));
+    when(componentAccessControl.isRightOnTopicsEnabled("kmelia1")).thenReturn(true);
+    when(organizationController.getUserObjectProfiles(USER_ID, "kmelia1", ObjectType.NODE))
+        .thenReturn(Collections.singletonMap(2, Collections.singletonList("user")));
+
+    indexDir = Files.createTempDirectory("index").toFile();
+    directory = FSDirectory.open(indexDir.toPath());
+    try (IndexWriter writer = new IndexWriter(directory, new IndexWriterConfig())) {
+      writer.addDocument(entry("publication1", "kmelia1"));
+      writer.addDocument(entry("publication2", "kmelia1", "2"));
+      writer.addDocument(entry("publication3", "kmelia1", "3"));
+      writer.addDocument(entry("publication4", "kmelia1", "2", "3"));
+      writer.addDocument(entry("publication5", "kmelia2", "3"));
+    }
+  }
+
+  @AfterEach
+  public void deleteIndex() throws Exception {
+    directory.close();
+    FileUtils.deleteQuietly(indexDir);
+  }
+
+  @Test
+  public void theEntriesRestrictedToNodesTheUserCannotAccessAreFilteredOut() throws Exception {
+    SearchNodeRights nodeRights =
+        new SearchNodeRights(USER_ID, Collections.singletonList("kmelia1"));
+    assertThat(nodeRights.isFiltering(), is(true));
+    assertThat(search(nodeRights), containsInAnyOrder("publication1", "publication2",
+        "publication4"));
+  }
+
+  @Test
+  public void theNodeRestrictionsAreIgnoredWhereTheRightsOnTopicsAreDisabled() throws Exception {
+    SearchNodeRights nodeRights =
+        new SearchNodeRights(USER_ID, Arrays.asList("kmelia1", "kmelia2"));
+    assertThat(search(nodeRights), containsInAnyOrder("publication1", "publication2",
+        "publication4", "publication5"));
+  }
+
+  @Test
+  public void nothingIsFilteredWhenNoScopeHasRightsOnTopics() {
+    SearchNodeRights nodeRights =
+        new SearchNodeRights(USER_ID, Collections.singletonList("kmelia2"));
+    assertThat(nodeRights.isFiltering(), is(false));
+    verify(organizationController, never())
+        .getUserObjectProfiles(anyString(), anyString(), any());
+  }
+
+  private List<String> search(final SearchNodeRights nodeRights) throws Exception {
+    final List<String> ids = new ArrayList<>();
+    try (DirectoryReader reader = DirectoryReader.open(directory)) {
+      final org.apache.lucene.search.IndexSearcher searcher =
+          new org.apache.lucene.search.IndexSearcher(reader);
+      for (ScoreDoc hit : searcher.search(nodeRights.getFilter(), 10).scoreDocs) {
+        ids.add(searcher.doc(hit.doc).get(IndexManager.ID));
+      }
+    }
+    return ids;
+  }
+
+  /**
+   * Builds a document as indexed by the {@link IndexManager} with only the fields used to
+   * restrict the access to the entry.
+   */
+  private static Document entry(final String id, final String componentId,
+      final String... nodeIds) {
+    final Document doc = new Document();
+    doc.add(new StringField(IndexManager.ID, id, Field.Store.YES));
+    doc.add(new StringField(IndexManager.SCOPE, componentId, Field.Store.YES));
+    if (nodeIds.length > 0) {
+      doc.add(new StringField(IndexManager.RESTRICTIONS, IndexManager.NODE_RIGHTS,
+          Field.Store.NO));
+      for (String nodeId : nodeIds) {
+        doc.add(new StringField(IndexManager.NODE_RIGHTS,
+            IndexManager.getNodeRightsToken(componentId, nodeId), Field.Store.NO));
+      }
+    }
+    return doc;
+  }
+}
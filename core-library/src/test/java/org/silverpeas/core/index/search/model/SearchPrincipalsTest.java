@@ -0,0 +1,139 @@
+/*
+ * Copyright (C) 2000 - 2018 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.index.search.model;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.silverpeas.core.admin.component.model.SilverpeasComponentInstance;
+import org.silverpeas.core.admin.service.OrganizationController;
+import org.silverpeas.core.index.indexing.model.IndexManager;
+import org.silverpeas.core.index.indexing.model.IndexPrincipals;
+import org.silverpeas.core.test.extention.EnableSilverTestEnv;
+import org.silverpeas.core.test.extention.TestManagedMock;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests on the pruning by the search itself of the index entries restricted to some users,
+ * groups or roles.
+ */
+@EnableSilverTestEnv
+public class SearchPrincipalsTest {
+
+  private static final String USER_ID = "26";
+
+  @TestManagedMock
+  private OrganizationController organizationController;
+
+  private File indexDir;
+  private Directory directory;
+
+  @BeforeEach
+  public void setUpIndex() throws Exception {
+    when(organizationController.getComponentInstance(anyString()))
+        .thenReturn(Optional.of(mock(SilverpeasComponentInstance.class)));
+    when(organizationController.getAllGroupIdsOfUser(USER_ID)).thenReturn(new String[]{"5"});
+    when(organizationController.getUserProfiles(USER_ID, "kmelia1"))
+        .thenReturn(new String[]{"writer"});
+
+    indexDir = Files.createTempDirectory("index").toFile();
+    directory = FSDirectory.open(indexDir.toPath());
+    try (IndexWriter writer = new IndexWriter(directory, new IndexWriterConfig())) {
+      writer.addDocument(entry("publication1"));
+      writer.addDocument(entry("publication2", IndexPrincipals.ofUser(USER_ID)));
+      writer.addDocument(entry("publication3", IndexPrincipals.ofUser("27")));
+      writer.addDocument(entry("publication4", IndexPrincipals.ofGroup("5")));
+      writer.addDocument(entry("publication5", IndexPrincipals.ofGroup("6")));
+      writer.addDocument(entry("publication6", IndexPrincipals.ofRole("kmelia1", "writer")));
+      writer.addDocument(entry("publication7", IndexPrincipals.ofRole("kmelia1", "admin"),
+          IndexPrincipals.ofUser("27")));
+    }
+  }
+
+  @AfterEach
+  public void deleteIndex() throws Exception {
+    directory.close();
+    FileUtils.deleteQuietly(indexDir);
+  }
+
+  @Test
+  public void theEntriesRestrictedToOtherPrincipalsAreFilteredOut() throws Exception {
+    SearchPrincipals principals =
+        new SearchPrincipals(USER_ID, Collections.singletonList("kmelia1"));
+    assertThat(search(principals), containsInAnyOrder("publication1", "publication2",
+        "publication4", "publication6"));
+  }
+
+  private List<String> search(final SearchPrincipals principals) throws Exception {
+    final List<String> ids = new ArrayList<>();
+    try (DirectoryReader reader = DirectoryReader.open(directory)) {
+      final org.apache.lucene.search.IndexSearcher searcher =
+          new org.apache.lucene.search.IndexSearcher(reader);
+      for (ScoreDoc hit : searcher.search(principals.getFilter(), 10).scoreDocs) {
+        ids.add(searcher.doc(hit.doc).get(IndexManager.ID));
+      }
+    }
+    return ids;
+  }
+
+  /**
+   * Builds a document as indexed by the {@link IndexManager} with only the fields used to
+   * restrict the access to the entry.
+   */
+  private static Document entry(final String id, final String... principals) {
+    final Document doc = new Document();
+    doc.add(new StringField(IndexManager.ID, id, Field.Store.YES));
+    doc.add(new StringField(IndexManager.SCOPE, "kmelia1", Field.Store.YES));
+    if (principals.length > 0) {
+      doc.add(new StringField(IndexManager.RESTRICTIONS, IndexManager.PRINCIPALS,
+          Field.Store.NO));
+      for (String principal : principals) {
+        doc.add(new StringField(IndexManager.PRINCIPALS, principal, Field.Store.NO));
+      }
+    }
+    return doc;
+  }
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright (C) 2000 - 2018 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.security.authorization;
+
+import com.carrotsearch.junitbenchmarks.BenchmarkOptions;
+import com.carrotsearch.junitbenchmarks.BenchmarkRule;
+import com.carrotsearch.junitbenchmarks.annotation.BenchmarkMethodChart;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TestRule;
+import org.silverpeas.core.admin.user.model.SilverpeasRole;
+import org.silverpeas.core.contribution.publication.model.Alias;
+import org.silverpeas.core.contribution.publication.model.PublicationDetail;
+import org.silverpeas.core.contribution.publication.model.PublicationPK;
+import org.silverpeas.core.contribution.publication.service.PublicationService;
+import org.silverpeas.core.node.model.NodePK;
+import org.silverpeas.core.test.rule.LibCoreCommonAPI4Test;
+import org.silverpeas.core.test.rule.MockByReflectionRule;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit test to benchmark the checking of the rights of a user on a list of publications, one
+ * publication after the other, against the filtering of the whole list at once. Each request
+ * to the persistence is simulated by a pause of a fraction of millisecond.
+ */
+@BenchmarkMethodChart
+@BenchmarkOptions(benchmarkRounds = 100, warmupRounds = 10)
+public class PublicationAccessFilteringTest {
+
+  private static final String USER_ID = "bart";
+  private static final String INSTANCE_ID = "kmelia26";
+  private static final int PUBLICATION_COUNT = 100;
+  private static final long REQUEST_DURATION = TimeUnit.MICROSECONDS.toNanos(100);
+
+  @Rule
+  public TestRule benchmarkRun = new BenchmarkRule();
+
+  @Rule
+  public LibCoreCommonAPI4Test commonAPI4Test = new LibCoreCommonAPI4Test();
+
+  @Rule
+  public MockByReflectionRule reflectionRule = new MockByReflectionRule();
+
+  private PublicationAccessControl accessController;
+  private List<PublicationPK> pubPKs;
+
+  @SuppressWarnings("unchecked")
+  @Before
+  public void setup() {
+    accessController = new PublicationAccessController() {
+      @Override
+      ComponentInstancePublicationAccessControlExtension getComponentExtension(
+          final String instanceId) {
+        return new DefaultInstancePublicationAccessControlExtension();
+      }
+    };
+    ComponentAccessControl componentAccessController = reflectionRule
+        .mockField(accessController, ComponentAccessControl.class, "componentAccessController");
+    NodeAccessControl nodeAccessController =
+        reflectionRule.mockField(accessController, NodeAccessControl.class, "nodeAccessController");
+    PublicationService publicationService =
+        reflectionRule.mockField(accessController, PublicationService.class, "publicationService");
+
+    when(componentAccessController.getUserRoles(anyString(), anyString(),
+        any(AccessControlContext.class))).thenReturn(EnumSet.of(SilverpeasRole.user));
+    when(componentAccessController.isUserAuthorized(anySet())).thenReturn(true);
+    when(componentAccessController.isTopicTrackerSupported(anyString())).thenReturn(true);
+    when(componentAccessController.isRightOnTopicsEnabled(anyString())).thenReturn(true);
+    when(nodeAccessController.getUserRoles(anyString(), any(NodePK.class),
+        any(AccessControlContext.class))).thenReturn(EnumSet.of(SilverpeasRole.user));
+    when(nodeAccessController.isUserAuthorized(anySet())).thenReturn(true);
+
+    final Map<String, PublicationDetail> publications = new HashMap<>();
+    IntStream.rangeClosed(1, PUBLICATION_COUNT).mapToObj(String::valueOf).forEach(id -> {
+      PublicationDetail publication = new PublicationDetail();
+      publication.setPk(new PublicationPK(id, INSTANCE_ID));
+      publication.setStatus(Integer.parseInt(id) % 2 == 0 ? PublicationDetail.VALID_STATUS :
+          PublicationDetail.DRAFT_STATUS);
+      publication.setCreatorId("otherUserId");
+      publications.put(id, publication);
+    });
+    pubPKs = publications.values()
+        .stream()
+        .map(PublicationDetail::getPK)
+        .collect(Collectors.toList());
+
+    when(publicationService.getDetail(any(PublicationPK.class))).then(invocation -> {
+      request();
+      return publications.get(((PublicationPK) invocation.getArguments()[0]).getId());
+    });
+    when(publicationService.getAllFatherPK(any(PublicationPK.class))).then(invocation -> {
+      request();
+      PublicationPK pk = (PublicationPK) invocation.getArguments()[0];
+      return Collections.singletonList(new NodePK("1", pk));
+    });
+    when(publicationService.getByIds(anyCollection())).then(invocation -> {
+      request();
+      return ((Collection<String>) invocation.getArguments()[0]).stream()
+          .map(publications::get)
+          .collect(Collectors.toList());
+    });
+    when(publicationService.getAllAliases(anyCollection())).then(invocation -> {
+      request();
+      final Map<String, List<Alias>> aliases = new HashMap<>();
+      ((Collection<String>) invocation.getArguments()[0])
+          .forEach(id -> aliases.put(id, Collections.singletonList(new Alias("1", INSTANCE_ID))));
+      return aliases;
+    });
+  }
+
+  @Test
+  public void benchCheckPublicationsOneByOne() {
+    long count = pubPKs.stream()
+        .filter(pk -> accessController.isUserAuthorized(USER_ID, pk))
+        .count();
+    assertThat(count, is((long) PUBLICATION_COUNT / 2));
+  }
+
+  @Test
+  public void benchFilterPublicationsAtOnce() {
+    long count = accessController.filterAuthorizedByUser(pubPKs, USER_ID).count();
+    assertThat(count, is((long) PUBLICATION_COUNT / 2));
+  }
+
+  private static void request() {
+    LockSupport.parkNanos(REQUEST_DURATION);
+  }
+}
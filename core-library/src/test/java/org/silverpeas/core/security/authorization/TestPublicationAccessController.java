@@ -49,8 +49,15 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import static java.util.Collections.singletonList;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.is;
 import static org.mockito.Mockito.*;
 
@@ -2904,6 +2911,66 @@ public class TestPublicationAccessController {
     assertIsUserAuthorized(true);
   }
 
+  @SuppressWarnings("unchecked")
+  @Test
+  public void testFilterAuthorizedByUserLoadsTheWholeBatchAtOnce() {
+    // User has USER role on component
+    // User has USER role on directory
+    // A valid publication, a publication in draft mode and a clone of the valid one
+    testContext.clear();
+    testContext.withComponentUserRoles(SilverpeasRole.user).onGEDComponent()
+        .withRightsActivatedOnDirectory().withNodeUserRoles(SilverpeasRole.user);
+    testContext.setup();
+    final Map<String, PublicationDetail> publications = new HashMap<>();
+    publications.put("124", aPublication("124", PublicationDetail.VALID_STATUS, null));
+    publications.put("125", aPublication("125", PublicationDetail.DRAFT_STATUS, null));
+    publications.put("126", aPublication("126", PublicationDetail.DRAFT_STATUS, "124"));
+    when(publicationService.getByIds(anyCollection())).then(
+        invocation -> ((Collection<String>) invocation.getArguments()[0]).stream()
+            .map(publications::get)
+            .collect(Collectors.toList()));
+    when(publicationService.getDetail(any(PublicationPK.class))).then(
+        invocation -> publications.get(((PublicationPK) invocation.getArguments()[0]).getId()));
+    when(publicationService.getAllAliases(anyCollection())).then(invocation -> {
+      final Map<String, List<Alias>> aliases = new HashMap<>();
+      ((Collection<String>) invocation.getArguments()[0])
+          .forEach(id -> aliases.put(id, singletonList(new Alias("nodeId", "kmelia26"))));
+      return aliases;
+    });
+
+    final List<PublicationPK> pubPKs = Stream.of("124", "125", "126")
+        .map(id -> new PublicationPK(id, "kmelia26"))
+        .collect(Collectors.toList());
+    final List<PublicationPK> authorized = testInstance
+        .filterAuthorizedByUser(pubPKs, userId, testContext.accessControlContext)
+        .collect(Collectors.toList());
+    assertThat(authorized, contains(pubPKs.get(0), pubPKs.get(2)));
+
+    verify(publicationService, times(2)).getByIds(anyCollection());
+    verify(publicationService, times(1)).getAllAliases(anyCollection());
+    verify(publicationService, times(0)).getDetail(any(PublicationPK.class));
+    verify(publicationService, times(0)).getAllFatherPK(any(PublicationPK.class));
+    verify(publicationService, times(0)).getAlias(any(PublicationPK.class));
+    verify(nodeAccessController, times(1))
+        .preloadUserRoleData(anyCollection(), anyString(), any(AccessControlContext.class));
+
+    // The same results are obtained by checking the publications one by one
+    for (PublicationPK pubPK : pubPKs) {
+      assertThat(testInstance.isUserAuthorized(userId, pubPK, AccessControlContext.init()),
+          is(authorized.contains(pubPK)));
+    }
+  }
+
+  private PublicationDetail aPublication(final String id, final String status,
+      final String cloneId) {
+    final PublicationDetail publication = new PublicationDetail();
+    publication.setPk(new PublicationPK(id, "kmelia26"));
+    publication.setStatus(status);
+    publication.setCreatorId("otherUserId");
+    publication.setCloneId(cloneId);
+    return publication;
+  }
+
   /**
    * Centralization.
    * @param expectedUserAuthorization the expected user authorization to verify
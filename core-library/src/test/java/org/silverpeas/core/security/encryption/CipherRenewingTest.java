@@ -0,0 +1,144 @@
+/*
+ * Copyright (C) 2000 - 2018 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.security.encryption;
+
+import com.carrotsearch.junitbenchmarks.BenchmarkOptions;
+import com.carrotsearch.junitbenchmarks.BenchmarkRule;
+import com.carrotsearch.junitbenchmarks.annotation.BenchmarkMethodChart;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TestRule;
+import org.silverpeas.core.security.encryption.cipher.CryptoException;
+import org.silverpeas.core.test.rule.LibCoreCommonAPI4Test;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * Unit test to benchmark the renew of the cipher of the contents provided by several iterators,
+ * one iterator after the other, against the renew of all of them at once, the iterators being
+ * then processed concurrently. Each iterator checks the renewed contents with the encryption
+ * service itself, as the iterators of the encryption key update.
+ */
+@BenchmarkMethodChart
+@BenchmarkOptions(benchmarkRounds = 100, warmupRounds = 10)
+public class CipherRenewingTest extends ContentEncryptionServiceTest {
+
+  private static final int ITERATOR_COUNT = 4;
+  private static final int CONTENT_COUNT = 50;
+
+  @Rule
+  public TestRule benchmarkRun = new BenchmarkRule();
+
+  @Rule
+  public LibCoreCommonAPI4Test commonAPI4Test = new LibCoreCommonAPI4Test();
+
+  private final AtomicInteger renewedContents = new AtomicInteger(0);
+  private EncryptionContentIterator[] iterators;
+
+  @Before
+  public void prepareContents() throws Exception {
+    setUp();
+    setUpContentEncryptionService();
+    final String previousKey = generateAESKey();
+    createKeyFileWithTheDeprecatedKey(previousKey);
+    createKeyFileWithTheActualKey(generateAESKey());
+    iterators = new EncryptionContentIterator[ITERATOR_COUNT];
+    for (int i = 0; i < ITERATOR_COUNT; i++) {
+      iterators[i] = new ContentIterator(
+          encryptTextContents(generateTextContents(CONTENT_COUNT), previousKey));
+    }
+    renewedContents.set(0);
+  }
+
+  @After
+  public void cleanUp() throws Exception {
+    deleteKeyFile();
+    tearDown();
+  }
+
+  @Test
+  public void benchRenewCipherIteratorByIterator() throws CryptoException {
+    for (EncryptionContentIterator iterator : iterators) {
+      getContentEncryptionService().renewCipherOfContents(iterator);
+    }
+    assertThat(renewedContents.getAndSet(0), is(ITERATOR_COUNT * CONTENT_COUNT));
+  }
+
+  @Test
+  public void benchRenewCipherOfAllIteratorsAtOnce() throws CryptoException {
+    getContentEncryptionService().renewCipherOfContents(iterators);
+    assertThat(renewedContents.getAndSet(0), is(ITERATOR_COUNT * CONTENT_COUNT));
+  }
+
+  private class ContentIterator implements EncryptionContentIterator {
+
+    private final TextContent[] contents;
+    private int current;
+
+    ContentIterator(final TextContent[] contents) {
+      this.contents = contents;
+    }
+
+    @Override
+    public void init() {
+      current = -1;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return ++current < contents.length;
+    }
+
+    @Override
+    public Map<String, String> next() {
+      return contents[current].getProperties();
+    }
+
+    @Override
+    public void update(final Map<String, String> updatedContent) {
+      try {
+        getContentEncryptionService().decryptContent(updatedContent);
+        renewedContents.incrementAndGet();
+      } catch (CryptoException e) {
+        throw new IllegalStateException(e);
+      }
+    }
+
+    @Override
+    public void onError(final Map<String, String> content, final CryptoException ex) {
+      throw new IllegalStateException(ex);
+    }
+
+    @Override
+    public void remove() {
+      throw new UnsupportedOperationException();
+    }
+  }
+}
@@ -28,7 +28,10 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.silverpeas.core.security.encryption.cipher.CryptoException;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
@@ -379,6 +382,88 @@ public class ConcurrentExecutionTest extends ContentEncryptionServiceTest {
     }
   }
 
+  @Test
+  public void testContentsAreEncryptedAndDecryptedConcurrently() throws Exception {
+    final int threadCount = 8;
+    ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+    List<Future<Boolean>> results = new ArrayList<>(threadCount);
+    for (int i = 0; i < threadCount; i++) {
+      results.add(executor.submit(() -> {
+        for (TextContent content : generateTextContents(20)) {
+          Map<String, String> properties = content.getProperties();
+          Map<String, String> encryptedProperties =
+              getContentEncryptionService().encryptContent(properties);
+          if (!getContentEncryptionService().decryptContent(encryptedProperties)
+              .equals(properties)) {
+            return false;
+          }
+        }
+        return true;
+      }));
+    }
+    executor.shutdown();
+    for (Future<Boolean> result : results) {
+      assertThat(result.get(), is(true));
+    }
+  }
+
+  @Test
+  public void testTheIteratorsOfTheCipherRenewingCanUseTheEncryption() throws Exception {
+    final String newKey = generateAESKey();
+    createKeyFileWithTheDeprecatedKey(this.key);
+    createKeyFileWithTheActualKey(newKey);
+    final List<String> errors = new CopyOnWriteArrayList<>();
+    final EncryptionContentIterator[] iterators = new EncryptionContentIterator[4];
+    for (int i = 0; i < iterators.length; i++) {
+      final TextContent[] contents = generateTextContents(10);
+      final TextContent[] encryptedContents = encryptTextContents(contents, key);
+      iterators[i] = new EncryptionContentIterator() {
+        int current = -1;
+
+        @Override
+        public Map<String, String> next() {
+          return encryptedContents[current].getProperties();
+        }
+
+        @Override
+        public boolean hasNext() {
+          return ++current < encryptedContents.length;
+        }
+
+        @Override
+        public void update(final Map<String, String> newEncryptedContent) {
+          // the encryption service is used from within the cipher renewing
+          try {
+            if (!getContentEncryptionService().decryptContent(newEncryptedContent)
+                .equals(contents[current].getProperties())) {
+              errors.add("The content " + current + " isn't correctly renewed");
+            }
+          } catch (CryptoException e) {
+            errors.add(e.getMessage());
+          }
+        }
+
+        @Override
+        public void onError(final Map<String, String> content, final CryptoException ex) {
+          errors.add(ex.getMessage());
+        }
+
+        @Override
+        public void remove() {
+          throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void init() {
+
+        }
+      };
+    }
+
+    getContentEncryptionService().renewCipherOfContents(iterators);
+    assertThat(errors.isEmpty(), is(true));
+  }
+
   private void renewContentCipher() throws Exception {
     final String newKey = generateAESKey();
     createKeyFileWithTheDeprecatedKey(this.key);
@@ -0,0 +1,125 @@
+/*
+ * Copyright (C) 2000 - 2018 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.thread;
+
+import com.carrotsearch.junitbenchmarks.BenchmarkOptions;
+import com.carrotsearch.junitbenchmarks.BenchmarkRule;
+import com.carrotsearch.junitbenchmarks.annotation.BenchmarkMethodChart;
+import org.apache.commons.lang3.reflect.FieldUtils;
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TestRule;
+import org.silverpeas.core.test.rule.LibCoreCommonAPI4Test;
+
+import java.util.List;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.silverpeas.core.thread.ManagedThreadPool.ExecutionConfig.defaultConfig;
+import static org.silverpeas.core.thread.ManagedThreadPool.ExecutionConfig.inCategory;
+
+/**
+ * Unit test to benchmark the execution of a batch of short tasks waiting for a resource (a
+ * request to the database for example) by the managed threads against their execution by the
+ * virtual threads, with and without a limit on the number of tasks running at the same time.
+ * The benchmarks on the virtual threads are skipped when the Java runtime doesn't support them.
+ */
+@BenchmarkMethodChart
+@BenchmarkOptions(benchmarkRounds = 20, warmupRounds = 5)
+public class ManagedThreadExecutionTest {
+
+  private static final int TASK_COUNT = 200;
+  private static final int CATEGORY_LIMIT = 20;
+  private static final String CATEGORY = "benchmark";
+  private static final long WAITING_TIME = TimeUnit.MILLISECONDS.toNanos(1);
+
+  @Rule
+  public TestRule benchmarkRun = new BenchmarkRule();
+
+  @Rule
+  public LibCoreCommonAPI4Test commonAPI4Test = new LibCoreCommonAPI4Test();
+
+  private final AtomicInteger executions = new AtomicInteger(0);
+  private ManagedThreadPool managedThreadPool;
+  private List<Runnable> tasks;
+
+  @Before
+  public void setup() {
+    managedThreadPool = ManagedThreadPool.getPool();
+    tasks = IntStream.range(0, TASK_COUNT).mapToObj(i -> (Runnable) () -> {
+      LockSupport.parkNanos(WAITING_TIME);
+      executions.incrementAndGet();
+    }).collect(Collectors.toList());
+    executions.set(0);
+  }
+
+  @After
+  public void restoreThePool() throws Exception {
+    FieldUtils.writeField(managedThreadPool, "virtualThreadFactory", null, true);
+    managedThreadPool.setLimit(CATEGORY, 0);
+  }
+
+  @Test
+  public void benchManagedThreads() throws Exception {
+    managedThreadPool.invokeAndAwaitTermination(tasks, defaultConfig());
+    assertThat(executions.getAndSet(0), is(TASK_COUNT));
+  }
+
+  @Test
+  public void benchVirtualThreads() throws Exception {
+    enableVirtualThreads();
+    managedThreadPool.invokeAndAwaitTermination(tasks, defaultConfig());
+    assertThat(executions.getAndSet(0), is(TASK_COUNT));
+  }
+
+  @Test
+  public void benchManagedThreadsInALimitedCategory() throws Exception {
+    managedThreadPool.setLimit(CATEGORY, CATEGORY_LIMIT);
+    managedThreadPool.invokeAndAwaitTermination(tasks, inCategory(CATEGORY));
+    assertThat(executions.getAndSet(0), is(TASK_COUNT));
+  }
+
+  @Test
+  public void benchVirtualThreadsInALimitedCategory() throws Exception {
+    enableVirtualThreads();
+    managedThreadPool.setLimit(CATEGORY, CATEGORY_LIMIT);
+    managedThreadPool.invokeAndAwaitTermination(tasks, inCategory(CATEGORY));
+    assertThat(executions.getAndSet(0), is(TASK_COUNT));
+  }
+
+  private void enableVirtualThreads() throws IllegalAccessException {
+    final ThreadFactory virtualThreadFactory = ManagedThreadPool.newVirtualThreadFactory();
+    Assume.assumeTrue(virtualThreadFactory != null);
+    FieldUtils.writeField(managedThreadPool, "virtualThreadFactory", virtualThreadFactory, true);
+  }
+}
@@ -23,6 +23,7 @@
  */
 package org.silverpeas.core.thread;
 
+import org.apache.commons.lang3.reflect.FieldUtils;
 import org.apache.commons.lang3.tuple.Pair;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -30,17 +31,34 @@ import org.silverpeas.core.test.extention.EnableSilverTestEnv;
 import org.silverpeas.core.util.UnitUtil;
 import org.silverpeas.core.util.time.Duration;
 
+import javax.enterprise.concurrent.ContextService;
 import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.logging.Logger;
 
 import static java.lang.String.valueOf;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.silverpeas.core.thread.ManagedThreadPool.ExecutionConfig.inCategory;
 import static org.silverpeas.core.thread.ManagedThreadPool.ExecutionConfig.maxThreadPoolSizeOf;
 import static org.silverpeas.core.thread.ManagedThreadPool.ExecutionConfig.timeoutOf;
 
@@ -335,6 +353,178 @@ public class ManagedThreadPoolTest {
     log("... OK");
   }
 
+  @Test
+  public void invokeCallablesOfACategoryWithALimitedNumberOfConcurrentExecutions()
+      throws Exception {
+    final String category = "limitedCategory";
+    final AtomicInteger running = new AtomicInteger(0);
+    final AtomicInteger maxRunning = new AtomicInteger(0);
+    final List<Callable<Void>> callables = new ArrayList<>();
+    for (int i = 0; i < 6; i++) {
+      callables.add(() -> {
+        maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+        Thread.sleep(SHORT_TIMEOUT / 2);
+        running.decrementAndGet();
+        return null;
+      });
+    }
+    managedThreadPool.setLimit(category, 2);
+    try {
+      log("Processing the invocation of 6 callables with at most 2 running at the same time...");
+      for (Future<Void> future : managedThreadPool.invoke(callables, inCategory(category))) {
+        future.get();
+      }
+    } finally {
+      managedThreadPool.setLimit(category, 0);
+    }
+    assertThat(maxRunning.get(), is(2));
+    log("... OK");
+  }
+
+  @Test
+  public void aTaskInterruptedWhileWaitingForItsCategoryIsGivenUp() throws Exception {
+    final String category = "saturatedCategory";
+    final CountDownLatch release = new CountDownLatch(1);
+    final AtomicBoolean run = new AtomicBoolean(false);
+    managedThreadPool.setLimit(category, 1);
+    final ExecutorService executor = managedThreadPool.newExecutorService(inCategory(category));
+    final Future<?> future;
+    try {
+      log("Submitting a task waiting for the only slot of its category...");
+      executor.execute(() -> {
+        try {
+          release.await(LARGE_TIMEOUT, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      });
+      future = executor.submit(() -> run.set(true));
+      Thread.sleep(SHORT_TIMEOUT);
+      assertThat(run.get(), is(false));
+      log("Interrupting the threads...");
+      executor.shutdownNow();
+      assertThat(executor.awaitTermination(LARGE_TIMEOUT, TimeUnit.MILLISECONDS), is(true));
+    } finally {
+      release.countDown();
+      managedThreadPool.setLimit(category, 0);
+    }
+    assertThat(run.get(), is(false));
+    assertThat(future.isCancelled(), is(true));
+    log("... OK");
+  }
+
+  @Test
+  public void aRunnableInterruptedWhileWaitingForItsCategoryIsGivenUp() throws Exception {
+    final String category = "saturatedCategory";
+    final CountDownLatch release = new CountDownLatch(1);
+    final AtomicBoolean run = new AtomicBoolean(false);
+    final AtomicReference<Throwable> failure = new AtomicReference<>();
+    managedThreadPool.setLimit(category, 1);
+    try {
+      log("Invoking a runnable waiting for the only slot of its category...");
+      managedThreadPool.invoke(inCategory(category), () -> {
+        try {
+          release.await(LARGE_TIMEOUT, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      });
+      final Thread thread = managedThreadPool.invoke(inCategory(category), () -> run.set(true))
+          .get(0);
+      thread.setUncaughtExceptionHandler((t, e) -> failure.set(e));
+      Thread.sleep(SHORT_TIMEOUT);
+      assertThat(run.get(), is(false));
+      log("Interrupting the thread...");
+      thread.interrupt();
+      thread.join(LARGE_TIMEOUT);
+      assertThat(thread.isAlive(), is(false));
+    } finally {
+      release.countDown();
+      managedThreadPool.setLimit(category, 0);
+    }
+    assertThat(run.get(), is(false));
+    assertThat(failure.get(), instanceOf(CancellationException.class));
+    log("... OK");
+  }
+
+  @Test
+  public void virtualThreadsAreCreatedOnlyWhenTheJavaRuntimeSupportsThem() throws Exception {
+    boolean supported;
+    try {
+      Thread.class.getMethod("ofVirtual");
+      supported = true;
+    } catch (NoSuchMethodException e) {
+      supported = false;
+    }
+    final ThreadFactory factory = ManagedThreadPool.newVirtualThreadFactory();
+    assertThat(factory != null, is(supported));
+    if (supported) {
+      final Thread thread = factory.newThread(() -> {});
+      assertThat(Thread.class.getMethod("isVirtual").invoke(thread), is(true));
+      assertThat(thread.getName(), startsWith("silverpeas-virtual-"));
+    }
+  }
+
+  @Test
+  public void theContextOfTheCallerIsPropagatedOnlyInTheVirtualMode() throws Exception {
+    final ThreadLocal<String> callerContext = new ThreadLocal<>();
+    final ContextService contextService = mock(ContextService.class);
+    when(contextService.createContextualProxy(any(), eq(Runnable.class))).thenAnswer(i -> {
+      final Runnable runnable = i.getArgument(0);
+      return (Runnable) () -> {
+        callerContext.set("caller");
+        try {
+          runnable.run();
+        } finally {
+          callerContext.remove();
+        }
+      };
+    });
+    final AtomicReference<String> context = new AtomicReference<>();
+    FieldUtils.writeField(managedThreadPool, "contextService", contextService, true);
+
+    managedThreadPool.invokeAndAwaitTermination(() -> context.set(callerContext.get()));
+    assertThat(managedThreadPool.isVirtualMode(), is(false));
+    assertThat(context.get(), nullValue());
+    verify(contextService, never()).createContextualProxy(any(), eq(Runnable.class));
+
+    // the threads of the runtime stand for the virtual threads that can be unsupported here
+    FieldUtils.writeField(managedThreadPool, "virtualThreadFactory", (ThreadFactory) Thread::new,
+        true);
+    managedThreadPool.invokeAndAwaitTermination(() -> context.set(callerContext.get()));
+    assertThat(managedThreadPool.isVirtualMode(), is(true));
+    assertThat(context.get(), is("caller"));
+    verify(contextService, times(1)).createContextualProxy(any(), eq(Runnable.class));
+  }
+
+  @Test
+  public void tasksSubmittedAlongAProcessingAreBoundedByTheSameExecutor() throws Exception {
+    final AtomicInteger running = new AtomicInteger(0);
+    final AtomicInteger maxRunning = new AtomicInteger(0);
+    final ExecutorService executor =
+        managedThreadPool.newExecutorService(maxThreadPoolSizeOf(2));
+    final List<Future<Void>> futures = new ArrayList<>();
+    try {
+      log("Submitting one after one 6 callables to an executor of 2 threads...");
+      for (int i = 0; i < 6; i++) {
+        futures.add(executor.submit(() -> {
+          maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+          Thread.sleep(SHORT_TIMEOUT / 2);
+          running.decrementAndGet();
+          return null;
+        }));
+      }
+      for (Future<Void> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdown();
+    }
+    assertThat(maxRunning.get(), is(2));
+    assertThat(executor.awaitTermination(SHORT_TIMEOUT, TimeUnit.MILLISECONDS), is(true));
+    log("... OK");
+  }
+
   /**
    * Common initialization.
    * @return list of 5 TestRunnable of 1 second of treatments.
@@ -34,9 +34,13 @@ import org.silverpeas.core.test.extention.LoggerLevel;
 import org.silverpeas.core.test.extention.EnableSilverTestEnv;
 import org.silverpeas.core.test.extention.TestManagedBeans;
 import org.silverpeas.core.thread.task.RequestTaskManager.RequestTaskMonitor;
+import org.silverpeas.core.thread.task.RequestTaskManager.TaskLane;
 import org.silverpeas.core.util.logging.Level;
 import org.silverpeas.core.util.logging.SilverLogger;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.concurrent.Semaphore;
@@ -294,6 +298,38 @@ public class RequestTaskManagerTest {
     assertThatThreadsAreStoppedAndMonitorsAreCleanedAndQueuesAreConsummed(monitor);
   }
 
+  @Test
+  public void requestsOfALaneAreProcessedInTheOrderTheyArePushed() throws Exception {
+    final List<String> processed = Collections.synchronizedList(new ArrayList<>());
+    final int nbLanes = 3;
+    final int nbRequestsPerLane = 20;
+    for (int i = 0; i < nbRequestsPerLane; i++) {
+      for (int lane = 0; lane < nbLanes; lane++) {
+        TestRequestTask.newLaneRequest(lane, i, processed);
+      }
+    }
+    for (int lane = 0; lane < nbLanes; lane++) {
+      RequestTaskMonitor monitor =
+          waitForTaskEndingAtEndOfTest(new TaskLane(TestRequestTask.class, lane));
+      assertThatThreadsAreStoppedAndMonitorsAreCleanedAndQueuesAreConsummed(monitor);
+      assertThat(RequestTaskManager.getQueueSize(TestRequestTask.class, lane), is(0));
+      assertThat(RequestTaskManager.getProcessedRequestCount(TestRequestTask.class, lane),
+          is((long) nbRequestsPerLane));
+    }
+    assertThat(counter, is(nbLanes * nbRequestsPerLane));
+    assertThat(RequestTaskManager.tasks.get(TestRequestTask.class), nullValue());
+    for (int lane = 0; lane < nbLanes; lane++) {
+      final String prefix = lane + ":";
+      final List<String> processedInLane = new ArrayList<>();
+      processed.stream().filter(id -> id.startsWith(prefix)).forEach(processedInLane::add);
+      final List<String> expected = new ArrayList<>();
+      for (int i = 0; i < nbRequestsPerLane; i++) {
+        expected.add(prefix + i);
+      }
+      assertThat(processedInLane, is(expected));
+    }
+  }
+
   @Test
   public void bigMelting() throws ExecutionException, InterruptedException, TimeoutException {
     assertThat(counter, is(0));
@@ -352,10 +388,10 @@ public class RequestTaskManagerTest {
     assertThat(monitor.requestList.size(), is(0));
   }
 
-  private RequestTaskMonitor waitForTaskEndingAtEndOfTest(final Class testClass)
+  private RequestTaskMonitor waitForTaskEndingAtEndOfTest(final Object taskKey)
       throws InterruptedException {
     Thread.sleep(200);
-    RequestTaskMonitor monitor = RequestTaskManager.tasks.get(testClass);
+    RequestTaskMonitor monitor = RequestTaskManager.tasks.get(taskKey);
     int nbTry = 0;
     while (nbTry < 20) {
       Thread.sleep(10);
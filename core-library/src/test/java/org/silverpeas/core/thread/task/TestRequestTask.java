@@ -26,6 +26,8 @@ package org.silverpeas.core.thread.task;
 
 import org.silverpeas.core.util.logging.SilverLogger;
 
+import java.util.List;
+
 /**
  * @author silveryocha
  */
@@ -47,6 +49,11 @@ public class TestRequestTask extends AbstractRequestTask<TestRequestTask.TestPro
     RequestTaskManager.push(TestRequestTask.class, new ThreadKillTestRequest());
   }
 
+  static void newLaneRequest(final int lane, final int rank, final List<String> processed) {
+    RequestTaskManager.push(TestRequestTask.class, lane,
+        new LaneTestRequest(lane, rank, processed));
+  }
+
   static class TestProcessContext implements AbstractRequestTask.ProcessContext {
     TestProcessContext() {
       getLogger().debug("initializing the process context ({0})", getClass().getSimpleName());
@@ -75,6 +82,23 @@ public class TestRequestTask extends AbstractRequestTask<TestRequestTask.TestPro
     }
   }
 
+  static class LaneTestRequest extends RandomSleepTestRequest {
+    private final String id;
+    private final List<String> processed;
+
+    LaneTestRequest(final int lane, final int rank, final List<String> processed) {
+      super();
+      this.id = lane + ":" + rank;
+      this.processed = processed;
+    }
+
+    @Override
+    public void process(TestProcessContext context) throws InterruptedException {
+      super.process(context);
+      processed.add(id);
+    }
+  }
+
   static class ThreadKillTestRequest implements AbstractRequestTask.Request<TestProcessContext> {
 
     @Override
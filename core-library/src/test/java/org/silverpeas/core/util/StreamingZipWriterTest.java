@@ -0,0 +1,120 @@
+/*
+ * Copyright (C) 2000 - 2018 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.util;
+
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveInputStream;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.Test;
+import org.silverpeas.core.test.extention.EnableSilverTestEnv;
+import org.silverpeas.core.test.util.MavenTestEnv;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Unit tests on the writing of zip archives directly into an output stream.
+ */
+@EnableSilverTestEnv
+public class StreamingZipWriterTest {
+
+  @Test
+  public void directoryIsZippedIntoTheStream(MavenTestEnv mavenTestEnv) throws Exception {
+    File path = new File(mavenTestEnv.getResourceTestDirFile(), "ZipSample");
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    long size = ZipUtil.compressPathToZip(path, output);
+    assertThat(size, is((long) output.size()));
+
+    Map<String, ZipArchiveEntry> entries = readEntries(output.toByteArray());
+    assertThat(entries.size(), is(5));
+    assertThat(entries.keySet(),
+        hasItems("ZipSample/simple.txt", "ZipSample/level1/simple.txt",
+            "ZipSample/level1/level2a/simple.txt", "ZipSample/level1/level2b/simple.txt",
+            "ZipSample/level1/level2a/sïmplifié.txt"));
+  }
+
+  @Test
+  public void alreadyCompressedFilesAreStored(MavenTestEnv mavenTestEnv) throws Exception {
+    File image = new File(mavenTestEnv.getResourceTestDirFile(), "image-test.jpg");
+    File text = new File(mavenTestEnv.getResourceTestDirFile(), "jboss_output.log");
+    File video = new File(mavenTestEnv.getResourceTestDirFile(), "video.mp4");
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    try (StreamingZipWriter writer = new StreamingZipWriter(output)) {
+      writer.addFile(image, "image-test.jpg")
+          .addFile(text, "dir/jboss_output.log")
+          .addFile(video, "video.mp4");
+    }
+
+    Map<String, ZipArchiveEntry> entries = readEntries(output.toByteArray());
+    assertThat(entries.size(), is(3));
+    assertThat(entries.get("image-test.jpg").getMethod(), is(ZipArchiveEntry.STORED));
+    assertThat(entries.get("dir/jboss_output.log").getMethod(), is(ZipArchiveEntry.DEFLATED));
+    assertThat(entries.get("video.mp4").getSize(), is(video.length()));
+  }
+
+  @Test
+  public void entriesAreWrittenInTheOrderTheyAreAdded(MavenTestEnv mavenTestEnv)
+      throws Exception {
+    File path = new File(mavenTestEnv.getResourceTestDirFile(), "ZipSample");
+    File video = new File(mavenTestEnv.getResourceTestDirFile(), "video.mp4");
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    try (StreamingZipWriter writer = new StreamingZipWriter(output, 2)) {
+      writer.addFile(new File(path, "simple.txt"), "1.txt")
+          .addFile(video, "2.mp4")
+          .addEntry("3.txt", new ByteArrayInputStream("a stream".getBytes(Charsets.UTF_8)))
+          .addFile(new File(path, "level1/simple.txt"), "4.txt");
+    }
+
+    try (ZipArchiveInputStream zip = new ZipArchiveInputStream(
+        new ByteArrayInputStream(output.toByteArray()))) {
+      assertThat(zip.getNextZipEntry().getName(), is("1.txt"));
+      assertThat(zip.getNextZipEntry().getName(), is("2.mp4"));
+      assertThat(IOUtils.toByteArray(zip), is(FileUtils.readFileToByteArray(video)));
+      assertThat(zip.getNextZipEntry().getName(), is("3.txt"));
+      assertThat(IOUtils.toString(zip, Charsets.UTF_8), is("a stream"));
+      assertThat(zip.getNextZipEntry().getName(), is("4.txt"));
+      assertThat(zip.getNextZipEntry(), is(nullValue()));
+    }
+  }
+
+  private Map<String, ZipArchiveEntry> readEntries(byte[] archive) throws Exception {
+    Map<String, ZipArchiveEntry> entries = new HashMap<>();
+    try (ZipArchiveInputStream zip = new ZipArchiveInputStream(new ByteArrayInputStream(archive),
+        Charsets.UTF_8.name(), true, true)) {
+      ZipArchiveEntry entry;
+      while ((entry = zip.getNextZipEntry()) != null) {
+        IOUtils.toByteArray(zip);
+        entries.put(entry.getName(), entry);
+      }
+    }
+    return entries;
+  }
+}
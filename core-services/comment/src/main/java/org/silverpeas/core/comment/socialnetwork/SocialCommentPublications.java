@@ -43,8 +43,9 @@ import javax.inject.Inject;
 import javax.inject.Singleton;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Singleton
 public class SocialCommentPublications implements SocialCommentPublicationsInterface {
@@ -125,26 +126,36 @@ public class SocialCommentPublications implements SocialCommentPublicationsInter
                 instanceIds, Period.from(begin, end));
 
     // Even if the data has been found by filtering on instanceIds that the user can access, it
-    // could exists more precise right rules to apply.
-    Iterator<SocialInformationComment> socialCommentIt = socialComments.iterator();
-    while (socialCommentIt.hasNext()) {
-      SocialInformationComment socialComment = socialCommentIt.next();
-      String instanceId = socialComment.getComment().getComponentInstanceId();
-
-      if (!myId.equals(socialComment.getAuthor()) && instanceId.startsWith("kmelia")) {
-
-        // On Kmelia application, if the user has not right access to the publication, then the
-        // associated comments are removed from the result
-
-        AccessController<PublicationPK> publicationAccessController =
-            AccessControllerProvider.getAccessController(PublicationAccessControl.class);
-        if (!publicationAccessController.isUserAuthorized(myId,
-            new PublicationPK(socialComment.getComment().getForeignKey().getId(), instanceId))) {
-          socialCommentIt.remove();
-        }
+    // could exists more precise right rules to apply: on Kmelia application, the comments of the
+    // others on the publications the user has not right access to are removed from the result.
+    // The rights are checked for all the publications at once.
+    List<PublicationPK> pksToCheck = new ArrayList<>();
+    for (SocialInformationComment socialComment : socialComments) {
+      if (isRightCheckRequired(myId, socialComment)) {
+        pksToCheck.add(getCommentedPublicationPK(socialComment));
       }
     }
+    if (!pksToCheck.isEmpty()) {
+      AccessController<PublicationPK> publicationAccessController =
+          AccessControllerProvider.getAccessController(PublicationAccessControl.class);
+      Set<PublicationPK> authorizedPks =
+          publicationAccessController.filterAuthorizedByUser(pksToCheck, myId)
+              .collect(Collectors.toSet());
+      socialComments.removeIf(c -> isRightCheckRequired(myId, c) &&
+          !authorizedPks.contains(getCommentedPublicationPK(c)));
+    }
 
     return decorate(socialComments);
   }
-}
\ No newline at end of file
+
+  private static boolean isRightCheckRequired(String userId,
+      SocialInformationComment socialComment) {
+    return !userId.equals(socialComment.getAuthor()) &&
+        socialComment.getComment().getComponentInstanceId().startsWith("kmelia");
+  }
+
+  private static PublicationPK getCommentedPublicationPK(SocialInformationComment socialComment) {
+    return new PublicationPK(socialComment.getComment().getForeignKey().getId(),
+        socialComment.getComment().getComponentInstanceId());
+  }
+}
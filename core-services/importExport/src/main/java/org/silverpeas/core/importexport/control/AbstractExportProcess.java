@@ -23,16 +23,15 @@
  */
 package org.silverpeas.core.importexport.control;
 
+import org.apache.commons.io.FileUtils;
 import org.silverpeas.core.admin.user.model.UserDetail;
 import org.silverpeas.core.importexport.model.ImportExportException;
 import org.silverpeas.core.importexport.report.ExportReport;
-import org.silverpeas.core.util.ZipUtil;
 import org.silverpeas.core.util.file.FileFolderManager;
 import org.silverpeas.core.util.file.FileRepositoryManager;
 import org.silverpeas.core.util.file.FileServerUtils;
 
 import java.io.File;
-import java.io.IOException;
 import java.text.SimpleDateFormat;
 import java.util.Date;
 
@@ -56,19 +55,26 @@ public abstract class AbstractExportProcess {
     return fileExportDir;
   }
 
+  /**
+   * Sets in the export report the zip archive of the export directory. No zip file is written:
+   * the archive is built on the fly from the export directory and streamed to the client when it
+   * is downloaded from the temporary directory of Silverpeas. The size in the report is then the
+   * one of the exported data, that is an upper bound of the size of the archive.
+   * @param fileExportDir the directory containing the exported data.
+   * @param exportReport the report of the export to complete with the zip archive.
+   * @throws ImportExportException if the export directory cannot be read.
+   */
   protected void createZipFile(File fileExportDir, ExportReport exportReport)
       throws ImportExportException {
+    String zipFileName = fileExportDir.getName() + ".zip";
     try {
-      String zipFileName = fileExportDir.getName() + ".zip";
-      String tempDir = FileRepositoryManager.getTemporaryPath();
-      long zipFileSize = ZipUtil.compressPathToZip(fileExportDir.getPath(), tempDir + zipFileName);
-      exportReport.setZipFileName(zipFileName);
-      exportReport.setZipFileSize(zipFileSize);
-      exportReport.setZipFilePath(FileServerUtils.getUrlToTempDir(zipFileName));
-      exportReport.setDateFin(new Date());
-    } catch (IOException ex) {
+      exportReport.setZipFileSize(FileUtils.sizeOfDirectory(fileExportDir));
+    } catch (IllegalArgumentException ex) {
       throw new ImportExportException("ImportExport", "root.EX_CANT_WRITE_FILE", ex);
     }
+    exportReport.setZipFileName(zipFileName);
+    exportReport.setZipFilePath(FileServerUtils.getUrlToTempDir(zipFileName));
+    exportReport.setDateFin(new Date());
   }
 
   /**
@@ -0,0 +1,580 @@
+/*
+ * Copyright (C) 2000 - 2018 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.pdc.classification;
+
+import org.silverpeas.core.util.StringUtil;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * An in-memory index of the classification of the silverpeas contents on the PDC. It is made up
+ * of sets of identifiers:
+ * <ul>
+ * <li>the positions per value path prefix on each axis,</li>
+ * <li>the contents per component instance,</li>
+ * <li>the contents that are visible at the current date.</li>
+ * </ul>
+ * The criteria of a PDC search, the counts of the pertinent axis and of the pertinent values are
+ * then computed by intersecting these sets instead of joining the classification table with the
+ * content tables. Because all the values of a position are checked against the criteria, a
+ * position is the indexed unit, whereas the counts are done on the distinct contents.
+ * <p>
+ * The identifiers of the positions and of the contents are sparse, so the sets are sorted arrays
+ * of identifiers ({@link IntSet}) whose size depends only on their number of elements, and not
+ * bitmaps whose size depends on the greatest identifier.
+ * </p>
+ * <p>
+ * The index is maintained incrementally by the {@link ClassifyEngine}. The changes that impact
+ * a lot of positions (an axis registration, a value replacement, ...) invalidate it and it is then
+ * rebuilt from the database at its next use.
+ * </p>
+ */
+class ClassificationIndex {
+
+  private static final String POSITIONS_QUERY =
+      "SELECT * FROM SB_ClassifyEngine_Classify WHERE PositionId <> -1 ORDER BY PositionId";
+  private static final String OBJECT_POSITIONS_QUERY =
+      "SELECT * FROM SB_ClassifyEngine_Classify WHERE PositionId <> -1 AND ObjectId = ?";
+  private static final String CONTENTS_QUERY =
+      "SELECT CMC.silverContentId, CMI.componentId, CMC.beginDate, CMC.endDate, CMC.isVisible " +
+          "FROM SB_ContentManager_Content CMC, SB_ContentManager_Instance CMI " +
+          "WHERE CMC.contentInstanceId = CMI.instanceId";
+  private static final String CONTENT_QUERY = CONTENTS_QUERY + " AND CMC.silverContentId = ?";
+  private static final char PATH_SEPARATOR = '/';
+
+  private final int nbMaxAxis;
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  private boolean valid = false;
+
+  // the positions
+  private final Map<Integer, String[]> valuesByPosition = new HashMap<>();
+  private final Map<Integer, Integer> objectByPosition = new HashMap<>();
+  private final IntSet allPositions = new IntSet();
+  private final Map<Integer, IntSet> positionsByObject = new HashMap<>();
+  private final List<Map<String, IntSet>> positionsByValue = new ArrayList<>();
+  private final List<Map<String, IntSet>> positionsByValuePrefix = new ArrayList<>();
+  private final List<IntSet> positionsOnAxis = new ArrayList<>();
+
+  // the contents
+  private final Map<Integer, Content> contents = new HashMap<>();
+  private final Map<String, IntSet> objectsByInstance = new HashMap<>();
+  private final IntSet objectsWithContent = new IntSet();
+  private volatile Visibility visibility = null;
+
+  ClassificationIndex(final int nbMaxAxis) {
+    this.nbMaxAxis = nbMaxAxis;
+  }
+
+  /**
+   * Is this index up to date?
+   * @return true if the index can be used, false if it has to be rebuilt.
+   */
+  boolean isValid() {
+    lock.readLock().lock();
+    try {
+      return valid;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Invalidates this index. It will be rebuilt at its next use.
+   */
+  void invalidate() {
+    lock.writeLock().lock();
+    try {
+      valid = false;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Rebuilds this index from the classification and the content tables.
+   * @param connection a connection to the database.
+   * @throws SQLException if the data cannot be loaded.
+   */
+  void rebuild(final Connection connection) throws SQLException {
+    lock.writeLock().lock();
+    try {
+      clear();
+      try (PreparedStatement statement = connection.prepareStatement(POSITIONS_QUERY);
+           ResultSet rs = statement.executeQuery()) {
+        while (rs.next()) {
+          addPosition(rs);
+        }
+      }
+      // the identifiers are sorted so that they are appended to the sets of identifiers
+      try (PreparedStatement statement =
+               connection.prepareStatement(CONTENTS_QUERY + " ORDER BY CMC.silverContentId");
+           ResultSet rs = statement.executeQuery()) {
+        while (rs.next()) {
+          addContent(rs);
+        }
+      }
+      trim();
+      valid = true;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Reloads from the database the positions of the given content and the content itself.
+   * @param connection a connection to the database.
+   * @param objectId the unique identifier of a silverpeas content.
+   * @throws SQLException if the data cannot be loaded.
+   */
+  void reloadObject(final Connection connection, final int objectId) throws SQLException {
+    lock.writeLock().lock();
+    try {
+      if (!valid) {
+        return;
+      }
+      doRemoveObject(objectId);
+      try (PreparedStatement statement = connection.prepareStatement(OBJECT_POSITIONS_QUERY)) {
+        statement.setInt(1, objectId);
+        try (ResultSet rs = statement.executeQuery()) {
+          while (rs.next()) {
+            addPosition(rs);
+          }
+        }
+      }
+      doReloadContent(connection, objectId);
+    } catch (SQLException e) {
+      valid = false;
+      throw e;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Reloads from the database the content with the given identifier.
+   * @param connection a connection to the database.
+   * @param objectId the unique identifier of a silverpeas content.
+   * @throws SQLException if the data cannot be loaded.
+   */
+  void reloadContent(final Connection connection, final int objectId) throws SQLException {
+    lock.writeLock().lock();
+    try {
+      if (valid) {
+        doReloadContent(connection, objectId);
+      }
+    } catch (SQLException e) {
+      valid = false;
+      throw e;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Gets the identifier of the content classified at the given position.
+   * @param positionId the unique identifier of a position.
+   * @return the identifier of the content or -1 if the position isn't known.
+   */
+  int getObjectOfPosition(final int positionId) {
+    lock.readLock().lock();
+    try {
+      return objectByPosition.getOrDefault(positionId, -1);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Removes all the positions of the given content.
+   * @param objectId the unique identifier of a silverpeas content.
+   */
+  void removeObject(final int objectId) {
+    lock.writeLock().lock();
+    try {
+      doRemoveObject(objectId);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Removes the given position.
+   * @param positionId the unique identifier of a position.
+   */
+  void removePosition(final int positionId) {
+    lock.writeLock().lock();
+    try {
+      doRemovePosition(positionId);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Finds the contents matching all the given criteria.
+   * @param criteria the criteria on the physical axis.
+   * @param instanceIds the component instances of the contents. All if empty.
+   * @param today the current date in the SQL format of the content tables.
+   * @param recursive true if the contents classified under a criteria value match it.
+   * @param visibilitySensitive true if only the visible contents match.
+   * @return the identifiers of the matching contents.
+   */
+  List<Integer> findObjects(final List<? extends Criteria> criteria,
+      final List<String> instanceIds, final String today, final boolean recursive,
+      final boolean visibilitySensitive) {
+    lock.readLock().lock();
+    try {
+      final IntSet objects = matchingObjects(matchingPositions(criteria, recursive, null),
+          getAllowedObjects(instanceIds, today, visibilitySensitive));
+      final List<Integer> objectIds = new ArrayList<>(objects.size());
+      objects.forEach(objectIds::add);
+      return objectIds;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Counts the visible contents matching the given criteria and classified on the given axis
+   * under the given value.
+   * @param criteria the criteria on the physical axis.
+   * @param axis a physical axis.
+   * @param rootValue the value under which the contents are classified on the axis. Empty for
+   * any value.
+   * @param instanceIds the component instances of the contents. All if empty.
+   * @param today the current date in the SQL format of the content tables.
+   * @return the number of distinct contents.
+   */
+  int countObjects(final List<? extends Criteria> criteria, final int axis,
+      final String rootValue, final List<String> instanceIds, final String today) {
+    lock.readLock().lock();
+    try {
+      final IntSet onAxis = rootValue.isEmpty() ? positionsOnAxis.get(axis) :
+          getPositionsWithPrefix(axis, rootValue);
+      if (onAxis == null) {
+        return 0;
+      }
+      return matchingObjects(matchingPositions(criteria, true, onAxis),
+          getAllowedObjects(instanceIds, today, true)).size();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Counts for each value of the given axis the visible contents matching the given criteria.
+   * @param criteria the criteria on the physical axis.
+   * @param axis a physical axis.
+   * @param instanceIds the component instances of the contents. All if empty.
+   * @param today the current date in the SQL format of the content tables.
+   * @return the number of distinct contents per value of the axis.
+   */
+  Map<String, Integer> countObjectsByValue(final List<? extends Criteria> criteria,
+      final int axis, final List<String> instanceIds, final String today) {
+    lock.readLock().lock();
+    try {
+      final IntSet positions = matchingPositions(criteria, true, positionsOnAxis.get(axis));
+      final IntSet allowed = getAllowedObjects(instanceIds, today, true);
+      final Map<String, IntSet.Builder> objectsByValue = new HashMap<>();
+      positions.forEach(p -> {
+        final int objectId = objectByPosition.get(p);
+        if (allowed.contains(objectId)) {
+          objectsByValue.computeIfAbsent(valuesByPosition.get(p)[axis], v -> new IntSet.Builder())
+              .add(objectId);
+        }
+      });
+      final Map<String, Integer> counts = new HashMap<>(objectsByValue.size());
+      objectsByValue.forEach((v, o) -> counts.put(v, o.build().size()));
+      return counts;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  private IntSet matchingPositions(final List<? extends Criteria> criteria,
+      final boolean recursive, final IntSet initial) {
+    IntSet positions = initial == null ? null : initial.copy();
+    for (Criteria criterion : criteria) {
+      if (criterion.getValue() != null) {
+        final IntSet matching = recursive ?
+            getPositionsWithPrefix(criterion.getAxisId(), criterion.getValue()) :
+            positionsByValue.get(criterion.getAxisId()).get(criterion.getValue());
+        if (matching == null) {
+          return new IntSet();
+        }
+        if (positions == null) {
+          positions = matching.copy();
+        } else {
+          positions.retainAll(matching);
+        }
+      }
+    }
+    return positions == null ? allPositions.copy() : positions;
+  }
+
+  private IntSet matchingObjects(final IntSet positions, final IntSet allowedObjects) {
+    final IntSet.Builder objects = new IntSet.Builder();
+    positions.forEach(p -> {
+      final int objectId = objectByPosition.get(p);
+      if (allowedObjects.contains(objectId)) {
+        objects.add(objectId);
+      }
+    });
+    return objects.build();
+  }
+
+  private IntSet getPositionsWithPrefix(final int axis, final String prefix) {
+    if (prefix.isEmpty()) {
+      return positionsOnAxis.get(axis);
+    }
+    final IntSet positions = positionsByValuePrefix.get(axis).get(prefix);
+    if (positions != null || prefix.charAt(prefix.length() - 1) == PATH_SEPARATOR) {
+      return positions;
+    }
+    // the prefix doesn't end at a path separator: the matching values are scanned
+    final IntSet matching = new IntSet();
+    positionsByValue.get(axis).forEach((v, p) -> {
+      if (v.startsWith(prefix)) {
+        matching.addAll(p);
+      }
+    });
+    return matching;
+  }
+
+  private IntSet getAllowedObjects(final List<String> instanceIds, final String today,
+      final boolean visibilitySensitive) {
+    final IntSet objects;
+    if (instanceIds.isEmpty()) {
+      objects = objectsWithContent.copy();
+    } else {
+      objects = new IntSet();
+      for (String instanceId : instanceIds) {
+        final IntSet ofInstance = objectsByInstance.get(instanceId);
+        if (ofInstance != null) {
+          objects.addAll(ofInstance);
+        }
+      }
+    }
+    final Visibility current = getVisibility(today);
+    objects.retainAll(visibilitySensitive ? current.visible : current.inPeriod);
+    return objects;
+  }
+
+  private Visibility getVisibility(final String today) {
+    Visibility current = visibility;
+    if (current == null || !current.day.equals(today)) {
+      synchronized (this) {
+        current = visibility;
+        if (current == null || !current.day.equals(today)) {
+          final IntSet.Builder inPeriod = new IntSet.Builder();
+          final IntSet.Builder visible = new IntSet.Builder();
+          for (Map.Entry<Integer, Content> entry : contents.entrySet()) {
+            final Content content = entry.getValue();
+            if (content.isInPeriod(today)) {
+              inPeriod.add(entry.getKey());
+              if (content.visible) {
+                visible.add(entry.getKey());
+              }
+            }
+          }
+          current = new Visibility(today, inPeriod.build(), visible.build());
+          visibility = current;
+        }
+      }
+    }
+    return current;
+  }
+
+  private void clear() {
+    valuesByPosition.clear();
+    objectByPosition.clear();
+    allPositions.clear();
+    positionsByObject.clear();
+    positionsByValue.clear();
+    positionsByValuePrefix.clear();
+    positionsOnAxis.clear();
+    for (int axis = 0; axis < nbMaxAxis; axis++) {
+      positionsByValue.add(new HashMap<>());
+      positionsByValuePrefix.add(new HashMap<>());
+      positionsOnAxis.add(new IntSet());
+    }
+    contents.clear();
+    objectsByInstance.clear();
+    objectsWithContent.clear();
+    visibility = null;
+  }
+
+  private void trim() {
+    allPositions.trim();
+    positionsByObject.values().forEach(IntSet::trim);
+    positionsOnAxis.forEach(IntSet::trim);
+    positionsByValue.forEach(m -> m.values().forEach(IntSet::trim));
+    positionsByValuePrefix.forEach(m -> m.values().forEach(IntSet::trim));
+    objectsByInstance.values().forEach(IntSet::trim);
+    objectsWithContent.trim();
+  }
+
+  private void addPosition(final ResultSet rs) throws SQLException {
+    final int positionId = rs.getInt(1);
+    final int objectId = rs.getInt(2);
+    final String[] values = new String[nbMaxAxis];
+    for (int axis = 0; axis < nbMaxAxis; axis++) {
+      final String value = rs.getString(3 + axis);
+      if (StringUtil.isDefined(value)) {
+        values[axis] = value;
+        positionsOnAxis.get(axis).add(positionId);
+        positionsByValue.get(axis).computeIfAbsent(value, v -> new IntSet()).add(positionId);
+        for (String prefix : getPrefixes(value)) {
+          positionsByValuePrefix.get(axis).computeIfAbsent(prefix, v -> new IntSet())
+              .add(positionId);
+        }
+      }
+    }
+    valuesByPosition.put(positionId, values);
+    objectByPosition.put(positionId, objectId);
+    allPositions.add(positionId);
+    positionsByObject.computeIfAbsent(objectId, o -> new IntSet()).add(positionId);
+  }
+
+  private void doRemoveObject(final int objectId) {
+    final IntSet positions = positionsByObject.get(objectId);
+    if (positions != null) {
+      positions.copy().forEach(this::doRemovePosition);
+    }
+  }
+
+  private void doRemovePosition(final int positionId) {
+    final String[] values = valuesByPosition.remove(positionId);
+    final Integer objectId = objectByPosition.remove(positionId);
+    if (values == null || objectId == null) {
+      return;
+    }
+    allPositions.remove(positionId);
+    for (int axis = 0; axis < nbMaxAxis; axis++) {
+      if (values[axis] != null) {
+        positionsOnAxis.get(axis).remove(positionId);
+        removeFrom(positionsByValue.get(axis), values[axis], positionId);
+        for (String prefix : getPrefixes(values[axis])) {
+          removeFrom(positionsByValuePrefix.get(axis), prefix, positionId);
+        }
+      }
+    }
+    removeFrom(positionsByObject, objectId, positionId);
+  }
+
+  private void doReloadContent(final Connection connection, final int objectId)
+      throws SQLException {
+    final Content previous = contents.remove(objectId);
+    if (previous != null) {
+      removeFrom(objectsByInstance, previous.instanceId, objectId);
+    }
+    objectsWithContent.remove(objectId);
+    try (PreparedStatement statement = connection.prepareStatement(CONTENT_QUERY)) {
+      statement.setInt(1, objectId);
+      try (ResultSet rs = statement.executeQuery()) {
+        while (rs.next()) {
+          addContent(rs);
+        }
+      }
+    }
+    visibility = null;
+  }
+
+  private void addContent(final ResultSet rs) throws SQLException {
+    final int objectId = rs.getInt(1);
+    final Content content =
+        new Content(rs.getString(2), rs.getString(3), rs.getString(4), rs.getInt(5) == 1);
+    contents.put(objectId, content);
+    objectsByInstance.computeIfAbsent(content.instanceId, i -> new IntSet()).add(objectId);
+    objectsWithContent.add(objectId);
+  }
+
+  private static <K> void removeFrom(final Map<K, IntSet> sets, final K key, final int id) {
+    final IntSet set = sets.get(key);
+    if (set != null) {
+      set.remove(id);
+      if (set.isEmpty()) {
+        sets.remove(key);
+      }
+    }
+  }
+
+  /**
+   * Gets all the prefixes of the given value path that end with a path separator, and the value
+   * itself.
+   */
+  private static List<String> getPrefixes(final String value) {
+    final List<String> prefixes = new ArrayList<>();
+    for (int i = 0; i < value.length(); i++) {
+      if (value.charAt(i) == PATH_SEPARATOR) {
+        prefixes.add(value.substring(0, i + 1));
+      }
+    }
+    if (value.charAt(value.length() - 1) != PATH_SEPARATOR) {
+      prefixes.add(value);
+    }
+    return prefixes;
+  }
+
+  private static class Content {
+    private final String instanceId;
+    private final String beginDate;
+    private final String endDate;
+    private final boolean visible;
+
+    Content(final String instanceId, final String beginDate, final String endDate,
+        final boolean visible) {
+      this.instanceId = instanceId;
+      this.beginDate = beginDate;
+      this.endDate = endDate;
+      this.visible = visible;
+    }
+
+    boolean isInPeriod(final String day) {
+      return beginDate != null && endDate != null && beginDate.compareTo(day) <= 0 &&
+          endDate.compareTo(day) >= 0;
+    }
+  }
+
+  private static class Visibility {
+    private final String day;
+    private final IntSet inPeriod;
+    private final IntSet visible;
+
+    Visibility(final String day, final IntSet inPeriod, final IntSet visible) {
+      this.day = day;
+      this.inPeriod = inPeriod;
+      this.visible = visible;
+    }
+  }
+}
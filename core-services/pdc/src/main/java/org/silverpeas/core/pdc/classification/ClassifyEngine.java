@@ -40,6 +40,7 @@ import java.sql.Connection;
 import java.sql.Date;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -62,6 +63,8 @@ public class ClassifyEngine implements SilverContentPostUpdate {
   private int[] registeredAxis = null;
   // GetSinglePertinentAxis Cache
   private Map<String, PertinentAxis> singlePertinentAxis = new ConcurrentHashMap<>(0);
+  // In-memory index of the classification
+  private ClassificationIndex classificationIndex = null;
 
   private static ClassifyEngine getInstance() {
     return ServiceProvider.getService(ClassifyEngine.class);
@@ -79,6 +82,10 @@ public class ClassifyEngine implements SilverContentPostUpdate {
     } catch (ClassifyEngineException e) {
       SilverLogger.getLogger(this).error(e);
     }
+    if (res.getBoolean("classification.index.enabled", true)) {
+      classificationIndex = new ClassificationIndex(nbMaxAxis);
+      isClassificationIndexUsable();
+    }
   }
 
   // Return the maximum number of supported axis
@@ -96,6 +103,54 @@ public class ClassifyEngine implements SilverContentPostUpdate {
   @Override
   public void postSilverpeasContentUpdate(final int silverContentId) {
     clearCache();
+    if (classificationIndex != null) {
+      try (Connection connection = DBUtil.openConnection()) {
+        classificationIndex.reloadContent(connection, silverContentId);
+      } catch (SQLException e) {
+        SilverLogger.getLogger(this).warn(e);
+      }
+    }
+  }
+
+  /**
+   * Is the in-memory index of the classification usable? If it is invalidated, it is rebuilt.
+   * @return true if the index can be used, false if the SQL statements have to be used instead.
+   */
+  private boolean isClassificationIndexUsable() {
+    if (classificationIndex == null) {
+      return false;
+    }
+    if (!classificationIndex.isValid()) {
+      try (Connection connection = DBUtil.openConnection()) {
+        classificationIndex.rebuild(connection);
+      } catch (SQLException e) {
+        SilverLogger.getLogger(this).error("Cannot build the index of the PDC classification", e);
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Invalidates the in-memory index of the classification. It will be rebuilt at its next use.
+   */
+  private void invalidateClassificationIndex() {
+    if (classificationIndex != null) {
+      classificationIndex.invalidate();
+    }
+  }
+
+  /**
+   * Reloads in the in-memory index of the classification the positions of the given object.
+   */
+  private void reloadInClassificationIndex(final Connection connection, final int silverObjectId) {
+    if (classificationIndex != null) {
+      try {
+        classificationIndex.reloadObject(connection, silverObjectId);
+      } catch (SQLException e) {
+        SilverLogger.getLogger(this).warn(e);
+      }
+    }
   }
 
   private static void clearCache() {
@@ -139,6 +194,7 @@ public class ClassifyEngine implements SilverContentPostUpdate {
 
       // Clear cache
       singlePertinentAxis.clear();
+      invalidateClassificationIndex();
     } catch (Exception e) {
       throw new ClassifyEngineException(e);
     } finally {
@@ -180,6 +236,7 @@ public class ClassifyEngine implements SilverContentPostUpdate {
 
       // Clear cache
       singlePertinentAxis.clear();
+      invalidateClassificationIndex();
 
       return alDeletedPositionIds;
     } catch (Exception e) {
@@ -324,6 +381,7 @@ public class ClassifyEngine implements SilverContentPostUpdate {
 
       // Clear cache
       singlePertinentAxis.clear();
+      reloadInClassificationIndex(connection, silverObjectId);
 
       return newPositionId;
     } catch (Exception e) {
@@ -348,6 +406,9 @@ public class ClassifyEngine implements SilverContentPostUpdate {
 
       // Clear cache
       singlePertinentAxis.clear();
+      if (classificationIndex != null) {
+        classificationIndex.removeObject(nSilverObjectId);
+      }
     } catch (Exception e) {
       throw new ClassifyEngineException(e);
     }
@@ -370,6 +431,9 @@ public class ClassifyEngine implements SilverContentPostUpdate {
 
       // Clear cache
       singlePertinentAxis.clear();
+      if (classificationIndex != null) {
+        classificationIndex.removePosition(nPositionId);
+      }
     } catch (Exception e) {
       throw new ClassifyEngineException(e);
     }
@@ -401,6 +465,15 @@ public class ClassifyEngine implements SilverContentPostUpdate {
 
       // Clear cache
       singlePertinentAxis.clear();
+      if (classificationIndex != null) {
+        final int silverObjectId =
+            classificationIndex.getObjectOfPosition(newPosition.getPositionId());
+        if (silverObjectId >= 0) {
+          reloadInClassificationIndex(connection, silverObjectId);
+        } else {
+          invalidateClassificationIndex();
+        }
+      }
     } catch (Exception e) {
       throw new ClassifyEngineException(e);
     }
@@ -426,6 +499,7 @@ public class ClassifyEngine implements SilverContentPostUpdate {
         // Clear cache
         singlePertinentAxis.clear();
       }
+      reloadInClassificationIndex(connection, nSilverObjectId);
     } catch (Exception e) {
       throw new ClassifyEngineException(e);
     }
@@ -440,6 +514,10 @@ public class ClassifyEngine implements SilverContentPostUpdate {
       boolean visibilitySensitive) throws ClassifyEngineException {
     final List<Integer> allObjectIds = new ArrayList<>();
     final List<Criteria> allCriteria = buildCriteriaOnAxis(alGivenCriterias);
+    if (isOnContentsOnly(joinStatementContent) && isClassificationIndexUsable()) {
+      return classificationIndex.findObjects(allCriteria, instanceIds, DateUtil.today2SQLDate(),
+          recursiveSearch, visibilitySensitive);
+    }
     try (final Connection connection = DBUtil.openConnection()) {
       String today = DateUtil.today2SQLDate();
 
@@ -476,6 +554,15 @@ public class ClassifyEngine implements SilverContentPostUpdate {
     }
   }
 
+  /**
+   * Is the given join statement only about the silverpeas contents without any other constraint?
+   */
+  private boolean isOnContentsOnly(final JoinStatement joinStatement) {
+    return joinStatement.getTables().size() == 1 &&
+        "SB_ContentManager_Content".equalsIgnoreCase(joinStatement.getTable(0)) &&
+        !StringUtil.isDefined(joinStatement.getWhere());
+  }
+
   private List<Criteria> buildCriteriaOnAxis(final List<? extends Criteria> allGivenCriteria)
       throws ClassifyEngineException {
     // Convert the Axis Ids
@@ -543,6 +630,7 @@ public class ClassifyEngine implements SilverContentPostUpdate {
 
       // Clear cache
       singlePertinentAxis.clear();
+      invalidateClassificationIndex();
     } catch (Exception e) {
       throw new ClassifyEngineException(e);
     }
@@ -575,6 +663,7 @@ public class ClassifyEngine implements SilverContentPostUpdate {
 
       // Clear cache
       singlePertinentAxis.clear();
+      invalidateClassificationIndex();
 
     } catch (Exception e) {
       throw new ClassifyEngineException(e);
@@ -634,6 +723,7 @@ public class ClassifyEngine implements SilverContentPostUpdate {
 
       // Clear cache
       singlePertinentAxis.clear();
+      invalidateClassificationIndex();
     } catch (Exception e) {
       throw new ClassifyEngineException(e);
     }
@@ -687,6 +777,20 @@ public class ClassifyEngine implements SilverContentPostUpdate {
     // Convert the Axis Ids
     List<Criteria> alCriterias = buildCriteriaOnAxis(alGivenCriterias);
 
+    if (isClassificationIndexUsable()) {
+      final String today = DateUtil.today2SQLDate();
+      final List<PertinentAxis> allPertinentAxis = new ArrayList<>(alAxisIds.size());
+      for (Integer axisId : alAxisIds) {
+        final PertinentAxis pertinentAxis = new PertinentAxis();
+        pertinentAxis.setAxisId(axisId);
+        pertinentAxis.setRootValue("");
+        pertinentAxis.setNbObjects(classificationIndex
+            .countObjects(alCriterias, getPhysicalAxisId(axisId), "", instanceIds, today));
+        allPertinentAxis.add(pertinentAxis);
+      }
+      return allPertinentAxis;
+    }
+
     try (final Connection connection = DBUtil.openConnection()) {
 
       String today = DateUtil.today2SQLDate();
@@ -753,6 +857,18 @@ public class ClassifyEngine implements SilverContentPostUpdate {
 
     // Convert the Axis Ids
     final List<Criteria> alCriterias = buildCriteriaOnAxis(alGivenCriterias);
+    if (isClassificationIndexUsable()) {
+      final List<PertinentValue> allPertinentValues = new ArrayList<>();
+      classificationIndex.countObjectsByValue(alCriterias, getPhysicalAxisId(nLogicalAxisId),
+          instanceIds, DateUtil.today2SQLDate()).forEach((value, count) -> {
+        PertinentValue pValue = new PertinentValue();
+        pValue.setAxisId(nLogicalAxisId);
+        pValue.setNbObjects(count);
+        pValue.setValue(value);
+        allPertinentValues.add(pValue);
+      });
+      return allPertinentValues;
+    }
     try (Connection connection = DBUtil.openConnection()) {
 
       String today = DateUtil.today2SQLDate();
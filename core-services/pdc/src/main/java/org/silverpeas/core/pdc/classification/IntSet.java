@@ -0,0 +1,242 @@
+/*
+ * Copyright (C) 2000 - 2018 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.pdc.classification;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * A set of positive integers backed by a sorted array. Unlike a {@link java.util.BitSet}, its
+ * size depends only on the number of its elements and not on their value, so it stays small for
+ * the sparse identifiers of the positions and of the contents, whatever their range. It is used
+ * by the {@link ClassificationIndex} for its many small sets of identifiers.
+ * <p>
+ * This class isn't thread safe.
+ * </p>
+ */
+class IntSet {
+
+  private static final int[] EMPTY = new int[0];
+
+  private int[] values;
+  private int size;
+
+  /**
+   * Constructs an empty set.
+   */
+  IntSet() {
+    this.values = EMPTY;
+    this.size = 0;
+  }
+
+  private IntSet(final int[] values, final int size) {
+    this.values = values;
+    this.size = size;
+  }
+
+  /**
+   * Constructs a set with the given values, in any order and possibly duplicated.
+   * @param values an array of values.
+   * @param length the number of values to take in the array.
+   * @return a new set of integers.
+   */
+  static IntSet of(final int[] values, final int length) {
+    final int[] sorted = Arrays.copyOf(values, length);
+    Arrays.sort(sorted);
+    int size = 0;
+    for (int i = 0; i < length; i++) {
+      if (size == 0 || sorted[size - 1] != sorted[i]) {
+        sorted[size++] = sorted[i];
+      }
+    }
+    return new IntSet(sorted, size);
+  }
+
+  /**
+   * Adds the given value. It is faster when the values are added in ascending order.
+   * @param value the value to add.
+   */
+  void add(final int value) {
+    if (size > 0 && values[size - 1] < value) {
+      ensureCapacity();
+      values[size++] = value;
+      return;
+    }
+    final int index = Arrays.binarySearch(values, 0, size, value);
+    if (index < 0) {
+      final int insertion = -index - 1;
+      ensureCapacity();
+      System.arraycopy(values, insertion, values, insertion + 1, size - insertion);
+      values[insertion] = value;
+      size++;
+    }
+  }
+
+  /**
+   * Removes the given value.
+   * @param value the value to remove.
+   */
+  void remove(final int value) {
+    final int index = Arrays.binarySearch(values, 0, size, value);
+    if (index >= 0) {
+      System.arraycopy(values, index + 1, values, index, size - index - 1);
+      size--;
+    }
+  }
+
+  boolean contains(final int value) {
+    return Arrays.binarySearch(values, 0, size, value) >= 0;
+  }
+
+  int size() {
+    return size;
+  }
+
+  boolean isEmpty() {
+    return size == 0;
+  }
+
+  void clear() {
+    values = EMPTY;
+    size = 0;
+  }
+
+  /**
+   * Copies this set.
+   * @return a new set with the same values.
+   */
+  IntSet copy() {
+    return new IntSet(Arrays.copyOf(values, size), size);
+  }
+
+  /**
+   * Keeps in this set only the values that are also in the given one.
+   * @param other another set.
+   */
+  void retainAll(final IntSet other) {
+    int count = 0;
+    if (size <= other.size) {
+      int from = 0;
+      for (int i = 0; i < size && from < other.size; i++) {
+        final int index = Arrays.binarySearch(other.values, from, other.size, values[i]);
+        if (index >= 0) {
+          values[count++] = values[i];
+          from = index + 1;
+        } else {
+          from = -index - 1;
+        }
+      }
+    } else {
+      int from = 0;
+      for (int i = 0; i < other.size && from < size; i++) {
+        final int index = Arrays.binarySearch(values, from, size, other.values[i]);
+        if (index >= 0) {
+          values[count++] = other.values[i];
+          from = index + 1;
+        } else {
+          from = -index - 1;
+        }
+      }
+    }
+    size = count;
+  }
+
+  /**
+   * Adds to this set all the values of the given one.
+   * @param other another set.
+   */
+  void addAll(final IntSet other) {
+    if (other.size == 0) {
+      return;
+    }
+    final int[] merged = new int[size + other.size];
+    int count = 0;
+    int i = 0;
+    int j = 0;
+    while (i < size && j < other.size) {
+      final int a = values[i];
+      final int b = other.values[j];
+      if (a <= b) {
+        merged[count++] = a;
+        i++;
+        if (a == b) {
+          j++;
+        }
+      } else {
+        merged[count++] = b;
+        j++;
+      }
+    }
+    System.arraycopy(values, i, merged, count, size - i);
+    count += size - i;
+    System.arraycopy(other.values, j, merged, count, other.size - j);
+    count += other.size - j;
+    values = merged;
+    size = count;
+  }
+
+  /**
+   * Performs the given action for each value of this set, in ascending order.
+   * @param action the action to perform.
+   */
+  void forEach(final IntConsumer action) {
+    for (int i = 0; i < size; i++) {
+      action.accept(values[i]);
+    }
+  }
+
+  /**
+   * Releases the unused capacity of the backing array.
+   */
+  void trim() {
+    if (values.length > size) {
+      values = size == 0 ? EMPTY : Arrays.copyOf(values, size);
+    }
+  }
+
+  private void ensureCapacity() {
+    if (size == values.length) {
+      values = Arrays.copyOf(values, Math.max(4, size + (size >> 1)));
+    }
+  }
+
+  /**
+   * A builder of a set from values given in any order.
+   */
+  static class Builder {
+    private int[] values = new int[16];
+    private int size = 0;
+
+    void add(final int value) {
+      if (size == values.length) {
+        values = Arrays.copyOf(values, size << 1);
+      }
+      values[size++] = value;
+    }
+
+    IntSet build() {
+      return IntSet.of(values, size);
+    }
+  }
+}
@@ -631,14 +631,10 @@ public class GlobalPdcManager implements PdcManager {
    */
   @Override
   public List<Value> getAxisValues(int treeId) throws PdcException {
-    Connection con = openConnection();
-
     try {
-      return createValuesList(treeService.getTree(con, Integer.toString(treeId)));
+      return createValuesList(treeService.getTree(Integer.toString(treeId)));
     } catch (Exception e) {
       throw new PdcException(e);
-    } finally {
-      DBUtil.close(con);
     }
   }
 
@@ -1404,16 +1400,12 @@ public class GlobalPdcManager implements PdcManager {
   @Override
   public List<Value> getDaughters(String axisId, String valueId) {
     List<Value> daughters = new ArrayList<>();
-    Connection con = null;
     try {
-      con = openConnection();
       AxisHeader axisHeader = getAxisHeader(axisId, false);
       int tId = axisHeader.getRootId();
       return getAxisValues(tId);
     } catch (Exception e) {
       SilverLogger.getLogger(this).warn(e.getMessage());
-    } finally {
-      DBUtil.close(con);
     }
     return daughters;
   }
@@ -1444,7 +1436,7 @@ public class GlobalPdcManager implements PdcManager {
           treeNode.getDescription(), treeNode.getCreationDate(), treeNode.getCreatorId(),
           treeNode.getPath(), treeNode.getLevelNumber(), treeNode.getOrderNumber(),
           treeNode.getFatherId());
-      value.setTranslations(treeNode.getTranslations());
+      value.setTranslations(new HashMap<>(treeNode.getTranslations()));
       return value;
     }
     return null;
@@ -114,6 +114,23 @@ public class TreeNode extends AbstractI18NBean<TreeNodeI18N> implements java.io.
         levelNumber, orderNumber, fatherId);
   }
 
+  /**
+   * Constructs a copy of the specified node with its translations.
+   * @param other the node to copy.
+   */
+  public TreeNode(TreeNode other) {
+    super(other);
+    this.pk = other.pk;
+    this.treeId = other.treeId;
+    this.creationDate = other.creationDate;
+    this.creatorId = other.creatorId;
+    this.path = other.path;
+    this.levelNumber = other.levelNumber;
+    this.orderNumber = other.orderNumber;
+    this.fatherId = other.fatherId;
+    setTranslations(other.getClonedTranslations());
+  }
+
   public TreeNode(TreeNodePersistence persistence) {
     this.pk = persistence.getPK();
     this.treeId = persistence.getTreeId();
@@ -33,6 +33,7 @@ import org.silverpeas.core.pdc.tree.model.TreeNode;
 import org.silverpeas.core.pdc.tree.model.TreeNodeI18N;
 import org.silverpeas.core.pdc.tree.model.TreeNodePK;
 import org.silverpeas.core.pdc.tree.model.TreeNodePersistence;
+import org.silverpeas.core.persistence.jdbc.DBUtil;
 import org.silverpeas.core.persistence.jdbc.bean.PersistenceException;
 import org.silverpeas.core.persistence.jdbc.bean.SilverpeasBeanDAO;
 import org.silverpeas.core.persistence.jdbc.bean.SilverpeasBeanDAOFactory;
@@ -47,8 +48,10 @@ import java.sql.SQLException;
 import java.text.ParseException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.StringTokenizer;
 
 @Singleton
@@ -63,10 +66,15 @@ public class DefaultTreeService implements TreeService {
 
   }
 
-  @SuppressWarnings("unchecked")
   @Override
   public TreeNode getRoot(Connection con, String treeId)
       throws TreeManagerException {
+    return getSnapshot(con, treeId).getRoot();
+  }
+
+  @SuppressWarnings("unchecked")
+  private TreeNode loadRoot(Connection con, String treeId)
+      throws TreeManagerException {
 
     String whereClause = TREE_ID_EQUALS + treeId + " and levelNumber = 0";
     TreeNode root = null;
@@ -105,6 +113,7 @@ public class DefaultTreeService implements TreeService {
       throw new TreeManagerException(e);
     }
 
+    TreeCache.unvalidateTree(treeId);
     return treeId;
   }
 
@@ -139,7 +148,7 @@ public class DefaultTreeService implements TreeService {
         nodeHasMoved = false;
       }
 
-      TreeNode oldNode = getNode(con, (TreeNodePK) node.getPK(), treeId);
+      TreeNode oldNode = loadNode(con, (TreeNodePK) node.getPK(), treeId);
       if (node.isRemoveTranslation()) {
         applyTranslationDeletion(con, treeId, oldNode, node, true);
       } else {
@@ -178,7 +187,7 @@ public class DefaultTreeService implements TreeService {
   public void updateRoot(Connection con, TreeNode node) throws TreeManagerException {
     try {
       final String treeId = node.getTreeId();
-      final TreeNode oldRoot = getRoot(con, treeId);
+      final TreeNode oldRoot = loadRoot(con, treeId);
       // gestion des traductions
       if (node.isRemoveTranslation()) {
         applyTranslationDeletion(con, treeId, oldRoot, node, false);
@@ -263,7 +272,7 @@ public class DefaultTreeService implements TreeService {
       throws TreeManagerException {
     List<TreeNode> subTree = getSubTree(con, rootPK, treeId);
     String rootId = rootPK.getId();
-    TreeNode node = getNode(con, rootPK, treeId);
+    TreeNode node = loadNode(con, rootPK, treeId);
 
     // Remove all nodes under the rootId
     String whereClause = TREE_ID_EQUALS + treeId + " and (path LIKE '"
@@ -319,16 +328,49 @@ public class DefaultTreeService implements TreeService {
   }
 
   public List<TreeNode> getTree(Connection con, String treeId) throws TreeManagerException {
-    List<TreeNode> sortedList = TreeCache.getTree(treeId);
-    if (sortedList == null) {
-      sortedList = new ArrayList<>();
-      final TreeNode root = getRoot(con, treeId);
+    return getSnapshot(con, treeId).getNodes();
+  }
+
+  @Override
+  public List<TreeNode> getTree(String treeId) throws TreeManagerException {
+    TreeSnapshot snapshot = TreeCache.getTree(treeId);
+    if (snapshot == null) {
+      try (Connection con = DBUtil.openConnection()) {
+        snapshot = getSnapshot(con, treeId);
+      } catch (SQLException e) {
+        throw new TreeManagerException(e);
+      }
+    }
+    return snapshot.getNodes();
+  }
+
+  /**
+   * Gets the snapshot of the specified tree. If the tree isn't in the cache, it is loaded from
+   * the data source with the translations of its nodes and then it is cached.
+   * @param con the connection to the data source.
+   * @param treeId the identifier of the tree.
+   * @return the snapshot of the tree.
+   * @throws TreeManagerException if the tree cannot be loaded.
+   */
+  private TreeSnapshot getSnapshot(Connection con, String treeId) throws TreeManagerException {
+    TreeSnapshot snapshot = TreeCache.getTree(treeId);
+    if (snapshot == null) {
+      final long version = TreeCache.getVersion(treeId);
+      final List<TreeNode> sortedList = new ArrayList<>();
+      final TreeNode root = loadRoot(con, treeId);
       if (root != null) {
+        final Map<String, List<TreeNodeI18N>> translations;
+        try {
+          translations = I18NHelper.isI18nContentActivated ?
+              treeI18NDAO.getTranslations(con, treeId) : Collections.emptyMap();
+        } catch (SQLException e) {
+          throw new TreeManagerException(e);
+        }
         List<TreeNodePersistence> list = getDescendants(con, root);
         for (int i = 0; i < list.size(); i++) {
           final TreeNodePersistence nodePers = list.get(i);
           final TreeNode node = new TreeNode(nodePers);
-          setTranslations(con, node);
+          setTranslations(node, translations.get(node.getPK().getId()));
           final int position;
           if (i == 0) {
             position = 0;
@@ -338,9 +380,19 @@ public class DefaultTreeService implements TreeService {
           sortedList.add(position, node);
         }
       }
-      TreeCache.cacheTree(treeId, sortedList);
+      snapshot = new TreeSnapshot(version, sortedList);
+      TreeCache.cacheTree(treeId, snapshot);
+    }
+    return snapshot;
+  }
+
+  private void setTranslations(TreeNode node, List<TreeNodeI18N> translations) {
+    // ajout de la traduction par defaut
+    node.addTranslation(new TreeNodeI18N(Integer.parseInt(node.getPK().getId()),
+        node.getLanguage(), node.getName(), node.getDescription()));
+    if (translations != null) {
+      translations.forEach(node::addTranslation);
     }
-    return sortedList;
   }
 
   private void setTranslations(Connection con, TreeNode node)
@@ -368,7 +420,7 @@ public class DefaultTreeService implements TreeService {
   public List<TreeNode> getSubTree(Connection con, TreeNodePK rootPK, String treeId)
       throws TreeManagerException {
     TreeNode root = null;
-    root = getNode(con, rootPK, treeId);
+    root = loadNode(con, rootPK, treeId);
     List<TreeNodePersistence> list = getDescendants(con, root);
 
     // 1 - On parcours la liste list
@@ -460,6 +512,15 @@ public class DefaultTreeService implements TreeService {
 
   public TreeNode getNode(Connection con, TreeNodePK nodePK, String treeId)
       throws TreeManagerException {
+    TreeNode node = getSnapshot(con, treeId).getNode(nodePK.getId());
+    if (node == null) {
+      node = loadNode(con, nodePK, treeId);
+    }
+    return node;
+  }
+
+  private TreeNode loadNode(Connection con, TreeNodePK nodePK, String treeId)
+      throws TreeManagerException {
     TreeNode node = null;
     try {
       String whereClause = TREE_ID_EQUALS + treeId + " and id = " + nodePK.getId();
@@ -516,7 +577,7 @@ public class DefaultTreeService implements TreeService {
 
   public String insertFatherToNode(Connection con, TreeNode nodeToInsert,
       TreeNodePK refNodePK, String treeId) throws TreeManagerException {
-    TreeNode refNode = getNode(con, refNodePK, treeId);
+    TreeNode refNode = loadNode(con, refNodePK, treeId);
 
     // Mémoriser le père actuel P1 de la fille
     String refPath = refNode.getPath();
@@ -571,9 +632,9 @@ public class DefaultTreeService implements TreeService {
   public void moveSubTreeToNewFather(Connection con, TreeNodePK nodeToMovePK,
       TreeNodePK newFatherPK, String treeId, int orderNumber)
       throws TreeManagerException {
-    TreeNode movedNode = getNode(con, nodeToMovePK, treeId);
+    TreeNode movedNode = loadNode(con, nodeToMovePK, treeId);
     TreeNode savedNode = movedNode;
-    TreeNode newFatherNode = getNode(con, newFatherPK, treeId);
+    TreeNode newFatherNode = loadNode(con, newFatherPK, treeId);
     List<TreeNodePersistence> list = getDescendants(con, savedNode);
 
     // idée le nouveau niveau = niveauActuel - niveauAncienPere +
@@ -622,7 +683,7 @@ public class DefaultTreeService implements TreeService {
 
   public String createSonToNode(Connection con, TreeNode nodeToInsert,
       TreeNodePK refNode, String treeId) throws TreeManagerException {
-    TreeNode father = getNode(con, refNode, treeId);
+    TreeNode father = loadNode(con, refNode, treeId);
     nodeToInsert.setLevelNumber(father.getLevelNumber() + 1);
     nodeToInsert.setPath(father.getPath() + father.getPK().getId() + "/");
     nodeToInsert.setFatherId(father.getPK().getId());
@@ -633,7 +694,7 @@ public class DefaultTreeService implements TreeService {
     if (order == -1) {
       // the order is not specified. We are going to insert the new node
       // following the alphabetical order
-      List<TreeNode> brothers = getSonsToNode(con, (TreeNodePK) father
+      List<TreeNode> brothers = loadSonsToNode(con, (TreeNodePK) father
           .getPK(), treeId);
       TreeNode brother = null;
       String brotherName = null;
@@ -691,9 +752,18 @@ public class DefaultTreeService implements TreeService {
     return pk.getId();
   }
 
-  @SuppressWarnings("unchecked")
   public List<TreeNode> getSonsToNode(Connection con, TreeNodePK treeNodePK, String treeId)
       throws TreeManagerException {
+    final TreeSnapshot snapshot = getSnapshot(con, treeId);
+    if (snapshot.contains(treeNodePK.getId())) {
+      return snapshot.getChildren(treeNodePK.getId());
+    }
+    return loadSonsToNode(con, treeNodePK, treeId);
+  }
+
+  @SuppressWarnings("unchecked")
+  private List<TreeNode> loadSonsToNode(Connection con, TreeNodePK treeNodePK, String treeId)
+      throws TreeManagerException {
     String whereClause = TREE_ID_EQUALS + treeId + " and fatherId = "
         + treeNodePK.getId();
     Collection<TreeNodePersistence> sons = null;
@@ -710,7 +780,7 @@ public class DefaultTreeService implements TreeService {
   public void deleteNode(Connection con, TreeNodePK nodePK, String treeId)
       throws TreeManagerException {
     String nodeId = nodePK.getId();
-    TreeNode nodeToDelete = getNode(con, nodePK, treeId);
+    TreeNode nodeToDelete = loadNode(con, nodePK, treeId);
     String path = nodeToDelete.getPath();
     String newFather = nodeToDelete.getFatherId();
 
@@ -755,6 +825,10 @@ public class DefaultTreeService implements TreeService {
 
   public List<TreeNode> getFullPath(Connection con, TreeNodePK nodePK, String treeId)
       throws TreeManagerException {
+    final TreeSnapshot snapshot = getSnapshot(con, treeId);
+    if (snapshot.contains(nodePK.getId())) {
+      return snapshot.getPathOf(nodePK.getId());
+    }
     String path = getPath(con, nodePK, treeId);
     ArrayList<TreeNode> list = new ArrayList<>();
     try {
@@ -815,7 +889,7 @@ public class DefaultTreeService implements TreeService {
 
   private void createIndex(Connection con, TreeNode node)
       throws TreeManagerException {
-    TreeNode nodeToIndex = getNode(con, (TreeNodePK) node.getPK(), node
+    TreeNode nodeToIndex = loadNode(con, (TreeNodePK) node.getPK(), node
         .getTreeId());
 
     createIndex(nodeToIndex);
@@ -0,0 +1,180 @@
+/*
+ * Copyright (C) 2000 - 2018 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.pdc.tree.service;
+
+import org.silverpeas.core.WAPrimaryKey;
+import org.silverpeas.core.pdc.pdc.model.AxisHeaderI18N;
+import org.silverpeas.core.pdc.tree.model.TreeNode;
+import org.silverpeas.core.pdc.tree.model.TreeNodeI18N;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A node of a tree that cannot be modified once constructed. Such nodes are shared by all the
+ * readers of a cached tree: any attempt to modify them fails with an
+ * {@link UnsupportedOperationException}.
+ */
+final class ImmutableTreeNode extends TreeNode {
+
+  private static final long serialVersionUID = -2468301557432470711L;
+
+  private final boolean constructed;
+
+  /**
+   * Constructs an immutable copy of the specified node with its translations.
+   * @param node the node to copy.
+   */
+  ImmutableTreeNode(final TreeNode node) {
+    super(node);
+    this.constructed = true;
+  }
+
+  @Override
+  public Map<String, TreeNodeI18N> getTranslations() {
+    return constructed ? Collections.unmodifiableMap(super.getTranslations()) :
+        super.getTranslations();
+  }
+
+  @Override
+  public Collection<String> getLanguages() {
+    return Collections.unmodifiableCollection(super.getLanguages());
+  }
+
+  @Override
+  public void setPK(final WAPrimaryKey value) {
+    checkMutable();
+    super.setPK(value);
+  }
+
+  @Override
+  public void setTreeId(final String treeId) {
+    checkMutable();
+    super.setTreeId(treeId);
+  }
+
+  @Override
+  public void setCreationDate(final String date) {
+    checkMutable();
+    super.setCreationDate(date);
+  }
+
+  @Override
+  public void setCreatorId(final String creatorId) {
+    checkMutable();
+    super.setCreatorId(creatorId);
+  }
+
+  @Override
+  public void setFatherId(final String fatherId) {
+    checkMutable();
+    super.setFatherId(fatherId);
+  }
+
+  @Override
+  public void setPath(final String path) {
+    checkMutable();
+    super.setPath(path);
+  }
+
+  @Override
+  public void setLevelNumber(final int levelNumber) {
+    checkMutable();
+    super.setLevelNumber(levelNumber);
+  }
+
+  @Override
+  public void setOrderNumber(final int orderNumber) {
+    checkMutable();
+    super.setOrderNumber(orderNumber);
+  }
+
+  @Override
+  public void setTranslationsFrom(final Map<String, AxisHeaderI18N> translations) {
+    checkMutable();
+    super.setTranslationsFrom(translations);
+  }
+
+  @Override
+  public void setName(final String name) {
+    checkMutable();
+    super.setName(name);
+  }
+
+  @Override
+  public void setDescription(final String description) {
+    checkMutable();
+    super.setDescription(description);
+  }
+
+  @Override
+  public void setLanguage(final String language) {
+    checkMutable();
+    super.setLanguage(language);
+  }
+
+  @Override
+  public void setRemoveTranslation(final boolean removeTranslation) {
+    checkMutable();
+    super.setRemoveTranslation(removeTranslation);
+  }
+
+  @Override
+  public void setTranslationId(final String translationId) {
+    checkMutable();
+    super.setTranslationId(translationId);
+  }
+
+  @Override
+  public void setTranslations(final Map<String, TreeNodeI18N> translations) {
+    checkMutable();
+    super.setTranslations(translations);
+  }
+
+  @Override
+  public void setTranslations(final Collection<TreeNodeI18N> translations) {
+    checkMutable();
+    super.setTranslations(translations);
+  }
+
+  @Override
+  public void setTranslations(final List<TreeNodeI18N> translations) {
+    checkMutable();
+    super.setTranslations(translations);
+  }
+
+  @Override
+  public void addTranslation(final TreeNodeI18N translation) {
+    checkMutable();
+    super.addTranslation(translation);
+  }
+
+  private void checkMutable() {
+    if (constructed) {
+      throw new UnsupportedOperationException("The node " + getPK().getId() + " is immutable");
+    }
+  }
+}
@@ -21,32 +21,59 @@
  * You should have received a copy of the GNU Affero General Public License
  * along with this program.  If not, see <http://www.gnu.org/licenses/>.
  */
-/*--- formatted by Jindent 2.1, (www.c-lab.de/~jindent)
- ---*/
-
 package org.silverpeas.core.pdc.tree.service;
 
-import java.util.Hashtable;
-import java.util.List;
+import org.silverpeas.core.persistence.Transaction;
 
-import org.silverpeas.core.pdc.tree.model.TreeNode;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * A cache of the trees of nodes. Each tree is cached as an immutable snapshot that is read
+ * without any lock. Each tree has also a version that is incremented at each change in the tree
+ * so that a snapshot built from an older version of the tree is never put in the cache. The
+ * version can be used by other caches to detect a tree has changed.
+ * <p>
+ * A tree changed within a transaction is invalidated twice: at once, and again at the end of the
+ * transaction. Until the commit, the other threads still read the previous state of the tree
+ * from the data source, so a snapshot they build in the meantime would be stale.
+ * </p>
+ */
 public class TreeCache {
-  private static Hashtable<String, List<TreeNode>> allTrees =
-      new Hashtable<String, List<TreeNode>>();
+  private static final Map<String, TreeSnapshot> allTrees = new ConcurrentHashMap<>();
+  private static final Map<String, AtomicLong> versions = new ConcurrentHashMap<>();
 
   protected TreeCache() {
   }
 
-  public static List<TreeNode> getTree(String treeId) {
+  static TreeSnapshot getTree(String treeId) {
     return allTrees.get(treeId);
   }
 
-  public static synchronized void unvalidateTree(String treeId) {
+  /**
+   * Gets the current version of the specified tree.
+   * @param treeId the identifier of a tree.
+   * @return the version of the tree.
+   */
+  public static long getVersion(String treeId) {
+    return versions.computeIfAbsent(treeId, k -> new AtomicLong()).get();
+  }
+
+  public static void unvalidateTree(String treeId) {
+    invalidate(treeId);
+    Transaction.afterCompletion(() -> invalidate(treeId));
+  }
+
+  private static void invalidate(String treeId) {
+    // the version is incremented before removing the snapshot so that a snapshot being built
+    // concurrently from the previous version of the tree cannot be put in the cache
+    versions.computeIfAbsent(treeId, k -> new AtomicLong()).incrementAndGet();
     allTrees.remove(treeId);
   }
 
-  public static synchronized void cacheTree(String treeId, List<TreeNode> tree) {
-    allTrees.put(treeId, tree);
+  static void cacheTree(String treeId, TreeSnapshot tree) {
+    allTrees.compute(treeId,
+        (id, current) -> tree.getVersion() == getVersion(id) ? tree : current);
   }
-}
\ No newline at end of file
+}
@@ -27,7 +27,10 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Vector;
 
 import org.silverpeas.core.pdc.tree.model.TreeNodeI18N;
@@ -88,6 +91,45 @@ public class TreeI18NDAO {
     return allTranslations;
   }
 
+  /**
+   * Gets all the translations of the nodes of the specified tree in a single query.
+   * @param con the connection to the data source.
+   * @param treeId the identifier of the tree.
+   * @return the translations of the nodes of the tree indexed by the node identifier.
+   * @throws SQLException if an error occurs while requesting the data source.
+   */
+  public Map<String, List<TreeNodeI18N>> getTranslations(Connection con, String treeId)
+      throws SQLException {
+    String selectQuery = "select * from " + treeI18NTable + " where treeId = ?";
+    Map<String, List<TreeNodeI18N>> allTranslations = new HashMap<>();
+
+    PreparedStatement prepStmt = null;
+    ResultSet rs = null;
+    try {
+      prepStmt = con.prepareStatement(selectQuery);
+      prepStmt.setInt(1, Integer.parseInt(treeId));
+
+      rs = prepStmt.executeQuery();
+
+      TreeNodeI18N translation = null;
+      while (rs.next()) {
+        translation = new TreeNodeI18N();
+        translation.setId(rs.getInt(1));
+        translation.setObjectId(Integer.toString(rs.getInt(3)));
+        translation.setLanguage(rs.getString(4));
+        translation.setName(rs.getString(5));
+        translation.setDescription(rs.getString(6));
+
+        allTranslations.computeIfAbsent(translation.getObjectId(), k -> new ArrayList<>())
+            .add(translation);
+      }
+    } finally {
+      DBUtil.close(rs, prepStmt);
+    }
+
+    return allTranslations;
+  }
+
   public void createTranslation(Connection con, TreeNodeI18N translation,
       String treeId) throws SQLException {
     String selectQuery = "insert into " + treeI18NTable + "(" + COLUMNS
@@ -30,6 +30,12 @@ import org.silverpeas.core.pdc.tree.model.TreeNodePK;
 import java.sql.Connection;
 import java.util.List;
 
+/**
+ * Service to manage the trees of nodes backing the axis of the classification plan. The trees
+ * are cached: the nodes returned by the read methods can be shared among all the callers and
+ * they are then immutable. The lists of nodes returned by them are also unmodifiable. Any
+ * change in a node has to be done on a copy of it and passed to the service.
+ */
 public interface TreeService {
 
   String createRoot(Connection con, TreeNode root)
@@ -50,6 +56,15 @@ public interface TreeService {
   List<TreeNode> getTree(Connection con, String treeId)
       throws TreeManagerException;
 
+  /**
+   * Gets all the nodes of the specified tree. A connection to the data source is opened only if
+   * the tree isn't yet cached.
+   * @param treeId the identifier of the tree.
+   * @return the nodes of the tree, from the root, each node being followed by its descendants.
+   * @throws TreeManagerException if the tree cannot be loaded.
+   */
+  List<TreeNode> getTree(String treeId) throws TreeManagerException;
+
   List<TreeNode> getSubTree(Connection con, TreeNodePK rootPK, String treeId)
       throws TreeManagerException;
 
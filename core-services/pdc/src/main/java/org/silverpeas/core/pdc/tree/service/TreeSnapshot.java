@@ -0,0 +1,144 @@
+/*
+ * Copyright (C) 2000 - 2018 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.pdc.tree.service;
+
+import org.silverpeas.core.pdc.tree.model.TreeNode;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An immutable in-memory representation of a tree of nodes with their translations, the
+ * children of each node and the path of each node from the root of the tree. Once built, a
+ * snapshot is never modified: any change in the tree gives rise to a new snapshot with a
+ * greater version. So it can be shared by all the readers of the tree without any lock. For
+ * doing, the snapshot keeps {@link ImmutableTreeNode} instances that are directly given to the
+ * readers, without any copy.
+ */
+final class TreeSnapshot {
+
+  private final long version;
+  private final List<TreeNode> nodes;
+  private final Map<String, TreeNode> nodesById;
+  private final Map<String, List<TreeNode>> childrenById;
+
+  /**
+   * Constructs a snapshot of a tree.
+   * @param version the version of the tree from which the nodes were loaded.
+   * @param sortedNodes the nodes of the tree, from the root, each node being followed by its
+   * descendants and the children of a node being ordered by their order number.
+   */
+  TreeSnapshot(final long version, final List<TreeNode> sortedNodes) {
+    this.version = version;
+    final List<TreeNode> sharedNodes = new ArrayList<>(sortedNodes.size());
+    final Map<String, TreeNode> byId = new HashMap<>(sortedNodes.size() * 2);
+    final Map<String, List<TreeNode>> children = new HashMap<>();
+    for (TreeNode node : sortedNodes) {
+      final TreeNode sharedNode = new ImmutableTreeNode(node);
+      sharedNodes.add(sharedNode);
+      byId.put(sharedNode.getPK().getId(), sharedNode);
+      if (sharedNode.hasFather()) {
+        children.computeIfAbsent(sharedNode.getFatherId(), k -> new ArrayList<>())
+            .add(sharedNode);
+      }
+    }
+    children.replaceAll((id, sons) -> Collections.unmodifiableList(sons));
+    this.nodes = Collections.unmodifiableList(sharedNodes);
+    this.nodesById = Collections.unmodifiableMap(byId);
+    this.childrenById = Collections.unmodifiableMap(children);
+  }
+
+  /**
+   * Gets the version of the tree from which this snapshot was built.
+   * @return the version of the tree.
+   */
+  long getVersion() {
+    return version;
+  }
+
+  /**
+   * Gets all the nodes of the tree, from the root, each node being followed by its descendants.
+   * @return an unmodifiable list of the immutable nodes of the tree. Empty if the tree doesn't
+   * exist.
+   */
+  List<TreeNode> getNodes() {
+    return nodes;
+  }
+
+  /**
+   * Gets the root of the tree.
+   * @return the immutable root of the tree or null if the tree doesn't exist.
+   */
+  TreeNode getRoot() {
+    return nodes.isEmpty() ? null : nodes.get(0);
+  }
+
+  /**
+   * Is the specified node in this tree?
+   * @param nodeId the identifier of a node.
+   * @return true if the node belongs to the tree, false otherwise.
+   */
+  boolean contains(final String nodeId) {
+    return nodesById.containsKey(nodeId);
+  }
+
+  /**
+   * Gets the specified node.
+   * @param nodeId the identifier of a node.
+   * @return the immutable node or null if it doesn't belong to the tree.
+   */
+  TreeNode getNode(final String nodeId) {
+    return nodesById.get(nodeId);
+  }
+
+  /**
+   * Gets the children of the specified node ordered by their order number.
+   * @param nodeId the identifier of a node.
+   * @return an unmodifiable list of the immutable children of the node. Empty if the node is a
+   * leaf or if it doesn't belong to the tree.
+   */
+  List<TreeNode> getChildren(final String nodeId) {
+    return childrenById.getOrDefault(nodeId, Collections.emptyList());
+  }
+
+  /**
+   * Gets the nodes from the root of the tree down to the specified node.
+   * @param nodeId the identifier of a node.
+   * @return the immutable nodes on the path of the node, the node included, or an empty list if
+   * the node doesn't belong to the tree.
+   */
+  List<TreeNode> getPathOf(final String nodeId) {
+    final List<TreeNode> path = new ArrayList<>();
+    TreeNode node = nodesById.get(nodeId);
+    while (node != null) {
+      path.add(node);
+      node = node.hasFather() ? nodesById.get(node.getFatherId()) : null;
+    }
+    Collections.reverse(path);
+    return path;
+  }
+}
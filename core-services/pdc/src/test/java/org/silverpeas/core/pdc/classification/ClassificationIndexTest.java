@@ -0,0 +1,283 @@
+/*
+ * Copyright (C) 2000 - 2018 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.pdc.classification;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.silverpeas.core.util.JoinStatement;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * Unit tests on the in-memory index of the PDC classification. The results of the index are
+ * checked against the ones of the SQL statements it replaces, on a random but reproducible
+ * classification loaded in an in-memory database.
+ */
+public class ClassificationIndexTest {
+
+  private static final int NB_AXIS = 5;
+  private static final String TODAY = "2026/10/19";
+  private static final List<String> VALUES =
+      Arrays.asList("/0/", "/0/1/", "/0/2/", "/0/10/", "/0/1/3/", "/0/2/5/", "/0/10/7/");
+  private static final List<String> INSTANCES = Arrays.asList("kmelia1", "kmelia2", "almanach3");
+
+  private final SQLStatement sqlStatement = new SQLStatement();
+  private final Random random = new Random(1789);
+  private final List<Integer> contentIds = new ArrayList<>();
+  private final List<Integer> positionIds = new ArrayList<>();
+  private Connection connection;
+  private ClassificationIndex index;
+
+  @BeforeEach
+  public void loadClassification() throws SQLException {
+    connection = DriverManager.getConnection("jdbc:h2:mem:classification", "sa", "");
+    try (Statement statement = connection.createStatement()) {
+      final StringBuilder axis = new StringBuilder();
+      for (int i = 0; i < NB_AXIS; i++) {
+        axis.append(", Axis").append(i).append(" VARCHAR(150)");
+      }
+      statement.execute(
+          "CREATE TABLE SB_ClassifyEngine_Classify (PositionId INT, ObjectId INT" + axis + ")");
+      statement.execute(
+          "CREATE TABLE SB_ContentManager_Instance (instanceId INT, componentId VARCHAR(100))");
+      statement.execute("CREATE TABLE SB_ContentManager_Content (silverContentId INT, " +
+          "internalContentId VARCHAR(100), contentInstanceId INT, beginDate VARCHAR(10), " +
+          "endDate VARCHAR(10), isVisible INT)");
+    }
+    for (int i = 0; i < INSTANCES.size(); i++) {
+      update("INSERT INTO SB_ContentManager_Instance VALUES (?, ?)", i + 1, INSTANCES.get(i));
+    }
+    final List<String> beginDates = Arrays.asList("2026/01/01", "2026/10/19", "2027/01/01", null);
+    final List<String> endDates = Arrays.asList("2026/12/31", "2026/10/19", "2026/02/01", null);
+    int contentId = 0;
+    for (int i = 0; i < 150; i++) {
+      contentId += 1 + random.nextInt(1000);
+      contentIds.add(contentId);
+      update("INSERT INTO SB_ContentManager_Content VALUES (?, ?, ?, ?, ?, ?)", contentId,
+          String.valueOf(i), 1 + random.nextInt(INSTANCES.size()), pick(beginDates),
+          pick(endDates), random.nextInt(4) == 0 ? 0 : 1);
+    }
+    int positionId = 0;
+    for (int i = 0; i < 500; i++) {
+      positionId += 1 + random.nextInt(5000);
+      positionIds.add(positionId);
+      // some positions are on contents that aren't registered
+      final int objectId = random.nextInt(20) == 0 ? contentId + 1 + i : pick(contentIds);
+      final Object[] values = new Object[NB_AXIS + 2];
+      values[0] = positionId;
+      values[1] = objectId;
+      for (int axis = 0; axis < NB_AXIS - 1; axis++) {
+        values[axis + 2] = random.nextInt(10) < 7 ? pick(VALUES) : null;
+      }
+      update("INSERT INTO SB_ClassifyEngine_Classify VALUES (?, ?, ?, ?, ?, ?, ?)", values);
+    }
+    index = new ClassificationIndex(NB_AXIS);
+    index.rebuild(connection);
+  }
+
+  @AfterEach
+  public void closeDatabase() throws SQLException {
+    connection.close();
+  }
+
+  @Test
+  public void theContentsFoundAreTheSameAsWithTheSQLSearch() throws SQLException {
+    assertThat(index.isValid(), is(true));
+    for (List<Criteria> criteria : someCriteria()) {
+      assertSameObjects(criteria);
+    }
+  }
+
+  @Test
+  public void theCountsOfThePertinentAxisAreTheSameAsWithTheSQLSearch() throws SQLException {
+    for (List<Criteria> criteria : someCriteria()) {
+      assertSamePertinentAxis(criteria);
+    }
+  }
+
+  @Test
+  public void theCountsOfThePertinentValuesAreTheSameAsWithTheSQLSearch() throws SQLException {
+    for (List<Criteria> criteria : someCriteria()) {
+      assertSamePertinentValues(criteria);
+    }
+  }
+
+  @Test
+  public void theIndexIsStillTheSameAsTheSQLSearchAfterSomeChanges() throws SQLException {
+    // a position is removed
+    final int removedPosition = positionIds.get(10);
+    update("DELETE FROM SB_ClassifyEngine_Classify WHERE PositionId = ?", removedPosition);
+    index.removePosition(removedPosition);
+    assertThat(index.getObjectOfPosition(removedPosition), is(-1));
+    // a content is reclassified
+    final int reclassifiedObject = index.getObjectOfPosition(positionIds.get(20));
+    update("UPDATE SB_ClassifyEngine_Classify SET Axis0 = ?, Axis1 = NULL WHERE ObjectId = ?",
+        "/0/10/7/", reclassifiedObject);
+    update("INSERT INTO SB_ClassifyEngine_Classify (PositionId, ObjectId, Axis2) VALUES (?, ?, ?)",
+        1, reclassifiedObject, "/0/2/");
+    index.reloadObject(connection, reclassifiedObject);
+    assertThat(index.getObjectOfPosition(1), is(reclassifiedObject));
+    // a content is hidden and another one is moved to another instance
+    update("UPDATE SB_ContentManager_Content SET isVisible = 0 WHERE silverContentId = ?",
+        contentIds.get(5));
+    index.reloadContent(connection, contentIds.get(5));
+    update("UPDATE SB_ContentManager_Content SET contentInstanceId = 1, beginDate = ?, " +
+        "endDate = ?, isVisible = 1 WHERE silverContentId = ?", "2026/01/01", "2026/12/31",
+        contentIds.get(6));
+    index.reloadContent(connection, contentIds.get(6));
+    // all the positions of a content are removed
+    final int removedObject = index.getObjectOfPosition(positionIds.get(30));
+    update("DELETE FROM SB_ClassifyEngine_Classify WHERE ObjectId = ?", removedObject);
+    index.removeObject(removedObject);
+
+    for (List<Criteria> criteria : someCriteria()) {
+      assertSameObjects(criteria);
+      assertSamePertinentAxis(criteria);
+      assertSamePertinentValues(criteria);
+    }
+  }
+
+  @Test
+  public void anInvalidatedIndexIsRebuiltWithTheSameResults() throws SQLException {
+    final List<Criteria> criteria = Collections.singletonList(new Criteria(0, "/0/1/"));
+    final List<Integer> objects = index.findObjects(criteria, INSTANCES, TODAY, true, true);
+    assertThat(objects.isEmpty(), is(false));
+    index.invalidate();
+    assertThat(index.isValid(), is(false));
+    index.rebuild(connection);
+    assertThat(index.findObjects(criteria, INSTANCES, TODAY, true, true), is(objects));
+  }
+
+  private void assertSameObjects(final List<Criteria> criteria) throws SQLException {
+    final JoinStatement join = new JoinStatement();
+    join.setTable("SB_ContentManager_Content");
+    join.setJoinKeys(Collections.singletonList("silverContentId"));
+    for (List<String> instanceIds : someInstances()) {
+      for (boolean recursive : new boolean[]{true, false}) {
+        for (boolean visibilitySensitive : new boolean[]{true, false}) {
+          final String sql = sqlStatement.buildFindByCriteriasStatementByJoin(criteria,
+              instanceIds, join, TODAY, recursive, visibilitySensitive);
+          final List<Integer> expected = new ArrayList<>(new TreeSet<>(queryIds(sql)));
+          final List<Integer> actual =
+              index.findObjects(criteria, instanceIds, TODAY, recursive, visibilitySensitive);
+          assertThat(sql, actual, is(expected));
+        }
+      }
+    }
+  }
+
+  private void assertSamePertinentAxis(final List<Criteria> criteria) throws SQLException {
+    for (List<String> instanceIds : someInstances()) {
+      for (int axis = 0; axis < NB_AXIS; axis++) {
+        for (String rootValue : Arrays.asList("", "/0/1/", "/0/1", "/0/10/7/", "/9/")) {
+          final String sql = sqlStatement.buildGetPertinentAxisStatementByJoin(criteria, axis,
+              rootValue, instanceIds, TODAY);
+          final int expected = queryIds(sql).stream().mapToInt(Integer::intValue).sum();
+          assertThat(sql, index.countObjects(criteria, axis, rootValue, instanceIds, TODAY),
+              is(expected));
+        }
+      }
+    }
+  }
+
+  private void assertSamePertinentValues(final List<Criteria> criteria) throws SQLException {
+    for (List<String> instanceIds : someInstances()) {
+      for (int axis = 0; axis < NB_AXIS; axis++) {
+        final String sql = sqlStatement.buildGetPertinentValueByJoinStatement(criteria, axis,
+            instanceIds, TODAY);
+        final Map<String, Integer> expected = new HashMap<>();
+        try (PreparedStatement statement = connection.prepareStatement(sql);
+             ResultSet rs = statement.executeQuery()) {
+          while (rs.next()) {
+            expected.put(rs.getString(2), rs.getInt(1));
+          }
+        }
+        assertThat(sql, index.countObjectsByValue(criteria, axis, instanceIds, TODAY),
+            is(expected));
+      }
+    }
+  }
+
+  private List<List<Criteria>> someCriteria() {
+    final List<List<Criteria>> criteria = new ArrayList<>();
+    criteria.add(Collections.emptyList());
+    criteria.add(Collections.singletonList(new Criteria(0, null)));
+    criteria.add(Collections.singletonList(new Criteria(3, "/9/")));
+    for (String value : VALUES) {
+      criteria.add(Collections.singletonList(new Criteria(0, value)));
+      criteria.add(Arrays.asList(new Criteria(1, value), new Criteria(2, "/0/")));
+    }
+    criteria.add(Arrays.asList(new Criteria(0, "/0/1/"), new Criteria(1, "/0/2/"),
+        new Criteria(3, "/0/")));
+    criteria.add(Collections.singletonList(new Criteria(1, "/0/1")));
+    return criteria;
+  }
+
+  private List<List<String>> someInstances() {
+    return Arrays.asList(Collections.emptyList(), Collections.singletonList("kmelia2"),
+        Arrays.asList("kmelia1", "almanach3"), Collections.singletonList("unknown4"));
+  }
+
+  private List<Integer> queryIds(final String sql) throws SQLException {
+    final List<Integer> ids = new ArrayList<>();
+    try (PreparedStatement statement = connection.prepareStatement(sql);
+         ResultSet rs = statement.executeQuery()) {
+      while (rs.next()) {
+        ids.add(rs.getInt(1));
+      }
+    }
+    return ids;
+  }
+
+  private void update(final String sql, final Object... parameters) throws SQLException {
+    try (PreparedStatement statement = connection.prepareStatement(sql)) {
+      for (int i = 0; i < parameters.length; i++) {
+        statement.setObject(i + 1, parameters[i]);
+      }
+      assertThat(statement.executeUpdate(), greaterThan(0));
+    }
+  }
+
+  private <T> T pick(final List<T> values) {
+    return values.get(random.nextInt(values.size()));
+  }
+}
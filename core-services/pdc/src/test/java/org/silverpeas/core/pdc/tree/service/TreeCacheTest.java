@@ -0,0 +1,132 @@
+/*
+ * Copyright (C) 2000 - 2018 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.pdc.tree.service;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.silverpeas.core.pdc.tree.model.TreeNode;
+import org.silverpeas.core.persistence.Transaction;
+import org.silverpeas.core.test.extention.EnableSilverTestEnv;
+import org.silverpeas.core.test.extention.TestManagedMock;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Unit tests on the versioning of the snapshots of the trees in the cache.
+ */
+@EnableSilverTestEnv
+public class TreeCacheTest {
+
+  @TestManagedMock
+  private Transaction transaction;
+
+  @Test
+  public void aSnapshotOfTheCurrentVersionIsCached() {
+    final String treeId = "1";
+    final TreeSnapshot snapshot = new TreeSnapshot(TreeCache.getVersion(treeId), nodes(treeId));
+    TreeCache.cacheTree(treeId, snapshot);
+    assertThat(TreeCache.getTree(treeId), is(sameInstance(snapshot)));
+  }
+
+  @Test
+  public void aSnapshotOfAnOlderVersionIsNeverCached() {
+    final String treeId = "2";
+    final long version = TreeCache.getVersion(treeId);
+    final TreeSnapshot snapshot = new TreeSnapshot(version, nodes(treeId));
+    TreeCache.unvalidateTree(treeId);
+    assertThat(TreeCache.getVersion(treeId), is(greaterThan(version)));
+    TreeCache.cacheTree(treeId, snapshot);
+    assertThat(TreeCache.getTree(treeId), is(nullValue()));
+  }
+
+  @Test
+  public void aSnapshotBuiltBeforeTheCommitOfTheChangesIsDroppedAtTheEndOfTheTransaction() {
+    final String treeId = "3";
+    TreeCache.unvalidateTree(treeId);
+    ArgumentCaptor<Runnable> endOfTransaction = ArgumentCaptor.forClass(Runnable.class);
+    verify(transaction).onCompletion(endOfTransaction.capture(), eq(false));
+
+    // a concurrent reader caches the tree as it is before the commit of the changes
+    final long version = TreeCache.getVersion(treeId);
+    final TreeSnapshot staleSnapshot = new TreeSnapshot(version, nodes(treeId));
+    TreeCache.cacheTree(treeId, staleSnapshot);
+    assertThat(TreeCache.getTree(treeId), is(sameInstance(staleSnapshot)));
+
+    endOfTransaction.getValue().run();
+    assertThat(TreeCache.getTree(treeId), is(nullValue()));
+    assertThat(TreeCache.getVersion(treeId), is(greaterThan(version)));
+  }
+
+  @Test
+  public void aSnapshotSharesItsNodesInTreeOrder() {
+    final TreeSnapshot snapshot = new TreeSnapshot(0, nodes("4"));
+    assertThat(ids(snapshot.getChildren("0")), contains("1", "3"));
+    assertThat(ids(snapshot.getPathOf("2")), contains("0", "1", "2"));
+    assertThat(snapshot.getRoot().getPK().getId(), is("0"));
+    assertThat(snapshot.getNode("2"), is(sameInstance(snapshot.getNode("2"))));
+    assertThat(snapshot.getPathOf("2").get(1), is(sameInstance(snapshot.getChildren("0").get(0))));
+    assertThat(snapshot.getChildren("2"), is(Collections.emptyList()));
+  }
+
+  @Test
+  public void theSharedNodesOfASnapshotCannotBeModified() {
+    final List<TreeNode> nodes = nodes("5");
+    final TreeSnapshot snapshot = new TreeSnapshot(0, nodes);
+    final TreeNode node = snapshot.getNode("2");
+    assertThat(node, is(not(sameInstance(nodes.get(2)))));
+    assertThat(node.getName(), is("a.a"));
+    assertThrows(UnsupportedOperationException.class, () -> node.setName("b.a"));
+    assertThrows(UnsupportedOperationException.class, () -> node.setFatherId("3"));
+    assertThrows(UnsupportedOperationException.class, () -> node.getTranslations().clear());
+    assertThrows(UnsupportedOperationException.class, () -> snapshot.getNodes().remove(0));
+    assertThrows(UnsupportedOperationException.class, () -> snapshot.getChildren("0").clear());
+    assertThat(node.getName(), is("a.a"));
+  }
+
+  private List<String> ids(final List<TreeNode> nodes) {
+    return nodes.stream().map(n -> n.getPK().getId()).collect(Collectors.toList());
+  }
+
+  private List<TreeNode> nodes(final String treeId) {
+    return Arrays.asList(
+        new TreeNode("0", treeId, "root", "", "2018/01/01", "0", "/", 1, 0, "-1"),
+        new TreeNode("1", treeId, "a", "", "2018/01/01", "0", "/0/", 2, 0, "0"),
+        new TreeNode("2", treeId, "a.a", "", "2018/01/01", "0", "/0/1/", 3, 0, "1"),
+        new TreeNode("3", treeId, "b", "", "2018/01/01", "0", "/0/", 2, 1, "0"));
+  }
+}
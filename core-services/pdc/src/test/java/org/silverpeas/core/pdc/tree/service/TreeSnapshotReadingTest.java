@@ -0,0 +1,126 @@
+/*
+ * Copyright (C) 2000 - 2018 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.pdc.tree.service;
+
+import com.carrotsearch.junitbenchmarks.BenchmarkOptions;
+import com.carrotsearch.junitbenchmarks.BenchmarkRule;
+import com.carrotsearch.junitbenchmarks.annotation.BenchmarkMethodChart;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TestRule;
+import org.silverpeas.core.pdc.tree.model.TreeNode;
+import org.silverpeas.core.test.UnitTest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * Unit test to benchmark the reading of the nodes of a cached tree as done by the PdC when
+ * rendering an axis: the whole tree, then the children and the path of each node. The immutable
+ * nodes shared by the snapshot are compared with the copies of them that were given before.
+ */
+@UnitTest
+@BenchmarkMethodChart
+@BenchmarkOptions(benchmarkRounds = 200, warmupRounds = 20)
+public class TreeSnapshotReadingTest {
+
+  private static final int SONS_COUNT = 10;
+  private static final int DEPTH = 3;
+  private static final TreeSnapshot SNAPSHOT = new TreeSnapshot(0, nodes());
+  private static final int NODES_COUNT = SNAPSHOT.getNodes().size();
+
+  @Rule
+  public TestRule benchmarkRun = new BenchmarkRule();
+
+  @Test
+  public void benchReadingOfTheSharedNodes() {
+    int count = 0;
+    for (TreeNode node : SNAPSHOT.getNodes()) {
+      final String id = node.getPK().getId();
+      count += SNAPSHOT.getChildren(id).size() + SNAPSHOT.getPathOf(id).size();
+    }
+    assertThat(count, is(expectedCount()));
+  }
+
+  @Test
+  public void benchReadingOfCopiesOfTheNodes() {
+    int count = 0;
+    for (TreeNode node : copyOf(SNAPSHOT.getNodes())) {
+      final String id = node.getPK().getId();
+      count += copyOf(SNAPSHOT.getChildren(id)).size() + copyOf(SNAPSHOT.getPathOf(id)).size();
+    }
+    assertThat(count, is(expectedCount()));
+  }
+
+  private static List<TreeNode> copyOf(final List<TreeNode> nodes) {
+    final List<TreeNode> copies = new ArrayList<>(nodes.size());
+    for (TreeNode node : nodes) {
+      copies.add(new TreeNode(node));
+    }
+    return copies;
+  }
+
+  /**
+   * Each node but the root is the child of another node and the path of a node counts as many
+   * nodes as its level.
+   */
+  private static int expectedCount() {
+    int count = NODES_COUNT - 1;
+    int nodesAtLevel = 1;
+    for (int level = 1; level <= DEPTH + 1; level++) {
+      count += nodesAtLevel * level;
+      nodesAtLevel *= SONS_COUNT;
+    }
+    return count;
+  }
+
+  /**
+   * Gets the nodes of a tree of 1111 nodes in tree order: each node up to the given depth has
+   * ten children.
+   */
+  private static List<TreeNode> nodes() {
+    final List<TreeNode> nodes = new ArrayList<>();
+    final TreeNode root = new TreeNode("0", "1", "root", "", "2018/01/01", "0", "/", 1, 0, "-1");
+    nodes.add(root);
+    addSons(nodes, root);
+    return nodes;
+  }
+
+  private static void addSons(final List<TreeNode> nodes, final TreeNode father) {
+    if (father.getLevelNumber() > DEPTH) {
+      return;
+    }
+    final String fatherId = father.getPK().getId();
+    for (int i = 0; i < SONS_COUNT; i++) {
+      final String id = String.valueOf(nodes.size());
+      final TreeNode son = new TreeNode(id, "1", "value " + id, "", "2018/01/01", "0",
+          father.getPath() + fatherId + "/", father.getLevelNumber() + 1, i, fatherId);
+      nodes.add(son);
+      addSons(nodes, son);
+    }
+  }
+}
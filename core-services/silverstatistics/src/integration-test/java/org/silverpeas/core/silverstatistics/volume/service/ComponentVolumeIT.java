@@ -0,0 +1,223 @@
+/*
+ * Copyright (C) 2000 - 2018 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.silverstatistics.volume.service;
+
+import com.ninja_squad.dbsetup.Operations;
+import com.ninja_squad.dbsetup.operation.Operation;
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.junit.Arquillian;
+import org.jboss.shrinkwrap.api.Archive;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.silverpeas.core.contribution.attachment.model.SimpleAttachment;
+import org.silverpeas.core.contribution.attachment.model.SimpleDocument;
+import org.silverpeas.core.contribution.attachment.model.SimpleDocumentPK;
+import org.silverpeas.core.contribution.attachment.notification.AttachmentEvent;
+import org.silverpeas.core.contribution.attachment.notification.AttachmentMoveEvent;
+import org.silverpeas.core.notification.system.ResourceEvent;
+import org.silverpeas.core.persistence.Transaction;
+import org.silverpeas.core.silverstatistics.volume.dao.ComponentVolumeDAO;
+import org.silverpeas.core.silverstatistics.volume.dao.ComponentVolumeDAO.ScanState;
+import org.silverpeas.core.silverstatistics.volume.model.DirectoryStats;
+import org.silverpeas.core.test.BasicWarBuilder;
+import org.silverpeas.core.test.DataSetTest;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Integration tests on the volume of the component instances maintained along with the
+ * attachments and recomputed from the file system.
+ */
+@RunWith(Arquillian.class)
+public class ComponentVolumeIT extends DataSetTest {
+
+  private static final Operation TABLES_CREATION = Operations.sql(
+      "CREATE TABLE IF NOT EXISTS SB_Stat_ComponentVolume" +
+          "(" +
+          "    componentId     varchar(50)  not null," +
+          "    fileCount       decimal(19)  not null," +
+          "    fileSize        decimal(19)  not null," +
+          "    scanDate        varchar(10)  not null," +
+          "    revision        decimal(19)  not null," +
+          "    dirty           integer      not null" +
+          ")");
+
+  private static final Operation DROP_ALL =
+      Operations.sql("DROP TABLE IF EXISTS SB_Stat_ComponentVolume");
+
+  private static final Operation VOLUMES = Operations.insertInto("SB_Stat_ComponentVolume")
+      .columns("componentId", "fileCount", "fileSize", "scanDate", "revision", "dirty")
+      .values("kmelia1", 10, 1000, "2018-03-01", 4, 0)
+      .values("kmelia2", 5, 500, "2018-03-02", 0, 0)
+      .values("kmelia4", 1, 100, "2018-03-09", 2, 1)
+      .values("kmelia5", 1, 100, "2018-03-09", 0, 0)
+      .build();
+
+  @Deployment
+  public static Archive<?> createTestArchive() {
+    return BasicWarBuilder.onWarForTestClass(ComponentVolumeIT.class)
+        .addMavenDependenciesWithPersistence("org.silverpeas.core:silverpeas-core")
+        .createMavenDependencies("org.silverpeas.core.services:silverpeas-core-tagcloud")
+        .testFocusedOn(war -> {
+          war.addPackages(true, "org.silverpeas.core.silverstatistics");
+          war.addAsResource("org/silverpeas/silverstatistics/SilverStatisticsTest.properties");
+          war.addAsResource("org/silverpeas/silverstatistics/SilverStatistics.properties");
+        }).build();
+  }
+
+  @Override
+  protected Operation getDbSetupInitializations() {
+    return Operations.sequenceOf(DROP_ALL, TABLES_CREATION, VOLUMES);
+  }
+
+  @Test
+  public void aRecomputedVolumeIsSavedWhenItDidNotChangeDuringTheComputation()
+      throws Exception {
+    final long revision = ComponentVolumeDAO.getRevision("kmelia1");
+    final boolean saved = Transaction.performInOne(
+        () -> ComponentVolumeDAO.saveVolume(volume("kmelia1", 12, 1300), "2018-03-10", revision));
+
+    assertThat(saved, is(true));
+    assertThat(volumeOf("kmelia1"), is("12/1300"));
+    final ScanState state = ComponentVolumeDAO.getScanStates().get("kmelia1");
+    assertThat(state.getScanDate(), is("2018-03-10"));
+    assertThat(state.getRevision(), is(5L));
+    assertThat(state.isDirty(), is(false));
+  }
+
+  @Test
+  public void aRecomputedVolumeIsNotSavedWhenItChangedDuringTheComputation() throws Exception {
+    final long revision = ComponentVolumeDAO.getRevision("kmelia1");
+    new ComponentVolumeListener().onCreation(creationOf("kmelia1", 200));
+    final boolean saved = Transaction.performInOne(
+        () -> ComponentVolumeDAO.saveVolume(volume("kmelia1", 12, 1300), "2018-03-10", revision));
+
+    // the change during the computation isn't overwritten and it is still to recompute
+    assertThat(saved, is(false));
+    assertThat(volumeOf("kmelia1"), is("11/1200"));
+    final ScanState state = ComponentVolumeDAO.getScanStates().get("kmelia1");
+    assertThat(state.getScanDate(), is("2018-03-01"));
+    assertThat(state.isDirty(), is(true));
+  }
+
+  @Test
+  public void aVolumeComputedForTheFirstTimeIsInserted() throws Exception {
+    assertThat(ComponentVolumeDAO.getRevision("kmelia3"), is(ComponentVolumeDAO.NO_REVISION));
+    final boolean saved = Transaction.performInOne(() -> ComponentVolumeDAO
+        .saveVolume(volume("kmelia3", 3, 300), "2018-03-10", ComponentVolumeDAO.NO_REVISION));
+
+    assertThat(saved, is(true));
+    assertThat(volumeOf("kmelia3"), is("3/300"));
+    assertThat(ComponentVolumeDAO.getRevision("kmelia3"), is(0L));
+  }
+
+  @Test
+  public void theChangedAndTheNeverComputedVolumesAreTheFirstOnesToBeRecomputed()
+      throws Exception {
+    final List<File> directories = Stream.of("kmelia5", "kmelia2", "kmelia1", "kmelia4", "kmelia3")
+        .map(File::new)
+        .collect(Collectors.toList());
+    final List<String> toScan = DirectoryVolumeService.selectDirectoriesToScan(directories,
+        ComponentVolumeDAO.getScanStates(), "2018-03-05")
+        .stream()
+        .map(File::getName)
+        .collect(Collectors.toList());
+
+    // kmelia5 was computed within the reconciliation period and it didn't change since
+    assertThat(toScan.subList(0, 2), containsInAnyOrder("kmelia4", "kmelia3"));
+    assertThat(toScan.subList(2, 4), contains("kmelia1", "kmelia2"));
+    assertThat(toScan.size(), is(4));
+  }
+
+  @Test
+  public void theAttachmentChangesUpdateTheVolumeAndMarkItAsDirty() throws Exception {
+    final ComponentVolumeListener listener = new ComponentVolumeListener();
+    listener.onCreation(creationOf("kmelia2", 100));
+    listener.onUpdate(new AttachmentEvent(ResourceEvent.Type.UPDATE, document("kmelia2", 100),
+        document("kmelia2", 150)));
+    listener.onDeletion(new AttachmentEvent(ResourceEvent.Type.DELETION,
+        document("kmelia2", 20)));
+
+    assertThat(volumeOf("kmelia2"), is("5/630"));
+    final Map<String, ScanState> states = ComponentVolumeDAO.getScanStates();
+    assertThat(states.get("kmelia2").getRevision(), is(3L));
+    assertThat(states.get("kmelia2").isDirty(), is(true));
+    assertThat(states.get("kmelia1").isDirty(), is(false));
+  }
+
+  @Test
+  public void aMovedAttachmentIsMovedFromTheVolumeOfItsSourceToTheOneOfItsDestination()
+      throws Exception {
+    new ComponentVolumeMoveListener().onUpdate(
+        new AttachmentMoveEvent(ResourceEvent.Type.UPDATE, document("kmelia1", 100),
+            document("kmelia2", 100)));
+
+    assertThat(volumeOf("kmelia1"), is("9/900"));
+    assertThat(volumeOf("kmelia2"), is("6/600"));
+  }
+
+  @Test
+  public void theVolumeOfAComponentInstanceNotYetComputedIsNotUpdated() throws Exception {
+    new ComponentVolumeListener().onCreation(creationOf("kmelia3", 100));
+
+    assertThat(ComponentVolumeDAO.getVolumes(Arrays.asList("kmelia1", "kmelia2", "kmelia3"))
+        .containsKey("kmelia3"), is(false));
+  }
+
+  private static String volumeOf(final String componentId) throws Exception {
+    final DirectoryStats stats =
+        ComponentVolumeDAO.getVolumes(Arrays.asList(componentId)).get(componentId);
+    return stats.getNumberOfFiles() + "/" + stats.getDirectorySize();
+  }
+
+  private static DirectoryStats volume(final String componentId, final long fileCount,
+      final long fileSize) {
+    final DirectoryStats stats = new DirectoryStats(componentId);
+    stats.addFileNumber(fileCount);
+    stats.addDirectorySize(fileSize);
+    return stats;
+  }
+
+  private static AttachmentEvent creationOf(final String componentId, final long size) {
+    return new AttachmentEvent(ResourceEvent.Type.CREATION, document(componentId, size));
+  }
+
+  private static SimpleDocument document(final String componentId, final long size) {
+    final SimpleAttachment attachment =
+        new SimpleAttachment("file.pdf", "fr", "title", "", size, "application/pdf", "0",
+            new Date(), null);
+    return new SimpleDocument(new SimpleDocumentPK("1", componentId), "12", 0, false, attachment);
+  }
+}
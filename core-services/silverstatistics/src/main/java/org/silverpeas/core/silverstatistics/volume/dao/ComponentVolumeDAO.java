@@ -0,0 +1,219 @@
+/*
+ * Copyright (C) 2000 - 2018 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.silverstatistics.volume.dao;
+
+import org.silverpeas.core.persistence.jdbc.sql.JdbcSqlQuery;
+import org.silverpeas.core.silverstatistics.volume.model.DirectoryStats;
+
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * This is the DAO Object of the volume of the data of each component instance: the number and
+ * the total size of its files. The volumes are updated along with the files and they are
+ * recomputed periodically from the file system. The modification methods require a transaction.
+ * <p>
+ * Each update of a volume along with the files increments its revision and marks it as dirty, that
+ * is as to be recomputed. A volume recomputed from the file system is saved only if its revision
+ * didn't change during the computation, so the updates done meanwhile are never overwritten.
+ * </p>
+ */
+public class ComponentVolumeDAO {
+
+  private static final String VOLUME_TABLE = "SB_Stat_ComponentVolume";
+  private static final String COMPONENT_ID = "componentId";
+  private static final String FILE_COUNT = "fileCount";
+  private static final String FILE_SIZE = "fileSize";
+  private static final String SCAN_DATE = "scanDate";
+  private static final String REVISION = "revision";
+  private static final String DIRTY = "dirty";
+
+  /**
+   * The revision of a volume that doesn't exist yet.
+   */
+  public static final long NO_REVISION = -1L;
+
+  private ComponentVolumeDAO() {
+  }
+
+  /**
+   * Adds the specified number of files and size to the volume of the given component instance.
+   * Nothing is done if the volume of the component instance hasn't been yet computed. The volume
+   * is then marked as dirty.
+   * @param componentId the identifier of a component instance.
+   * @param fileCount the number of files to add, negative for removed files.
+   * @param fileSize the size in bytes to add, negative for removed files.
+   * @throws SQLException if an error occurs while updating the volume.
+   */
+  public static void addToVolume(String componentId, long fileCount, long fileSize)
+      throws SQLException {
+    JdbcSqlQuery.create("UPDATE " + VOLUME_TABLE + " SET fileCount = fileCount + ?," +
+        " fileSize = fileSize + ?, revision = revision + 1, dirty = 1", fileCount, fileSize)
+        .where("componentId = ?", componentId)
+        .execute();
+  }
+
+  /**
+   * Saves the volume of a component instance computed from the file system at the given date,
+   * provided the volume wasn't updated since the specified revision.
+   * @param stats the volume of the directory of a component instance.
+   * @param scanDate the date of the computation in the ISO 8601 format (yyyy-MM-dd).
+   * @param revision the revision of the volume read before the computation, or
+   * {@link #NO_REVISION} if the volume didn't exist.
+   * @return true if the volume is saved, false if it was updated during the computation.
+   * @throws SQLException if an error occurs while saving the volume.
+   */
+  public static boolean saveVolume(DirectoryStats stats, String scanDate, long revision)
+      throws SQLException {
+    if (revision == NO_REVISION) {
+      return JdbcSqlQuery.createInsertFor(VOLUME_TABLE)
+          .addInsertParam(COMPONENT_ID, stats.getDirectoryName())
+          .addInsertParam(FILE_COUNT, stats.getNumberOfFiles())
+          .addInsertParam(FILE_SIZE, stats.getDirectorySize())
+          .addInsertParam(SCAN_DATE, scanDate)
+          .addInsertParam(REVISION, 0L)
+          .addInsertParam(DIRTY, 0)
+          .execute() == 1;
+    }
+    return JdbcSqlQuery.createUpdateFor(VOLUME_TABLE)
+        .addUpdateParam(FILE_COUNT, stats.getNumberOfFiles())
+        .addUpdateParam(FILE_SIZE, stats.getDirectorySize())
+        .addUpdateParam(SCAN_DATE, scanDate)
+        .addUpdateParam(REVISION, revision + 1)
+        .addUpdateParam(DIRTY, 0)
+        .where("componentId = ?", stats.getDirectoryName())
+        .and("revision = ?", revision)
+        .execute() == 1;
+  }
+
+  /**
+   * Deletes the volume of the specified component instances.
+   * @param componentIds the identifiers of component instances.
+   * @throws SQLException if an error occurs while deleting the volumes.
+   */
+  public static void deleteVolumes(Collection<String> componentIds) throws SQLException {
+    JdbcSqlQuery.executeBySplittingOn(componentIds, (idBatch, ignore) ->
+        JdbcSqlQuery.createDeleteFor(VOLUME_TABLE)
+            .where(COMPONENT_ID)
+            .in(idBatch)
+            .execute());
+  }
+
+  /**
+   * Gets the volume of the specified component instances. The component instances whose the
+   * volume hasn't been yet computed aren't in the returned map.
+   * @param componentIds the identifiers of component instances.
+   * @return the volume of each component instance indexed by the component instance identifier.
+   * @throws SQLException if an error occurs while reading the volumes.
+   */
+  public static Map<String, DirectoryStats> getVolumes(Collection<String> componentIds)
+      throws SQLException {
+    Map<String, DirectoryStats> volumes = new HashMap<>(componentIds.size());
+    JdbcSqlQuery.executeBySplittingOn(componentIds, (idBatch, ignore) ->
+        JdbcSqlQuery.createSelect("componentId, fileCount, fileSize")
+            .from(VOLUME_TABLE)
+            .where(COMPONENT_ID)
+            .in(idBatch)
+            .execute(row -> {
+              DirectoryStats stats = new DirectoryStats(row.getString(1));
+              stats.addFileNumber(row.getLong(2));
+              stats.addDirectorySize(row.getLong(3));
+              volumes.put(stats.getDirectoryName(), stats);
+              return null;
+            }));
+    return volumes;
+  }
+
+  /**
+   * Gets the state of the computation of the volume of each component instance.
+   * @return the state of the computation of each component instance volume indexed by the
+   * component instance identifier.
+   * @throws SQLException if an error occurs while reading the volumes.
+   */
+  public static Map<String, ScanState> getScanStates() throws SQLException {
+    Map<String, ScanState> states = new HashMap<>();
+    JdbcSqlQuery.createSelect("componentId, scanDate, revision, dirty")
+        .from(VOLUME_TABLE)
+        .execute(row -> {
+          states.put(row.getString(1),
+              new ScanState(row.getString(2), row.getLong(3), row.getInt(4) == 1));
+          return null;
+        });
+    return states;
+  }
+
+  /**
+   * Gets the current revision of the volume of the specified component instance.
+   * @param componentId the identifier of a component instance.
+   * @return the revision of the volume or {@link #NO_REVISION} if the volume of the component
+   * instance hasn't been yet computed.
+   * @throws SQLException if an error occurs while reading the volume.
+   */
+  public static long getRevision(String componentId) throws SQLException {
+    final Long revision = JdbcSqlQuery.createSelect(REVISION)
+        .from(VOLUME_TABLE)
+        .where("componentId = ?", componentId)
+        .executeUnique(row -> row.getLong(1));
+    return revision == null ? NO_REVISION : revision;
+  }
+
+  /**
+   * The state of the computation from the file system of the volume of a component instance.
+   */
+  public static class ScanState {
+    private final String scanDate;
+    private final long revision;
+    private final boolean dirty;
+
+    ScanState(final String scanDate, final long revision, final boolean dirty) {
+      this.scanDate = scanDate;
+      this.revision = revision;
+      this.dirty = dirty;
+    }
+
+    /**
+     * @return the date, in the ISO 8601 format, at which the volume was computed from the file
+     * system for the last time.
+     */
+    public String getScanDate() {
+      return scanDate;
+    }
+
+    /**
+     * @return the current revision of the volume.
+     */
+    public long getRevision() {
+      return revision;
+    }
+
+    /**
+     * @return true if the volume was updated along with the files since its last computation.
+     */
+    public boolean isDirty() {
+      return dirty;
+    }
+  }
+}
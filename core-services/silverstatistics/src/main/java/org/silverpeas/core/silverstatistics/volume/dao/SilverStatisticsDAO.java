@@ -34,9 +34,12 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.stream.Collectors;
 
 /**
  * This is the alimentation statistics DAO Object
@@ -75,51 +78,8 @@ public class SilverStatisticsDAO {
       prepStmt = con.prepareStatement(insertStatement);
       for (String currentKey : theKeys) {
         i++;
-        String currentType = conf.getKeyType(type, currentKey);
-        if (currentType.equals("DECIMAL")) {
-          long tmpLong;
-          try {
-            String tmpString = valueKeys.get(i - 1);
-            if (!StringUtil.isDefined(tmpString)) {
-              if (!conf.isCumulKey(type, currentKey)) {
-                prepStmt.setNull(i, java.sql.Types.DECIMAL);
-              } else {
-                prepStmt.setLong(i, 0);
-              }
-            } else {
-              tmpLong = Long.parseLong(tmpString);
-              prepStmt.setLong(i, tmpLong);
-            }
-          } catch (NumberFormatException e) {
-            prepStmt.setLong(i, 0);
-          }
-        }
-        if (currentType.equals("INTEGER")) {
-          int tmpInt;
-          try {
-            String tmpString = valueKeys.get(i - 1);
-            if (!StringUtil.isDefined(tmpString)) {
-              if (!conf.isCumulKey(type, currentKey)) {
-                prepStmt.setNull(i, java.sql.Types.INTEGER);
-              } else {
-                prepStmt.setInt(i, 0);
-              }
-            } else {
-              tmpInt = Integer.parseInt(tmpString);
-              prepStmt.setInt(i, tmpInt);
-            }
-          } catch (NumberFormatException e) {
-            prepStmt.setInt(i, 0);
-          }
-        }
-        if (currentType.equals("VARCHAR")) {
-          String tmpString = valueKeys.get(i - 1);
-          if (!StringUtil.isDefined(tmpString)) {
-            prepStmt.setNull(i, java.sql.Types.VARCHAR);
-          } else {
-            prepStmt.setString(i, valueKeys.get(i - 1));
-          }
-        }
+        setKeyValue(prepStmt, i, conf.getKeyType(type, currentKey), valueKeys.get(i - 1),
+            conf.isCumulKey(type, currentKey));
       }
       prepStmt.executeUpdate();
     } finally {
@@ -128,7 +88,8 @@ public class SilverStatisticsDAO {
   }
 
   /**
-   * Update or insert statistic inside statistic table defined inside conf parameter
+   * Update or insert statistic inside statistic table defined inside conf parameter. The
+   * statistic is also added to its rollups if any.
    * @param con the database connection
    * @param type the statistic type
    * @param valueKeys
@@ -273,5 +234,161 @@ public class SilverStatisticsDAO {
         insertDataStats(con, type, valueKeys, conf);
       }
     }
+    if (!STOPPUTSTAT) {
+      SilverStatisticsRollupDAO.addToRollups(con, type, Collections.singletonList(valueKeys),
+          conf);
+    }
+  }
+
+  /**
+   * Update or insert in one batch several statistics inside the statistic table defined inside
+   * conf parameter. Each statistic is added to the rows having the same non cumulative keys. When
+   * there is no such rows, the statistic is inserted as a new row. The statistics are also added
+   * to their rollups if any. The statistics whose the non cumulative numeric keys aren't numbers
+   * are ignored, as with {@link #putDataStats(Connection, StatType, List, StatisticsConfig)}.
+   * @param con the database connection
+   * @param type the statistic type
+   * @param allValueKeys the values of the keys of each statistic to put.
+   * @param conf the statistics configuration.
+   * @throws SQLException if an error occurs while updating the statistic table.
+   */
+  public static void putDataStats(Connection con, StatType type,
+      Collection<List<String>> allValueKeys, StatisticsConfig conf) throws SQLException {
+    List<String> cumulKeys = new ArrayList<>();
+    List<String> otherKeys = new ArrayList<>();
+    for (String key : conf.getAllKeys(type)) {
+      if (conf.isCumulKey(type, key)) {
+        cumulKeys.add(key);
+      } else {
+        otherKeys.add(key);
+      }
+    }
+    String updateStatement = "UPDATE " + conf.getTableName(type) + " SET " +
+        cumulKeys.stream().map(k -> k + "=" + k + "+?").collect(Collectors.joining(",")) +
+        " WHERE " + otherKeys.stream().map(k -> k + "=?").collect(Collectors.joining(" AND "));
+    List<List<String>> statsToPut = allValueKeys.stream()
+        .filter(v -> isWellFormed(type, v, otherKeys, conf))
+        .collect(Collectors.toList());
+    if (statsToPut.isEmpty()) {
+      return;
+    }
+
+    List<List<String>> statsToInsert = new ArrayList<>();
+    try (PreparedStatement pstmt = con.prepareStatement(updateStatement)) {
+      for (List<String> valueKeys : statsToPut) {
+        setUpdateParameters(pstmt, type, valueKeys, cumulKeys, otherKeys, conf, true);
+        pstmt.addBatch();
+      }
+      int[] updatedRows = pstmt.executeBatch();
+      for (int i = 0; i < updatedRows.length; i++) {
+        // a driver not able to count the rows updated by a batch returns SUCCESS_NO_INFO: the
+        // statistic has then been added to the existing rows if any, so the rows are counted by
+        // updating them again with nothing to add
+        if (updatedRows[i] == 0 || (updatedRows[i] < 0 &&
+            !isAlreadyPut(pstmt, type, statsToPut.get(i), cumulKeys, otherKeys, conf))) {
+          statsToInsert.add(statsToPut.get(i));
+        }
+      }
+    }
+
+    if (!statsToInsert.isEmpty()) {
+      Collection<String> theKeys = conf.getAllKeys(type);
+      String insertStatement = "INSERT INTO " + conf.getTableName(type) + "(" +
+          StringUtil.join(theKeys, ',') + ") VALUES(" +
+          theKeys.stream().map(k -> "?").collect(Collectors.joining(",")) + ")";
+      try (PreparedStatement pstmt = con.prepareStatement(insertStatement)) {
+        for (List<String> valueKeys : statsToInsert) {
+          int i = 0;
+          for (String key : theKeys) {
+            i++;
+            setKeyValue(pstmt, i, conf.getKeyType(type, key), valueKeys.get(i - 1),
+                conf.isCumulKey(type, key));
+          }
+          pstmt.addBatch();
+        }
+        pstmt.executeBatch();
+      }
+    }
+    SilverStatisticsRollupDAO.addToRollups(con, type, statsToPut, conf);
+  }
+
+  private static boolean isAlreadyPut(PreparedStatement updateStmt, StatType type,
+      List<String> valueKeys, List<String> cumulKeys, List<String> otherKeys,
+      StatisticsConfig conf) throws SQLException {
+    setUpdateParameters(updateStmt, type, valueKeys, cumulKeys, otherKeys, conf, false);
+    return updateStmt.executeUpdate() > 0;
+  }
+
+  private static void setUpdateParameters(PreparedStatement updateStmt, StatType type,
+      List<String> valueKeys, List<String> cumulKeys, List<String> otherKeys,
+      StatisticsConfig conf, boolean withValues) throws SQLException {
+    int i = 0;
+    for (String key : cumulKeys) {
+      setKeyValue(updateStmt, ++i, conf.getKeyType(type, key),
+          withValues ? valueKeys.get(conf.indexOfKey(type, key)) : "0", true);
+    }
+    for (String key : otherKeys) {
+      setKeyValue(updateStmt, ++i, conf.getKeyType(type, key),
+          valueKeys.get(conf.indexOfKey(type, key)), false);
+    }
+  }
+
+  private static boolean isWellFormed(StatType type, List<String> valueKeys,
+      List<String> otherKeys, StatisticsConfig conf) {
+    for (String key : otherKeys) {
+      String currentType = conf.getKeyType(type, key);
+      String value = valueKeys.get(conf.indexOfKey(type, key));
+      try {
+        if ("DECIMAL".equals(currentType)) {
+          Long.parseLong(value);
+        } else if ("INTEGER".equals(currentType)) {
+          Integer.parseInt(value);
+        }
+      } catch (NumberFormatException e) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static void setKeyValue(PreparedStatement prepStmt, int i, String currentType,
+      String value, boolean cumulKey) throws SQLException {
+    if (currentType.equals("DECIMAL")) {
+      try {
+        if (!StringUtil.isDefined(value)) {
+          if (!cumulKey) {
+            prepStmt.setNull(i, java.sql.Types.DECIMAL);
+          } else {
+            prepStmt.setLong(i, 0);
+          }
+        } else {
+          prepStmt.setLong(i, Long.parseLong(value));
+        }
+      } catch (NumberFormatException e) {
+        prepStmt.setLong(i, 0);
+      }
+    }
+    if (currentType.equals("INTEGER")) {
+      try {
+        if (!StringUtil.isDefined(value)) {
+          if (!cumulKey) {
+            prepStmt.setNull(i, java.sql.Types.INTEGER);
+          } else {
+            prepStmt.setInt(i, 0);
+          }
+        } else {
+          prepStmt.setInt(i, Integer.parseInt(value));
+        }
+      } catch (NumberFormatException e) {
+        prepStmt.setInt(i, 0);
+      }
+    }
+    if (currentType.equals("VARCHAR")) {
+      if (!StringUtil.isDefined(value)) {
+        prepStmt.setNull(i, java.sql.Types.VARCHAR);
+      } else {
+        prepStmt.setString(i, value);
+      }
+    }
   }
 }
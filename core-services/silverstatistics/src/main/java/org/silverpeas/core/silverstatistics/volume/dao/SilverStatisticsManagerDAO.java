@@ -426,6 +426,7 @@ public class SilverStatisticsManagerDAO {
         for (StatType currentType : conf.getAllTypes()) {
           try {
             purgeTablesCumul(con, currentType, conf);
+            SilverStatisticsRollupDAO.purgeRollups(con, currentType, conf);
           } catch (SQLException e) {
             SilverTrace.error("silverstatistics", "SilverStatisticsManagerDAO.makeStatAllCumul",
                 "silverstatistics.MSG_PURGE_BD", e);
@@ -0,0 +1,327 @@
+/*
+ * Copyright (C) 2000 - 2018 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.silverstatistics.volume.dao;
+
+import org.silverpeas.core.silverstatistics.volume.model.StatPeriod;
+import org.silverpeas.core.silverstatistics.volume.model.StatType;
+import org.silverpeas.core.silverstatistics.volume.model.StatisticMode;
+import org.silverpeas.core.silverstatistics.volume.model.StatisticsConfig;
+import org.silverpeas.core.util.StringUtil;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.silverpeas.core.silverstatistics.volume.model.TypeStatistics.STATISTIC_DATE_KEY;
+
+/**
+ * This is the DAO Object of the rolled up statistics. The statistics cumulated by addition and
+ * related to the component instances (the accesses) are rolled up by day, by month and by year
+ * for each space and each component instance into the statistic table suffixed by Rollup. The
+ * rollups are updated along with the statistics of the day, so the statistics of a space or of a
+ * component instance over a period are read directly, without summing up those of all the users.
+ */
+public class SilverStatisticsRollupDAO {
+
+  private static final String ROLLUP_SUFFIX = "Rollup";
+  private static final String SPACE_ID = "spaceId";
+  private static final String COMPONENT_ID = "componentId";
+
+  private SilverStatisticsRollupDAO() {
+  }
+
+  /**
+   * Is the specified type of statistics rolled up?
+   * @param type the statistic type
+   * @param conf the statistics configuration.
+   * @return true if the statistics of the given type are rolled up, false otherwise.
+   */
+  public static boolean isRolledUp(StatType type, StatisticsConfig conf) {
+    Collection<String> keys = conf.getAllKeys(type);
+    return conf.getModeCumul(type) == StatisticMode.Add && keys.contains(SPACE_ID) &&
+        keys.contains(COMPONENT_ID);
+  }
+
+  /**
+   * Adds the specified statistics to their daily, monthly and yearly rollups. The statistics
+   * not related to a space and to a component instance are ignored.
+   * @param con the database connection
+   * @param type the statistic type
+   * @param allValueKeys the values of the keys of each statistic to roll up.
+   * @param conf the statistics configuration.
+   * @throws SQLException if an error occurs while updating the rollup table.
+   */
+  public static void addToRollups(Connection con, StatType type,
+      Collection<List<String>> allValueKeys, StatisticsConfig conf) throws SQLException {
+    if (!isRolledUp(type, conf)) {
+      return;
+    }
+    List<String> cumulKeys = getCumulKeys(type, conf);
+    int dateIndex = conf.indexOfKey(type, STATISTIC_DATE_KEY);
+    int spaceIndex = conf.indexOfKey(type, SPACE_ID);
+    int componentIndex = conf.indexOfKey(type, COMPONENT_ID);
+    Map<RollupKey, long[]> rollups = new HashMap<>();
+    for (List<String> valueKeys : allValueKeys) {
+      String dateStat = valueKeys.get(dateIndex);
+      String spaceId = valueKeys.get(spaceIndex);
+      String componentId = valueKeys.get(componentIndex);
+      if (dateStat == null || dateStat.length() < 10 || !StringUtil.isDefined(spaceId) ||
+          !StringUtil.isDefined(componentId)) {
+        continue;
+      }
+      long[] values = new long[cumulKeys.size()];
+      for (int i = 0; i < values.length; i++) {
+        try {
+          values[i] = Long.parseLong(valueKeys.get(conf.indexOfKey(type, cumulKeys.get(i))));
+        } catch (NumberFormatException e) {
+          values[i] = 0;
+        }
+      }
+      rollUp(rollups, EnumSet.allOf(StatPeriod.class), dateStat, spaceId, componentId, values);
+    }
+    putRollups(con, type, cumulKeys, rollups, conf);
+  }
+
+  /**
+   * Is there any rollup of the specified type of statistics?
+   * @param con the database connection
+   * @param type the statistic type
+   * @param conf the statistics configuration.
+   * @return true if the rollup table of the given type of statistics isn't empty.
+   * @throws SQLException if an error occurs while reading the rollup table.
+   */
+  public static boolean hasRollups(Connection con, StatType type, StatisticsConfig conf)
+      throws SQLException {
+    try (Statement stmt = con.createStatement();
+         ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM " + getRollupTable(type, conf) +
+             " WHERE period = '" + StatPeriod.Year.name() + "'")) {
+      return rs.next() && rs.getLong(1) > 0;
+    }
+  }
+
+  /**
+   * Rebuilds the rollups of the specified type of statistics from the monthly cumulated
+   * statistics and from the statistics of the days not yet cumulated. As the statistics of the
+   * days are deleted once cumulated, only the days not yet cumulated get a daily rollup.
+   * @param con the database connection
+   * @param type the statistic type
+   * @param conf the statistics configuration.
+   * @throws SQLException if an error occurs while rebuilding the rollups.
+   */
+  public static void rebuildRollups(Connection con, StatType type, StatisticsConfig conf)
+      throws SQLException {
+    if (!isRolledUp(type, conf)) {
+      return;
+    }
+    List<String> cumulKeys = getCumulKeys(type, conf);
+    try (Statement stmt = con.createStatement()) {
+      stmt.executeUpdate("DELETE FROM " + getRollupTable(type, conf));
+    }
+    Map<RollupKey, long[]> rollups = new HashMap<>();
+    readSums(con, conf.getTableName(type) + "Cumul", cumulKeys, rollups,
+        EnumSet.of(StatPeriod.Month, StatPeriod.Year));
+    readSums(con, conf.getTableName(type), cumulKeys, rollups, EnumSet.allOf(StatPeriod.class));
+    putRollups(con, type, cumulKeys, rollups, conf);
+  }
+
+  /**
+   * Deletes the rollups older than the purge delay of the specified type of statistics. A
+   * yearly rollup is deleted once all the months of its year are older than this delay.
+   * @param con the database connection
+   * @param type the statistic type
+   * @param conf the statistics configuration.
+   * @throws SQLException if an error occurs while deleting the rollups.
+   */
+  static void purgeRollups(Connection con, StatType type, StatisticsConfig conf)
+      throws SQLException {
+    if (!isRolledUp(type, conf)) {
+      return;
+    }
+    Calendar dateOfTheDay = Calendar.getInstance();
+    dateOfTheDay.add(Calendar.MONTH, -(conf.getPurge(type)));
+    int year = dateOfTheDay.get(Calendar.YEAR);
+    String deleteStatement = "DELETE FROM " + getRollupTable(type, conf) + " WHERE period";
+    try (Statement stmt = con.createStatement()) {
+      stmt.executeUpdate(deleteStatement + " <> '" + StatPeriod.Year.name() + "' AND dateStat<" +
+          SilverStatisticsManagerDAO.getRequestDate(year, dateOfTheDay.get(Calendar.MONTH) + 1));
+      stmt.executeUpdate(deleteStatement + " = '" + StatPeriod.Year.name() + "' AND dateStat<" +
+          SilverStatisticsManagerDAO.getRequestDate(year, 1));
+    }
+  }
+
+  private static void readSums(Connection con, String tableName, List<String> cumulKeys,
+      Map<RollupKey, long[]> rollups, Set<StatPeriod> periods) throws SQLException {
+    String selectStatement = "SELECT dateStat, spaceId, componentId, " +
+        cumulKeys.stream().map(k -> "SUM(" + k + ")").collect(Collectors.joining(",")) +
+        " FROM " + tableName + " GROUP BY dateStat, spaceId, componentId";
+    try (Statement stmt = con.createStatement();
+         ResultSet rs = stmt.executeQuery(selectStatement)) {
+      while (rs.next()) {
+        long[] values = new long[cumulKeys.size()];
+        for (int i = 0; i < values.length; i++) {
+          values[i] = rs.getLong(4 + i);
+        }
+        rollUp(rollups, periods, rs.getString(1), rs.getString(2), rs.getString(3), values);
+      }
+    }
+  }
+
+  private static void rollUp(Map<RollupKey, long[]> rollups, Set<StatPeriod> periods,
+      String dateStat, String spaceId, String componentId, long[] values) {
+    for (StatPeriod period : periods) {
+      long[] sums = rollups.computeIfAbsent(
+          new RollupKey(period, period.getPeriodDate(dateStat), spaceId, componentId),
+          k -> new long[values.length]);
+      for (int i = 0; i < values.length; i++) {
+        sums[i] += values[i];
+      }
+    }
+  }
+
+  private static void putRollups(Connection con, StatType type, List<String> cumulKeys,
+      Map<RollupKey, long[]> rollups, StatisticsConfig conf) throws SQLException {
+    if (rollups.isEmpty()) {
+      return;
+    }
+    String tableName = getRollupTable(type, conf);
+    List<Map.Entry<RollupKey, long[]>> allRollups = new ArrayList<>(rollups.entrySet());
+    List<Map.Entry<RollupKey, long[]>> rollupsToInsert = new ArrayList<>();
+    String updateStatement = "UPDATE " + tableName + " SET " +
+        cumulKeys.stream().map(k -> k + "=" + k + "+?").collect(Collectors.joining(",")) +
+        " WHERE period=? AND dateStat=? AND spaceId=? AND componentId=?";
+    try (PreparedStatement pstmt = con.prepareStatement(updateStatement)) {
+      for (Map.Entry<RollupKey, long[]> rollup : allRollups) {
+        int i = setValues(pstmt, 1, rollup.getValue());
+        setKey(pstmt, i, rollup.getKey());
+        pstmt.addBatch();
+      }
+      int[] updatedRows = pstmt.executeBatch();
+      for (int i = 0; i < updatedRows.length; i++) {
+        // a driver not able to count the rows updated by a batch returns SUCCESS_NO_INFO: the
+        // rollup has then been updated if it exists, so it is counted by updating it again with
+        // nothing to add
+        if (updatedRows[i] == 0 ||
+            (updatedRows[i] < 0 && !isAlreadyPut(pstmt, allRollups.get(i)))) {
+          rollupsToInsert.add(allRollups.get(i));
+        }
+      }
+    }
+
+    if (!rollupsToInsert.isEmpty()) {
+      String insertStatement = "INSERT INTO " + tableName + "(period,dateStat,spaceId," +
+          "componentId," + StringUtil.join(cumulKeys, ',') + ") VALUES(?,?,?,?" +
+          cumulKeys.stream().map(k -> ",?").collect(Collectors.joining()) + ")";
+      try (PreparedStatement pstmt = con.prepareStatement(insertStatement)) {
+        for (Map.Entry<RollupKey, long[]> rollup : rollupsToInsert) {
+          int i = setKey(pstmt, 1, rollup.getKey());
+          setValues(pstmt, i, rollup.getValue());
+          pstmt.addBatch();
+        }
+        pstmt.executeBatch();
+      }
+    }
+  }
+
+  private static boolean isAlreadyPut(PreparedStatement updateStmt,
+      Map.Entry<RollupKey, long[]> rollup) throws SQLException {
+    int i = setValues(updateStmt, 1, new long[rollup.getValue().length]);
+    setKey(updateStmt, i, rollup.getKey());
+    return updateStmt.executeUpdate() > 0;
+  }
+
+  private static int setKey(PreparedStatement pstmt, int index, RollupKey key)
+      throws SQLException {
+    int i = index;
+    pstmt.setString(i++, key.period.name());
+    pstmt.setString(i++, key.dateStat);
+    pstmt.setString(i++, key.spaceId);
+    pstmt.setString(i++, key.componentId);
+    return i;
+  }
+
+  private static int setValues(PreparedStatement pstmt, int index, long[] values)
+      throws SQLException {
+    int i = index;
+    for (long value : values) {
+      pstmt.setLong(i++, value);
+    }
+    return i;
+  }
+
+  private static List<String> getCumulKeys(StatType type, StatisticsConfig conf) {
+    return conf.getAllKeys(type)
+        .stream()
+        .filter(k -> conf.isCumulKey(type, k))
+        .collect(Collectors.toList());
+  }
+
+  private static String getRollupTable(StatType type, StatisticsConfig conf) {
+    return conf.getTableName(type) + ROLLUP_SUFFIX;
+  }
+
+  private static class RollupKey {
+    private final StatPeriod period;
+    private final String dateStat;
+    private final String spaceId;
+    private final String componentId;
+
+    RollupKey(final StatPeriod period, final String dateStat, final String spaceId,
+        final String componentId) {
+      this.period = period;
+      this.dateStat = dateStat;
+      this.spaceId = spaceId;
+      this.componentId = componentId;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      final RollupKey rollupKey = (RollupKey) o;
+      return period == rollupKey.period && dateStat.equals(rollupKey.dateStat) &&
+          spaceId.equals(rollupKey.spaceId) && componentId.equals(rollupKey.componentId);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(period, dateStat, spaceId, componentId);
+    }
+  }
+}
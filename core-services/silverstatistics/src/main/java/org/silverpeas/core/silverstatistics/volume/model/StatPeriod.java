@@ -0,0 +1,48 @@
+/*
+ * Copyright (C) 2000 - 2018 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.silverstatistics.volume.model;
+
+/**
+ * The periods over which the statistics are rolled up. A rolled up statistic is dated by the
+ * first day of its period, in the ISO 8601 format of the statistic dates (yyyy-MM-dd).
+ */
+public enum StatPeriod {
+  Day, Month, Year;
+
+  /**
+   * Gets the date of this period containing the specified statistic date.
+   * @param dateStat a statistic date in the ISO 8601 format (yyyy-MM-dd).
+   * @return the first day of the period containing the given date.
+   */
+  public String getPeriodDate(String dateStat) {
+    switch (this) {
+      case Month:
+        return dateStat.substring(0, 8) + "01";
+      case Year:
+        return dateStat.substring(0, 5) + "01-01";
+      default:
+        return dateStat;
+    }
+  }
+}
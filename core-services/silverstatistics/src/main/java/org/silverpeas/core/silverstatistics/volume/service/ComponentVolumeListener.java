@@ -0,0 +1,79 @@
+/*
+ * Copyright (C) 2000 - 2018 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.silverstatistics.volume.service;
+
+import org.silverpeas.core.contribution.attachment.notification.AttachmentEvent;
+import org.silverpeas.core.contribution.attachment.notification.AttachmentRef;
+import org.silverpeas.core.notification.system.CDIResourceEventListener;
+import org.silverpeas.core.persistence.Transaction;
+import org.silverpeas.core.persistence.TransactionRuntimeException;
+import org.silverpeas.core.silverstatistics.volume.dao.ComponentVolumeDAO;
+import org.silverpeas.core.util.logging.SilverLogger;
+
+/**
+ * Listener of the events on the attachments in order to maintain the volume of the data of the
+ * component instances. Only the notified changes are taken into account; the volumes are
+ * regularly recomputed from the file system to take into account the other ones. Each update of
+ * a volume marks it as to be recomputed by the next reconciliation, which then corrects the
+ * changes not notified or not counted, like the versions of the files.
+ * @see ComponentVolumeMoveListener
+ * @see DirectoryVolumeService#reconcileVolumes()
+ */
+public class ComponentVolumeListener extends CDIResourceEventListener<AttachmentEvent> {
+
+  @Override
+  public void onCreation(final AttachmentEvent event) throws Exception {
+    AttachmentRef attachment = event.getTransition().getAfter();
+    addToVolume(attachment.getInstanceId(), 1, attachment.getSize());
+  }
+
+  @Override
+  public void onUpdate(final AttachmentEvent event) throws Exception {
+    AttachmentRef before = event.getTransition().getBefore();
+    AttachmentRef after = event.getTransition().getAfter();
+    addToVolume(after.getInstanceId(), 0, after.getSize() - before.getSize());
+  }
+
+  @Override
+  public void onDeletion(final AttachmentEvent event) throws Exception {
+    AttachmentRef attachment = event.getTransition().getBefore();
+    addToVolume(attachment.getInstanceId(), -1, -attachment.getSize());
+  }
+
+  static void addToVolume(final String componentId, final long fileCount,
+      final long fileSize) {
+    if (fileCount == 0 && fileSize == 0) {
+      return;
+    }
+    try {
+      Transaction.performInOne(() -> {
+        ComponentVolumeDAO.addToVolume(componentId, fileCount, fileSize);
+        return null;
+      });
+    } catch (TransactionRuntimeException e) {
+      SilverLogger.getLogger(ComponentVolumeListener.class)
+          .error("Cannot update the volume of {0}", new Object[]{componentId}, e);
+    }
+  }
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright (C) 2000 - 2018 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.silverstatistics.volume.service;
+
+import org.silverpeas.core.contribution.attachment.notification.AttachmentMoveEvent;
+import org.silverpeas.core.contribution.attachment.notification.AttachmentRef;
+import org.silverpeas.core.notification.system.CDIResourceEventListener;
+
+/**
+ * Listener of the moves of attachments between component instances in order to move their file
+ * from the volume of the source component instance to the volume of the destination one.
+ * @see ComponentVolumeListener
+ */
+public class ComponentVolumeMoveListener extends CDIResourceEventListener<AttachmentMoveEvent> {
+
+  @Override
+  public void onUpdate(final AttachmentMoveEvent event) throws Exception {
+    AttachmentRef source = event.getTransition().getBefore();
+    AttachmentRef destination = event.getTransition().getAfter();
+    if (!source.getInstanceId().equals(destination.getInstanceId())) {
+      ComponentVolumeListener.addToVolume(source.getInstanceId(), -1, -source.getSize());
+      ComponentVolumeListener.addToVolume(destination.getInstanceId(), 1, destination.getSize());
+    }
+  }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright (C) 2000 - 2018 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.silverstatistics.volume.service;
+
+import org.silverpeas.core.silverstatistics.volume.model.DirectoryStats;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+
+/**
+ * Compute both the size in terms of number of files and the total size of a directory in a
+ * single walk of it. The walk can be slowed down by a throttle in order to spare the file system.
+ */
+public class DirectoryVolumeComputer extends AbstractComputer {
+
+  private final ScanThrottle throttle;
+  private long count = 0L;
+  private long size = 0L;
+
+  DirectoryVolumeComputer(File directory, final ScanThrottle throttle) {
+    super(directory, true);
+    this.throttle = throttle;
+  }
+
+  @Override
+  protected void handleTransverseFile(final Path file, final BasicFileAttributes attrs) {
+    throttle.acquire();
+    count++;
+    size += attrs.size();
+  }
+
+  @Override
+  protected void setTransverseResult(final DirectoryStats result) {
+    result.addFileNumber(count);
+    result.addDirectorySize(size);
+  }
+
+  @Override
+  protected void setSpecificResult(final DirectoryStats result,
+      final ComponentStatisticsProvider componentStatistics) {
+    result.addFileNumber(componentStatistics.countSpecificFiles(result.getDirectoryName()));
+    result
+        .addDirectorySize(componentStatistics.memorySizeOfSpecificFiles(result.getDirectoryName()));
+  }
+}
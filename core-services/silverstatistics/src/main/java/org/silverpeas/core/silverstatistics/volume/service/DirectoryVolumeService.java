@@ -26,15 +26,27 @@ package org.silverpeas.core.silverstatistics.volume.service;
 import org.apache.commons.io.filefilter.AndFileFilter;
 import org.apache.commons.io.filefilter.DirectoryFileFilter;
 import org.apache.commons.io.filefilter.NameFileFilter;
+import org.silverpeas.core.admin.component.model.SilverpeasComponent;
 import org.silverpeas.core.admin.service.OrganizationController;
+import org.silverpeas.core.persistence.Transaction;
+import org.silverpeas.core.persistence.TransactionRuntimeException;
+import org.silverpeas.core.silverstatistics.volume.dao.ComponentVolumeDAO;
+import org.silverpeas.core.silverstatistics.volume.dao.ComponentVolumeDAO.ScanState;
 import org.silverpeas.core.silverstatistics.volume.model.DirectoryStats;
+import org.silverpeas.core.util.ResourceLocator;
+import org.silverpeas.core.util.SettingBundle;
 import org.silverpeas.core.util.StringUtil;
 import org.silverpeas.core.util.file.FileRepositoryManager;
+import org.silverpeas.core.util.logging.SilverLogger;
 
 import java.io.File;
 import java.io.FileFilter;
+import java.sql.SQLException;
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -42,11 +54,14 @@ import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
  * Compute the size in terms of number of files and total size of all the components available for a
- * specified user.
+ * specified user. The volume of the components is maintained along with their files and it is
+ * recomputed periodically from the file system.
  */
 public class DirectoryVolumeService {
 
@@ -63,27 +78,20 @@ public class DirectoryVolumeService {
     onlyComponentData = false;
   }
 
-  private List<DirectorySizeComputer> buildSizeScanners(File dataDirectory, String userId) {
-    File[] files = listDirectoriesToScan(dataDirectory, userId);
-    List<DirectorySizeComputer> result = new ArrayList<>(files.length);
-    for (File componentDir : files) {
-      result.add(new DirectorySizeComputer(componentDir, onlyComponentData));
-    }
-    return result;
-  }
-
-  private List<FileNumberComputer> buildFileNumberScanners(File dataDirectory, String userId) {
-    File[] files = listDirectoriesToScan(dataDirectory, userId);
-    List<FileNumberComputer> result = new ArrayList<>(files.length);
-    for (File componentDir : files) {
-      result.add(new FileNumberComputer(componentDir, onlyComponentData));
-    }
-    return result;
-  }
-
+  /**
+   * Gets the total size of the directories of the workspace. The directories of the component
+   * instances aren't walked: their size is the volume maintained along with their files.
+   * @return the size in bytes of the directories of the workspace.
+   * @throws InterruptedException if the scanning of the directories is interrupted.
+   * @throws ExecutionException if the size of a directory cannot be got.
+   */
   long getTotalSize() throws InterruptedException, ExecutionException {
-    List<DirectorySizeComputer> scanners = buildSizeScanners(workspace, null);
+    final File uploadDirectory = new File(FileRepositoryManager.getUploadPath()).getAbsoluteFile();
+    final List<DirectorySizeComputer> scanners = new ArrayList<>();
     long totalSize = 0L;
+    for (File directory : listDirectoriesToScan(workspace, null)) {
+      totalSize += addSizeScanners(directory.getAbsoluteFile(), uploadDirectory, scanners);
+    }
     ExecutorService executor = Executors.newFixedThreadPool(getNumberOfThread());
     List<Future<DirectoryStats>> result = executor.invokeAll(scanners);
     try {
@@ -97,40 +105,208 @@ public class DirectoryVolumeService {
     return totalSize;
   }
 
+  /**
+   * Adds the scanner of the specified directory unless it is or it contains the directory of the
+   * component instances. In that case, only the directories beside it are scanned and the size
+   * of the component instances is got from their volume.
+   * @return the size of the component instances in the specified directory.
+   */
+  private long addSizeScanners(final File directory, final File uploadDirectory,
+      final List<DirectorySizeComputer> scanners) throws InterruptedException,
+      ExecutionException {
+    if (directory.equals(uploadDirectory)) {
+      return new DirectoryVolumeService().getComponentVolumes(null).stream()
+          .mapToLong(DirectoryStats::getDirectorySize)
+          .sum();
+    }
+    if (!uploadDirectory.toPath().startsWith(directory.toPath())) {
+      scanners.add(new DirectorySizeComputer(directory, onlyComponentData));
+      return 0L;
+    }
+    long size = 0L;
+    final File[] children = directory.listFiles(DirectoryFileFilter.DIRECTORY);
+    for (File child : children != null ? children : new File[0]) {
+      size += addSizeScanners(child, uploadDirectory, scanners);
+    }
+    return size;
+  }
+
+  /**
+   * Gets the total size of the data of each component instance accessible by the specified user.
+   * The sizes are those maintained along with the files of the component instances. Only the
+   * component instances whose the volume has never been computed are scanned.
+   * @param userId the unique identifier of a user.
+   * @return the size in bytes of the data of each component instance.
+   * @throws InterruptedException if the scanning of component instances is interrupted.
+   * @throws ExecutionException if the volume of the component instances cannot be got.
+   */
   public Map<String, String[]> getSizeVentilation(String userId) throws
       InterruptedException, ExecutionException {
-    List<DirectorySizeComputer> scanners = buildSizeScanners(workspace, userId);
-    Map<String, String[]> volume = new HashMap<>(scanners.size());
-    ExecutorService executor = Executors.newFixedThreadPool(getNumberOfThread());
-    List<Future<DirectoryStats>> result = executor.invokeAll(scanners);
-    try {
-      for (Future<DirectoryStats> future : result) {
-        DirectoryStats stats = future.get();
-        volume.put(stats.getDirectoryName(), new String[]{String.valueOf(stats.getDirectorySize()),
-          null, null});
-      }
-    } finally {
-      executor.shutdown();
+    Collection<DirectoryStats> volumes = getComponentVolumes(userId);
+    Map<String, String[]> volume = new HashMap<>(volumes.size());
+    for (DirectoryStats stats : volumes) {
+      volume.put(stats.getDirectoryName(), new String[]{String.valueOf(stats.getDirectorySize()),
+        null, null});
     }
     return volume;
   }
 
+  /**
+   * Gets the number of files of each component instance accessible by the specified user. The
+   * numbers are those maintained along with the files of the component instances. Only the
+   * component instances whose the volume has never been computed are scanned.
+   * @param userId the unique identifier of a user.
+   * @return the number of files of each component instance.
+   * @throws InterruptedException if the scanning of component instances is interrupted.
+   * @throws ExecutionException if the volume of the component instances cannot be got.
+   */
   public Map<String, String[]> getFileNumberVentilation(String userId) throws
       InterruptedException, ExecutionException {
-    List<FileNumberComputer> scanners = buildFileNumberScanners(workspace, userId);
-    Map<String, String[]> volume = new HashMap<>(scanners.size());
-    ExecutorService executor = Executors.newFixedThreadPool(getNumberOfThread());
-    List<Future<DirectoryStats>> result = executor.invokeAll(scanners);
+    Collection<DirectoryStats> volumes = getComponentVolumes(userId);
+    Map<String, String[]> volume = new HashMap<>(volumes.size());
+    for (DirectoryStats stats : volumes) {
+      volume.put(stats.getDirectoryName(), new String[]{String.valueOf(stats.getNumberOfFiles()),
+        null, null});
+    }
+    return volume;
+  }
+
+  /**
+   * Selects among the specified directories of component instances the ones whose the volume is
+   * to be recomputed, in the order in which they have to be recomputed: first the ones never
+   * computed or changed since their computation, then the ones computed the longest time ago.
+   * @param directories the directories of component instances.
+   * @param states the state of the computation of the volumes indexed by component instance.
+   * @param lastValidDate the date, in the ISO 8601 format, from which a computed volume is
+   * considered as still valid.
+   * @return the directories to scan.
+   */
+  static List<File> selectDirectoriesToScan(final List<File> directories,
+      final Map<String, ScanState> states, final String lastValidDate) {
+    final Function<File, String> scanOrder = d -> {
+      final ScanState state = states.get(d.getName());
+      return state == null || state.isDirty() ? "" : state.getScanDate();
+    };
+    return directories.stream()
+        .filter(d -> scanOrder.apply(d).compareTo(lastValidDate) <= 0)
+        .sorted(Comparator.comparing(scanOrder))
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * Recomputes from the file system the volume of the component instances whose files were
+   * changed since their last computation or that weren't computed since the reconciliation
+   * period. The changed component instances are the first ones to be computed, then the ones
+   * computed the longest time ago. Each computed volume is saved at once, so an interrupted
+   * reconciliation is continued by the next one. A computed volume isn't saved if the volume was
+   * updated along with the files during the computation: the component instance is then still to
+   * be computed by the next reconciliation. The directories are scanned in parallel, at a
+   * limited number of files per second, and no more scanning is started once the maximum
+   * duration of the reconciliation is over.
+   * @throws InterruptedException if the reconciliation is interrupted.
+   */
+  public void reconcileVolumes() throws InterruptedException {
+    SettingBundle settings =
+        ResourceLocator.getSettingBundle("org.silverpeas.silverstatistics.SilverStatistics");
+    final LocalDate today = LocalDate.now();
+    final String lastValidDate =
+        today.minusDays(settings.getInteger("VolumeReconciliationPeriod", 7)).toString();
+    final long deadline = System.currentTimeMillis() +
+        TimeUnit.MINUTES.toMillis(settings.getInteger("VolumeReconciliationMaxDuration", 120));
+    final ScanThrottle throttle =
+        new ScanThrottle(settings.getInteger("VolumeReconciliationFilesPerSecond", 5000));
+    final int threads = Math.max(1, settings.getInteger("VolumeReconciliationThreads", 2));
+
     try {
-      for (Future<DirectoryStats> future : result) {
-        DirectoryStats stats = future.get();
-        volume.put(stats.getDirectoryName(), new String[]{String.valueOf(stats.getNumberOfFiles()),
-          null, null});
+      final Map<String, ScanState> states = ComponentVolumeDAO.getScanStates();
+      File[] directories = workspace.listFiles(DirectoryFileFilter.DIRECTORY);
+      final List<String> obsoleteVolumes = new ArrayList<>(states.keySet());
+      obsoleteVolumes.removeAll(Arrays.stream(directories != null ? directories : new File[0])
+          .map(File::getName)
+          .collect(Collectors.toList()));
+      if (!obsoleteVolumes.isEmpty()) {
+        Transaction.performInOne(() -> {
+          ComponentVolumeDAO.deleteVolumes(obsoleteVolumes);
+          return null;
+        });
       }
-    } finally {
-      executor.shutdown();
+      if (directories == null) {
+        return;
+      }
+      final List<File> directoriesToScan = selectDirectoriesToScan(Arrays.stream(directories)
+          .filter(d -> SilverpeasComponent.getByInstanceId(d.getName()).isPresent())
+          .collect(Collectors.toList()), states, lastValidDate);
+      ExecutorService executor = Executors.newFixedThreadPool(threads);
+      try {
+        for (File directory : directoriesToScan) {
+          executor.submit(() -> {
+            if (System.currentTimeMillis() < deadline) {
+              try {
+                final long revision = ComponentVolumeDAO.getRevision(directory.getName());
+                DirectoryStats stats = new DirectoryVolumeComputer(directory, throttle).call();
+                saveVolume(stats, today.toString(), revision);
+              } catch (SQLException | RuntimeException e) {
+                SilverLogger.getLogger(this).error(e);
+              }
+            }
+          });
+        }
+        executor.shutdown();
+        executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+      } finally {
+        executor.shutdownNow();
+      }
+    } catch (SQLException | TransactionRuntimeException e) {
+      SilverLogger.getLogger(this).error("Reconciliation of the component volumes failed", e);
+    }
+  }
+
+  private Collection<DirectoryStats> getComponentVolumes(String userId)
+      throws InterruptedException, ExecutionException {
+    File[] directories = listDirectoriesToScan(workspace, userId);
+    Map<String, DirectoryStats> volumes;
+    try {
+      volumes = ComponentVolumeDAO.getVolumes(
+          Arrays.stream(directories).map(File::getName).collect(Collectors.toList()));
+    } catch (SQLException e) {
+      throw new ExecutionException(e);
+    }
+    List<DirectoryVolumeComputer> scanners = Arrays.stream(directories)
+        .filter(d -> !volumes.containsKey(d.getName()))
+        .map(d -> new DirectoryVolumeComputer(d, new ScanThrottle(0)))
+        .collect(Collectors.toList());
+    if (!scanners.isEmpty()) {
+      final String today = LocalDate.now().toString();
+      ExecutorService executor = Executors.newFixedThreadPool(getNumberOfThread());
+      List<Future<DirectoryStats>> result = executor.invokeAll(scanners);
+      try {
+        for (Future<DirectoryStats> future : result) {
+          DirectoryStats stats = future.get();
+          volumes.put(stats.getDirectoryName(), stats);
+          if (SilverpeasComponent.getByInstanceId(stats.getDirectoryName()).isPresent()) {
+            saveVolume(stats, today, ComponentVolumeDAO.NO_REVISION);
+          }
+        }
+      } finally {
+        executor.shutdown();
+      }
+    }
+    return volumes.values();
+  }
+
+  private void saveVolume(DirectoryStats stats, String scanDate, long revision) {
+    try {
+      final boolean saved = Transaction.performInOne(
+          () -> ComponentVolumeDAO.saveVolume(stats, scanDate, revision));
+      if (!saved) {
+        SilverLogger.getLogger(this)
+            .debug("The volume of {0} changed while it was computed: it will be computed again",
+                stats.getDirectoryName());
+      }
+    } catch (TransactionRuntimeException e) {
+      SilverLogger.getLogger(this)
+          .error("Cannot save the volume of {0}", new Object[]{stats.getDirectoryName()}, e);
     }
-    return volume;
   }
 
   private File[] listDirectoriesToScan(File dataDirectory, String userId) {
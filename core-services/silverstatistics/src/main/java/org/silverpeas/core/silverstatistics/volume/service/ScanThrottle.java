@@ -0,0 +1,68 @@
+/*
+ * Copyright (C) 2000 - 2018 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.silverstatistics.volume.service;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A throttle limiting the number of files visited per second by all the directory computers
+ * sharing it.
+ */
+class ScanThrottle {
+
+  private final long interval;
+  private long next = System.nanoTime();
+
+  /**
+   * Constructs a throttle allowing the specified number of files per second.
+   * @param filesPerSecond the maximum number of files to visit per second. 0 or a negative value
+   * means no limit.
+   */
+  ScanThrottle(final int filesPerSecond) {
+    this.interval = filesPerSecond > 0 ? TimeUnit.SECONDS.toNanos(1) / filesPerSecond : 0L;
+  }
+
+  /**
+   * Waits for the visit of a file to be allowed.
+   */
+  void acquire() {
+    if (interval == 0L) {
+      return;
+    }
+    final long wait;
+    synchronized (this) {
+      final long now = System.nanoTime();
+      next = Math.max(next, now);
+      wait = next - now;
+      next += interval;
+    }
+    if (wait > 0L) {
+      try {
+        TimeUnit.NANOSECONDS.sleep(wait);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+}
@@ -0,0 +1,418 @@
+/*
+ * Copyright (C) 2000 - 2018 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.silverstatistics.volume.service;
+
+import org.apache.commons.text.StringTokenizer;
+import org.silverpeas.core.initialization.Initialization;
+import org.silverpeas.core.persistence.Transaction;
+import org.silverpeas.core.persistence.jdbc.DBUtil;
+import org.silverpeas.core.scheduler.Job;
+import org.silverpeas.core.scheduler.JobExecutionContext;
+import org.silverpeas.core.scheduler.Scheduler;
+import org.silverpeas.core.scheduler.SchedulerProvider;
+import org.silverpeas.core.scheduler.trigger.JobTrigger;
+import org.silverpeas.core.scheduler.trigger.TimeUnit;
+import org.silverpeas.core.silverstatistics.volume.dao.SilverStatisticsDAO;
+import org.silverpeas.core.silverstatistics.volume.dao.SilverStatisticsRollupDAO;
+import org.silverpeas.core.silverstatistics.volume.model.StatType;
+import org.silverpeas.core.silverstatistics.volume.model.StatisticsConfig;
+import org.silverpeas.core.thread.ManagedThreadPool;
+import org.silverpeas.core.util.ResourceLocator;
+import org.silverpeas.core.util.ServiceProvider;
+import org.silverpeas.core.util.SettingBundle;
+import org.silverpeas.core.util.logging.SilverLogger;
+
+import javax.inject.Singleton;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.silverpeas.core.silverstatistics.volume.model.SilverStatisticsConstants.SEPARATOR;
+import static org.silverpeas.core.thread.ManagedThreadPool.ExecutionConfig.inCategory;
+
+/**
+ * Buffer of the statistics received through the statistics queue. Instead of updating the
+ * statistic tables for each received statistic, the statistics sharing the same non cumulative
+ * keys (date, user, component instance, ...) are summed up in memory and they are written
+ * periodically in a single batch per type of statistics.
+ * <p>
+ * The buffer is bounded: once it contains the maximum number of distinct statistics, the
+ * statistics that cannot be summed up with a buffered one are directly written in the database,
+ * as without the buffer. A statistic is lost neither when a batch fails, the statistics of the
+ * batch being then put back into the buffer, nor at Silverpeas shutdown where the buffer is
+ * flushed. The statistics are then written at least once; they can be written twice only when
+ * the commit of a batch fails after the database has validated it.
+ * </p>
+ */
+@Singleton
+public class SilverStatisticsBuffer implements Initialization {
+
+  private static final String FLUSH_JOB_NAME = "SilverStatisticsBufferFlush";
+  private static final int DEFAULT_FLUSH_DELAY = 15;
+  private static final int DEFAULT_MAX_SIZE = 10000;
+
+  private final ConcurrentMap<StatKey, StatCounters> buffer = new ConcurrentHashMap<>();
+  private final Object flushLock = new Object();
+  private final LongAdder receivedCount = new LongAdder();
+  private final LongAdder overflowCount = new LongAdder();
+  private StatisticsConfig statsConfig;
+  private int maxSize = DEFAULT_MAX_SIZE;
+  private volatile boolean enabled = false;
+  private long lastFlushTime = System.currentTimeMillis();
+  private long lastReceivedCount = 0;
+  private volatile double ingestionRate = 0;
+  private volatile long lastFlushDuration = 0;
+  private volatile long maxFlushDuration = 0;
+
+  public static SilverStatisticsBuffer get() {
+    return ServiceProvider.getService(SilverStatisticsBuffer.class);
+  }
+
+  private SilverStatisticsBuffer() {
+  }
+
+  @Override
+  public void init() throws Exception {
+    statsConfig = new StatisticsConfig();
+    statsConfig.init();
+    SettingBundle settings =
+        ResourceLocator.getSettingBundle("org.silverpeas.silverstatistics.SilverStatistics");
+    int flushDelay = settings.getInteger("StatsFlushDelay", DEFAULT_FLUSH_DELAY);
+    maxSize = settings.getInteger("StatsBufferMaxSize", DEFAULT_MAX_SIZE);
+    Scheduler scheduler = SchedulerProvider.getVolatileScheduler();
+    scheduler.unscheduleJob(FLUSH_JOB_NAME);
+    if (flushDelay > 0 && maxSize > 0 && statsConfig.isValidConfigFile()) {
+      scheduler.scheduleJob(new Job(FLUSH_JOB_NAME) {
+        @Override
+        public void execute(final JobExecutionContext context) {
+          flush();
+        }
+      }, JobTrigger.triggerEvery(flushDelay, TimeUnit.SECOND));
+      enabled = true;
+    }
+    if (statsConfig.isValidConfigFile()) {
+      // the rollups are built from the history of the statistics the first time or when asked
+      final Runnable rollUp = settings.getBoolean("StatsRollupsRebuildAtStartup", false) ?
+          this::rebuildRollups : () -> rollUpHistory(false);
+      ManagedThreadPool.getPool().invoke(inCategory("statistics"), rollUp);
+    }
+  }
+
+  @Override
+  public void release() throws Exception {
+    enabled = false;
+    SchedulerProvider.getVolatileScheduler().unscheduleJob(FLUSH_JOB_NAME);
+    flush();
+  }
+
+  /**
+   * Puts the specified statistic into the buffer. If the buffer is disabled or full, the
+   * statistic is directly written in the database.
+   * @param type the type of the statistic.
+   * @param data the values of the statistic keys, separated by
+   * {@link org.silverpeas.core.silverstatistics.volume.model.SilverStatisticsConstants#SEPARATOR}
+   */
+  public void put(StatType type, String data) {
+    receivedCount.increment();
+    List<String> dataArray = new StringTokenizer(data, SEPARATOR).getTokenList();
+    if (!enabled || !statsConfig.isGoodDatas(type, dataArray)) {
+      // the statistic service handles itself the malformed statistics
+      SilverStatisticsProvider.getSilverStatistics().putStats(type, data);
+      return;
+    }
+    StatKey key = new StatKey(type, dataArray, statsConfig);
+    StatCounters counters = buffer.get(key);
+    if (counters == null) {
+      if (buffer.size() >= maxSize) {
+        overflowCount.increment();
+        SilverStatisticsProvider.getSilverStatistics().putStats(type, data);
+        return;
+      }
+      counters = buffer.computeIfAbsent(key, StatCounters::new);
+    }
+    long[] values = key.cumulValuesOf(dataArray);
+    counters.add(values, 1);
+    // a flush can have removed the counters while we were updating them: as a flush removes only
+    // the counters that haven't been updated since the previous flush, we take back what hasn't
+    // been yet drained by it and we put it again into the buffer
+    while (buffer.get(key) != counters) {
+      long[] rest = counters.drain();
+      if (StatCounters.isEmpty(rest)) {
+        break;
+      }
+      counters = buffer.computeIfAbsent(key, StatCounters::new);
+      counters.add(rest);
+    }
+    if (!enabled) {
+      // the buffer has been released meanwhile
+      flush();
+    }
+  }
+
+  /**
+   * Writes all the buffered statistics in the database. If the writing fails, the statistics are
+   * put back into the buffer in order to be written at the next flush.
+   */
+  public void flush() {
+    synchronized (flushLock) {
+      long start = System.currentTimeMillis();
+      Map<StatKey, long[]> drained = drain();
+      if (!drained.isEmpty()) {
+        Map<StatType, List<List<String>>> statsByType = new EnumMap<>(StatType.class);
+        drained.forEach((key, values) -> statsByType
+            .computeIfAbsent(key.type, t -> new ArrayList<>())
+            .add(key.dataWith(values)));
+        try {
+          Transaction.performInOne(() -> {
+            try (Connection connection = DBUtil.openConnection()) {
+              for (Map.Entry<StatType, List<List<String>>> stats : statsByType.entrySet()) {
+                SilverStatisticsDAO.putDataStats(connection, stats.getKey(), stats.getValue(),
+                    statsConfig);
+              }
+            }
+            return null;
+          });
+        } catch (Exception e) {
+          SilverLogger.getLogger(this)
+              .error("Failed to write {0} statistics, they are kept for the next flush",
+                  new Object[]{drained.size()}, e);
+          drained.forEach((key, values) -> buffer.computeIfAbsent(key, StatCounters::new)
+              .add(values));
+        }
+      }
+      long end = System.currentTimeMillis();
+      long received = receivedCount.sum();
+      if (end > lastFlushTime) {
+        ingestionRate = (received - lastReceivedCount) * 1000.0 / (end - lastFlushTime);
+      }
+      lastFlushTime = end;
+      lastReceivedCount = received;
+      lastFlushDuration = end - start;
+      maxFlushDuration = Math.max(maxFlushDuration, lastFlushDuration);
+    }
+  }
+
+  /**
+   * Rebuilds the rollups of the statistics from the statistics of the days not yet cumulated and
+   * from the cumulated ones. The buffer isn't flushed during the rebuild.
+   * @see SilverStatisticsRollupDAO#rebuildRollups(Connection, StatType, StatisticsConfig)
+   */
+  public void rebuildRollups() {
+    rollUpHistory(true);
+  }
+
+  /**
+   * Gets the total number of statistics received by this buffer, including those that were
+   * directly written in the database.
+   * @return the number of received statistics.
+   */
+  public long getReceivedCount() {
+    return receivedCount.sum();
+  }
+
+  /**
+   * Gets the number of statistics that were directly written in the database because the buffer
+   * was full.
+   * @return the number of statistics that have overflowed the buffer.
+   */
+  public long getOverflowCount() {
+    return overflowCount.sum();
+  }
+
+  /**
+   * Gets the number of statistics received per second between the two last flushes.
+   * @return the ingestion rate in statistics per second.
+   */
+  public double getIngestionRate() {
+    return ingestionRate;
+  }
+
+  /**
+   * Gets the number of distinct statistics currently in the buffer.
+   * @return the number of statistics waiting to be written.
+   */
+  public int getPendingCount() {
+    return buffer.size();
+  }
+
+  /**
+   * Gets the time taken by the last flush.
+   * @return the duration in milliseconds of the last flush.
+   */
+  public long getLastFlushDuration() {
+    return lastFlushDuration;
+  }
+
+  /**
+   * Gets the longest time taken by a flush since Silverpeas startup.
+   * @return the duration in milliseconds of the longest flush.
+   */
+  public long getMaxFlushDuration() {
+    return maxFlushDuration;
+  }
+
+  private void rollUpHistory(final boolean always) {
+    synchronized (flushLock) {
+      try {
+        Transaction.performInOne(() -> {
+          try (Connection connection = DBUtil.openConnection()) {
+            for (StatType type : statsConfig.getAllTypes()) {
+              if (SilverStatisticsRollupDAO.isRolledUp(type, statsConfig) && (always ||
+                  !SilverStatisticsRollupDAO.hasRollups(connection, type, statsConfig))) {
+                SilverStatisticsRollupDAO.rebuildRollups(connection, type, statsConfig);
+              }
+            }
+          }
+          return null;
+        });
+      } catch (Exception e) {
+        SilverLogger.getLogger(this).error("Failed to roll up the statistics", e);
+      }
+    }
+  }
+
+  private Map<StatKey, long[]> drain() {
+    Map<StatKey, long[]> drained = new HashMap<>();
+    buffer.forEach((key, counters) -> {
+      long[] values = counters.drain();
+      if (StatCounters.isEmpty(values) && buffer.remove(key, counters)) {
+        // the counters haven't been updated since the previous flush, but they could have been
+        // just before their removal
+        values = counters.drain();
+      }
+      if (!StatCounters.isEmpty(values)) {
+        drained.put(key, values);
+      }
+    });
+    return drained;
+  }
+
+  /**
+   * The non cumulative keys of a statistic.
+   */
+  private static class StatKey {
+    private final StatType type;
+    private final String[] data;
+    private final int[] cumulIndexes;
+
+    StatKey(final StatType type, final List<String> dataArray, final StatisticsConfig conf) {
+      this.type = type;
+      this.data = dataArray.toArray(new String[0]);
+      this.cumulIndexes = conf.getAllKeys(type)
+          .stream()
+          .filter(k -> conf.isCumulKey(type, k))
+          .mapToInt(k -> conf.indexOfKey(type, k))
+          .toArray();
+      for (int index : cumulIndexes) {
+        data[index] = null;
+      }
+    }
+
+    long[] cumulValuesOf(final List<String> dataArray) {
+      long[] values = new long[cumulIndexes.length];
+      for (int i = 0; i < cumulIndexes.length; i++) {
+        try {
+          values[i] = Long.parseLong(dataArray.get(cumulIndexes[i]));
+        } catch (NumberFormatException e) {
+          values[i] = 0;
+        }
+      }
+      return values;
+    }
+
+    List<String> dataWith(final long[] values) {
+      List<String> dataArray = new ArrayList<>(Arrays.asList(data));
+      for (int i = 0; i < cumulIndexes.length; i++) {
+        dataArray.set(cumulIndexes[i], String.valueOf(values[i]));
+      }
+      return dataArray;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      final StatKey statKey = (StatKey) o;
+      return type == statKey.type && Arrays.equals(data, statKey.data);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(type, Arrays.hashCode(data));
+    }
+  }
+
+  /**
+   * The sums of the cumulative keys of a statistic followed by the number of statistics that were
+   * summed up. The sums are updated and drained atomically without any lock.
+   */
+  private static class StatCounters {
+    private final AtomicLongArray counters;
+
+    StatCounters(final StatKey key) {
+      counters = new AtomicLongArray(key.cumulIndexes.length + 1);
+    }
+
+    static boolean isEmpty(final long[] values) {
+      return Arrays.stream(values).allMatch(v -> v == 0);
+    }
+
+    void add(final long[] values, final long count) {
+      for (int i = 0; i < values.length; i++) {
+        counters.addAndGet(i, values[i]);
+      }
+      counters.addAndGet(values.length, count);
+    }
+
+    void add(final long[] valuesAndCount) {
+      for (int i = 0; i < valuesAndCount.length; i++) {
+        counters.addAndGet(i, valuesAndCount[i]);
+      }
+    }
+
+    long[] drain() {
+      long[] values = new long[counters.length()];
+      // the count is drained first so that a statistic being added is never counted without its
+      // values
+      values[values.length - 1] = counters.getAndSet(values.length - 1, 0);
+      for (int i = 0; i < values.length - 1; i++) {
+        values[i] = counters.getAndSet(i, 0);
+      }
+      return values;
+    }
+  }
+}
@@ -38,6 +38,7 @@ import org.silverpeas.core.util.DateUtil;
 import org.silverpeas.core.util.ResourceLocator;
 import org.silverpeas.core.util.ServiceProvider;
 import org.silverpeas.core.util.SettingBundle;
+import org.silverpeas.core.util.StringUtil;
 import org.silverpeas.core.util.logging.SilverLogger;
 
 import javax.inject.Singleton;
@@ -64,6 +65,7 @@ public class SilverStatisticsManager implements Initialization {
   private static final String STAT_SIZE_JOB_NAME = "SilverStatisticsSize";
   private static final String STAT_CUMUL_JOB_NAME = "SilverStatisticsCumul";
   private static final String STAT_VOLUME_JOB_NAME = "SilverStatisticsVolume";
+  private static final String VOLUME_RECONCILIATION_JOB_NAME = "SilverStatisticsReconciliation";
   // List of directory to compute size
   private List<String> directoryToScan = null;
   private StatisticsConfig statsConfig = null;
@@ -96,6 +98,12 @@ public class SilverStatisticsManager implements Initialization {
       initSchedulerStatistics(volumeStatCron, STAT_VOLUME_JOB_NAME, this::doGetStatVolume);
       initSchedulerStatistics(consolidationStatCron, STAT_CUMUL_JOB_NAME,
           this::doConsolidationStat);
+      final String reconciliationCron =
+          settings.getString("scheduledVolumeReconciliationTimeStamp", "");
+      if (StringUtil.isDefined(reconciliationCron)) {
+        initSchedulerStatistics(reconciliationCron, VOLUME_RECONCILIATION_JOB_NAME,
+            this::doReconcileVolumes);
+      }
       initDirectoryToScan(settings);
     } catch (SilverStatisticsConfigException e) {
       SilverLogger.getLogger(this).error("Initialization of statistics configuration failed", e);
@@ -110,6 +118,7 @@ public class SilverStatisticsManager implements Initialization {
     scheduler.unscheduleJob(STAT_SIZE_JOB_NAME);
     scheduler.unscheduleJob(STAT_VOLUME_JOB_NAME);
     scheduler.unscheduleJob(STAT_CUMUL_JOB_NAME);
+    scheduler.unscheduleJob(VOLUME_RECONCILIATION_JOB_NAME);
   }
 
   /**
@@ -174,6 +183,22 @@ public class SilverStatisticsManager implements Initialization {
     }
   }
 
+  /**
+   * Recomputes the volume of the data of the component instances from the file system.
+   * @param currentDate the date at which the method is called.
+   */
+  private void doReconcileVolumes(Date currentDate) {
+    try {
+      new DirectoryVolumeService().reconcileVolumes();
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    } catch (Exception ex) {
+      SilverLogger.getLogger(this)
+          .error("error during volume reconciliation started at {0}", new Object[]{currentDate},
+              ex);
+    }
+  }
+
   /**
    * @param currentDate the date at which the method is called.
    */
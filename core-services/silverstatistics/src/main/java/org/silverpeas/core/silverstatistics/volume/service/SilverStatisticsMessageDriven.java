@@ -54,7 +54,8 @@ public class SilverStatisticsMessageDriven implements MessageListener {
   }
 
   /**
-   * Insert statistics
+   * Insert statistics. The statistics are summed up in memory by the statistics buffer before
+   * being written in the database.
    * @param message the message to process
    */
   @Override
@@ -68,7 +69,7 @@ public class SilverStatisticsMessageDriven implements MessageListener {
         if (typeOfStats.length() + SEPARATOR.length() < msg.length()) {
           String stat = msg.substring(typeOfStats.length() + SEPARATOR.length(), msg.length());
 
-          getSilverStatistics().putStats(StatType.valueOf(typeOfStats), stat);
+          SilverStatisticsBuffer.get().put(StatType.valueOf(typeOfStats), stat);
         } else {
           SilverTrace.error("silverstatistics", "SilverStatisticsMessageDriven.onMessage",
               "Wrong message", msg);
@@ -79,8 +80,4 @@ public class SilverStatisticsMessageDriven implements MessageListener {
           "Probleme jms ", e);
     }
   }
-
-  private SilverStatistics getSilverStatistics() {
-    return SilverStatisticsProvider.getSilverStatistics();
-  }
 }
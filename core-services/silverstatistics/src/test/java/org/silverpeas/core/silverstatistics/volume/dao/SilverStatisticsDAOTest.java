@@ -0,0 +1,136 @@
+/*
+ * Copyright (C) 2000 - 2018 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.silverpeas.core.silverstatistics.volume.dao;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.silverpeas.core.silverstatistics.volume.model.StatType;
+import org.silverpeas.core.silverstatistics.volume.model.StatisticsConfig;
+import org.silverpeas.core.util.SettingBundle;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests on the writing in one batch of several statistics.
+ */
+public class SilverStatisticsDAOTest {
+
+  private StatisticsConfig config;
+  private Connection connection;
+  private PreparedStatement update;
+  private PreparedStatement insert;
+
+  @BeforeEach
+  public void setUpConnection() throws Exception {
+    config = connectionStatisticsConfig();
+    connection = mock(Connection.class);
+    update = mock(PreparedStatement.class);
+    insert = mock(PreparedStatement.class);
+    when(connection.prepareStatement(startsWith("UPDATE"))).thenReturn(update);
+    when(connection.prepareStatement(startsWith("INSERT"))).thenReturn(insert);
+  }
+
+  @Test
+  public void onlyTheStatisticsWithoutAnyRowAreInserted() throws Exception {
+    when(update.executeBatch()).thenReturn(new int[]{1, 0, 2, 0});
+
+    SilverStatisticsDAO.putDataStats(connection, StatType.Connexion, statisticsOf(1, 2, 3, 4),
+        config);
+
+    verify(update, times(4)).addBatch();
+    verify(update, never()).executeUpdate();
+    verify(insert, times(2)).addBatch();
+    verify(insert).setInt(2, 2);
+    verify(insert).setInt(2, 4);
+    verify(insert, never()).setInt(2, 1);
+    verify(insert, never()).setInt(2, 3);
+  }
+
+  @Test
+  public void theRowsAreCountedAgainWhenTheDriverDoesNotCountTheUpdatedRows() throws Exception {
+    when(update.executeBatch()).thenReturn(
+        new int[]{1, 0, Statement.SUCCESS_NO_INFO, Statement.SUCCESS_NO_INFO});
+    when(update.executeUpdate()).thenReturn(1, 0);
+
+    SilverStatisticsDAO.putDataStats(connection, StatType.Connexion, statisticsOf(1, 2, 3, 4),
+        config);
+
+    // the rows are counted without adding the statistics a second time
+    verify(update, times(2)).executeUpdate();
+    verify(update, times(2)).setLong(1, 0L);
+    verify(update, times(2)).setLong(2, 0L);
+    verify(insert, times(2)).addBatch();
+    verify(insert).setInt(2, 2);
+    verify(insert).setInt(2, 4);
+    verify(insert, never()).setInt(2, 3);
+  }
+
+  @Test
+  public void nothingIsInsertedWhenAllTheRowsExist() throws Exception {
+    when(update.executeBatch()).thenReturn(new int[]{1, Statement.SUCCESS_NO_INFO});
+    when(update.executeUpdate()).thenReturn(1);
+
+    SilverStatisticsDAO.putDataStats(connection, StatType.Connexion, statisticsOf(1, 2), config);
+
+    verify(update).executeUpdate();
+    verify(insert, never()).addBatch();
+    verify(insert, never()).setInt(anyInt(), anyInt());
+  }
+
+  private static List<List<String>> statisticsOf(final int... userIds) {
+    return Arrays.stream(userIds)
+        .mapToObj(id -> Arrays.asList("2018-03-01", String.valueOf(id), "1", "60"))
+        .collect(Collectors.toList());
+  }
+
+  private static StatisticsConfig connectionStatisticsConfig() throws Exception {
+    final SettingBundle settings = mock(SettingBundle.class);
+    when(settings.getString("StatsSeparator")).thenReturn("-");
+    when(settings.getString("StatsFamily")).thenReturn("Connexion");
+    when(settings.getString("StatsTableNameConnexion")).thenReturn("SB_Stat_Connection");
+    when(settings.getString("StatsKeysNameConnexion"))
+        .thenReturn("dateStat-userId-countConnection-duration");
+    when(settings.getString("StatsKeysTypeConnexion"))
+        .thenReturn("VARCHAR-INTEGER-DECIMAL-DECIMAL");
+    when(settings.getString("StatsKeysCumulConnexion")).thenReturn("countConnection-duration");
+    when(settings.getString("StatsModeCumulConnexion")).thenReturn("Add");
+    final StatisticsConfig config = new StatisticsConfig();
+    config.initialize(settings);
+    return config;
+  }
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright (C) 2000 - 2018 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.silverpeas.core.silverstatistics.volume.dao;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.silverpeas.core.silverstatistics.volume.model.StatType;
+import org.silverpeas.core.silverstatistics.volume.model.StatisticsConfig;
+import org.silverpeas.core.util.SettingBundle;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests on the daily, monthly and yearly rollups of the access statistics.
+ */
+public class SilverStatisticsRollupDAOTest {
+
+  private StatisticsConfig config;
+  private Connection connection;
+  private PreparedStatement update;
+  private PreparedStatement insert;
+
+  @BeforeEach
+  public void setUpConnection() throws Exception {
+    config = accessStatisticsConfig();
+    connection = mock(Connection.class);
+    update = mock(PreparedStatement.class);
+    insert = mock(PreparedStatement.class);
+    when(connection.prepareStatement(startsWith("UPDATE SB_Stat_AccessRollup")))
+        .thenReturn(update);
+    when(connection.prepareStatement(startsWith("INSERT INTO SB_Stat_AccessRollup")))
+        .thenReturn(insert);
+  }
+
+  @Test
+  public void aStatisticIsAddedToItsDailyMonthlyAndYearlyRollups() throws Exception {
+    when(update.executeBatch()).thenReturn(new int[]{0, 0, 0});
+
+    SilverStatisticsRollupDAO.addToRollups(connection, StatType.Access,
+        Collections.singletonList(access("2018-03-05", "WA1", "kmelia1", 5)), config);
+
+    verify(update, times(3)).addBatch();
+    verify(update, times(3)).setLong(1, 5L);
+    verify(insert, times(3)).addBatch();
+    verify(insert).setString(2, "2018-03-05");
+    verify(insert).setString(2, "2018-03-01");
+    verify(insert).setString(2, "2018-01-01");
+  }
+
+  @Test
+  public void theStatisticsWithoutSpaceOrComponentInstanceAreNotRolledUp() throws Exception {
+    SilverStatisticsRollupDAO.addToRollups(connection, StatType.Access,
+        Arrays.asList(access("2018-03-05", "", "kmelia1", 5), access("2018-03-05", "WA1", null, 5)),
+        config);
+
+    verify(connection, never()).prepareStatement(anyString());
+  }
+
+  @Test
+  public void theRollupsAreCountedAgainWhenTheDriverDoesNotCountTheUpdatedRows()
+      throws Exception {
+    when(update.executeBatch()).thenReturn(
+        new int[]{Statement.SUCCESS_NO_INFO, Statement.SUCCESS_NO_INFO,
+            Statement.SUCCESS_NO_INFO});
+    when(update.executeUpdate()).thenReturn(1, 0, 0);
+
+    SilverStatisticsRollupDAO.addToRollups(connection, StatType.Access,
+        Collections.singletonList(access("2018-03-05", "WA1", "kmelia1", 5)), config);
+
+    // the rollups are counted without adding the statistic a second time
+    verify(update, times(3)).executeUpdate();
+    verify(update, times(3)).setLong(1, 0L);
+    verify(insert, times(2)).addBatch();
+  }
+
+  @Test
+  public void theRollupsAreRebuiltFromTheCumulatedAndTheDailyStatistics() throws Exception {
+    final Statement statement = mock(Statement.class);
+    when(connection.createStatement()).thenReturn(statement);
+    final ResultSet cumulated = sumsOf("2018-02-01", "WA1", "kmelia1", 10);
+    final ResultSet daily = sumsOf("2018-03-05", "WA1", "kmelia1", 3);
+    when(statement.executeQuery(contains("FROM SB_Stat_AccessCumul "))).thenReturn(cumulated);
+    when(statement.executeQuery(contains("FROM SB_Stat_Access "))).thenReturn(daily);
+    when(update.executeBatch()).thenReturn(new int[]{0, 0, 0, 0});
+
+    SilverStatisticsRollupDAO.rebuildRollups(connection, StatType.Access, config);
+
+    verify(statement).executeUpdate("DELETE FROM SB_Stat_AccessRollup");
+    verify(update, times(4)).addBatch();
+    verify(insert, times(4)).addBatch();
+    // the yearly rollup sums up the cumulated months and the days not yet cumulated
+    verify(insert).setLong(5, 13L);
+    verify(insert).setLong(5, 10L);
+    verify(insert, times(2)).setLong(5, 3L);
+    verify(insert).setString(1, "Day");
+  }
+
+  private static ResultSet sumsOf(final String dateStat, final String spaceId,
+      final String componentId, final long count) throws Exception {
+    final ResultSet rs = mock(ResultSet.class);
+    when(rs.next()).thenReturn(true, false);
+    when(rs.getString(1)).thenReturn(dateStat);
+    when(rs.getString(2)).thenReturn(spaceId);
+    when(rs.getString(3)).thenReturn(componentId);
+    when(rs.getLong(4)).thenReturn(count);
+    return rs;
+  }
+
+  private static List<String> access(final String dateStat, final String spaceId,
+      final String componentId, final long count) {
+    return Arrays.asList(dateStat, "1", "kmelia", spaceId, componentId, String.valueOf(count));
+  }
+
+  private static StatisticsConfig accessStatisticsConfig() throws Exception {
+    final SettingBundle settings = mock(SettingBundle.class);
+    when(settings.getString("StatsSeparator")).thenReturn("-");
+    when(settings.getString("StatsFamily")).thenReturn("Access");
+    when(settings.getString("StatsTableNameAccess")).thenReturn("SB_Stat_Access");
+    when(settings.getString("StatsKeysNameAccess"))
+        .thenReturn("dateStat-userId-peasType-spaceId-componentId-countAccess");
+    when(settings.getString("StatsKeysTypeAccess"))
+        .thenReturn("VARCHAR-INTEGER-VARCHAR-VARCHAR-VARCHAR-DECIMAL");
+    when(settings.getString("StatsKeysCumulAccess")).thenReturn("countAccess");
+    when(settings.getString("StatsModeCumulAccess")).thenReturn("Add");
+    final StatisticsConfig config = new StatisticsConfig();
+    config.initialize(settings);
+    return config;
+  }
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright (C) 2000 - 2018 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.silverpeas.core.silverstatistics.volume.service;
+
+import org.apache.commons.lang3.reflect.FieldUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.silverpeas.core.persistence.Transaction;
+import org.silverpeas.core.persistence.jdbc.ConnectionPool;
+import org.silverpeas.core.silverstatistics.volume.model.StatType;
+import org.silverpeas.core.silverstatistics.volume.model.StatisticsConfig;
+import org.silverpeas.core.test.extention.EnableSilverTestEnv;
+import org.silverpeas.core.test.extention.TestManagedMock;
+import org.silverpeas.core.test.extention.TestedBean;
+import org.silverpeas.core.util.Process;
+import org.silverpeas.core.util.SettingBundle;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.silverpeas.core.silverstatistics.volume.model.SilverStatisticsConstants.SEPARATOR;
+
+/**
+ * Unit tests on the summing up in memory of the statistics before writing them in the database.
+ */
+@EnableSilverTestEnv
+public class SilverStatisticsBufferTest {
+
+  @TestManagedMock
+  private Transaction transaction;
+
+  @TestManagedMock
+  private ConnectionPool connectionPool;
+
+  @TestManagedMock
+  private SilverStatistics silverStatistics;
+
+  @TestedBean
+  private SilverStatisticsBuffer buffer;
+
+  private PreparedStatement update;
+  private PreparedStatement insert;
+
+  @BeforeEach
+  public void setUpBuffer() throws Exception {
+    when(transaction.perform(any()))
+        .thenAnswer(invocation -> ((Process<?>) invocation.getArgument(0)).execute());
+    final Connection connection = mock(Connection.class);
+    update = mock(PreparedStatement.class);
+    insert = mock(PreparedStatement.class);
+    when(connectionPool.getDataSourceConnection()).thenReturn(connection);
+    when(connection.prepareStatement(startsWith("UPDATE"))).thenReturn(update);
+    when(connection.prepareStatement(startsWith("INSERT"))).thenReturn(insert);
+    when(update.executeBatch()).thenReturn(new int[]{0});
+
+    FieldUtils.writeField(buffer, "statsConfig", connectionStatisticsConfig(), true);
+    FieldUtils.writeField(buffer, "enabled", true, true);
+  }
+
+  @Test
+  public void theStatisticsSharingTheirKeysAreSummedUpBeforeBeingWritten() throws Exception {
+    buffer.put(StatType.Connexion, connection("1", 1, 60));
+    buffer.put(StatType.Connexion, connection("1", 1, 120));
+    buffer.put(StatType.Connexion, connection("1", 2, 30));
+    assertThat(buffer.getReceivedCount(), is(3L));
+    assertThat(buffer.getPendingCount(), is(1));
+    verify(update, never()).executeBatch();
+
+    buffer.flush();
+    // the drained statistics are removed from the buffer at the next flush if not updated
+    buffer.flush();
+
+    assertThat(buffer.getPendingCount(), is(0));
+    verify(update).addBatch();
+    verify(update).setLong(1, 4L);
+    verify(update).setLong(2, 210L);
+    verify(insert).addBatch();
+    verify(silverStatistics, never()).putStats(any(), any());
+  }
+
+  @Test
+  public void theStatisticsAreKeptForTheNextFlushWhenTheWritingFails() throws Exception {
+    when(update.executeBatch()).thenThrow(new SQLException("Connection lost"))
+        .thenReturn(new int[]{1});
+    buffer.put(StatType.Connexion, connection("1", 1, 60));
+
+    buffer.flush();
+    assertThat(buffer.getPendingCount(), is(1));
+
+    buffer.put(StatType.Connexion, connection("1", 1, 40));
+    buffer.flush();
+    verify(update).setLong(1, 2L);
+    verify(update).setLong(2, 100L);
+    verify(insert, never()).addBatch();
+  }
+
+  @Test
+  public void theStatisticsAreDirectlyWrittenWhenTheBufferIsFull() throws Exception {
+    FieldUtils.writeField(buffer, "maxSize", 1, true);
+    buffer.put(StatType.Connexion, connection("1", 1, 60));
+    buffer.put(StatType.Connexion, connection("1", 1, 60));
+    buffer.put(StatType.Connexion, connection("2", 1, 60));
+
+    assertThat(buffer.getPendingCount(), is(1));
+    assertThat(buffer.getOverflowCount(), is(1L));
+    verify(silverStatistics, times(1)).putStats(StatType.Connexion, connection("2", 1, 60));
+  }
+
+  private static String connection(final String userId, final int count, final int duration) {
+    return String.join(SEPARATOR, "2018-03-01", userId, String.valueOf(count),
+        String.valueOf(duration));
+  }
+
+  private static StatisticsConfig connectionStatisticsConfig() throws Exception {
+    final SettingBundle settings = mock(SettingBundle.class);
+    when(settings.getString("StatsSeparator")).thenReturn("-");
+    when(settings.getString("StatsFamily")).thenReturn("Connexion");
+    when(settings.getString("StatsTableNameConnexion")).thenReturn("SB_Stat_Connection");
+    when(settings.getString("StatsKeysNameConnexion"))
+        .thenReturn("dateStat-userId-countConnection-duration");
+    when(settings.getString("StatsKeysTypeConnexion"))
+        .thenReturn("VARCHAR-INTEGER-DECIMAL-DECIMAL");
+    when(settings.getString("StatsKeysCumulConnexion")).thenReturn("countConnection-duration");
+    when(settings.getString("StatsModeCumulConnexion")).thenReturn("Add");
+    final StatisticsConfig config = new StatisticsConfig();
+    config.initialize(settings);
+    return config;
+  }
+}
@@ -0,0 +1,205 @@
+/*
+ * Copyright (C) 2000 - 2018 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.silverpeas.core.workflow.engine.instance;
+
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.junit.Arquillian;
+import org.jboss.shrinkwrap.api.Archive;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.silverpeas.core.SilverpeasRuntimeException;
+import org.silverpeas.core.admin.PaginationPage;
+import org.silverpeas.core.persistence.Transaction;
+import org.silverpeas.core.persistence.jdbc.sql.JdbcSqlQuery;
+import org.silverpeas.core.test.BasicWarBuilder;
+import org.silverpeas.core.test.rule.DbSetupRule;
+import org.silverpeas.core.util.SilverpeasList;
+import org.silverpeas.core.workflow.api.WorkflowException;
+import org.silverpeas.core.workflow.api.instance.HistoryStep;
+import org.silverpeas.core.workflow.api.instance.ProcessInstanceOrder;
+import org.silverpeas.core.workflow.api.user.User;
+import org.silverpeas.core.workflow.engine.WorkflowHub;
+
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.Matchers.contains;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Integration tests on the inbox of the process instances and on the lazy loading of the
+ * history of the process instances got from the inbox.
+ */
+@RunWith(Arquillian.class)
+public class ProcessInstanceInboxIT {
+
+  private static final String[] TABLE_CREATION_SCRIPTS = {
+      "/org/silverpeas/core/workflow/engine/user/create-tables.sql",
+      "/org/silverpeas/core/workflow/engine/instance/create-tables.sql"};
+  private static final String[] DATA_SET_SCRIPTS = {
+      "/org/silverpeas/core/workflow/engine/user/create-dataset.sql",
+      "/org/silverpeas/core/workflow/engine/instance/create-dataset.sql"};
+  private static final String WORKFLOW_INSTANCE_ID = "workflow42";
+
+  @Rule
+  public DbSetupRule dbSetupRule =
+      DbSetupRule.createTablesFrom(TABLE_CREATION_SCRIPTS).loadInitialDataSetFrom(DATA_SET_SCRIPTS);
+
+  @Deployment
+  public static Archive<?> createTestArchive() {
+    return BasicWarBuilder.onWarForTestClass(ProcessInstanceInboxIT.class)
+        .addMavenDependenciesWithPersistence("org.silverpeas.core:silverpeas-core")
+        .createMavenDependenciesWithPersistence("org.silverpeas.core.services:silverpeas-core-pdc")
+        .createMavenDependencies("org.silverpeas.core.services:silverpeas-core-tagcloud")
+        .createMavenDependencies("org.silverpeas.core.services:silverpeas-core-personalorganizer")
+        .addAsResource("org/silverpeas/lookAndFeel")
+        .addAsResource("org/silverpeas/util")
+        .testFocusedOn(war -> war.addPackages(true, "org.silverpeas.core.workflow")
+            .addAsResource("org/silverpeas/workflow/multilang"))
+        .build();
+  }
+
+  @Test
+  public void rebuildFillsTheInboxWithTheParticipantsOfAllTheProcessInstances()
+      throws SQLException {
+    ProcessInstanceInbox.get().rebuild();
+
+    assertThat(countEntriesOf(1), is(2L));
+    assertThat(countEntriesOf(2), is(3L));
+    assertThat(countEntriesOf(3), is(3L));
+    assertThat(countEntriesOf(4), is(2L));
+  }
+
+  @Test
+  public void rebuildSkipsTheProcessInstancesAlreadyInTheInbox() throws SQLException {
+    JdbcSqlQuery.createInsertFor("SB_Workflow_Inbox")
+        .addInsertParam("instanceId", 1)
+        .addInsertParam("modelId", WORKFLOW_INSTANCE_ID)
+        .addInsertParam("role", "Employee")
+        .addInsertParam("userId", "3")
+        .addInsertParam("locked", 0)
+        .addInsertParam("errorStatus", 0)
+        .addInsertParam("timeoutStatus", 0)
+        .addInsertParam("lastUpdateDate", new Timestamp(System.currentTimeMillis()))
+        .execute();
+
+    ProcessInstanceInbox.get().rebuild();
+
+    assertThat(countEntriesOf(1), is(1L));
+    assertThat(countEntriesOf(2), is(3L));
+  }
+
+  @Test
+  public void removeDeletesAllTheEntriesOfTheProcessInstances() throws SQLException {
+    final ProcessInstanceInbox inbox = ProcessInstanceInbox.get();
+    inbox.rebuild();
+
+    Transaction.performInOne(() -> {
+      inbox.remove(Collections.singletonList("2"));
+      return null;
+    });
+
+    assertThat(countEntriesOf(1), is(2L));
+    assertThat(countEntriesOf(2), is(0L));
+  }
+
+  @Test
+  public void getTheProcessInstancesAddressedToAUserInARole() throws SQLException {
+    final ProcessInstanceInbox inbox = ProcessInstanceInbox.get();
+    inbox.rebuild();
+
+    SilverpeasList<ProcessInstanceImpl> instances =
+        inbox.getProcessInstances(WORKFLOW_INSTANCE_ID, aUser("1"), "Employee", null, null, null,
+            ProcessInstanceOrder.CREATION_DATE_DESC);
+    assertThat(idsOf(instances), contains("2", "1"));
+
+    instances = inbox.getProcessInstances(WORKFLOW_INSTANCE_ID, aUser("1"), "Manager",
+        new String[]{"Manager"}, null, null, ProcessInstanceOrder.CREATION_DATE_DESC);
+    assertThat(idsOf(instances), contains("3", "2"));
+  }
+
+  @Test
+  public void getAPageOfTheProcessInstancesOfASupervisor() throws SQLException {
+    final ProcessInstanceInbox inbox = ProcessInstanceInbox.get();
+    inbox.rebuild();
+
+    SilverpeasList<ProcessInstanceImpl> instances =
+        inbox.getProcessInstances(WORKFLOW_INSTANCE_ID, aUser("0"),
+            ProcessInstanceInbox.SUPERVISOR_ROLE, null, null, new PaginationPage(1, 2),
+            ProcessInstanceOrder.LAST_UPDATE_DATE_DESC);
+    assertThat(idsOf(instances), contains("3", "1"));
+    assertThat(instances.originalListSize(), is(3L));
+
+    instances = inbox.getProcessInstances(WORKFLOW_INSTANCE_ID, aUser("0"),
+        ProcessInstanceInbox.SUPERVISOR_ROLE, null, null, new PaginationPage(2, 2),
+        ProcessInstanceOrder.LAST_UPDATE_DATE_DESC);
+    assertThat(idsOf(instances), contains("2"));
+    assertThat(instances.originalListSize(), is(3L));
+  }
+
+  @Test
+  public void theHistoryLazilyLoadedKeepsTheTimeOfTheActions() throws SQLException {
+    final ProcessInstanceInbox inbox = ProcessInstanceInbox.get();
+    inbox.rebuild();
+
+    final SilverpeasList<ProcessInstanceImpl> instances =
+        inbox.getProcessInstances(WORKFLOW_INSTANCE_ID, aUser("0"),
+            ProcessInstanceInbox.SUPERVISOR_ROLE, null, null, null,
+            ProcessInstanceOrder.CREATION_DATE_DESC);
+    final ProcessInstanceImpl instance = instances.stream()
+        .filter(i -> "3".equals(i.getId()))
+        .findFirst()
+        .orElseThrow(() -> new AssertionError("No process instance 3"));
+    final HistoryStep[] steps = instance.getHistorySteps();
+    assertThat(steps.length, is(2));
+    assertThat(steps[0].getActionDate().getTime(),
+        is(Timestamp.valueOf("2018-03-01 09:00:00").getTime()));
+    assertThat(steps[1].getActionDate().getTime(),
+        is(Timestamp.valueOf("2018-03-03 16:45:00").getTime()));
+  }
+
+  private long countEntriesOf(final int instanceId) throws SQLException {
+    return JdbcSqlQuery.createCountFor("SB_Workflow_Inbox")
+        .where("instanceId = ?", instanceId)
+        .executeUnique(r -> r.getLong(1));
+  }
+
+  private List<String> idsOf(final List<ProcessInstanceImpl> instances) {
+    return instances.stream().map(ProcessInstanceImpl::getId).collect(Collectors.toList());
+  }
+
+  private User aUser(final String userId) {
+    try {
+      return WorkflowHub.getUserManager().getUser(userId);
+    } catch (WorkflowException e) {
+      throw new SilverpeasRuntimeException(e);
+    }
+  }
+}
@@ -0,0 +1,33 @@
+INSERT INTO SB_Workflow_ProcessInstance (instanceId, modelId, locked, errorStatus, timeoutStatus)
+VALUES
+  (1, 'workflow42', 0, 0, 0),
+  (2, 'workflow42', 0, 1, 0),
+  (3, 'workflow42', 0, 0, 0),
+  (4, 'workflow24', 0, 0, 0);
+
+INSERT INTO SB_Workflow_ActiveState (id, instanceId, state, backStatus, timeoutStatus)
+VALUES
+  (1, 1, 'Pending', 0, 0),
+  (2, 2, 'Pending', 0, 0),
+  (3, 3, 'Validating', 0, 0),
+  (4, 4, 'Pending', 0, 0);
+
+INSERT INTO SB_Workflow_HistoryStep
+(instanceId, id, userId, userRoleName, action, actionDate, resolvedState, toState, actionStatus)
+VALUES
+  (1, 1, '1', 'Employee', 'Creation', '2018-03-01 10:30:00.000', NULL, 'Pending', 1),
+  (2, 2, '1', 'Employee', 'Creation', '2018-02-27 08:00:00.000', NULL, 'Pending', 1),
+  (3, 3, '2', 'Employee', 'Creation', '2018-03-01 09:00:00.000', NULL, 'Pending', 1),
+  (3, 4, '2', 'Manager', 'Submit', '2018-03-03 16:45:00.000', 'Pending', 'Validating', 1),
+  (4, 5, '1', 'Employee', 'Creation', '2018-03-04 11:00:00.000', NULL, 'Pending', 1);
+
+INSERT INTO SB_Workflow_WorkingUser (id, userId, usersrole, instanceId, state, role, groupid)
+VALUES
+  (1, '1', NULL, 1, 'Pending', 'Employee', NULL),
+  (2, '1', NULL, 2, 'Pending', 'Employee:Manager', NULL),
+  (3, NULL, 'Manager', 3, 'Validating', 'Manager', NULL),
+  (4, '1', NULL, 4, 'Pending', 'Employee', NULL);
+
+INSERT INTO SB_Workflow_InterestedUser (id, userId, usersrole, instanceId, state, role, groupid)
+VALUES
+  (1, '2', NULL, 3, 'Validating', 'Employee', NULL);
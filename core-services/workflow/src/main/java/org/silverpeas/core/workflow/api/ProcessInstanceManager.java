@@ -23,10 +23,12 @@
  */
 package org.silverpeas.core.workflow.api;
 
+import org.silverpeas.core.admin.PaginationPage;
 import org.silverpeas.core.util.SilverpeasList;
 import org.silverpeas.core.workflow.api.instance.Actor;
 import org.silverpeas.core.workflow.api.instance.HistoryStep;
 import org.silverpeas.core.workflow.api.instance.ProcessInstance;
+import org.silverpeas.core.workflow.api.instance.ProcessInstanceOrder;
 import org.silverpeas.core.workflow.api.model.State;
 import org.silverpeas.core.workflow.api.user.User;
 
@@ -59,6 +61,23 @@ public interface ProcessInstanceManager {
   List<ProcessInstance> getProcessInstances(String peasId, User user, String role,
       String[] userRoles, String[] groupIds) throws WorkflowException;
 
+  /**
+   * Get a page of the process instances for a given peas Id, user and role, and user's roles.
+   * The process instances are got from the inbox of the workflow engine and their history is
+   * loaded only when asked for.
+   * @param peasId id of processManager instance
+   * @param user user for who the process instance list is
+   * @param role role name of the user for who the process instance list is
+   * @param userRoles all role names that user has for this component instance
+   * @param groupIds the ids of the groups the user belongs to
+   * @param page the page of process instances to get. If null, all the instances are got.
+   * @param order the order in which the process instances are sorted
+   * @return a page of ProcessInstance objects with the size of the whole list
+   */
+  SilverpeasList<ProcessInstance> getProcessInstances(String peasId, User user, String role,
+      String[] userRoles, String[] groupIds, PaginationPage page, ProcessInstanceOrder order)
+      throws WorkflowException;
+
   /**
    * Get the process instances for a given instance id
    * @param instanceId id of searched instance
@@ -309,4 +309,13 @@ public interface ProcessInstance {
    * @throws WorkflowException
    */
   ActionAndState getTimeOutAction(Date dateRef) throws WorkflowException;
+
+  /**
+   * Returns the timeout action to be launched for the given active state, whatever its timeout
+   * date.
+   * @param stateName the name of an active state of this instance
+   * @return the timeout action or null if the state isn't active or has no more timeout action
+   * @throws WorkflowException
+   */
+  ActionAndState getTimeOutAction(String stateName) throws WorkflowException;
 }
\ No newline at end of file
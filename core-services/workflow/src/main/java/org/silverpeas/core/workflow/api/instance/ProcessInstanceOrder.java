@@ -21,34 +21,25 @@
  * You should have received a copy of the GNU Affero General Public License
  * along with this program.  If not, see <http://www.gnu.org/licenses/>.
  */
-package org.silverpeas.core.webapi.attachment;
-
-import java.net.URI;
-
-import javax.xml.bind.annotation.XmlElement;
-
-import org.silverpeas.core.webapi.base.WebEntity;
-
-public class ZipEntity implements WebEntity {
-
-  private static final long serialVersionUID = -1614659571095493071L;
-
-  @XmlElement(defaultValue = "")
-  private URI uri;
-  @XmlElement(required = true)
-  private String url;
-  @XmlElement(required = true)
-  private long size;
-
-  public ZipEntity(URI uri, String url, long size) {
-    this.uri = uri;
-    this.url = url;
-    this.size = size;
-  }
-
-  @Override
-  public URI getURI() {
-    return uri;
-  }
+package org.silverpeas.core.workflow.api.instance;
 
+/**
+ * The different orders in which a paginated list of process instances can be sorted.
+ */
+public enum ProcessInstanceOrder {
+
+  /**
+   * The last created process instances first.
+   */
+  CREATION_DATE_DESC,
+
+  /**
+   * The last updated process instances first.
+   */
+  LAST_UPDATE_DATE_DESC,
+
+  /**
+   * The process instances in the alphabetical order of their title.
+   */
+  TITLE_ASC
 }
@@ -25,7 +25,9 @@ package org.silverpeas.core.workflow.engine;
 
 import org.silverpeas.core.thread.task.AbstractRequestTask;
 import org.silverpeas.core.thread.task.RequestTaskManager;
+import org.silverpeas.core.util.ResourceLocator;
 import org.silverpeas.core.util.logging.SilverLogger;
+import org.silverpeas.core.workflow.api.event.GenericEvent;
 import org.silverpeas.core.workflow.api.event.QuestionEvent;
 import org.silverpeas.core.workflow.api.event.ResponseEvent;
 import org.silverpeas.core.workflow.api.event.TaskDoneEvent;
@@ -33,14 +35,53 @@ import org.silverpeas.core.workflow.api.event.TaskSavedEvent;
 import org.silverpeas.core.workflow.api.event.TimeoutEvent;
 
 /**
+ * The task in charge of processing the events on the process instances.
+ * <p>
+ * The requests are dispatched among several lanes according to the process instance they are
+ * about: the requests on a same process instance are always processed one after one in the order
+ * they were sent, whereas the requests on process instances of different lanes are processed in
+ * parallel. The number of lanes is set by the {@code workflow.engine.lanes} property of the
+ * workflow engine settings.
+ * </p>
  * @author ebonnet
  */
 public class WorkflowEngineTask extends AbstractRequestTask {
 
+  private static final int DEFAULT_LANE_COUNT = 4;
+  private static final int LANE_COUNT = Math.max(1,
+      ResourceLocator.getSettingBundle("org.silverpeas.workflow.engine.settings")
+          .getInteger("workflow.engine.lanes", DEFAULT_LANE_COUNT));
+
   private WorkflowEngineTask() {
     super();
   }
 
+  /**
+   * Gets the number of lanes in which the requests are processed in parallel.
+   * @return the number of lanes.
+   */
+  public static int getLaneCount() {
+    return LANE_COUNT;
+  }
+
+  /**
+   * Gets the number of requests waiting to be processed in the given lane.
+   * @param lane a lane between 0 and {@link #getLaneCount()} excluded.
+   * @return the number of requests in the queue of the lane.
+   */
+  public static int getQueueSize(int lane) {
+    return RequestTaskManager.getQueueSize(WorkflowEngineTask.class, lane);
+  }
+
+  /**
+   * Gets the number of requests processed in the given lane since the start of Silverpeas.
+   * @param lane a lane between 0 and {@link #getLaneCount()} excluded.
+   * @return the number of requests processed in the lane.
+   */
+  public static long getProcessedRequestCount(int lane) {
+    return RequestTaskManager.getProcessedRequestCount(WorkflowEngineTask.class, lane);
+  }
+
   /**
    * Add a request 'TaskDoneEvent'
    */
@@ -48,7 +89,7 @@ public class WorkflowEngineTask extends AbstractRequestTask {
     TaskDoneRequest request = TaskDoneRequest.get(event);
     SilverLogger.getLogger(WorkflowEngineTask.class)
         .info("Add task done request: {0}", request.toString());
-    push(request);
+    push(event, request);
   }
 
   /**
@@ -58,7 +99,7 @@ public class WorkflowEngineTask extends AbstractRequestTask {
     TaskSavedRequest request = TaskSavedRequest.get(event);
     SilverLogger.getLogger(WorkflowEngineTask.class)
         .info("Add task saved request: {0}", request.toString());
-    push(request);
+    push(event, request);
   }
 
   /**
@@ -68,7 +109,7 @@ public class WorkflowEngineTask extends AbstractRequestTask {
     QuestionRequest request = QuestionRequest.get(event);
     SilverLogger.getLogger(WorkflowEngineTask.class)
         .info("Add question request: {0}", request.toString());
-    push(request);
+    push(event, request);
   }
 
   /**
@@ -78,7 +119,7 @@ public class WorkflowEngineTask extends AbstractRequestTask {
     ResponseRequest request = ResponseRequest.get(event);
     SilverLogger.getLogger(WorkflowEngineTask.class)
         .info("Add response request: {0}", request.toString());
-    push(request);
+    push(event, request);
   }
 
   /**
@@ -88,10 +129,20 @@ public class WorkflowEngineTask extends AbstractRequestTask {
     TimeoutRequest request = TimeoutRequest.get(event);
     SilverLogger.getLogger(WorkflowEngineTask.class)
         .info("Add timeout request: {0}", request.toString());
-    push(request);
+    push(event, request);
   }
 
-  private static void push(Request request) {
-    RequestTaskManager.push(WorkflowEngineTask.class, request);
+  private static void push(GenericEvent event, Request request) {
+    final String instanceId = event.getProcessInstance().getInstanceId();
+    RequestTaskManager.push(WorkflowEngineTask.class, laneOf(instanceId), request);
+  }
+
+  /**
+   * Gets the lane in which the requests on the given process instance are processed.
+   * @param instanceId the identifier of a process instance.
+   * @return the lane of the process instance.
+   */
+  static int laneOf(String instanceId) {
+    return Math.floorMod(instanceId.hashCode(), LANE_COUNT);
   }
 }
\ No newline at end of file
@@ -62,6 +62,12 @@ public class ActiveState extends BasicJpaEntity<ActiveState, UniqueIntegerIdenti
   @Column
   private Date timeoutDate = null;
 
+  /**
+   * Date up to which the firing of the timeout is leased to a node by the timeout manager
+   */
+  @Column
+  private Date timeoutLease = null;
+
   /**
    * Default Constructor
    */
@@ -137,10 +143,15 @@ public class ActiveState extends BasicJpaEntity<ActiveState, UniqueIntegerIdenti
   }
 
   /**
-   * Set the date at which current state will be in timeout
+   * Set the date at which current state will be in timeout. If the date changes, the lease of the
+   * firing of the previous timeout is released.
    * @param timeoutDate the timeout Date to set
    */
   public void setTimeoutDate(Date timeoutDate) {
+    if (timeoutDate == null || this.timeoutDate == null ||
+        timeoutDate.getTime() != this.timeoutDate.getTime()) {
+      this.timeoutLease = null;
+    }
     this.timeoutDate = timeoutDate;
   }
 
@@ -61,6 +61,14 @@ public class InterestedUser extends BasicJpaEntity<InterestedUser, UniqueInteger
   protected InterestedUser() {
   }
 
+  /**
+   * Constructs an interested user as it is stored under the specified identifier.
+   * @param id the unique identifier of the interested user.
+   */
+  InterestedUser(int id) {
+    setId(String.valueOf(id));
+  }
+
   /**
    * Get role name under which user can access to this instance
    * @return role name
@@ -57,6 +57,16 @@ public class LockingUser extends BasicJpaEntity<LockingUser, UniqueIntegerIdenti
     lockDate = new Date();
   }
 
+  /**
+   * Constructs a locking user as it is stored under the specified identifier.
+   * @param id the unique identifier of the locking user.
+   * @param lockDate the date at which the user has locked the state.
+   */
+  LockingUser(int id, Date lockDate) {
+    setId(String.valueOf(id));
+    this.lockDate = lockDate;
+  }
+
   /**
    * Get state name for which user is affected
    * @return state name
@@ -25,6 +25,7 @@ package org.silverpeas.core.workflow.engine.instance;
 
 import org.apache.commons.lang3.StringUtils;
 import org.silverpeas.core.ResourceReference;
+import org.silverpeas.core.SilverpeasRuntimeException;
 import org.silverpeas.core.contribution.attachment.AttachmentServiceProvider;
 import org.silverpeas.core.contribution.attachment.model.SimpleDocument;
 import org.silverpeas.core.contribution.attachment.model.SimpleDocumentPK;
@@ -40,18 +41,19 @@ import org.silverpeas.core.contribution.content.form.displayers.WysiwygFCKFieldD
 import org.silverpeas.core.contribution.content.form.field.MultipleUserField;
 import org.silverpeas.core.contribution.content.form.field.TextField;
 import org.silverpeas.core.contribution.content.form.field.UserField;
+import org.silverpeas.core.i18n.I18NHelper;
 import org.silverpeas.core.persistence.datasource.model.identifier.UniqueIntegerIdentifier;
 import org.silverpeas.core.persistence.datasource.model.jpa.BasicJpaEntity;
 import org.silverpeas.core.persistence.jdbc.sql.JdbcSqlQuery;
 import org.silverpeas.core.util.ArrayUtil;
 import org.silverpeas.core.util.CollectionUtil;
-import org.silverpeas.core.util.Mutable;
 import org.silverpeas.core.util.StringUtil;
 import org.silverpeas.core.util.logging.SilverLogger;
 import org.silverpeas.core.workflow.api.ProcessModelManager;
 import org.silverpeas.core.workflow.api.UserManager;
 import org.silverpeas.core.workflow.api.Workflow;
 import org.silverpeas.core.workflow.api.WorkflowException;
+import org.silverpeas.core.workflow.api.instance.ActionStatus;
 import org.silverpeas.core.workflow.api.instance.Actor;
 import org.silverpeas.core.workflow.api.instance.HistoryStep;
 import org.silverpeas.core.workflow.api.instance.Participant;
@@ -197,6 +199,17 @@ public class ProcessInstanceImpl
    */
   @Transient
   private Map<String, DataRecord> actionData = null;
+  /**
+   * Flag that indicates the history steps of this instance are loaded only when asked for. It is
+   * the case of the instances got from the inbox.
+   */
+  @Transient
+  private boolean historyToLoad = false;
+  /**
+   * The titles per role of this instance in the default language as stored in the inbox
+   */
+  @Transient
+  private Map<String, String> inboxTitles = null;
 
   /**
    * Default constructor
@@ -242,6 +255,7 @@ public class ProcessInstanceImpl
    * @param step the history step to add
    */
   public void addHistoryStep(HistoryStep step) {
+    loadHistoryIfNeeded();
     ((HistoryStepImpl) step).setProcessInstance(this);
     historySteps.add((HistoryStepImpl) step);
 
@@ -661,6 +675,7 @@ public class ProcessInstanceImpl
    */
   @Override
   public HistoryStep[] getHistorySteps() {
+    loadHistoryIfNeeded();
     if (historySteps != null) {
       List<HistoryStep> steps = new ArrayList(historySteps);
       Collections.sort(steps);
@@ -674,6 +689,7 @@ public class ProcessInstanceImpl
    * @throws WorkflowException
    */
   public HistoryStep getHistoryStep(String stepId) throws WorkflowException {
+    loadHistoryIfNeeded();
     for (HistoryStep historyStep : historySteps) {
       if (historyStep.getId().equals(stepId)) {
         return historyStep;
@@ -688,6 +704,7 @@ public class ProcessInstanceImpl
    */
   public List<Participant> getParticipants() throws WorkflowException {
     List<Participant> participants = new ArrayList<>();
+    loadHistoryIfNeeded();
     for (HistoryStep step : historySteps) {
       User user = step.getUser();
       State state;
@@ -1073,6 +1090,7 @@ public class ProcessInstanceImpl
     Date actionDate = null;
     HistoryStep mostRecentStep = null;
 
+    loadHistoryIfNeeded();
     for (HistoryStep step : historySteps) {
       // if step matches the searched action, tests if the step is most recent
       // choose this step, if no previous step found or action date is more
@@ -1093,6 +1111,7 @@ public class ProcessInstanceImpl
    */
   public HistoryStep getSavedStep(String userId) throws WorkflowException {
     HistoryStep savedStep = null;
+    loadHistoryIfNeeded();
     for (HistoryStep step : historySteps) {
       // if step matches the searched action, tests if the step is most recent
       if ((step.getActionStatus() == SAVED) && (step.getUser().getUserId().equals(userId))) {
@@ -1114,6 +1133,7 @@ public class ProcessInstanceImpl
     Date actionDate = null;
     boolean stepMatch;
 
+    loadHistoryIfNeeded();
     for (HistoryStep step : historySteps) {
       stepMatch = false;
 
@@ -1970,6 +1990,10 @@ public class ProcessInstanceImpl
    * @return
    */
   public String getTitle(String role, String lang) {
+    if (inboxTitles != null && inboxTitles.get(role) != null &&
+        (lang == null || lang.equals(I18NHelper.defaultLanguage))) {
+      return inboxTitles.get(role);
+    }
     String title = null;
     Presentation template = null;
 
@@ -2008,19 +2032,7 @@ public class ProcessInstanceImpl
 
         // Look for an active state with a timeoutDate in the past
         if (activeState.getTimeoutDate() != null && activeState.getTimeoutDate().before(dateRef)) {
-          // found, now look which timeout is concerned
-          int theTimeoutStatus = activeState.getTimeoutStatus();
-
-          // then parse all timeoutAction to return the right one (the one with order =
-          // timeoutstatus+1)
-          State state = getProcessModel().getState(activeState.getState());
-          TimeOutAction[] actions = state.getTimeOutActions();
-          Mutable<ActionAndState> foundActionAndState = Mutable.empty();
-          Stream.of(actions)
-              .filter(a -> a.getOrder() == theTimeoutStatus + 1)
-              .findFirst()
-              .ifPresent(a -> foundActionAndState.set(new ActionAndState(a.getAction(), state)));
-          return foundActionAndState.get();
+          return getTimeOutAction(activeState);
         }
       }
     }
@@ -2028,6 +2040,36 @@ public class ProcessInstanceImpl
     return null;
   }
 
+  @Override
+  public ActionAndState getTimeOutAction(String stateName) throws WorkflowException {
+    if (this.activeStates != null) {
+      for (ActiveState activeState : activeStates) {
+        if (activeState.getState().equals(stateName)) {
+          return getTimeOutAction(activeState);
+        }
+      }
+    }
+    return null;
+  }
+
+  private ActionAndState getTimeOutAction(ActiveState activeState) throws WorkflowException {
+    // look which timeout is concerned
+    int theTimeoutStatus = activeState.getTimeoutStatus();
+
+    // then parse all timeoutAction to return the right one (the one with order =
+    // timeoutstatus+1)
+    State state = getProcessModel().getState(activeState.getState());
+    TimeOutAction[] actions = state.getTimeOutActions();
+    if (actions == null) {
+      return null;
+    }
+    return Stream.of(actions)
+        .filter(a -> a.getOrder() == theTimeoutStatus + 1)
+        .findFirst()
+        .map(a -> new ActionAndState(a.getAction(), state))
+        .orElse(null);
+  }
+
   @Override
   public boolean equals(Object obj) {
     if (!(obj instanceof ProcessInstanceImpl)) {
@@ -2073,4 +2115,92 @@ public class ProcessInstanceImpl
     activeStates.size();
     return this;
   }
+
+  /**
+   * Sets the title of this instance for the given role in the default language as it is stored
+   * in the inbox.
+   * @param role a role name.
+   * @param title the title of this instance for the role or null if not yet computed.
+   */
+  void setInboxTitle(String role, String title) {
+    if (inboxTitles == null) {
+      inboxTitles = new HashMap<>();
+    }
+    inboxTitles.put(role, title);
+  }
+
+  /**
+   * Indicates the history steps of this instance aren't loaded and that they have to be fetched
+   * only when they are asked for.
+   */
+  void setHistoryLazilyLoaded() {
+    this.historyToLoad = true;
+  }
+
+  /**
+   * Adds a working user as it is stored for this instance.
+   * @param user the working user to add.
+   */
+  void addWorkingUser(WorkingUser user) {
+    user.setProcessInstance(this);
+    this.workingUsers.add(user);
+  }
+
+  /**
+   * Adds an interested user as it is stored for this instance.
+   * @param user the interested user to add.
+   */
+  void addInterestedUser(InterestedUser user) {
+    user.setProcessInstance(this);
+    this.interestedUsers.add(user);
+  }
+
+  /**
+   * Adds a locking user as it is stored for this instance.
+   * @param user the locking user to add.
+   */
+  void addLockingUser(LockingUser user) {
+    user.setProcessInstance(this);
+    this.lockingUsers.add(user);
+  }
+
+  Set<WorkingUser> getWorkingUserEntities() {
+    return workingUsers;
+  }
+
+  Set<InterestedUser> getInterestedUserEntities() {
+    return interestedUsers;
+  }
+
+  Set<ActiveState> getActiveStateEntities() {
+    return activeStates;
+  }
+
+  private void loadHistoryIfNeeded() {
+    if (!historyToLoad) {
+      return;
+    }
+    historyToLoad = false;
+    try {
+      JdbcSqlQuery.createSelect(
+          "id, userId, userRoleName, action, actionDate, resolvedState, toState, actionStatus")
+          .from("SB_Workflow_HistoryStep")
+          .where("instanceId = ?", Integer.parseInt(getId()))
+          .execute(r -> {
+            final HistoryStepImpl historyStep = new HistoryStepImpl(r.getInt(1));
+            historyStep.setUserId(r.getString(2));
+            historyStep.setUserRoleName(r.getString(3));
+            historyStep.setAction(r.getString(4));
+            historyStep.setActionDate(r.getTimestamp(5));
+            historyStep.setResolvedState(r.getString(6));
+            historyStep.setResultingState(r.getString(7));
+            historyStep.setActionStatus(ActionStatus.from(r.getInt(8)));
+            historyStep.setProcessInstance(this);
+            historySteps.add(historyStep);
+            return null;
+          });
+    } catch (SQLException e) {
+      throw new SilverpeasRuntimeException(e);
+    }
+  }
 }
\ No newline at end of file
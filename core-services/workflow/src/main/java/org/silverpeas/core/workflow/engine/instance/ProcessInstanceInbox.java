@@ -0,0 +1,533 @@
+/*
+ * Copyright (C) 2000 - 2018 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.workflow.engine.instance;
+
+import org.silverpeas.core.admin.PaginationPage;
+import org.silverpeas.core.i18n.I18NHelper;
+import org.silverpeas.core.initialization.Initialization;
+import org.silverpeas.core.persistence.Transaction;
+import org.silverpeas.core.persistence.jdbc.DBUtil;
+import org.silverpeas.core.persistence.jdbc.sql.JdbcSqlQuery;
+import org.silverpeas.core.persistence.jdbc.sql.ResultSetWrapper;
+import org.silverpeas.core.thread.ManagedThreadPool;
+import org.silverpeas.core.util.ArrayUtil;
+import org.silverpeas.core.util.ServiceProvider;
+import org.silverpeas.core.util.SilverpeasList;
+import org.silverpeas.core.util.StringUtil;
+import org.silverpeas.core.util.logging.SilverLogger;
+import org.silverpeas.core.workflow.api.Workflow;
+import org.silverpeas.core.workflow.api.WorkflowException;
+import org.silverpeas.core.workflow.api.instance.ProcessInstanceOrder;
+import org.silverpeas.core.workflow.api.user.User;
+
+import javax.inject.Singleton;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * The inbox of the process instances: a denormalized view of the participants of each process
+ * instance with the data required to display the instance in a list (title and status). There is
+ * one entry per user, group or user role, role and process instance, plus one entry per process
+ * instance for the supervisor role.
+ * <p>
+ * The inbox is maintained by the {@link ProcessInstanceRepository} each time a process instance
+ * is saved or deleted, so that the lists of process instances can be got page by page without
+ * computing the unions of the working and the interested users, and without loading the history
+ * of all the process instances. At first start, the inbox is filled in background from the
+ * existing process instances.
+ * </p>
+ */
+@Singleton
+public class ProcessInstanceInbox implements Initialization {
+
+  static final String SUPERVISOR_ROLE = "supervisor";
+  private static final String INBOX_TABLE = "SB_Workflow_Inbox";
+  private static final String INSTANCE_ID = "instanceId";
+  private static final int TITLE_MAX_LENGTH = 500;
+  private static final int REBUILD_BATCH_SIZE = 500;
+
+  private final Object rebuildLock = new Object();
+  private final Set<Integer> updatedDuringRebuild = new HashSet<>();
+  private boolean rebuilding = false;
+
+  public static ProcessInstanceInbox get() {
+    return ServiceProvider.getService(ProcessInstanceInbox.class);
+  }
+
+  /**
+   * Fills the inbox from the existing process instances if it is empty whereas there are
+   * process instances. This happens the first time the inbox is used.
+   */
+  @Override
+  public void init() throws Exception {
+    final long entryCount = countRows(INBOX_TABLE);
+    if (entryCount == 0 && countRows("SB_Workflow_ProcessInstance") > 0) {
+      ManagedThreadPool.getPool().invoke(() -> {
+        try {
+          rebuild();
+        } catch (Exception e) {
+          SilverLogger.getLogger(this).error(e);
+        }
+      });
+    }
+  }
+
+  /**
+   * Updates the entries of the specified process instances in the inbox from their current
+   * working and interested users. This method requires a transaction to be active.
+   * @param instances the process instances that have been saved.
+   * @throws SQLException if an error occurs while updating the inbox.
+   */
+  void update(final Collection<ProcessInstanceImpl> instances) throws SQLException {
+    final List<String> instanceIds = new ArrayList<>(instances.size());
+    instances.forEach(i -> instanceIds.add(i.getId()));
+    remove(instanceIds);
+    final Timestamp now = new Timestamp(System.currentTimeMillis());
+    for (ProcessInstanceImpl instance : instances) {
+      final Set<Addressee> addressees = getAddressees(instance);
+      insert(instance, addressees, computeTitles(instance, addressees), now);
+    }
+  }
+
+  /**
+   * Removes from the inbox all the entries of the specified process instances. This method
+   * requires a transaction to be active.
+   * @param instanceIds the unique identifiers of process instances.
+   * @throws SQLException if an error occurs while updating the inbox.
+   */
+  void remove(final Collection<String> instanceIds) throws SQLException {
+    final List<Integer> ids = new ArrayList<>(instanceIds.size());
+    instanceIds.forEach(i -> ids.add(Integer.parseInt(i)));
+    synchronized (rebuildLock) {
+      if (rebuilding) {
+        updatedDuringRebuild.addAll(ids);
+      }
+    }
+    JdbcSqlQuery.executeBySplittingOn(ids, (idBatch, result) -> JdbcSqlQuery
+        .createDeleteFor(INBOX_TABLE)
+        .where(INSTANCE_ID).in(idBatch)
+        .execute());
+  }
+
+  /**
+   * Gets a page of the process instances of the given component instance that are addressed to
+   * the specified user playing the given role. The active states and the working, interested
+   * and locking users of the process instances are loaded with them, but not their history: it
+   * will be fetched only if it is asked for.
+   * @param peasId the unique identifier of a processManager instance.
+   * @param user the user for who the process instances are.
+   * @param role the role name of the user.
+   * @param userRoles the role names the user has in the component instance.
+   * @param userGroupIds the unique identifiers of the groups the user belongs to.
+   * @param page the page of process instances to get.
+   * @param order the order in which the process instances are sorted.
+   * @return a slice of the process instances with the size of the whole list.
+   * @throws SQLException if an error occurs while requesting the inbox.
+   */
+  SilverpeasList<ProcessInstanceImpl> getProcessInstances(final String peasId, final User user,
+      final String role, final String[] userRoles, final String[] userGroupIds,
+      final PaginationPage page, final ProcessInstanceOrder order) throws SQLException {
+    final JdbcSqlQuery select = JdbcSqlQuery
+        .createSelect(
+            "DISTINCT instanceId, modelId, locked, errorStatus, timeoutStatus, title, " +
+                "lastUpdateDate")
+        .from(INBOX_TABLE)
+        .where("modelId = ?", peasId)
+        .and("role = ?", role);
+    if (!SUPERVISOR_ROLE.equals(role)) {
+      select.and("(userId = ?", user.getUserId());
+      if (ArrayUtil.isNotEmpty(userRoles)) {
+        select.or("usersRole").in(userRoles);
+      }
+      if (ArrayUtil.isNotEmpty(userGroupIds)) {
+        select.or("groupId").in(userGroupIds);
+      }
+      select.addSqlPart(")");
+    }
+    select.orderBy(toOrderBy(order));
+    if (page != null) {
+      select.withPagination(page.asCriterion());
+    }
+
+    try (Connection connection = DBUtil.openConnection()) {
+      final Map<Integer, ProcessInstanceImpl> instancesById = new HashMap<>();
+      final SilverpeasList<ProcessInstanceImpl> instances = select.executeWith(connection, r -> {
+        final ProcessInstanceImpl instance = toProcessInstance(r);
+        instance.setInboxTitle(role, r.getString(6));
+        instancesById.put(r.getInt(1), instance);
+        return instance;
+      });
+
+      if (!instancesById.isEmpty()) {
+        loadParticipants(connection, instancesById);
+        JdbcSqlQuery.executeBySplittingOn(instancesById.keySet(), (idBatch, result) -> JdbcSqlQuery
+            .createSelect("id, instanceId, state, backStatus, timeoutStatus")
+            .from("SB_Workflow_ActiveState")
+            .where(INSTANCE_ID).in(idBatch)
+            .orderBy("instanceId, id")
+            .executeWith(connection, r -> {
+              final ActiveState state = new ActiveState(r.getInt(1));
+              state.setState(r.getString(3));
+              state.setBackStatus(r.getBoolean(4));
+              state.setTimeoutStatus(r.getInt(5));
+              instancesById.get(r.getInt(2)).addActiveState(state);
+              return null;
+            }));
+      }
+      return instances;
+    }
+  }
+
+  /**
+   * Rebuilds the whole inbox from the participants of all the existing process instances. The
+   * process instances are streamed by batches in the order of their identifier so that only a
+   * batch of them is in memory at a time. The titles of the instances of a batch are computed
+   * per process model: the model is loaded once and, if it cannot be, the instances get their
+   * identifier as title as when displayed.
+   * <p>
+   * The process instances updated or removed while the inbox is rebuilt are skipped as well as
+   * those already in the inbox: their entries are maintained by {@link #update(Collection)} and
+   * by {@link #remove(Collection)}. Each batch of insertions is performed while holding a lock
+   * on which an update waits, so that an update coming during a batch replaces the entries
+   * inserted by the batch once committed.
+   * </p>
+   * @throws SQLException if an error occurs while rebuilding the inbox.
+   */
+  void rebuild() throws SQLException {
+    synchronized (rebuildLock) {
+      rebuilding = true;
+    }
+    try {
+      rebuildFromInstances();
+    } finally {
+      synchronized (rebuildLock) {
+        rebuilding = false;
+        updatedDuringRebuild.clear();
+      }
+    }
+  }
+
+  private void rebuildFromInstances() throws SQLException {
+    final Set<String> unavailableModels = new HashSet<>();
+    int lastInstanceId = Integer.MIN_VALUE;
+    List<ProcessInstanceImpl> batch;
+    do {
+      batch = JdbcSqlQuery
+          .createSelect("instanceId, modelId, locked, errorStatus, timeoutStatus")
+          .from("SB_Workflow_ProcessInstance")
+          .where("instanceId > ?", lastInstanceId)
+          .orderBy(INSTANCE_ID)
+          .limit(REBUILD_BATCH_SIZE)
+          .execute(ProcessInstanceInbox::toProcessInstance);
+      if (!batch.isEmpty()) {
+        lastInstanceId = Integer.parseInt(batch.get(batch.size() - 1).getId());
+        rebuildBatch(batch, unavailableModels);
+      }
+    } while (batch.size() == REBUILD_BATCH_SIZE);
+  }
+
+  private void rebuildBatch(final List<ProcessInstanceImpl> batch,
+      final Set<String> unavailableModels) throws SQLException {
+    final Map<Integer, ProcessInstanceImpl> instancesById = new HashMap<>(batch.size() * 2);
+    batch.forEach(i -> instancesById.put(Integer.parseInt(i.getId()), i));
+    final Map<Integer, Timestamp> lastUpdateDates = new HashMap<>(batch.size() * 2);
+    try (Connection connection = DBUtil.openConnection()) {
+      loadParticipants(connection, instancesById);
+      JdbcSqlQuery.executeBySplittingOn(instancesById.keySet(), (idBatch, result) -> JdbcSqlQuery
+          .createSelect("instanceId, MAX(actionDate)")
+          .from("SB_Workflow_HistoryStep")
+          .where(INSTANCE_ID).in(idBatch)
+          .groupBy(INSTANCE_ID)
+          .executeWith(connection, r -> lastUpdateDates.put(r.getInt(1), r.getTimestamp(2))));
+    }
+
+    final Map<String, List<ProcessInstanceImpl>> instancesByModel = batch.stream()
+        .collect(Collectors.groupingBy(ProcessInstanceImpl::getModelId));
+    final Map<ProcessInstanceImpl, Set<Addressee>> addressees = new HashMap<>(batch.size() * 2);
+    final Map<ProcessInstanceImpl, Map<String, String>> titles = new HashMap<>(batch.size() * 2);
+    instancesByModel.forEach((modelId, instances) -> {
+      final boolean modelAvailable = isModelAvailable(modelId, unavailableModels);
+      for (ProcessInstanceImpl instance : instances) {
+        final Set<Addressee> instanceAddressees = getAddressees(instance);
+        addressees.put(instance, instanceAddressees);
+        titles.put(instance, modelAvailable ? computeTitles(instance, instanceAddressees) :
+            titlesAsIdentifier(instance, instanceAddressees));
+      }
+    });
+
+    final Timestamp now = new Timestamp(System.currentTimeMillis());
+    synchronized (rebuildLock) {
+      Transaction.performInOne(() -> {
+        final Set<Integer> alreadyInInbox = new HashSet<>(JdbcSqlQuery
+            .createSelect("DISTINCT instanceId")
+            .from(INBOX_TABLE)
+            .where(INSTANCE_ID).in(instancesById.keySet())
+            .execute(r -> r.getInt(1)));
+        for (Map.Entry<Integer, ProcessInstanceImpl> entry : instancesById.entrySet()) {
+          final Integer instanceId = entry.getKey();
+          if (!updatedDuringRebuild.contains(instanceId) && !alreadyInInbox.contains(instanceId)) {
+            final ProcessInstanceImpl instance = entry.getValue();
+            insert(instance, addressees.get(instance), titles.get(instance),
+                lastUpdateDates.getOrDefault(instanceId, now));
+          }
+        }
+        return null;
+      });
+    }
+  }
+
+  /**
+   * Is the specified process model available? The models that cannot be loaded are remembered
+   * in order to not try again to load them for each of their process instances.
+   */
+  private boolean isModelAvailable(final String modelId, final Set<String> unavailableModels) {
+    if (unavailableModels.contains(modelId)) {
+      return false;
+    }
+    try {
+      Workflow.getProcessModelManager().getProcessModel(modelId);
+      return true;
+    } catch (WorkflowException | RuntimeException e) {
+      SilverLogger.getLogger(this).warn(e);
+      unavailableModels.add(modelId);
+      return false;
+    }
+  }
+
+  /**
+   * Loads the working, interested and locking users of the specified process instances.
+   */
+  private static void loadParticipants(final Connection connection,
+      final Map<Integer, ProcessInstanceImpl> instancesById) throws SQLException {
+    JdbcSqlQuery.executeBySplittingOn(instancesById.keySet(), (idBatch, result) -> {
+      JdbcSqlQuery.createSelect("id, instanceId, userId, usersRole, groupId, state, role")
+          .from("SB_Workflow_WorkingUser")
+          .where(INSTANCE_ID).in(idBatch)
+          .executeWith(connection, r -> {
+            final WorkingUser user = new WorkingUser(r.getInt(1));
+            user.setUserId(r.getString(3));
+            user.setUsersRole(r.getString(4));
+            user.setGroupId(r.getString(5));
+            user.setState(r.getString(6));
+            user.setRole(r.getString(7));
+            instancesById.get(r.getInt(2)).addWorkingUser(user);
+            return null;
+          });
+      JdbcSqlQuery.createSelect("id, instanceId, userId, usersRole, groupId, state, role")
+          .from("SB_Workflow_InterestedUser")
+          .where(INSTANCE_ID).in(idBatch)
+          .executeWith(connection, r -> {
+            final InterestedUser user = new InterestedUser(r.getInt(1));
+            user.setUserId(r.getString(3));
+            user.setUsersRole(r.getString(4));
+            user.setGroupId(r.getString(5));
+            user.setState(r.getString(6));
+            user.setRole(r.getString(7));
+            instancesById.get(r.getInt(2)).addInterestedUser(user);
+            return null;
+          });
+      JdbcSqlQuery.createSelect("id, instanceId, userId, state, lockDate")
+          .from("SB_Workflow_LockingUser")
+          .where(INSTANCE_ID).in(idBatch)
+          .executeWith(connection, r -> {
+            final LockingUser user = new LockingUser(r.getInt(1), r.getTimestamp(5));
+            user.setUserId(r.getString(3));
+            user.setState(r.getString(4));
+            instancesById.get(r.getInt(2)).addLockingUser(user);
+            return null;
+          });
+    });
+  }
+
+  /**
+   * Gets a process instance from the first columns of the inbox or of the process instances:
+   * its identifier, its model, its locking by an administrator, its error and timeout statuses.
+   * The history of the process instance will be loaded only if it is asked for.
+   */
+  private static ProcessInstanceImpl toProcessInstance(final ResultSetWrapper row)
+      throws SQLException {
+    final ProcessInstanceImpl instance = new ProcessInstanceImpl();
+    instance.setInstanceId(String.valueOf(row.getInt(1)));
+    instance.setModelId(row.getString(2));
+    instance.setLockedByAdmin(row.getBoolean(3));
+    instance.setErrorStatus(row.getBoolean(4));
+    instance.setTimeoutStatus(row.getBoolean(5));
+    instance.setHistoryLazilyLoaded();
+    return instance;
+  }
+
+  /**
+   * Gets the addressees of the specified process instance from its working and interested
+   * users, plus the supervisor role.
+   */
+  private static Set<Addressee> getAddressees(final ProcessInstanceImpl instance) {
+    final Set<Addressee> addressees = new LinkedHashSet<>();
+    for (WorkingUser user : instance.getWorkingUserEntities()) {
+      addAddressees(addressees, user.getRole(), user.getUserId(), user.getUsersRole(),
+          user.getGroupId());
+    }
+    for (InterestedUser user : instance.getInterestedUserEntities()) {
+      addAddressees(addressees, user.getRole(), user.getUserId(), user.getUsersRole(),
+          user.getGroupId());
+    }
+    addressees.add(new Addressee(SUPERVISOR_ROLE, null, null, null));
+    return addressees;
+  }
+
+  /**
+   * Computes the title of the instance for the role of each of the given addressees.
+   */
+  private Map<String, String> computeTitles(final ProcessInstanceImpl instance,
+      final Set<Addressee> addressees) {
+    final Map<String, String> titles = new HashMap<>();
+    for (Addressee addressee : addressees) {
+      titles.computeIfAbsent(addressee.role, r -> computeTitle(instance, r));
+    }
+    return titles;
+  }
+
+  private static Map<String, String> titlesAsIdentifier(final ProcessInstanceImpl instance,
+      final Set<Addressee> addressees) {
+    final Map<String, String> titles = new HashMap<>();
+    addressees.forEach(a -> titles.put(a.role, instance.getId()));
+    return titles;
+  }
+
+  /**
+   * Computes the title of the instance for the given role in the default language. If the title
+   * cannot be computed, the identifier of the instance is taken as title, as it is done when the
+   * title is displayed, so that the entries of the inbox are always sortable by title.
+   */
+  private String computeTitle(final ProcessInstanceImpl instance, final String role) {
+    try {
+      return StringUtil.truncate(instance.getTitle(role, I18NHelper.defaultLanguage),
+          TITLE_MAX_LENGTH);
+    } catch (RuntimeException e) {
+      SilverLogger.getLogger(this).warn(e);
+      return instance.getId();
+    }
+  }
+
+  private void insert(final ProcessInstanceImpl instance, final Set<Addressee> addressees,
+      final Map<String, String> titles, final Timestamp lastUpdateDate) throws SQLException {
+    final int instanceId = Integer.parseInt(instance.getId());
+    for (Addressee addressee : addressees) {
+      insert(instanceId, instance.getModelId(), addressee, titles.get(addressee.role),
+          instance.isLockedByAdmin(), instance.getErrorStatus(), instance.getTimeoutStatus(),
+          lastUpdateDate);
+    }
+  }
+
+  private void insert(final int instanceId, final String modelId, final Addressee addressee,
+      final String title, final boolean locked, final boolean errorStatus,
+      final boolean timeoutStatus, final Timestamp lastUpdateDate) throws SQLException {
+    JdbcSqlQuery.createInsertFor(INBOX_TABLE)
+        .addInsertParam(INSTANCE_ID, instanceId)
+        .addInsertParam("modelId", modelId)
+        .addInsertParam("role", addressee.role)
+        .addInsertParam("userId", addressee.userId)
+        .addInsertParam("usersRole", addressee.usersRole)
+        .addInsertParam("groupId", addressee.groupId)
+        .addInsertParam("title", title)
+        .addInsertParam("locked", locked ? 1 : 0)
+        .addInsertParam("errorStatus", errorStatus ? 1 : 0)
+        .addInsertParam("timeoutStatus", timeoutStatus ? 1 : 0)
+        .addInsertParam("lastUpdateDate", lastUpdateDate)
+        .execute();
+  }
+
+  /**
+   * Adds an addressee per role of a participant. The role of a working user can be made up of
+   * several roles separated by a colon or by a comma.
+   */
+  private static void addAddressees(final Set<Addressee> addressees, final String roles,
+      final String userId, final String usersRole, final String groupId) {
+    for (String role : roles.split("[:,]")) {
+      if (!role.isEmpty()) {
+        addressees.add(new Addressee(role, userId, usersRole, groupId));
+      }
+    }
+  }
+
+  private static String toOrderBy(final ProcessInstanceOrder order) {
+    if (order == ProcessInstanceOrder.LAST_UPDATE_DATE_DESC) {
+      return "lastUpdateDate DESC, instanceId DESC";
+    } else if (order == ProcessInstanceOrder.TITLE_ASC) {
+      return "title ASC, instanceId DESC";
+    }
+    return "instanceId DESC";
+  }
+
+  private static long countRows(final String table) throws SQLException {
+    return JdbcSqlQuery.createCountFor(table).executeUnique(r -> r.getLong(1));
+  }
+
+  /**
+   * A user, a group or a user role to which a process instance is addressed for a given role.
+   */
+  private static class Addressee {
+    private final String role;
+    private final String userId;
+    private final String usersRole;
+    private final String groupId;
+
+    private Addressee(final String role, final String userId, final String usersRole,
+        final String groupId) {
+      this.role = role;
+      this.userId = userId;
+      this.usersRole = usersRole;
+      this.groupId = groupId;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      final Addressee addressee = (Addressee) o;
+      return role.equals(addressee.role) && Objects.equals(userId, addressee.userId) &&
+          Objects.equals(usersRole, addressee.usersRole) &&
+          Objects.equals(groupId, addressee.groupId);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(role, userId, usersRole, groupId);
+    }
+  }
+}
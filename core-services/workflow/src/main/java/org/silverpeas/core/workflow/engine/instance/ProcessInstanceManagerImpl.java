@@ -23,6 +23,7 @@
  */
 package org.silverpeas.core.workflow.engine.instance;
 
+import org.silverpeas.core.admin.PaginationPage;
 import org.silverpeas.core.contribution.attachment.AttachmentServiceProvider;
 import org.silverpeas.core.contribution.content.form.FormException;
 import org.silverpeas.core.contribution.content.form.RecordSet;
@@ -38,6 +39,7 @@ import org.silverpeas.core.workflow.api.instance.ActionStatus;
 import org.silverpeas.core.workflow.api.instance.Actor;
 import org.silverpeas.core.workflow.api.instance.HistoryStep;
 import org.silverpeas.core.workflow.api.instance.ProcessInstance;
+import org.silverpeas.core.workflow.api.instance.ProcessInstanceOrder;
 import org.silverpeas.core.workflow.api.model.State;
 import org.silverpeas.core.workflow.api.user.User;
 import org.silverpeas.core.workflow.engine.WorkflowHub;
@@ -71,6 +73,9 @@ public class ProcessInstanceManagerImpl implements UpdatableProcessInstanceManag
   @Inject
   private ProcessInstanceRepository repository;
 
+  @Inject
+  private ProcessInstanceInbox inbox;
+
   @Override
   public List<ProcessInstance> getProcessInstances(String peasId, User user, String role)
       throws WorkflowException {
@@ -210,6 +215,20 @@ public class ProcessInstanceManagerImpl implements UpdatableProcessInstanceManag
     }
   }
 
+  @SuppressWarnings("unchecked")
+  @Override
+  public SilverpeasList<ProcessInstance> getProcessInstances(String peasId, User user,
+      String role, String[] userRoles, String[] userGroupIds, PaginationPage page,
+      ProcessInstanceOrder order) throws WorkflowException {
+    try {
+      return (SilverpeasList) inbox.getProcessInstances(peasId, user, role, userRoles,
+          userGroupIds, page, order);
+    } catch (SQLException se) {
+      throw new WorkflowException("ProcessInstanceManagerImpl.getProcessInstances",
+          "EX_ERR_GET_INSTANCES", se);
+    }
+  }
+
   /**
    * Get the process instances for a given instance id
    * @param instanceId id of searched instance
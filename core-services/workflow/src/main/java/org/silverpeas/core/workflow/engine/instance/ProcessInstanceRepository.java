@@ -1,11 +1,19 @@
 package org.silverpeas.core.workflow.engine.instance;
 
+import org.silverpeas.core.SilverpeasRuntimeException;
+import org.silverpeas.core.persistence.Transaction;
 import org.silverpeas.core.persistence.datasource.repository.jpa.BasicJpaEntityRepository;
 import org.silverpeas.core.util.SilverpeasList;
+import org.silverpeas.core.workflow.engine.timeout.TimeoutManagerImpl;
 
+import javax.inject.Inject;
 import javax.inject.Singleton;
 import javax.transaction.Transactional;
+import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Date;
+import java.util.List;
 
 /**
  * Created by Nicolas on 05/06/2017.
@@ -13,6 +21,9 @@ import java.util.Collection;
 @Singleton
 public class ProcessInstanceRepository extends BasicJpaEntityRepository<ProcessInstanceImpl> {
 
+  @Inject
+  private ProcessInstanceInbox inbox;
+
   @Override
   @Transactional
   public ProcessInstanceImpl getById(final String id) {
@@ -25,6 +36,67 @@ public class ProcessInstanceRepository extends BasicJpaEntityRepository<ProcessI
     return fetchProcessInstanceData(super.getById(ids));
   }
 
+  /**
+   * Saves the given process instances and updates their entries in the inbox accordingly. The
+   * timeouts of their active states are passed to the timeout manager once the transaction is
+   * committed, so that a timeout is never fired for changes that are rolled back.
+   */
+  @Override
+  @Transactional
+  public SilverpeasList<ProcessInstanceImpl> save(final List<ProcessInstanceImpl> entities) {
+    final SilverpeasList<ProcessInstanceImpl> savedEntities = super.save(entities);
+    try {
+      inbox.update(savedEntities);
+    } catch (SQLException e) {
+      throw new SilverpeasRuntimeException(e);
+    }
+    final TimeoutManagerImpl timeoutManager = TimeoutManagerImpl.get();
+    for (ProcessInstanceImpl instance : savedEntities) {
+      for (ActiveState state : instance.getActiveStateEntities()) {
+        final String instanceId = instance.getId();
+        final String stateName = state.getState();
+        final Date dueDate = state.getTimeoutDate();
+        if (dueDate != null) {
+          Transaction.afterCommit(
+              () -> timeoutManager.scheduleTimeout(instanceId, stateName, dueDate));
+        }
+      }
+    }
+    return savedEntities;
+  }
+
+  /**
+   * Deletes the given process instances and removes their entries from the inbox.
+   */
+  @Override
+  @Transactional
+  public void delete(final List<ProcessInstanceImpl> entities) {
+    final List<String> ids = new ArrayList<>(entities.size());
+    entities.forEach(e -> ids.add(e.getId()));
+    super.delete(entities);
+    removeFromInbox(ids);
+  }
+
+  /**
+   * Deletes the process instances with the given identifiers and removes their entries from the
+   * inbox.
+   */
+  @Override
+  @Transactional
+  public long deleteById(final Collection<String> ids) {
+    final long deletedCount = super.deleteById(ids);
+    removeFromInbox(ids);
+    return deletedCount;
+  }
+
+  private void removeFromInbox(final Collection<String> ids) {
+    try {
+      inbox.remove(ids);
+    } catch (SQLException e) {
+      throw new SilverpeasRuntimeException(e);
+    }
+  }
+
   private SilverpeasList<ProcessInstanceImpl> fetchProcessInstanceData(
       SilverpeasList<ProcessInstanceImpl> processInstances) {
     processInstances.forEach(ProcessInstanceImpl::fetchAll);
@@ -66,6 +66,20 @@ public class WorkingUser extends BasicJpaEntity<WorkingUser, UniqueIntegerIdenti
   @Column
   private String groupId = null;
 
+  /**
+   * Default Constructor
+   */
+  public WorkingUser() {
+  }
+
+  /**
+   * Constructs a working user as it is stored under the specified identifier.
+   * @param id the unique identifier of the working user.
+   */
+  WorkingUser(int id) {
+    setId(String.valueOf(id));
+  }
+
   /**
    * Get state name for which user is affected
    * @return state name
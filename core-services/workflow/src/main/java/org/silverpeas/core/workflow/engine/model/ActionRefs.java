@@ -45,6 +45,8 @@ public class ActionRefs implements Serializable, AllowedActions {
   private static final long serialVersionUID = -8973726281784516470L;
   @XmlElement(name = "allow", type = ActionRef.class)
   private List<AllowedAction> actionRefList;
+  private transient NameIndex<AllowedAction> actionRefIndex;
+  private transient volatile Action[] allowedActions;
 
   /**
    * Constructor
@@ -61,6 +63,8 @@ public class ActionRefs implements Serializable, AllowedActions {
   @Override
   public void addAllowedAction(AllowedAction allowedAction) {
     actionRefList.add(allowedAction);
+    getActionRefIndex().reset();
+    allowedActions = null;
   }
 
   /*
@@ -91,13 +95,17 @@ public class ActionRefs implements Serializable, AllowedActions {
       return new Action[0];
     }
 
-    // construct the Action array
-    Action[] result = new ActionImpl[actionRefList.size()];
-    for (int i = 0; i < actionRefList.size(); i++) {
-      result[i] = actionRefList.get(i).getAction();
+    // construct the Action array once (again if the list was modified through its iterator)
+    Action[] result = allowedActions;
+    if (result == null || result.length != actionRefList.size()) {
+      result = new ActionImpl[actionRefList.size()];
+      for (int i = 0; i < actionRefList.size(); i++) {
+        result[i] = actionRefList.get(i).getAction();
+      }
+      allowedActions = result;
     }
 
-    return result;
+    return result.clone();
   }
 
   /*
@@ -106,16 +114,14 @@ public class ActionRefs implements Serializable, AllowedActions {
    */
   @Override
   public AllowedAction getAllowedAction(String strActionName) {
-    AllowedAction allowedAction = new ActionRef();
-    Action action = new ActionImpl();
-    action.setName(strActionName);
-    allowedAction.setAction(action);
-    int idx = actionRefList.indexOf(allowedAction);
+    return getActionRefIndex().get(actionRefList, strActionName);
+  }
 
-    if (idx >= 0) {
-      return actionRefList.get(idx);
+  private NameIndex<AllowedAction> getActionRefIndex() {
+    if (actionRefIndex == null) {
+      actionRefIndex = new NameIndex<>(a -> a.getAction() == null ? null : a.getAction().getName());
     }
-    return null;
+    return actionRefIndex;
   }
 
 }
\ No newline at end of file
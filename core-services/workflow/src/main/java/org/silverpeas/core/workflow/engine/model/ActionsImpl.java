@@ -46,6 +46,7 @@ public class ActionsImpl implements Serializable, Actions {
   private static final long serialVersionUID = -8221333788348737417L;
   @XmlElement(name = "action", type = ActionImpl.class)
   private List<Action> actionList;
+  private transient NameIndex<Action> actionIndex;
 
   /**
    * Constructor
@@ -62,6 +63,7 @@ public class ActionsImpl implements Serializable, Actions {
   @Override
   public void addAction(Action action) {
     actionList.add(action);
+    getActionIndex().reset();
   }
 
   /*
@@ -79,10 +81,9 @@ public class ActionsImpl implements Serializable, Actions {
    */
   @Override
   public Action getAction(String name) throws WorkflowException {
-    for (Action action : actionList) {
-      if (action != null && action.getName().equals(name)) {
-        return action;
-      }
+    Action action = getActionIndex().get(actionList, name);
+    if (action != null) {
+      return action;
     }
     throw new WorkflowException("ActionsImpl.getAction(String)",
         "WorkflowEngine.EX_ERR_ACTION_NOT_FOUND_IN_MODEL", name);
@@ -121,10 +122,18 @@ public class ActionsImpl implements Serializable, Actions {
     Action action = createAction();
     action.setName(strActionName);
 
+    getActionIndex().reset();
     if (!actionList.remove(action)) {
       throw new WorkflowException("ActionsImpl.removeAction()",
           "workflowEngine.EX_ERR_ACTION_NOT_FOUND_IN_MODEL",
           strActionName == null ? "<null>" : strActionName);
     }
   }
-}
\ No newline at end of file
+
+  private NameIndex<Action> getActionIndex() {
+    if (actionIndex == null) {
+      actionIndex = new NameIndex<>(Action::getName);
+    }
+    return actionIndex;
+  }
+}
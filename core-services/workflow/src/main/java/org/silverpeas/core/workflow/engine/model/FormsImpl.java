@@ -27,6 +27,7 @@ import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Locale;
 
 import org.silverpeas.core.workflow.api.WorkflowException;
 import org.silverpeas.core.workflow.api.model.Form;
@@ -48,6 +49,7 @@ public class FormsImpl implements Serializable, Forms {
   private static final long serialVersionUID = -4621417980509658490L;
   @XmlElement(name = "form", type = FormImpl.class)
   private List<Form> formList;
+  private transient NameIndex<Form> formIndex;
 
   /**
    * Constructor
@@ -63,6 +65,7 @@ public class FormsImpl implements Serializable, Forms {
   @Override
   public void addForm(Form form) {
     formList.add(form);
+    getFormIndex().reset();
   }
 
   /*
@@ -94,18 +97,14 @@ public class FormsImpl implements Serializable, Forms {
    */
   @Override
   public Form getForm(String name, String role) {
-    Form form2Return = null;
-    for (Form form : formList) {
-      if (name.equals(form.getName())) {
-        if (role != null && role.equalsIgnoreCase(form.getRole())) {
-          form2Return = form;
-        } else if (form.getRole() == null && form2Return == null) {
-          form2Return = form;
-        }
-      }
+    Form form = null;
+    if (role != null) {
+      form = getFormIndex().get(formList, formKey(name, role));
     }
-
-    return form2Return;
+    if (form == null) {
+      form = getFormIndex().get(formList, formKey(name, null));
+    }
+    return form;
   }
 
   /*
@@ -129,6 +128,7 @@ public class FormsImpl implements Serializable, Forms {
       if (form.getName().equals(strName) && (strRole == null && form.getRole() == null
           || strRole != null && strRole.equals(form.getRole()))) {
         iter.remove();
+        getFormIndex().reset();
         return;
       }
     }
@@ -136,4 +136,21 @@ public class FormsImpl implements Serializable, Forms {
         "workflowEngine.EX_FORM_NOT_FOUND");
 
   }
-}
\ No newline at end of file
+
+  /**
+   * The forms are indexed by their name and their role, the role being case insensitive.
+   */
+  private NameIndex<Form> getFormIndex() {
+    if (formIndex == null) {
+      formIndex = new NameIndex<>(f -> formKey(f.getName(), f.getRole()));
+    }
+    return formIndex;
+  }
+
+  private static String formKey(String name, String role) {
+    if (name == null) {
+      return null;
+    }
+    return name + '\u0000' + (role == null ? "" : '\u0000' + role.toLowerCase(Locale.ROOT));
+  }
+}
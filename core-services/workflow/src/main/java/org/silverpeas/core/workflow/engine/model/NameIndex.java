@@ -0,0 +1,101 @@
+/*
+ * Copyright (C) 2000 - 2018 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.workflow.engine.model;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * A hash index by name of the elements of a list of a process model (states, actions, roles,
+ * ...). It replaces the linear scans of the lists by the lookups in a map computed at first use.
+ * <p>
+ * A process model can be edited by the designer, so the index is checked at each lookup: a found
+ * element must still have the asked name and, as an element can be renamed, an element not found
+ * is searched in the list itself. In both cases, the index is computed again. As with a linear
+ * scan, the first element with a given name wins.
+ * </p>
+ * @param <T> the type of the indexed elements.
+ */
+final class NameIndex<T> {
+
+  private final Function<T, String> nameOf;
+  private volatile Map<String, T> index;
+
+  NameIndex(final Function<T, String> nameOf) {
+    this.nameOf = nameOf;
+  }
+
+  /**
+   * Gets the first element of the given list with the specified name.
+   * @param elements the list of elements indexed by this index.
+   * @param name the name of the element to find.
+   * @return the element or null if no element has the name in the list.
+   */
+  T get(final List<T> elements, final String name) {
+    if (elements == null || name == null) {
+      return null;
+    }
+    Map<String, T> current = index;
+    if (current == null) {
+      current = build(elements);
+      index = current;
+    }
+    final T element = current.get(name);
+    if (element != null && name.equals(nameOf.apply(element))) {
+      return element;
+    }
+    for (T anElement : elements) {
+      if (anElement != null && name.equals(nameOf.apply(anElement))) {
+        index = null;
+        return anElement;
+      }
+    }
+    if (element != null) {
+      index = null;
+    }
+    return null;
+  }
+
+  /**
+   * Invalidates this index. It has to be invoked each time the indexed list is modified.
+   */
+  void reset() {
+    index = null;
+  }
+
+  private Map<String, T> build(final List<T> elements) {
+    final Map<String, T> newIndex = new HashMap<>(elements.size() * 2);
+    for (T element : elements) {
+      if (element != null) {
+        final String name = nameOf.apply(element);
+        if (name != null) {
+          newIndex.putIfAbsent(name, element);
+        }
+      }
+    }
+    return newIndex;
+  }
+}
@@ -31,6 +31,7 @@ import org.silverpeas.core.persistence.jdbc.DBUtil;
 import org.silverpeas.core.util.ResourceLocator;
 import org.silverpeas.core.util.SettingBundle;
 import org.silverpeas.core.util.file.FileFolderManager;
+import org.silverpeas.core.util.file.FileRepositoryManager;
 import org.silverpeas.core.util.file.FileUtil;
 import org.silverpeas.core.util.logging.SilverLogger;
 import org.silverpeas.core.workflow.api.ProcessModelManager;
@@ -47,19 +48,29 @@ import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
 import javax.xml.bind.Marshaller;
 import javax.xml.bind.Unmarshaller;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.nio.file.Files;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Date;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * A ProcessModelManager implementation
@@ -79,7 +90,11 @@ public class ProcessModelManagerImpl implements ProcessModelManager {
   /**
    * The map (modelId -> cached process model).
    */
-  private final Map<String, ProcessModel> models = new HashMap<>();
+  private final Map<String, ProcessModel> models = new ConcurrentHashMap<>();
+  /**
+   * The map (modelId -> xml descriptor of the cached process model).
+   */
+  private final Map<String, String> descriptors = new ConcurrentHashMap<>();
   private JAXBContext jaxbContext = null;
 
   @PostConstruct
@@ -168,14 +183,14 @@ public class ProcessModelManagerImpl implements ProcessModelManager {
           "workflowEngine.EX_NO_XML_FILENAME_FOUND", "model/peas id : " + modelId);
     }
 
-    // load the process model from its xml descriptor
-    ProcessModelImpl model = (ProcessModelImpl) this.loadProcessModel(fileName);
+    // load the process model from its binary form or from its xml descriptor
+    ProcessModelImpl model = this.loadCompiledProcessModel(fileName);
 
     // set the peas id
     model.setModelId(modelId);
 
     // cache the model.
-    cacheProcessModel(modelId, model);
+    cacheProcessModel(modelId, fileName, model);
 
     // return the process model
     return model;
@@ -268,6 +283,9 @@ public class ProcessModelManagerImpl implements ProcessModelManager {
       throw new WorkflowException("ProcessModelManagerImpl.deleteProcessModel",
           "workflowEngine.EX_ERR_UNINSTANCIATING_MODEL",
           "instanceId : " + instanceId + ", formName = " + formName, fe);
+    } finally {
+      models.remove(instanceId);
+      descriptors.remove(instanceId);
     }
   }
 
@@ -288,8 +306,9 @@ public class ProcessModelManagerImpl implements ProcessModelManager {
         FileUtil.forceDeletion(directory);
       }
 
-      // Clear process model cache
-      clearProcessModelCache();
+      // Clear the cached process models loaded from the deleted descriptor
+      clearProcessModelCache(strProcessModelFileName,
+          directory.equals(workflowsDirectory) ? null : directory);
     } catch (Exception e) {
       throw new WorkflowException("WorkflowManager.getProcessModels",
           "WorkflowEngine.EX_GETTING_RPOCES_MODELS_FAILED", "Process Model File name : " +
@@ -348,7 +367,7 @@ public class ProcessModelManagerImpl implements ProcessModelManager {
       marshaller.setProperty(Marshaller.JAXB_NO_NAMESPACE_SCHEMA_LOCATION, schemaFileName);
       marshaller.marshal(process, new File(processPath));
 
-      clearProcessModelCache();
+      clearProcessModelCache(processFileName, null);
     } catch (JAXBException e) {
       throw new WorkflowException("ProcessModelManagerImpl.saveProcessModel",
           "workflowEngine.EX_ERR_LOAD_XML_MAPPING",
@@ -411,10 +430,9 @@ public class ProcessModelManagerImpl implements ProcessModelManager {
   /**
    * Put the given process model in the the cache.
    */
-  private void cacheProcessModel(String modelId, ProcessModel model) {
-    synchronized (models) {
-      models.put(modelId, model);
-    }
+  private void cacheProcessModel(String modelId, String processFileName, ProcessModel model) {
+    descriptors.put(modelId, processFileName);
+    models.put(modelId, model);
   }
 
   /**
@@ -422,8 +440,104 @@ public class ProcessModelManagerImpl implements ProcessModelManager {
    */
   @Override
   public void clearProcessModelCache() {
-    synchronized (models) {
-      models.clear();
+    models.clear();
+    descriptors.clear();
+  }
+
+  /**
+   * Clear from the cache only the process models loaded from the given xml descriptor or from a
+   * descriptor in the given directory.
+   */
+  private void clearProcessModelCache(String processFileName, File directory) {
+    String processPath = new File(getProcessPath(processFileName)).getAbsolutePath();
+    String directoryPath = directory == null ? null : directory.getAbsolutePath() + File.separator;
+    descriptors.forEach((modelId, fileName) -> {
+      String path = new File(getProcessPath(fileName)).getAbsolutePath();
+      if (path.equals(processPath) ||
+          (directoryPath != null && path.startsWith(directoryPath))) {
+        models.remove(modelId);
+        descriptors.remove(modelId);
+      }
+    });
+    deleteBinaryForm(getBinaryFormFile(processFileName));
+  }
+
+  /**
+   * Loads the process model from the given xml descriptor for the workflow engine. If enabled,
+   * the model is got from a binary form of it, serialized the first time the descriptor is loaded,
+   * so that the xml unmarshalling is skipped while the descriptor isn't modified.
+   */
+  private ProcessModelImpl loadCompiledProcessModel(String processFileName)
+      throws WorkflowException {
+    if (!settings.getBoolean("ProcessModelBinaryCache", false)) {
+      return (ProcessModelImpl) loadProcessModel(processFileName);
+    }
+    File descriptor = new File(getProcessPath(processFileName));
+    File binaryForm = getBinaryFormFile(processFileName);
+    if (binaryForm.exists()) {
+      try (ObjectInputStream input = new ProcessModelInputStream(
+          new BufferedInputStream(new FileInputStream(binaryForm)))) {
+        if (input.readLong() == descriptor.lastModified() &&
+            input.readLong() == descriptor.length()) {
+          return (ProcessModelImpl) input.readObject();
+        }
+      } catch (IOException | ClassNotFoundException | ClassCastException e) {
+        SilverLogger.getLogger(this)
+            .warn("Cannot read the binary form of the process model {0}: {1}", processFileName,
+                e.getMessage());
+      }
+    }
+
+    ProcessModelImpl model = (ProcessModelImpl) loadProcessModel(processFileName);
+    File parent = binaryForm.getParentFile();
+    if (parent.exists() || parent.mkdirs()) {
+      try (ObjectOutputStream output = new ObjectOutputStream(
+          new BufferedOutputStream(new FileOutputStream(binaryForm)))) {
+        output.writeLong(descriptor.lastModified());
+        output.writeLong(descriptor.length());
+        output.writeObject(model);
+      } catch (IOException e) {
+        SilverLogger.getLogger(this)
+            .warn("Cannot write the binary form of the process model {0}: {1}", processFileName,
+                e.getMessage());
+        deleteBinaryForm(binaryForm);
+      }
+    }
+    return model;
+  }
+
+  private void deleteBinaryForm(File binaryForm) {
+    try {
+      Files.deleteIfExists(binaryForm.toPath());
+    } catch (IOException e) {
+      SilverLogger.getLogger(this).warn(e);
+    }
+  }
+
+  private File getBinaryFormFile(String processFileName) {
+    String name = processFileName.replace('/', '_').replace('\\', '_') + ".bin";
+    return new File(FileRepositoryManager.getTemporaryPath() + "workflow", name);
+  }
+
+  /**
+   * An object input stream that deserializes only the classes of a process model.
+   */
+  private static class ProcessModelInputStream extends ObjectInputStream {
+
+    private ProcessModelInputStream(final InputStream in) throws IOException {
+      super(in);
+    }
+
+    @Override
+    protected Class<?> resolveClass(final ObjectStreamClass desc)
+        throws IOException, ClassNotFoundException {
+      String className = desc.getName();
+      if (!className.startsWith(ProcessModelImpl.class.getPackage().getName() + ".") &&
+          !className.startsWith("java.lang.") && !className.startsWith("java.util.") &&
+          !className.startsWith("[")) {
+        throw new InvalidClassException(className, "Not a class of a process model");
+      }
+      return super.resolveClass(desc);
     }
   }
 
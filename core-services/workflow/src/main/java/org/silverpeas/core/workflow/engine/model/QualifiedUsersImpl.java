@@ -48,6 +48,7 @@ public class QualifiedUsersImpl implements QualifiedUsers, Serializable {
   private static final long serialVersionUID = -6137211965745730173L;
   @XmlElement(name = "userInRole", type = UserInRoleImpl.class)
   private List<UserInRole> userInRoleList;
+  private transient NameIndex<UserInRole> userInRoleIndex;
   @XmlElement(name = "relatedUser", type = RelatedUserImpl.class)
   private List<RelatedUser> relatedUserList;
   @XmlElement(name = "relatedGroup", type = RelatedGroupImpl.class)
@@ -75,14 +76,7 @@ public class QualifiedUsersImpl implements QualifiedUsers, Serializable {
    * @return the userInRoles as a Vector
    */
   public UserInRole getUserInRole(String strRoleName) {
-    UserInRole userInRole = new UserInRoleImpl();
-    userInRole.setRoleName(strRoleName);
-    int idx = userInRoleList.indexOf(userInRole);
-
-    if (idx >= 0) {
-      return userInRoleList.get(idx);
-    }
-    return null;
+    return getUserInRoleIndex().get(userInRoleList, strRoleName);
   }
 
   /**
@@ -102,6 +96,7 @@ public class QualifiedUsersImpl implements QualifiedUsers, Serializable {
   @Override
   public void addUserInRole(UserInRole user) {
     userInRoleList.add(user);
+    getUserInRoleIndex().reset();
   }
 
   /*
@@ -129,6 +124,7 @@ public class QualifiedUsersImpl implements QualifiedUsers, Serializable {
   @Override
   public void removeUserInRoles() {
     userInRoleList.clear();
+    getUserInRoleIndex().reset();
   }
 
   /**
@@ -262,4 +258,11 @@ public class QualifiedUsersImpl implements QualifiedUsers, Serializable {
   public void setLinkDisabled(Boolean linkDisabled) {
     this.linkDisabled = linkDisabled;
   }  
-}
\ No newline at end of file
+
+  private NameIndex<UserInRole> getUserInRoleIndex() {
+    if (userInRoleIndex == null) {
+      userInRoleIndex = new NameIndex<>(UserInRole::getRoleName);
+    }
+    return userInRoleIndex;
+  }
+}
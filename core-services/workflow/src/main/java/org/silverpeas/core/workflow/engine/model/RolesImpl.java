@@ -47,6 +47,7 @@ public class RolesImpl implements Serializable, Roles {
   private static final long serialVersionUID = 4241149699620983852L;
   @XmlElement(name = "role", type = RoleImpl.class)
   private List<Role> roleList;
+  private transient NameIndex<Role> roleIndex;
 
   /**
    * Constructor
@@ -62,6 +63,7 @@ public class RolesImpl implements Serializable, Roles {
   @Override
   public void addRole(Role role) {
     roleList.add(role);
+    getRoleIndex().reset();
   }
 
   /*
@@ -79,15 +81,7 @@ public class RolesImpl implements Serializable, Roles {
    */
   @Override
   public Role getRole(String name) {
-    if (roleList == null) {
-      return null;
-    }
-    for (Role role : roleList) {
-      if (name.equals(role.getName())) {
-        return role;
-      }
-    }
-    return null;
+    return getRoleIndex().get(roleList, name);
   }
 
   /*
@@ -123,9 +117,17 @@ public class RolesImpl implements Serializable, Roles {
       return;
     }
 
+    getRoleIndex().reset();
     if (!roleList.remove(role)) {
       throw new WorkflowException("RolesImpl.removeRole()", "workflowEngine.EX_ROLE_NOT_FOUND",
           strRoleName == null ? "<null>" : strRoleName);
     }
   }
-}
\ No newline at end of file
+
+  private NameIndex<Role> getRoleIndex() {
+    if (roleIndex == null) {
+      roleIndex = new NameIndex<>(Role::getName);
+    }
+    return roleIndex;
+  }
+}
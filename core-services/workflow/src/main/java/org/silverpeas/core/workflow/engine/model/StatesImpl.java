@@ -47,6 +47,7 @@ public class StatesImpl implements Serializable, States {
   private static final long serialVersionUID = -2580715672830095678L;
   @XmlElement(name = "state", type = StateImpl.class)
   private List<State> stateList;
+  private transient NameIndex<State> stateIndex;
 
   /**
    * Constructor
@@ -63,6 +64,7 @@ public class StatesImpl implements Serializable, States {
   @Override
   public void addState(State state) {
     stateList.add(state);
+    getStateIndex().reset();
   }
 
   /*
@@ -79,12 +81,7 @@ public class StatesImpl implements Serializable, States {
    */
   @Override
   public State getState(String name) {
-    for (State state : stateList) {
-      if (state != null && state.getName().equals(name)) {
-        return state;
-      }
-    }
-    return null;
+    return getStateIndex().get(stateList, name);
   }
 
   /*
@@ -119,9 +116,17 @@ public class StatesImpl implements Serializable, States {
     State state = createState();
     state.setName(strStateName);
 
+    getStateIndex().reset();
     if (!stateList.remove(state)) {
       throw new WorkflowException("StatesImpl.removeState()", "workflowEngine.EX_STATE_NOT_FOUND",
           strStateName == null ? "<null>" : strStateName);
     }
   }
-}
\ No newline at end of file
+
+  private NameIndex<State> getStateIndex() {
+    if (stateIndex == null) {
+      stateIndex = new NameIndex<>(State::getName);
+    }
+    return stateIndex;
+  }
+}
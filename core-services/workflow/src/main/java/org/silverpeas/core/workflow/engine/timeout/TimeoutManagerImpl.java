@@ -24,14 +24,17 @@
 package org.silverpeas.core.workflow.engine.timeout;
 
 import org.silverpeas.core.initialization.Initialization;
+import org.silverpeas.core.persistence.Transaction;
+import org.silverpeas.core.persistence.jdbc.sql.JdbcSqlQuery;
 import org.silverpeas.core.scheduler.Scheduler;
 import org.silverpeas.core.scheduler.SchedulerEvent;
 import org.silverpeas.core.scheduler.SchedulerEventListener;
+import org.silverpeas.core.scheduler.SchedulerException;
 import org.silverpeas.core.scheduler.SchedulerProvider;
 import org.silverpeas.core.scheduler.trigger.JobTrigger;
 import org.silverpeas.core.util.ResourceLocator;
+import org.silverpeas.core.util.ServiceProvider;
 import org.silverpeas.core.util.SettingBundle;
-import org.silverpeas.core.util.SilverpeasList;
 import org.silverpeas.core.util.logging.SilverLogger;
 import org.silverpeas.core.workflow.api.ProcessInstanceManager;
 import org.silverpeas.core.workflow.api.WorkflowException;
@@ -40,13 +43,34 @@ import org.silverpeas.core.workflow.api.instance.ProcessInstance;
 import org.silverpeas.core.workflow.engine.WorkflowEngineTask;
 import org.silverpeas.core.workflow.engine.event.TimeoutEventImpl;
 import org.silverpeas.core.workflow.engine.instance.ActionAndState;
+import org.silverpeas.core.workflow.engine.timeout.TimeoutQueue.DueTimeout;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
 import java.util.Date;
 
 /**
- * The workflow engine services relate to error management.
+ * The workflow engine services relate to timeout management.
+ * <p>
+ * The timeouts of the active states of the process instances are stored as due dates in the
+ * indexed column {@code timeoutDate} of the active states. The timeouts due in the next hours
+ * are mirrored in an in-memory queue ordered by due date and the manager wakes up exactly at the
+ * date of the next one to fire only the due timeouts. Before firing a timeout, the manager claims
+ * it in the database for a lease period, recorded in the column {@code timeoutLease} so that the
+ * due date of the timeout is left untouched. In a cluster a timeout is then fired by only one
+ * node. If the processing of the timeout fails, it is fired again once the lease expires. The
+ * lease is released as soon as the timeout date of the active state changes, that is to say
+ * once the timeout action has been processed.
+ * </p>
+ * <p>
+ * The queue is fed by the saving of the process instances on this node and it is resynchronized
+ * periodically with the database to take into account the changes done by the other nodes and
+ * after a restart.
+ * </p>
  */
 @Singleton
 public class TimeoutManagerImpl implements Initialization, SchedulerEventListener {
@@ -56,6 +80,18 @@ public class TimeoutManagerImpl implements Initialization, SchedulerEventListene
 
   // Local constants
   private static final String TIMEOUT_MANAGER_JOB_NAME = "WorkflowTimeoutManager";
+  private static final String TIMEOUT_WAKE_UP_JOB_NAME = "WorkflowTimeoutWakeUp";
+  private static final String ACTIVE_STATE_TABLE = "SB_Workflow_ActiveState";
+  private static final long MINUTE = 60000L;
+
+  private final TimeoutQueue queue = new TimeoutQueue();
+  private long horizon = 60 * MINUTE;
+  private long lease = 15 * MINUTE;
+  private Date nextWakeUp = null;
+
+  public static TimeoutManagerImpl get() {
+    return ServiceProvider.getService(TimeoutManagerImpl.class);
+  }
 
   /**
    * Initialize timeout manager
@@ -65,6 +101,8 @@ public class TimeoutManagerImpl implements Initialization, SchedulerEventListene
     try {
       SettingBundle settings = ResourceLocator.getSettingBundle(
           "org.silverpeas.workflow.engine.schedulerSettings");
+      horizon = settings.getInteger("timeoutHorizon", 60) * MINUTE;
+      lease = settings.getInteger("timeoutLease", 15) * MINUTE;
       Scheduler scheduler = SchedulerProvider.getVolatileScheduler();
       if (scheduler.isJobScheduled(TIMEOUT_MANAGER_JOB_NAME)) {
         // Remove previous scheduled job
@@ -75,6 +113,8 @@ public class TimeoutManagerImpl implements Initialization, SchedulerEventListene
       String cronString = settings.getString("timeoutSchedule");
       JobTrigger trigger = JobTrigger.triggerAt(cronString);
       scheduler.scheduleJob(TIMEOUT_MANAGER_JOB_NAME, trigger, this);
+
+      loadComingTimeouts();
     } catch (Exception e) {
       SilverLogger.getLogger(this).error(e.getMessage(), e);
     }
@@ -82,40 +122,132 @@ public class TimeoutManagerImpl implements Initialization, SchedulerEventListene
   }
 
   /**
-   * This method is called periodically by the scheduler, it test for each peas of type
-   * processManager if associated model contains states with timeout events If so, all the instances
-   * of these peas that have the "timeout" states actives are read to check if timeout interval has
-   * been reached. In that case, the administrator can be notified, the active state and the
-   * instance are marked as timeout
+   * Informs this manager about the timeout of an active state of a process instance. This method
+   * is invoked once a process instance is saved and the transaction committed.
+   * @param instanceId the unique identifier of the process instance.
+   * @param state the name of the active state.
+   * @param dueDate the date at which the timeout of the state is due. Null if the state has no
+   * timeout.
    */
-  private void doTimeoutManagement() {
-    try {
-      // parse all "process manager" peas
-      SilverpeasList<ProcessInstance> instances = manager.getTimeOutProcessInstances();
-      Date now = new Date();
+  public void scheduleTimeout(final String instanceId, final String state, final Date dueDate) {
+    if (dueDate != null && dueDate.getTime() < System.currentTimeMillis() + horizon &&
+        queue.offer(new DueTimeout(instanceId, state, dueDate))) {
+      scheduleNextWakeUp();
+    }
+  }
 
-      for (final ProcessInstance instance : instances) {
-        addTimeoutRequest(now, instance);
+  /**
+   * Loads in the queue the timeouts that will be due before the horizon of the queue. Thanks to
+   * the index on the due dates only the coming timeouts are read. A timeout being currently
+   * leased is queued at the end of its lease.
+   */
+  private void loadComingTimeouts() throws SQLException {
+    JdbcSqlQuery.createSelect("instanceId, state, timeoutDate, timeoutLease")
+        .from(ACTIVE_STATE_TABLE)
+        .where("timeoutDate < ?", new Timestamp(System.currentTimeMillis() + horizon))
+        .execute(r -> {
+          final Timestamp timeoutDate = r.getTimestamp(3);
+          final Timestamp leaseEnd = r.getTimestamp(4);
+          final Date dueDate =
+              leaseEnd != null && leaseEnd.after(timeoutDate) ? leaseEnd : timeoutDate;
+          return queue.offer(new DueTimeout(String.valueOf(r.getInt(1)), r.getString(2), dueDate));
+        });
+    scheduleNextWakeUp();
+  }
+
+  /**
+   * Fires the timeouts that are due now. Each of them is first claimed in the database so that it
+   * isn't fired by another node and so that it is fired again if its processing fails.
+   */
+  private void fireDueTimeouts() {
+    final Date now = new Date();
+    for (DueTimeout timeout : queue.pollDue(now)) {
+      try {
+        final Date leaseEnd = new Date(now.getTime() + lease);
+        if (claim(timeout, now, leaseEnd)) {
+          addTimeoutRequest(timeout);
+          queue.offer(new DueTimeout(timeout.getInstanceId(), timeout.getState(), leaseEnd));
+        }
+      } catch (Exception e) {
+        SilverLogger.getLogger(this).error(e.getMessage(), e);
       }
-    } catch (Exception e) {
-      SilverLogger.getLogger(this).error(e.getMessage(), e);
     }
+    scheduleNextWakeUp();
   }
 
-  private void addTimeoutRequest(final Date now, final ProcessInstance instance) {
+  /**
+   * Claims the specified timeout by leasing its firing up to the given end. The timeout is claimed
+   * only if it is still due in the database and if it isn't leased: it could have been fired by
+   * another node or the state could have been resolved or rescheduled in the meantime.
+   * @return true if the timeout was claimed, false otherwise.
+   */
+  private boolean claim(final DueTimeout timeout, final Date now, final Date leaseEnd) {
+    final Timestamp nowTimestamp = new Timestamp(now.getTime());
+    final long updated = Transaction.performInOne(() -> JdbcSqlQuery
+        .createUpdateFor(ACTIVE_STATE_TABLE)
+        .addUpdateParam("timeoutLease", new Timestamp(leaseEnd.getTime()))
+        .where("instanceId = ?", Integer.parseInt(timeout.getInstanceId()))
+        .and("state = ?", timeout.getState())
+        .and("timeoutDate <= ?", nowTimestamp)
+        .and("(timeoutLease IS NULL OR timeoutLease <= ?)", nowTimestamp)
+        .execute());
+    return updated > 0;
+  }
+
+  private void addTimeoutRequest(final DueTimeout timeout) throws WorkflowException {
+    ProcessInstance instance = manager.getProcessInstance(timeout.getInstanceId());
+    ActionAndState timeoutActionAndState = instance.getTimeOutAction(timeout.getState());
+    if (timeoutActionAndState == null) {
+      SilverLogger.getLogger(this)
+          .warn("No timeout action for state {0} of the process instance {1}",
+              timeout.getState(), timeout.getInstanceId());
+      return;
+    }
+    TimeoutEvent event = new TimeoutEventImpl(instance, timeoutActionAndState.getState(),
+        timeoutActionAndState.getAction());
+    WorkflowEngineTask.addTimeoutRequest(event);
+  }
+
+  /**
+   * Schedules the wake up of this manager at the due date of the next timeout if it isn't
+   * already scheduled before.
+   */
+  private synchronized void scheduleNextWakeUp() {
+    final Date nextDueDate = queue.getNextDueDate();
+    final Date now = new Date();
+    if (nextDueDate == null ||
+        (nextWakeUp != null && nextWakeUp.after(now) && !nextWakeUp.after(nextDueDate))) {
+      return;
+    }
+    final Date wakeUp = nextDueDate.after(now) ? nextDueDate : new Date(now.getTime() + 1000);
     try {
-      ActionAndState timeoutActionAndState = instance.getTimeOutAction(now);
-      TimeoutEvent event = new TimeoutEventImpl(instance, timeoutActionAndState.getState(),
-          timeoutActionAndState.getAction());
-      WorkflowEngineTask.addTimeoutRequest(event);
-    } catch (WorkflowException e) {
+      Scheduler scheduler = SchedulerProvider.getVolatileScheduler();
+      if (scheduler.isJobScheduled(TIMEOUT_WAKE_UP_JOB_NAME)) {
+        scheduler.unscheduleJob(TIMEOUT_WAKE_UP_JOB_NAME);
+      }
+      JobTrigger trigger = JobTrigger.triggerAt(
+          OffsetDateTime.ofInstant(wakeUp.toInstant(), ZoneId.systemDefault()));
+      scheduler.scheduleJob(TIMEOUT_WAKE_UP_JOB_NAME, trigger, this);
+      nextWakeUp = wakeUp;
+    } catch (SchedulerException e) {
       SilverLogger.getLogger(this).error(e.getMessage(), e);
     }
   }
 
   @Override
   public void triggerFired(SchedulerEvent anEvent) {
-    doTimeoutManagement();
+    if (TIMEOUT_WAKE_UP_JOB_NAME.equals(anEvent.getJobExecutionContext().getJobName())) {
+      synchronized (this) {
+        nextWakeUp = null;
+      }
+      fireDueTimeouts();
+    } else {
+      try {
+        loadComingTimeouts();
+      } catch (SQLException e) {
+        SilverLogger.getLogger(this).error(e.getMessage(), e);
+      }
+    }
   }
 
   @Override
@@ -128,4 +260,4 @@ public class TimeoutManagerImpl implements Initialization, SchedulerEventListene
     SilverLogger.getLogger(this).error("The job {0} was not successful",
         anEvent.getJobExecutionContext().getJobName());
   }
-}
\ No newline at end of file
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright (C) 2000 - 2018 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.workflow.engine.timeout;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * An in-memory queue of the timeouts of the active states of process instances, ordered by their
+ * due date. It mirrors the timeout dates stored in the database and a given timeout is queued
+ * only once.
+ */
+class TimeoutQueue {
+
+  private final PriorityQueue<DueTimeout> queue = new PriorityQueue<>();
+  private final Set<DueTimeout> queued = new HashSet<>();
+
+  /**
+   * Queues the given timeout if it isn't already in the queue.
+   * @param timeout a timeout to queue.
+   * @return true if the timeout is now the next one to be due, false otherwise.
+   */
+  synchronized boolean offer(final DueTimeout timeout) {
+    if (queued.add(timeout)) {
+      queue.offer(timeout);
+      return queue.peek() == timeout;
+    }
+    return false;
+  }
+
+  /**
+   * Removes from the queue all the timeouts due at the given date.
+   * @param date a date.
+   * @return the timeouts that are due, the oldest first.
+   */
+  synchronized List<DueTimeout> pollDue(final Date date) {
+    final List<DueTimeout> dueTimeouts = new ArrayList<>();
+    while (!queue.isEmpty() && queue.peek().getDueDate() <= date.getTime()) {
+      final DueTimeout timeout = queue.poll();
+      queued.remove(timeout);
+      dueTimeouts.add(timeout);
+    }
+    return dueTimeouts;
+  }
+
+  /**
+   * Gets the date of the next timeout to be due.
+   * @return the due date of the head of the queue or null if the queue is empty.
+   */
+  synchronized Date getNextDueDate() {
+    final DueTimeout next = queue.peek();
+    return next == null ? null : new Date(next.getDueDate());
+  }
+
+  synchronized int size() {
+    return queue.size();
+  }
+
+  /**
+   * The timeout of an active state of a process instance at a given date.
+   */
+  static class DueTimeout implements Comparable<DueTimeout> {
+    private final String instanceId;
+    private final String state;
+    private final long dueDate;
+
+    DueTimeout(final String instanceId, final String state, final Date dueDate) {
+      this.instanceId = instanceId;
+      this.state = state;
+      this.dueDate = dueDate.getTime();
+    }
+
+    String getInstanceId() {
+      return instanceId;
+    }
+
+    String getState() {
+      return state;
+    }
+
+    long getDueDate() {
+      return dueDate;
+    }
+
+    @Override
+    public int compareTo(final DueTimeout other) {
+      return Long.compare(dueDate, other.dueDate);
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      final DueTimeout that = (DueTimeout) o;
+      return dueDate == that.dueDate && instanceId.equals(that.instanceId) &&
+          state.equals(that.state);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(instanceId, state, dueDate);
+    }
+  }
+}
@@ -41,11 +41,17 @@ import org.silverpeas.core.workflow.api.model.ProcessModel;
 import org.silverpeas.core.workflow.api.model.Role;
 import org.silverpeas.core.workflow.api.model.State;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.util.List;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 
 /**
  *
@@ -108,6 +114,37 @@ public class ProcessModelManagerImplTest {
     assertEquals(targetState.getName(), "Acceptee");
   }
 
+  /**
+   * The lookups by name of a process model are still right after the renaming of an element and
+   * after the serialization of the model in a binary form.
+   */
+  @Test
+  public void testLookupsByNameOfAProcessModel() throws Exception {
+    String processFileName = "DemandeCongesSimple.xml";
+    ProcessModel model = instance.loadProcessModel(processFileName);
+    assertNotNull(model.getState("AttenteValidation"));
+    assertNotNull(model.getAction("Accepter"));
+
+    model.getState("AttenteValidation").setName("Validation");
+    assertNull(model.getState("AttenteValidation"));
+    assertEquals("Validation", model.getState("Validation").getName());
+
+    ByteArrayOutputStream binaryForm = new ByteArrayOutputStream();
+    try (ObjectOutputStream output = new ObjectOutputStream(binaryForm)) {
+      output.writeObject(model);
+    }
+    ProcessModel copy;
+    try (ObjectInputStream input =
+        new ObjectInputStream(new ByteArrayInputStream(binaryForm.toByteArray()))) {
+      copy = (ProcessModel) input.readObject();
+    }
+    State state = copy.getState("Validation");
+    assertNotNull(state);
+    assertEquals(2, state.getAllowedActions().length);
+    assertSame(copy.getAction("Accepter"), state.getAllowedActions()[0]);
+    assertNotNull(copy.getRole("Employe"));
+  }
+
   /**
    * Test of saveProcessModel method, of class ProcessModelManagerImpl.
    */
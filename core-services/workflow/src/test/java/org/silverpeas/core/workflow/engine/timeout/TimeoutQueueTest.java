@@ -0,0 +1,95 @@
+/*
+ * Copyright (C) 2000 - 2018 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.workflow.engine.timeout;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.silverpeas.core.workflow.engine.timeout.TimeoutQueue.DueTimeout;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+/**
+ * Unit tests on the queue of the timeouts of the active states of process instances.
+ */
+class TimeoutQueueTest {
+
+  private TimeoutQueue queue;
+
+  @BeforeEach
+  void createQueue() {
+    queue = new TimeoutQueue();
+  }
+
+  @Test
+  void anEmptyQueueHasNoNextDueDate() {
+    assertThat(queue.getNextDueDate(), nullValue());
+    assertThat(queue.pollDue(new Date()), empty());
+  }
+
+  @Test
+  void onlyTheEarliestTimeoutBecomesTheHeadOfTheQueue() {
+    assertThat(queue.offer(timeout("1", "s1", 2000)), is(true));
+    assertThat(queue.offer(timeout("2", "s1", 3000)), is(false));
+    assertThat(queue.offer(timeout("3", "s1", 1000)), is(true));
+    assertThat(queue.getNextDueDate(), is(new Date(1000)));
+  }
+
+  @Test
+  void aTimeoutIsQueuedOnlyOnce() {
+    queue.offer(timeout("1", "s1", 1000));
+    assertThat(queue.offer(timeout("1", "s1", 1000)), is(false));
+    queue.offer(timeout("1", "s2", 1000));
+    queue.offer(timeout("1", "s1", 2000));
+    assertThat(queue.size(), is(3));
+  }
+
+  @Test
+  void onlyTheDueTimeoutsArePolledInTheOrderOfTheirDueDate() {
+    final DueTimeout first = timeout("1", "s1", 1000);
+    final DueTimeout second = timeout("2", "s1", 2000);
+    final DueTimeout notYetDue = timeout("3", "s1", 5000);
+    queue.offer(notYetDue);
+    queue.offer(second);
+    queue.offer(first);
+
+    List<DueTimeout> dueTimeouts = queue.pollDue(new Date(2000));
+    assertThat(dueTimeouts, contains(first, second));
+    assertThat(queue.size(), is(1));
+    assertThat(queue.getNextDueDate(), is(new Date(5000)));
+
+    assertThat(queue.offer(timeout("1", "s1", 1000)), is(true));
+  }
+
+  private static DueTimeout timeout(final String instanceId, final String state,
+      final long dueDate) {
+    return new DueTimeout(instanceId, state, new Date(dueDate));
+  }
+}
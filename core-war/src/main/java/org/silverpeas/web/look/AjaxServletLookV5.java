@@ -50,6 +50,7 @@ import org.silverpeas.core.util.WebEncodeHelper;
 import org.silverpeas.core.util.logging.SilverLogger;
 import org.silverpeas.core.web.external.webconnections.model.WebConnectionsInterface;
 import org.silverpeas.core.web.look.LookHelper;
+import org.silverpeas.core.web.look.NavigationModel;
 import org.silverpeas.core.web.look.SilverpeasLook;
 import org.silverpeas.core.web.mvc.controller.MainSessionController;
 import org.silverpeas.core.web.mvc.webcomponent.SilverpeasAuthenticatedHttpServlet;
@@ -66,7 +67,9 @@ import java.io.Writer;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.MissingResourceException;
+import java.util.Objects;
 
 import static org.silverpeas.core.sharing.services.SharingServiceProvider.getSharingTicketService;
 
@@ -147,6 +150,19 @@ public class AjaxServletLookV5 extends SilverpeasAuthenticatedHttpServlet {
 
     // Retrieve current look
     String defaultLook = gef.getDefaultLookName();
+
+    // The navigation tree depends only on the navigation model of the user and on the request, so
+    // the browser can ask whether its copy is still valid
+    if (isNavigationOnly(request, displayPDC)) {
+      String eTag = getNavigationETag(request, helper, defaultLook, listUserFS);
+      response.setHeader("Cache-Control", "private, no-cache");
+      response.setHeader("ETag", eTag);
+      if (isMatching(request.getHeader("If-None-Match"), eTag)) {
+        response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+        return;
+      }
+    }
+
     response.setContentType("text/xml");
     response.setHeader("charset", "UTF-8");
 
@@ -161,7 +177,8 @@ public class AjaxServletLookV5 extends SilverpeasAuthenticatedHttpServlet {
             listUserFS, displayMode);
       } else {
         // First get space's path cause it can be a subspace
-        List<String> spaceIdsPath = getSpaceIdsPath(spaceId, componentId, organisationController);
+        List<String> spaceIdsPath =
+            getSpaceIdsPath(spaceId, componentId, helper.getNavigationModel());
 
         // space transverse
         displaySpace(spaceId, componentId, spaceIdsPath, userId, preferences.getLanguage(),
@@ -193,7 +210,8 @@ public class AjaxServletLookV5 extends SilverpeasAuthenticatedHttpServlet {
             message);
       } else {
         // First get space's path cause it can be a subspace
-        List<String> spaceIdsPath = getSpaceIdsPath(spaceId, componentId, organisationController);
+        List<String> spaceIdsPath =
+            getSpaceIdsPath(spaceId, componentId, helper.getNavigationModel());
         displaySpace(spaceId, componentId, spaceIdsPath, userId, preferences.getLanguage(),
             defaultLook, displayPDC, false, helper, writer, listUserFS, displayMode,
             restrictedPath);
@@ -209,6 +227,65 @@ public class AjaxServletLookV5 extends SilverpeasAuthenticatedHttpServlet {
 
   }
 
+  /**
+   * Is the response to the specified request made up only of the navigation tree? Such a
+   * response doesn't depend on the PDC or on the personal space of the user.
+   * @param request the AJAX request.
+   * @param displayPDC is the PDC asked?
+   * @return true if only the navigation tree is to be sent, false otherwise.
+   */
+  private boolean isNavigationOnly(HttpServletRequest request, boolean displayPDC) {
+    String spaceId = request.getParameter("SpaceId");
+    String componentId = request.getParameter("ComponentId");
+    if ("1".equals(request.getParameter("Init"))) {
+      return !displayPDC ||
+          (!StringUtil.isDefined(spaceId) && !StringUtil.isDefined(componentId));
+    } else if (StringUtil.isDefined(request.getParameter("AxisId")) &&
+        StringUtil.isDefined(request.getParameter("ValuePath"))) {
+      return false;
+    } else if (StringUtil.isDefined(spaceId)) {
+      return !displayPDC && !isPersonalSpace(spaceId);
+    } else if (StringUtil.isDefined(componentId)) {
+      return !displayPDC;
+    }
+    return !StringUtil.isDefined(request.getParameter("Pdc"));
+  }
+
+  /**
+   * Computes a strong entity tag of the navigation tree sent for the specified request. It is
+   * made up of the version of the navigation model of the user and of a hash of all the other
+   * data the tree depends on.
+   * @param request the AJAX request.
+   * @param helper the look helper of the user.
+   * @param defaultLook the current default look name.
+   * @param listUFS the list of user favorite spaces.
+   * @return the entity tag of the response.
+   */
+  private String getNavigationETag(HttpServletRequest request, LookHelper helper,
+      String defaultLook, List<UserFavoriteSpaceVO> listUFS) {
+    int hash = Objects.hash(helper.getUserId(), helper.getLanguage(), defaultLook,
+        helper.getDisplayUserMenu());
+    for (Map.Entry<String, String[]> parameter : request.getParameterMap().entrySet()) {
+      hash += parameter.getKey().hashCode() ^ Arrays.hashCode(parameter.getValue());
+    }
+    int[] favoriteSpaceIds = listUFS.stream().mapToInt(UserFavoriteSpaceVO::getSpaceId).sorted()
+        .toArray();
+    hash = 31 * hash + Arrays.hashCode(favoriteSpaceIds);
+    return "\"" + helper.getNavigationModel().getVersion() + "-" + Integer.toHexString(hash) +
+        "\"";
+  }
+
+  private boolean isMatching(String ifNoneMatch, String eTag) {
+    if (StringUtil.isDefined(ifNoneMatch)) {
+      for (String aTag : ifNoneMatch.split(",")) {
+        if (aTag.trim().equals(eTag)) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
   private void displayNotContextualPDC(String userId, MainSessionController mainSC, Writer writer)
       throws IOException {
     try {
@@ -234,12 +311,12 @@ public class AjaxServletLookV5 extends SilverpeasAuthenticatedHttpServlet {
   }
 
   private List<String> getSpaceIdsPath(String spaceId, String componentId,
-      OrganizationController orgaController) {
+      NavigationModel navigationModel) {
     List<SpaceInstLight> spacePath = new ArrayList<>();
     if (StringUtil.isDefined(spaceId)) {
-      spacePath = orgaController.getPathToSpace(spaceId);
+      spacePath = navigationModel.getPathToSpace(spaceId);
     } else if (StringUtil.isDefined(componentId)) {
-      spacePath = orgaController.getPathToComponent(componentId);
+      spacePath = navigationModel.getPathToComponent(componentId);
     }
     List<String> spaceIdsPath = new ArrayList<>();
     for (SpaceInstLight space : spacePath) {
@@ -309,7 +386,7 @@ public class AjaxServletLookV5 extends SilverpeasAuthenticatedHttpServlet {
     }
 
     // Affichage de l'espace collaboratif
-    SpaceInstLight space = organisationController.getSpaceInstLightById(spaceId);
+    SpaceInstLight space = helper.getNavigationModel().getSpace(spaceId);
     if (space != null && isSpaceVisible(userId, spaceId, helper)) {
       StringBuilder itemSB = new StringBuilder(200);
       itemSB.append("<item open=\"").append(open).append("\" ");
@@ -325,11 +402,11 @@ public class AjaxServletLookV5 extends SilverpeasAuthenticatedHttpServlet {
         if (spaceBeforeComponent) {
           getSubSpaces(spaceId, userId, spacePath, componentId, language, defaultLook, helper,
               writer, listUFS, userMenuDisplayMode);
-          getComponents(spaceId, componentId, userId, language, writer, userMenuDisplayMode,
-              listUFS);
+          getComponents(spaceId, componentId, userId, language, helper, writer,
+              userMenuDisplayMode, listUFS);
         } else {
-          getComponents(spaceId, componentId, userId, language, writer, userMenuDisplayMode,
-              listUFS);
+          getComponents(spaceId, componentId, userId, language, helper, writer,
+              userMenuDisplayMode, listUFS);
           getSubSpaces(spaceId, userId, spacePath, componentId, language, defaultLook, helper,
               writer, listUFS, userMenuDisplayMode);
         }
@@ -372,14 +449,14 @@ public class AjaxServletLookV5 extends SilverpeasAuthenticatedHttpServlet {
       String language, String defaultLook, LookHelper helper, Writer out,
       List<UserFavoriteSpaceVO> listUFS, UserMenuDisplay userMenuDisplayMode) throws IOException {
     // Then get all first level spaces
-    String[] availableSpaceIds = getRootSpaceIds(userId, helper);
+    List<String> availableSpaceIds = getRootSpaceIds(helper);
 
     out.write("<spaces menu=\"" + helper.getDisplayUserMenu() + "\">");
     String spaceId;
 
     for (final String availableSpaceId : availableSpaceIds) {
       spaceId = availableSpaceId;
-      SpaceInstLight spaceInst = organisationController.getSpaceInstLightById(spaceId);
+      SpaceInstLight spaceInst = helper.getNavigationModel().getSpace(spaceId);
       boolean loadCurSpace =
           isLoadingContentNeeded(userMenuDisplayMode, userId, spaceInst, listUFS);
       if (loadCurSpace && isSpaceVisible(userId, spaceId, helper)) {
@@ -392,7 +469,7 @@ public class AjaxServletLookV5 extends SilverpeasAuthenticatedHttpServlet {
 
   private String getSpaceAttributes(SpaceInstLight space, String language, String defaultLook,
       LookHelper helper) {
-    String spaceLook = getSpaceLookAttribute(space, defaultLook);
+    String spaceLook = getSpaceLookAttribute(space, defaultLook, helper.getNavigationModel());
     String spaceWallpaper = getWallPaper(space.getId());
     String spaceCSS = SilverpeasLook.getSilverpeasLook().getSpaceWithCSS(space.getId());
 
@@ -414,15 +491,16 @@ public class AjaxServletLookV5 extends SilverpeasAuthenticatedHttpServlet {
    * Recursive method to get the right look.
    * @param space
    * @param defaultLook : current default look name
+   * @param navigationModel : the navigation model of the current user
    * @return the space style according to the space hierarchy
    */
-  private String getSpaceLookAttribute(SpaceInstLight space, String defaultLook) {
+  private String getSpaceLookAttribute(SpaceInstLight space, String defaultLook,
+      NavigationModel navigationModel) {
     String spaceLook = space.getLook();
     if (!StringUtil.isDefined(spaceLook)) {
       if (!space.isRoot()) {
-        SpaceInstLight fatherSpace =
-            organisationController.getSpaceInstLightById(space.getFatherId());
-        spaceLook = getSpaceLookAttribute(fatherSpace, defaultLook);
+        SpaceInstLight fatherSpace = navigationModel.getSpace(space.getFatherId());
+        spaceLook = getSpaceLookAttribute(fatherSpace, defaultLook, navigationModel);
       } else {
         spaceLook = defaultLook;
       }
@@ -433,7 +511,7 @@ public class AjaxServletLookV5 extends SilverpeasAuthenticatedHttpServlet {
   private void displayFirstLevelSpaces(String userId, String language, String defaultLook,
       LookHelper helper, Writer out, List<UserFavoriteSpaceVO> listUFS,
       UserMenuDisplay userMenuDisplayMode) throws IOException {
-    String[] availableSpaceIds = getRootSpaceIds(userId, helper);
+    List<String> availableSpaceIds = getRootSpaceIds(helper);
 
     // Loop variable declaration
     SpaceInstLight space;
@@ -442,7 +520,7 @@ public class AjaxServletLookV5 extends SilverpeasAuthenticatedHttpServlet {
     out.write("<spaces menu=\"" + helper.getDisplayUserMenu() + "\">");
     for (final String availableSpaceId : availableSpaceIds) {
       spaceId = availableSpaceId;
-      space = organisationController.getSpaceInstLightById(spaceId);
+      space = helper.getNavigationModel().getSpace(spaceId);
       boolean loadCurSpace = isLoadingContentNeeded(userMenuDisplayMode, userId, space, listUFS);
       if (loadCurSpace && isSpaceVisible(userId, spaceId, helper)) {
         if (space != null) {
@@ -461,14 +539,15 @@ public class AjaxServletLookV5 extends SilverpeasAuthenticatedHttpServlet {
   private void getSubSpaces(String spaceId, String userId, List<String> spacePath,
       String targetComponentId, String language, String defaultLook, LookHelper helper, Writer out,
       List<UserFavoriteSpaceVO> listUFS, UserMenuDisplay userMenuDisplayMode) throws IOException {
-    String[] spaceIds = organisationController.getAllSubSpaceIds(spaceId, userId);
+    NavigationModel navigationModel = helper.getNavigationModel();
+    List<String> spaceIds = navigationModel.getSubSpaceIds(spaceId);
 
     String subSpaceId;
     boolean open;
     boolean loadCurSpace;
     for (final String spaceId1 : spaceIds) {
       subSpaceId = spaceId1;
-      SpaceInstLight space = organisationController.getSpaceInstLightById(subSpaceId);
+      SpaceInstLight space = navigationModel.getSpace(subSpaceId);
       if (space != null) {
         open = (spacePath != null && spacePath.contains(subSpaceId));
         // Check user favorite space
@@ -491,10 +570,10 @@ public class AjaxServletLookV5 extends SilverpeasAuthenticatedHttpServlet {
             if (spaceBeforeComponent) {
               getSubSpaces(subSpaceId, userId, spacePath, targetComponentId, language, defaultLook,
                   helper, out, listUFS, userMenuDisplayMode);
-              getComponents(subSpaceId, targetComponentId, userId, language, out,
+              getComponents(subSpaceId, targetComponentId, userId, language, helper, out,
                   userMenuDisplayMode, listUFS);
             } else {
-              getComponents(subSpaceId, targetComponentId, userId, language, out,
+              getComponents(subSpaceId, targetComponentId, userId, language, helper, out,
                   userMenuDisplayMode, listUFS);
               getSubSpaces(subSpaceId, userId, spacePath, targetComponentId, language, defaultLook,
                   helper, out, listUFS, userMenuDisplayMode);
@@ -509,17 +588,17 @@ public class AjaxServletLookV5 extends SilverpeasAuthenticatedHttpServlet {
   }
 
   private void getComponents(String spaceId, String targetComponentId, String userId,
-      String language, Writer out, UserMenuDisplay userMenuDisplayMode,
+      String language, LookHelper helper, Writer out, UserMenuDisplay userMenuDisplayMode,
       List<UserFavoriteSpaceVO> listUFS) throws IOException {
-    SpaceInstLight spaceInst = organisationController.getSpaceInstLightById(spaceId);
+    NavigationModel navigationModel = helper.getNavigationModel();
+    SpaceInstLight space = navigationModel.getSpace(spaceId);
     boolean loadCurComponent =
-        isLoadingContentNeeded(userMenuDisplayMode, userId, spaceInst, listUFS);
+        isLoadingContentNeeded(userMenuDisplayMode, userId, space, listUFS);
     if (loadCurComponent) {
-      String[] componentIds = organisationController.getAvailCompoIdsAtRoot(spaceId, userId);
-      SpaceInstLight space = organisationController.getSpaceInstLightById(spaceId);
+      List<String> componentIds = navigationModel.getComponentIdsAtRoot(spaceId);
       int level = space.getLevel() + 1;
       for (String componentId : componentIds) {
-        ComponentInst component = organisationController.getComponentInst(componentId);
+        ComponentInst component = navigationModel.getComponent(componentId);
         if (component != null && WAComponent.getByName(component.getName()).isPresent() &&
             !component.isHidden()) {
           boolean open = (targetComponentId != null && component.getId().equals(targetComponentId));
@@ -648,16 +727,16 @@ public class AjaxServletLookV5 extends SilverpeasAuthenticatedHttpServlet {
     return "0";
   }
 
-  private String[] getRootSpaceIds(String userId, LookHelper helper) {
+  private List<String> getRootSpaceIds(LookHelper helper) {
     List<String> rootSpaceIds = new ArrayList<>();
     List<String> topSpaceIds = helper.getTopSpaceIds();
-    String[] availableSpaceIds = organisationController.getAllRootSpaceIds(userId);
+    List<String> availableSpaceIds = helper.getNavigationModel().getRootSpaceIds();
     for (final String availableSpaceId : availableSpaceIds) {
       if (!topSpaceIds.contains(availableSpaceId)) {
         rootSpaceIds.add(availableSpaceId);
       }
     }
-    return rootSpaceIds.toArray(new String[rootSpaceIds.size()]);
+    return rootSpaceIds;
   }
 
   protected boolean isPersonalSpace(String spaceId) {
@@ -801,14 +880,7 @@ public class AjaxServletLookV5 extends SilverpeasAuthenticatedHttpServlet {
     if (helper.getSettings("displaySpaceContainingOnlyHiddenComponents", true)) {
       return true;
     }
-    String compoIds[] = organisationController.getAvailCompoIds(spaceId, userId);
-    for (String id : compoIds) {
-      ComponentInst compInst = organisationController.getComponentInst(id);
-      if (!compInst.isHidden()) {
-        return true;
-      }
-    }
-    return false;
+    return helper.getNavigationModel().hasVisibleComponents(spaceId);
   }
 
   protected boolean isSpaceBeforeComponentNeeded(SpaceInstLight space) {
@@ -25,7 +25,9 @@ package org.silverpeas.web.servlets;
 
 import org.silverpeas.core.io.file.SilverpeasFile;
 import org.silverpeas.core.io.file.SilverpeasFileProvider;
+import org.silverpeas.core.util.MimeTypes;
 import org.silverpeas.core.util.StringUtil;
+import org.silverpeas.core.util.ZipUtil;
 import org.silverpeas.core.util.file.FileRepositoryManager;
 import org.silverpeas.core.util.logging.SilverLogger;
 import org.silverpeas.core.web.http.FileResponse;
@@ -51,6 +53,7 @@ import static org.silverpeas.core.io.temp.TemporaryWorkspaceTranslation
 public class TempFileServer extends SilverpeasAuthenticatedHttpServlet {
 
   private static final long serialVersionUID = 5483484250458795672L;
+  private static final String ZIP_EXTENSION = ".zip";
 
   @Override
   public void init(ServletConfig config) {
@@ -82,7 +85,12 @@ public class TempFileServer extends SilverpeasAuthenticatedHttpServlet {
     final SilverpeasFile requestedFile = SilverpeasFileProvider.getFile(physicalFile.getPath());
 
     if (!requestedFile.exists()) {
-      throwHttpNotFoundError();
+      final File directoryToZip = getDirectoryToZip(physicalFile);
+      if (directoryToZip == null) {
+        throwHttpNotFoundError();
+      }
+      sendZipOf(directoryToZip, physicalFile.getName(), res);
+      return;
     }
 
     try {
@@ -92,6 +100,31 @@ public class TempFileServer extends SilverpeasAuthenticatedHttpServlet {
     }
   }
 
+  /**
+   * Gets the directory whose zip archive is the specified file. The exports are zipped on the fly
+   * when they are downloaded, so the zip file of an export directory doesn't exist.
+   * @param zipFile the requested zip file.
+   * @return the directory to zip or null if the requested file isn't the archive of a directory.
+   */
+  private static File getDirectoryToZip(final File zipFile) {
+    final String name = zipFile.getName();
+    if (name.length() > ZIP_EXTENSION.length() && name.endsWith(ZIP_EXTENSION)) {
+      final File directory = new File(zipFile.getParentFile(),
+          name.substring(0, name.length() - ZIP_EXTENSION.length()));
+      if (directory.isDirectory()) {
+        return directory;
+      }
+    }
+    return null;
+  }
+
+  private void sendZipOf(final File directory, final String zipName,
+      final HttpServletResponse res) throws IOException {
+    res.setContentType(MimeTypes.SHORT_ARCHIVE_MIME_TYPE);
+    res.setHeader("Content-Disposition", String.format("attachment;filename=\"%s\"", zipName));
+    ZipUtil.compressPathToZip(directory, res.getOutputStream());
+  }
+
   /**
    * Checks the specified path is valid according to some security rules. For example, check there
    * is no attempt to go up the path to access a forbidden resource.
@@ -31,6 +31,7 @@ import org.silverpeas.core.admin.user.model.UserDetail;
 import org.silverpeas.core.admin.service.OrganizationController;
 import org.silverpeas.core.admin.service.OrganizationControllerProvider;
 import org.silverpeas.core.persistence.jdbc.DBUtil;
+import org.silverpeas.core.silverstatistics.volume.model.StatPeriod;
 import org.silverpeas.core.util.DateUtil;
 import org.silverpeas.core.util.ServiceProvider;
 import org.silverpeas.core.util.StringUtil;
@@ -56,16 +57,18 @@ public class SilverStatisticsPeasDAOAccesVolume {
   private static final String SELECT_VOLUME_FOR_ALL_COMPONENTS = "SELECT componentId, " +
       "SUM(countVolume) AS volume FROM SB_Stat_VolumeCumul WHERE dateStat = ? " +
       "GROUP BY dateStat, componentId ORDER BY dateStat ASC, volume DESC";
-  private static final String SELECT_ACCESS_YEARS =
-      "SELECT DISTINCT dateStat " + "FROM sb_stat_accesscumul ORDER BY dateStat ASC";
+  // the accesses by space or by component instance are read from their monthly rollups
+  private static final String MONTHLY_ROLLUP = "period = '" + StatPeriod.Month.name() + "'";
+  private static final String SELECT_ACCESS_YEARS = "SELECT dateStat FROM sb_stat_accessrollup " +
+      "WHERE period = '" + StatPeriod.Year.name() + "' GROUP BY dateStat ORDER BY dateStat ASC";
   private static final String SELECT_ACCESS_EVOL_FOR_SPACE =
       "SELECT dateStat, SUM(countAccess) AS " +
-          "accesses FROM sb_stat_accessCumul WHERE spaceId = ? GROUP BY dateStat ORDER BY " +
-          "dateStat ASC";
+          "accesses FROM sb_stat_accessrollup WHERE spaceId = ? AND " + MONTHLY_ROLLUP +
+          " GROUP BY dateStat ORDER BY dateStat ASC";
   private static final String SELECT_ACCESS_EVOL_FOR_COMPONENT =
       "SELECT dateStat, SUM(countAccess) " +
-          "AS accesses FROM sb_stat_accessCumul WHERE componentId = ? GROUP BY dateStat " +
-          "ORDER BY dateStat ASC";
+          "AS accesses FROM sb_stat_accessrollup WHERE componentId = ? AND " + MONTHLY_ROLLUP +
+          " GROUP BY dateStat ORDER BY dateStat ASC";
   private static final String SELECT_ACCESS_EVOL_FOR_SPACE_BY_USER = "SELECT dateStat, " +
       "SUM(countAccess) AS accesses FROM sb_stat_accessCumul WHERE spaceId = ? AND userId = ? " +
       "GROUP BY dateStat ORDER BY dateStat ASC";
@@ -73,8 +76,8 @@ public class SilverStatisticsPeasDAOAccesVolume {
       "SUM(countAccess) AS accesses FROM sb_stat_accessCumul WHERE componentId = ? " +
       "AND userId = ? GROUP BY dateStat ORDER BY dateStat ASC";
   private static final String SELECT_ACCESS_FOR_ALL_COMPONENTS = "SELECT componentId, " +
-      "SUM(countAccess) AS accesses FROM sb_stat_accesscumul WHERE datestat=? GROUP BY " +
-      "dateStat, componentId ORDER BY dateStat ASC, accesses DESC";
+      "SUM(countAccess) AS accesses FROM sb_stat_accessrollup WHERE datestat=? AND " +
+      MONTHLY_ROLLUP + " GROUP BY componentId ORDER BY accesses DESC";
   private static final String SELECT_ACCESS_FOR_USER = "SELECT componentId, SUM(countAccess) AS " +
       "accesses  FROM sb_stat_accesscumul WHERE dateStat= ? AND userId = ? GROUP BY dateStat, " +
       "componentId ORDER BY dateStat ASC, accesses DESC";
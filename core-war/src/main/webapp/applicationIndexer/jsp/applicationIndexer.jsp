@@ -49,6 +49,7 @@ response.setDateHeader ("Expires",-1); //prevents caching at the proxy server
 <%@ page import="org.silverpeas.core.util.LocalizationBundle" %>
 <%@ page import="org.silverpeas.core.admin.service.OrganizationController" %>
 <%@ page import="org.silverpeas.core.web.index.IndexationProcessExecutor" %>
+<%@ page import="org.silverpeas.core.index.indexing.model.IndexGeneration" %>
 <%@ page errorPage="../../admin/jsp/errorpage.jsp"%>
 <%@ taglib uri="http://www.silverpeas.com/tld/viewGenerator" prefix="view"%>
 
@@ -154,7 +155,10 @@ if (action != null) {
             ai.indexAllSpaces();
             break;
           case "IndexAll":
-            ai.indexAll();
+            ai.reindexAll(false);
+            break;
+          case "ResumeIndexAll":
+            ai.reindexAll(true);
             break;
           case "IndexPdc":
             ai.indexPdc();
@@ -179,6 +183,9 @@ browseBar.setDomainName(message.getString("admin.reindex"));
 
 OperationPane operations = window.getOperationPane();
 operations.addOperation("useless", message.getString("admin.reindex.op.all"), "javaScript:index('IndexAll','','');");
+if (!isIndexationProcessRunning && IndexGeneration.isResumable()) {
+  operations.addOperation("useless", message.getString("admin.reindex.op.resume"), "javaScript:index('ResumeIndexAll','','');");
+}
 operations.addLine();
 operations.addOperation("useless", message.getString("admin.reindex.op.spaces"), "javaScript:index('IndexAllSpaces','','');");
 operations.addOperation("useless", message.getString("admin.reindex.op.users"), "javaScript:index('IndexUsers','','');");
@@ -212,7 +219,7 @@ function index(action, compo, space) {
 		message += "<%=message.getString("admin.reindex.js.warn.perso")%>";
 	} else if (action == "IndexAllSpaces") {
 		message += "<%=message.getString("admin.reindex.js.warn.spaces")%>";
-	} else if (action == "IndexAll") {
+	} else if (action == "IndexAll" || action == "ResumeIndexAll") {
 		message += "<%=message.getString("admin.reindex.js.warn.all")%>";
 	} else if (action == "IndexPdc") {
 		message += "<%=message.getString("admin.reindex.js.warn.pdc")%>";
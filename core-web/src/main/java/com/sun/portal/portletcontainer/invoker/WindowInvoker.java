@@ -208,7 +208,7 @@ public abstract class WindowInvoker implements WindowInvokerConstants {
       //
 
       try {
-        markupText = getPortletContent(request,
+        markupText = renderContent(request,
             response);
       } catch (WindowException we) {
         logger.log(Level.SEVERE,
@@ -226,6 +226,26 @@ public abstract class WindowInvoker implements WindowInvokerConstants {
     return markupText;
   }
 
+  /**
+   * Renders the content of the portletWindow. By default, the content is got from the underlying
+   * container; the derived classes can override this method to serve the content from elsewhere,
+   * a cache for example.
+   * @param request An HttpServletRequest that contains information related to this request for
+   * content.
+   * @param response An HttpServletResponse that allows the portlet window context to influence the
+   * overall response for the page.
+   * @return StringBuffer holding the content.
+   * @exception InvokerException If there was an error generating the content.
+   * @exception WindowException If the portlet failed to generate its content.
+   */
+  protected StringBuffer renderContent(HttpServletRequest request,
+      HttpServletResponse response)
+      throws InvokerException,
+      WindowException {
+    return getPortletContent(request,
+        response);
+  }
+
   private StringBuffer getPortletContent(HttpServletRequest request,
       HttpServletResponse response)
       throws InvokerException,
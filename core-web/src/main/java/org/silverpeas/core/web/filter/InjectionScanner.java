@@ -0,0 +1,538 @@
+/*
+ * Copyright (C) 2000 - 2018 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.web.filter;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * A scanner of the values of the request parameters looking in a single pass for SQL statements
+ * or for script injections.
+ * <p>
+ * The SQL keywords are located by an Aho-Corasick automaton and each SQL statement is followed
+ * by a small state machine on its ordered keywords, so the scan is linear in the length of the
+ * value whatever its content. It detects, case-insensitively, what the following regular
+ * expressions detect once each sequence of spaces is replaced by one space:
+ * <ul>
+ *   <li>{@code (grant|revoke)(( .*|.* )(select|insert|update|delete|references|alter|index|all))+
+ *   ( .*|.* )on}</li>
+ *   <li>{@code (create|drop|alter)( .*|.* )(table|database|schema)}</li>
+ *   <li>{@code select.*from}, {@code insert( .*|.* )into.*values}, {@code update.*set} and
+ *   {@code delete( .*|.* )from}, the statements on tables that must be verified deeply with
+ *   the known table names (see {@link #containsAnyWordOf(String, WordSet)})</li>
+ *   <li>{@code <[\s/]*(script|iframe)} for the script injections</li>
+ * </ul>
+ * The first keyword of a SQL statement must start a word and its last keyword must end a word.
+ * Unlike a search with a regular expression, all the occurrences of the keywords are taken into
+ * account and not only the leftmost one.
+ * <p>
+ * A scanner isn't thread-safe; it is expected to be created for the parameters of a request and
+ * then to be reused for each of their values without any allocation.
+ */
+final class InjectionScanner {
+
+  private static final String NOT_ASCII_WORD_CHARACTERS = "éèçàëäüïöâêûîôµùÉÈÇÀËÄÜÏÖÂÊÛÎÔΜÙ";
+  private static final int NONE = Integer.MAX_VALUE;
+  private static final int LAST_CHARS_MASK = 15;
+
+  private static final String[] KEYWORDS =
+      {"grant", "revoke", "select", "insert", "update", "delete", "references", "alter", "index",
+          "all", "on", "create", "drop", "table", "database", "schema", "from", "into", "values",
+          "set"};
+  private static final KeywordAutomaton SQL_KEYWORDS = new KeywordAutomaton(KEYWORDS);
+
+  private static final Statement[] SQL_STATEMENTS = {
+      new Statement(false).then("grant", "revoke")
+          .thenSpacedOneOrMore("select", "insert", "update", "delete", "references", "alter",
+              "index", "all")
+          .thenSpaced("on"),
+      new Statement(false).then("create", "drop", "alter")
+          .thenSpaced("table", "database", "schema"),
+      new Statement(true).then("select").then("from"),
+      new Statement(true).then("insert").thenSpaced("into").then("values"),
+      new Statement(true).then("update").then("set"),
+      new Statement(true).then("delete").thenSpaced("from")};
+
+  private static final String[] XSS_TAGS = {"script", "iframe"};
+
+  private final int[][] earliestEnds = new int[SQL_STATEMENTS.length][];
+  private final int[][] earliestSpacedEnds = new int[SQL_STATEMENTS.length][];
+  private final int[][] pendingSpaceChecks = new int[SQL_STATEMENTS.length][];
+  private final int[] pendingEndChecks = new int[SQL_STATEMENTS.length];
+  private final boolean[] matched = new boolean[SQL_STATEMENTS.length];
+  private final char[] lastChars = new char[LAST_CHARS_MASK + 1];
+
+  private boolean sqlStatementFound;
+  private boolean sqlStatementOnTablesFound;
+  private boolean xssFound;
+  private boolean xssAfterTagOpening;
+  private String xssTag;
+  private int xssTagIndex;
+
+  InjectionScanner() {
+    for (int i = 0; i < SQL_STATEMENTS.length; i++) {
+      final int steps = SQL_STATEMENTS[i].keywords.length;
+      earliestEnds[i] = new int[steps];
+      earliestSpacedEnds[i] = new int[steps];
+      pendingSpaceChecks[i] = new int[steps];
+    }
+  }
+
+  /**
+   * Scans the specified value. The results are then given by {@link #isSqlStatementFound()},
+   * {@link #isSqlStatementOnTablesFound()} and {@link #isXssFound()}.
+   * @param value the value to scan.
+   * @param sqlToDetect true if the SQL statements have to be detected.
+   * @param xssToDetect true if the script injections have to be detected.
+   */
+  void scan(final String value, final boolean sqlToDetect, final boolean xssToDetect) {
+    reset();
+    int state = 0;
+    final int length = value.length();
+    for (int i = 0; i < length && !sqlStatementFound && !(xssFound && !sqlToDetect); i++) {
+      final char c = normalized(value.charAt(i));
+      if (sqlToDetect) {
+        checkPendingStatements(i, c);
+        if (isLineTerminator(c)) {
+          // none of the SQL statements can span several lines
+          resetStatements();
+        }
+        lastChars[i & LAST_CHARS_MASK] = c;
+        state = SQL_KEYWORDS.next(state, c);
+        int keywords = SQL_KEYWORDS.outputs[state];
+        while (keywords != 0) {
+          final int keyword = Integer.numberOfTrailingZeros(keywords);
+          keywords &= keywords - 1;
+          onKeyword(keyword, i + 1);
+        }
+      }
+      if (xssToDetect && !xssFound) {
+        scanForXss(c);
+      }
+    }
+    if (sqlToDetect) {
+      for (int i = 0; i < SQL_STATEMENTS.length; i++) {
+        if (pendingEndChecks[i] == length) {
+          onStatementMatched(i);
+        }
+      }
+    }
+  }
+
+  /**
+   * Is a SQL statement not on tables (grant, revoke, create, drop, alter) found by the last scan?
+   * @return true if such a statement was found, false otherwise.
+   */
+  boolean isSqlStatementFound() {
+    return sqlStatementFound;
+  }
+
+  /**
+   * Is a SQL statement on tables (select, insert, update, delete) found by the last scan? Such a
+   * statement is to be verified deeply before considering it as an injection.
+   * @return true if such a statement was found, false otherwise.
+   */
+  boolean isSqlStatementOnTablesFound() {
+    return sqlStatementOnTablesFound;
+  }
+
+  /**
+   * Is a script injection found by the last scan?
+   * @return true if a script injection was found, false otherwise.
+   */
+  boolean isXssFound() {
+    return xssFound;
+  }
+
+  /**
+   * Indicates if the specified value contains, as a whole word, one of the words of the given
+   * set. The comparison is case-insensitive.
+   * @param value the value to scan.
+   * @param words a set of words.
+   * @return true if one of the words is in the value, false otherwise.
+   */
+  boolean containsAnyWordOf(final String value, final WordSet words) {
+    int state = 0;
+    for (int i = 0; i < value.length(); i++) {
+      final char c = value.charAt(i);
+      if (isWordChar(c)) {
+        if (state >= 0) {
+          state = words.next(state, c);
+        }
+      } else {
+        if (words.isWordEnd(state)) {
+          return true;
+        }
+        state = 0;
+      }
+    }
+    return words.isWordEnd(state);
+  }
+
+  private void reset() {
+    resetStatements();
+    Arrays.fill(pendingEndChecks, NONE);
+    Arrays.fill(matched, false);
+    sqlStatementFound = false;
+    sqlStatementOnTablesFound = false;
+    xssFound = false;
+    xssAfterTagOpening = false;
+    xssTag = null;
+  }
+
+  private void resetStatements() {
+    for (int i = 0; i < SQL_STATEMENTS.length; i++) {
+      Arrays.fill(earliestEnds[i], NONE);
+      Arrays.fill(earliestSpacedEnds[i], NONE);
+      Arrays.fill(pendingSpaceChecks[i], NONE);
+    }
+  }
+
+  /**
+   * Checks the character following the keywords reached just before it: a space after it opens
+   * the spaced gap of the next keyword and no word character after the last keyword of a
+   * statement completes it.
+   */
+  private void checkPendingStatements(final int index, final char c) {
+    for (int i = 0; i < SQL_STATEMENTS.length; i++) {
+      if (matched[i]) {
+        continue;
+      }
+      if (pendingEndChecks[i] == index) {
+        pendingEndChecks[i] = NONE;
+        if (!isWordChar(c)) {
+          onStatementMatched(i);
+          continue;
+        }
+      }
+      final int[] pendingSpaces = pendingSpaceChecks[i];
+      for (int step = 0; step < pendingSpaces.length; step++) {
+        if (pendingSpaces[step] == index) {
+          pendingSpaces[step] = NONE;
+          if (c == ' ') {
+            earliestSpacedEnds[i][step] = index;
+          }
+        }
+      }
+    }
+  }
+
+  private void onKeyword(final int keyword, final int end) {
+    final int start = end - KEYWORDS[keyword].length();
+    final char previous = start == 0 ? ' ' : lastChars[(start - 1) & LAST_CHARS_MASK];
+    final int keywordMask = 1 << keyword;
+    for (int i = 0; i < SQL_STATEMENTS.length; i++) {
+      final Statement statement = SQL_STATEMENTS[i];
+      for (int step = 0; !matched[i] && step < statement.keywords.length; step++) {
+        if ((statement.keywords[step] & keywordMask) == 0) {
+          continue;
+        }
+        final boolean reached;
+        if (step == 0) {
+          reached = !isWordChar(previous);
+        } else {
+          reached = isGapValid(i, step - 1, step, start, previous) ||
+              (statement.repeatable[step] && isGapValid(i, step, step, start, previous));
+        }
+        if (reached) {
+          onStepReached(i, step, end);
+        }
+      }
+    }
+  }
+
+  private boolean isGapValid(final int statementIndex, final int fromStep, final int toStep,
+      final int start, final char previous) {
+    if (SQL_STATEMENTS[statementIndex].spaced[toStep]) {
+      return earliestSpacedEnds[statementIndex][fromStep] < start ||
+          (earliestEnds[statementIndex][fromStep] < start && previous == ' ');
+    }
+    return earliestEnds[statementIndex][fromStep] <= start;
+  }
+
+  private void onStepReached(final int statementIndex, final int step, final int end) {
+    if (earliestEnds[statementIndex][step] == NONE) {
+      earliestEnds[statementIndex][step] = end;
+    }
+    if (step == SQL_STATEMENTS[statementIndex].keywords.length - 1) {
+      pendingEndChecks[statementIndex] = end;
+    } else if (earliestSpacedEnds[statementIndex][step] == NONE) {
+      pendingSpaceChecks[statementIndex][step] = end;
+    }
+  }
+
+  private void onStatementMatched(final int statementIndex) {
+    matched[statementIndex] = true;
+    if (SQL_STATEMENTS[statementIndex].onTables) {
+      sqlStatementOnTablesFound = true;
+    } else {
+      sqlStatementFound = true;
+    }
+  }
+
+  private void scanForXss(final char c) {
+    if (xssTag != null) {
+      if (c == xssTag.charAt(xssTagIndex)) {
+        xssTagIndex++;
+        xssFound = xssTagIndex == xssTag.length();
+        return;
+      }
+      xssTag = null;
+      xssAfterTagOpening = c == '<';
+    } else if (xssAfterTagOpening) {
+      if (c != '<' && c != ' ' && c != '/') {
+        xssAfterTagOpening = false;
+        for (String tag : XSS_TAGS) {
+          if (c == tag.charAt(0)) {
+            xssTag = tag;
+            xssTagIndex = 1;
+          }
+        }
+      }
+    } else {
+      xssAfterTagOpening = c == '<';
+    }
+  }
+
+  /**
+   * Gets the specified character in lower case if it is an ASCII letter (the case-insensitive
+   * matching being about US-ASCII only) and as a space if it is a whitespace.
+   */
+  private static char normalized(final char c) {
+    if (c >= 'A' && c <= 'Z') {
+      return (char) (c + ('a' - 'A'));
+    }
+    if (c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r') {
+      return ' ';
+    }
+    return c;
+  }
+
+  private static boolean isLineTerminator(final char c) {
+    return c == '\u0085' || c == '\u2028' || c == '\u2029';
+  }
+
+  private static boolean isWordChar(final char c) {
+    if (c < 128) {
+      return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') ||
+          c == '_' || c == '-';
+    }
+    return NOT_ASCII_WORD_CHARACTERS.indexOf(c) >= 0;
+  }
+
+  private static int maskOf(final String... keywords) {
+    int mask = 0;
+    for (String keyword : keywords) {
+      mask |= 1 << Arrays.asList(KEYWORDS).indexOf(keyword);
+    }
+    return mask;
+  }
+
+  /**
+   * A SQL statement defined by a sequence of steps, each of them being one keyword among
+   * several ones. Two steps are separated either by any characters or by at least one character
+   * with a space at one of its bounds.
+   */
+  private static final class Statement {
+    private final boolean onTables;
+    private int[] keywords = new int[0];
+    private boolean[] spaced = new boolean[0];
+    private boolean[] repeatable = new boolean[0];
+
+    private Statement(final boolean onTables) {
+      this.onTables = onTables;
+    }
+
+    private Statement then(final String... keywords) {
+      return add(false, false, keywords);
+    }
+
+    private Statement thenSpaced(final String... keywords) {
+      return add(true, false, keywords);
+    }
+
+    private Statement thenSpacedOneOrMore(final String... keywords) {
+      return add(true, true, keywords);
+    }
+
+    private Statement add(final boolean spacedStep, final boolean repeatableStep,
+        final String... stepKeywords) {
+      final int step = this.keywords.length;
+      this.keywords = Arrays.copyOf(this.keywords, step + 1);
+      this.spaced = Arrays.copyOf(this.spaced, step + 1);
+      this.repeatable = Arrays.copyOf(this.repeatable, step + 1);
+      this.keywords[step] = maskOf(stepKeywords);
+      this.spaced[step] = spacedStep;
+      this.repeatable[step] = repeatableStep;
+      return this;
+    }
+  }
+
+  /**
+   * An Aho-Corasick automaton locating keywords made of lower case ASCII letters. The keywords
+   * ending at a state are given as a bit mask of their index.
+   */
+  private static final class KeywordAutomaton {
+    private static final int ALPHABET = 26;
+    private final int[][] transitions;
+    private final int[] outputs;
+
+    private KeywordAutomaton(final String... keywords) {
+      final List<int[]> nodes = new ArrayList<>();
+      final List<Integer> masks = new ArrayList<>();
+      nodes.add(newNode());
+      masks.add(0);
+      for (int k = 0; k < keywords.length; k++) {
+        int state = 0;
+        for (char c : keywords[k].toCharArray()) {
+          final int[] node = nodes.get(state);
+          if (node[c - 'a'] < 0) {
+            node[c - 'a'] = nodes.size();
+            nodes.add(newNode());
+            masks.add(0);
+          }
+          state = node[c - 'a'];
+        }
+        masks.set(state, masks.get(state) | 1 << k);
+      }
+      transitions = nodes.toArray(new int[0][]);
+      outputs = masks.stream().mapToInt(Integer::intValue).toArray();
+
+      final int[] failures = new int[transitions.length];
+      final Deque<Integer> queue = new ArrayDeque<>();
+      for (int l = 0; l < ALPHABET; l++) {
+        if (transitions[0][l] < 0) {
+          transitions[0][l] = 0;
+        } else {
+          queue.add(transitions[0][l]);
+        }
+      }
+      while (!queue.isEmpty()) {
+        final int state = queue.poll();
+        outputs[state] |= outputs[failures[state]];
+        for (int l = 0; l < ALPHABET; l++) {
+          final int child = transitions[state][l];
+          if (child < 0) {
+            transitions[state][l] = transitions[failures[state]][l];
+          } else {
+            failures[child] = transitions[failures[state]][l];
+            queue.add(child);
+          }
+        }
+      }
+    }
+
+    private static int[] newNode() {
+      final int[] node = new int[ALPHABET];
+      Arrays.fill(node, -1);
+      return node;
+    }
+
+    private int next(final int state, final char c) {
+      return c >= 'a' && c <= 'z' ? transitions[state][c - 'a'] : 0;
+    }
+  }
+
+  /**
+   * A set of words made of ASCII letters, digits and underscores, as the SQL table names are,
+   * that are looked for case-insensitively by walking a trie.
+   */
+  static final class WordSet {
+    private static final int ALPHABET = 37;
+    private final int[][] transitions;
+    private final boolean[] wordEnds;
+
+    private WordSet(final int[][] transitions, final boolean[] wordEnds) {
+      this.transitions = transitions;
+      this.wordEnds = wordEnds;
+    }
+
+    /**
+     * Builds a set with the specified words. The words having other characters than ASCII
+     * letters, digits and underscores are ignored as they cannot be found as a whole word.
+     * @param words the words of the set.
+     * @return the set of words.
+     */
+    static WordSet of(final Collection<String> words) {
+      final List<int[]> nodes = new ArrayList<>();
+      final List<Integer> ends = new ArrayList<>();
+      nodes.add(newNode());
+      for (String word : words) {
+        final String lowerCaseWord = word.toLowerCase(Locale.ROOT);
+        if (lowerCaseWord.isEmpty() || lowerCaseWord.chars().anyMatch(c -> symbolOf(c) < 0)) {
+          continue;
+        }
+        int state = 0;
+        for (char c : lowerCaseWord.toCharArray()) {
+          final int[] node = nodes.get(state);
+          if (node[symbolOf(c)] < 0) {
+            node[symbolOf(c)] = nodes.size();
+            nodes.add(newNode());
+          }
+          state = node[symbolOf(c)];
+        }
+        ends.add(state);
+      }
+      final boolean[] wordEnds = new boolean[nodes.size()];
+      ends.forEach(state -> wordEnds[state] = true);
+      return new WordSet(nodes.toArray(new int[0][]), wordEnds);
+    }
+
+    private static int[] newNode() {
+      final int[] node = new int[ALPHABET];
+      Arrays.fill(node, -1);
+      return node;
+    }
+
+    private static int symbolOf(final int c) {
+      final int symbol;
+      if (c >= 'a' && c <= 'z') {
+        symbol = c - 'a';
+      } else if (c >= 'A' && c <= 'Z') {
+        symbol = c - 'A';
+      } else if (c >= '0' && c <= '9') {
+        symbol = 26 + c - '0';
+      } else if (c == '_') {
+        symbol = 36;
+      } else {
+        symbol = -1;
+      }
+      return symbol;
+    }
+
+    private int next(final int state, final char c) {
+      final int symbol = symbolOf(c);
+      return symbol < 0 ? -1 : transitions[state][symbol];
+    }
+
+    private boolean isWordEnd(final int state) {
+      return state > 0 && wordEnds[state];
+    }
+  }
+}
@@ -27,7 +27,6 @@ import org.apache.commons.lang3.time.DurationFormatUtils;
 import org.silverpeas.core.admin.user.model.User;
 import org.silverpeas.core.cache.service.CacheServiceProvider;
 import org.silverpeas.core.persistence.jdbc.DBUtil;
-import org.silverpeas.core.util.StringUtil;
 import org.silverpeas.core.util.URLUtil;
 import org.silverpeas.core.util.logging.SilverLogger;
 import org.silverpeas.core.web.SilverpeasWebResource;
@@ -48,11 +47,7 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import javax.ws.rs.core.UriBuilder;
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Map;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * Massive Web Security Protection.
@@ -72,51 +67,12 @@ public class MassiveWebSecurityFilter implements Filter {
   private static final String WEB_PAGES_URI_PREFIX =
       UriBuilder.fromUri(URLUtil.getApplicationURL()).path("RwebPages").build().toString();
 
-  private static final List<Pattern> SQL_SKIPPED_PARAMETER_PATTERNS;
-  private static final List<Pattern> XSS_SKIPPED_PARAMETER_PATTERNS;
+  private static final SkippedParameters SQL_SKIPPED_PARAMETERS =
+      new SkippedParameters(SecuritySettings.skippedParametersAboutWebSqlInjectionSecurity());
+  private static final SkippedParameters XSS_SKIPPED_PARAMETERS =
+      new SkippedParameters(SecuritySettings.skippedParametersAboutWebXssInjectionSecurity());
 
-  private static final List<Pattern> SQL_PATTERNS;
-  private static final List<Pattern> XSS_PATTERNS;
-
-  private static final Pattern ENDS_WITH_WORD_CHARACTER_OR_NUMERIC_PATTERN =
-      Pattern.compile("(?i)[\\w\\-_éèçàëäüïöâêûîôµùÉÈÇÀËÄÜÏÖÂÊÛÎÔΜÙ]$");
-
-
-  private static final Pattern SQL_SELECT_FROM_PATTERN = Pattern.compile("(?i)select.*from");
-  private static final Pattern SQL_INSERT_VALUES_PATTERN =
-      Pattern.compile("(?i)insert( .*|.* )into.*values");
-  private static final Pattern SQL_UPDATE_PATTERN = Pattern.compile("(?i)update.*set");
-  private static final Pattern SQL_DELETE_PATTERN = Pattern.compile("(?i)delete( .*|.* )from");
-  private static String sqlSelectPatternInspectDeeplyCacheKey = null;
-
-
-  static {
-
-    // In treatments each sequence of spaces is replaced by one space
-
-    SQL_SKIPPED_PARAMETER_PATTERNS = new ArrayList<>(1);
-    if (StringUtil.isDefined(SecuritySettings.skippedParametersAboutWebSqlInjectionSecurity())) {
-      SQL_SKIPPED_PARAMETER_PATTERNS
-          .add(Pattern.compile(SecuritySettings.skippedParametersAboutWebSqlInjectionSecurity()));
-    }
-    XSS_SKIPPED_PARAMETER_PATTERNS = new ArrayList<>(1);
-    if (StringUtil.isDefined(SecuritySettings.skippedParametersAboutWebXssInjectionSecurity())) {
-      XSS_SKIPPED_PARAMETER_PATTERNS
-          .add(Pattern.compile(SecuritySettings.skippedParametersAboutWebXssInjectionSecurity()));
-    }
-
-    SQL_PATTERNS = new ArrayList<>(6);
-    SQL_PATTERNS.add(Pattern.compile("(?i)(grant|revoke)" +
-        "(( .*|.* )(select|insert|update|delete|references|alter|index|all))+( .*|.* )on"));
-    SQL_PATTERNS.add(Pattern.compile("(?i)(create|drop|alter)( .*|.* )(table|database|schema)"));
-    SQL_PATTERNS.add(SQL_SELECT_FROM_PATTERN);
-    SQL_PATTERNS.add(SQL_INSERT_VALUES_PATTERN);
-    SQL_PATTERNS.add(SQL_UPDATE_PATTERN);
-    SQL_PATTERNS.add(SQL_DELETE_PATTERN);
-
-    XSS_PATTERNS = new ArrayList<>(1);
-    XSS_PATTERNS.add(Pattern.compile("(?i)<[\\s/]*(script|iframe)"));
-  }
+  private static String sqlTableNamesInspectDeeplyCacheKey = null;
 
   @Override
   public void doFilter(final ServletRequest request, final ServletResponse response,
@@ -193,6 +149,7 @@ public class MassiveWebSecurityFilter implements Filter {
       throws WebSqlInjectionSecurityException, WebXssInjectionSecurityException {
     long start = System.currentTimeMillis();
     try {
+      final InjectionScanner scanner = new InjectionScanner();
       // Browsing all parameters
       for (Map.Entry<String, String[]> parameterEntry : httpRequest.getParameterMap()
           .entrySet()) {
@@ -205,7 +162,8 @@ public class MassiveWebSecurityFilter implements Filter {
           continue;
         }
 
-        checkParameterValues(parameterEntry, sqlInjectionToVerify, xssInjectionToVerify);
+        checkParameterValues(scanner, parameterEntry, sqlInjectionToVerify,
+            xssInjectionToVerify);
       }
     } finally {
       long end = System.currentTimeMillis();
@@ -214,31 +172,23 @@ public class MassiveWebSecurityFilter implements Filter {
     }
   }
 
-  private void checkParameterValues(final Map.Entry<String, String[]> parameterEntry,
-      final boolean sqlInjectionToVerify, final boolean xssInjectionToVerify)
+  private void checkParameterValues(final InjectionScanner scanner,
+      final Map.Entry<String, String[]> parameterEntry, final boolean sqlInjectionToVerify,
+      final boolean xssInjectionToVerify)
       throws WebSqlInjectionSecurityException, WebXssInjectionSecurityException {
-    Matcher patternMatcherFound;
     for (String parameterValue : parameterEntry.getValue()) {
 
-      // Each sequence of spaces is replaced by one space
-      parameterValue = parameterValue.replaceAll("\\s+", " ");
+      // Single pass on the value for both SQL and XSS injections
+      scanner.scan(parameterValue, sqlInjectionToVerify, xssInjectionToVerify);
 
       // SQL injections?
-      if (sqlInjectionToVerify && (patternMatcherFound =
-          findPatternMatcherFromString(SQL_PATTERNS, parameterValue, true)) != null) {
-
-        if (!verifySqlDeeply(patternMatcherFound, parameterValue)) {
-          patternMatcherFound = null;
-        }
-
-        if (patternMatcherFound != null) {
-          throw new WebSqlInjectionSecurityException();
-        }
+      if (scanner.isSqlStatementFound() || (scanner.isSqlStatementOnTablesFound() &&
+          verifySqlDeeply(scanner, parameterValue))) {
+        throw new WebSqlInjectionSecurityException();
       }
 
       // XSS injections?
-      if (xssInjectionToVerify &&
-          findPatternMatcherFromString(XSS_PATTERNS, parameterValue, false) != null) {
+      if (scanner.isXssFound()) {
         throw new WebXssInjectionSecurityException();
       }
     }
@@ -246,89 +196,31 @@ public class MassiveWebSecurityFilter implements Filter {
 
   /**
    * Verifies deeply a matched SQL string. Indeed, throwing an exception of XSS attack only on
-   * SQL detection is not enough. This method tries to detect a known table name from the SQL
-   * string.
-   * @param matcherFound
+   * SQL detection is not enough. This method tries to detect a known table name, as a whole word,
+   * from the SQL string.
+   * @param scanner
    * @param string
    * @return
    */
-  private boolean verifySqlDeeply(final Matcher matcherFound, String string) {
-    boolean isVerified = true;
-    if (matcherFound.pattern() == SQL_SELECT_FROM_PATTERN ||
-        matcherFound.pattern() == SQL_INSERT_VALUES_PATTERN ||
-        matcherFound.pattern() == SQL_UPDATE_PATTERN ||
-        matcherFound.pattern() == SQL_DELETE_PATTERN) {
-      isVerified = false;
-      Pattern tableNamesPattern = getSqlTableNamesPattern();
-      Matcher tableNameMatcher = tableNamesPattern.matcher(string);
-      while (tableNameMatcher.find()) {
-        isVerified = tableNamesPattern.matcher(extractTableNameWholeWord(tableNameMatcher, string))
-            .matches();
-        if (isVerified) {
-          break;
-        }
-      }
-    }
-    return isVerified;
+  private boolean verifySqlDeeply(final InjectionScanner scanner, final String string) {
+    return scanner.containsAnyWordOf(string, getSqlTableNames());
   }
 
   /**
-   * Extracts the whole table name matched. Indeed, the matcher can find a table name that is a part
-   * of another ...
-   * @param matcher
-   * @param matchedString
+   * Gets the known table names with which a detected SQL statement is checked deeply.
+   * A cache is handled by this method in order to avoid building at every call the same set.
    * @return
    */
-  private String extractTableNameWholeWord(Matcher matcher, String matchedString) {
-    StringBuilder tableName =
-        new StringBuilder(matchedString.substring(matcher.start(), matcher.end()));
-    int index = matcher.start() - 1;
-    while (index >= 0) {
-      if (ENDS_WITH_WORD_CHARACTER_OR_NUMERIC_PATTERN
-          .matcher(String.valueOf(matchedString.charAt(index))).matches()) {
-        tableName.insert(0, matchedString.charAt(index));
-      } else {
-        break;
-      }
-      index--;
-    }
-    index = matcher.end();
-    while (index < matchedString.length()) {
-      if (ENDS_WITH_WORD_CHARACTER_OR_NUMERIC_PATTERN
-          .matcher(String.valueOf(matchedString.charAt(index))).matches()) {
-        tableName.append(matchedString.charAt(index));
-      } else {
-        break;
-      }
-      index++;
-    }
-    return tableName.toString();
-  }
-
-  /**
-   * Gets a pattern that permits to chexk deeply a detected SELECT FROM with known table names.
-   * A cache is handled by this method in order to avoid building at every call the same pattern.
-   * @return
-   */
-  private synchronized Pattern getSqlTableNamesPattern() {
-    Pattern pattern = (sqlSelectPatternInspectDeeplyCacheKey != null) ?
+  private synchronized InjectionScanner.WordSet getSqlTableNames() {
+    InjectionScanner.WordSet tableNames = (sqlTableNamesInspectDeeplyCacheKey != null) ?
         CacheServiceProvider.getApplicationCacheService().getCache()
-            .get(sqlSelectPatternInspectDeeplyCacheKey, Pattern.class) : null;
-    if (pattern == null) {
-      StringBuilder sbPattern = new StringBuilder("(");
-      for (String tableName : DBUtil.getAllTableNames()) {
-        if (sbPattern.length() > 1) {
-          sbPattern.append("|");
-        }
-        sbPattern.append(tableName);
-      }
-      sbPattern.append(")");
-
-      pattern = Pattern.compile("(?i)" + sbPattern.toString());
-      sqlSelectPatternInspectDeeplyCacheKey =
-          CacheServiceProvider.getApplicationCacheService().getCache().add(pattern);
+            .get(sqlTableNamesInspectDeeplyCacheKey, InjectionScanner.WordSet.class) : null;
+    if (tableNames == null) {
+      tableNames = InjectionScanner.WordSet.of(DBUtil.getAllTableNames());
+      sqlTableNamesInspectDeeplyCacheKey =
+          CacheServiceProvider.getApplicationCacheService().getCache().add(tableNames);
     }
-    return pattern;
+    return tableNames;
   }
 
   /**
@@ -337,8 +229,7 @@ public class MassiveWebSecurityFilter implements Filter {
    * @return
    */
   private boolean mustTheParameterBeVerifiedForSqlVerifications(String parameterName) {
-    return findPatternMatcherFromString(SQL_SKIPPED_PARAMETER_PATTERNS, parameterName, false) ==
-        null;
+    return !SQL_SKIPPED_PARAMETERS.isSkipped(parameterName);
   }
 
   /**
@@ -347,52 +238,7 @@ public class MassiveWebSecurityFilter implements Filter {
    * @return
    */
   private boolean mustTheParameterBeVerifiedForXssVerifications(String parameterName) {
-    return findPatternMatcherFromString(XSS_SKIPPED_PARAMETER_PATTERNS, parameterName, false) ==
-        null;
-  }
-
-  /**
-   * Indicates the index of one pattern from the given pattern list matches with the given string.
-   * @param patterns
-   * @param string
-   * @param startsAndEndsByWholeWord
-   * @return
-   */
-  private Matcher findPatternMatcherFromString(List<Pattern> patterns, String string,
-      boolean startsAndEndsByWholeWord) {
-    Matcher isMatcherFound = null;
-    for (Pattern pattern : patterns) {
-      Matcher matcher = pattern.matcher(string);
-      if (matcher.find() && !(startsAndEndsByWholeWord &&
-          (!verifyMatcherStartingByAWord(matcher, string) ||
-              !verifyMatcherEndingByAWord(matcher, string)))) {
-        isMatcherFound = matcher;
-        break;
-      }
-    }
-    return isMatcherFound;
-  }
-
-  /**
-   * Verifies that the first word of matching starts with a whole word.
-   * @param matcher
-   * @param matchedString
-   * @return
-   */
-  private boolean verifyMatcherStartingByAWord(Matcher matcher, String matchedString) {
-    return matcher.start() == 0 || !ENDS_WITH_WORD_CHARACTER_OR_NUMERIC_PATTERN
-        .matcher(matchedString.substring(0, matcher.start())).find();
-  }
-
-  /**
-   * Verifies that the first word of matching starts with a whole word.
-   * @param matcher
-   * @param matchedString
-   * @return
-   */
-  private boolean verifyMatcherEndingByAWord(Matcher matcher, String matchedString) {
-    return matcher.end(0) == matchedString.length() || !ENDS_WITH_WORD_CHARACTER_OR_NUMERIC_PATTERN
-        .matcher(String.valueOf(matchedString.charAt(matcher.end(0)))).find();
+    return !XSS_SKIPPED_PARAMETERS.isSkipped(parameterName);
   }
 
   /**
@@ -0,0 +1,71 @@
+/*
+ * Copyright (C) 2000 - 2018 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.web.filter;
+
+import org.silverpeas.core.util.StringUtil;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * The request parameters that are skipped from an injection verification. They are defined by a
+ * regular expression that is compiled once and the decision taken for a parameter name is kept
+ * as the same parameters are sent again and again by the web pages of Silverpeas. The number of
+ * decisions kept is bounded as the parameter names come from the clients.
+ */
+final class SkippedParameters {
+
+  private static final int MAX_DECISIONS = 2048;
+  private final Pattern pattern;
+  private final Map<String, Boolean> decisions = new ConcurrentHashMap<>();
+
+  /**
+   * Constructs the skipped parameters defined by the specified regular expression.
+   * @param regexp a regular expression matching the name of the parameters to skip. If not
+   * defined, no parameters are skipped.
+   */
+  SkippedParameters(final String regexp) {
+    this.pattern = StringUtil.isDefined(regexp) ? Pattern.compile(regexp) : null;
+  }
+
+  /**
+   * Is the specified parameter skipped from the verification?
+   * @param parameterName the name of a request parameter.
+   * @return true if the parameter isn't verified, false otherwise.
+   */
+  boolean isSkipped(final String parameterName) {
+    if (pattern == null) {
+      return false;
+    }
+    Boolean skipped = decisions.get(parameterName);
+    if (skipped == null) {
+      skipped = pattern.matcher(parameterName).find();
+      if (decisions.size() < MAX_DECISIONS) {
+        decisions.put(parameterName, skipped);
+      }
+    }
+    return skipped;
+  }
+}
@@ -24,18 +24,34 @@
 package org.silverpeas.core.web.index;
 
 import org.silverpeas.core.admin.service.AdminController;
+import org.silverpeas.core.admin.service.OrganizationController;
 import org.silverpeas.core.admin.service.OrganizationControllerProvider;
 import org.silverpeas.core.admin.space.SpaceInst;
 import org.silverpeas.core.index.indexing.model.IndexEngineProxy;
+import org.silverpeas.core.index.indexing.model.IndexGeneration;
+import org.silverpeas.core.thread.ManagedThreadPool;
+import org.silverpeas.core.thread.ManagedThreadPoolException;
+import org.silverpeas.core.util.ResourceLocator;
 import org.silverpeas.core.util.ServiceProvider;
 import org.silverpeas.core.util.StringUtil;
 import org.silverpeas.core.util.logging.SilverLogger;
 
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.silverpeas.core.thread.ManagedThreadPool.ExecutionConfig.maxThreadPoolSizeOf;
+
 /**
  * @author ehugonnet
  */
 public abstract class AbstractIndexer {
 
+  private static final int DEFAULT_REINDEXATION_PARALLELISM = 4;
+
   protected final AdminController admin = ServiceProvider.getService(AdminController.class);
   private boolean indexAllProcess = false;
 
@@ -45,6 +61,91 @@ public abstract class AbstractIndexer {
     indexAllData();
   }
 
+  /**
+   * Reindexes all the data into a new generation of the indexes whereas the search is still
+   * performed on the live indexes. The data are split into units of work (a space, a component
+   * instance, ...) that are indexed concurrently; each of them is checkpointed once done, so if the
+   * reindexation is interrupted, it is resumed from the units that aren't yet done. Once all the
+   * units are done, the new generation replaces the live one.
+   * <p>
+   * The number of units of work indexed concurrently is set by the
+   * <code>reindexation.parallelism</code> property of the
+   * <code>org.silverpeas.index.indexing.IndexEngine</code> settings.
+   * </p>
+   * @param resume true to resume a previous reindexation that has been interrupted, false to
+   * reindex all the data from zero.
+   */
+  public final void reindexAll(boolean resume) {
+    final int parallelism = ResourceLocator.getSettingBundle(
+        "org.silverpeas.index.indexing.IndexEngine")
+        .getInteger("reindexation.parallelism", DEFAULT_REINDEXATION_PARALLELISM);
+    reindexAll(Math.max(1, parallelism), resume);
+  }
+
+  private void reindexAll(int parallelism, boolean resume) {
+    indexAllProcess = true;
+    final Set<String> alreadyDone = IndexGeneration.start(resume);
+    boolean completed = false;
+    try {
+      final Map<String, Runnable> units = new LinkedHashMap<>();
+      for (String spaceId : OrganizationControllerProvider.getOrganisationController()
+          .getAllSpaceIds()) {
+        addIndexationUnitsOfSpace(spaceId, units);
+      }
+      units.putAll(getIndexationUnitsOfOtherData());
+      final List<Runnable> remainingUnits = units.entrySet()
+          .stream()
+          .filter(u -> !alreadyDone.contains(u.getKey()))
+          .map(u -> (Runnable) () -> {
+            IndexGeneration.feed(u.getValue());
+            IndexGeneration.checkpoint(u.getKey());
+          })
+          .collect(Collectors.toList());
+      SilverLogger.getLogger(this)
+          .info("reindexing {0} unit(s) of work among {1}", remainingUnits.size(), units.size());
+      ManagedThreadPool.getPool()
+          .invokeAndAwaitTermination(remainingUnits,
+              maxThreadPoolSizeOf(parallelism).withCategory("indexation"));
+      IndexGeneration.complete();
+      completed = true;
+    } catch (ManagedThreadPoolException e) {
+      SilverLogger.getLogger(this)
+          .error("reindexation interrupted, it can be resumed by the next one", e);
+    } finally {
+      if (!completed) {
+        IndexGeneration.interrupt();
+      }
+    }
+  }
+
+  /**
+   * Gets the units of work for a reindexation of the data other than the spaces and the
+   * component instances. By default, there is none.
+   * @return the units of work of the data indexed by {@link #indexAllData()} apart the spaces,
+   * mapped by their unique key.
+   */
+  protected Map<String, Runnable> getIndexationUnitsOfOtherData() {
+    return Collections.emptyMap();
+  }
+
+  private void addIndexationUnitsOfSpace(String spaceId, Map<String, Runnable> units) {
+    final String currentSpaceId = spaceId.startsWith(SpaceInst.SPACE_KEY_PREFIX) ?
+        spaceId.substring(SpaceInst.SPACE_KEY_PREFIX.length()) : spaceId;
+    final String key = SpaceInst.SPACE_KEY_PREFIX + currentSpaceId;
+    if (units.containsKey(key)) {
+      return;
+    }
+    units.put(key, () -> admin.indexSpace(Integer.parseInt(currentSpaceId)));
+    final OrganizationController controller =
+        OrganizationControllerProvider.getOrganisationController();
+    for (String componentId : controller.getAllComponentIds(currentSpaceId)) {
+      units.putIfAbsent(componentId, () -> indexComponent(currentSpaceId, componentId));
+    }
+    for (String subSpaceId : controller.getAllSubSpaceIds(currentSpaceId)) {
+      addIndexationUnitsOfSpace(subSpaceId, units);
+    }
+  }
+
   protected abstract void indexAllData();
 
   public final void indexAllSpaces() {
@@ -33,6 +33,9 @@ import org.silverpeas.core.util.logging.SilverLogger;
 import org.silverpeas.core.web.index.AbstractIndexer;
 import org.silverpeas.core.web.index.tools.PersonalToolIndexation;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 public class ApplicationIndexer extends AbstractIndexer {
 
   protected ApplicationIndexer() {
@@ -51,6 +54,16 @@ public class ApplicationIndexer extends AbstractIndexer {
     indexUsers();
   }
 
+  @Override
+  protected Map<String, Runnable> getIndexationUnitsOfOtherData() {
+    final Map<String, Runnable> units = new LinkedHashMap<>();
+    units.put("personal", this::indexPersonalComponents);
+    units.put("pdc", this::indexPdc);
+    units.put("groups", this::indexGroups);
+    units.put("users", this::indexUsers);
+    return units;
+  }
+
   public void index(String personalComponent) {
     if (personalComponent != null) {
       indexPersonalComponent(personalComponent);
@@ -130,6 +130,14 @@ public abstract class LookHelper {
 
   public abstract List<TopItem> getTopItems();
 
+  /**
+   * Gets the navigation model of the current user, that is to say the tree of the spaces and of
+   * the component instances he can access. The model is kept between the requests of the user as
+   * long as it is up to date.
+   * @return the up to date navigation model of the current user.
+   */
+  public abstract NavigationModel getNavigationModel();
+
   public abstract List<String> getTopSpaceIds();
 
   public abstract String getMainFrame();
@@ -23,6 +23,7 @@
  */
 package org.silverpeas.core.web.look;
 
+import org.silverpeas.core.admin.component.model.ComponentInst;
 import org.silverpeas.core.admin.component.model.ComponentInstLight;
 import org.silverpeas.core.admin.component.model.PersonalComponentInstance;
 import org.silverpeas.core.admin.service.OrganizationController;
@@ -93,6 +94,9 @@ public class LookSilverpeasV5Helper extends LookHelper {
   private HttpSession session = null;
   private String currentLookName = null;
   private LayoutConfiguration layoutConfiguration;
+  private NavigationModel navigationModel = null;
+  private long topItemsVersion = -1;
+  private String topItemsLanguage = null;
 
   /*
    * (non-Javadoc)
@@ -161,7 +165,7 @@ public class LookSilverpeasV5Helper extends LookHelper {
   @Override
   public void setSpaceIdAndSubSpaceId(String spaceId) {
     if (StringUtil.isDefined(spaceId)) {
-      List<SpaceInstLight> spacePath = organizationController.getPathToSpace(spaceId);
+      List<SpaceInstLight> spacePath = getNavigationModel().getPathToSpace(spaceId);
       if (!spacePath.isEmpty()) {
         SpaceInstLight space = spacePath.get(0);
         SpaceInstLight subSpace = spacePath.get(spacePath.size() - 1);
@@ -183,7 +187,7 @@ public class LookSilverpeasV5Helper extends LookHelper {
 
     if (!StringUtil.isDefined(spaceId) &&
         !PersonalComponentInstance.from(componentId).isPresent()) {
-      List<SpaceInstLight> spacePath = organizationController.getPathToComponent(componentId);
+      List<SpaceInstLight> spacePath = getNavigationModel().getPathToComponent(componentId);
       if (!spacePath.isEmpty()) {
         SpaceInstLight space = spacePath.get(0);
         SpaceInstLight subSpace = spacePath.get(spacePath.size() - 1);
@@ -397,13 +401,23 @@ public class LookSilverpeasV5Helper extends LookHelper {
    */
   @Override
   public String getSpaceId(String componentId) {
-    ComponentInstLight component = organizationController.getComponentInstLight(componentId);
+    ComponentInst component = getNavigationModel().getComponent(componentId);
     if (component != null) {
       return component.getDomainFatherId();
     }
     return null;
   }
 
+  @Override
+  public NavigationModel getNavigationModel() {
+    NavigationModel model = navigationModel;
+    if (model == null || !model.isUpToDate()) {
+      model = new NavigationModel(organizationController, getUserId());
+      navigationModel = model;
+    }
+    return model;
+  }
+
   /*
    * (non-Javadoc)
    * @see org.silverpeas.core.web.look.LookHelper#getWallPaper(java.lang.String)
@@ -502,6 +516,13 @@ public class LookSilverpeasV5Helper extends LookHelper {
    */
   @Override
   public List<TopItem> getTopItems() {
+    // the top items are computed again only if the organizational data or the language changed
+    final long version = getNavigationModel().getVersion();
+    if (topItems != null && topItemsVersion == version && getLanguage().equals(topItemsLanguage)) {
+      return topItems;
+    }
+    topItemsVersion = version;
+    topItemsLanguage = getLanguage();
     topItems = new ArrayList<TopItem>();
     topSpaceIds = new ArrayList<String>();
     StringTokenizer tokenizer = new StringTokenizer(resources.getString("componentsTop", ""), ",");
@@ -797,7 +818,7 @@ public class LookSilverpeasV5Helper extends LookHelper {
     DefaultSpaceHomePage homepage = new DefaultSpaceHomePage();
 
     // get main information of space
-    SpaceInstLight space = organizationController.getSpaceInstLightById(currentSpaceId);
+    SpaceInstLight space = getNavigationModel().getSpace(currentSpaceId);
     homepage.setSpace(space);
 
     // get latest publications
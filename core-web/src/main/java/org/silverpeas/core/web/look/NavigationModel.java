@@ -0,0 +1,202 @@
+/*
+ * Copyright (C) 2000 - 2018 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.web.look;
+
+import org.silverpeas.core.admin.component.model.ComponentInst;
+import org.silverpeas.core.admin.service.OrganizationController;
+import org.silverpeas.core.admin.space.SpaceInstLight;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The navigation model of a user: the tree of the spaces, with their labels and their order, and
+ * of the component instances the user can access, as it is browsed by the menus of the look.
+ * <p>
+ * The model is built once for a given version of the organizational data visible by the user
+ * (see {@link OrganizationController#getOrganizationVersion(String)}): each part of the tree is
+ * computed at its first access and then kept for the next requests. As soon as the tree of spaces
+ * or the rights of the user are modified, the model isn't up to date anymore and a new one has to
+ * be built.
+ */
+public class NavigationModel {
+
+  private final OrganizationController controller;
+  private final String userId;
+  private final long version;
+  private volatile List<String> rootSpaceIds;
+  private final Map<String, Optional<SpaceInstLight>> spaces = new ConcurrentHashMap<>();
+  private final Map<String, List<String>> subSpaceIds = new ConcurrentHashMap<>();
+  private final Map<String, List<String>> componentIdsAtRoot = new ConcurrentHashMap<>();
+  private final Map<String, List<String>> componentIds = new ConcurrentHashMap<>();
+  private final Map<String, Optional<ComponentInst>> components = new ConcurrentHashMap<>();
+  private final Map<String, List<SpaceInstLight>> pathsToSpace = new ConcurrentHashMap<>();
+  private final Map<String, List<SpaceInstLight>> pathsToComponent = new ConcurrentHashMap<>();
+  private final Map<String, Boolean> spacesWithVisibleComponents = new ConcurrentHashMap<>();
+
+  /**
+   * Constructs the navigation model of the specified user for the current version of the
+   * organizational data.
+   * @param controller the controller of the organizational data.
+   * @param userId the unique identifier of the user.
+   */
+  NavigationModel(final OrganizationController controller, final String userId) {
+    this.controller = controller;
+    this.userId = userId;
+    // the version is got before any data so that a concurrent modification is detected
+    this.version = controller.getOrganizationVersion(userId);
+  }
+
+  /**
+   * Gets the unique identifier of the user this model is for.
+   * @return a user identifier.
+   */
+  public String getUserId() {
+    return userId;
+  }
+
+  /**
+   * Gets the version of the organizational data from which this model is built.
+   * @return the version of this model.
+   */
+  public long getVersion() {
+    return version;
+  }
+
+  /**
+   * Is this model still up to date? It isn't once the tree of spaces or the rights of the user
+   * have been modified since its creation.
+   * @return true if the model can be used, false if a new one has to be built.
+   */
+  public boolean isUpToDate() {
+    return version == controller.getOrganizationVersion(userId);
+  }
+
+  /**
+   * Gets the identifiers of the root spaces the user can access, in their display order.
+   * @return an unmodifiable list of space identifiers.
+   */
+  public List<String> getRootSpaceIds() {
+    List<String> ids = rootSpaceIds;
+    if (ids == null) {
+      ids = asList(controller.getAllRootSpaceIds(userId));
+      rootSpaceIds = ids;
+    }
+    return ids;
+  }
+
+  /**
+   * Gets the specified space.
+   * @param spaceId the unique identifier of a space.
+   * @return the space or null if no such space exists.
+   */
+  public SpaceInstLight getSpace(final String spaceId) {
+    return spaces.computeIfAbsent(spaceId,
+        i -> Optional.ofNullable(controller.getSpaceInstLightById(i))).orElse(null);
+  }
+
+  /**
+   * Gets the identifiers of the subspaces of the specified space the user can access, in their
+   * display order.
+   * @param spaceId the unique identifier of a space.
+   * @return an unmodifiable list of space identifiers.
+   */
+  public List<String> getSubSpaceIds(final String spaceId) {
+    return subSpaceIds.computeIfAbsent(spaceId,
+        i -> asList(controller.getAllSubSpaceIds(i, userId)));
+  }
+
+  /**
+   * Gets the identifiers of the component instances the user can access directly in the
+   * specified space, in their display order.
+   * @param spaceId the unique identifier of a space.
+   * @return an unmodifiable list of component instance identifiers.
+   */
+  public List<String> getComponentIdsAtRoot(final String spaceId) {
+    return componentIdsAtRoot.computeIfAbsent(spaceId,
+        i -> asList(controller.getAvailCompoIdsAtRoot(i, userId)));
+  }
+
+  /**
+   * Gets the identifiers of all the component instances the user can access in the specified
+   * space and in its subspaces.
+   * @param spaceId the unique identifier of a space.
+   * @return an unmodifiable list of component instance identifiers.
+   */
+  public List<String> getComponentIds(final String spaceId) {
+    return componentIds.computeIfAbsent(spaceId,
+        i -> asList(controller.getAvailCompoIds(i, userId)));
+  }
+
+  /**
+   * Gets the specified component instance.
+   * @param componentId the unique identifier of a component instance.
+   * @return the component instance or null if no such component instance exists.
+   */
+  public ComponentInst getComponent(final String componentId) {
+    return components.computeIfAbsent(componentId,
+        i -> Optional.ofNullable(controller.getComponentInst(i))).orElse(null);
+  }
+
+  /**
+   * Gets the path from the root space down to the specified space.
+   * @param spaceId the unique identifier of a space.
+   * @return an unmodifiable list of spaces, the last one being the specified space.
+   */
+  public List<SpaceInstLight> getPathToSpace(final String spaceId) {
+    return pathsToSpace.computeIfAbsent(spaceId,
+        i -> Collections.unmodifiableList(controller.getPathToSpace(i)));
+  }
+
+  /**
+   * Gets the path from the root space down to the space containing the specified component
+   * instance.
+   * @param componentId the unique identifier of a component instance.
+   * @return an unmodifiable list of spaces.
+   */
+  public List<SpaceInstLight> getPathToComponent(final String componentId) {
+    return pathsToComponent.computeIfAbsent(componentId,
+        i -> Collections.unmodifiableList(controller.getPathToComponent(i)));
+  }
+
+  /**
+   * Has the specified space, or one of its subspaces, at least one component instance the user
+   * can access and that isn't hidden?
+   * @param spaceId the unique identifier of a space.
+   * @return true if a visible component instance is in the space, false otherwise.
+   */
+  public boolean hasVisibleComponents(final String spaceId) {
+    return spacesWithVisibleComponents.computeIfAbsent(spaceId, i -> getComponentIds(i).stream()
+        .map(this::getComponent)
+        .anyMatch(c -> c != null && !c.isHidden()));
+  }
+
+  private static List<String> asList(final String[] ids) {
+    return Collections.unmodifiableList(Arrays.asList(ids));
+  }
+}
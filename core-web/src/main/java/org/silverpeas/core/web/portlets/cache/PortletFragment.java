@@ -0,0 +1,65 @@
+/*
+ * Copyright (C) 2000 - 2018 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.web.portlets.cache;
+
+import java.io.Serializable;
+
+/**
+ * A fragment of markup rendered by a portlet in the view mode, as kept by the
+ * {@link PortletFragmentCache}. Beside the markup, it carries the title the portlet has set while
+ * rendering it.
+ */
+public final class PortletFragment implements Serializable {
+  private static final long serialVersionUID = -4405418290327530011L;
+
+  private final String markup;
+  private final String title;
+  private final boolean shareable;
+
+  /**
+   * Constructs a new fragment.
+   * @param markup the markup rendered by the portlet.
+   * @param title the title of the portlet window set while rendering the markup.
+   * @param shareable is the fragment can be kept in the cache? A fragment isn't shareable when its
+   * rendering had some side effects on the response (cookies, headers) that cannot be replayed.
+   */
+  public PortletFragment(final CharSequence markup, final String title,
+      final boolean shareable) {
+    this.markup = markup == null ? null : markup.toString();
+    this.title = title;
+    this.shareable = shareable;
+  }
+
+  public String getMarkup() {
+    return markup;
+  }
+
+  public String getTitle() {
+    return title;
+  }
+
+  public boolean isShareable() {
+    return shareable && markup != null;
+  }
+}
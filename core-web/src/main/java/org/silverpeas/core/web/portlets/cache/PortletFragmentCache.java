@@ -0,0 +1,566 @@
+/*
+ * Copyright (C) 2000 - 2018 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.web.portlets.cache;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.silverpeas.core.admin.ObjectType;
+import org.silverpeas.core.admin.service.OrganizationController;
+import org.silverpeas.core.admin.user.model.User;
+import org.silverpeas.core.cache.model.Cache;
+import org.silverpeas.core.cache.service.CacheServiceProvider;
+import org.silverpeas.core.security.authorization.ComponentAccessControl;
+import org.silverpeas.core.util.ResourceLocator;
+import org.silverpeas.core.util.ServiceProvider;
+import org.silverpeas.core.util.SettingBundle;
+import org.silverpeas.core.util.logging.SilverLogger;
+
+import javax.annotation.PostConstruct;
+import javax.inject.Singleton;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A server-side cache of the fragments of markup rendered by the portlets in the view mode.
+ * <p>
+ * Only the portlets declared in the settings of the portlets are cached, each of them with a
+ * scope and the topics on which its content depends:
+ * </p>
+ * <ul>
+ *   <li>with the {@link Scope#SHARED} scope, a fragment is shared by all the users having the
+ *   same rights, that is to say the same access level, the same accessible component instances
+ *   with the same profiles and the same profiles on the topics with specific rights;</li>
+ *   <li>with the {@link Scope#USER} scope, a fragment is proper to each user.</li>
+ * </ul>
+ * <p>
+ * A fragment is identified by a {@link PortletFragmentKey} carrying a digest of the context and of
+ * the preferences of the portlet window and the version of the topics of the portlet: an
+ * invalidation of a topic increments its version so that the fragments rendered before are no
+ * more reached; they are then evicted from the cache once their time to live is elapsed. The
+ * invalidations are triggered by the listeners of the resource events related to the topics
+ * ({@link #PUBLICATION}, {@link #CALENDAR} and {@link #NOTIFICATION}) and by the storing of the
+ * preferences of a portlet window. A topic can be invalidated for a single component instance:
+ * only the fragments of the windows whose context contains the component instance are then
+ * concerned, that is to say the windows of the space of the component instance and of its parent
+ * spaces, and the windows of the homepage of the users accessing it.
+ * </p>
+ * <p>
+ * When a fragment is missing, only one rendering is performed for a given key: the concurrent
+ * requests for the same fragment wait for this rendering to complete and get its result. The
+ * cache computes for each portlet some statistics about its hits and the time taken by its
+ * renderings.
+ * </p>
+ */
+@Singleton
+public class PortletFragmentCache {
+
+  /**
+   * Topic of the publications.
+   */
+  public static final String PUBLICATION = "publication";
+  /**
+   * Topic of the calendar events.
+   */
+  public static final String CALENDAR = "calendar";
+  /**
+   * Topic of the notifications received by the users.
+   */
+  public static final String NOTIFICATION = "notification";
+
+  private static final String SETTINGS = "org.silverpeas.portlets.portletsSettings";
+  private static final String PROPERTY_PREFIX = "portlets.fragmentCache.";
+  private static final String POLICY_PREFIX = PROPERTY_PREFIX + "portlet.";
+  private static final String FINGERPRINT_PREFIX = "PortletFragmentCache.fingerprint@";
+  private static final String SPACE_CONTEXT = "space:";
+  private static final String USER_CONTEXT = "user:";
+
+  private final SilverLogger logger = SilverLogger.getLogger(this);
+  private final Map<String, Policy> policies = new ConcurrentHashMap<>();
+  private final Map<String, AtomicLong> versions = new ConcurrentHashMap<>();
+  private final Set<String> topicsByComponent = ConcurrentHashMap.newKeySet();
+  private final Map<PortletFragmentKey, FutureTask<PortletFragment>> renderings =
+      new ConcurrentHashMap<>();
+  private final Map<String, Statistics> statistics = new ConcurrentHashMap<>();
+  boolean enabled = false;
+  int timeToLive = 300;
+
+  public static PortletFragmentCache get() {
+    return ServiceProvider.getService(PortletFragmentCache.class);
+  }
+
+  protected PortletFragmentCache() {
+  }
+
+  @PostConstruct
+  private void setup() {
+    final SettingBundle settings = ResourceLocator.getSettingBundle(SETTINGS);
+    enabled = settings.getBoolean(PROPERTY_PREFIX + "enabled", false);
+    timeToLive = settings.getInteger(PROPERTY_PREFIX + "timeToLive", timeToLive);
+    for (String key : settings.keySet()) {
+      if (key.startsWith(POLICY_PREFIX)) {
+        final String portletName = key.substring(POLICY_PREFIX.length());
+        final String[] values = settings.getString(key).trim().split("\\s+");
+        try {
+          setPolicy(portletName, Scope.valueOf(values[0].toUpperCase()),
+              Arrays.copyOfRange(values, 1, values.length));
+        } catch (IllegalArgumentException e) {
+          logger.warn("Unknown scope {0} of the cached fragments of the portlet {1}", values[0],
+              portletName);
+        }
+      }
+    }
+  }
+
+  /**
+   * Declares the specified portlet as cached.
+   * @param portletName the name of the portlet.
+   * @param scope the scope of the fragments rendered by the portlet.
+   * @param topics the topics on which the content of the portlet depends.
+   */
+  void setPolicy(final String portletName, final Scope scope, final String... topics) {
+    policies.put(portletName, new Policy(scope, Arrays.asList(topics)));
+  }
+
+  /**
+   * Is the cache enabled?
+   * @return true if the fragments of the portlets declared in the settings are cached.
+   */
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Gets the context of the portlet windows of the specified space.
+   * @param spaceId the unique identifier of a space.
+   * @return the context of the portlet windows of the space.
+   */
+  public static String spaceContext(final String spaceId) {
+    return SPACE_CONTEXT + spaceId;
+  }
+
+  /**
+   * Gets the context of the portlet windows of the homepage of the specified user.
+   * @param userId the unique identifier of a user.
+   * @return the context of the portlet windows of the user homepage.
+   */
+  public static String userContext(final String userId) {
+    return USER_CONTEXT + userId;
+  }
+
+  /**
+   * Gets the key of the fragment rendered by the specified portlet window for the given user.
+   * @param portletName the name of the portlet, optionally prefixed by the name of its portlet
+   * application.
+   * @param windowName the name of the portlet window.
+   * @param context the context of the portlet window, that is to say the space or the user whose
+   * homepage displays the window. See {@link #spaceContext(String)} and
+   * {@link #userContext(String)}.
+   * @param preferences the preferences of the portlet window.
+   * @param user the user for whom the fragment is rendered.
+   * @return the key of the fragment or null if the fragments of the portlet aren't cached.
+   */
+  public PortletFragmentKey getKey(final String portletName, final String windowName,
+      final String context, final Map<String, String[]> preferences, final User user) {
+    final String name = portletName.substring(portletName.lastIndexOf('.') + 1);
+    final Policy policy = policies.get(name);
+    if (!enabled || policy == null || user == null) {
+      return null;
+    }
+    final String fingerprint;
+    if (policy.scope == Scope.SHARED) {
+      fingerprint = getRightsFingerprint(user);
+    } else {
+      fingerprint = "user:" + user.getId() + "@" + getOrganizationVersion(user.getId());
+    }
+    String[] componentIds = null;
+    long version = getVersion(windowTopic(windowName));
+    for (String topic : policy.topics) {
+      version += getVersion(topic) + getVersion(userTopic(topic, user.getId()));
+      if (topicsByComponent.contains(topic)) {
+        if (componentIds == null) {
+          componentIds = getContextComponentIds(context, user.getId());
+        }
+        for (String componentId : componentIds) {
+          version += getVersion(componentTopic(topic, componentId));
+        }
+      }
+    }
+    return new PortletFragmentKey(name, windowName, getPreferencesDigest(context, preferences),
+        fingerprint, user.getUserPreferences().getLanguage(), version);
+  }
+
+  /**
+   * Gets the fragment identified by the specified key. If the fragment isn't in the cache, it is
+   * rendered with the given renderer and then put into the cache. Only one rendering is performed
+   * at a time for a given key; the concurrent invocations wait for it and share its result.
+   * @param key the key of the fragment.
+   * @param renderer the renderer of the fragment.
+   * @return the fragment.
+   * @throws Exception the exception thrown by the renderer.
+   */
+  public PortletFragment render(final PortletFragmentKey key, final Renderer renderer)
+      throws Exception {
+    final Statistics stats =
+        statistics.computeIfAbsent(key.getPortletName(), n -> new Statistics());
+    PortletFragment fragment = getStore().get(key, PortletFragment.class);
+    if (fragment != null) {
+      stats.hits.increment();
+      return fragment;
+    }
+    final FutureTask<PortletFragment> task =
+        new FutureTask<>(() -> renderAndStore(key, renderer, stats));
+    final FutureTask<PortletFragment> rendering = renderings.putIfAbsent(key, task);
+    if (rendering == null) {
+      stats.misses.increment();
+      try {
+        task.run();
+      } finally {
+        renderings.remove(key, task);
+      }
+      return valueOf(task);
+    }
+    fragment = valueOf(rendering);
+    if (fragment.isShareable()) {
+      stats.hits.increment();
+    } else {
+      stats.misses.increment();
+      fragment = renderAndStore(key, renderer, stats);
+    }
+    return fragment;
+  }
+
+  /**
+   * Invalidates all the fragments depending on the specified topic.
+   * @param topic a topic.
+   */
+  public void invalidate(final String topic) {
+    versions.computeIfAbsent(topic, t -> new AtomicLong()).incrementAndGet();
+  }
+
+  /**
+   * Invalidates the fragments of the specified user depending on the specified topic.
+   * @param topic a topic.
+   * @param userId the unique identifier of a user.
+   */
+  public void invalidate(final String topic, final String userId) {
+    invalidate(userTopic(topic, userId));
+  }
+
+  /**
+   * Invalidates the fragments depending on the specified topic in the given component instance.
+   * @param topic a topic.
+   * @param componentId the unique identifier of a component instance.
+   */
+  public void invalidateComponent(final String topic, final String componentId) {
+    // the topic is recorded first so that a key computed meanwhile takes the version into account
+    topicsByComponent.add(topic);
+    invalidate(componentTopic(topic, componentId));
+  }
+
+  /**
+   * Invalidates the fragments rendered by the specified portlet window, for example because its
+   * preferences were stored.
+   * @param windowName the name of a portlet window.
+   */
+  public void invalidateWindow(final String windowName) {
+    invalidate(windowTopic(windowName));
+  }
+
+  /**
+   * Gets the statistics of the cache for each portlet whose fragments were requested.
+   * @return the statistics indexed by the name of the portlets.
+   */
+  public Map<String, Statistics> getStatistics() {
+    return Collections.unmodifiableMap(statistics);
+  }
+
+  /**
+   * Gets the version of the organization as seen by the specified user.
+   * @param userId the unique identifier of a user.
+   * @return the version of the organization for the user.
+   */
+  protected long getOrganizationVersion(final String userId) {
+    return OrganizationController.get().getOrganizationVersion(userId);
+  }
+
+  /**
+   * Gets the component instances accessible by the specified user.
+   * @param userId the unique identifier of a user.
+   * @return the identifiers of the component instances.
+   */
+  protected String[] getAvailableComponentIds(final String userId) {
+    return OrganizationController.get().getAvailCompoIds(userId);
+  }
+
+  /**
+   * Gets the component instances in the specified space and in its subspaces.
+   * @param spaceId the unique identifier of a space.
+   * @return the identifiers of the component instances.
+   */
+  protected String[] getSpaceComponentIds(final String spaceId) {
+    return OrganizationController.get().getAllComponentIdsRecur(spaceId);
+  }
+
+  /**
+   * Gets the profiles of the specified user in the given component instance.
+   * @param userId the unique identifier of a user.
+   * @param componentId the unique identifier of a component instance.
+   * @return the profiles of the user.
+   */
+  protected String[] getComponentProfiles(final String userId, final String componentId) {
+    return OrganizationController.get().getUserProfiles(userId, componentId);
+  }
+
+  /**
+   * Gets the profiles of the specified user on the topics with specific rights of the given
+   * component instance.
+   * @param userId the unique identifier of a user.
+   * @param componentId the unique identifier of a component instance.
+   * @return the profiles of the user indexed by the identifiers of the topics. Empty if the rights
+   * on the topics aren't enabled in the component instance.
+   */
+  protected Map<Integer, List<String>> getTopicProfiles(final String userId,
+      final String componentId) {
+    if (!ServiceProvider.getService(ComponentAccessControl.class)
+        .isRightOnTopicsEnabled(componentId)) {
+      return Collections.emptyMap();
+    }
+    return OrganizationController.get().getUserObjectProfiles(userId, componentId,
+        ObjectType.NODE);
+  }
+
+  private Cache getStore() {
+    return CacheServiceProvider.getApplicationCacheService().getCache();
+  }
+
+  private PortletFragment renderAndStore(final PortletFragmentKey key, final Renderer renderer,
+      final Statistics stats) throws Exception {
+    final long start = System.nanoTime();
+    final PortletFragment fragment = renderer.render();
+    final long duration = System.nanoTime() - start;
+    stats.renderings.increment();
+    stats.renderTime.add(duration);
+    if (fragment.isShareable()) {
+      getStore().put(key, fragment, timeToLive);
+    }
+    logger.debug(() -> key.getPortletName() + " rendered in " + duration / 1_000_000 + " ms (" +
+        stats + ")");
+    return fragment;
+  }
+
+  private long getVersion(final String topic) {
+    final AtomicLong version = versions.get(topic);
+    return version == null ? 0 : version.get();
+  }
+
+  /**
+   * Gets the fingerprint of the rights of the specified user. It is kept in the application cache
+   * for the time to live of the fragments, so that the memory taken by the fingerprints is bounded
+   * like the one taken by the fragments, and it is computed again as soon as the organization
+   * changes.
+   */
+  private String getRightsFingerprint(final User user) {
+    final long organizationVersion = getOrganizationVersion(user.getId());
+    final String key = FINGERPRINT_PREFIX + user.getId();
+    Fingerprint fingerprint = getStore().get(key, Fingerprint.class);
+    if (fingerprint == null || fingerprint.version != organizationVersion) {
+      final String[] componentIds = getAvailableComponentIds(user.getId()).clone();
+      Arrays.sort(componentIds);
+      final StringBuilder rights = new StringBuilder(user.getAccessLevel().name()).append(':')
+          .append(String.join(",", componentIds));
+      for (String componentId : componentIds) {
+        final String[] componentProfiles = getComponentProfiles(user.getId(), componentId).clone();
+        Arrays.sort(componentProfiles);
+        rights.append(';').append(componentId).append('=')
+            .append(String.join(",", componentProfiles));
+        new TreeMap<>(getTopicProfiles(user.getId(), componentId)).forEach((topicId, profiles) -> {
+          final List<String> sortedProfiles = new ArrayList<>(profiles);
+          Collections.sort(sortedProfiles);
+          rights.append(';').append(componentId).append('/').append(topicId).append('=')
+              .append(String.join(",", sortedProfiles));
+        });
+      }
+      fingerprint = new Fingerprint(organizationVersion,
+          "rights:" + DigestUtils.sha256Hex(rights.toString()));
+      getStore().put(key, fingerprint, timeToLive);
+    }
+    return fingerprint.value;
+  }
+
+  private static String getPreferencesDigest(final String context,
+      final Map<String, String[]> preferences) {
+    final StringBuilder settings = new StringBuilder(String.valueOf(context));
+    new TreeMap<>(preferences).forEach((name, values) -> settings.append(';').append(name)
+        .append('=').append(values == null ? "" : String.join(",", values)));
+    return DigestUtils.sha256Hex(settings.toString());
+  }
+
+  private static String userTopic(final String topic, final String userId) {
+    return topic + "@" + userId;
+  }
+
+  /**
+   * Gets the component instances whose the content can be displayed in the specified context.
+   */
+  private String[] getContextComponentIds(final String context, final String userId) {
+    if (context != null && context.startsWith(SPACE_CONTEXT)) {
+      return getSpaceComponentIds(context.substring(SPACE_CONTEXT.length()));
+    }
+    return getAvailableComponentIds(userId);
+  }
+
+  private static String componentTopic(final String topic, final String componentId) {
+    return topic + "#" + componentId;
+  }
+
+  private static String windowTopic(final String windowName) {
+    return "window@" + windowName;
+  }
+
+  private static PortletFragment valueOf(final FutureTask<PortletFragment> task)
+      throws Exception {
+    try {
+      return task.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw e;
+    } catch (ExecutionException e) {
+      final Throwable cause = e.getCause();
+      if (cause instanceof Exception) {
+        throw (Exception) cause;
+      } else if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw e;
+    }
+  }
+
+  /**
+   * The scope of the fragments of a portlet.
+   */
+  public enum Scope {
+    /**
+     * The fragments are shared by the users having the same rights.
+     */
+    SHARED,
+    /**
+     * The fragments are proper to each user.
+     */
+    USER
+  }
+
+  /**
+   * A renderer of a fragment.
+   */
+  @FunctionalInterface
+  public interface Renderer {
+
+    /**
+     * Renders the fragment.
+     * @return the rendered fragment.
+     * @throws Exception if the rendering fails.
+     */
+    PortletFragment render() throws Exception;
+  }
+
+  /**
+   * Statistics about the fragments of a portlet.
+   */
+  public static final class Statistics {
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder renderings = new LongAdder();
+    private final LongAdder renderTime = new LongAdder();
+
+    /**
+     * Gets the number of requests served without rendering the fragment.
+     * @return the number of hits.
+     */
+    public long getHits() {
+      return hits.sum();
+    }
+
+    /**
+     * Gets the number of requests for which the fragment was rendered.
+     * @return the number of misses.
+     */
+    public long getMisses() {
+      return misses.sum();
+    }
+
+    /**
+     * Gets the ratio of the hits on all the requests.
+     * @return a ratio between 0 and 1.
+     */
+    public double getHitRatio() {
+      final long nbHits = getHits();
+      final long total = nbHits + getMisses();
+      return total == 0 ? 0 : (double) nbHits / total;
+    }
+
+    /**
+     * Gets the average time taken by the rendering of a fragment.
+     * @return the average rendering time in milliseconds.
+     */
+    public double getAverageRenderTime() {
+      final long nbRenderings = renderings.sum();
+      return nbRenderings == 0 ? 0 : renderTime.sum() / 1_000_000.0 / nbRenderings;
+    }
+
+    @Override
+    public String toString() {
+      return String.format("hits: %d, misses: %d, hit ratio: %.2f, average render time: %.1f ms",
+          getHits(), getMisses(), getHitRatio(), getAverageRenderTime());
+    }
+  }
+
+  private static class Policy {
+    private final Scope scope;
+    private final List<String> topics;
+
+    Policy(final Scope scope, final List<String> topics) {
+      this.scope = scope;
+      this.topics = topics;
+    }
+  }
+
+  private static class Fingerprint {
+    private final long version;
+    private final String value;
+
+    Fingerprint(final long version, final String value) {
+      this.version = version;
+      this.value = value;
+    }
+  }
+}
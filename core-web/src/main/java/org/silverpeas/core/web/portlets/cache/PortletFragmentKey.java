@@ -0,0 +1,104 @@
+/*
+ * Copyright (C) 2000 - 2018 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.web.portlets.cache;
+
+import java.util.Objects;
+
+/**
+ * The key of a fragment in the {@link PortletFragmentCache}. A rendered fragment is identified
+ * by the portlet, the window (instance) of the portlet, a digest of the context and of the
+ * preferences of the window, the fingerprint of the rights of the users sharing the fragment, the
+ * language of the fragment and the version of the resources from which the fragment was
+ * rendered.
+ */
+public final class PortletFragmentKey {
+
+  private final String portletName;
+  private final String windowName;
+  private final String preferencesDigest;
+  private final String rightsFingerprint;
+  private final String language;
+  private final long version;
+
+  PortletFragmentKey(final String portletName, final String windowName,
+      final String preferencesDigest, final String rightsFingerprint, final String language,
+      final long version) {
+    this.portletName = portletName;
+    this.windowName = windowName;
+    this.preferencesDigest = preferencesDigest;
+    this.rightsFingerprint = rightsFingerprint;
+    this.language = language;
+    this.version = version;
+  }
+
+  public String getPortletName() {
+    return portletName;
+  }
+
+  public String getWindowName() {
+    return windowName;
+  }
+
+  public String getPreferencesDigest() {
+    return preferencesDigest;
+  }
+
+  public String getRightsFingerprint() {
+    return rightsFingerprint;
+  }
+
+  public String getLanguage() {
+    return language;
+  }
+
+  public long getVersion() {
+    return version;
+  }
+
+  @Override
+  public boolean equals(final Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    final PortletFragmentKey that = (PortletFragmentKey) o;
+    return version == that.version && portletName.equals(that.portletName) &&
+        windowName.equals(that.windowName) && preferencesDigest.equals(that.preferencesDigest) &&
+        rightsFingerprint.equals(that.rightsFingerprint) && Objects.equals(language, that.language);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(portletName, windowName, preferencesDigest, rightsFingerprint, language,
+        version);
+  }
+
+  @Override
+  public String toString() {
+    return "PortletFragmentKey{" + portletName + ", " + windowName + ", " + preferencesDigest +
+        ", " + rightsFingerprint + ", " + language + ", " + version + "}";
+  }
+}
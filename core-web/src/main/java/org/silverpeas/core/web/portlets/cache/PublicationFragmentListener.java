@@ -0,0 +1,56 @@
+/*
+ * Copyright (C) 2000 - 2018 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.web.portlets.cache;
+
+import org.silverpeas.core.contribution.publication.model.PublicationDetail;
+import org.silverpeas.core.contribution.publication.notification.PublicationEvent;
+import org.silverpeas.core.notification.system.CDIAfterSuccessfulTransactionResourceEventListener;
+
+/**
+ * Listener of the changes on the publications in order to invalidate the cached fragments of the
+ * portlets listing the publications of the component instance of the publication. As the listener
+ * is invoked after the commit of the change, a fragment rendered from then can only see the new
+ * state of the publication.
+ */
+public class PublicationFragmentListener
+    extends CDIAfterSuccessfulTransactionResourceEventListener<PublicationEvent> {
+
+  @Override
+  public void dispatchEvent(final PublicationEvent event) {
+    final PublicationDetail before = event.getTransition().getBefore();
+    final PublicationDetail after = event.getTransition().getAfter();
+    final PortletFragmentCache cache = PortletFragmentCache.get();
+    if (before != null) {
+      cache.invalidateComponent(PortletFragmentCache.PUBLICATION, before.getInstanceId());
+    }
+    // the publication has been created or moved into another component instance
+    if (after != null && (before == null || isMoved(before, after))) {
+      cache.invalidateComponent(PortletFragmentCache.PUBLICATION, after.getInstanceId());
+    }
+  }
+
+  private static boolean isMoved(final PublicationDetail before, final PublicationDetail after) {
+    return !before.getInstanceId().equals(after.getInstanceId());
+  }
+}
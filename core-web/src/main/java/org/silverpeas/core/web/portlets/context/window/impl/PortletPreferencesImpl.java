@@ -29,6 +29,7 @@ import com.sun.portal.portletcontainer.common.PortletPreferencesUtility;
 import com.sun.portal.portletcontainer.common.PreferencesValidatorSetter;
 import com.sun.portal.portletcontainer.context.registry.PortletRegistryContext;
 import com.sun.portal.portletcontainer.portlet.impl.PortletResourceBundle;
+import org.silverpeas.core.web.portlets.cache.PortletFragmentCache;
 
 import javax.portlet.PortletPreferences;
 import javax.portlet.PortletRequest;
@@ -277,6 +278,8 @@ public class PortletPreferencesImpl implements PortletPreferences, PreferencesVa
         preferencesValidator.validate(this);
       }
       savePrefMap();
+      // the fragments rendered with the previous preferences mustn't be served anymore
+      PortletFragmentCache.get().invalidateWindow(portletWindowName);
     }
   }
 
@@ -24,19 +24,27 @@
 package org.silverpeas.core.web.portlets.portal.portletwindow;
 
 import com.sun.portal.container.*;
+import com.sun.portal.portletcontainer.common.PortletContainerConstants;
 import com.sun.portal.portletcontainer.invoker.InvokerException;
 import com.sun.portal.portletcontainer.invoker.WindowErrorCode;
+import com.sun.portal.portletcontainer.invoker.WindowException;
 import com.sun.portal.portletcontainer.invoker.WindowInvoker;
+import org.silverpeas.core.admin.user.model.User;
 import org.silverpeas.core.ui.DisplayI18NHelper;
 import org.silverpeas.core.util.LocalizationBundle;
 import org.silverpeas.core.util.ResourceLocator;
 import org.silverpeas.core.web.mvc.controller.MainSessionController;
+import org.silverpeas.core.web.portlets.cache.PortletFragment;
+import org.silverpeas.core.web.portlets.cache.PortletFragmentCache;
+import org.silverpeas.core.web.portlets.cache.PortletFragmentKey;
 
 import javax.servlet.ServletContext;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpSession;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
@@ -66,6 +74,77 @@ public class PortletWindowInvoker extends WindowInvoker {
     this.windowRequestReader = new PortletWindowRequestReader();
   }
 
+  /**
+   * Renders the content of the portlet window through the {@link PortletFragmentCache} when the
+   * fragments of its portlet are cached and when the window is displayed in its default state,
+   * that is to say in the view mode, in the normal state and without any render parameters.
+   */
+  @Override
+  protected StringBuffer renderContent(HttpServletRequest request, HttpServletResponse response)
+      throws InvokerException, WindowException {
+    final PortletFragmentKey key = getFragmentKey(request);
+    if (key == null) {
+      return super.renderContent(request, response);
+    }
+    final PortletFragment fragment;
+    try {
+      fragment = PortletFragmentCache.get().render(key, () -> {
+        final StringBuffer markup = super.renderContent(request, response);
+        return new PortletFragment(markup, super.getTitle(), getResponseProperties() == null);
+      });
+    } catch (InvokerException | WindowException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new InvokerException("PortletWindowInvoker.renderContent():"
+          + " couldn't render the portlet window " + getPortletWindowName(), e);
+    }
+    setTitle(fragment.getTitle());
+    return fragment.getMarkup() == null ? null : new StringBuffer(fragment.getMarkup());
+  }
+
+  private PortletFragmentKey getFragmentKey(HttpServletRequest request)
+      throws InvokerException {
+    PortletFragmentCache cache = PortletFragmentCache.get();
+    if (!cache.isEnabled() || !ChannelMode.VIEW.equals(getCurrentPortletWindowMode(request)) ||
+        !ChannelState.NORMAL.equals(getCurrentWindowState(request)) ||
+        hasRenderParameters(request)) {
+      return null;
+    }
+    String portletName =
+        PortletWindowInvokerUtils.getPortletName(getPortletWindowContext(), getPortletWindowName());
+    // the portlet windows are registered either for a space or for a user
+    String spaceId = (String) request.getAttribute("SpaceId");
+    String context = isDefined(spaceId) ? PortletFragmentCache.spaceContext(spaceId) :
+        PortletFragmentCache.userContext((String) request.getAttribute("UserId"));
+    Map<String, String[]> preferences =
+        PortletWindowInvokerUtils.getPreferences(getPortletWindowContext(), getPortletWindowName());
+    return cache.getKey(portletName, getPortletWindowName(), context, preferences,
+        User.getCurrentRequester());
+  }
+
+  /**
+   * Has the portlet window some render parameters, either in the request because the window is
+   * targeted by it or in the session because they were set by a previous action on the window?
+   */
+  private boolean hasRenderParameters(HttpServletRequest request) {
+    String windowName = getPortletWindowName();
+    if (windowName.equals(request.getParameter(PORTLET_WINDOW_KEY))) {
+      return true;
+    }
+    HttpSession session = request.getSession(false);
+    if (session != null) {
+      Enumeration<String> names = session.getAttributeNames();
+      while (names.hasMoreElements()) {
+        String name = names.nextElement();
+        if (name.startsWith(PortletContainerConstants.RENDER_PARAM_PREFIX) &&
+            name.contains(windowName)) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
   /**
    * Implementation of the abstract method defined in the base class. Get the user profile
    * information for the current user. The implementation uses the configured logical to physical
@@ -55,6 +55,33 @@ public class PortletWindowInvokerUtils {
     }
   }
 
+  /**
+   * Returns the name of the portlet of a portlet window. It is stored in the registry during
+   * deployment time.
+   */
+  public static String getPortletName(PortletWindowContext pwc,
+      String portletWindowName) throws InvokerException {
+    try {
+      return pwc.getPortletName(portletWindowName);
+    } catch (PortletWindowContextException pwce) {
+      throw new InvokerException("PortletWindowInvokerUtils.getPortletName():"
+          + " couldn't get portlet name for portlet window " + portletWindowName, pwce);
+    }
+  }
+
+  /**
+   * Returns the preferences of a portlet window for the current user. They are read only.
+   */
+  public static Map<String, String[]> getPreferences(PortletWindowContext pwc,
+      String portletWindowName) throws InvokerException {
+    try {
+      return pwc.getPreferences(portletWindowName, null, true).getMap();
+    } catch (PortletWindowContextException pwce) {
+      throw new InvokerException("PortletWindowInvokerUtils.getPreferences():"
+          + " couldn't get preferences for portlet window " + portletWindowName, pwce);
+    }
+  }
+
   /**
    * Gets the userInfoMap property for a portlet window. It is stored in the registry during
    * deployment time.
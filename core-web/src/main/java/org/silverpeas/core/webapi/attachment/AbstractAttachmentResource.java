@@ -28,10 +28,19 @@ import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.Response.Status;
 import javax.ws.rs.core.StreamingOutput;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.StringTokenizer;
 
+import org.apache.commons.io.FilenameUtils;
 import org.silverpeas.core.contribution.attachment.AttachmentServiceProvider;
 import org.silverpeas.core.contribution.attachment.model.SimpleDocument;
 import org.silverpeas.core.contribution.attachment.model.SimpleDocumentPK;
+import org.silverpeas.core.util.MimeTypes;
+import org.silverpeas.core.util.StreamingZipWriter;
 
 import org.silverpeas.core.webapi.base.RESTWebService;
 
@@ -65,6 +74,59 @@ public abstract class AbstractAttachmentResource extends RESTWebService {
     return Response.ok().entity(data).type(attachment.getContentType()).build();
   }
 
+  /**
+   * Gets the content of the specified attachments as a zip archive. The archive is built on the
+   * fly directly into the response, so no temporary file is written and the download starts as
+   * soon as the first attachment is compressed. Several attachments can have the same file name;
+   * their entries in the archive are then suffixed with a counter to be distinct.
+   * @param attachmentIds the comma-separated identifiers of the attachments to zip.
+   * @param archiveName the name of the archive to give to the client.
+   * @return the response streaming the zip archive.
+   */
+  protected Response getZipContentOf(String attachmentIds, String archiveName) {
+    final List<SimpleDocument> attachments = new ArrayList<>();
+    final StringTokenizer tokenizer = new StringTokenizer(attachmentIds, ",");
+    while (tokenizer.hasMoreTokens()) {
+      SimpleDocument attachment = AttachmentServiceProvider.getAttachmentService()
+          .searchDocumentById(new SimpleDocumentPK(tokenizer.nextToken()), null)
+          .getLastPublicVersion();
+      if (!isFileReadable(attachment)) {
+        throw new WebApplicationException(Status.UNAUTHORIZED);
+      }
+      attachments.add(attachment);
+    }
+    StreamingOutput data = output -> {
+      final Set<String> entryNames = new HashSet<>(attachments.size());
+      try (StreamingZipWriter zip = new StreamingZipWriter(output)) {
+        for (SimpleDocument attachment : attachments) {
+          zip.addFile(new File(attachment.getAttachmentPath()),
+              getUniqueEntryName(attachment.getFilename(), entryNames));
+        }
+      }
+    };
+    return Response.ok().entity(data).type(MimeTypes.SHORT_ARCHIVE_MIME_TYPE)
+        .header("Content-Disposition", String.format("attachment;filename=\"%s\"", archiveName))
+        .build();
+  }
+
+  /**
+   * Gets a name of entry in a zip archive that isn't already used. If the specified file name is
+   * already used, a counter is inserted before its extension: <code>report (2).pdf</code>.
+   * @param fileName the name of the file to put into the archive.
+   * @param usedNames the lower-cased names of the entries already in the archive. The returned
+   * name is added to them.
+   * @return a unique entry name.
+   */
+  static String getUniqueEntryName(final String fileName, final Set<String> usedNames) {
+    String entryName = fileName;
+    final String baseName = FilenameUtils.removeExtension(fileName);
+    final String extension = fileName.substring(baseName.length());
+    for (int i = 2; !usedNames.add(entryName.toLowerCase()); i++) {
+      entryName = baseName + " (" + i + ")" + extension;
+    }
+    return entryName;
+  }
+
   protected abstract boolean isFileReadable(SimpleDocument attachment);
 
 }
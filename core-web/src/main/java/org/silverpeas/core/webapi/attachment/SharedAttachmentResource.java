@@ -23,38 +23,20 @@
  */
 package org.silverpeas.core.webapi.attachment;
 
-import org.apache.commons.io.FileUtils;
-import org.apache.commons.io.IOUtils;
-import org.apache.commons.io.output.ByteArrayOutputStream;
 import org.silverpeas.core.annotation.RequestScoped;
 import org.silverpeas.core.annotation.Service;
-import org.silverpeas.core.contribution.attachment.AttachmentServiceProvider;
 import org.silverpeas.core.contribution.attachment.model.SimpleDocument;
-import org.silverpeas.core.contribution.attachment.model.SimpleDocumentPK;
 import org.silverpeas.core.sharing.model.Ticket;
 import org.silverpeas.core.sharing.security.ShareableAttachment;
 import org.silverpeas.core.sharing.services.SharingServiceProvider;
 import org.silverpeas.core.util.MimeTypes;
-import org.silverpeas.core.util.ZipUtil;
-import org.silverpeas.core.util.file.FileRepositoryManager;
 
 import javax.ws.rs.GET;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
-import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
-import javax.ws.rs.core.Response.Status;
-import javax.ws.rs.core.UriBuilderException;
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.IOException;
-import java.io.InputStream;
-import java.io.OutputStream;
-import java.net.URI;
-import java.util.StringTokenizer;
-import java.util.UUID;
 
 /**
  * A REST Web resource providing access to attachments through sharing mode.
@@ -81,77 +63,19 @@ public class SharedAttachmentResource extends AbstractAttachmentResource {
     return super.getFileContent(attachmentId);
   }
 
+  /**
+   * Gets the specified attachments as a zip archive streamed directly to the client. No file is
+   * written on the server.
+   * @param attachmentIds the comma-separated identifiers of the attachments.
+   * @return the response streaming the zip archive.
+   */
   @GET
   @Path("{ids}/zip")
-  @Produces(MediaType.APPLICATION_JSON)
-  public ZipEntity zipFiles(@PathParam("ids") String attachmentIds) {
-    StringTokenizer tokenizer = new StringTokenizer(attachmentIds, ",");
-    File folderToZip = FileUtils.getFile(
-        FileRepositoryManager.getTemporaryPath(), UUID.randomUUID().toString());
-    while (tokenizer.hasMoreTokens()) {
-      SimpleDocument attachment = AttachmentServiceProvider.getAttachmentService().
-          searchDocumentById(new SimpleDocumentPK(tokenizer.nextToken()), null)
-          .getLastPublicVersion();
-      if (!isFileReadable(attachment)) {
-        throw new WebApplicationException(Status.UNAUTHORIZED);
-      }
-      OutputStream out = null;
-      try {
-        out = FileUtils.openOutputStream(FileUtils.getFile(folderToZip, attachment.getFilename()));
-        AttachmentServiceProvider.getAttachmentService()
-            .getBinaryContent(out, attachment.getPk(), null);
-      } catch (IOException e) {
-        throw new WebApplicationException(Status.INTERNAL_SERVER_ERROR);
-      } finally {
-        IOUtils.closeQuietly(out);
-      }
-    }
-    try {
-      File zipFile = FileUtils.getFile(folderToZip.getPath() + ".zip");
-      URI downloadUri = getUri().getWebResourcePathBuilder()
-          .path(getToken())
-          .path("zipcontent")
-          .path(zipFile.getName())
-          .build();
-      long size = ZipUtil.compressPathToZip(folderToZip, zipFile);
-      return new ZipEntity(getUri().getRequestUri(), downloadUri.toString(), size);
-    } catch (IllegalArgumentException e) {
-      throw new WebApplicationException(Status.INTERNAL_SERVER_ERROR);
-    } catch (UriBuilderException e) {
-      throw new WebApplicationException(Status.INTERNAL_SERVER_ERROR);
-    } catch (IOException e) {
-      throw new WebApplicationException(Status.INTERNAL_SERVER_ERROR);
-    } finally {
-      FileUtils.deleteQuietly(folderToZip);
-    }
+  @Produces(MimeTypes.SHORT_ARCHIVE_MIME_TYPE)
+  public Response zipFiles(@PathParam("ids") String attachmentIds) {
+    return getZipContentOf(attachmentIds, getToken() + ".zip");
   }
 
-  @GET
-  @Path("zipcontent/{name}")
-  @Produces(MediaType.APPLICATION_OCTET_STREAM)
-  public Response getZipContent(@PathParam("name") String zipFileName) {
-    String zipFilePath = FileRepositoryManager.getTemporaryPath() + zipFileName;
-    File realFile = new File(zipFilePath);
-    if (!realFile.exists() && !realFile.isFile()) {
-      return Response.ok().build();
-    } else {
-      ByteArrayOutputStream output = new ByteArrayOutputStream();
-      InputStream in = null;
-      try {
-        in = new FileInputStream(realFile);
-        output.write(in);
-        return Response.ok().entity(output.toByteArray()).type(MimeTypes.SHORT_ARCHIVE_MIME_TYPE).
-            build();
-      } catch (IOException e) {
-        throw new WebApplicationException(Status.INTERNAL_SERVER_ERROR);
-      } finally {
-        IOUtils.closeQuietly(in);
-        IOUtils.closeQuietly(output);
-      }
-    }
-  }
-
-
   @Override
   @SuppressWarnings("unchecked")
   protected boolean isFileReadable(SimpleDocument attachment) {
@@ -0,0 +1,83 @@
+/*
+ * Copyright (C) 2000 - 2018 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.webapi.util.metrics;
+
+import org.silverpeas.core.annotation.RequestScoped;
+import org.silverpeas.core.annotation.Service;
+import org.silverpeas.core.util.metrics.MetricRegistry;
+import org.silverpeas.core.util.metrics.PrometheusTextFormat;
+import org.silverpeas.core.webapi.base.RESTWebService;
+import org.silverpeas.core.webapi.base.UserPrivilegeValidation;
+import org.silverpeas.core.webapi.base.annotation.Authorized;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+
+/**
+ * A Web resource publishing the metrics of Silverpeas in the text exposition format of
+ * Prometheus, so that they can be scraped with the API token of an administrator. It is a
+ * REST-based Web service.
+ * @see MetricRegistry
+ */
+@Service
+@RequestScoped
+@Authorized
+@Path(MetricResource.METRICS_PATH)
+public class MetricResource extends RESTWebService {
+
+  static final String METRICS_PATH = "metrics";
+
+  @Override
+  public void validateUserAuthorization(final UserPrivilegeValidation validation) {
+    if (!getUser().isAccessAdmin()) {
+      throw new WebApplicationException("Only administrators can read the metrics!",
+          Response.Status.FORBIDDEN);
+    }
+  }
+
+  /**
+   * Gets the measures of all the registered meters.
+   * @return the measures in the text exposition format of Prometheus. It is empty when the
+   * metrics are disabled.
+   */
+  @GET
+  @Produces({PrometheusTextFormat.CONTENT_TYPE, MediaType.TEXT_PLAIN})
+  public String getMetrics() {
+    return PrometheusTextFormat.format(MetricRegistry.get().getMeters());
+  }
+
+  @Override
+  protected String getResourceBasePath() {
+    return METRICS_PATH;
+  }
+
+  @Override
+  public String getComponentId() {
+    return null;
+  }
+}
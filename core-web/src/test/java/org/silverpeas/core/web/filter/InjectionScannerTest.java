@@ -0,0 +1,164 @@
+/*
+ * Copyright (C) 2000 - 2018 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.web.filter;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.silverpeas.core.test.UnitTest;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+
+/**
+ * Unit tests on the single pass scanning of the request parameter values. The semantic of the
+ * detections is covered more widely by the integration tests of {@link MassiveWebSecurityFilter}.
+ */
+@UnitTest
+class InjectionScannerTest {
+
+  private static final InjectionScanner.WordSet TABLES =
+      InjectionScanner.WordSet.of(Arrays.asList("ST_Space_Space", "catalogs", "sb_node_node"));
+
+  private InjectionScanner scanner;
+
+  @BeforeEach
+  void createScanner() {
+    scanner = new InjectionScanner();
+  }
+
+  @Test
+  void sqlStatementsNotOnTablesAreDetected() {
+    assertThat(isSql("GRANT SELECT ON suppliers TO smithj"), is(true));
+    assertThat(isSql("s \t\f\nREVOKE SELECT ON suppliers FROM smithj"), is(true));
+    assertThat(isSql("GRANT /* */TOTO,SELECT,UPDATE/* */ ON suppliers FROM smithj"), is(true));
+    assertThat(isSql("GRANT insertS ON suppliers TO smithj"), is(true));
+    assertThat(isSql("Ù;dRoP\nDATaBase aResource"), is(true));
+
+    assertThat(isSql("miGRANT SELECT ON suppliers TO smithj"), is(false));
+    assertThat(isSql("ÂGRANT SELECT ON suppliers TO smithj"), is(false));
+    assertThat(isSql("GRANT/* */SELECT/* */ON suppliers FROM smithj"), is(false));
+    assertThat(isSql("GRANT SELECT;ON suppliers TO smithj"), is(false));
+    assertThat(isSql("REVOKE SELECT ONs suppliers"), is(false));
+    assertThat(isSql("cReAte TAbles aResource"), is(false));
+    assertThat(isSql("GRANT SELECT\u2028 ON suppliers TO smithj"), is(false));
+  }
+
+  @Test
+  void sqlStatementsOnTablesAreDetectedWithTheKnownTableNames() {
+    assertThat(isSql("SELECT * FRoM catalogs"), is(true));
+    assertThat(isSql("SELECT *, 'st_space_space' FRoM (select * from tata)"), is(true));
+    assertThat(isSql("INSERT inTo sb_node_node (id) values"), is(true));
+    assertThat(isSql("uPdaTe\r\ncatalogs^y\r\nset"), is(true));
+    assertThat(isSql("DeleTe from catalogs"), is(true));
+
+    assertThat(isSql("SELECT ; FRoM catalog"), is(false));
+    assertThat(isSql("SELECT * FRoMcatalogs"), is(false));
+    assertThat(isSql("INSERT/* */inTo catalogs (id) values"), is(false));
+    assertThat(isSql("INsERT inTo catalogsô (id) values"), is(false));
+    assertThat(isSql("uPdaTe\r\nµcatalogs\r\nset"), is(false));
+    assertThat(isSql("suPdaTe catalogs set"), is(false));
+  }
+
+  @Test
+  void allTheOccurrencesOfTheKeywordsAreConsidered() {
+    assertThat(isSql("xselect a from b, select * from catalogs"), is(true));
+    assertThat(isSql("select * from catalogs fromage"), is(true));
+  }
+
+  @Test
+  void scriptInjectionsAreDetected() {
+    assertThat(isXss("<script>"), is(true));
+    assertThat(isXss("ä< /script>"), is(true));
+    assertThat(isXss("<<<< \tscript\n"), is(true));
+    assertThat(isXss("<scr<iFrame src=''>"), is(true));
+
+    assertThat(isXss("script"), is(false));
+    assertThat(isXss("< \\ script  >"), is(false));
+    assertThat(isXss("<scrip t>"), is(false));
+  }
+
+  @Test
+  void onlyTheAskedInjectionsAreDetected() {
+    scanner.scan("<script>select * from catalogs</script>", false, true);
+    assertThat(scanner.isSqlStatementOnTablesFound(), is(false));
+    assertThat(scanner.isXssFound(), is(true));
+
+    scanner.scan("<script>select * from catalogs</script>", true, false);
+    assertThat(scanner.isSqlStatementOnTablesFound(), is(true));
+    assertThat(scanner.isXssFound(), is(false));
+  }
+
+  @Test
+  void theScanIsLinearWhateverTheContent() {
+    final String pattern = "grant select insert into ";
+    final String value = repeat(pattern, 1000);
+    final String hundredTimesLongerValue = repeat(pattern, 100000);
+    assertThat(isSql(value), is(false));
+    assertThat(isSql(hundredTimesLongerValue), is(false));
+    final long time = bestCpuTimeOfScanning(value);
+    final long timeOfHundredTimesLonger = bestCpuTimeOfScanning(hundredTimesLongerValue);
+    // a quadratic scan would take about 10000 times more time
+    assertThat(timeOfHundredTimesLonger, is(lessThan(1000 * time)));
+  }
+
+  /**
+   * Gets the best CPU time taken by the scan of the specified value among several runs, the
+   * first runs warming the scanner up.
+   */
+  private long bestCpuTimeOfScanning(final String value) {
+    final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    long best = Long.MAX_VALUE;
+    for (int i = 0; i < 10; i++) {
+      final long start = threads.getCurrentThreadCpuTime();
+      scanner.scan(value, true, true);
+      best = Math.min(best, threads.getCurrentThreadCpuTime() - start);
+    }
+    // the CPU time can be measured with a granularity of some milliseconds
+    return Math.max(best, 1000000L);
+  }
+
+  private static String repeat(final String pattern, final int times) {
+    final StringBuilder value = new StringBuilder(pattern.length() * times);
+    for (int i = 0; i < times; i++) {
+      value.append(pattern);
+    }
+    return value.toString();
+  }
+
+  private boolean isSql(final String value) {
+    scanner.scan(value, true, true);
+    return scanner.isSqlStatementFound() ||
+        (scanner.isSqlStatementOnTablesFound() && scanner.containsAnyWordOf(value, TABLES));
+  }
+
+  private boolean isXss(final String value) {
+    scanner.scan(value, true, true);
+    return scanner.isXssFound();
+  }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright (C) 2000 - 2018 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.web.filter;
+
+import com.carrotsearch.junitbenchmarks.BenchmarkOptions;
+import com.carrotsearch.junitbenchmarks.BenchmarkRule;
+import com.carrotsearch.junitbenchmarks.annotation.BenchmarkMethodChart;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TestRule;
+import org.silverpeas.core.test.UnitTest;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * Unit test to benchmark the single pass scanning of the request parameter values against the
+ * regular expressions it replaces, on some values representative of the requests.
+ */
+@UnitTest
+@BenchmarkMethodChart
+@BenchmarkOptions(benchmarkRounds = 1000, warmupRounds = 100)
+public class InjectionScanningTest {
+
+  @Rule
+  public TestRule benchmarkRun = new BenchmarkRule();
+
+  private static final InjectionScanner.WordSet TABLES =
+      InjectionScanner.WordSet.of(Arrays.asList("ST_User", "ST_Space_Space", "sb_node_node"));
+
+  private static final List<Pattern> SQL_PATTERNS = Arrays.asList(
+      Pattern.compile("(?i)(grant|revoke)" +
+          "(( .*|.* )(select|insert|update|delete|references|alter|index|all))+( .*|.* )on"),
+      Pattern.compile("(?i)(create|drop|alter)( .*|.* )(table|database|schema)"),
+      Pattern.compile("(?i)select.*from"),
+      Pattern.compile("(?i)insert( .*|.* )into.*values"),
+      Pattern.compile("(?i)update.*set"),
+      Pattern.compile("(?i)delete( .*|.* )from"));
+  private static final int FIRST_SQL_PATTERN_ON_TABLES = 2;
+  private static final Pattern TABLES_PATTERN =
+      Pattern.compile("(?i)\\b(ST_User|ST_Space_Space|sb_node_node)\\b");
+  private static final Pattern XSS_PATTERN = Pattern.compile("(?i)<[\\s/]*(script|iframe)");
+
+  private static final String TITLE = "Mise à jour de la sélection des documents de l'équipe";
+  private static final String INJECTION = "1' UNION SELECT login, password FROM ST_User --";
+  private static final String WYSIWYG_CONTENT = wysiwygContent();
+
+  private final InjectionScanner scanner = new InjectionScanner();
+
+  @Test
+  public void benchScanningOfATitle() {
+    assertThat(scan(TITLE), is(false));
+  }
+
+  @Test
+  public void benchRegExpsOnATitle() {
+    assertThat(matchRegExps(TITLE), is(false));
+  }
+
+  @Test
+  public void benchScanningOfAnInjection() {
+    assertThat(scan(INJECTION), is(true));
+  }
+
+  @Test
+  public void benchRegExpsOnAnInjection() {
+    assertThat(matchRegExps(INJECTION), is(true));
+  }
+
+  @Test
+  public void benchScanningOfAWysiwygContent() {
+    assertThat(scan(WYSIWYG_CONTENT), is(false));
+  }
+
+  @Test
+  public void benchRegExpsOnAWysiwygContent() {
+    assertThat(matchRegExps(WYSIWYG_CONTENT), is(false));
+  }
+
+  private boolean scan(final String value) {
+    scanner.scan(value, true, true);
+    return scanner.isSqlStatementFound() || scanner.isXssFound() ||
+        (scanner.isSqlStatementOnTablesFound() && scanner.containsAnyWordOf(value, TABLES));
+  }
+
+  /**
+   * Matches the specified value as it was done before the single pass scanning: the spaces are
+   * normalized and then each regular expression is applied in turn, a SQL statement on tables
+   * being verified deeply with the table names.
+   */
+  private boolean matchRegExps(final String value) {
+    final String normalizedValue = value.replaceAll("\\s+", " ");
+    for (int i = 0; i < SQL_PATTERNS.size(); i++) {
+      if (SQL_PATTERNS.get(i).matcher(normalizedValue).find() &&
+          (i < FIRST_SQL_PATTERN_ON_TABLES || TABLES_PATTERN.matcher(normalizedValue).find())) {
+        return true;
+      }
+    }
+    return XSS_PATTERN.matcher(normalizedValue).find();
+  }
+
+  /**
+   * Gets a content of about 20 KB as written in a WYSIWYG editor, with several words that are
+   * also SQL keywords.
+   */
+  private static String wysiwygContent() {
+    final String paragraph = "<p>Please <strong>select</strong> the documents from the list " +
+        "below and update the settings of each of them. All the changes are saved on the " +
+        "server once the form is validated; the values of the fields are then set for the " +
+        "whole team.</p>\n<ul><li>Index of the documents</li><li>References</li></ul>\n";
+    final StringBuilder content = new StringBuilder(20 * 1024);
+    while (content.length() < 20 * 1024) {
+      content.append(paragraph);
+    }
+    return content.toString();
+  }
+}
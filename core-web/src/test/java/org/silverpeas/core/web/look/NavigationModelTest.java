@@ -0,0 +1,98 @@
+/*
+ * Copyright (C) 2000 - 2018 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.web.look;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.silverpeas.core.admin.component.model.ComponentInst;
+import org.silverpeas.core.admin.service.OrganizationController;
+import org.silverpeas.core.test.UnitTest;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests on the navigation model of a user.
+ */
+@UnitTest
+public class NavigationModelTest {
+
+  private static final String USER_ID = "12";
+
+  private OrganizationController controller;
+
+  @BeforeEach
+  public void mockTheOrganization() {
+    controller = mock(OrganizationController.class);
+    when(controller.getOrganizationVersion(USER_ID)).thenReturn(3L);
+    when(controller.getAllRootSpaceIds(USER_ID)).thenReturn(new String[]{"WA1", "WA3"});
+    when(controller.getAllSubSpaceIds("WA1", USER_ID)).thenReturn(new String[]{"WA2"});
+    when(controller.getAvailCompoIds("WA1", USER_ID)).thenReturn(new String[]{"kmelia1", "blog2"});
+    when(controller.getAvailCompoIds("WA3", USER_ID)).thenReturn(new String[]{"kmelia3"});
+    when(controller.getComponentInst("kmelia1")).thenReturn(aComponent(true));
+    when(controller.getComponentInst("blog2")).thenReturn(aComponent(false));
+    when(controller.getComponentInst("kmelia3")).thenReturn(aComponent(true));
+  }
+
+  @Test
+  public void theOrganizationIsQueriedOnlyOnceForTheSameVersion() {
+    NavigationModel model = new NavigationModel(controller, USER_ID);
+    assertThat(model.getRootSpaceIds(), contains("WA1", "WA3"));
+    assertThat(model.getRootSpaceIds(), contains("WA1", "WA3"));
+    assertThat(model.getSubSpaceIds("WA1"), contains("WA2"));
+    assertThat(model.getSubSpaceIds("WA1"), contains("WA2"));
+    verify(controller, times(1)).getAllRootSpaceIds(USER_ID);
+    verify(controller, times(1)).getAllSubSpaceIds("WA1", USER_ID);
+    assertThat(model.getVersion(), is(3L));
+    assertThat(model.isUpToDate(), is(true));
+  }
+
+  @Test
+  public void theModelIsObsoleteOnceTheOrganizationChanged() {
+    NavigationModel model = new NavigationModel(controller, USER_ID);
+    when(controller.getOrganizationVersion(USER_ID)).thenReturn(4L);
+    assertThat(model.isUpToDate(), is(false));
+    assertThat(new NavigationModel(controller, USER_ID).isUpToDate(), is(true));
+  }
+
+  @Test
+  public void aSpaceIsVisibleOnlyWithANotHiddenComponent() {
+    NavigationModel model = new NavigationModel(controller, USER_ID);
+    assertThat(model.hasVisibleComponents("WA1"), is(true));
+    assertThat(model.hasVisibleComponents("WA3"), is(false));
+    assertThat(model.hasVisibleComponents("WA3"), is(false));
+    verify(controller, times(1)).getComponentInst("kmelia3");
+  }
+
+  private static ComponentInst aComponent(final boolean hidden) {
+    ComponentInst component = new ComponentInst();
+    component.setHidden(hidden);
+    return component;
+  }
+}
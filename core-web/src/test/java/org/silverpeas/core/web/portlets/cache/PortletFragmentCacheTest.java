@@ -0,0 +1,317 @@
+/*
+ * Copyright (C) 2000 - 2018 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.web.portlets.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.silverpeas.core.admin.user.constant.UserAccessLevel;
+import org.silverpeas.core.admin.user.model.User;
+import org.silverpeas.core.personalization.UserPreferences;
+import org.silverpeas.core.test.extention.EnableSilverTestEnv;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests on the cache of the fragments rendered by the portlets.
+ */
+@EnableSilverTestEnv
+public class PortletFragmentCacheTest {
+
+  private static final String SHARED_PORTLET = "LastPublicationsPortlet";
+  private static final String USER_PORTLET = "MyNotificationsPortlet";
+
+  private final Map<String, String[]> rights = new HashMap<>();
+  private final Map<String, Map<Integer, List<String>>> topicProfiles = new HashMap<>();
+  private final Map<String, String[]> componentProfiles = new HashMap<>();
+  private final Map<String, String[]> spaces = new HashMap<>();
+  private final Map<String, String[]> preferences = new HashMap<>();
+  private final AtomicInteger nbRenderings = new AtomicInteger();
+  private PortletFragmentCache cache;
+  private String window;
+  private long organizationVersion;
+
+  @BeforeEach
+  public void setUpTheCache() {
+    cache = new PortletFragmentCache() {
+      @Override
+      protected long getOrganizationVersion(final String userId) {
+        return organizationVersion;
+      }
+
+      @Override
+      protected String[] getAvailableComponentIds(final String userId) {
+        return rights.get(userId);
+      }
+
+      @Override
+      protected String[] getSpaceComponentIds(final String spaceId) {
+        return spaces.getOrDefault(spaceId, new String[0]);
+      }
+
+      @Override
+      protected String[] getComponentProfiles(final String userId, final String componentId) {
+        return componentProfiles.getOrDefault(userId + componentId, new String[]{"user"});
+      }
+
+      @Override
+      protected Map<Integer, List<String>> getTopicProfiles(final String userId,
+          final String componentId) {
+        return topicProfiles.getOrDefault(userId + componentId, Collections.emptyMap());
+      }
+    };
+    cache.enabled = true;
+    cache.setPolicy(SHARED_PORTLET, PortletFragmentCache.Scope.SHARED,
+        PortletFragmentCache.PUBLICATION);
+    cache.setPolicy(USER_PORTLET, PortletFragmentCache.Scope.USER,
+        PortletFragmentCache.NOTIFICATION);
+    // the fragments and the rights fingerprints are put in the application cache: each test uses
+    // then its own window and its own version of the organization
+    window = UUID.randomUUID().toString();
+    organizationVersion = System.nanoTime();
+    preferences.put("nbPublis", new String[]{"5"});
+    spaces.put("1", new String[]{"kmelia1", "blog2"});
+  }
+
+  @Test
+  public void aFragmentIsRenderedOnceAndThenServedFromTheCache() throws Exception {
+    User user = aUser("1", "kmelia1", "blog2");
+    PortletFragment first = cache.render(keyOf(SHARED_PORTLET, user), this::renderFragment);
+    PortletFragment second = cache.render(keyOf(SHARED_PORTLET, user), this::renderFragment);
+    assertThat(nbRenderings.get(), is(1));
+    assertThat(second.getMarkup(), is(first.getMarkup()));
+    assertThat(second.getTitle(), is("Title"));
+
+    PortletFragmentCache.Statistics statistics = cache.getStatistics().get(SHARED_PORTLET);
+    assertThat(statistics.getHits(), is(1L));
+    assertThat(statistics.getMisses(), is(1L));
+    assertThat(statistics.getHitRatio(), is(0.5));
+  }
+
+  @Test
+  public void aSharedFragmentIsServedToTheUsersHavingTheSameRights() throws Exception {
+    User user1 = aUser("1", "kmelia1", "blog2");
+    User user2 = aUser("2", "blog2", "kmelia1");
+    User user3 = aUser("3", "kmelia1");
+    cache.render(keyOf(SHARED_PORTLET, user1), this::renderFragment);
+    cache.render(keyOf(SHARED_PORTLET, user2), this::renderFragment);
+    assertThat(nbRenderings.get(), is(1));
+    cache.render(keyOf(SHARED_PORTLET, user3), this::renderFragment);
+    assertThat(nbRenderings.get(), is(2));
+  }
+
+  @Test
+  public void aSharedFragmentIsNotServedToTheUsersHavingOtherProfilesOnTheTopics()
+      throws Exception {
+    User user1 = aUser("1", "kmelia1");
+    User user2 = aUser("2", "kmelia1");
+    User user3 = aUser("3", "kmelia1");
+    topicProfiles.put("1kmelia1", Collections.singletonMap(12, Arrays.asList("user", "writer")));
+    topicProfiles.put("2kmelia1", Collections.singletonMap(12, Arrays.asList("writer", "user")));
+    topicProfiles.put("3kmelia1", Collections.singletonMap(12, Collections.singletonList("user")));
+    assertThat(keyOf(SHARED_PORTLET, user1), is(keyOf(SHARED_PORTLET, user2)));
+    assertThat(keyOf(SHARED_PORTLET, user1), not(keyOf(SHARED_PORTLET, user3)));
+    cache.render(keyOf(SHARED_PORTLET, user1), this::renderFragment);
+    cache.render(keyOf(SHARED_PORTLET, user2), this::renderFragment);
+    cache.render(keyOf(SHARED_PORTLET, user3), this::renderFragment);
+    assertThat(nbRenderings.get(), is(2));
+  }
+
+  @Test
+  public void aSharedFragmentIsNotServedToTheUsersHavingOtherProfilesInTheComponentInstances()
+      throws Exception {
+    User user1 = aUser("1", "kmelia1");
+    User user2 = aUser("2", "kmelia1");
+    User user3 = aUser("3", "kmelia1");
+    componentProfiles.put("1kmelia1", new String[]{"publisher", "user"});
+    componentProfiles.put("2kmelia1", new String[]{"user", "publisher"});
+    componentProfiles.put("3kmelia1", new String[]{"admin"});
+    assertThat(keyOf(SHARED_PORTLET, user1), is(keyOf(SHARED_PORTLET, user2)));
+    assertThat(keyOf(SHARED_PORTLET, user1), not(keyOf(SHARED_PORTLET, user3)));
+  }
+
+  @Test
+  public void aChangeInAComponentInstanceConcernsOnlyTheWindowsDisplayingIt() throws Exception {
+    User user = aUser("1", "kmelia1", "kmelia3");
+    PortletFragmentKey spaceKey = keyOf(SHARED_PORTLET, user);
+    PortletFragmentKey homepageKey = cache.getKey(SHARED_PORTLET, window,
+        PortletFragmentCache.userContext("1"), preferences, user);
+    cache.invalidateComponent(PortletFragmentCache.PUBLICATION, "kmelia3");
+    assertThat(keyOf(SHARED_PORTLET, user), is(spaceKey));
+    assertThat(cache.getKey(SHARED_PORTLET, window, PortletFragmentCache.userContext("1"),
+        preferences, user), not(homepageKey));
+
+    cache.render(keyOf(SHARED_PORTLET, user), this::renderFragment);
+    cache.invalidateComponent(PortletFragmentCache.PUBLICATION, "kmelia4");
+    cache.render(keyOf(SHARED_PORTLET, user), this::renderFragment);
+    assertThat(nbRenderings.get(), is(1));
+    cache.invalidateComponent(PortletFragmentCache.PUBLICATION, "blog2");
+    cache.render(keyOf(SHARED_PORTLET, user), this::renderFragment);
+    assertThat(nbRenderings.get(), is(2));
+  }
+
+  @Test
+  public void aFragmentDependsOnTheContextAndOnThePreferencesOfItsWindow() {
+    User user = aUser("1", "kmelia1");
+    PortletFragmentKey key = keyOf(SHARED_PORTLET, user);
+    assertThat(cache.getKey(SHARED_PORTLET, window, PortletFragmentCache.spaceContext("2"),
+        preferences, user), not(key));
+    preferences.put("nbPublis", new String[]{"10"});
+    assertThat(keyOf(SHARED_PORTLET, user), not(key));
+    preferences.put("nbPublis", new String[]{"5"});
+    assertThat(keyOf(SHARED_PORTLET, user), is(key));
+  }
+
+  @Test
+  public void aFragmentIsRenderedAgainOnceThePreferencesOfItsWindowAreStored() throws Exception {
+    User user = aUser("1", "kmelia1");
+    cache.render(keyOf(SHARED_PORTLET, user), this::renderFragment);
+    cache.invalidateWindow(UUID.randomUUID().toString());
+    cache.render(keyOf(SHARED_PORTLET, user), this::renderFragment);
+    assertThat(nbRenderings.get(), is(1));
+    cache.invalidateWindow(window);
+    cache.render(keyOf(SHARED_PORTLET, user), this::renderFragment);
+    assertThat(nbRenderings.get(), is(2));
+  }
+
+  @Test
+  public void aUserFragmentIsNeverSharedBetweenUsers() throws Exception {
+    User user1 = aUser("1", "kmelia1");
+    User user2 = aUser("2", "kmelia1");
+    assertThat(keyOf(USER_PORTLET, user1), not(keyOf(USER_PORTLET, user2)));
+    cache.render(keyOf(USER_PORTLET, user1), this::renderFragment);
+    cache.render(keyOf(USER_PORTLET, user2), this::renderFragment);
+    assertThat(nbRenderings.get(), is(2));
+  }
+
+  @Test
+  public void aFragmentIsRenderedAgainOnceItsTopicIsInvalidated() throws Exception {
+    User user = aUser("1", "kmelia1");
+    cache.render(keyOf(SHARED_PORTLET, user), this::renderFragment);
+    cache.invalidate(PortletFragmentCache.CALENDAR);
+    cache.render(keyOf(SHARED_PORTLET, user), this::renderFragment);
+    assertThat(nbRenderings.get(), is(1));
+    cache.invalidate(PortletFragmentCache.PUBLICATION);
+    cache.render(keyOf(SHARED_PORTLET, user), this::renderFragment);
+    assertThat(nbRenderings.get(), is(2));
+  }
+
+  @Test
+  public void anInvalidationForAUserConcernsOnlyTheFragmentsOfThisUser() throws Exception {
+    User user1 = aUser("1", "kmelia1");
+    User user2 = aUser("2", "kmelia1");
+    PortletFragmentKey keyOfUser2 = keyOf(USER_PORTLET, user2);
+    cache.render(keyOf(USER_PORTLET, user1), this::renderFragment);
+    cache.render(keyOfUser2, this::renderFragment);
+    cache.invalidate(PortletFragmentCache.NOTIFICATION, "1");
+    assertThat(keyOf(USER_PORTLET, user2), is(keyOfUser2));
+    cache.render(keyOf(USER_PORTLET, user1), this::renderFragment);
+    cache.render(keyOf(USER_PORTLET, user2), this::renderFragment);
+    assertThat(nbRenderings.get(), is(3));
+  }
+
+  @Test
+  public void aNotShareableFragmentIsNotCached() throws Exception {
+    User user = aUser("1", "kmelia1");
+    cache.render(keyOf(SHARED_PORTLET, user), () -> {
+      nbRenderings.incrementAndGet();
+      return new PortletFragment("<p>cookie</p>", "Title", false);
+    });
+    cache.render(keyOf(SHARED_PORTLET, user), this::renderFragment);
+    assertThat(nbRenderings.get(), is(2));
+  }
+
+  @Test
+  public void theFragmentsOfAPortletNotDeclaredAreNotCached() {
+    User user = aUser("1", "kmelia1");
+    assertThat(keyOf("HelloSilverpeasPortlet", user), nullValue());
+    assertThat(keyOf("silverpeas." + SHARED_PORTLET, user), notNullValue());
+    cache.enabled = false;
+    assertThat(keyOf(SHARED_PORTLET, user), nullValue());
+  }
+
+  @Test
+  public void concurrentRequestsForAMissingFragmentRenderItOnlyOnce() throws Exception {
+    final int nbRequests = 8;
+    final User user = aUser("1", "kmelia1");
+    final CountDownLatch waiting = new CountDownLatch(1);
+    final ExecutorService executor = Executors.newFixedThreadPool(nbRequests);
+    try {
+      List<Future<PortletFragment>> results = new ArrayList<>();
+      for (int i = 0; i < nbRequests; i++) {
+        results.add(executor.submit(() -> cache.render(keyOf(SHARED_PORTLET, user), () -> {
+          waiting.await(5, TimeUnit.SECONDS);
+          return renderFragment();
+        })));
+      }
+      Thread.sleep(200);
+      waiting.countDown();
+      for (Future<PortletFragment> result : results) {
+        assertThat(result.get(5, TimeUnit.SECONDS).getMarkup(), is("<p>1</p>"));
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    assertThat(nbRenderings.get(), is(1));
+    PortletFragmentCache.Statistics statistics = cache.getStatistics().get(SHARED_PORTLET);
+    assertThat(statistics.getMisses(), is(1L));
+    assertThat(statistics.getHits(), is((long) nbRequests - 1));
+  }
+
+  private PortletFragmentKey keyOf(final String portlet, final User user) {
+    return cache.getKey(portlet, window, PortletFragmentCache.spaceContext("1"), preferences,
+        user);
+  }
+
+  private PortletFragment renderFragment() {
+    return new PortletFragment("<p>" + nbRenderings.incrementAndGet() + "</p>", "Title", true);
+  }
+
+  private User aUser(final String id, final String... componentIds) {
+    User user = mock(User.class);
+    UserPreferences preferences = mock(UserPreferences.class);
+    when(preferences.getLanguage()).thenReturn("fr");
+    when(user.getId()).thenReturn(id);
+    when(user.getAccessLevel()).thenReturn(UserAccessLevel.USER);
+    when(user.getUserPreferences()).thenReturn(preferences);
+    rights.put(id, componentIds);
+    return user;
+  }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright (C) 2000 - 2018 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.webapi.attachment;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.silverpeas.core.webapi.attachment.AbstractAttachmentResource.getUniqueEntryName;
+
+/**
+ * Unit tests on the names of the attachments in the zip archives streamed to the clients.
+ */
+public class ZipEntryNameTest {
+
+  @Test
+  public void distinctFileNamesAreKeptAsIs() {
+    Set<String> names = new HashSet<>();
+    assertThat(getUniqueEntryName("report.pdf", names), is("report.pdf"));
+    assertThat(getUniqueEntryName("report.odt", names), is("report.odt"));
+  }
+
+  @Test
+  public void sameFileNamesAreSuffixedWithACounter() {
+    Set<String> names = new HashSet<>();
+    assertThat(getUniqueEntryName("report.pdf", names), is("report.pdf"));
+    assertThat(getUniqueEntryName("report.pdf", names), is("report (2).pdf"));
+    assertThat(getUniqueEntryName("Report.PDF", names), is("Report (3).PDF"));
+    assertThat(getUniqueEntryName("report (2).pdf", names), is("report (2) (2).pdf"));
+  }
+
+  @Test
+  public void sameFileNamesWithoutExtensionAreSuffixedWithACounter() {
+    Set<String> names = new HashSet<>();
+    assertThat(getUniqueEntryName("README", names), is("README"));
+    assertThat(getUniqueEntryName("README", names), is("README (2)"));
+  }
+}